@@ -0,0 +1,199 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import com.gazbert.crypto.strategy.api.StrategyConfig;
+import com.gazbert.crypto.strategy.api.StrategyException;
+import com.gazbert.crypto.strategy.api.TradingStrategy;
+import com.gazbert.crypto.trading.api.Market;
+import com.google.common.base.MoreObjects;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Replays a market history through a Trading Strategy.
+ *
+ * <p>The strategy is initialised with a {@link ReplayTradingApi} once the first snapshot has been
+ * replayed, and then executed once per snapshot, as the Trading Engine would execute it once per
+ * trade cycle. There is no waiting between cycles: the simulated time moves straight on to the
+ * next snapshot's timestamp, so a year of minute snapshots replays in seconds, depending on the
+ * strategy. If the strategy throws a {@link StrategyException}, the run stops there, as the Trading
+ * Engine would shut down.
+ *
+ * <p>A backtest is immutable; each {@link #run} starts from the opening balances with its own
+ * Trading API, so runs are independent and can be made in parallel over the same history.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class Backtest {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final BigDecimal ONE_HUNDRED = new BigDecimal("100");
+  private static final int PERCENTAGE_SCALE = 4;
+
+  private final MarketHistory marketHistory;
+  private final Market market;
+  private final BigDecimal buyFeePercentage;
+  private final BigDecimal sellFeePercentage;
+  private final BigDecimal quoteQuantity;
+  private final Map<String, BigDecimal> openingBalances;
+
+  /**
+   * Creates a new Backtest.
+   *
+   * @param marketHistory the recorded market data; it must have at least 1 snapshot.
+   * @param market the market the history was recorded on.
+   * @param buyFeePercentage the buy fee as a fraction of the trade value, e.g. 0.0025 for 0.25%.
+   * @param sellFeePercentage the sell fee as a fraction of the trade value.
+   * @param quoteQuantity the quantity quoted at each snapshot's bid and ask.
+   * @param openingBalances the strategy's balances at the start of each run, by currency.
+   */
+  public Backtest(
+      MarketHistory marketHistory,
+      Market market,
+      BigDecimal buyFeePercentage,
+      BigDecimal sellFeePercentage,
+      BigDecimal quoteQuantity,
+      Map<String, BigDecimal> openingBalances) {
+    if (marketHistory.size() == 0) {
+      throw new IllegalArgumentException("Market history is empty for market: " + market.getId());
+    }
+    this.marketHistory = marketHistory;
+    this.market = market;
+    this.buyFeePercentage = buyFeePercentage;
+    this.sellFeePercentage = sellFeePercentage;
+    this.quoteQuantity = quoteQuantity;
+    this.openingBalances = Collections.unmodifiableMap(new LinkedHashMap<>(openingBalances));
+  }
+
+  /**
+   * Runs the strategy over the whole market history.
+   *
+   * @param strategy a new strategy instance; it is initialised by the run.
+   * @param strategyConfig the strategy's config items.
+   * @return the report for the run.
+   */
+  public BacktestReport run(TradingStrategy strategy, StrategyConfig strategyConfig) {
+    final long runStart = System.nanoTime();
+
+    final ReplayTradingApi tradingApi =
+        new ReplayTradingApi(
+            marketHistory, market, buyFeePercentage, sellFeePercentage, quoteQuantity);
+    for (final Map.Entry<String, BigDecimal> balance : openingBalances.entrySet()) {
+      tradingApi.deposit(balance.getKey(), balance.getValue());
+    }
+
+    tradingApi.replay(0);
+    strategy.init(tradingApi, market, strategyConfig);
+
+    final BigDecimal openingEquity = tradingApi.getEquity();
+    BigDecimal equity = openingEquity;
+    BigDecimal peakEquity = openingEquity;
+    BigDecimal maxDrawdown = BigDecimal.ZERO;
+    BigDecimal maxDrawdownPercentage = BigDecimal.ZERO;
+    String stopReason = null;
+
+    int snapshot = 0;
+    while (snapshot < marketHistory.size()) {
+      if (snapshot > 0) {
+        tradingApi.replay(snapshot);
+      }
+      try {
+        strategy.execute();
+      } catch (StrategyException e) {
+        stopReason = e.getMessage();
+        LOG.warn(() -> "Strategy stopped the backtest at " + tradingApi.getSimulatedTime(), e);
+      }
+
+      equity = tradingApi.getEquity();
+      if (equity.compareTo(peakEquity) > 0) {
+        peakEquity = equity;
+      } else {
+        final BigDecimal drawdown = peakEquity.subtract(equity);
+        maxDrawdown = maxDrawdown.max(drawdown);
+        if (peakEquity.signum() > 0) {
+          maxDrawdownPercentage =
+              maxDrawdownPercentage.max(
+                  drawdown
+                      .multiply(ONE_HUNDRED)
+                      .divide(peakEquity, PERCENTAGE_SCALE, RoundingMode.HALF_UP));
+        }
+      }
+
+      snapshot++;
+      if (stopReason != null) {
+        break;
+      }
+    }
+
+    final BacktestReport report =
+        new BacktestReport(
+            market.getId(),
+            snapshot,
+            marketHistory.getTimestamp(0),
+            tradingApi.getSimulatedTime(),
+            openingEquity,
+            equity,
+            maxDrawdown,
+            maxDrawdownPercentage,
+            tradingApi.getTrades(),
+            stopReason);
+    LOG.info(
+        () ->
+            "Backtest replayed "
+                + report.getTradeCycles()
+                + " snapshots in "
+                + (System.nanoTime() - runStart) / 1_000_000
+                + "ms: "
+                + report);
+    return report;
+  }
+
+  public MarketHistory getMarketHistory() {
+    return marketHistory;
+  }
+
+  public Market getMarket() {
+    return market;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("marketHistory", marketHistory)
+        .add("market", market)
+        .add("buyFeePercentage", buyFeePercentage)
+        .add("sellFeePercentage", sellFeePercentage)
+        .add("quoteQuantity", quoteQuantity)
+        .add("openingBalances", openingBalances)
+        .toString();
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import com.gazbert.crypto.trading.api.Market;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+
+/**
+ * The market a backtest trades on.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class BacktestMarket implements Market {
+
+  private final String name;
+  private String id;
+  private final String baseCurrency;
+  private final String counterCurrency;
+
+  /**
+   * Creates a new BacktestMarket.
+   *
+   * @param name the market name.
+   * @param id the market id, e.g. btcusd
+   * @param baseCurrency the currency being bought and sold, e.g. BTC
+   * @param counterCurrency the currency prices are in, e.g. USD
+   */
+  public BacktestMarket(String name, String id, String baseCurrency, String counterCurrency) {
+    this.name = name;
+    this.id = id;
+    this.baseCurrency = baseCurrency;
+    this.counterCurrency = counterCurrency;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public String getBaseCurrency() {
+    return baseCurrency;
+  }
+
+  @Override
+  public String getCounterCurrency() {
+    return counterCurrency;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    BacktestMarket market = (BacktestMarket) o;
+    return Objects.equal(id, market.id);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(id);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("name", name)
+        .add("id", id)
+        .add("baseCurrency", baseCurrency)
+        .add("counterCurrency", counterCurrency)
+        .toString();
+  }
+}
@@ -0,0 +1,226 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import com.gazbert.crypto.exchanges.tickstore.TickStore;
+import com.gazbert.crypto.strategy.api.TradingStrategy;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The {@code name=value} command line options shared by the backtest runners.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+final class BacktestOptions {
+
+  static final String HISTORY_OPTION = "history";
+  static final String STRATEGY_OPTION = "strategy";
+  static final String MARKET_ID_OPTION = "market-id";
+  static final String BASE_CURRENCY_OPTION = "base-currency";
+  static final String COUNTER_CURRENCY_OPTION = "counter-currency";
+  static final String BUY_FEE_OPTION = "buy-fee";
+  static final String SELL_FEE_OPTION = "sell-fee";
+  static final String BALANCES_OPTION = "balances";
+  static final String QUOTE_QUANTITY_OPTION = "quote-quantity";
+  static final String FROM_OPTION = "from";
+  static final String TO_OPTION = "to";
+
+  private static final String STRATEGY_ITEM_PREFIX = "strategy.";
+  private static final String SWEEP_ITEM_PREFIX = "sweep.";
+  private static final String COLUMNS_SUFFIX = ".columns";
+
+  private static final String DEFAULT_QUOTE_QUANTITY = "1000";
+
+  private final Map<String, String> options = new LinkedHashMap<>();
+  private final Map<String, String> strategyItems = new LinkedHashMap<>();
+  private final Map<String, String> sweepItems = new LinkedHashMap<>();
+
+  /**
+   * Parses the options.
+   *
+   * @param args the command line arguments.
+   * @throws IllegalArgumentException if an argument is not a name=value option.
+   */
+  BacktestOptions(String[] args) {
+    for (final String arg : args) {
+      final int separator = arg.indexOf('=');
+      if (separator < 1) {
+        throw new IllegalArgumentException("Expected a name=value option: " + arg);
+      }
+      final String name = arg.substring(0, separator);
+      final String value = arg.substring(separator + 1);
+      if (name.startsWith(STRATEGY_ITEM_PREFIX)) {
+        strategyItems.put(name.substring(STRATEGY_ITEM_PREFIX.length()), value);
+      } else if (name.startsWith(SWEEP_ITEM_PREFIX)) {
+        sweepItems.put(name.substring(SWEEP_ITEM_PREFIX.length()), value);
+      } else {
+        options.put(name, value);
+      }
+    }
+  }
+
+  /**
+   * Returns a required option.
+   *
+   * @param name the option name.
+   * @return the option value.
+   * @throws IllegalArgumentException if the option is missing.
+   */
+  String get(String name) {
+    final String value = options.get(name);
+    if (value == null || value.isBlank()) {
+      throw new IllegalArgumentException("Missing backtest option: " + name);
+    }
+    return value;
+  }
+
+  String get(String name, String defaultValue) {
+    return options.getOrDefault(name, defaultValue);
+  }
+
+  /**
+   * Returns the strategy config items, i.e. the strategy.&lt;item&gt; options.
+   *
+   * @return the strategy config items.
+   */
+  Map<String, String> getStrategyItems() {
+    return Collections.unmodifiableMap(strategyItems);
+  }
+
+  /**
+   * Returns the swept strategy config items, i.e. the sweep.&lt;item&gt; options.
+   *
+   * @return the ranges of the swept config items.
+   */
+  Map<String, String> getSweepItems() {
+    return Collections.unmodifiableMap(sweepItems);
+  }
+
+  /**
+   * Creates the backtest from the market, fee, balance and history options.
+   *
+   * @param mapped true to map the history, converting a CSV history to column files the first time.
+   * @return the backtest.
+   * @throws IOException if the market history cannot be read.
+   */
+  Backtest createBacktest(boolean mapped) throws IOException {
+    final BacktestMarket market =
+        new BacktestMarket(
+            get(MARKET_ID_OPTION),
+            get(MARKET_ID_OPTION),
+            get(BASE_CURRENCY_OPTION),
+            get(COUNTER_CURRENCY_OPTION));
+    return new Backtest(
+        loadHistory(Paths.get(get(HISTORY_OPTION)), mapped),
+        market,
+        toFeePercentage(get(BUY_FEE_OPTION)),
+        toFeePercentage(get(SELL_FEE_OPTION)),
+        new BigDecimal(get(QUOTE_QUANTITY_OPTION, DEFAULT_QUOTE_QUANTITY)),
+        parseBalances(options.get(BALANCES_OPTION)));
+  }
+
+  /**
+   * Returns a factory for new instances of the strategy class.
+   *
+   * @return the strategy factory.
+   * @throws ReflectiveOperationException if the strategy cannot be created.
+   */
+  Supplier<TradingStrategy> createStrategyFactory() throws ReflectiveOperationException {
+    final Constructor<? extends TradingStrategy> constructor =
+        Class.forName(get(STRATEGY_OPTION))
+            .asSubclass(TradingStrategy.class)
+            .getDeclaredConstructor();
+    constructor.newInstance(); // fail fast
+    return () -> {
+      try {
+        return constructor.newInstance();
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException("Failed to create strategy: " + constructor, e);
+      }
+    };
+  }
+
+  // --------------------------------------------------------------------------
+  //  Util methods
+  // --------------------------------------------------------------------------
+
+  /*
+   * A directory is mapped as column files, from and to the times given. A CSV file is loaded, or
+   * converted to a <file>.columns directory next to it and mapped; the conversion is redone if the
+   * CSV file is newer.
+   */
+  private MarketHistory loadHistory(Path history, boolean mapped) throws IOException {
+    if (Files.isDirectory(history)) {
+      return MappedMarketHistory.open(
+          history,
+          Long.parseLong(get(FROM_OPTION, "0")),
+          Long.parseLong(get(TO_OPTION, String.valueOf(Long.MAX_VALUE))));
+    }
+    if (!mapped) {
+      return CsvMarketHistory.load(history);
+    }
+    final Path columns = history.resolveSibling(history.getFileName() + COLUMNS_SUFFIX);
+    final Path timestampColumn = columns.resolve(TickStore.TIMESTAMP_COLUMN);
+    if (!Files.exists(timestampColumn)
+        || Files.getLastModifiedTime(timestampColumn)
+                .compareTo(Files.getLastModifiedTime(history))
+            < 0) {
+      MappedMarketHistory.write(CsvMarketHistory.load(history), columns);
+    }
+    return MappedMarketHistory.open(columns);
+  }
+
+  private static BigDecimal toFeePercentage(String fee) {
+    return new BigDecimal(fee).divide(new BigDecimal("100"), 8, RoundingMode.HALF_UP);
+  }
+
+  /*
+   * Parses a comma separated list of currency=amount entries, e.g. USD=1000,BTC=0.5
+   */
+  private static Map<String, BigDecimal> parseBalances(String balances) {
+    final Map<String, BigDecimal> openingBalances = new LinkedHashMap<>();
+    if (balances == null || balances.isBlank()) {
+      return openingBalances;
+    }
+    for (final String entry : balances.split(",")) {
+      final String[] currencyAndAmount = entry.split("=");
+      if (currencyAndAmount.length != 2) {
+        throw new IllegalArgumentException("Invalid " + BALANCES_OPTION + " entry: " + entry);
+      }
+      openingBalances.put(currencyAndAmount[0].trim(), new BigDecimal(currencyAndAmount[1].trim()));
+    }
+    return openingBalances;
+  }
+}
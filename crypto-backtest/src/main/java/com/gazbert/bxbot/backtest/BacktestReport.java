@@ -0,0 +1,228 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import com.gazbert.crypto.exchanges.simulator.Trade;
+import com.gazbert.crypto.trading.api.OrderType;
+import com.google.common.base.MoreObjects;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * The results of a backtest run: the strategy's trades, its profit and loss, and its maximum
+ * drawdown.
+ *
+ * <p>Equity is the strategy's counter currency plus its base currency valued at the last price,
+ * including funds held against open orders. It is measured after each trade cycle. The drawdown is
+ * the fall in equity from its highest point so far.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class BacktestReport {
+
+  private static final BigDecimal ONE_HUNDRED = new BigDecimal("100");
+  private static final int PERCENTAGE_SCALE = 4;
+  private static final String TRADE_LOG_HEADER =
+      "timestamp,order_id,type,price,quantity,fee,taker";
+
+  private final String marketId;
+  private final int tradeCycles;
+  private final long startTime;
+  private final long endTime;
+  private final BigDecimal openingEquity;
+  private final BigDecimal closingEquity;
+  private final BigDecimal maxDrawdown;
+  private final BigDecimal maxDrawdownPercentage;
+  private final List<Trade> trades;
+  private final String stopReason;
+
+  /**
+   * Creates a new BacktestReport.
+   *
+   * @param marketId the market id.
+   * @param tradeCycles the number of times the strategy was executed.
+   * @param startTime the time of the first snapshot, in millis since the epoch.
+   * @param endTime the time of the last snapshot replayed.
+   * @param openingEquity the equity before the first trade cycle.
+   * @param closingEquity the equity after the last trade cycle.
+   * @param maxDrawdown the largest fall in equity from a high.
+   * @param maxDrawdownPercentage the largest fall in equity from a high, as a percentage of it.
+   * @param trades the strategy's trades, oldest first.
+   * @param stopReason why the run stopped before the end of the history, or null if it did not.
+   */
+  BacktestReport(
+      String marketId,
+      int tradeCycles,
+      long startTime,
+      long endTime,
+      BigDecimal openingEquity,
+      BigDecimal closingEquity,
+      BigDecimal maxDrawdown,
+      BigDecimal maxDrawdownPercentage,
+      List<Trade> trades,
+      String stopReason) {
+    this.marketId = marketId;
+    this.tradeCycles = tradeCycles;
+    this.startTime = startTime;
+    this.endTime = endTime;
+    this.openingEquity = openingEquity;
+    this.closingEquity = closingEquity;
+    this.maxDrawdown = maxDrawdown;
+    this.maxDrawdownPercentage = maxDrawdownPercentage;
+    this.trades = List.copyOf(trades);
+    this.stopReason = stopReason;
+  }
+
+  public String getMarketId() {
+    return marketId;
+  }
+
+  public int getTradeCycles() {
+    return tradeCycles;
+  }
+
+  public long getStartTime() {
+    return startTime;
+  }
+
+  public long getEndTime() {
+    return endTime;
+  }
+
+  public BigDecimal getOpeningEquity() {
+    return openingEquity;
+  }
+
+  public BigDecimal getClosingEquity() {
+    return closingEquity;
+  }
+
+  public BigDecimal getProfitAndLoss() {
+    return closingEquity.subtract(openingEquity);
+  }
+
+  /**
+   * Returns the profit and loss as a percentage of the opening equity.
+   *
+   * @return the return percentage, or zero if the opening equity is zero.
+   */
+  public BigDecimal getReturnPercentage() {
+    if (openingEquity.signum() == 0) {
+      return BigDecimal.ZERO;
+    }
+    return getProfitAndLoss()
+        .multiply(ONE_HUNDRED)
+        .divide(openingEquity, PERCENTAGE_SCALE, RoundingMode.HALF_UP);
+  }
+
+  public BigDecimal getMaxDrawdown() {
+    return maxDrawdown;
+  }
+
+  public BigDecimal getMaxDrawdownPercentage() {
+    return maxDrawdownPercentage;
+  }
+
+  public List<Trade> getTrades() {
+    return trades;
+  }
+
+  /**
+   * Returns the fees the strategy paid.
+   *
+   * @return the total fees, in counter currency.
+   */
+  public BigDecimal getFeesPaid() {
+    BigDecimal feesPaid = BigDecimal.ZERO;
+    for (final Trade trade : trades) {
+      feesPaid = feesPaid.add(fee(trade));
+    }
+    return feesPaid;
+  }
+
+  /**
+   * Returns why the run stopped before the end of the market history.
+   *
+   * @return the StrategyException message, or null if the whole history was replayed.
+   */
+  public String getStopReason() {
+    return stopReason;
+  }
+
+  /**
+   * Writes the strategy's trades as CSV, oldest first, one line per fill.
+   *
+   * @param writer where to write the trade log; it is not closed.
+   * @throws IOException if the trade log cannot be written.
+   */
+  public void writeTradeLog(Writer writer) throws IOException {
+    writer.write(TRADE_LOG_HEADER);
+    writer.write(System.lineSeparator());
+    for (final Trade trade : trades) {
+      final OrderType orderType = isBuy(trade) ? OrderType.BUY : OrderType.SELL;
+      writer.write(
+          String.join(
+              ",",
+              String.valueOf(trade.getTimestamp()),
+              orderType == OrderType.BUY ? trade.getBuyOrderId() : trade.getSellOrderId(),
+              orderType.name(),
+              trade.getPrice().toPlainString(),
+              trade.getQuantity().toPlainString(),
+              fee(trade).toPlainString(),
+              String.valueOf(trade.getTakerType() == orderType)));
+      writer.write(System.lineSeparator());
+    }
+  }
+
+  private static boolean isBuy(Trade trade) {
+    return ReplayTradingApi.ACCOUNT_ID.equals(trade.getBuyerAccountId());
+  }
+
+  private static BigDecimal fee(Trade trade) {
+    return isBuy(trade) ? trade.getBuyerFee() : trade.getSellerFee();
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("marketId", marketId)
+        .add("tradeCycles", tradeCycles)
+        .add("startTime", startTime)
+        .add("endTime", endTime)
+        .add("openingEquity", openingEquity)
+        .add("closingEquity", closingEquity)
+        .add("profitAndLoss", getProfitAndLoss())
+        .add("returnPercentage", getReturnPercentage())
+        .add("maxDrawdown", maxDrawdown)
+        .add("maxDrawdownPercentage", maxDrawdownPercentage)
+        .add("trades", trades.size())
+        .add("feesPaid", getFeesPaid())
+        .add("stopReason", stopReason)
+        .toString();
+  }
+}
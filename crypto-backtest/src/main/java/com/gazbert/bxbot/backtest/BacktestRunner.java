@@ -0,0 +1,109 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Runs a backtest from the command line.
+ *
+ * <p>The options are {@code name=value} arguments:
+ *
+ * <ul>
+ *   <li>{@code history} - the market history: a CSV file, see {@link CsvMarketHistory}, or a
+ *       directory of column files, see {@link MappedMarketHistory}, such as a market recorded to a
+ *       tick store by the Trading Engine. Required.
+ *   <li>{@code from}, {@code to} - the time range of a directory history to replay, in millis since
+ *       the epoch; from is inclusive and to is exclusive. Defaults to the whole history.
+ *   <li>{@code strategy} - the fully qualified name of the Trading Strategy class. Required.
+ *   <li>{@code market-id}, {@code base-currency}, {@code counter-currency} - the market the history
+ *       was recorded on, e.g. btcusd, BTC and USD. Required.
+ *   <li>{@code buy-fee}, {@code sell-fee} - the exchange fees in %, e.g. 0.25. Required.
+ *   <li>{@code balances} - the strategy's opening balances, e.g. USD=1000,BTC=0.5
+ *   <li>{@code quote-quantity} - the quantity quoted at each recorded bid and ask. Defaults to
+ *       1000.
+ *   <li>{@code trade-log} - a file to write the strategy's trades to as CSV.
+ *   <li>{@code strategy.<item>} - a strategy config item, e.g.
+ *       strategy.minimum-percentage-gain=2
+ * </ul>
+ *
+ * <p>The report is printed to stdout once the run finishes.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class BacktestRunner {
+
+  private static final String TRADE_LOG_OPTION = "trade-log";
+
+  private BacktestRunner() {
+  }
+
+  /**
+   * Runs a backtest.
+   *
+   * @param args the backtest options, e.g. history=btcusd.csv strategy=com.example.MyStrategy
+   * @throws IOException if the market history cannot be read or the trade log cannot be written.
+   * @throws ReflectiveOperationException if the strategy cannot be created.
+   */
+  public static void main(String[] args) throws IOException, ReflectiveOperationException {
+    final BacktestReport report = run(args);
+    System.out.println(report);
+  }
+
+  /**
+   * Runs a backtest, writing the trade log if one is asked for.
+   *
+   * @param args the backtest options.
+   * @return the report.
+   * @throws IOException if the market history cannot be read or the trade log cannot be written.
+   * @throws ReflectiveOperationException if the strategy cannot be created.
+   * @throws IllegalArgumentException if an option is missing or invalid.
+   */
+  static BacktestReport run(String[] args) throws IOException, ReflectiveOperationException {
+    final BacktestOptions options = new BacktestOptions(args);
+    final Backtest backtest = options.createBacktest(false);
+    final BacktestReport report =
+        backtest.run(
+            options.createStrategyFactory().get(),
+            new BacktestStrategyConfig(options.getStrategyItems()));
+
+    final String tradeLog = options.get(TRADE_LOG_OPTION, null);
+    if (tradeLog != null) {
+      final Path tradeLogFile = Paths.get(tradeLog);
+      if (tradeLogFile.getParent() != null) {
+        Files.createDirectories(tradeLogFile.getParent());
+      }
+      try (Writer writer = Files.newBufferedWriter(tradeLogFile, StandardCharsets.UTF_8)) {
+        report.writeTradeLog(writer);
+      }
+    }
+    return report;
+  }
+}
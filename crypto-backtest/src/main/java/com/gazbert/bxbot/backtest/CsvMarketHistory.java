@@ -0,0 +1,192 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import com.google.common.base.MoreObjects;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A market history loaded into memory from a CSV file.
+ *
+ * <p>Each line is a snapshot: {@code timestamp,bid,ask,last,volume}, with the timestamp in millis
+ * since the epoch. A header line starting with {@code timestamp} and lines starting with {@code #}
+ * are skipped. For example:
+ *
+ * <pre>
+ * timestamp,bid,ask,last,volume
+ * 1577836800000,7195.24,7196.25,7195.24,4.74
+ * 1577836860000,7190.11,7191.88,7191.88,3.02
+ * </pre>
+ *
+ * <p>The snapshots are held in columns, one array per field. The history is immutable once loaded,
+ * so it can be shared between backtests.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class CsvMarketHistory implements MarketHistory {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final String HEADER_PREFIX = "timestamp";
+  private static final String COMMENT_PREFIX = "#";
+  private static final int FIELD_COUNT = 5;
+
+  private final long[] timestamps;
+  private final BigDecimal[] bids;
+  private final BigDecimal[] asks;
+  private final BigDecimal[] lasts;
+  private final BigDecimal[] volumes;
+
+  private CsvMarketHistory(
+      long[] timestamps,
+      BigDecimal[] bids,
+      BigDecimal[] asks,
+      BigDecimal[] lasts,
+      BigDecimal[] volumes) {
+    this.timestamps = timestamps;
+    this.bids = bids;
+    this.asks = asks;
+    this.lasts = lasts;
+    this.volumes = volumes;
+  }
+
+  /**
+   * Loads a market history from a CSV file.
+   *
+   * @param csvFile the file to load.
+   * @return the market history.
+   * @throws IOException if the file cannot be read.
+   * @throws IllegalArgumentException if a line is not a valid snapshot, a bid is not below its ask,
+   *     or the timestamps go backwards.
+   */
+  public static CsvMarketHistory load(Path csvFile) throws IOException {
+    final List<Long> timestamps = new ArrayList<>();
+    final List<BigDecimal> bids = new ArrayList<>();
+    final List<BigDecimal> asks = new ArrayList<>();
+    final List<BigDecimal> lasts = new ArrayList<>();
+    final List<BigDecimal> volumes = new ArrayList<>();
+
+    try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
+      int lineNumber = 0;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith(COMMENT_PREFIX) || line.startsWith(HEADER_PREFIX)) {
+          continue;
+        }
+
+        final String[] fields = line.split(",");
+        if (fields.length != FIELD_COUNT) {
+          throw invalidLine(csvFile, lineNumber, "expected " + FIELD_COUNT + " fields", null);
+        }
+        try {
+          final long timestamp = Long.parseLong(fields[0].trim());
+          final BigDecimal bid = new BigDecimal(fields[1].trim());
+          final BigDecimal ask = new BigDecimal(fields[2].trim());
+          if (!timestamps.isEmpty() && timestamp < timestamps.get(timestamps.size() - 1)) {
+            throw invalidLine(csvFile, lineNumber, "timestamp goes backwards", null);
+          }
+          if (bid.signum() <= 0 || bid.compareTo(ask) >= 0) {
+            throw invalidLine(csvFile, lineNumber, "bid must be positive and below the ask", null);
+          }
+          timestamps.add(timestamp);
+          bids.add(bid);
+          asks.add(ask);
+          lasts.add(new BigDecimal(fields[3].trim()));
+          volumes.add(new BigDecimal(fields[4].trim()));
+        } catch (NumberFormatException e) {
+          throw invalidLine(csvFile, lineNumber, "invalid number", e);
+        }
+      }
+    }
+
+    final CsvMarketHistory marketHistory =
+        new CsvMarketHistory(
+            timestamps.stream().mapToLong(Long::longValue).toArray(),
+            bids.toArray(new BigDecimal[0]),
+            asks.toArray(new BigDecimal[0]),
+            lasts.toArray(new BigDecimal[0]),
+            volumes.toArray(new BigDecimal[0]));
+    LOG.info(() -> "Loaded " + marketHistory.size() + " snapshots from " + csvFile);
+    return marketHistory;
+  }
+
+  @Override
+  public int size() {
+    return timestamps.length;
+  }
+
+  @Override
+  public long getTimestamp(int index) {
+    return timestamps[index];
+  }
+
+  @Override
+  public BigDecimal getBid(int index) {
+    return bids[index];
+  }
+
+  @Override
+  public BigDecimal getAsk(int index) {
+    return asks[index];
+  }
+
+  @Override
+  public BigDecimal getLast(int index) {
+    return lasts[index];
+  }
+
+  @Override
+  public BigDecimal getVolume(int index) {
+    return volumes[index];
+  }
+
+  private static IllegalArgumentException invalidLine(
+      Path csvFile, int lineNumber, String reason, Exception cause) {
+    final String errorMsg =
+        "Invalid market history line " + csvFile + ":" + lineNumber + " - " + reason;
+    LOG.error(errorMsg);
+    return new IllegalArgumentException(errorMsg, cause);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("size", size())
+        .add("from", timestamps.length == 0 ? null : timestamps[0])
+        .add("to", timestamps.length == 0 ? null : timestamps[timestamps.length - 1])
+        .toString();
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import com.gazbert.crypto.exchanges.tickstore.TickReader;
+import com.gazbert.crypto.exchanges.tickstore.TickStore;
+import com.google.common.base.MoreObjects;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntToLongFunction;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A market history memory-mapped from column files.
+ *
+ * <p>The history is a market directory of a {@link TickStore}: one file per field, {@code
+ * timestamp.col}, {@code bid.col}, {@code ask.col}, {@code last.col} and {@code volume.col}, each
+ * holding the field's values as big-endian longs, one per snapshot. Timestamps are millis since
+ * the epoch, and prices and volumes are scaled by 10^{@value #SCALE}. The ticks recorded from a
+ * live run by a {@link com.gazbert.crypto.exchanges.tickstore.TickRecorder} can be opened as is.
+ *
+ * <p>The files are mapped read-only by a {@link TickReader}, so the snapshots are not copied onto
+ * the heap and every backtest reading the history shares the same pages of the OS page cache. The
+ * history is safe to read from many threads at once. A column is limited to {@link
+ * Integer#MAX_VALUE} bytes, i.e. about 268 million snapshots.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class MappedMarketHistory implements MarketHistory {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  /** The number of decimal places prices and volumes are stored to. */
+  public static final int SCALE = TickStore.SCALE;
+
+  private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+  private final TickReader ticks;
+
+  private MappedMarketHistory(TickReader ticks) {
+    this.ticks = ticks;
+  }
+
+  /**
+   * Maps a market history directory.
+   *
+   * @param directory the directory holding the column files.
+   * @return the market history.
+   * @throws IOException if a column file cannot be mapped.
+   * @throws IllegalArgumentException if a column is shorter than the timestamps.
+   */
+  public static MappedMarketHistory open(Path directory) throws IOException {
+    return new MappedMarketHistory(TickReader.open(directory));
+  }
+
+  /**
+   * Maps the snapshots in a time range of a market history directory.
+   *
+   * @param directory the directory holding the column files.
+   * @param fromTimestamp the start of the range, inclusive, in millis since the epoch.
+   * @param toTimestamp the end of the range, exclusive, in millis since the epoch.
+   * @return the market history.
+   * @throws IOException if a column file cannot be mapped.
+   * @throws IllegalArgumentException if a column is shorter than the timestamps.
+   */
+  public static MappedMarketHistory open(Path directory, long fromTimestamp, long toTimestamp)
+      throws IOException {
+    return new MappedMarketHistory(
+        TickReader.open(directory).range(fromTimestamp, toTimestamp));
+  }
+
+  /**
+   * Writes a market history as column files, e.g. to convert a CSV history once so it can be
+   * mapped by every backtest after. Any existing column files are replaced.
+   *
+   * @param marketHistory the history to write.
+   * @param directory the directory to write the column files to; it is created if needed.
+   * @throws IOException if a column file cannot be written.
+   * @throws IllegalArgumentException if a timestamp is not positive; the tick store reads a zero
+   *     timestamp as the end of the samples.
+   */
+  public static void write(MarketHistory marketHistory, Path directory) throws IOException {
+    final int size = marketHistory.size();
+    if (size > 0 && marketHistory.getTimestamp(0) <= 0) {
+      final String errorMsg =
+          "Market history timestamps must be positive: " + marketHistory.getTimestamp(0);
+      LOG.error(errorMsg);
+      throw new IllegalArgumentException(errorMsg);
+    }
+    Files.createDirectories(directory);
+    final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+    writeColumn(
+        directory.resolve(TickStore.TIMESTAMP_COLUMN), size, buffer, marketHistory::getTimestamp);
+    writeColumn(
+        directory.resolve(TickStore.BID_COLUMN),
+        size,
+        buffer,
+        i -> TickStore.toScaledLong(marketHistory.getBid(i)));
+    writeColumn(
+        directory.resolve(TickStore.ASK_COLUMN),
+        size,
+        buffer,
+        i -> TickStore.toScaledLong(marketHistory.getAsk(i)));
+    writeColumn(
+        directory.resolve(TickStore.LAST_COLUMN),
+        size,
+        buffer,
+        i -> TickStore.toScaledLong(marketHistory.getLast(i)));
+    writeColumn(
+        directory.resolve(TickStore.VOLUME_COLUMN),
+        size,
+        buffer,
+        i -> TickStore.toScaledLong(marketHistory.getVolume(i)));
+    LOG.info(() -> "Wrote " + marketHistory.size() + " snapshots to " + directory);
+  }
+
+  @Override
+  public int size() {
+    return ticks.size();
+  }
+
+  @Override
+  public long getTimestamp(int index) {
+    return ticks.getTimestamp(index);
+  }
+
+  @Override
+  public BigDecimal getBid(int index) {
+    return TickStore.fromScaledLong(ticks.getBid(index));
+  }
+
+  @Override
+  public BigDecimal getAsk(int index) {
+    return TickStore.fromScaledLong(ticks.getAsk(index));
+  }
+
+  @Override
+  public BigDecimal getLast(int index) {
+    return TickStore.fromScaledLong(ticks.getLast(index));
+  }
+
+  @Override
+  public BigDecimal getVolume(int index) {
+    return TickStore.fromScaledLong(ticks.getVolume(index));
+  }
+
+  // --------------------------------------------------------------------------
+  //  Util methods
+  // --------------------------------------------------------------------------
+
+  private static void writeColumn(
+      Path columnFile, int size, ByteBuffer buffer, IntToLongFunction values) throws IOException {
+    try (FileChannel channel =
+        FileChannel.open(
+            columnFile,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+      buffer.clear();
+      for (int i = 0; i < size; i++) {
+        if (!buffer.hasRemaining()) {
+          flush(channel, buffer);
+        }
+        buffer.putLong(values.applyAsLong(i));
+      }
+      flush(channel, buffer);
+    }
+  }
+
+  private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("ticks", ticks)
+        .toString();
+  }
+}
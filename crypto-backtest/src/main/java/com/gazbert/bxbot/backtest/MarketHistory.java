@@ -0,0 +1,86 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import java.math.BigDecimal;
+
+/**
+ * A market's recorded snapshots, oldest first, for a backtest to replay.
+ *
+ * <p>Each snapshot is the market's best bid and ask, last trade price and trading volume at a point
+ * in time. Snapshots are read by index so a history can be stored in columns, and implementations
+ * must be safe to read from many backtests at once.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public interface MarketHistory {
+
+  /**
+   * Returns the number of snapshots.
+   *
+   * @return the number of snapshots.
+   */
+  int size();
+
+  /**
+   * Returns the time of a snapshot.
+   *
+   * @param index the snapshot index, from 0 to size() - 1.
+   * @return the time in millis since the epoch. Times never go backwards.
+   */
+  long getTimestamp(int index);
+
+  /**
+   * Returns the best bid price of a snapshot.
+   *
+   * @param index the snapshot index.
+   * @return the highest BUY order price.
+   */
+  BigDecimal getBid(int index);
+
+  /**
+   * Returns the best ask price of a snapshot.
+   *
+   * @param index the snapshot index.
+   * @return the lowest SELL order price.
+   */
+  BigDecimal getAsk(int index);
+
+  /**
+   * Returns the last trade price of a snapshot.
+   *
+   * @param index the snapshot index.
+   * @return the last trade price.
+   */
+  BigDecimal getLast(int index);
+
+  /**
+   * Returns the trading volume of a snapshot.
+   *
+   * @param index the snapshot index.
+   * @return the volume, as reported by the exchange's ticker.
+   */
+  BigDecimal getVolume(int index);
+}
@@ -0,0 +1,113 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import com.google.common.base.MoreObjects;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The values a strategy config item is swept through.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class ParameterRange {
+
+  private final String configItem;
+  private final List<String> values;
+
+  /**
+   * Creates a new ParameterRange.
+   *
+   * @param configItem the strategy config item, e.g. minimum-percentage-gain
+   * @param values the values to try, in order.
+   * @throws IllegalArgumentException if there are no values.
+   */
+  public ParameterRange(String configItem, List<String> values) {
+    if (values.isEmpty()) {
+      throw new IllegalArgumentException("No values to sweep for config item: " + configItem);
+    }
+    this.configItem = configItem;
+    this.values = List.copyOf(values);
+  }
+
+  /**
+   * Parses a range of values for a config item. The range is either a comma separated list of
+   * values, e.g. {@code 10,20,50}, or {@code from:to:step}, e.g. {@code 0.5:3:0.5}, which includes
+   * both ends.
+   *
+   * @param configItem the strategy config item.
+   * @param range the range.
+   * @return the parameter range.
+   * @throws IllegalArgumentException if the range is not valid.
+   */
+  public static ParameterRange parse(String configItem, String range) {
+    final String[] fromToStep = range.split(":");
+    if (fromToStep.length == 1) {
+      final List<String> values = new ArrayList<>();
+      for (final String value : range.split(",")) {
+        values.add(value.trim());
+      }
+      return new ParameterRange(configItem, values);
+    }
+    if (fromToStep.length != 3) {
+      throw new IllegalArgumentException(
+          "Expected from:to:step for config item " + configItem + ": " + range);
+    }
+
+    final BigDecimal from = new BigDecimal(fromToStep[0].trim());
+    final BigDecimal to = new BigDecimal(fromToStep[1].trim());
+    final BigDecimal step = new BigDecimal(fromToStep[2].trim());
+    if (step.signum() <= 0 || from.compareTo(to) > 0) {
+      throw new IllegalArgumentException(
+          "Range must have a positive step and from <= to for config item "
+              + configItem
+              + ": "
+              + range);
+    }
+    final List<String> values = new ArrayList<>();
+    for (BigDecimal value = from; value.compareTo(to) <= 0; value = value.add(step)) {
+      values.add(value.toPlainString());
+    }
+    return new ParameterRange(configItem, values);
+  }
+
+  public String getConfigItem() {
+    return configItem;
+  }
+
+  public List<String> getValues() {
+    return values;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("configItem", configItem)
+        .add("values", values)
+        .toString();
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import com.gazbert.crypto.strategy.api.TradingStrategy;
+import com.google.common.base.MoreObjects;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Backtests a strategy with every combination of values of its swept config items, and ranks the
+ * results.
+ *
+ * <p>The backtests are independent: each has a new strategy instance and its own Trading API, and
+ * they share nothing but the read-only market history. They are run as tasks on a {@link
+ * ForkJoinPool}, the combinations being split in half until each task is a single backtest, and
+ * each result is written to its own slot. Nothing is locked between backtests, so a sweep scales
+ * with the cores in the pool. Use a {@link MappedMarketHistory} so the history is shared, not
+ * copied, and keep the strategy's logging quiet: a strategy that logs every trade cycle is
+ * serialised on the log appender.
+ *
+ * <p>Results are ranked by profit and loss, best first, then by maximum drawdown percentage,
+ * smallest first.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class ParameterSweep {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  /** Ranks results by profit and loss, then by the smallest drawdown. */
+  public static final Comparator<SweepResult> BEST_FIRST =
+      Comparator.comparing((SweepResult result) -> result.getReport().getProfitAndLoss())
+          .reversed()
+          .thenComparing(result -> result.getReport().getMaxDrawdownPercentage());
+
+  private final Backtest backtest;
+  private final Supplier<TradingStrategy> strategyFactory;
+  private final Map<String, String> fixedItems;
+  private final List<ParameterRange> parameterRanges;
+  private final int size;
+
+  /**
+   * Creates a new ParameterSweep.
+   *
+   * @param backtest the backtest to run for each combination.
+   * @param strategyFactory creates a new strategy instance for each backtest.
+   * @param fixedItems the strategy config items that are the same for every backtest.
+   * @param parameterRanges the config items to sweep; a swept item overrides a fixed one.
+   * @throws IllegalArgumentException if there are more than {@link Integer#MAX_VALUE}
+   *     combinations.
+   */
+  public ParameterSweep(
+      Backtest backtest,
+      Supplier<TradingStrategy> strategyFactory,
+      Map<String, String> fixedItems,
+      List<ParameterRange> parameterRanges) {
+    this.backtest = backtest;
+    this.strategyFactory = strategyFactory;
+    this.fixedItems = Collections.unmodifiableMap(new LinkedHashMap<>(fixedItems));
+    this.parameterRanges = List.copyOf(parameterRanges);
+
+    long combinations = 1;
+    for (final ParameterRange parameterRange : parameterRanges) {
+      combinations *= parameterRange.getValues().size();
+      if (combinations > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Too many combinations to sweep: " + parameterRanges);
+      }
+    }
+    this.size = (int) combinations;
+  }
+
+  /**
+   * Returns the number of backtests in the sweep.
+   *
+   * @return the number of combinations of swept values.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the swept config item values for a combination. The first range varies slowest.
+   *
+   * @param combination the combination index, from 0 to size() - 1.
+   * @return the swept values, by config item.
+   */
+  public Map<String, String> getSweptItems(int combination) {
+    final Map<String, String> sweptItems = new LinkedHashMap<>();
+    int stride = size;
+    for (final ParameterRange parameterRange : parameterRanges) {
+      final List<String> values = parameterRange.getValues();
+      stride /= values.size();
+      sweptItems.put(
+          parameterRange.getConfigItem(), values.get(combination / stride % values.size()));
+    }
+    return sweptItems;
+  }
+
+  /**
+   * Runs every backtest in the sweep on the given pool and waits for them to finish.
+   *
+   * @param pool the pool to run the backtests on.
+   * @return the results, best first.
+   */
+  public List<SweepResult> run(ForkJoinPool pool) {
+    final long start = System.nanoTime();
+    final SweepResult[] results = new SweepResult[size];
+    pool.invoke(new BacktestTask(results, 0, size));
+
+    Arrays.sort(results, BEST_FIRST);
+    LOG.info(
+        () ->
+            "Swept "
+                + size
+                + " backtests in "
+                + (System.nanoTime() - start) / 1_000_000
+                + "ms on "
+                + pool.getParallelism()
+                + " threads");
+    return Arrays.asList(results);
+  }
+
+  private SweepResult runBacktest(int combination) {
+    final Map<String, String> sweptItems = getSweptItems(combination);
+    final Map<String, String> items = new LinkedHashMap<>(fixedItems);
+    items.putAll(sweptItems);
+    final BacktestReport report =
+        backtest.run(strategyFactory.get(), new BacktestStrategyConfig(items));
+    return new SweepResult(Collections.unmodifiableMap(sweptItems), report);
+  }
+
+  /*
+   * Splits the combinations in half until there is one backtest left to run.
+   */
+  private final class BacktestTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient SweepResult[] results;
+    private final int from;
+    private final int to;
+
+    BacktestTask(SweepResult[] results, int from, int to) {
+      this.results = results;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from == 1) {
+        results[from] = runBacktest(from);
+      } else if (to > from) {
+        final int middle = (from + to) >>> 1;
+        invokeAll(
+            new BacktestTask(results, from, middle), new BacktestTask(results, middle, to));
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("backtest", backtest)
+        .add("fixedItems", fixedItems)
+        .add("parameterRanges", parameterRanges)
+        .add("size", size)
+        .toString();
+  }
+}
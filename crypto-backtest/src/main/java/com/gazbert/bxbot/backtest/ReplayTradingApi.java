@@ -0,0 +1,347 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import com.gazbert.crypto.exchanges.simulator.MatchingEngine;
+import com.gazbert.crypto.exchanges.simulator.Trade;
+import com.gazbert.crypto.exchanges.trading.api.impl.TickerImpl;
+import com.gazbert.crypto.trading.api.BalanceInfo;
+import com.gazbert.crypto.trading.api.Market;
+import com.gazbert.crypto.trading.api.MarketOrderBook;
+import com.gazbert.crypto.trading.api.OpenOrder;
+import com.gazbert.crypto.trading.api.OrderType;
+import com.gazbert.crypto.trading.api.Ticker;
+import com.gazbert.crypto.trading.api.TradingApi;
+import com.gazbert.crypto.trading.api.TradingApiException;
+import com.google.common.base.MoreObjects;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The Trading API a strategy under backtest trades through.
+ *
+ * <p>Market data comes from a recorded {@link MarketHistory}, one snapshot at a time. For each
+ * snapshot the replayed market quotes a SELL order at the recorded ask and a BUY order at the
+ * recorded bid on a {@link MatchingEngine}, replacing its quotes from the snapshot before. The
+ * strategy's orders are matched against these quotes by price-time priority: an order that crosses
+ * the recorded spread fills straight away at the quoted price, and an order left resting fills at
+ * its own price once a later snapshot's quotes cross it. Each quote is the same quantity, so a
+ * large order can move through the recorded price.
+ *
+ * <p>The latest market price and the ticker are the recorded snapshot; the order book is the
+ * engine's, i.e. the replayed quotes plus the strategy's own orders. The engine's clock is the
+ * snapshot time, so orders and trades are stamped with simulated time.
+ *
+ * <p>This class is not thread safe. Each backtest run has its own instance.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class ReplayTradingApi implements TradingApi {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  /** The account the strategy trades from. */
+  static final String ACCOUNT_ID = "strategy";
+
+  /** The account the recorded market is quoted from. */
+  static final String MARKET_ACCOUNT_ID = "market";
+
+  private final MarketHistory marketHistory;
+  private final String marketId;
+  private final String baseCurrency;
+  private final String counterCurrency;
+  private final BigDecimal quoteQuantity;
+  private final MatchingEngine matchingEngine;
+  private final List<Trade> trades = new ArrayList<>();
+
+  private int snapshot = -1;
+  private String bidOrderId;
+  private String askOrderId;
+
+  /**
+   * Creates a new ReplayTradingApi. No snapshot is replayed until {@link #replay(int)} is called.
+   *
+   * @param marketHistory the recorded market data.
+   * @param market the market the history was recorded on.
+   * @param buyFeePercentage the buy fee as a fraction of the trade value, e.g. 0.0025 for 0.25%.
+   * @param sellFeePercentage the sell fee as a fraction of the trade value.
+   * @param quoteQuantity the quantity quoted at the recorded bid and ask.
+   */
+  public ReplayTradingApi(
+      MarketHistory marketHistory,
+      Market market,
+      BigDecimal buyFeePercentage,
+      BigDecimal sellFeePercentage,
+      BigDecimal quoteQuantity) {
+    if (quoteQuantity.signum() <= 0) {
+      throw new IllegalArgumentException("Quote quantity must be positive: " + quoteQuantity);
+    }
+    this.marketHistory = marketHistory;
+    this.marketId = market.getId();
+    this.baseCurrency = market.getBaseCurrency();
+    this.counterCurrency = market.getCounterCurrency();
+    this.quoteQuantity = quoteQuantity;
+
+    matchingEngine =
+        new MatchingEngine(buyFeePercentage, sellFeePercentage, this::getSimulatedTime);
+    matchingEngine.addMarket(marketId, baseCurrency, counterCurrency);
+    matchingEngine.addTradeListener(
+        trade -> {
+          if (ACCOUNT_ID.equals(trade.getBuyerAccountId())
+              || ACCOUNT_ID.equals(trade.getSellerAccountId())) {
+            trades.add(trade);
+          }
+        });
+  }
+
+  // --------------------------------------------------------------------------
+  // Trading API calls
+  // --------------------------------------------------------------------------
+
+  @Override
+  public String createOrder(
+      String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price)
+      throws TradingApiException {
+    assertMarket(marketId);
+    try {
+      return matchingEngine.submitOrder(ACCOUNT_ID, marketId, orderType, quantity, price);
+    } catch (IllegalArgumentException e) {
+      throw rejected(e);
+    }
+  }
+
+  /*
+   * marketId is not needed for cancelling orders.
+   */
+  @Override
+  public boolean cancelOrder(String orderId, String marketIdNotNeeded) {
+    return matchingEngine.cancelOrder(ACCOUNT_ID, orderId);
+  }
+
+  @Override
+  public List<OpenOrder> getYourOpenOrders(String marketId) throws TradingApiException {
+    assertMarket(marketId);
+    return matchingEngine.getOpenOrders(ACCOUNT_ID, marketId);
+  }
+
+  @Override
+  public MarketOrderBook getMarketOrders(String marketId) throws TradingApiException {
+    return getMarketOrders(marketId, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public MarketOrderBook getMarketOrders(String marketId, int depth) throws TradingApiException {
+    if (depth < 1) {
+      throw new IllegalArgumentException("Market order book depth must be at least 1: " + depth);
+    }
+    assertReplaying(marketId);
+    return matchingEngine.getMarketOrders(marketId, depth);
+  }
+
+  @Override
+  public BigDecimal getLatestMarketPrice(String marketId) throws TradingApiException {
+    assertReplaying(marketId);
+    return marketHistory.getLast(snapshot);
+  }
+
+  @Override
+  public Ticker getTicker(String marketId) throws TradingApiException {
+    assertReplaying(marketId);
+    return new TickerImpl(
+        marketHistory.getLast(snapshot),
+        marketHistory.getBid(snapshot),
+        marketHistory.getAsk(snapshot),
+        null,
+        null,
+        null,
+        marketHistory.getVolume(snapshot),
+        null,
+        marketHistory.getTimestamp(snapshot));
+  }
+
+  @Override
+  public BalanceInfo getBalanceInfo() {
+    return matchingEngine.getBalanceInfo(ACCOUNT_ID);
+  }
+
+  @Override
+  public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId) {
+    return matchingEngine.getBuyFeePercentage();
+  }
+
+  @Override
+  public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId) {
+    return matchingEngine.getSellFeePercentage();
+  }
+
+  @Override
+  public String getImplName() {
+    return "Backtest - replayed market history";
+  }
+
+  // --------------------------------------------------------------------------
+  // Replay methods
+  // --------------------------------------------------------------------------
+
+  /**
+   * Adds funds to the strategy's account.
+   *
+   * @param currency the currency.
+   * @param amount the amount to add.
+   */
+  void deposit(String currency, BigDecimal amount) {
+    matchingEngine.deposit(ACCOUNT_ID, currency, amount);
+  }
+
+  /**
+   * Moves the market on to a snapshot: the clock is set to the snapshot time and the market is
+   * requoted at the snapshot's bid and ask, filling any of the strategy's orders they cross.
+   *
+   * @param snapshot the snapshot index; snapshots must be replayed in order.
+   */
+  void replay(int snapshot) {
+    this.snapshot = snapshot;
+    if (askOrderId != null) {
+      matchingEngine.cancelOrder(MARKET_ACCOUNT_ID, askOrderId);
+      matchingEngine.cancelOrder(MARKET_ACCOUNT_ID, bidOrderId);
+    }
+    // The ask goes in first; the history guarantees the bid is below it, so they never cross.
+    askOrderId = quote(OrderType.SELL, marketHistory.getAsk(snapshot));
+    bidOrderId = quote(OrderType.BUY, marketHistory.getBid(snapshot));
+  }
+
+  /**
+   * Returns the time of the snapshot being replayed.
+   *
+   * @return the time in millis since the epoch, or 0 before the first snapshot.
+   */
+  long getSimulatedTime() {
+    return snapshot < 0 ? 0 : marketHistory.getTimestamp(snapshot);
+  }
+
+  /**
+   * Returns the value of the strategy's account: its counter currency plus its base currency at the
+   * last price, including funds held against open orders.
+   *
+   * @return the equity in counter currency; its base currency is not counted before the first
+   *     snapshot.
+   */
+  BigDecimal getEquity() {
+    final BalanceInfo balanceInfo = matchingEngine.getBalanceInfo(ACCOUNT_ID);
+    final BigDecimal counter =
+        total(counterCurrency, balanceInfo.getBalancesAvailable(), balanceInfo.getBalancesOnHold());
+    if (snapshot < 0) {
+      return counter;
+    }
+    final BigDecimal base =
+        total(baseCurrency, balanceInfo.getBalancesAvailable(), balanceInfo.getBalancesOnHold());
+    return counter.add(base.multiply(marketHistory.getLast(snapshot)));
+  }
+
+  /**
+   * Returns the strategy's trades, oldest first.
+   *
+   * @return the trades.
+   */
+  List<Trade> getTrades() {
+    return Collections.unmodifiableList(trades);
+  }
+
+  // --------------------------------------------------------------------------
+  //  Util methods
+  // --------------------------------------------------------------------------
+
+  /*
+   * Deposits whatever the quote needs that is not already available. Funds released by cancelled
+   * quotes stay in the account for the next ones, so the market never runs out.
+   */
+  private String quote(OrderType orderType, BigDecimal price) {
+    final String currency;
+    final BigDecimal needed;
+    if (orderType == OrderType.BUY) {
+      currency = counterCurrency;
+      needed = matchingEngine.buyCost(quoteQuantity, price);
+    } else {
+      currency = baseCurrency;
+      needed = quoteQuantity;
+    }
+    final BigDecimal available =
+        matchingEngine
+            .getBalanceInfo(MARKET_ACCOUNT_ID)
+            .getBalancesAvailable()
+            .getOrDefault(currency, BigDecimal.ZERO);
+    final BigDecimal shortfall = needed.subtract(available);
+    if (shortfall.signum() > 0) {
+      matchingEngine.deposit(MARKET_ACCOUNT_ID, currency, shortfall);
+    }
+    return matchingEngine.submitOrder(
+        MARKET_ACCOUNT_ID, marketId, orderType, quoteQuantity, price);
+  }
+
+  private static BigDecimal total(
+      String currency, Map<String, BigDecimal> available, Map<String, BigDecimal> onHold) {
+    return available
+        .getOrDefault(currency, BigDecimal.ZERO)
+        .add(onHold.getOrDefault(currency, BigDecimal.ZERO));
+  }
+
+  private void assertMarket(String marketId) throws TradingApiException {
+    if (!this.marketId.equals(marketId)) {
+      final String errorMsg = "Market is not being replayed: " + marketId;
+      LOG.error(errorMsg);
+      throw new TradingApiException(errorMsg);
+    }
+  }
+
+  private void assertReplaying(String marketId) throws TradingApiException {
+    assertMarket(marketId);
+    if (snapshot < 0) {
+      final String errorMsg = "No market data has been replayed yet for market: " + marketId;
+      LOG.error(errorMsg);
+      throw new TradingApiException(errorMsg);
+    }
+  }
+
+  private static TradingApiException rejected(IllegalArgumentException e) {
+    final String errorMsg = "Backtest rejected the order: " + e.getMessage();
+    LOG.error(errorMsg, e);
+    return new TradingApiException(errorMsg, e);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("marketId", marketId)
+        .add("quoteQuantity", quoteQuantity)
+        .add("snapshot", snapshot)
+        .add("matchingEngine", matchingEngine)
+        .toString();
+  }
+}
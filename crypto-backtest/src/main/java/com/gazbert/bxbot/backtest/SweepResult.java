@@ -0,0 +1,70 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import com.google.common.base.MoreObjects;
+import java.util.Map;
+
+/**
+ * The result of one backtest in a parameter sweep.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class SweepResult {
+
+  private final Map<String, String> sweptItems;
+  private final BacktestReport report;
+
+  /**
+   * Creates a new SweepResult.
+   *
+   * @param sweptItems the values of the swept config items for this backtest.
+   * @param report the backtest report.
+   */
+  SweepResult(Map<String, String> sweptItems, BacktestReport report) {
+    this.sweptItems = sweptItems;
+    this.report = report;
+  }
+
+  public Map<String, String> getSweptItems() {
+    return sweptItems;
+  }
+
+  public BacktestReport getReport() {
+    return report;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("sweptItems", sweptItems)
+        .add("profitAndLoss", report.getProfitAndLoss())
+        .add("returnPercentage", report.getReturnPercentage())
+        .add("maxDrawdownPercentage", report.getMaxDrawdownPercentage())
+        .add("trades", report.getTrades().size())
+        .add("stopReason", report.getStopReason())
+        .toString();
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs a parameter sweep from the command line and prints the best results.
+ *
+ * <p>The options are the {@link BacktestRunner} options, apart from {@code trade-log}, plus:
+ *
+ * <ul>
+ *   <li>{@code sweep.<item>} - a strategy config item to sweep, either a list of values, e.g.
+ *       sweep.counter-currency-buy-order-amount=10,20,50, or from:to:step, e.g.
+ *       sweep.minimum-percentage-gain=0.5:3:0.25. At least one is required.
+ *   <li>{@code threads} - the number of backtests run at once. Defaults to the number of cores.
+ *   <li>{@code top} - the number of results printed. Defaults to 10.
+ *   <li>{@code results} - a file to write every result to as CSV, best first.
+ * </ul>
+ *
+ * <p>The market history is mapped so every backtest shares it. A CSV history is converted to a
+ * {@code <file>.columns} directory of column files next to it the first time.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class SweepRunner {
+
+  private static final String THREADS_OPTION = "threads";
+  private static final String TOP_OPTION = "top";
+  private static final String RESULTS_OPTION = "results";
+
+  private static final String DEFAULT_TOP = "10";
+
+  private SweepRunner() {
+  }
+
+  /**
+   * Runs a parameter sweep.
+   *
+   * @param args the sweep options.
+   * @throws IOException if the market history cannot be read or the results cannot be written.
+   * @throws ReflectiveOperationException if the strategy cannot be created.
+   */
+  public static void main(String[] args) throws IOException, ReflectiveOperationException {
+    final BacktestOptions options = new BacktestOptions(args);
+    final List<SweepResult> results = run(options);
+    final int top =
+        Math.min(Integer.parseInt(options.get(TOP_OPTION, DEFAULT_TOP)), results.size());
+    for (int rank = 1; rank <= top; rank++) {
+      System.out.println(rank + ". " + results.get(rank - 1));
+    }
+  }
+
+  /**
+   * Runs a parameter sweep, writing the results if asked to.
+   *
+   * @param options the sweep options.
+   * @return the results, best first.
+   * @throws IOException if the market history cannot be read or the results cannot be written.
+   * @throws ReflectiveOperationException if the strategy cannot be created.
+   * @throws IllegalArgumentException if an option is missing or invalid.
+   */
+  static List<SweepResult> run(BacktestOptions options)
+      throws IOException, ReflectiveOperationException {
+    final List<ParameterRange> parameterRanges = new ArrayList<>();
+    for (final Map.Entry<String, String> sweepItem : options.getSweepItems().entrySet()) {
+      parameterRanges.add(ParameterRange.parse(sweepItem.getKey(), sweepItem.getValue()));
+    }
+    if (parameterRanges.isEmpty()) {
+      throw new IllegalArgumentException("Missing sweep.<item> option: nothing to sweep");
+    }
+
+    final ParameterSweep parameterSweep =
+        new ParameterSweep(
+            options.createBacktest(true),
+            options.createStrategyFactory(),
+            options.getStrategyItems(),
+            parameterRanges);
+    final int threads =
+        Integer.parseInt(
+            options.get(
+                THREADS_OPTION, String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+    final ForkJoinPool pool = new ForkJoinPool(threads);
+    final List<SweepResult> results;
+    try {
+      results = parameterSweep.run(pool);
+    } finally {
+      pool.shutdown();
+    }
+
+    final String resultsFile = options.get(RESULTS_OPTION, null);
+    if (resultsFile != null) {
+      writeResults(results, parameterRanges, Paths.get(resultsFile));
+    }
+    return results;
+  }
+
+  private static void writeResults(
+      List<SweepResult> results, List<ParameterRange> parameterRanges, Path resultsFile)
+      throws IOException {
+    if (resultsFile.getParent() != null) {
+      Files.createDirectories(resultsFile.getParent());
+    }
+    try (Writer writer = Files.newBufferedWriter(resultsFile, StandardCharsets.UTF_8)) {
+      final List<String> header = new ArrayList<>();
+      header.add("rank");
+      for (final ParameterRange parameterRange : parameterRanges) {
+        header.add(parameterRange.getConfigItem());
+      }
+      header.add("profit_and_loss");
+      header.add("return_percentage");
+      header.add("max_drawdown");
+      header.add("max_drawdown_percentage");
+      header.add("trades");
+      header.add("fees_paid");
+      writer.write(String.join(",", header));
+      writer.write(System.lineSeparator());
+
+      int rank = 1;
+      for (final SweepResult result : results) {
+        final BacktestReport report = result.getReport();
+        final List<String> fields = new ArrayList<>();
+        fields.add(String.valueOf(rank++));
+        fields.addAll(result.getSweptItems().values());
+        fields.add(report.getProfitAndLoss().toPlainString());
+        fields.add(report.getReturnPercentage().toPlainString());
+        fields.add(report.getMaxDrawdown().toPlainString());
+        fields.add(report.getMaxDrawdownPercentage().toPlainString());
+        fields.add(String.valueOf(report.getTrades().size()));
+        fields.add(report.getFeesPaid().toPlainString());
+        writer.write(String.join(",", fields));
+        writer.write(System.lineSeparator());
+      }
+    }
+  }
+}
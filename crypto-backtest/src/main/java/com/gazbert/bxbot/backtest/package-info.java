@@ -0,0 +1,45 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Backtesting for the Trading Strategies.
+ *
+ * <p>A {@link com.gazbert.crypto.backtest.Backtest} replays a recorded {@link
+ * com.gazbert.crypto.backtest.MarketHistory} through a strategy's {@code init}/{@code execute}
+ * contract, with a {@link com.gazbert.crypto.backtest.ReplayTradingApi} standing in for the
+ * exchange. The strategy's orders are matched by the simulated exchange's matching engine against
+ * the recorded best bid and ask, and the strategy is executed once per recorded snapshot. Time is
+ * the snapshot's timestamp; nothing waits on the wall clock, so a backtest runs as fast as the
+ * strategy does.
+ *
+ * <p>Each run produces a {@link com.gazbert.crypto.backtest.BacktestReport} with the strategy's
+ * trades, its profit and loss, and its maximum drawdown.
+ *
+ * <p>A {@link com.gazbert.crypto.backtest.ParameterSweep} runs a backtest for every combination of
+ * a strategy's swept config items on a fork-join pool, and ranks the results. The runs share a
+ * read-only {@link com.gazbert.crypto.backtest.MappedMarketHistory}.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+package com.gazbert.crypto.backtest;
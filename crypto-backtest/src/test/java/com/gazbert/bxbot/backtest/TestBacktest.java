@@ -0,0 +1,199 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.crypto.strategy.api.StrategyConfig;
+import com.gazbert.crypto.strategy.api.StrategyException;
+import com.gazbert.crypto.strategy.api.TradingStrategy;
+import com.gazbert.crypto.trading.api.ExchangeNetworkException;
+import com.gazbert.crypto.trading.api.Market;
+import com.gazbert.crypto.trading.api.OrderType;
+import com.gazbert.crypto.trading.api.TradingApi;
+import com.gazbert.crypto.trading.api.TradingApiException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests a backtest replays the market history through a strategy as expected.
+ *
+ * @author gazbert
+ */
+public class TestBacktest {
+
+  private static final String MARKET_ID = "btcusd";
+
+  private Backtest backtest;
+
+  /** Sets up a fee free backtest of the test history, starting with 1000 USD. */
+  @Before
+  public void setup() throws Exception {
+    backtest =
+        new Backtest(
+            CsvMarketHistory.load(TestCsvMarketHistory.MARKET_HISTORY),
+            new BacktestMarket("BTC/USD", MARKET_ID, "BTC", "USD"),
+            BigDecimal.ZERO,
+            BigDecimal.ZERO,
+            new BigDecimal("1000"),
+            Map.of("USD", new BigDecimal("1000")));
+  }
+
+  @Test
+  public void testStrategyIsExecutedOncePerSnapshot() {
+    final BuyThenSellStrategy strategy = new BuyThenSellStrategy(Integer.MAX_VALUE);
+
+    final BacktestReport report = backtest.run(strategy, new BacktestStrategyConfig(Map.of()));
+
+    assertEquals(8, strategy.executions);
+    assertEquals(8, report.getTradeCycles());
+    assertEquals(1577836800000L, report.getStartTime());
+    assertEquals(1577837220000L, report.getEndTime());
+    assertNull(report.getStopReason());
+  }
+
+  @Test
+  public void testProfitAndLossAndDrawdownAreReported() throws Exception {
+    final BacktestReport report =
+        backtest.run(new BuyThenSellStrategy(6), new BacktestStrategyConfig(Map.of()));
+
+    // Bought 1 BTC at the 101.00 ask, sold it at the 104.00 bid.
+    assertEquals(MARKET_ID, report.getMarketId());
+    assertEquals(2, report.getTrades().size());
+    assertEquals(0, new BigDecimal("1000").compareTo(report.getOpeningEquity()));
+    assertEquals(0, new BigDecimal("1003").compareTo(report.getClosingEquity()));
+    assertEquals(0, new BigDecimal("3").compareTo(report.getProfitAndLoss()));
+    assertEquals(0, new BigDecimal("0.3").compareTo(report.getReturnPercentage()));
+    assertEquals(0, BigDecimal.ZERO.compareTo(report.getFeesPaid()));
+
+    // Lowest equity was 899 USD + 1 BTC at 95.00, against the 1000 opening high.
+    assertEquals(0, new BigDecimal("6").compareTo(report.getMaxDrawdown()));
+    assertEquals(0, new BigDecimal("0.6").compareTo(report.getMaxDrawdownPercentage()));
+    assertTrue(report.toString().contains("profitAndLoss=3"));
+
+    final StringWriter tradeLog = new StringWriter();
+    report.writeTradeLog(tradeLog);
+    final String[] lines = tradeLog.toString().split(System.lineSeparator());
+    assertEquals(3, lines.length);
+    assertEquals("timestamp,order_id,type,price,quantity,fee,taker", lines[0]);
+    assertTrue(lines[1], lines[1].matches("1577836800000,SIM-\\d+,BUY,101.00,1,0.00000000,true"));
+    assertTrue(lines[2], lines[2].matches("1577837160000,SIM-\\d+,SELL,104.00,1,0.00000000,true"));
+  }
+
+  @Test
+  public void testStrategyExceptionStopsRun() {
+    final TradingStrategy strategy =
+        new BuyThenSellStrategy(Integer.MAX_VALUE) {
+          @Override
+          public void execute() throws StrategyException {
+            super.execute();
+            if (executions == 3) {
+              throw new StrategyException("Out of beer");
+            }
+          }
+        };
+
+    final BacktestReport report = backtest.run(strategy, new BacktestStrategyConfig(Map.of()));
+
+    assertEquals(3, report.getTradeCycles());
+    assertEquals(1577836920000L, report.getEndTime());
+    assertEquals("Out of beer", report.getStopReason());
+  }
+
+  @Test
+  public void testRunsAreIndependent() {
+    final BacktestReport first =
+        backtest.run(new BuyThenSellStrategy(6), new BacktestStrategyConfig(Map.of()));
+    final BacktestReport second =
+        backtest.run(new BuyThenSellStrategy(6), new BacktestStrategyConfig(Map.of()));
+
+    assertEquals(0, first.getClosingEquity().compareTo(second.getClosingEquity()));
+    assertEquals(first.getTrades().size(), second.getTrades().size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptyHistoryIsRejected() {
+    final MarketHistory emptyHistory = createMock(MarketHistory.class);
+    expect(emptyHistory.size()).andReturn(0);
+    replay(emptyHistory);
+    new Backtest(
+        emptyHistory,
+        new BacktestMarket("BTC/USD", MARKET_ID, "BTC", "USD"),
+        BigDecimal.ZERO,
+        BigDecimal.ZERO,
+        BigDecimal.ONE,
+        Map.of());
+  }
+
+  /*
+   * Buys 1 BTC at the ask on the first cycle, and sells it at the bid on the given cycle.
+   */
+  private static class BuyThenSellStrategy implements TradingStrategy {
+
+    private final int sellCycle;
+    private TradingApi tradingApi;
+    private Market market;
+    int executions;
+
+    BuyThenSellStrategy(int sellCycle) {
+      this.sellCycle = sellCycle;
+    }
+
+    @Override
+    public void init(TradingApi tradingApi, Market market, StrategyConfig config) {
+      this.tradingApi = tradingApi;
+      this.market = market;
+    }
+
+    @Override
+    public void execute() throws StrategyException {
+      try {
+        if (executions == 0) {
+          tradingApi.createOrder(
+              market.getId(),
+              OrderType.BUY,
+              BigDecimal.ONE,
+              tradingApi.getTicker(market.getId()).getAsk());
+        } else if (executions == sellCycle) {
+          tradingApi.createOrder(
+              market.getId(),
+              OrderType.SELL,
+              BigDecimal.ONE,
+              tradingApi.getTicker(market.getId()).getBid());
+        }
+      } catch (ExchangeNetworkException | TradingApiException e) {
+        throw new StrategyException(e);
+      }
+      executions++;
+    }
+  }
+}
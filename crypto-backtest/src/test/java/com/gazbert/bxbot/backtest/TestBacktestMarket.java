@@ -0,0 +1,66 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests a backtest market behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestBacktestMarket {
+
+  @Test
+  public void testMarketIsInitialisedAsExpected() {
+    final BacktestMarket market = new BacktestMarket("BTC/USD", "btcusd", "BTC", "USD");
+
+    assertEquals("BTC/USD", market.getName());
+    assertEquals("btcusd", market.getId());
+    assertEquals("BTC", market.getBaseCurrency());
+    assertEquals("USD", market.getCounterCurrency());
+    assertTrue(market.toString().contains("id=btcusd"));
+
+    market.setId("btceur");
+    assertEquals("btceur", market.getId());
+  }
+
+  @Test
+  public void testMarketsAreEqualWhenIdsAreEqual() {
+    final BacktestMarket market = new BacktestMarket("BTC/USD", "btcusd", "BTC", "USD");
+    final BacktestMarket sameId = new BacktestMarket("Bitcoin", "btcusd", "XBT", "USD");
+    final BacktestMarket otherId = new BacktestMarket("BTC/EUR", "btceur", "BTC", "EUR");
+
+    assertEquals(market, market);
+    assertEquals(market, sameId);
+    assertEquals(market.hashCode(), sameId.hashCode());
+    assertNotEquals(market, otherId);
+    assertNotEquals(market, null);
+    assertNotEquals(market, "btcusd");
+  }
+}
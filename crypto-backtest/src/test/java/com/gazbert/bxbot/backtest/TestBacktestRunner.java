@@ -0,0 +1,86 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests the backtest runner runs the Example Scalping Strategy over the test history as expected.
+ *
+ * @author gazbert
+ */
+public class TestBacktestRunner {
+
+  private static final Path TRADE_LOG = Paths.get("./target/backtest/trades.csv");
+
+  private static final String[] ARGS = {
+    "history=" + TestCsvMarketHistory.MARKET_HISTORY,
+    "strategy=com.gazbert.crypto.strategies.ExampleScalpingStrategy",
+    "market-id=btcusd",
+    "base-currency=BTC",
+    "counter-currency=USD",
+    "buy-fee=0.25",
+    "sell-fee=0.25",
+    "balances=USD=100,BTC=0",
+    "trade-log=" + TRADE_LOG,
+    "strategy.counter-currency-buy-order-amount=20",
+    "strategy.minimum-percentage-gain=2"
+  };
+
+  @Test
+  public void testScalpingStrategyIsBacktested() throws Exception {
+    Files.deleteIfExists(TRADE_LOG);
+
+    final BacktestReport report = BacktestRunner.run(ARGS);
+
+    // Buys at the 100.00 bid, fills on the next cycle, then sells 2% up at 102.00 and buys again.
+    assertEquals(8, report.getTradeCycles());
+    assertNull(report.getStopReason());
+    assertEquals(3, report.getTrades().size());
+
+    final List<String> tradeLog = Files.readAllLines(TRADE_LOG, StandardCharsets.UTF_8);
+    assertEquals(4, tradeLog.size());
+    assertEquals("BUY", tradeLog.get(1).split(",")[2]);
+    assertEquals("SELL", tradeLog.get(2).split(",")[2]);
+    assertEquals("102.00000000", tradeLog.get(2).split(",")[3]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingOptionIsRejected() throws Exception {
+    BacktestRunner.run(new String[] {"history=" + TestCsvMarketHistory.MARKET_HISTORY});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOptionWithoutValueIsRejected() throws Exception {
+    BacktestRunner.run(new String[] {"history"});
+  }
+}
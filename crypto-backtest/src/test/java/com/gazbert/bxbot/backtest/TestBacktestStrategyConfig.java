@@ -0,0 +1,63 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * Tests a backtest strategy config behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestBacktestStrategyConfig {
+
+  @Test
+  public void testConfigItemsAreCopied() {
+    final Map<String, String> items = new LinkedHashMap<>();
+    items.put("counter-currency-buy-order-amount", "20");
+    items.put("minimum-percentage-gain", "2");
+
+    final BacktestStrategyConfig strategyConfig = new BacktestStrategyConfig(items);
+    items.clear();
+
+    assertEquals(2, strategyConfig.getNumberOfConfigItems());
+    assertEquals("2", strategyConfig.getConfigItem("minimum-percentage-gain"));
+    assertNull(strategyConfig.getConfigItem("unknown"));
+    assertTrue(strategyConfig.getConfigItemKeys().contains("counter-currency-buy-order-amount"));
+    assertTrue(strategyConfig.toString().contains("minimum-percentage-gain=2"));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testConfigItemKeysCannotBeChanged() {
+    new BacktestStrategyConfig(Map.of("minimum-percentage-gain", "2"))
+        .getConfigItemKeys()
+        .clear();
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.junit.Test;
+
+/**
+ * Tests the CSV market history loads as expected.
+ *
+ * @author gazbert
+ */
+public class TestCsvMarketHistory {
+
+  static final Path MARKET_HISTORY = Paths.get("./src/test/market-data/btcusd.csv");
+
+  private static final Path INVALID_HISTORY = Paths.get("./target/market-data/invalid.csv");
+
+  @Test
+  public void testSnapshotsAreLoadedInOrder() throws Exception {
+    final CsvMarketHistory marketHistory = CsvMarketHistory.load(MARKET_HISTORY);
+
+    assertEquals(8, marketHistory.size());
+    assertEquals(1577836800000L, marketHistory.getTimestamp(0));
+    assertEquals(0, new BigDecimal("100.00").compareTo(marketHistory.getBid(0)));
+    assertEquals(0, new BigDecimal("101.00").compareTo(marketHistory.getAsk(0)));
+    assertEquals(0, new BigDecimal("100.50").compareTo(marketHistory.getLast(0)));
+    assertEquals(0, new BigDecimal("10.5").compareTo(marketHistory.getVolume(0)));
+    assertEquals(1577837220000L, marketHistory.getTimestamp(7));
+    assertEquals(0, new BigDecimal("101.50").compareTo(marketHistory.getLast(7)));
+    assertTrue(marketHistory.toString().contains("size=8"));
+  }
+
+  @Test
+  public void testLineWithMissingFieldIsRejected() throws Exception {
+    assertInvalid("1577836800000,100.00,101.00,100.50", ":1 - expected 5 fields");
+  }
+
+  @Test
+  public void testLineWithInvalidNumberIsRejected() throws Exception {
+    assertInvalid("1577836800000,100.00,abc,100.50,1", ":1 - invalid number");
+  }
+
+  @Test
+  public void testCrossedSnapshotIsRejected() throws Exception {
+    assertInvalid("1577836800000,101.00,101.00,100.50,1", ":1 - bid must be positive");
+  }
+
+  @Test
+  public void testTimestampGoingBackwardsIsRejected() throws Exception {
+    assertInvalid(
+        "1577836860000,100.00,101.00,100.50,1\n1577836800000,100.00,101.00,100.50,1",
+        ":2 - timestamp goes backwards");
+  }
+
+  private static void assertInvalid(String csv, String expectedReason) throws IOException {
+    Files.createDirectories(INVALID_HISTORY.getParent());
+    Files.write(INVALID_HISTORY, csv.getBytes(StandardCharsets.UTF_8));
+    try {
+      CsvMarketHistory.load(INVALID_HISTORY);
+      fail("Expected IllegalArgumentException for: " + csv);
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains(expectedReason));
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import static org.junit.Assert.assertEquals;
+
+import com.gazbert.crypto.exchanges.tickstore.TickStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.junit.Test;
+
+/**
+ * Tests the memory-mapped market history behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestMappedMarketHistory {
+
+  private static final Path COLUMNS = Paths.get("./target/market-data/btcusd.columns");
+
+  @Test
+  public void testWrittenHistoryIsMappedBackUnchanged() throws Exception {
+    final CsvMarketHistory csvHistory = CsvMarketHistory.load(TestCsvMarketHistory.MARKET_HISTORY);
+
+    MappedMarketHistory.write(csvHistory, COLUMNS);
+    final MappedMarketHistory mappedHistory = MappedMarketHistory.open(COLUMNS);
+
+    assertEquals(csvHistory.size(), mappedHistory.size());
+    for (int i = 0; i < csvHistory.size(); i++) {
+      assertEquals(csvHistory.getTimestamp(i), mappedHistory.getTimestamp(i));
+      assertEquals(0, csvHistory.getBid(i).compareTo(mappedHistory.getBid(i)));
+      assertEquals(0, csvHistory.getAsk(i).compareTo(mappedHistory.getAsk(i)));
+      assertEquals(0, csvHistory.getLast(i).compareTo(mappedHistory.getLast(i)));
+      assertEquals(0, csvHistory.getVolume(i).compareTo(mappedHistory.getVolume(i)));
+    }
+    assertEquals(MappedMarketHistory.SCALE, mappedHistory.getBid(0).scale());
+    // 8 snapshots of 8 bytes
+    assertEquals(64, Files.size(COLUMNS.resolve(TickStore.BID_COLUMN)));
+  }
+
+  @Test
+  public void testTimeRangeIsMapped() throws Exception {
+    final CsvMarketHistory csvHistory = CsvMarketHistory.load(TestCsvMarketHistory.MARKET_HISTORY);
+    MappedMarketHistory.write(csvHistory, COLUMNS);
+
+    final MappedMarketHistory mappedHistory =
+        MappedMarketHistory.open(COLUMNS, csvHistory.getTimestamp(2), csvHistory.getTimestamp(5));
+
+    assertEquals(3, mappedHistory.size());
+    assertEquals(csvHistory.getTimestamp(2), mappedHistory.getTimestamp(0));
+    assertEquals(0, csvHistory.getAsk(4).compareTo(mappedHistory.getAsk(2)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testColumnsOfDifferentLengthsAreRejected() throws Exception {
+    final Path columns = Paths.get("./target/market-data/truncated.columns");
+    MappedMarketHistory.write(CsvMarketHistory.load(TestCsvMarketHistory.MARKET_HISTORY), columns);
+    final Path lastColumn = columns.resolve(TickStore.LAST_COLUMN);
+    Files.write(lastColumn, new byte[8]);
+
+    MappedMarketHistory.open(columns);
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests parameter ranges are parsed as expected.
+ *
+ * @author gazbert
+ */
+public class TestParameterRange {
+
+  @Test
+  public void testListOfValuesIsParsed() {
+    final ParameterRange range = ParameterRange.parse("amount", "10, 20,50");
+
+    assertEquals("amount", range.getConfigItem());
+    assertEquals(List.of("10", "20", "50"), range.getValues());
+  }
+
+  @Test
+  public void testFromToStepIncludesBothEnds() {
+    final ParameterRange range = ParameterRange.parse("gain", "0.5:2:0.5");
+
+    assertEquals(List.of("0.5", "1.0", "1.5", "2.0"), range.getValues());
+  }
+
+  @Test
+  public void testStepPastEndIsNotIncluded() {
+    assertEquals(List.of("1", "4"), ParameterRange.parse("gain", "1:6:3").getValues());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testZeroStepIsRejected() {
+    ParameterRange.parse("gain", "1:2:0");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFromAfterToIsRejected() {
+    ParameterRange.parse("gain", "2:1:0.5");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingStepIsRejected() {
+    ParameterRange.parse("gain", "1:2");
+  }
+}
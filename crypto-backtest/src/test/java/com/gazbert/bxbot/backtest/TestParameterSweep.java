@@ -0,0 +1,123 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.crypto.strategies.ExampleScalpingStrategy;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the parameter sweep runs and ranks every combination as expected.
+ *
+ * @author gazbert
+ */
+public class TestParameterSweep {
+
+  private ParameterSweep parameterSweep;
+
+  /** Sweeps the Example Scalping Strategy's buy amount and gain over the mapped test history. */
+  @Before
+  public void setup() throws Exception {
+    MappedMarketHistory.write(
+        CsvMarketHistory.load(TestCsvMarketHistory.MARKET_HISTORY),
+        Paths.get("./target/market-data/sweep.columns"));
+    final Backtest backtest =
+        new Backtest(
+            MappedMarketHistory.open(Paths.get("./target/market-data/sweep.columns")),
+            new BacktestMarket("BTC/USD", "btcusd", "BTC", "USD"),
+            new BigDecimal("0.0025"),
+            new BigDecimal("0.0025"),
+            new BigDecimal("1000"),
+            Map.of("USD", new BigDecimal("100")));
+    parameterSweep =
+        new ParameterSweep(
+            backtest,
+            ExampleScalpingStrategy::new,
+            Map.of("minimum-percentage-gain", "99"),
+            List.of(
+                ParameterRange.parse("counter-currency-buy-order-amount", "10,20"),
+                ParameterRange.parse("minimum-percentage-gain", "1:5:2")));
+  }
+
+  @Test
+  public void testCombinationsVaryLastRangeFastest() {
+    assertEquals(6, parameterSweep.size());
+    assertEquals(
+        Map.of("counter-currency-buy-order-amount", "10", "minimum-percentage-gain", "1"),
+        parameterSweep.getSweptItems(0));
+    assertEquals(
+        Map.of("counter-currency-buy-order-amount", "10", "minimum-percentage-gain", "3"),
+        parameterSweep.getSweptItems(1));
+    assertEquals(
+        Map.of("counter-currency-buy-order-amount", "20", "minimum-percentage-gain", "5"),
+        parameterSweep.getSweptItems(5));
+  }
+
+  @Test
+  public void testEveryCombinationIsRunAndRankedBestFirst() {
+    final List<SweepResult> results = parameterSweep.run(new ForkJoinPool(2));
+
+    assertEquals(6, results.size());
+    assertEquals(6, results.stream().map(SweepResult::getSweptItems).distinct().count());
+    for (int i = 1; i < results.size(); i++) {
+      assertTrue(ParameterSweep.BEST_FIRST.compare(results.get(i - 1), results.get(i)) <= 0);
+    }
+    // The market closed above the first buy, so the bigger buy never sold at a 5% gain made most.
+    assertEquals(
+        Map.of("counter-currency-buy-order-amount", "20", "minimum-percentage-gain", "5"),
+        results.get(0).getSweptItems());
+    assertEquals(8, results.get(0).getReport().getTradeCycles());
+  }
+
+  @Test
+  public void testParallelSweepMatchesSequentialSweep() {
+    final List<SweepResult> sequential = parameterSweep.run(new ForkJoinPool(1));
+    final List<SweepResult> parallel = parameterSweep.run(new ForkJoinPool(4));
+
+    for (int i = 0; i < sequential.size(); i++) {
+      assertEquals(sequential.get(i).getSweptItems(), parallel.get(i).getSweptItems());
+      assertEquals(
+          0,
+          sequential
+              .get(i)
+              .getReport()
+              .getClosingEquity()
+              .compareTo(parallel.get(i).getReport().getClosingEquity()));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooManyCombinationsAreRejected() {
+    final ParameterRange range = ParameterRange.parse("gain", "1:100000:1");
+    new ParameterSweep(null, ExampleScalpingStrategy::new, Map.of(), List.of(range, range));
+  }
+}
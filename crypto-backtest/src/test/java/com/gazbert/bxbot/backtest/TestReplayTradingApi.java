@@ -0,0 +1,208 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.crypto.exchanges.simulator.Trade;
+import com.gazbert.crypto.trading.api.MarketOrderBook;
+import com.gazbert.crypto.trading.api.OrderType;
+import com.gazbert.crypto.trading.api.Ticker;
+import com.gazbert.crypto.trading.api.TradingApiException;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the replay Trading API behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestReplayTradingApi {
+
+  private static final String MARKET_ID = "btcusd";
+
+  private ReplayTradingApi tradingApi;
+
+  /**
+   * Replays the test history with a 0.25% buy fee, a 0.5% sell fee and 2 BTC quoted each side, and
+   * funds the strategy with 1000 USD and 1 BTC.
+   */
+  @Before
+  public void setup() throws Exception {
+    tradingApi =
+        new ReplayTradingApi(
+            CsvMarketHistory.load(TestCsvMarketHistory.MARKET_HISTORY),
+            new BacktestMarket("BTC/USD", MARKET_ID, "BTC", "USD"),
+            new BigDecimal("0.0025"),
+            new BigDecimal("0.005"),
+            new BigDecimal("2"));
+    tradingApi.deposit("USD", new BigDecimal("1000"));
+    tradingApi.deposit("BTC", BigDecimal.ONE);
+  }
+
+  @Test(expected = TradingApiException.class)
+  public void testMarketDataIsNotAvailableBeforeFirstSnapshot() throws Exception {
+    tradingApi.getLatestMarketPrice(MARKET_ID);
+  }
+
+  @Test(expected = TradingApiException.class)
+  public void testUnknownMarketIsRejected() throws Exception {
+    tradingApi.replay(0);
+    tradingApi.getMarketOrders("ltcusd", 1);
+  }
+
+  @Test
+  public void testSnapshotIsQuotedOnBook() throws Exception {
+    tradingApi.replay(0);
+    tradingApi.replay(1);
+
+    final MarketOrderBook orderBook = tradingApi.getMarketOrders(MARKET_ID);
+    assertEquals(1, orderBook.getBuyOrders().size());
+    assertEquals(1, orderBook.getSellOrders().size());
+    assertEquals(0, new BigDecimal("99.00").compareTo(orderBook.getBuyOrders().get(0).getPrice()));
+    assertEquals(
+        0, new BigDecimal("100.00").compareTo(orderBook.getSellOrders().get(0).getPrice()));
+    assertEquals(
+        0, new BigDecimal("2").compareTo(orderBook.getSellOrders().get(0).getQuantity()));
+    assertEquals(1577836860000L, tradingApi.getSimulatedTime());
+  }
+
+  @Test
+  public void testTickerIsRecordedSnapshot() throws Exception {
+    tradingApi.replay(0);
+
+    final Ticker ticker = tradingApi.getTicker(MARKET_ID);
+    assertEquals(0, new BigDecimal("100.50").compareTo(ticker.getLast()));
+    assertEquals(0, new BigDecimal("100.00").compareTo(ticker.getBid()));
+    assertEquals(0, new BigDecimal("101.00").compareTo(ticker.getAsk()));
+    assertEquals(0, new BigDecimal("10.5").compareTo(ticker.getVolume()));
+    assertEquals(Long.valueOf(1577836800000L), ticker.getTimestamp());
+    assertEquals(0, new BigDecimal("100.50").compareTo(tradingApi.getLatestMarketPrice(MARKET_ID)));
+  }
+
+  @Test
+  public void testOrderCrossingSpreadFillsAtQuotedPrice() throws Exception {
+    tradingApi.replay(0);
+
+    tradingApi.createOrder(MARKET_ID, OrderType.BUY, BigDecimal.ONE, new BigDecimal("105"));
+
+    final List<Trade> trades = tradingApi.getTrades();
+    assertEquals(1, trades.size());
+    assertEquals(0, new BigDecimal("101.00").compareTo(trades.get(0).getPrice()));
+    assertEquals(OrderType.BUY, trades.get(0).getTakerType());
+    assertTrue(tradingApi.getYourOpenOrders(MARKET_ID).isEmpty());
+    // 1000 - 101 - 0.2525 fee
+    assertEquals(
+        0,
+        new BigDecimal("898.7475")
+            .compareTo(tradingApi.getBalanceInfo().getBalancesAvailable().get("USD")));
+    assertEquals(
+        0,
+        new BigDecimal("2")
+            .compareTo(tradingApi.getBalanceInfo().getBalancesAvailable().get("BTC")));
+  }
+
+  @Test
+  public void testRestingOrderFillsAtItsPriceWhenLaterSnapshotCrossesIt() throws Exception {
+    tradingApi.replay(0);
+    final String orderId =
+        tradingApi.createOrder(MARKET_ID, OrderType.BUY, BigDecimal.ONE, new BigDecimal("98.50"));
+    tradingApi.replay(1);
+    assertEquals(1, tradingApi.getYourOpenOrders(MARKET_ID).size());
+    assertTrue(tradingApi.getTrades().isEmpty());
+
+    tradingApi.replay(2);
+
+    assertTrue(tradingApi.getYourOpenOrders(MARKET_ID).isEmpty());
+    final List<Trade> trades = tradingApi.getTrades();
+    assertEquals(1, trades.size());
+    assertEquals(orderId, trades.get(0).getBuyOrderId());
+    assertEquals(0, new BigDecimal("98.50").compareTo(trades.get(0).getPrice()));
+    assertEquals(OrderType.SELL, trades.get(0).getTakerType());
+    assertEquals(1577836920000L, trades.get(0).getTimestamp());
+  }
+
+  @Test
+  public void testOrderLargerThanQuoteOnlyPartFills() throws Exception {
+    tradingApi.replay(0);
+
+    tradingApi.createOrder(MARKET_ID, OrderType.BUY, new BigDecimal("3"), new BigDecimal("101"));
+
+    assertEquals(1, tradingApi.getTrades().size());
+    assertEquals(0, new BigDecimal("2").compareTo(tradingApi.getTrades().get(0).getQuantity()));
+    assertEquals(
+        0,
+        BigDecimal.ONE.compareTo(tradingApi.getYourOpenOrders(MARKET_ID).get(0).getQuantity()));
+  }
+
+  @Test
+  public void testCancelledOrderReleasesFunds() throws Exception {
+    tradingApi.replay(0);
+    final String orderId =
+        tradingApi.createOrder(MARKET_ID, OrderType.SELL, BigDecimal.ONE, new BigDecimal("110"));
+    assertEquals(
+        0,
+        BigDecimal.ONE.compareTo(tradingApi.getBalanceInfo().getBalancesOnHold().get("BTC")));
+
+    assertTrue(tradingApi.cancelOrder(orderId, MARKET_ID));
+    assertFalse(tradingApi.cancelOrder(orderId, MARKET_ID));
+    assertEquals(
+        0,
+        BigDecimal.ONE.compareTo(tradingApi.getBalanceInfo().getBalancesAvailable().get("BTC")));
+  }
+
+  @Test(expected = TradingApiException.class)
+  public void testOrderThatCannotBeFundedIsRejected() throws Exception {
+    tradingApi.replay(0);
+    tradingApi.createOrder(MARKET_ID, OrderType.SELL, new BigDecimal("5"), new BigDecimal("110"));
+  }
+
+  @Test
+  public void testEquityValuesBaseCurrencyAtLastPrice() throws Exception {
+    assertEquals(0, new BigDecimal("1000").compareTo(tradingApi.getEquity()));
+
+    tradingApi.replay(0);
+    tradingApi.createOrder(MARKET_ID, OrderType.SELL, BigDecimal.ONE, new BigDecimal("110"));
+
+    // 1000 USD + 1 BTC held at 100.50
+    assertEquals(0, new BigDecimal("1100.50").compareTo(tradingApi.getEquity()));
+  }
+
+  @Test
+  public void testFeesAreReported() {
+    assertEquals(
+        0,
+        new BigDecimal("0.0025")
+            .compareTo(tradingApi.getPercentageOfBuyOrderTakenForExchangeFee(MARKET_ID)));
+    assertEquals(
+        0,
+        new BigDecimal("0.005")
+            .compareTo(tradingApi.getPercentageOfSellOrderTakenForExchangeFee(MARKET_ID)));
+    assertTrue(tradingApi.getImplName().startsWith("Backtest"));
+  }
+}
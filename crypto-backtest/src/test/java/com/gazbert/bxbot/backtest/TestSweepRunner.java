@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.backtest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.crypto.exchanges.tickstore.TickStore;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests the sweep runner sweeps the Example Scalping Strategy over the test history as expected.
+ *
+ * @author gazbert
+ */
+public class TestSweepRunner {
+
+  private static final Path HISTORY = Paths.get("./target/sweep/btcusd.csv");
+  private static final Path RESULTS = Paths.get("./target/sweep/results.csv");
+
+  @Test
+  public void testCsvHistoryIsMappedAndResultsAreWritten() throws Exception {
+    Files.createDirectories(HISTORY.getParent());
+    Files.copy(
+        TestCsvMarketHistory.MARKET_HISTORY,
+        HISTORY,
+        StandardCopyOption.REPLACE_EXISTING);
+
+    final List<SweepResult> results =
+        SweepRunner.run(
+            new BacktestOptions(
+                new String[] {
+                  "history=" + HISTORY,
+                  "strategy=com.gazbert.crypto.strategies.ExampleScalpingStrategy",
+                  "market-id=btcusd",
+                  "base-currency=BTC",
+                  "counter-currency=USD",
+                  "buy-fee=0.25",
+                  "sell-fee=0.25",
+                  "balances=USD=100",
+                  "threads=2",
+                  "results=" + RESULTS,
+                  "strategy.counter-currency-buy-order-amount=20",
+                  "sweep.minimum-percentage-gain=1,2,5"
+                }));
+
+    assertEquals(3, results.size());
+    assertEquals("5", results.get(0).getSweptItems().get("minimum-percentage-gain"));
+    assertTrue(results.get(0).toString().contains("minimum-percentage-gain=5"));
+    assertTrue(
+        Files.exists(
+            Paths.get("./target/sweep/btcusd.csv.columns")
+                .resolve(TickStore.TIMESTAMP_COLUMN)));
+    final List<String> lines = Files.readAllLines(RESULTS, StandardCharsets.UTF_8);
+    assertEquals(4, lines.size());
+    assertTrue(lines.get(0), lines.get(0).startsWith("rank,minimum-percentage-gain,"));
+    assertTrue(lines.get(1), lines.get(1).startsWith("1,5,"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNothingToSweepIsRejected() throws Exception {
+    SweepRunner.run(
+        new BacktestOptions(new String[] {"history=" + TestCsvMarketHistory.MARKET_HISTORY}));
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges;
+
+import com.gazbert.crypto.exchange.api.ExchangeAdapter;
+import java.util.function.Supplier;
+
+/**
+ * The exchanges the benchmarks run against. Each maps the request paths its adapter calls to the
+ * recorded payloads used by the adapter's unit tests.
+ *
+ * <p>Gemini has no ticker API call, so its getTicker is the Trading API default and sends nothing.
+ *
+ * @author gazbert
+ */
+public enum BenchmarkExchange {
+  BITFINEX("btcusd", BitfinexExchangeAdapter::new) {
+    @Override
+    void addResponses(ExchangeStub exchangeStub) {
+      exchangeStub
+          .respond("/v1/book/btcusd", "bitfinex/book.json")
+          .respond("/v1/orders", "bitfinex/orders.json")
+          .respond("/v1/balances", "bitfinex/balances.json")
+          .respond("/v1/pubticker/btcusd", "bitfinex/pubticker.json");
+    }
+  },
+
+  BITSTAMP("btcusd", BitstampExchangeAdapter::new) {
+    @Override
+    void addResponses(ExchangeStub exchangeStub) {
+      exchangeStub
+          .respond("/api/v2/order_book/btcusd", "bitstamp/order_book.json")
+          .respond("/api/v2/open_orders/btcusd/", "bitstamp/open_orders.json")
+          .respond("/api/v2/balance/", "bitstamp/balance.json")
+          .respond("/api/v2/ticker/btcusd", "bitstamp/ticker.json");
+    }
+  },
+
+  GDAX("BTC-GBP", GdaxExchangeAdapter::new) {
+    @Override
+    void addResponses(ExchangeStub exchangeStub) {
+      exchangeStub
+          .respond("/products/BTC-GBP/book", "gdax/book.json")
+          .respond("/orders", "gdax/orders.json")
+          .respond("/accounts", "gdax/accounts.json")
+          .respond("/products/BTC-GBP/ticker", "gdax/ticker.json")
+          .respond("/products/BTC-GBP/stats", "gdax/stats.json");
+    }
+  },
+
+  GEMINI("ethbtc", GeminiExchangeAdapter::new) {
+    @Override
+    void addResponses(ExchangeStub exchangeStub) {
+      exchangeStub
+          .respond("/v1/book/ethbtc", "gemini/book.json")
+          .respond("/v1/orders", "gemini/orders.json")
+          .respond("/v1/balances", "gemini/balances.json");
+    }
+  },
+
+  ITBIT("XBTUSD", ItBitExchangeAdapter::new) {
+    @Override
+    void addResponses(ExchangeStub exchangeStub) {
+      exchangeStub
+          .respond("/v1/markets/XBTUSD/order_book", "itbit/order_book.json")
+          .respond("/v1/wallets", "itbit/wallets.json")
+          .respond("/v1/wallets/62827e93-f19b-67bf-8d2f-663fa4f0f1ad/orders", "itbit/orders.json")
+          .respond("/v1/markets/XBTUSD/ticker", "itbit/ticker.json");
+    }
+  },
+
+  KRAKEN("XBTUSD", KrakenExchangeAdapter::new) {
+    @Override
+    void addResponses(ExchangeStub exchangeStub) {
+      exchangeStub
+          .respond("/0/public/Depth", "kraken/Depth.json")
+          .respond("/0/private/OpenOrders", "kraken/OpenOrders.json")
+          .respond("/0/private/Balance", "kraken/Balance.json")
+          .respond("/0/public/Ticker", "kraken/Ticker.json");
+    }
+  },
+
+  OKCOIN("btc_usd", OkCoinExchangeAdapter::new) {
+    @Override
+    void addResponses(ExchangeStub exchangeStub) {
+      exchangeStub
+          .respond("/api/v1/depth.do", "okcoin/depth.json")
+          .respond("/api/v1/order_info.do", "okcoin/order_info.json")
+          .respond("/api/v1/userinfo.do", "okcoin/userinfo.json")
+          .respond("/api/v1/ticker.do", "okcoin/ticker.json");
+    }
+  };
+
+  private final String marketId;
+  private final Supplier<ExchangeAdapter> exchangeAdapterFactory;
+
+  BenchmarkExchange(String marketId, Supplier<ExchangeAdapter> exchangeAdapterFactory) {
+    this.marketId = marketId;
+    this.exchangeAdapterFactory = exchangeAdapterFactory;
+  }
+
+  String getMarketId() {
+    return marketId;
+  }
+
+  /**
+   * Creates the exchange's adapter and points it at the stub.
+   *
+   * @param exchangeStub the stub to send the adapter's requests to.
+   * @return the initialised adapter.
+   */
+  ExchangeAdapter createExchangeAdapter(ExchangeStub exchangeStub) {
+    addResponses(exchangeStub);
+    final ExchangeAdapter exchangeAdapter = exchangeAdapterFactory.get();
+    exchangeAdapter.init(new BenchmarkExchangeConfig(exchangeAdapter.getClass().getName()));
+    ((AbstractExchangeAdapter) exchangeAdapter).setRequestEndpoint(exchangeStub.getEndpoint());
+    return exchangeAdapter;
+  }
+
+  abstract void addResponses(ExchangeStub exchangeStub);
+}
@@ -0,0 +1,146 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges;
+
+import com.gazbert.crypto.exchange.api.AuthenticationConfig;
+import com.gazbert.crypto.exchange.api.ExchangeConfig;
+import com.gazbert.crypto.exchange.api.NetworkConfig;
+import com.gazbert.crypto.exchange.api.OtherConfig;
+import com.gazbert.crypto.exchange.api.RateLimitConfig;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exchange config for running an adapter against an {@link ExchangeStub}.
+ *
+ * <p>It has dummy credentials and no rate limits; the adapters only need the credentials to be
+ * well-formed, as the stub does not check request signatures.
+ *
+ * @author gazbert
+ */
+final class BenchmarkExchangeConfig
+    implements ExchangeConfig, AuthenticationConfig, NetworkConfig, OtherConfig {
+
+  /* Base64 encoded; Kraken and GDAX decode their secret before using it to sign requests. */
+  private static final String SECRET = "YmVuY2htYXJrLXNlY3JldA==";
+
+  private final String exchangeAdapter;
+  private final Map<String, String> authenticationItems = new HashMap<>();
+  private final Map<String, String> otherItems = new HashMap<>();
+
+  BenchmarkExchangeConfig(String exchangeAdapter) {
+    this.exchangeAdapter = exchangeAdapter;
+    authenticationItems.put("key", "benchmark-key");
+    authenticationItems.put("secret", SECRET);
+    authenticationItems.put("client-id", "benchmark-client-id");
+    authenticationItems.put("passphrase", "benchmark-passphrase");
+    authenticationItems.put("userId", "benchmark-user-id");
+    otherItems.put("buy-fee", "0.25");
+    otherItems.put("sell-fee", "0.25");
+    otherItems.put("keep-alive-during-maintenance", "false");
+  }
+
+  @Override
+  public String getExchangeName() {
+    return "Benchmark Exchange";
+  }
+
+  @Override
+  public String getExchangeAdapter() {
+    return exchangeAdapter;
+  }
+
+  @Override
+  public AuthenticationConfig getAuthenticationConfig() {
+    return this;
+  }
+
+  @Override
+  public NetworkConfig getNetworkConfig() {
+    return this;
+  }
+
+  @Override
+  public OtherConfig getOtherConfig() {
+    return this;
+  }
+
+  @Override
+  public String getItem(String name) {
+    final String item = authenticationItems.get(name);
+    return item != null ? item : otherItems.get(name);
+  }
+
+  @Override
+  public List<Integer> getNonFatalErrorCodes() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public List<String> getNonFatalErrorMessages() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public Integer getConnectionTimeout() {
+    return 30;
+  }
+
+  @Override
+  public String getHttpTransport() {
+    return null;
+  }
+
+  @Override
+  public Integer getConnectionPoolSize() {
+    return null;
+  }
+
+  @Override
+  public Integer getConnectionIdleTimeout() {
+    return null;
+  }
+
+  @Override
+  public RateLimitConfig getPublicRateLimit() {
+    return null;
+  }
+
+  @Override
+  public RateLimitConfig getPrivateRateLimit() {
+    return null;
+  }
+
+  @Override
+  public RateLimitConfig getTradingRateLimit() {
+    return null;
+  }
+
+  @Override
+  public Integer getRateLimitMaxWait() {
+    return null;
+  }
+}
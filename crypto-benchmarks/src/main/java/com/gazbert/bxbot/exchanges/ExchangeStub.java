@@ -0,0 +1,116 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An in-process HTTP server that stands in for an exchange in the benchmarks.
+ *
+ * <p>It replies to each request path with a recorded exchange payload, so a benchmark measures the
+ * adapter's request and parsing code over loopback instead of the exchange's latency.
+ *
+ * @author gazbert
+ */
+final class ExchangeStub implements AutoCloseable {
+
+  private static final String EXCHANGE_DATA = "/exchange-data/";
+
+  static {
+    // Else Nagle's algorithm holds back the body until the headers are ACKed: ~40ms per request.
+    System.setProperty("sun.net.httpserver.nodelay", "true");
+  }
+
+  private final Map<String, byte[]> responses = new HashMap<>();
+  private final HttpServer server;
+
+  ExchangeStub() {
+    try {
+      server =
+          HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to start exchange stub", e);
+    }
+    server.createContext("/", this::handle);
+    server.start();
+  }
+
+  /**
+   * Replies to requests for the given path with a recorded payload.
+   *
+   * @param path the request path, e.g. /0/public/Depth
+   * @param exchangeData the payload under exchange-data, e.g. kraken/Depth.json
+   * @return this stub.
+   */
+  ExchangeStub respond(String path, String exchangeData) {
+    try (InputStream payload = getClass().getResourceAsStream(EXCHANGE_DATA + exchangeData)) {
+      if (payload == null) {
+        throw new IllegalArgumentException("Exchange data not found: " + exchangeData);
+      }
+      responses.put(path, payload.readAllBytes());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to load exchange data: " + exchangeData, e);
+    }
+    return this;
+  }
+
+  URL getEndpoint() {
+    try {
+      return new URL("http", "localhost", server.getAddress().getPort(), "/");
+    } catch (MalformedURLException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      final byte[] response = responses.get(exchange.getRequestURI().getPath());
+      if (response == null) {
+        exchange.sendResponseHeaders(404, -1);
+        return;
+      }
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, response.length);
+      try (OutputStream body = exchange.getResponseBody()) {
+        body.write(response);
+      }
+    }
+  }
+}
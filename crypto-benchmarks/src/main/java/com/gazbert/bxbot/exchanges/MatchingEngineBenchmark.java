@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges;
+
+import com.gazbert.crypto.exchanges.simulator.LiquidityProvider;
+import com.gazbert.crypto.exchanges.simulator.MatchingEngine;
+import com.gazbert.crypto.trading.api.OrderType;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the simulated exchange's order throughput.
+ *
+ * <p>{@link #restAndCancel} places an order that rests on the book and cancels it. {@link
+ * #fillAndRequote} places an order that fills against the liquidity provider's quotes, which are
+ * then requoted around the new price; the orders alternate between buying and selling so the price
+ * and balances stay level.
+ *
+ * @author gazbert
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchingEngineBenchmark {
+
+  private static final String MARKET_ID = "btcusd";
+  private static final String ACCOUNT_ID = "benchmark";
+  private static final BigDecimal QUANTITY = new BigDecimal("0.5");
+  private static final BigDecimal CROSS_UP = new BigDecimal("1.01");
+  private static final BigDecimal CROSS_DOWN = new BigDecimal("0.99");
+
+  private MatchingEngine matchingEngine;
+  private LiquidityProvider liquidityProvider;
+  private boolean buy;
+
+  /** Opens a market quoted 10 levels deep and funds the benchmark account. */
+  @Setup(Level.Trial)
+  public void setup() {
+    matchingEngine = new MatchingEngine(new BigDecimal("0.0025"), new BigDecimal("0.0025"));
+    matchingEngine.addMarket(MARKET_ID, "BTC", "USD");
+    matchingEngine.deposit(ACCOUNT_ID, "BTC", new BigDecimal("1000000"));
+    matchingEngine.deposit(ACCOUNT_ID, "USD", new BigDecimal("100000000000"));
+    liquidityProvider = new LiquidityProvider(matchingEngine, 10, new BigDecimal("0.1"), QUANTITY);
+    liquidityProvider.addMarket(MARKET_ID, new BigDecimal("10000.00"));
+  }
+
+  /** Places an order below the best bid and cancels it. */
+  @Benchmark
+  public boolean restAndCancel() {
+    final String orderId =
+        matchingEngine.submitOrder(
+            ACCOUNT_ID, MARKET_ID, OrderType.BUY, QUANTITY, new BigDecimal("9999.00"));
+    return matchingEngine.cancelOrder(ACCOUNT_ID, orderId);
+  }
+
+  /** Fills against the best quote and requotes. */
+  @Benchmark
+  public String fillAndRequote() {
+    buy = !buy;
+    final BigDecimal referencePrice = liquidityProvider.getReferencePrice(MARKET_ID);
+    final OrderType orderType = buy ? OrderType.BUY : OrderType.SELL;
+    final BigDecimal price = referencePrice.multiply(buy ? CROSS_UP : CROSS_DOWN);
+    final String orderId =
+        matchingEngine.submitOrder(ACCOUNT_ID, MARKET_ID, orderType, QUANTITY, price);
+    liquidityProvider.requoteIfTraded(MARKET_ID);
+    return orderId;
+  }
+}
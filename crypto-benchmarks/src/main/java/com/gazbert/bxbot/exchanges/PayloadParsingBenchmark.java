@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges;
+
+import com.gazbert.crypto.exchange.api.ExchangeAdapter;
+import com.gazbert.crypto.trading.api.BalanceInfo;
+import com.gazbert.crypto.trading.api.ExchangeNetworkException;
+import com.gazbert.crypto.trading.api.MarketOrderBook;
+import com.gazbert.crypto.trading.api.OpenOrder;
+import com.gazbert.crypto.trading.api.Ticker;
+import com.gazbert.crypto.trading.api.TradingApiException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures each adapter's Trading API calls against its recorded exchange payloads.
+ *
+ * <p>Each call is a full round trip to the in-process {@link ExchangeStub}: building and signing
+ * the request, sending it over loopback, and parsing the response.
+ *
+ * @author gazbert
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadParsingBenchmark {
+
+  @Param
+  private BenchmarkExchange exchange;
+
+  private ExchangeStub exchangeStub;
+  private ExchangeAdapter exchangeAdapter;
+  private String marketId;
+
+  /** Starts the exchange stub and points the exchange's adapter at it. */
+  @Setup(Level.Trial)
+  public void setup() {
+    exchangeStub = new ExchangeStub();
+    exchangeAdapter = exchange.createExchangeAdapter(exchangeStub);
+    marketId = exchange.getMarketId();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    exchangeStub.close();
+  }
+
+  @Benchmark
+  public MarketOrderBook getMarketOrders() throws TradingApiException, ExchangeNetworkException {
+    return exchangeAdapter.getMarketOrders(marketId);
+  }
+
+  @Benchmark
+  public List<OpenOrder> getYourOpenOrders()
+      throws TradingApiException, ExchangeNetworkException {
+    return exchangeAdapter.getYourOpenOrders(marketId);
+  }
+
+  @Benchmark
+  public BalanceInfo getBalanceInfo() throws TradingApiException, ExchangeNetworkException {
+    return exchangeAdapter.getBalanceInfo();
+  }
+
+  @Benchmark
+  public Ticker getTicker() throws TradingApiException, ExchangeNetworkException {
+    return exchangeAdapter.getTicker(marketId);
+  }
+}
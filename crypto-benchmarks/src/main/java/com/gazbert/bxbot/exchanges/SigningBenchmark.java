@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures signing an authenticated request, without sending it.
+ *
+ * <p>The adapters are set up against the {@link ExchangeStub} as in the other benchmarks, but
+ * signing is CPU only, so these measure it on its own. {@link PayloadParsingBenchmark} has the
+ * signed requests' round trips.
+ *
+ * @author gazbert
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SigningBenchmark {
+
+  private static final long NONCE = 1591289370L;
+
+  private ExchangeStub exchangeStub;
+  private KrakenExchangeAdapter krakenExchangeAdapter;
+  private BitstampExchangeAdapter bitstampExchangeAdapter;
+  private OkCoinExchangeAdapter okCoinExchangeAdapter;
+
+  /* A typical order's params, as the adapters send them. */
+  private final Map<String, String> orderParams = new HashMap<>();
+  private String krakenPostData;
+
+  /** Sets up the adapters and an order to sign. */
+  @Setup(Level.Trial)
+  public void setup() {
+    exchangeStub = new ExchangeStub();
+    krakenExchangeAdapter =
+        (KrakenExchangeAdapter) BenchmarkExchange.KRAKEN.createExchangeAdapter(exchangeStub);
+    bitstampExchangeAdapter =
+        (BitstampExchangeAdapter) BenchmarkExchange.BITSTAMP.createExchangeAdapter(exchangeStub);
+    okCoinExchangeAdapter =
+        (OkCoinExchangeAdapter) BenchmarkExchange.OKCOIN.createExchangeAdapter(exchangeStub);
+
+    orderParams.put("api_key", "benchmark-key");
+    orderParams.put("symbol", "btc_usd");
+    orderParams.put("type", "buy");
+    orderParams.put("price", "9512.50000000");
+    orderParams.put("amount", "0.01500000");
+    krakenPostData =
+        "pair=XBTUSD&type=buy&ordertype=limit&price=9512.5&volume=0.015&nonce=" + NONCE;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    exchangeStub.close();
+  }
+
+  @Benchmark
+  public String krakenHmacSha512() {
+    return krakenExchangeAdapter.createSignature("AddOrder", NONCE, krakenPostData);
+  }
+
+  @Benchmark
+  public String bitstampHmacSha256() {
+    return bitstampExchangeAdapter.createSignature(NONCE);
+  }
+
+  @Benchmark
+  public String okCoinMd5() {
+    return okCoinExchangeAdapter.createSignature(orderParams);
+  }
+
+  @Benchmark
+  public String createAlphabeticallySortedQueryString() {
+    return okCoinExchangeAdapter.createAlphabeticallySortedQueryString(orderParams);
+  }
+}
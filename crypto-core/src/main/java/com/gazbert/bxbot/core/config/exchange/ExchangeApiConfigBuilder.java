@@ -25,6 +25,7 @@ package com.gazbert.crypto.core.config.exchange;
 
 import com.gazbert.crypto.domain.exchange.ExchangeConfig;
 import com.gazbert.crypto.domain.exchange.NetworkConfig;
+import com.gazbert.crypto.domain.exchange.RateLimitConfig;
 import java.util.List;
 import java.util.Map;
 import org.apache.logging.log4j.LogManager;
@@ -53,6 +54,16 @@ public final class ExchangeApiConfigBuilder {
     if (networkConfig != null) {
       final NetworkConfigImpl exchangeApiNetworkConfig = new NetworkConfigImpl();
       exchangeApiNetworkConfig.setConnectionTimeout(networkConfig.getConnectionTimeout());
+      exchangeApiNetworkConfig.setHttpTransport(networkConfig.getHttpTransport());
+      exchangeApiNetworkConfig.setConnectionPoolSize(networkConfig.getConnectionPoolSize());
+      exchangeApiNetworkConfig.setConnectionIdleTimeout(networkConfig.getConnectionIdleTimeout());
+      exchangeApiNetworkConfig.setPublicRateLimit(
+          buildRateLimitConfig(networkConfig.getPublicRateLimit()));
+      exchangeApiNetworkConfig.setPrivateRateLimit(
+          buildRateLimitConfig(networkConfig.getPrivateRateLimit()));
+      exchangeApiNetworkConfig.setTradingRateLimit(
+          buildRateLimitConfig(networkConfig.getTradingRateLimit()));
+      exchangeApiNetworkConfig.setRateLimitMaxWait(networkConfig.getRateLimitMaxWait());
 
       final List<Integer> nonFatalErrorCodes = networkConfig.getNonFatalErrorCodes();
       if (nonFatalErrorCodes != null && !nonFatalErrorCodes.isEmpty()) {
@@ -117,4 +128,14 @@ public final class ExchangeApiConfigBuilder {
 
     return exchangeApiConfig;
   }
+
+  private static RateLimitConfigImpl buildRateLimitConfig(RateLimitConfig rateLimitConfig) {
+    if (rateLimitConfig == null) {
+      return null;
+    }
+    final RateLimitConfigImpl exchangeApiRateLimitConfig = new RateLimitConfigImpl();
+    exchangeApiRateLimitConfig.setRequestsPerSecond(rateLimitConfig.getRequestsPerSecond());
+    exchangeApiRateLimitConfig.setBurst(rateLimitConfig.getBurst());
+    return exchangeApiRateLimitConfig;
+  }
 }
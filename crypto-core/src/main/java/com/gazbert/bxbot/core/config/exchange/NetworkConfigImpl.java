@@ -24,6 +24,7 @@
 package com.gazbert.crypto.core.config.exchange;
 
 import com.gazbert.crypto.exchange.api.NetworkConfig;
+import com.gazbert.crypto.exchange.api.RateLimitConfig;
 import com.google.common.base.MoreObjects;
 
 import java.util.ArrayList;
@@ -39,6 +40,13 @@ public class NetworkConfigImpl implements NetworkConfig {
   private Integer connectionTimeout;
   private List<Integer> nonFatalErrorCodes;
   private List<String> nonFatalErrorMessages;
+  private String httpTransport;
+  private Integer connectionPoolSize;
+  private Integer connectionIdleTimeout;
+  private RateLimitConfig publicRateLimit;
+  private RateLimitConfig privateRateLimit;
+  private RateLimitConfig tradingRateLimit;
+  private Integer rateLimitMaxWait;
 
   public NetworkConfigImpl() {
     nonFatalErrorCodes = new ArrayList<>();
@@ -72,12 +80,82 @@ public class NetworkConfigImpl implements NetworkConfig {
     this.nonFatalErrorMessages = nonFatalErrorMessages;
   }
 
+  @Override
+  public String getHttpTransport() {
+    return httpTransport;
+  }
+
+  public void setHttpTransport(String httpTransport) {
+    this.httpTransport = httpTransport;
+  }
+
+  @Override
+  public Integer getConnectionPoolSize() {
+    return connectionPoolSize;
+  }
+
+  public void setConnectionPoolSize(Integer connectionPoolSize) {
+    this.connectionPoolSize = connectionPoolSize;
+  }
+
+  @Override
+  public Integer getConnectionIdleTimeout() {
+    return connectionIdleTimeout;
+  }
+
+  public void setConnectionIdleTimeout(Integer connectionIdleTimeout) {
+    this.connectionIdleTimeout = connectionIdleTimeout;
+  }
+
+  @Override
+  public RateLimitConfig getPublicRateLimit() {
+    return publicRateLimit;
+  }
+
+  public void setPublicRateLimit(RateLimitConfig publicRateLimit) {
+    this.publicRateLimit = publicRateLimit;
+  }
+
+  @Override
+  public RateLimitConfig getPrivateRateLimit() {
+    return privateRateLimit;
+  }
+
+  public void setPrivateRateLimit(RateLimitConfig privateRateLimit) {
+    this.privateRateLimit = privateRateLimit;
+  }
+
+  @Override
+  public RateLimitConfig getTradingRateLimit() {
+    return tradingRateLimit;
+  }
+
+  public void setTradingRateLimit(RateLimitConfig tradingRateLimit) {
+    this.tradingRateLimit = tradingRateLimit;
+  }
+
+  @Override
+  public Integer getRateLimitMaxWait() {
+    return rateLimitMaxWait;
+  }
+
+  public void setRateLimitMaxWait(Integer rateLimitMaxWait) {
+    this.rateLimitMaxWait = rateLimitMaxWait;
+  }
+
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(this)
                .add("connectionTimeout", connectionTimeout)
                .add("nonFatalErrorCodes", nonFatalErrorCodes)
                .add("nonFatalErrorMessages", nonFatalErrorMessages)
+               .add("httpTransport", httpTransport)
+               .add("connectionPoolSize", connectionPoolSize)
+               .add("connectionIdleTimeout", connectionIdleTimeout)
+               .add("publicRateLimit", publicRateLimit)
+               .add("privateRateLimit", privateRateLimit)
+               .add("tradingRateLimit", tradingRateLimit)
+               .add("rateLimitMaxWait", rateLimitMaxWait)
                .toString();
   }
 }
@@ -29,12 +29,10 @@ import com.gazbert.crypto.domain.strategy.StrategyConfig;
 import com.gazbert.crypto.exchange.api.ExchangeAdapter;
 import com.gazbert.crypto.strategy.api.TradingStrategy;
 import com.gazbert.crypto.trading.api.Market;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -56,13 +54,17 @@ public class TradingStrategiesBuilder {
     this.tradingStrategyFactory = tradingStrategyFactory;
   }
 
-  /** Builds the Trading Strategy execution list. */
-  public List<TradingStrategy> buildStrategies(
+  /**
+   * Builds the Trading Strategy execution list.
+   *
+   * @return the Trading Strategies keyed by the Market they trade on, in Market config order.
+   */
+  public Map<Market, TradingStrategy> buildStrategies(
       List<StrategyConfig> strategies,
       List<MarketConfig> markets,
       ExchangeAdapter exchangeAdapter) {
 
-    final List<TradingStrategy> tradingStrategiesToExecute = new ArrayList<>();
+    final Map<Market, TradingStrategy> tradingStrategiesToExecute = new LinkedHashMap<>();
 
     // Register the strategies
     final Map<String, StrategyConfig> tradingStrategyConfigs = new HashMap<>();
@@ -71,9 +73,6 @@ public class TradingStrategiesBuilder {
       LOG.info(() -> "Registered Trading Strategy with Trading Engine: Id=" + strategy.getId());
     }
 
-    // Set logic only as crude mechanism for checking for duplicate Markets.
-    final Set<Market> loadedMarkets = new HashSet<>();
-
     // Load em up and create the Strategies
     for (final MarketConfig market : markets) {
       final String marketName = market.getName();
@@ -86,8 +85,8 @@ public class TradingStrategiesBuilder {
       final Market tradingMarket =
           new MarketImpl(
               marketName, market.getId(), market.getBaseCurrency(), market.getCounterCurrency());
-      final boolean wasAdded = loadedMarkets.add(tradingMarket);
-      if (!wasAdded) {
+      // Map key logic only as crude mechanism for checking for duplicate Markets.
+      if (tradingStrategiesToExecute.containsKey(tradingMarket)) {
         final String errorMsg = "Found duplicate Market! Market details: " + market;
         LOG.fatal(() -> errorMsg);
         throw new IllegalArgumentException(errorMsg);
@@ -133,7 +132,7 @@ public class TradingStrategiesBuilder {
                     + "] Class: "
                     + tradingStrategy.getClassName());
 
-        tradingStrategiesToExecute.add(strategyImpl);
+        tradingStrategiesToExecute.put(tradingMarket, strategyImpl);
       } else {
 
         // Game over. Config integrity blown - we can't find strat.
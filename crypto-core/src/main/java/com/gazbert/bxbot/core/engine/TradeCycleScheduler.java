@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.core.engine;
+
+import com.gazbert.crypto.domain.engine.TradeCycleOverrunPolicy;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Schedules the trade cycles of a single market at a fixed rate.
+ *
+ * <p>Each trade cycle is given a start time on a fixed grid of trade cycle intervals, so the time
+ * spent executing a cycle is subtracted from the time the engine sleeps before the next one. If a
+ * cycle runs past the start time of the next one, the overrun is recorded and the configured
+ * {@link TradeCycleOverrunPolicy} decides whether the missed cycles are run immediately or
+ * skipped.
+ *
+ * <p>This class is not thread-safe; it is only used by the Trading Engine thread.
+ *
+ * @author gazbert
+ */
+class TradeCycleScheduler {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final String name;
+  private final long tradeCycleInterval;
+  private final TradeCycleOverrunPolicy overrunPolicy;
+  private final LongSupplier nanoClock;
+
+  private long nextTradeCycleStartTime;
+  private long overrunCount;
+
+  TradeCycleScheduler(
+      String name,
+      int tradeCycleIntervalInSecs,
+      TradeCycleOverrunPolicy overrunPolicy,
+      long firstTradeCycleStartTime,
+      LongSupplier nanoClock) {
+    this.name = name;
+    this.tradeCycleInterval = TimeUnit.SECONDS.toNanos(tradeCycleIntervalInSecs);
+    this.overrunPolicy = overrunPolicy == null ? TradeCycleOverrunPolicy.SKIP : overrunPolicy;
+    this.nextTradeCycleStartTime = firstTradeCycleStartTime;
+    this.nanoClock = nanoClock;
+  }
+
+  /** Marks the start of the trade cycle that was due at the next trade cycle start time. */
+  void startTradeCycle() {
+    nextTradeCycleStartTime += tradeCycleInterval;
+  }
+
+  /**
+   * Works out when the next trade cycle should start, applying the overrun policy if the trade
+   * cycle that has just completed ran past it.
+   *
+   * @return the next trade cycle start time, in {@link System#nanoTime()} units.
+   */
+  long scheduleNextTradeCycle() {
+    final long overrun = nanoClock.getAsLong() - nextTradeCycleStartTime;
+    if (overrun <= 0) {
+      return nextTradeCycleStartTime;
+    }
+
+    overrunCount++;
+    final long missedTradeCycles = 1 + overrun / tradeCycleInterval;
+    LOG.warn(
+        () ->
+            "Trade cycle for "
+                + name
+                + " overran its deadline by "
+                + TimeUnit.NANOSECONDS.toMillis(overrun)
+                + "ms, missing "
+                + missedTradeCycles
+                + " trade cycle(s). Overrun policy: "
+                + overrunPolicy
+                + ". Total overruns: "
+                + overrunCount);
+
+    if (overrunPolicy == TradeCycleOverrunPolicy.SKIP) {
+      nextTradeCycleStartTime += missedTradeCycles * tradeCycleInterval;
+    }
+    return nextTradeCycleStartTime;
+  }
+
+  long getNextTradeCycleStartTime() {
+    return nextTradeCycleStartTime;
+  }
+
+  long getOverrunCount() {
+    return overrunCount;
+  }
+}
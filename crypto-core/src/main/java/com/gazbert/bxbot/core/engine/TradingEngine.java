@@ -35,6 +35,8 @@ import com.gazbert.crypto.domain.exchange.ExchangeConfig;
 import com.gazbert.crypto.domain.market.MarketConfig;
 import com.gazbert.crypto.domain.strategy.StrategyConfig;
 import com.gazbert.crypto.exchange.api.ExchangeAdapter;
+import com.gazbert.crypto.exchanges.tickstore.TickRecorder;
+import com.gazbert.crypto.exchanges.tickstore.TickRecordingExchangeAdapter;
 import com.gazbert.crypto.services.config.EngineConfigService;
 import com.gazbert.crypto.services.config.ExchangeConfigService;
 import com.gazbert.crypto.services.config.MarketConfigService;
@@ -42,9 +44,24 @@ import com.gazbert.crypto.services.config.StrategyConfigService;
 import com.gazbert.crypto.strategy.api.StrategyException;
 import com.gazbert.crypto.strategy.api.TradingStrategy;
 import com.gazbert.crypto.trading.api.ExchangeNetworkException;
+import com.gazbert.crypto.trading.api.Market;
 import com.gazbert.crypto.trading.api.TradingApiException;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -64,10 +81,17 @@ import org.springframework.stereotype.Component;
  * <p>To keep things simple:
  *
  * <ul>
- *   <li>The engine is single threaded.
+ *   <li>The engine is single threaded by default. If <code>maxConcurrentStrategies</code> is set
+ *       in the Engine config, the Trading Strategies for each trade cycle are executed
+ *       concurrently on a bounded thread pool; the cycle still completes only once every Trading
+ *       Strategy has finished.
  *   <li>The engine only supports trading on 1 exchange per instance of the bot, i.e. 1 Exchange
  *       Adapter per process.
  *   <li>The engine only supports 1 Trading Strategy per Market.
+ *   <li>Each Market's Trading Strategy is executed on that Market's trade cycle interval if it has
+ *       one, otherwise on the Engine config trade cycle interval.
+ *   <li>The Emergency Stop Check runs at the start of a trade cycle, at most once per Engine config
+ *       trade cycle interval.
  * </ul>
  *
  * @author gazbert
@@ -88,9 +112,12 @@ public class TradingEngine {
   private boolean isRunning = false;
 
   private final EmailAlerter emailAlerter;
-  private List<TradingStrategy> tradingStrategies;
+  private Map<Market, TradingStrategy> tradingStrategies;
   private EngineConfig engineConfig;
   private ExchangeAdapter exchangeAdapter;
+  private TickRecorder tickRecorder;
+  private ExecutorService strategyExecutor;
+  private TradingStrategyScheduler tradingStrategyScheduler;
 
   private final ExchangeConfigService exchangeConfigService;
   private final EngineConfigService engineConfigService;
@@ -140,7 +167,10 @@ public class TradingEngine {
     // the sequence order of these methods is significant - don't change it.
     exchangeAdapter = loadExchangeAdapter();
     engineConfig = loadEngineConfig();
-    tradingStrategies = loadTradingStrategies();
+    final List<MarketConfig> markets = loadMarketConfigs();
+    tradingStrategies = loadTradingStrategies(markets);
+    strategyExecutor = createStrategyExecutor();
+    tradingStrategyScheduler = createTradingStrategyScheduler(markets);
   }
 
   /*
@@ -152,18 +182,28 @@ public class TradingEngine {
     LOG.info(() -> "Starting Trading Engine for " + engineConfig.getBotId() + " ...");
     while (keepAlive) {
       try {
-        LOG.info(() -> "*** Starting next trade cycle... ***");
-
-        // Emergency Stop Check MUST run at start of every trade cycle.
-        if (isEmergencyStopLimitBreached()) {
-          break;
-        }
-
-        for (final TradingStrategy tradingStrategy : tradingStrategies) {
-          LOG.info(
-              () ->
-                  "Executing Trading Strategy ---> " + tradingStrategy.getClass().getSimpleName());
-          tradingStrategy.execute();
+        final Map<Market, TradingStrategy> dueTradingStrategies =
+            tradingStrategyScheduler.startDueTradeCycles();
+        LOG.info(
+            () ->
+                "*** Starting next trade cycle for "
+                    + dueTradingStrategies.size()
+                    + " market(s)... ***");
+        try {
+          // Emergency Stop Check MUST run at start of every engine trade cycle interval.
+          // It only counts as done once it has passed, so a failed check is run again next cycle.
+          if (!dueTradingStrategies.isEmpty()
+              && tradingStrategyScheduler.isEmergencyStopCheckDue()) {
+            if (isEmergencyStopLimitBreached()) {
+              break;
+            }
+            tradingStrategyScheduler.markEmergencyStopChecked();
+          }
+
+          executeTradingStrategies(dueTradingStrategies);
+
+        } finally {
+          tradingStrategyScheduler.scheduleNextTradeCycles();
         }
 
         sleepUntilNextTradingCycle();
@@ -184,6 +224,10 @@ public class TradingEngine {
 
     // We've broken out of the control loop due to error or admin shutdown request
     LOG.fatal(() -> "BX-bot " + engineConfig.getBotId() + " is shutting down NOW!");
+    if (strategyExecutor != null) {
+      strategyExecutor.shutdownNow();
+    }
+    closeTickRecorder();
     synchronized (IS_RUNNING_MONITOR) {
       isRunning = false;
     }
@@ -206,14 +250,118 @@ public class TradingEngine {
     return isRunning;
   }
 
+  private void executeTradingStrategies(Map<Market, TradingStrategy> dueTradingStrategies)
+      throws StrategyException {
+    if (strategyExecutor == null || dueTradingStrategies.size() == 1) {
+      for (final Map.Entry<Market, TradingStrategy> entry : dueTradingStrategies.entrySet()) {
+        executeTradingStrategy(entry.getKey(), entry.getValue());
+      }
+    } else {
+      executeTradingStrategiesConcurrently(dueTradingStrategies);
+    }
+  }
+
+  /*
+   * Fans the Trading Strategies out over the strategy executor and waits for them all to complete.
+   * The first Trading Strategy to fail stops the rest that have not started yet and its exception
+   * is rethrown to the main control loop, same as the sequential behaviour. Trading Strategies
+   * already running are left to finish first, so none is interrupted part way through an order.
+   */
+  private void executeTradingStrategiesConcurrently(
+      Map<Market, TradingStrategy> dueTradingStrategies) throws StrategyException {
+    final CompletionService<Market> completionService =
+        new ExecutorCompletionService<>(strategyExecutor);
+    final List<StrategyExecution> executions = new ArrayList<>(dueTradingStrategies.size());
+    for (final Map.Entry<Market, TradingStrategy> entry : dueTradingStrategies.entrySet()) {
+      final StrategyExecution execution = new StrategyExecution();
+      execution.future =
+          completionService.submit(
+              () -> {
+                if (execution.start()) {
+                  executeTradingStrategy(entry.getKey(), entry.getValue());
+                }
+                return entry.getKey();
+              });
+      executions.add(execution);
+    }
+
+    try {
+      for (int i = 0; i < executions.size(); i++) {
+        completionService.take().get();
+      }
+    } catch (InterruptedException e) {
+      LOG.warn(() -> "Control Loop thread interrupted when waiting for Trading Strategies");
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof StrategyException) {
+        throw (StrategyException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new StrategyException(cause);
+    } finally {
+      cancelPendingAndAwaitRunning(executions);
+    }
+  }
+
+  /*
+   * Cancels the Trading Strategies that have not started yet and waits for the running ones to
+   * finish. Stops waiting if the Control Loop thread is interrupted, e.g. on shutdown.
+   */
+  private static void cancelPendingAndAwaitRunning(List<StrategyExecution> executions) {
+    for (final StrategyExecution execution : executions) {
+      if (execution.cancelIfNotStarted()
+          || execution.future.isDone()
+          || Thread.currentThread().isInterrupted()) {
+        continue;
+      }
+      try {
+        execution.future.get();
+      } catch (InterruptedException e) {
+        LOG.warn(() -> "Control Loop thread interrupted when waiting for Trading Strategies");
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        LOG.error("Trading Strategy failed while waiting for it to finish", e.getCause());
+      }
+    }
+  }
+
+  private static void executeTradingStrategy(Market market, TradingStrategy tradingStrategy)
+      throws StrategyException {
+    LOG.info(
+        () ->
+            "Executing Trading Strategy ---> "
+                + tradingStrategy.getClass().getSimpleName()
+                + " for market: "
+                + market.getName());
+    final long startTime = System.nanoTime();
+    tradingStrategy.execute();
+    final long executionTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    LOG.info(
+        () ->
+            "Trading Strategy for market: "
+                + market.getName()
+                + " completed in "
+                + executionTime
+                + "ms");
+  }
+
+  /*
+   * Sleeps until the next market's trade cycle is due. The time spent in this trade cycle has
+   * already been subtracted, so each market's cycles start at a fixed rate instead of drifting.
+   */
   private void sleepUntilNextTradingCycle() {
+    final long delay = tradingStrategyScheduler.getDelayUntilNextTradeCycle();
     LOG.info(
         () ->
             "*** Sleeping "
-                + engineConfig.getTradeCycleInterval()
-                + "s til next trade cycle... ***");
+                + TimeUnit.NANOSECONDS.toMillis(delay)
+                + "ms til next trade cycle... ***");
     try {
-      Thread.sleep(engineConfig.getTradeCycleInterval() * 1000L);
+      TimeUnit.NANOSECONDS.sleep(delay);
     } catch (InterruptedException e) {
       LOG.warn(() -> "Control Loop thread interrupted when sleeping before next trade cycle");
       Thread.currentThread().interrupt();
@@ -227,17 +375,9 @@ public class TradingEngine {
   private void handleExchangeNetworkException(ExchangeNetworkException e) {
     final String errorMessage =
         "A network error has occurred in Exchange Adapter! "
-            + "BX-bot will try again in "
-            + engineConfig.getTradeCycleInterval()
-            + "s...";
+            + "BX-bot will try again at next trade cycle...";
     LOG.error(() -> errorMessage, e);
-
-    try {
-      Thread.sleep(engineConfig.getTradeCycleInterval() * 1000L);
-    } catch (InterruptedException e1) {
-      LOG.warn(() -> "Control Loop thread interrupted when sleeping before next trade cycle");
-      Thread.currentThread().interrupt();
-    }
+    sleepUntilNextTradingCycle();
   }
 
   /*
@@ -336,11 +476,103 @@ public class TradingEngine {
     return loadedEngineConfig;
   }
 
-  private List<TradingStrategy> loadTradingStrategies() {
-    final List<StrategyConfig> strategies = strategyConfigService.getAllStrategyConfig();
-    LOG.info(() -> "Fetched Strategy config from repository: " + strategies);
+  private List<MarketConfig> loadMarketConfigs() {
     final List<MarketConfig> markets = marketConfigService.getAllMarketConfig();
     LOG.info(() -> "Fetched Markets config from repository: " + markets);
-    return tradingStrategiesBuilder.buildStrategies(strategies, markets, exchangeAdapter);
+    return markets;
+  }
+
+  private Map<Market, TradingStrategy> loadTradingStrategies(List<MarketConfig> markets) {
+    final List<StrategyConfig> strategies = strategyConfigService.getAllStrategyConfig();
+    LOG.info(() -> "Fetched Strategy config from repository: " + strategies);
+    return tradingStrategiesBuilder.buildStrategies(
+        strategies, markets, createStrategyExchangeAdapter());
+  }
+
+  /*
+   * If a tick store is configured, the strategies are given an adapter that records the market
+   * data they fetch. The engine's own calls, e.g. the Emergency Stop Check, are not recorded.
+   */
+  private ExchangeAdapter createStrategyExchangeAdapter() {
+    final String tickStoreDirectory = engineConfig.getTickStoreDirectory();
+    if (tickStoreDirectory == null || tickStoreDirectory.isBlank()) {
+      return exchangeAdapter;
+    }
+    tickRecorder = new TickRecorder(Paths.get(tickStoreDirectory));
+    LOG.info(() -> "Market data fetched by Trading Strategies will be recorded to: " + tickRecorder);
+    return new TickRecordingExchangeAdapter(exchangeAdapter, tickRecorder);
+  }
+
+  private void closeTickRecorder() {
+    if (tickRecorder != null) {
+      try {
+        tickRecorder.close();
+      } catch (IOException e) {
+        LOG.error("Failed to close tick recorder: " + tickRecorder, e);
+      }
+    }
+  }
+
+  private TradingStrategyScheduler createTradingStrategyScheduler(List<MarketConfig> markets) {
+    final Map<String, Integer> tradeCycleIntervals = new HashMap<>();
+    for (final MarketConfig market : markets) {
+      if (market.isEnabled()) {
+        tradeCycleIntervals.put(market.getId(), market.getTradeCycleInterval());
+      }
+    }
+
+    final TradingStrategyScheduler scheduler =
+        new TradingStrategyScheduler(
+            engineConfig.getTradeCycleInterval(), engineConfig.getTradeCycleOverrunPolicy());
+    for (final Map.Entry<Market, TradingStrategy> entry : tradingStrategies.entrySet()) {
+      final Market market = entry.getKey();
+      final Integer tradeCycleInterval = tradeCycleIntervals.get(market.getId());
+      LOG.info(
+          () ->
+              "Trade cycle interval for market: "
+                  + market.getName()
+                  + " is "
+                  + (tradeCycleInterval == null
+                      ? engineConfig.getTradeCycleInterval()
+                      : tradeCycleInterval)
+                  + "s");
+      scheduler.schedule(market, entry.getValue(), tradeCycleInterval);
+    }
+    return scheduler;
+  }
+
+  private ExecutorService createStrategyExecutor() {
+    final int threadCount =
+        Math.min(engineConfig.getMaxConcurrentStrategies(), tradingStrategies.size());
+    if (threadCount <= 1) {
+      LOG.info(() -> "Trading Strategies will be executed sequentially");
+      return null;
+    }
+    LOG.info(() -> "Trading Strategies will be executed concurrently using threads: " + threadCount);
+    return Executors.newFixedThreadPool(
+        threadCount,
+        new ThreadFactoryBuilder().setNameFormat("strategy-executor-%d").setDaemon(true).build());
+  }
+
+  /*
+   * A Trading Strategy submitted to the strategy executor. Either the strategy thread starts it or
+   * the Control Loop cancels it, whichever comes first, so it never runs after being cancelled and
+   * is never cancelled once running.
+   */
+  private static final class StrategyExecution {
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private Future<Market> future;
+
+    boolean start() {
+      return claimed.compareAndSet(false, true);
+    }
+
+    boolean cancelIfNotStarted() {
+      if (!claimed.compareAndSet(false, true)) {
+        return false;
+      }
+      future.cancel(false);
+      return true;
+    }
   }
 }
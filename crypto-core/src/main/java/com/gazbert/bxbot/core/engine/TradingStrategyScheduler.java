@@ -0,0 +1,187 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.core.engine;
+
+import com.gazbert.crypto.domain.engine.TradeCycleOverrunPolicy;
+import com.gazbert.crypto.strategy.api.TradingStrategy;
+import com.gazbert.crypto.trading.api.Market;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Schedules each market's Trading Strategy on its own trade cycle interval.
+ *
+ * <p>The Trading Strategies are held in a priority queue ordered by their next trade cycle start
+ * time. Each engine trade cycle takes every Trading Strategy that is due, and they are put back on
+ * the queue once they have been executed. Markets that share a trade cycle interval stay on the
+ * same schedule and are executed in the same engine trade cycle.
+ *
+ * <p>The Emergency Stop Check is scheduled on the default (engine) trade cycle interval, so
+ * markets with a shorter trade cycle interval do not fetch the balance on every one of their
+ * cycles.
+ *
+ * <p>This class is not thread-safe; it is only used by the Trading Engine thread.
+ *
+ * @author gazbert
+ */
+class TradingStrategyScheduler {
+
+  private final int defaultTradeCycleInterval;
+  private final TradeCycleOverrunPolicy overrunPolicy;
+  private final LongSupplier nanoClock;
+  private final long startTime;
+  private long nextEmergencyStopCheckTime;
+
+  private final PriorityQueue<ScheduledTradingStrategy> scheduledTradingStrategies =
+      new PriorityQueue<>(
+          (s1, s2) ->
+              Long.compare(
+                  s1.tradeCycleScheduler.getNextTradeCycleStartTime()
+                      - s2.tradeCycleScheduler.getNextTradeCycleStartTime(),
+                  0));
+  private final List<ScheduledTradingStrategy> runningTradingStrategies = new ArrayList<>();
+
+  TradingStrategyScheduler(int defaultTradeCycleInterval, TradeCycleOverrunPolicy overrunPolicy) {
+    this(defaultTradeCycleInterval, overrunPolicy, System::nanoTime);
+  }
+
+  TradingStrategyScheduler(
+      int defaultTradeCycleInterval,
+      TradeCycleOverrunPolicy overrunPolicy,
+      LongSupplier nanoClock) {
+    this.defaultTradeCycleInterval = defaultTradeCycleInterval;
+    this.overrunPolicy = overrunPolicy;
+    this.nanoClock = nanoClock;
+    this.startTime = nanoClock.getAsLong();
+    this.nextEmergencyStopCheckTime = startTime;
+  }
+
+  /**
+   * Adds a Trading Strategy to the schedule. Its first trade cycle is due immediately.
+   *
+   * @param market the market the Trading Strategy trades on.
+   * @param tradingStrategy the Trading Strategy.
+   * @param tradeCycleInterval the market's trade cycle interval in secs; if null, the default
+   *     (engine) trade cycle interval is used.
+   */
+  void schedule(Market market, TradingStrategy tradingStrategy, Integer tradeCycleInterval) {
+    final int interval =
+        tradeCycleInterval == null ? defaultTradeCycleInterval : tradeCycleInterval;
+    scheduledTradingStrategies.add(
+        new ScheduledTradingStrategy(
+            market,
+            tradingStrategy,
+            new TradeCycleScheduler(
+                market.getName(), interval, overrunPolicy, startTime, nanoClock)));
+  }
+
+  /**
+   * Returns how long to wait before the next Trading Strategy is due.
+   *
+   * @return the delay in nanoseconds; the default trade cycle interval if nothing is scheduled.
+   */
+  long getDelayUntilNextTradeCycle() {
+    final ScheduledTradingStrategy next = scheduledTradingStrategies.peek();
+    if (next == null) {
+      return TimeUnit.SECONDS.toNanos(defaultTradeCycleInterval);
+    }
+    final long delay =
+        next.tradeCycleScheduler.getNextTradeCycleStartTime() - nanoClock.getAsLong();
+    return Math.max(delay, 0);
+  }
+
+  /**
+   * Takes all the Trading Strategies that are due off the schedule and starts their trade cycles.
+   * They must be put back on the schedule with {@link #scheduleNextTradeCycles()} once executed.
+   *
+   * @return the due Trading Strategies keyed by market, in due order.
+   */
+  Map<Market, TradingStrategy> startDueTradeCycles() {
+    final long now = nanoClock.getAsLong();
+    final Map<Market, TradingStrategy> dueTradingStrategies = new LinkedHashMap<>();
+    while (!scheduledTradingStrategies.isEmpty()
+        && scheduledTradingStrategies.peek().tradeCycleScheduler.getNextTradeCycleStartTime()
+                - now
+            <= 0) {
+      final ScheduledTradingStrategy due = scheduledTradingStrategies.poll();
+      due.tradeCycleScheduler.startTradeCycle();
+      runningTradingStrategies.add(due);
+      dueTradingStrategies.put(due.market, due.tradingStrategy);
+    }
+    return dueTradingStrategies;
+  }
+
+  /**
+   * Returns whether the Emergency Stop Check is due. It is due on the first call and then once per
+   * default (engine) trade cycle interval after it was last done; it stays due until {@link
+   * #markEmergencyStopChecked()} is called, so a check that fails is run again on the next cycle.
+   *
+   * @return true if the Emergency Stop Check must be run now, false otherwise.
+   */
+  boolean isEmergencyStopCheckDue() {
+    return nextEmergencyStopCheckTime - nanoClock.getAsLong() <= 0;
+  }
+
+  /**
+   * Records that the Emergency Stop Check has been done, so it is next due one default trade cycle
+   * interval later. If a check was missed, the schedule starts again from now.
+   */
+  void markEmergencyStopChecked() {
+    final long now = nanoClock.getAsLong();
+    final long interval = TimeUnit.SECONDS.toNanos(defaultTradeCycleInterval);
+    nextEmergencyStopCheckTime += interval;
+    if (nextEmergencyStopCheckTime - now <= 0) {
+      nextEmergencyStopCheckTime = now + interval;
+    }
+  }
+
+  /** Puts the Trading Strategies returned by the last {@link #startDueTradeCycles()} back. */
+  void scheduleNextTradeCycles() {
+    for (final ScheduledTradingStrategy running : runningTradingStrategies) {
+      running.tradeCycleScheduler.scheduleNextTradeCycle();
+      scheduledTradingStrategies.add(running);
+    }
+    runningTradingStrategies.clear();
+  }
+
+  /** A Trading Strategy and its trade cycle schedule. */
+  private static final class ScheduledTradingStrategy {
+
+    private final Market market;
+    private final TradingStrategy tradingStrategy;
+    private final TradeCycleScheduler tradeCycleScheduler;
+
+    private ScheduledTradingStrategy(
+        Market market, TradingStrategy tradingStrategy, TradeCycleScheduler tradeCycleScheduler) {
+      this.market = market;
+      this.tradingStrategy = tradingStrategy;
+      this.tradeCycleScheduler = tradeCycleScheduler;
+    }
+  }
+}
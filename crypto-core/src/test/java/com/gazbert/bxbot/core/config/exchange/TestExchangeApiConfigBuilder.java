@@ -27,6 +27,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.gazbert.crypto.domain.exchange.ExchangeConfig;
 import com.gazbert.crypto.domain.exchange.NetworkConfig;
+import com.gazbert.crypto.domain.exchange.RateLimitConfig;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -52,6 +53,12 @@ public class TestExchangeApiConfigBuilder {
   private static final List<Integer> NON_FATAL_ERROR_CODES = Arrays.asList(502, 503);
   private static final List<String> NON_FATAL_ERROR_MESSAGES =
       Arrays.asList("Connection refused", "Remote host closed connection during handshake");
+  private static final String HTTP_TRANSPORT = "http-client";
+  private static final Integer CONNECTION_POOL_SIZE = 10;
+  private static final Integer CONNECTION_IDLE_TIMEOUT = 60;
+  private static final Double PUBLIC_REQUESTS_PER_SECOND = 1.0;
+  private static final Integer PUBLIC_BURST = 5;
+  private static final Integer RATE_LIMIT_MAX_WAIT = 10;
 
   private static final String BUY_FEE_CONFIG_ITEM_KEY = "buy-fee";
   private static final String BUY_FEE_CONFIG_ITEM_VALUE = "0.20";
@@ -77,6 +84,19 @@ public class TestExchangeApiConfigBuilder {
         .isEqualTo(NON_FATAL_ERROR_CODES);
     assertThat(exchangeApiConfig.getNetworkConfig().getNonFatalErrorMessages())
         .isEqualTo(NON_FATAL_ERROR_MESSAGES);
+    assertThat(exchangeApiConfig.getNetworkConfig().getHttpTransport()).isEqualTo(HTTP_TRANSPORT);
+    assertThat(exchangeApiConfig.getNetworkConfig().getConnectionPoolSize())
+        .isEqualTo(CONNECTION_POOL_SIZE);
+    assertThat(exchangeApiConfig.getNetworkConfig().getConnectionIdleTimeout())
+        .isEqualTo(CONNECTION_IDLE_TIMEOUT);
+    assertThat(exchangeApiConfig.getNetworkConfig().getPublicRateLimit().getRequestsPerSecond())
+        .isEqualTo(PUBLIC_REQUESTS_PER_SECOND);
+    assertThat(exchangeApiConfig.getNetworkConfig().getPublicRateLimit().getBurst())
+        .isEqualTo(PUBLIC_BURST);
+    assertThat(exchangeApiConfig.getNetworkConfig().getPrivateRateLimit()).isNull();
+    assertThat(exchangeApiConfig.getNetworkConfig().getTradingRateLimit()).isNull();
+    assertThat(exchangeApiConfig.getNetworkConfig().getRateLimitMaxWait())
+        .isEqualTo(RATE_LIMIT_MAX_WAIT);
 
     assertThat(exchangeApiConfig.getOtherConfig().getItem(BUY_FEE_CONFIG_ITEM_KEY))
         .isEqualTo(BUY_FEE_CONFIG_ITEM_VALUE);
@@ -133,6 +153,11 @@ public class TestExchangeApiConfigBuilder {
     networkConfig.setConnectionTimeout(CONNECTION_TIMEOUT);
     networkConfig.setNonFatalErrorCodes(NON_FATAL_ERROR_CODES);
     networkConfig.setNonFatalErrorMessages(NON_FATAL_ERROR_MESSAGES);
+    networkConfig.setHttpTransport(HTTP_TRANSPORT);
+    networkConfig.setConnectionPoolSize(CONNECTION_POOL_SIZE);
+    networkConfig.setConnectionIdleTimeout(CONNECTION_IDLE_TIMEOUT);
+    networkConfig.setPublicRateLimit(new RateLimitConfig(PUBLIC_REQUESTS_PER_SECOND, PUBLIC_BURST));
+    networkConfig.setRateLimitMaxWait(RATE_LIMIT_MAX_WAIT);
     return networkConfig;
   }
 
@@ -45,6 +45,13 @@ public class TestNetworkConfigImpl {
           "Connection refused",
           "Connection reset",
           "Remote host closed connection during handshake");
+  private static final String HTTP_TRANSPORT = "http-client";
+  private static final Integer CONNECTION_POOL_SIZE = 10;
+  private static final Integer CONNECTION_IDLE_TIMEOUT = 60;
+  private static final RateLimitConfigImpl PUBLIC_RATE_LIMIT = new RateLimitConfigImpl();
+  private static final RateLimitConfigImpl PRIVATE_RATE_LIMIT = new RateLimitConfigImpl();
+  private static final RateLimitConfigImpl TRADING_RATE_LIMIT = new RateLimitConfigImpl();
+  private static final Integer RATE_LIMIT_MAX_WAIT = 10;
 
   @Test
   public void testInitialisationWorksAsExpected() {
@@ -53,6 +60,13 @@ public class TestNetworkConfigImpl {
     assertNull(networkConfig.getConnectionTimeout());
     assertTrue(networkConfig.getNonFatalErrorCodes().isEmpty());
     assertTrue(networkConfig.getNonFatalErrorMessages().isEmpty());
+    assertNull(networkConfig.getHttpTransport());
+    assertNull(networkConfig.getConnectionPoolSize());
+    assertNull(networkConfig.getConnectionIdleTimeout());
+    assertNull(networkConfig.getPublicRateLimit());
+    assertNull(networkConfig.getPrivateRateLimit());
+    assertNull(networkConfig.getTradingRateLimit());
+    assertNull(networkConfig.getRateLimitMaxWait());
   }
 
   @Test
@@ -68,5 +82,26 @@ public class TestNetworkConfigImpl {
 
     networkConfig.setNonFatalErrorMessages(NON_FATAL_ERROR_MESSAGES);
     assertEquals(NON_FATAL_ERROR_MESSAGES, networkConfig.getNonFatalErrorMessages());
+
+    networkConfig.setHttpTransport(HTTP_TRANSPORT);
+    assertEquals(HTTP_TRANSPORT, networkConfig.getHttpTransport());
+
+    networkConfig.setConnectionPoolSize(CONNECTION_POOL_SIZE);
+    assertEquals(CONNECTION_POOL_SIZE, networkConfig.getConnectionPoolSize());
+
+    networkConfig.setConnectionIdleTimeout(CONNECTION_IDLE_TIMEOUT);
+    assertEquals(CONNECTION_IDLE_TIMEOUT, networkConfig.getConnectionIdleTimeout());
+
+    networkConfig.setPublicRateLimit(PUBLIC_RATE_LIMIT);
+    assertEquals(PUBLIC_RATE_LIMIT, networkConfig.getPublicRateLimit());
+
+    networkConfig.setPrivateRateLimit(PRIVATE_RATE_LIMIT);
+    assertEquals(PRIVATE_RATE_LIMIT, networkConfig.getPrivateRateLimit());
+
+    networkConfig.setTradingRateLimit(TRADING_RATE_LIMIT);
+    assertEquals(TRADING_RATE_LIMIT, networkConfig.getTradingRateLimit());
+
+    networkConfig.setRateLimitMaxWait(RATE_LIMIT_MAX_WAIT);
+    assertEquals(RATE_LIMIT_MAX_WAIT, networkConfig.getRateLimitMaxWait());
   }
 }
@@ -29,6 +29,7 @@ import com.gazbert.crypto.domain.market.MarketConfig;
 import com.gazbert.crypto.domain.strategy.StrategyConfig;
 import com.gazbert.crypto.exchange.api.ExchangeAdapter;
 import com.gazbert.crypto.strategy.api.TradingStrategy;
+import com.gazbert.crypto.trading.api.Market;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -85,10 +86,13 @@ public class TestTradingStrategiesBuilder {
     final TradingStrategyFactory tradingStrategyFactory = new TradingStrategyFactory();
     final TradingStrategiesBuilder tradingStrategiesBuilder = new TradingStrategiesBuilder();
     tradingStrategiesBuilder.setTradingStrategyFactory(tradingStrategyFactory);
-    final List<TradingStrategy> strategies =
+    final Map<Market, TradingStrategy> strategies =
         tradingStrategiesBuilder.buildStrategies(
             someStrategiesConfig(), someMarketsConfig(), exchangeAdapter);
     assertThat(strategies.size()).isEqualTo(2);
+    assertThat(strategies.keySet())
+        .extracting(Market::getId)
+        .containsExactly(MARKET_1_ID, MARKET_2_ID);
   }
 
   @Test(expected = IllegalArgumentException.class)
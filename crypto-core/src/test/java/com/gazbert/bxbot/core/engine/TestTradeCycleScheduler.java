@@ -0,0 +1,137 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.core.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import com.gazbert.crypto.domain.engine.TradeCycleOverrunPolicy;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the Trade Cycle Scheduler behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestTradeCycleScheduler {
+
+  private static final String MARKET_NAME = "BTC/USD";
+  private static final int TRADE_CYCLE_INTERVAL = 10;
+  private static final long START_TIME = TimeUnit.SECONDS.toNanos(1000);
+
+  private long now;
+
+  @Before
+  public void setupBeforeEachTest() {
+    now = START_TIME;
+  }
+
+  @Test
+  public void testNextTradeCycleStartsOneIntervalAfterTheLast() {
+    final TradeCycleScheduler scheduler = createScheduler(TradeCycleOverrunPolicy.SKIP);
+    assertEquals(START_TIME, scheduler.getNextTradeCycleStartTime());
+
+    scheduler.startTradeCycle();
+    advanceSecs(3);
+    assertEquals(START_TIME + secs(10), scheduler.scheduleNextTradeCycle());
+
+    // 2nd cycle starts on schedule and takes 4s
+    advanceSecs(7);
+    scheduler.startTradeCycle();
+    advanceSecs(4);
+    assertEquals(START_TIME + secs(20), scheduler.scheduleNextTradeCycle());
+    assertEquals(0, scheduler.getOverrunCount());
+  }
+
+  @Test
+  public void testScheduleDoesNotDriftWhenTradeCycleStartsLate() {
+    final TradeCycleScheduler scheduler = createScheduler(TradeCycleOverrunPolicy.SKIP);
+
+    scheduler.startTradeCycle();
+    advanceSecs(2);
+    scheduler.scheduleNextTradeCycle();
+
+    // woke up 500ms late; the next cycle should still be due 10s after this one was
+    now = START_TIME + TimeUnit.MILLISECONDS.toNanos(10500);
+    scheduler.startTradeCycle();
+    advanceSecs(1);
+    assertEquals(START_TIME + secs(20), scheduler.scheduleNextTradeCycle());
+    assertEquals(0, scheduler.getOverrunCount());
+  }
+
+  @Test
+  public void testOverrunIsSkippedToNextScheduledStartTime() {
+    final TradeCycleScheduler scheduler = createScheduler(TradeCycleOverrunPolicy.SKIP);
+
+    scheduler.startTradeCycle();
+    advanceSecs(23);
+    assertEquals(START_TIME + secs(30), scheduler.scheduleNextTradeCycle());
+    assertEquals(1, scheduler.getOverrunCount());
+
+    advanceSecs(7);
+    scheduler.startTradeCycle();
+    advanceSecs(1);
+    assertEquals(START_TIME + secs(40), scheduler.scheduleNextTradeCycle());
+    assertEquals(1, scheduler.getOverrunCount());
+  }
+
+  @Test
+  public void testOverrunIsCaughtUpWithoutSkipping() {
+    final TradeCycleScheduler scheduler = createScheduler(TradeCycleOverrunPolicy.CATCH_UP);
+
+    scheduler.startTradeCycle();
+    advanceSecs(15);
+    assertEquals(START_TIME + secs(10), scheduler.scheduleNextTradeCycle());
+    assertEquals(1, scheduler.getOverrunCount());
+
+    // missed cycle runs straight away and finishes back on schedule
+    scheduler.startTradeCycle();
+    advanceSecs(1);
+    assertEquals(START_TIME + secs(20), scheduler.scheduleNextTradeCycle());
+    assertEquals(1, scheduler.getOverrunCount());
+  }
+
+  @Test
+  public void testOverrunPolicyDefaultsToSkip() {
+    final TradeCycleScheduler scheduler = createScheduler(null);
+
+    scheduler.startTradeCycle();
+    advanceSecs(12);
+    assertEquals(START_TIME + secs(20), scheduler.scheduleNextTradeCycle());
+  }
+
+  private TradeCycleScheduler createScheduler(TradeCycleOverrunPolicy overrunPolicy) {
+    return new TradeCycleScheduler(
+        MARKET_NAME, TRADE_CYCLE_INTERVAL, overrunPolicy, START_TIME, () -> now);
+  }
+
+  private void advanceSecs(long secs) {
+    now += secs(secs);
+  }
+
+  private static long secs(long secs) {
+    return TimeUnit.SECONDS.toNanos(secs);
+  }
+}
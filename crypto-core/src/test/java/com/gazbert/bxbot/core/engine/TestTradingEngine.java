@@ -30,6 +30,7 @@ import static org.easymock.EasyMock.contains;
 import static org.easymock.EasyMock.eq;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.isA;
 import static org.junit.Assert.assertFalse;
 
 import com.gazbert.crypto.core.config.strategy.TradingStrategiesBuilder;
@@ -42,6 +43,7 @@ import com.gazbert.crypto.domain.market.MarketConfig;
 import com.gazbert.crypto.domain.strategy.StrategyConfig;
 import com.gazbert.crypto.exchange.api.ExchangeAdapter;
 import com.gazbert.crypto.exchange.api.ExchangeConfig;
+import com.gazbert.crypto.exchanges.tickstore.TickRecordingExchangeAdapter;
 import com.gazbert.crypto.services.config.EngineConfigService;
 import com.gazbert.crypto.services.config.ExchangeConfigService;
 import com.gazbert.crypto.services.config.MarketConfigService;
@@ -60,8 +62,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -122,6 +126,9 @@ public class TestTradingEngine {
   private static final BigDecimal ENGINE_EMERGENCY_STOP_BALANCE = new BigDecimal("0.5");
   private static final int ENGINE_TRADE_CYCLE_INTERVAL =
       1; // unrealistic, but 1 second speeds up tests ;-)
+  private static final int ENGINE_MAX_CONCURRENT_STRATEGIES = 2;
+  private static final long RUNNING_STRATEGY_MILLIS = 500;
+  private static final String ENGINE_TICK_STORE_DIRECTORY = "./target/ticks";
 
   private static final String STRATEGY_ID = "MyMacdStrategy_v3";
   private static final String STRATEGY_NAME = "MACD Shorting algo";
@@ -137,6 +144,10 @@ public class TestTradingEngine {
   private static final String MARKET_COUNTER_CURRENCY = "USD";
   private static final boolean MARKET_IS_ENABLED = true;
 
+  private static final String MARKET_2_NAME = "LTC/USD";
+  private static final String MARKET_2_ID = "ltc_usd";
+  private static final String MARKET_2_BASE_CURRENCY = "LTC";
+
   // Mocks used by all tests
   private ExchangeAdapter exchangeAdapter;
   private TradingStrategy tradingStrategy;
@@ -360,6 +371,52 @@ public class TestTradingEngine {
     PowerMock.verifyAll();
   }
 
+  /*
+   * Tests the engine gives the Trading Strategy an adapter that records the market data it fetches
+   * when a tick store is configured, and still shuts down when the strategy throws a
+   * StrategyException.
+   */
+  @Test
+  public void testEngineGivesTradingStrategyTickRecordingAdapterWhenTickStoreIsConfigured()
+      throws Exception {
+    setupExchangeAdapterConfigExpectations();
+    final EngineConfig engineConfig = someEngineConfigForNoEmergencyStopCheck();
+    engineConfig.setTickStoreDirectory(ENGINE_TICK_STORE_DIRECTORY);
+    expect(engineConfigService.getEngineConfig()).andReturn(engineConfig);
+    expect(strategyConfigService.getAllStrategyConfig()).andReturn(allTheStrategiesConfig());
+    expect(marketConfigService.getAllMarketConfig()).andReturn(allTheMarketsConfig());
+    expect(ConfigurableComponentFactory.createComponent(STRATEGY_IMPL_CLASS))
+        .andReturn(tradingStrategy);
+    tradingStrategy.init(
+        isA(TickRecordingExchangeAdapter.class),
+        anyObject(Market.class),
+        anyObject(com.gazbert.crypto.strategy.api.StrategyConfig.class));
+
+    final String exceptionErrorMsg = "Eeek! My strat just broke. Please shutdown!";
+    tradingStrategy.execute();
+    expectLastCall().andThrow(new StrategyException(exceptionErrorMsg));
+    emailAlerter.sendMessage(
+        eq(CRITICAL_EMAIL_ALERT_SUBJECT),
+        contains("A FATAL error has occurred in Trading Strategy! Details: " + exceptionErrorMsg));
+    PowerMock.replayAll();
+
+    final TradingEngine tradingEngine =
+        new TradingEngine(
+            exchangeConfigService,
+            engineConfigService,
+            strategyConfigService,
+            marketConfigService,
+            emailAlerter,
+            tradingStrategiesBuilder);
+
+    tradingEngine.start();
+
+    await().until(engineStateChanged(tradingEngine, EngineState.SHUTDOWN));
+    assertFalse(tradingEngine.isRunning());
+
+    PowerMock.verifyAll();
+  }
+
   /*
    * Tests the engine starts up, executes 1 trade cycle successfully, but then receives unexpected
    * Exception from Trading Strategy - we expect the engine to shutdown.
@@ -413,6 +470,137 @@ public class TestTradingEngine {
     PowerMock.verifyAll();
   }
 
+  /*
+   * Tests the engine executes the Trading Strategies concurrently when maxConcurrentStrategies is
+   * set, and still shuts down when one of them throws a StrategyException.
+   */
+  @Test
+  public void testEngineShutsDownWhenItReceivesStrategyExceptionFromConcurrentTradingStrategy()
+      throws Exception {
+    final TradingStrategy anotherTradingStrategy = PowerMock.createMock(TradingStrategy.class);
+    setupExchangeAdapterConfigExpectations();
+    expect(engineConfigService.getEngineConfig())
+        .andReturn(someEngineConfigForConcurrentStrategies());
+    setupStrategyAndMultipleMarketsConfigExpectations(anotherTradingStrategy);
+
+    final String exceptionErrorMsg = "Durin's Bane!";
+    final Map<String, BigDecimal> balancesAvailable = new HashMap<>();
+    // balance limit NOT breached for BTC
+    balancesAvailable.put(ENGINE_EMERGENCY_STOP_CURRENCY, new BigDecimal("0.5"));
+    final BalanceInfo balanceInfo = PowerMock.createMock(BalanceInfo.class);
+    expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo).times(2);
+    expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable).times(2);
+
+    // expect 1st trade cycle to be successful for both markets; the 2nd cycle for the first
+    // market may be cancelled when the other market's strategy fails.
+    tradingStrategy.execute();
+    expectLastCall().times(1, 2);
+    anotherTradingStrategy.execute();
+
+    // expect StrategyException in 2nd trade cycle
+    anotherTradingStrategy.execute();
+    expectLastCall().andThrow(new StrategyException(exceptionErrorMsg));
+
+    // expect Email Alert to be sent
+    emailAlerter.sendMessage(
+        eq(CRITICAL_EMAIL_ALERT_SUBJECT),
+        contains("A FATAL error has occurred in Trading Strategy! Details: " + exceptionErrorMsg));
+    PowerMock.replayAll();
+
+    final TradingEngine tradingEngine =
+        new TradingEngine(
+            exchangeConfigService,
+            engineConfigService,
+            strategyConfigService,
+            marketConfigService,
+            emailAlerter,
+            tradingStrategiesBuilder);
+
+    tradingEngine.start();
+
+    await().until(engineStateChanged(tradingEngine, EngineState.SHUTDOWN));
+    assertFalse(tradingEngine.isRunning());
+
+    PowerMock.verifyAll();
+  }
+
+  /*
+   * Tests that when a concurrent Trading Strategy throws a StrategyException, a Trading Strategy
+   * that is still running is left to finish before the engine shuts down, not interrupted.
+   */
+  @Test
+  public void testEngineLetsRunningConcurrentTradingStrategyFinishBeforeShuttingDown()
+      throws Exception {
+    final TradingStrategy anotherTradingStrategy = PowerMock.createMock(TradingStrategy.class);
+    setupExchangeAdapterConfigExpectations();
+    expect(engineConfigService.getEngineConfig())
+        .andReturn(someEngineConfigForConcurrentStrategies());
+    setupStrategyAndMultipleMarketsConfigExpectations(anotherTradingStrategy);
+
+    final String exceptionErrorMsg = "Fly, you fools!";
+    final Map<String, BigDecimal> balancesAvailable = new HashMap<>();
+    // balance limit NOT breached for BTC
+    balancesAvailable.put(ENGINE_EMERGENCY_STOP_CURRENCY, new BigDecimal("0.5"));
+    final BalanceInfo balanceInfo = PowerMock.createMock(BalanceInfo.class);
+    expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo).times(2);
+    expect(balanceInfo.getBalancesAvailable()).andReturn(balancesAvailable).times(2);
+
+    // expect 1st trade cycle to be successful for both markets
+    tradingStrategy.execute();
+    anotherTradingStrategy.execute();
+
+    // expect the first market's strategy to still be running in the 2nd trade cycle when the
+    // other market's strategy throws StrategyException
+    final CountDownLatch runningStrategyStarted = new CountDownLatch(1);
+    final AtomicBoolean runningStrategyFinished = new AtomicBoolean();
+    tradingStrategy.execute();
+    expectLastCall()
+        .andAnswer(
+            () -> {
+              runningStrategyStarted.countDown();
+              Thread.sleep(RUNNING_STRATEGY_MILLIS);
+              runningStrategyFinished.set(true);
+              return null;
+            });
+    anotherTradingStrategy.execute();
+    expectLastCall()
+        .andAnswer(
+            () -> {
+              runningStrategyStarted.await();
+              throw new StrategyException(exceptionErrorMsg);
+            });
+
+    // expect Email Alert to be sent once the running strategy has finished
+    final AtomicBoolean finishedBeforeEmailAlert = new AtomicBoolean();
+    emailAlerter.sendMessage(
+        eq(CRITICAL_EMAIL_ALERT_SUBJECT),
+        contains("A FATAL error has occurred in Trading Strategy! Details: " + exceptionErrorMsg));
+    expectLastCall()
+        .andAnswer(
+            () -> {
+              finishedBeforeEmailAlert.set(runningStrategyFinished.get());
+              return null;
+            });
+    PowerMock.replayAll();
+
+    final TradingEngine tradingEngine =
+        new TradingEngine(
+            exchangeConfigService,
+            engineConfigService,
+            strategyConfigService,
+            marketConfigService,
+            emailAlerter,
+            tradingStrategiesBuilder);
+
+    tradingEngine.start();
+
+    await().until(engineStateChanged(tradingEngine, EngineState.SHUTDOWN));
+    assertFalse(tradingEngine.isRunning());
+    assertTrue(finishedBeforeEmailAlert.get());
+
+    PowerMock.verifyAll();
+  }
+
   /*
    * Tests the engine starts up, executes 1 trade cycle successfully, but then receives unexpected
    * Exception from Exchange Adapter on the 2nd cycle. We expect the engine to shutdown.
@@ -748,6 +936,24 @@ public class TestTradingEngine {
         anyObject(com.gazbert.crypto.strategy.api.StrategyConfig.class));
   }
 
+  private void setupStrategyAndMultipleMarketsConfigExpectations(
+      TradingStrategy anotherTradingStrategy) {
+    expect(strategyConfigService.getAllStrategyConfig()).andReturn(allTheStrategiesConfig());
+    expect(marketConfigService.getAllMarketConfig()).andReturn(multipleMarketsConfig());
+    expect(ConfigurableComponentFactory.createComponent(STRATEGY_IMPL_CLASS))
+        .andReturn(tradingStrategy);
+    expect(ConfigurableComponentFactory.createComponent(STRATEGY_IMPL_CLASS))
+        .andReturn(anotherTradingStrategy);
+    tradingStrategy.init(
+        eq(exchangeAdapter),
+        anyObject(Market.class),
+        anyObject(com.gazbert.crypto.strategy.api.StrategyConfig.class));
+    anotherTradingStrategy.init(
+        eq(exchangeAdapter),
+        anyObject(Market.class),
+        anyObject(com.gazbert.crypto.strategy.api.StrategyConfig.class));
+  }
+
   private void setupConfigLoadingExpectations() {
     setupExchangeAdapterConfigExpectations();
     setupEngineConfigExpectations();
@@ -828,6 +1034,12 @@ public class TestTradingEngine {
     return engineConfig;
   }
 
+  private static EngineConfig someEngineConfigForConcurrentStrategies() {
+    final EngineConfig engineConfig = someEngineConfig();
+    engineConfig.setMaxConcurrentStrategies(ENGINE_MAX_CONCURRENT_STRATEGIES);
+    return engineConfig;
+  }
+
   private static List<StrategyConfig> allTheStrategiesConfig() {
     final Map<String, String> configItems = new HashMap<>();
     configItems.put(STRATEGY_CONFIG_ITEM_NAME, STRATEGY_CONFIG_ITEM_VALUE);
@@ -860,6 +1072,19 @@ public class TestTradingEngine {
     return allMarkets;
   }
 
+  private static List<MarketConfig> multipleMarketsConfig() {
+    final List<MarketConfig> allMarkets = allTheMarketsConfig();
+    allMarkets.add(
+        new MarketConfig(
+            MARKET_2_ID,
+            MARKET_2_NAME,
+            MARKET_2_BASE_CURRENCY,
+            MARKET_COUNTER_CURRENCY,
+            MARKET_IS_ENABLED,
+            STRATEGY_ID));
+    return allMarkets;
+  }
+
   private Callable<Boolean> engineStateChanged(TradingEngine engine, EngineState engineState) {
     return () -> {
       boolean stateChanged = false;
@@ -0,0 +1,165 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.core.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.crypto.core.config.market.MarketImpl;
+import com.gazbert.crypto.domain.engine.TradeCycleOverrunPolicy;
+import com.gazbert.crypto.strategy.api.TradingStrategy;
+import com.gazbert.crypto.trading.api.Market;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the Trading Strategy Scheduler behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestTradingStrategyScheduler {
+
+  private static final int ENGINE_TRADE_CYCLE_INTERVAL = 10;
+  private static final Integer FAST_MARKET_TRADE_CYCLE_INTERVAL = 1;
+
+  private static final Market BTC_USD_MARKET = new MarketImpl("BTC/USD", "btcusd", "BTC", "USD");
+  private static final Market LTC_BTC_MARKET = new MarketImpl("LTC/BTC", "ltcbtc", "LTC", "BTC");
+  private static final Market ETH_BTC_MARKET = new MarketImpl("ETH/BTC", "ethbtc", "ETH", "BTC");
+
+  private long now;
+  private TradingStrategy btcUsdStrategy;
+  private TradingStrategy ltcBtcStrategy;
+  private TradingStrategy ethBtcStrategy;
+
+  @Before
+  public void setupBeforeEachTest() {
+    now = TimeUnit.SECONDS.toNanos(1000);
+    btcUsdStrategy = EasyMock.createMock(TradingStrategy.class);
+    ltcBtcStrategy = EasyMock.createMock(TradingStrategy.class);
+    ethBtcStrategy = EasyMock.createMock(TradingStrategy.class);
+  }
+
+  @Test
+  public void testEachMarketIsScheduledOnItsOwnTradeCycleInterval() {
+    final TradingStrategyScheduler scheduler = createScheduler();
+    scheduler.schedule(BTC_USD_MARKET, btcUsdStrategy, FAST_MARKET_TRADE_CYCLE_INTERVAL);
+    scheduler.schedule(LTC_BTC_MARKET, ltcBtcStrategy, null);
+    scheduler.schedule(ETH_BTC_MARKET, ethBtcStrategy, null);
+
+    // all markets are due straight away
+    assertEquals(0, scheduler.getDelayUntilNextTradeCycle());
+    Map<Market, TradingStrategy> due = scheduler.startDueTradeCycles();
+    assertThat(due.keySet()).containsOnly(BTC_USD_MARKET, LTC_BTC_MARKET, ETH_BTC_MARKET);
+    scheduler.scheduleNextTradeCycles();
+
+    // only the fast market is due for the next 9 cycles
+    for (int i = 0; i < 9; i++) {
+      assertEquals(TimeUnit.SECONDS.toNanos(1), scheduler.getDelayUntilNextTradeCycle());
+      now += TimeUnit.SECONDS.toNanos(1);
+      due = scheduler.startDueTradeCycles();
+      assertThat(due).containsOnlyKeys(BTC_USD_MARKET);
+      assertEquals(btcUsdStrategy, due.get(BTC_USD_MARKET));
+      scheduler.scheduleNextTradeCycles();
+    }
+
+    // then the slow markets join it, on the same cycle
+    now += TimeUnit.SECONDS.toNanos(1);
+    due = scheduler.startDueTradeCycles();
+    assertThat(due.keySet()).containsOnly(BTC_USD_MARKET, LTC_BTC_MARKET, ETH_BTC_MARKET);
+    scheduler.scheduleNextTradeCycles();
+  }
+
+  @Test
+  public void testNothingIsDueUntilRunningTradeCyclesAreRescheduled() {
+    final TradingStrategyScheduler scheduler = createScheduler();
+    scheduler.schedule(BTC_USD_MARKET, btcUsdStrategy, FAST_MARKET_TRADE_CYCLE_INTERVAL);
+
+    assertThat(scheduler.startDueTradeCycles()).containsOnlyKeys(BTC_USD_MARKET);
+    assertThat(scheduler.startDueTradeCycles()).isEmpty();
+
+    // trade cycle overran, so it's due again as soon as it's back on the schedule
+    now += TimeUnit.MILLISECONDS.toNanos(1500);
+    scheduler.scheduleNextTradeCycles();
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(500), scheduler.getDelayUntilNextTradeCycle());
+  }
+
+  @Test
+  public void testDefaultIntervalIsUsedWhenNothingIsScheduled() {
+    final TradingStrategyScheduler scheduler = createScheduler();
+    assertEquals(
+        TimeUnit.SECONDS.toNanos(ENGINE_TRADE_CYCLE_INTERVAL),
+        scheduler.getDelayUntilNextTradeCycle());
+    assertThat(scheduler.startDueTradeCycles()).isEmpty();
+  }
+
+  @Test
+  public void testEmergencyStopCheckIsDueOncePerDefaultTradeCycleInterval() {
+    final TradingStrategyScheduler scheduler = createScheduler();
+    scheduler.schedule(BTC_USD_MARKET, btcUsdStrategy, FAST_MARKET_TRADE_CYCLE_INTERVAL);
+
+    // due on the first cycle only, not on the fast market's next 9 cycles
+    assertTrue(scheduler.isEmergencyStopCheckDue());
+    scheduler.markEmergencyStopChecked();
+    assertFalse(scheduler.isEmergencyStopCheckDue());
+    for (int i = 0; i < 9; i++) {
+      now += TimeUnit.SECONDS.toNanos(1);
+      assertFalse(scheduler.isEmergencyStopCheckDue());
+    }
+    now += TimeUnit.SECONDS.toNanos(1);
+    assertTrue(scheduler.isEmergencyStopCheckDue());
+    scheduler.markEmergencyStopChecked();
+
+    // a missed check is due straight away, then the schedule starts again from now
+    now += TimeUnit.SECONDS.toNanos(25);
+    assertTrue(scheduler.isEmergencyStopCheckDue());
+    scheduler.markEmergencyStopChecked();
+    now += TimeUnit.SECONDS.toNanos(ENGINE_TRADE_CYCLE_INTERVAL - 1);
+    assertFalse(scheduler.isEmergencyStopCheckDue());
+    now += TimeUnit.SECONDS.toNanos(1);
+    assertTrue(scheduler.isEmergencyStopCheckDue());
+  }
+
+  @Test
+  public void testEmergencyStopCheckStaysDueUntilMarkedChecked() {
+    final TradingStrategyScheduler scheduler = createScheduler();
+    scheduler.schedule(BTC_USD_MARKET, btcUsdStrategy, FAST_MARKET_TRADE_CYCLE_INTERVAL);
+
+    // the check failed, so it is still due on the fast market's next cycle
+    assertTrue(scheduler.isEmergencyStopCheckDue());
+    now += TimeUnit.SECONDS.toNanos(1);
+    assertTrue(scheduler.isEmergencyStopCheckDue());
+    scheduler.markEmergencyStopChecked();
+    assertFalse(scheduler.isEmergencyStopCheckDue());
+  }
+
+  private TradingStrategyScheduler createScheduler() {
+    return new TradingStrategyScheduler(
+        ENGINE_TRADE_CYCLE_INTERVAL, TradeCycleOverrunPolicy.SKIP, () -> now);
+  }
+}
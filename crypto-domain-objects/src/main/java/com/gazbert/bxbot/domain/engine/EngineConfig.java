@@ -51,10 +51,29 @@ public class EngineConfig {
   @Min(value = 1, message = "Trace Cycle Interval must be more than 1 second")
   private int tradeCycleInterval;
 
+  @Min(value = 0, message = "Max Concurrent Strategies must be 0 or more")
+  private int maxConcurrentStrategies;
+
+  private TradeCycleOverrunPolicy tradeCycleOverrunPolicy;
+
+  private String tickStoreDirectory;
+
   // Required by ConfigurableComponentFactory
   public EngineConfig() {
   }
 
+  /** Creates an EngineConfig from an existing one. */
+  public EngineConfig(EngineConfig other) {
+    this.botId = other.botId;
+    this.botName = other.botName;
+    this.emergencyStopCurrency = other.emergencyStopCurrency;
+    this.emergencyStopBalance = other.emergencyStopBalance;
+    this.tradeCycleInterval = other.tradeCycleInterval;
+    this.maxConcurrentStrategies = other.maxConcurrentStrategies;
+    this.tradeCycleOverrunPolicy = other.tradeCycleOverrunPolicy;
+    this.tickStoreDirectory = other.tickStoreDirectory;
+  }
+
   /** Creates an EngineConfig. */
   public EngineConfig(
       String botId,
@@ -110,6 +129,30 @@ public class EngineConfig {
     this.tradeCycleInterval = tradeCycleInterval;
   }
 
+  public int getMaxConcurrentStrategies() {
+    return maxConcurrentStrategies;
+  }
+
+  public void setMaxConcurrentStrategies(int maxConcurrentStrategies) {
+    this.maxConcurrentStrategies = maxConcurrentStrategies;
+  }
+
+  public TradeCycleOverrunPolicy getTradeCycleOverrunPolicy() {
+    return tradeCycleOverrunPolicy;
+  }
+
+  public void setTradeCycleOverrunPolicy(TradeCycleOverrunPolicy tradeCycleOverrunPolicy) {
+    this.tradeCycleOverrunPolicy = tradeCycleOverrunPolicy;
+  }
+
+  public String getTickStoreDirectory() {
+    return tickStoreDirectory;
+  }
+
+  public void setTickStoreDirectory(String tickStoreDirectory) {
+    this.tickStoreDirectory = tickStoreDirectory;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -135,6 +178,9 @@ public class EngineConfig {
         .add("emergencyStopCurrency", emergencyStopCurrency)
         .add("emergencyStopBalance", emergencyStopBalance)
         .add("tradeCycleInterval", tradeCycleInterval)
+        .add("maxConcurrentStrategies", maxConcurrentStrategies)
+        .add("tradeCycleOverrunPolicy", tradeCycleOverrunPolicy)
+        .add("tickStoreDirectory", tickStoreDirectory)
         .toString();
   }
 }
@@ -24,6 +24,7 @@
 package com.gazbert.crypto.domain.exchange;
 
 import com.google.common.base.MoreObjects;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -39,6 +40,21 @@ public class ExchangeConfig {
   private NetworkConfig networkConfig;
   private Map<String, String> otherConfig;
 
+  // required for jackson
+  public ExchangeConfig() {
+  }
+
+  /** Creates an ExchangeConfig from an existing one. */
+  public ExchangeConfig(ExchangeConfig other) {
+    this.name = other.name;
+    this.adapter = other.adapter;
+    this.authenticationConfig =
+        other.authenticationConfig == null ? null : new LinkedHashMap<>(other.authenticationConfig);
+    this.networkConfig =
+        other.networkConfig == null ? null : new NetworkConfig(other.networkConfig);
+    this.otherConfig = other.otherConfig == null ? null : new LinkedHashMap<>(other.otherConfig);
+  }
+
   public String getName() {
     return name;
   }
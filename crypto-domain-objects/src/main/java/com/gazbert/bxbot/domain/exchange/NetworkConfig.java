@@ -26,6 +26,7 @@ package com.gazbert.crypto.domain.exchange;
 import com.google.common.base.MoreObjects;
 import java.util.ArrayList;
 import java.util.List;
+import javax.validation.Valid;
 import javax.validation.constraints.Min;
 
 /**
@@ -41,11 +42,47 @@ public class NetworkConfig {
   private List<Integer> nonFatalErrorCodes;
   private List<String> nonFatalErrorMessages;
 
+  private String httpTransport;
+
+  @Min(message = "Connection pool size must be more than 0", value = 1)
+  private Integer connectionPoolSize;
+
+  @Min(message = "Connection idle timeout must be more than 1 second", value = 1)
+  private Integer connectionIdleTimeout;
+
+  @Valid
+  private RateLimitConfig publicRateLimit;
+
+  @Valid
+  private RateLimitConfig privateRateLimit;
+
+  @Valid
+  private RateLimitConfig tradingRateLimit;
+
+  @Min(message = "Rate limit max wait must be 0 or more seconds", value = 0)
+  private Integer rateLimitMaxWait;
+
   public NetworkConfig() {
     nonFatalErrorCodes = new ArrayList<>();
     nonFatalErrorMessages = new ArrayList<>();
   }
 
+  /** Creates a NetworkConfig from an existing one. */
+  public NetworkConfig(NetworkConfig other) {
+    this.connectionTimeout = other.connectionTimeout;
+    this.nonFatalErrorCodes =
+        other.nonFatalErrorCodes == null ? null : new ArrayList<>(other.nonFatalErrorCodes);
+    this.nonFatalErrorMessages =
+        other.nonFatalErrorMessages == null ? null : new ArrayList<>(other.nonFatalErrorMessages);
+    this.httpTransport = other.httpTransport;
+    this.connectionPoolSize = other.connectionPoolSize;
+    this.connectionIdleTimeout = other.connectionIdleTimeout;
+    this.publicRateLimit = copyOf(other.publicRateLimit);
+    this.privateRateLimit = copyOf(other.privateRateLimit);
+    this.tradingRateLimit = copyOf(other.tradingRateLimit);
+    this.rateLimitMaxWait = other.rateLimitMaxWait;
+  }
+
   public Integer getConnectionTimeout() {
     return connectionTimeout;
   }
@@ -70,12 +107,79 @@ public class NetworkConfig {
     this.nonFatalErrorMessages = nonFatalErrorMessages;
   }
 
+  public String getHttpTransport() {
+    return httpTransport;
+  }
+
+  public void setHttpTransport(String httpTransport) {
+    this.httpTransport = httpTransport;
+  }
+
+  public Integer getConnectionPoolSize() {
+    return connectionPoolSize;
+  }
+
+  public void setConnectionPoolSize(Integer connectionPoolSize) {
+    this.connectionPoolSize = connectionPoolSize;
+  }
+
+  public Integer getConnectionIdleTimeout() {
+    return connectionIdleTimeout;
+  }
+
+  public void setConnectionIdleTimeout(Integer connectionIdleTimeout) {
+    this.connectionIdleTimeout = connectionIdleTimeout;
+  }
+
+  public RateLimitConfig getPublicRateLimit() {
+    return publicRateLimit;
+  }
+
+  public void setPublicRateLimit(RateLimitConfig publicRateLimit) {
+    this.publicRateLimit = publicRateLimit;
+  }
+
+  public RateLimitConfig getPrivateRateLimit() {
+    return privateRateLimit;
+  }
+
+  public void setPrivateRateLimit(RateLimitConfig privateRateLimit) {
+    this.privateRateLimit = privateRateLimit;
+  }
+
+  public RateLimitConfig getTradingRateLimit() {
+    return tradingRateLimit;
+  }
+
+  public void setTradingRateLimit(RateLimitConfig tradingRateLimit) {
+    this.tradingRateLimit = tradingRateLimit;
+  }
+
+  public Integer getRateLimitMaxWait() {
+    return rateLimitMaxWait;
+  }
+
+  public void setRateLimitMaxWait(Integer rateLimitMaxWait) {
+    this.rateLimitMaxWait = rateLimitMaxWait;
+  }
+
+  private static RateLimitConfig copyOf(RateLimitConfig rateLimitConfig) {
+    return rateLimitConfig == null ? null : new RateLimitConfig(rateLimitConfig);
+  }
+
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(this)
         .add("connectionTimeout", connectionTimeout)
         .add("nonFatalErrorCodes", nonFatalErrorCodes)
         .add("nonFatalErrorMessages", nonFatalErrorMessages)
+        .add("httpTransport", httpTransport)
+        .add("connectionPoolSize", connectionPoolSize)
+        .add("connectionIdleTimeout", connectionIdleTimeout)
+        .add("publicRateLimit", publicRateLimit)
+        .add("privateRateLimit", privateRateLimit)
+        .add("tradingRateLimit", tradingRateLimit)
+        .add("rateLimitMaxWait", rateLimitMaxWait)
         .toString();
   }
 }
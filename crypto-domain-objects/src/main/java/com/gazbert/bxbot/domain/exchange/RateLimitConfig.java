@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.domain.exchange;
+
+import com.google.common.base.MoreObjects;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.Positive;
+
+/**
+ * Domain object representing the rate limit for a class of Exchange API calls.
+ *
+ * @author gazbert
+ */
+public class RateLimitConfig {
+
+  @Positive(message = "Requests per second must be more than 0")
+  private Double requestsPerSecond;
+
+  @Min(message = "Burst must be more than 0", value = 1)
+  private Integer burst;
+
+  // required for jackson
+  public RateLimitConfig() {
+  }
+
+  /** Creates a RateLimitConfig from an existing one. */
+  public RateLimitConfig(RateLimitConfig other) {
+    this.requestsPerSecond = other.requestsPerSecond;
+    this.burst = other.burst;
+  }
+
+  /** Creates a new RateLimitConfig. */
+  public RateLimitConfig(Double requestsPerSecond, Integer burst) {
+    this.requestsPerSecond = requestsPerSecond;
+    this.burst = burst;
+  }
+
+  public Double getRequestsPerSecond() {
+    return requestsPerSecond;
+  }
+
+  public void setRequestsPerSecond(Double requestsPerSecond) {
+    this.requestsPerSecond = requestsPerSecond;
+  }
+
+  public Integer getBurst() {
+    return burst;
+  }
+
+  public void setBurst(Integer burst) {
+    this.burst = burst;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("requestsPerSecond", requestsPerSecond)
+        .add("burst", burst)
+        .toString();
+  }
+}
@@ -28,6 +28,7 @@ import com.google.common.base.Objects;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -58,7 +59,7 @@ public class StrategyConfig {
     this.description = other.description;
     this.className = other.className;
     this.beanName = other.beanName;
-    this.configItems = other.configItems;
+    this.configItems = other.configItems == null ? null : new LinkedHashMap<>(other.configItems);
   }
 
   /** Creates a new StrategyConfig. */
@@ -25,6 +25,7 @@ package com.gazbert.crypto.domain.emailalerts;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 
 import org.junit.Test;
@@ -59,6 +60,17 @@ public class TestEmailAlertsConfig {
     assertEquals(SMTP_CONFIG, emailAlertsConfig.getSmtpConfig());
   }
 
+  @Test
+  public void testCloningWorksAsExpected() {
+    final EmailAlertsConfig emailAlertsConfig = new EmailAlertsConfig(ENABLED, SMTP_CONFIG);
+    final EmailAlertsConfig clonedEmailAlertsConfig = new EmailAlertsConfig(emailAlertsConfig);
+
+    assertEquals(ENABLED, clonedEmailAlertsConfig.isEnabled());
+    assertEquals(emailAlertsConfig.toString(), clonedEmailAlertsConfig.toString());
+    assertNotSame(SMTP_CONFIG, clonedEmailAlertsConfig.getSmtpConfig());
+    assertNull(new EmailAlertsConfig(new EmailAlertsConfig()).getSmtpConfig());
+  }
+
   @Test
   public void testToStringWorksAsExpected() {
     final EmailAlertsConfig emailAlertsConfig = new EmailAlertsConfig();
@@ -84,6 +84,21 @@ public class TestSmtpConfig {
     assertEquals(TO_ADDRESS, emailAlertsConfig.getToAddress());
   }
 
+  @Test
+  public void testCloningWorksAsExpected() {
+    final SmtpConfig smtpConfig =
+        new SmtpConfig(
+            HOST, TLS_PORT, ACCOUNT_USERNAME, ACCOUNT_PASSWORD, FROM_ADDRESS, TO_ADDRESS);
+    final SmtpConfig clonedSmtpConfig = new SmtpConfig(smtpConfig);
+
+    assertEquals(HOST, clonedSmtpConfig.getHost());
+    assertEquals(TLS_PORT, clonedSmtpConfig.getTlsPort());
+    assertEquals(ACCOUNT_USERNAME, clonedSmtpConfig.getAccountUsername());
+    assertEquals(ACCOUNT_PASSWORD, clonedSmtpConfig.getAccountPassword());
+    assertEquals(FROM_ADDRESS, clonedSmtpConfig.getFromAddress());
+    assertEquals(TO_ADDRESS, clonedSmtpConfig.getToAddress());
+  }
+
   @Test
   public void testToStringWorksAsExpected() {
     final SmtpConfig emailAlertsConfig = new SmtpConfig();
@@ -42,6 +42,10 @@ public class TestEngineConfig {
   private static final String EMERGENCY_STOP_CURRENCY = "BTC";
   private static final BigDecimal EMERGENCY_STOP_BALANCE = new BigDecimal("1.5");
   private static final int TRADE_CYCLE_INTERVAL = 30;
+  private static final int MAX_CONCURRENT_STRATEGIES = 4;
+  private static final TradeCycleOverrunPolicy TRADE_CYCLE_OVERRUN_POLICY =
+      TradeCycleOverrunPolicy.CATCH_UP;
+  private static final String TICK_STORE_DIRECTORY = "ticks";
 
   @Test
   public void testInitialisationWorksAsExpected() {
@@ -68,6 +72,9 @@ public class TestEngineConfig {
     assertNull(engineConfig.getEmergencyStopCurrency());
     assertNull(engineConfig.getEmergencyStopBalance());
     assertEquals(0, engineConfig.getTradeCycleInterval());
+    assertEquals(0, engineConfig.getMaxConcurrentStrategies());
+    assertNull(engineConfig.getTradeCycleOverrunPolicy());
+    assertNull(engineConfig.getTickStoreDirectory());
 
     engineConfig.setBotId(BOT_ID);
     assertEquals(BOT_ID, engineConfig.getBotId());
@@ -83,6 +90,33 @@ public class TestEngineConfig {
 
     engineConfig.setTradeCycleInterval(TRADE_CYCLE_INTERVAL);
     assertEquals(TRADE_CYCLE_INTERVAL, engineConfig.getTradeCycleInterval());
+
+    engineConfig.setMaxConcurrentStrategies(MAX_CONCURRENT_STRATEGIES);
+    assertEquals(MAX_CONCURRENT_STRATEGIES, engineConfig.getMaxConcurrentStrategies());
+
+    engineConfig.setTradeCycleOverrunPolicy(TRADE_CYCLE_OVERRUN_POLICY);
+    assertEquals(TRADE_CYCLE_OVERRUN_POLICY, engineConfig.getTradeCycleOverrunPolicy());
+
+    engineConfig.setTickStoreDirectory(TICK_STORE_DIRECTORY);
+    assertEquals(TICK_STORE_DIRECTORY, engineConfig.getTickStoreDirectory());
+  }
+
+  @Test
+  public void testCloningWorksAsExpected() {
+    final EngineConfig engineConfig =
+        new EngineConfig(
+            BOT_ID,
+            BOT_NAME,
+            EMERGENCY_STOP_CURRENCY,
+            EMERGENCY_STOP_BALANCE,
+            TRADE_CYCLE_INTERVAL);
+    engineConfig.setMaxConcurrentStrategies(MAX_CONCURRENT_STRATEGIES);
+    engineConfig.setTradeCycleOverrunPolicy(TRADE_CYCLE_OVERRUN_POLICY);
+    engineConfig.setTickStoreDirectory(TICK_STORE_DIRECTORY);
+
+    final EngineConfig clonedEngineConfig = new EngineConfig(engineConfig);
+
+    assertEquals(engineConfig.toString(), clonedEngineConfig.toString());
   }
 
   @Test
@@ -159,7 +193,8 @@ public class TestEngineConfig {
 
     assertEquals(
         "EngineConfig{botId=avro-707_1, botName=Avro 707, emergencyStopCurrency=BTC, "
-            + "emergencyStopBalance=1.5, tradeCycleInterval=30}",
+            + "emergencyStopBalance=1.5, tradeCycleInterval=30, maxConcurrentStrategies=0, "
+            + "tradeCycleOverrunPolicy=null, tickStoreDirectory=null}",
         engineConfig.toString());
   }
 }
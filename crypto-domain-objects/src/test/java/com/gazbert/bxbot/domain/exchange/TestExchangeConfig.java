@@ -24,6 +24,7 @@
 package com.gazbert.crypto.domain.exchange;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 
 import java.util.HashMap;
@@ -73,6 +74,34 @@ public class TestExchangeConfig {
     assertEquals(OTHER_CONFIG, exchangeConfig.getOtherConfig());
   }
 
+  @Test
+  public void testCloningWorksAsExpected() {
+    final ExchangeConfig exchangeConfig = new ExchangeConfig();
+    exchangeConfig.setName(EXCHANGE_NAME);
+    exchangeConfig.setAdapter(EXCHANGE_ADAPTER);
+    exchangeConfig.setAuthenticationConfig(Map.of("key", "my-key"));
+    exchangeConfig.setNetworkConfig(NETWORK_CONFIG);
+    exchangeConfig.setOtherConfig(Map.of("fee-cache-ttl", "60"));
+
+    final ExchangeConfig clonedExchangeConfig = new ExchangeConfig(exchangeConfig);
+
+    assertEquals(exchangeConfig.toString(), clonedExchangeConfig.toString());
+    assertEquals(
+        exchangeConfig.getAuthenticationConfig(), clonedExchangeConfig.getAuthenticationConfig());
+    assertNotSame(NETWORK_CONFIG, clonedExchangeConfig.getNetworkConfig());
+    clonedExchangeConfig.getOtherConfig().put("nonce-file", "nonces/bitstamp.nonce");
+    assertEquals(1, exchangeConfig.getOtherConfig().size());
+  }
+
+  @Test
+  public void testCloningEmptyConfigWorksAsExpected() {
+    final ExchangeConfig clonedExchangeConfig = new ExchangeConfig(new ExchangeConfig());
+
+    assertNull(clonedExchangeConfig.getAuthenticationConfig());
+    assertNull(clonedExchangeConfig.getNetworkConfig());
+    assertNull(clonedExchangeConfig.getOtherConfig());
+  }
+
   @Test
   public void testToStringWorksAsExpected() {
     final ExchangeConfig exchangeConfig = new ExchangeConfig();
@@ -86,7 +115,9 @@ public class TestExchangeConfig {
         "ExchangeConfig{name=Bitstamp, "
             + "adapter=com.gazbert.crypto.exchanges.TestExchangeAdapter, "
             + "networkConfig=NetworkConfig{connectionTimeout=null, nonFatalErrorCodes=[], "
-            + "nonFatalErrorMessages=[]}, otherConfig={}}",
+            + "nonFatalErrorMessages=[], httpTransport=null, connectionPoolSize=null, "
+            + "connectionIdleTimeout=null, publicRateLimit=null, privateRateLimit=null, "
+            + "tradingRateLimit=null, rateLimitMaxWait=null}, otherConfig={}}",
         exchangeConfig.toString());
   }
 }
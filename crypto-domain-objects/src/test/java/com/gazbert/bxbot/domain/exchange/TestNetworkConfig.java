@@ -24,6 +24,7 @@
 package com.gazbert.crypto.domain.exchange;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -45,6 +46,13 @@ public class TestNetworkConfig {
           "Connection refused",
           "Connection reset",
           "Remote host closed connection during handshake");
+  private static final String HTTP_TRANSPORT = "http-client";
+  private static final Integer CONNECTION_POOL_SIZE = 10;
+  private static final Integer CONNECTION_IDLE_TIMEOUT = 60;
+  private static final RateLimitConfig PUBLIC_RATE_LIMIT = new RateLimitConfig(1.0, 5);
+  private static final RateLimitConfig PRIVATE_RATE_LIMIT = new RateLimitConfig(0.5, 3);
+  private static final RateLimitConfig TRADING_RATE_LIMIT = new RateLimitConfig(0.2, 1);
+  private static final Integer RATE_LIMIT_MAX_WAIT = 10;
 
   @Test
   public void testInitialisationWorksAsExpected() {
@@ -52,6 +60,13 @@ public class TestNetworkConfig {
     assertNull(networkConfig.getConnectionTimeout());
     assertTrue(networkConfig.getNonFatalErrorCodes().isEmpty());
     assertTrue(networkConfig.getNonFatalErrorMessages().isEmpty());
+    assertNull(networkConfig.getHttpTransport());
+    assertNull(networkConfig.getConnectionPoolSize());
+    assertNull(networkConfig.getConnectionIdleTimeout());
+    assertNull(networkConfig.getPublicRateLimit());
+    assertNull(networkConfig.getPrivateRateLimit());
+    assertNull(networkConfig.getTradingRateLimit());
+    assertNull(networkConfig.getRateLimitMaxWait());
   }
 
   @Test
@@ -66,6 +81,48 @@ public class TestNetworkConfig {
 
     networkConfig.setNonFatalErrorMessages(NON_FATAL_ERROR_MESSAGES);
     assertEquals(NON_FATAL_ERROR_MESSAGES, networkConfig.getNonFatalErrorMessages());
+
+    networkConfig.setHttpTransport(HTTP_TRANSPORT);
+    assertEquals(HTTP_TRANSPORT, networkConfig.getHttpTransport());
+
+    networkConfig.setConnectionPoolSize(CONNECTION_POOL_SIZE);
+    assertEquals(CONNECTION_POOL_SIZE, networkConfig.getConnectionPoolSize());
+
+    networkConfig.setConnectionIdleTimeout(CONNECTION_IDLE_TIMEOUT);
+    assertEquals(CONNECTION_IDLE_TIMEOUT, networkConfig.getConnectionIdleTimeout());
+
+    networkConfig.setPublicRateLimit(PUBLIC_RATE_LIMIT);
+    assertEquals(PUBLIC_RATE_LIMIT, networkConfig.getPublicRateLimit());
+
+    networkConfig.setPrivateRateLimit(PRIVATE_RATE_LIMIT);
+    assertEquals(PRIVATE_RATE_LIMIT, networkConfig.getPrivateRateLimit());
+
+    networkConfig.setTradingRateLimit(TRADING_RATE_LIMIT);
+    assertEquals(TRADING_RATE_LIMIT, networkConfig.getTradingRateLimit());
+
+    networkConfig.setRateLimitMaxWait(RATE_LIMIT_MAX_WAIT);
+    assertEquals(RATE_LIMIT_MAX_WAIT, networkConfig.getRateLimitMaxWait());
+  }
+
+  @Test
+  public void testCloningWorksAsExpected() {
+    final NetworkConfig networkConfig = new NetworkConfig();
+    networkConfig.setConnectionTimeout(CONNECTION_TIMEOUT);
+    networkConfig.setNonFatalErrorCodes(NON_FATAL_ERROR_CODES);
+    networkConfig.setNonFatalErrorMessages(NON_FATAL_ERROR_MESSAGES);
+    networkConfig.setHttpTransport(HTTP_TRANSPORT);
+    networkConfig.setConnectionPoolSize(CONNECTION_POOL_SIZE);
+    networkConfig.setConnectionIdleTimeout(CONNECTION_IDLE_TIMEOUT);
+    networkConfig.setPublicRateLimit(PUBLIC_RATE_LIMIT);
+    networkConfig.setPrivateRateLimit(PRIVATE_RATE_LIMIT);
+    networkConfig.setRateLimitMaxWait(RATE_LIMIT_MAX_WAIT);
+
+    final NetworkConfig clonedNetworkConfig = new NetworkConfig(networkConfig);
+
+    assertEquals(networkConfig.toString(), clonedNetworkConfig.toString());
+    assertNotSame(NON_FATAL_ERROR_CODES, clonedNetworkConfig.getNonFatalErrorCodes());
+    assertNotSame(PUBLIC_RATE_LIMIT, clonedNetworkConfig.getPublicRateLimit());
+    assertNull(clonedNetworkConfig.getTradingRateLimit());
   }
 
   @Test
@@ -74,11 +131,19 @@ public class TestNetworkConfig {
     networkConfig.setConnectionTimeout(CONNECTION_TIMEOUT);
     networkConfig.setNonFatalErrorCodes(NON_FATAL_ERROR_CODES);
     networkConfig.setNonFatalErrorMessages(NON_FATAL_ERROR_MESSAGES);
+    networkConfig.setHttpTransport(HTTP_TRANSPORT);
+    networkConfig.setConnectionPoolSize(CONNECTION_POOL_SIZE);
+    networkConfig.setConnectionIdleTimeout(CONNECTION_IDLE_TIMEOUT);
+    networkConfig.setPublicRateLimit(PUBLIC_RATE_LIMIT);
+    networkConfig.setRateLimitMaxWait(RATE_LIMIT_MAX_WAIT);
 
     assertEquals(
         "NetworkConfig{connectionTimeout=30, nonFatalErrorCodes=[502, 503, 504],"
             + " nonFatalErrorMessages=[Connection refused, Connection reset, "
-            + "Remote host closed connection during handshake]}",
+            + "Remote host closed connection during handshake], httpTransport=http-client, "
+            + "connectionPoolSize=10, connectionIdleTimeout=60, "
+            + "publicRateLimit=RateLimitConfig{requestsPerSecond=1.0, burst=5}, "
+            + "privateRateLimit=null, tradingRateLimit=null, rateLimitMaxWait=10}",
         networkConfig.toString());
   }
 }
@@ -43,6 +43,7 @@ public class TestMarketConfig {
   private static final String COUNTER_CURRENCY = "USD";
   private static final boolean IS_ENABLED = true;
   private static final String TRADING_STRATEGY = "macd_trend_follower";
+  private static final Integer TRADE_CYCLE_INTERVAL = 5;
 
   @Test
   public void testInitialisationWorksAsExpected() {
@@ -66,6 +67,7 @@ public class TestMarketConfig {
     assertNull(marketConfig.getCounterCurrency());
     assertFalse(marketConfig.isEnabled());
     assertNull(marketConfig.getTradingStrategyId());
+    assertNull(marketConfig.getTradeCycleInterval());
 
     marketConfig.setId(ID);
     assertEquals(ID, marketConfig.getId());
@@ -84,15 +86,20 @@ public class TestMarketConfig {
 
     marketConfig.setTradingStrategyId(TRADING_STRATEGY);
     assertEquals(TRADING_STRATEGY, marketConfig.getTradingStrategyId());
+
+    marketConfig.setTradeCycleInterval(TRADE_CYCLE_INTERVAL);
+    assertEquals(TRADE_CYCLE_INTERVAL, marketConfig.getTradeCycleInterval());
   }
 
   @Test
   public void testCloningWorksAsExpected() {
     final MarketConfig marketConfig =
         new MarketConfig(ID, NAME, BASE_CURRENCY, COUNTER_CURRENCY, IS_ENABLED, TRADING_STRATEGY);
+    marketConfig.setTradeCycleInterval(TRADE_CYCLE_INTERVAL);
     final MarketConfig clonedMarketConfig = new MarketConfig(marketConfig);
 
     assertEquals(clonedMarketConfig, marketConfig);
+    assertEquals(TRADE_CYCLE_INTERVAL, clonedMarketConfig.getTradeCycleInterval());
   }
 
   @Test
@@ -134,7 +141,8 @@ public class TestMarketConfig {
 
     assertEquals(
         "MarketConfig{id=gemini_usd/btc, name=BTC/USD, baseCurrency=BTC,"
-            + " counterCurrency=USD, enabled=true, tradingStrategyId=macd_trend_follower}",
+            + " counterCurrency=USD, enabled=true, tradingStrategyId=macd_trend_follower,"
+            + " tradeCycleInterval=null}",
         market1.toString());
   }
 }
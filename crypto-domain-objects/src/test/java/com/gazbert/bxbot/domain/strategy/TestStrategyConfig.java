@@ -25,6 +25,7 @@ package com.gazbert.crypto.domain.strategy;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -94,6 +95,8 @@ public class TestStrategyConfig {
     final StrategyConfig clonedStrategyConfig = new StrategyConfig(strategyConfig);
 
     assertEquals(clonedStrategyConfig, strategyConfig);
+    assertEquals(CONFIG_ITEMS, clonedStrategyConfig.getConfigItems());
+    assertNotSame(CONFIG_ITEMS, clonedStrategyConfig.getConfigItems());
   }
 
   @Test
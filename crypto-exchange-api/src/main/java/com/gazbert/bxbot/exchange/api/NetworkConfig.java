@@ -53,4 +53,58 @@ public interface NetworkConfig {
    * @return the connection timeout value if present, null otherwise.
    */
   Integer getConnectionTimeout();
+
+  /**
+   * Fetches (optional) HTTP transport the adapter should use to call the exchange, e.g.
+   * url-connection or http-client.
+   *
+   * @return the HTTP transport if present, null otherwise.
+   */
+  String getHttpTransport();
+
+  /**
+   * Fetches (optional) max number of idle connections to keep open per exchange host. Only used by
+   * the http-client transport.
+   *
+   * @return the connection pool size if present, null otherwise.
+   */
+  Integer getConnectionPoolSize();
+
+  /**
+   * Fetches (optional) time in seconds an idle connection is kept open for reuse. Only used by the
+   * http-client transport.
+   *
+   * @return the connection idle timeout if present, null otherwise.
+   */
+  Integer getConnectionIdleTimeout();
+
+  /**
+   * Fetches (optional) rate limit for public API calls, e.g. market data.
+   *
+   * @return the public API rate limit if present, null otherwise.
+   */
+  RateLimitConfig getPublicRateLimit();
+
+  /**
+   * Fetches (optional) rate limit for private API calls that do not trade, e.g. balances and open
+   * orders.
+   *
+   * @return the private API rate limit if present, null otherwise.
+   */
+  RateLimitConfig getPrivateRateLimit();
+
+  /**
+   * Fetches (optional) rate limit for trading API calls, i.e. creating and cancelling orders.
+   *
+   * @return the trading API rate limit if present, null otherwise.
+   */
+  RateLimitConfig getTradingRateLimit();
+
+  /**
+   * Fetches (optional) max time in seconds a call waits for its rate limit before failing. 0 fails
+   * fast.
+   *
+   * @return the rate limit max wait if present, null otherwise.
+   */
+  Integer getRateLimitMaxWait();
 }
@@ -0,0 +1,50 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchange.api;
+
+/**
+ * Encapsulates the (optional) rate limit for a class of Exchange API calls.
+ *
+ * <p>The limit is a token bucket: it holds up to {@link #getBurst()} requests and refills at
+ * {@link #getRequestsPerSecond()}.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public interface RateLimitConfig {
+
+  /**
+   * Fetches the sustained number of requests allowed per second.
+   *
+   * @return the requests per second if present, null otherwise.
+   */
+  Double getRequestsPerSecond();
+
+  /**
+   * Fetches the number of requests that can be sent at once after a quiet spell.
+   *
+   * @return the burst size if present, null otherwise.
+   */
+  Integer getBurst();
+}
@@ -83,12 +83,17 @@ public class BitstampIT {
     expect(networkConfig.getConnectionTimeout()).andReturn(30);
     expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
     expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+    expect(networkConfig.getHttpTransport()).andReturn(null);
+    expect(networkConfig.getPublicRateLimit()).andReturn(null);
+    expect(networkConfig.getPrivateRateLimit()).andReturn(null);
+    expect(networkConfig.getTradingRateLimit()).andReturn(null);
+    expect(networkConfig.getRateLimitMaxWait()).andReturn(null);
 
     exchangeConfig = createMock(ExchangeConfig.class);
     expect(exchangeConfig.getAuthenticationConfig()).andReturn(authenticationConfig);
     expect(exchangeConfig.getNetworkConfig()).andReturn(networkConfig);
 
-    // no other config for this adapter
+    expect(exchangeConfig.getOtherConfig()).andReturn(null);
   }
 
   @Test
@@ -85,6 +85,11 @@ public class ItBitIT {
     expect(networkConfig.getConnectionTimeout()).andReturn(30);
     expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
     expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+    expect(networkConfig.getHttpTransport()).andReturn(null);
+    expect(networkConfig.getPublicRateLimit()).andReturn(null);
+    expect(networkConfig.getPrivateRateLimit()).andReturn(null);
+    expect(networkConfig.getTradingRateLimit()).andReturn(null);
+    expect(networkConfig.getRateLimitMaxWait()).andReturn(null);
 
     otherConfig = createMock(OtherConfig.class);
     expect(otherConfig.getItem("buy-fee")).andReturn("0.25");
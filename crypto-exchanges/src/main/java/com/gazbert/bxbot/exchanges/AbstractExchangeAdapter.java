@@ -27,30 +27,61 @@ import com.gazbert.crypto.exchange.api.AuthenticationConfig;
 import com.gazbert.crypto.exchange.api.ExchangeConfig;
 import com.gazbert.crypto.exchange.api.NetworkConfig;
 import com.gazbert.crypto.exchange.api.OtherConfig;
+import com.gazbert.crypto.exchange.api.RateLimitConfig;
+import com.gazbert.crypto.exchanges.marketdata.MarketDataFeed;
+import com.gazbert.crypto.exchanges.trading.api.impl.CompactMarketOrders;
 import com.gazbert.crypto.trading.api.ExchangeNetworkException;
+import com.gazbert.crypto.trading.api.MarketOrderBook;
+import com.gazbert.crypto.trading.api.OrderType;
+import com.gazbert.crypto.trading.api.Ticker;
 import com.gazbert.crypto.trading.api.TradingApiException;
 import com.google.common.base.MoreObjects;
+import com.google.gson.stream.JsonReader;
 import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.net.ConnectException;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.SocketTimeoutException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.DecimalFormatSymbols;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -65,6 +96,39 @@ import org.apache.logging.log4j.Logger;
 abstract class AbstractExchangeAdapter {
 
   private static final Logger LOG = LogManager.getLogger();
+
+  /**
+   * The logger raw Exchange response payloads are written to at debug level. Payload logging is
+   * opt-in: set this logger to debug in log4j2.xml to enable it.
+   */
+  static final String PAYLOAD_LOGGER_NAME = "com.gazbert.crypto.exchanges.payload";
+
+  private static final Logger PAYLOAD_LOG = LogManager.getLogger(PAYLOAD_LOGGER_NAME);
+
+  /** The depth used to fetch the full market order book. */
+  static final int FULL_DEPTH = Integer.MAX_VALUE;
+
+  /** The number of decimal places held for streamed order book prices and quantities. */
+  static final int FIXED_POINT_SCALE = 8;
+
+  /** Optional other config item that enables the adapter's streaming market data feed. */
+  static final String MARKET_DATA_FEED_PROPERTY_NAME = "market-data-feed";
+
+  /** Optional other config item that sets the time in seconds exchange fees are cached for. */
+  static final String FEE_CACHE_TTL_PROPERTY_NAME = "fee-cache-ttl";
+
+  /** Exchange fees are cached for an hour unless the other config says otherwise. */
+  static final long DEFAULT_FEE_CACHE_TTL_SECONDS = 3600;
+
+  /** Name of the optional other config item for the file the adapter's nonces are persisted to. */
+  static final String NONCE_FILE_PROPERTY_NAME = "nonce-file";
+
+  /**
+   * The directory nonces are persisted to if the adapter's nonce-file is not set. It is next to
+   * the exchange config.
+   */
+  static final String DEFAULT_NONCE_DIRECTORY = "config/nonces";
+
   private static final String EXCHANGE_CONFIG_FILE = "config/exchange.yaml";
 
   private static final String UNEXPECTED_IO_ERROR_MSG =
@@ -82,15 +146,43 @@ abstract class AbstractExchangeAdapter {
   private static final String CONFIG_IS_NULL_OR_ZERO_LENGTH =
       " cannot be null or zero length! " + "HINT: is the value set in the ";
 
+  private static final String IO_INTERRUPTED_ERROR_MSG =
+      "Interrupted whilst waiting for response from Exchange.";
+
   private static final String CONNECTION_TIMEOUT_PROPERTY_NAME = "connection-timeout";
   private static final String NON_FATAL_ERROR_CODES_PROPERTY_NAME = "non-fatal-error-codes";
   private static final String NON_FATAL_ERROR_MESSAGES_PROPERTY_NAME = "non-fatal-error-messages";
+  private static final String HTTP_TRANSPORT_PROPERTY_NAME = "http-transport";
+  private static final String CONNECTION_POOL_SIZE_PROPERTY_NAME = "connection-pool-size";
+  private static final String CONNECTION_IDLE_TIMEOUT_PROPERTY_NAME = "connection-idle-timeout";
+  private static final String RATE_LIMIT_MAX_WAIT_PROPERTY_NAME = "rate-limit-max-wait";
+
+  // The JDK HttpClient only supports configuring its connection pool via these system properties.
+  private static final String HTTP_CLIENT_POOL_SIZE_SYSTEM_PROPERTY =
+      "jdk.httpclient.connectionPoolSize";
+  private static final String HTTP_CLIENT_KEEPALIVE_TIMEOUT_SYSTEM_PROPERTY =
+      "jdk.httpclient.keepalive.timeout";
+  private static final Object HTTP_CLIENT_POOL_MONITOR = new Object();
+  private static boolean httpClientPoolCreated;
+
+  private static final String USER_AGENT =
+      "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) "
+          + "Chrome/74.0.3729.169 Safari/537.36";
 
   private final Set<Integer> nonFatalNetworkErrorCodes;
   private final Set<String> nonFatalNetworkErrorMessages;
+  private final Map<ApiCallType, RateLimiter> rateLimiters;
+
+  /** Held from taking a nonce until its request has been sent; see sendInNonceOrder. */
+  private final Object nonceOrderMonitor = new Object();
 
   private int connectionTimeout;
+  private HttpTransport httpTransport;
+  private HttpClient httpClient;
+  private long rateLimitMaxWaitNanos;
   private DecimalFormatSymbols decimalFormatSymbols;
+  private MarketDataFeed marketDataFeed;
+  private URL requestEndpoint;
 
   /**
    * Constructor sets some sensible defaults for the network config and specifies decimal point
@@ -98,6 +190,8 @@ abstract class AbstractExchangeAdapter {
    */
   AbstractExchangeAdapter() {
     connectionTimeout = 30;
+    httpTransport = HttpTransport.URL_CONNECTION;
+    rateLimiters = new EnumMap<>(ApiCallType.class);
     nonFatalNetworkErrorCodes = new HashSet<>();
     nonFatalNetworkErrorMessages = new HashSet<>();
 
@@ -108,13 +202,15 @@ abstract class AbstractExchangeAdapter {
   }
 
   /**
-   * Makes a request to the Exchange.
+   * Makes a request to the Exchange using the HTTP transport set in the network config.
+   *
+   * <p>The time taken by each call is logged at debug level, so the transports can be compared.
    *
    * @param url the URL to invoke.
    * @param postData optional post data to send. This can be null.
    * @param httpMethod the HTTP method to use, e.g. GET, POST, DELETE
-   * @param requestHeaders optional request headers to set on the {@link URLConnection} used to
-   *     invoke the Exchange.
+   * @param requestHeaders optional request headers to set on the {@link URLConnection} or
+   *     {@link HttpRequest} used to invoke the Exchange.
    * @return the response from the Exchange.
    * @throws ExchangeNetworkException if a network error occurred trying to connect to the exchange.
    *     This exception allows for recovery from temporary network issues.
@@ -124,14 +220,83 @@ abstract class AbstractExchangeAdapter {
   ExchangeHttpResponse sendNetworkRequest(
       URL url, String httpMethod, String postData, Map<String, String> requestHeaders)
       throws TradingApiException, ExchangeNetworkException {
+    return sendRequest(
+        url,
+        httpMethod,
+        postData,
+        requestHeaders,
+        AbstractExchangeAdapter::readExchangeHttpResponse);
+  }
 
-    HttpURLConnection exchangeConnection = null;
-    final StringBuilder exchangeResponse = new StringBuilder();
+  /**
+   * Makes a request to the Exchange and streams the response body straight into the given reader.
+   *
+   * <p>Use this for large responses, e.g. order books: the reader adapts the payload as it arrives
+   * from the network, so the payload is never held in memory as a String. Error responses are
+   * handled the same way as {@link #sendNetworkRequest(URL, String, String, Map)}.
+   *
+   * @param url the URL to invoke.
+   * @param httpMethod the HTTP method to use, e.g. GET, POST, DELETE
+   * @param postData optional post data to send. This can be null.
+   * @param requestHeaders optional request headers to send to the Exchange.
+   * @param responseReader reads the response payload.
+   * @param <T> the type the response is read into.
+   * @return the response read by the response reader.
+   * @throws ExchangeNetworkException if a network error occurred trying to connect to the exchange.
+   *     This exception allows for recovery from temporary network issues.
+   * @throws TradingApiException if the API call failed for any reason other than a network error.
+   *     This means something really bad as happened.
+   */
+  <T> T sendNetworkRequest(
+      URL url,
+      String httpMethod,
+      String postData,
+      Map<String, String> requestHeaders,
+      ExchangeResponseReader<T> responseReader)
+      throws TradingApiException, ExchangeNetworkException {
+    return sendRequest(
+        url,
+        httpMethod,
+        postData,
+        requestHeaders,
+        (statusCode, reasonPhrase, body) -> readPayload(body, responseReader));
+  }
+
+  private <T> T sendRequest(
+      URL url,
+      String httpMethod,
+      String postData,
+      Map<String, String> requestHeaders,
+      ResponseBodyHandler<T> responseBodyHandler)
+      throws TradingApiException, ExchangeNetworkException {
 
+    LOG.debug(() -> "Using following URL for API call: " + url);
+    final long startTime = System.nanoTime();
     try {
-      LOG.debug(() -> "Using following URL for API call: " + url);
+      if (httpTransport == HttpTransport.HTTP_CLIENT) {
+        return sendRequestUsingHttpClient(
+            url, httpMethod, postData, requestHeaders, responseBodyHandler);
+      }
+      return sendRequestUsingUrlConnection(
+          url, httpMethod, postData, requestHeaders, responseBodyHandler);
+
+    } finally {
+      logRequestTime(httpMethod, url, startTime);
+    }
+  }
 
-      exchangeConnection = (HttpURLConnection) url.openConnection();
+  private <T> T sendRequestUsingUrlConnection(
+      URL url,
+      String httpMethod,
+      String postData,
+      Map<String, String> requestHeaders,
+      ResponseBodyHandler<T> responseBodyHandler)
+      throws TradingApiException, ExchangeNetworkException {
+
+    HttpURLConnection exchangeConnection = null;
+
+    try {
+      exchangeConnection = (HttpURLConnection) toRequestUrl(url).openConnection();
       exchangeConnection.setUseCaches(false);
       exchangeConnection.setDoOutput(true);
       exchangeConnection.setRequestMethod(httpMethod); // GET|POST|DELETE
@@ -152,20 +317,11 @@ abstract class AbstractExchangeAdapter {
       }
 
       // Grab the response - we just block here as per Connection API
-      try (final BufferedReader responseInputStream =
-          new BufferedReader(
-              new InputStreamReader(exchangeConnection.getInputStream(), StandardCharsets.UTF_8))) {
-
-        // Read the JSON response lines into our response buffer
-        String responseLine;
-        while ((responseLine = responseInputStream.readLine()) != null) {
-          exchangeResponse.append(responseLine);
-        }
-
-        return new ExchangeHttpResponse(
+      try (final InputStream responseInputStream = exchangeConnection.getInputStream()) {
+        return responseBodyHandler.handle(
             exchangeConnection.getResponseCode(),
             exchangeConnection.getResponseMessage(),
-            exchangeResponse.toString());
+            responseInputStream);
       }
 
     } catch (MalformedURLException e) {
@@ -218,6 +374,194 @@ abstract class AbstractExchangeAdapter {
     }
   }
 
+  private <T> T sendRequestUsingHttpClient(
+      URL url,
+      String httpMethod,
+      String postData,
+      Map<String, String> requestHeaders,
+      ResponseBodyHandler<T> responseBodyHandler)
+      throws TradingApiException, ExchangeNetworkException {
+
+    final HttpRequest request = createHttpRequest(url, httpMethod, postData, requestHeaders);
+    final HttpResponse<InputStream> response;
+    try {
+      response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    } catch (IOException | InterruptedException e) {
+      throw toRecoverableNetworkException(e);
+    }
+    return handleResponseBody(response, responseBodyHandler);
+  }
+
+  /**
+   * Makes a request to the Exchange without blocking the calling thread.
+   *
+   * <p>The http-client transport sends the request asynchronously. The url-connection transport
+   * has no asynchronous API, so its blocking request is run on the given executor instead.
+   *
+   * @param url the URL to invoke.
+   * @param httpMethod the HTTP method to use, e.g. GET, POST, DELETE
+   * @param postData optional post data to send. This can be null.
+   * @param requestHeaders optional request headers to send to the Exchange.
+   * @param executor the executor to run blocking requests on.
+   * @return a future holding the response from the Exchange. It completes exceptionally with an
+   *     {@link ExchangeNetworkException} or {@link TradingApiException} under the same conditions
+   *     as {@link #sendNetworkRequest(URL, String, String, Map)}.
+   */
+  CompletableFuture<ExchangeHttpResponse> sendNetworkRequestAsync(
+      URL url,
+      String httpMethod,
+      String postData,
+      Map<String, String> requestHeaders,
+      Executor executor) {
+    return sendRequestAsync(
+        url,
+        httpMethod,
+        postData,
+        requestHeaders,
+        AbstractExchangeAdapter::readExchangeHttpResponse,
+        executor);
+  }
+
+  /**
+   * Makes a request to the Exchange without blocking the calling thread, streaming the response
+   * body into the given reader. The response is read on the given executor.
+   *
+   * @param url the URL to invoke.
+   * @param httpMethod the HTTP method to use, e.g. GET, POST, DELETE
+   * @param postData optional post data to send. This can be null.
+   * @param requestHeaders optional request headers to send to the Exchange.
+   * @param responseReader reads the response payload.
+   * @param executor the executor to run blocking requests and response reads on.
+   * @param <T> the type the response is read into.
+   * @return a future holding the response read by the response reader. It completes exceptionally
+   *     under the same conditions as {@link #sendNetworkRequestAsync(URL, String, String, Map,
+   *     Executor)}.
+   */
+  <T> CompletableFuture<T> sendNetworkRequestAsync(
+      URL url,
+      String httpMethod,
+      String postData,
+      Map<String, String> requestHeaders,
+      ExchangeResponseReader<T> responseReader,
+      Executor executor) {
+    return sendRequestAsync(
+        url,
+        httpMethod,
+        postData,
+        requestHeaders,
+        (statusCode, reasonPhrase, body) -> readPayload(body, responseReader),
+        executor);
+  }
+
+  private <T> CompletableFuture<T> sendRequestAsync(
+      URL url,
+      String httpMethod,
+      String postData,
+      Map<String, String> requestHeaders,
+      ResponseBodyHandler<T> responseBodyHandler,
+      Executor executor) {
+
+    if (httpTransport != HttpTransport.HTTP_CLIENT) {
+      return CompletableFuture.supplyAsync(
+          () -> {
+            try {
+              return sendRequest(url, httpMethod, postData, requestHeaders, responseBodyHandler);
+            } catch (ExchangeNetworkException | TradingApiException e) {
+              throw new CompletionException(e);
+            }
+          },
+          executor);
+    }
+
+    LOG.debug(() -> "Using following URL for async API call: " + url);
+    final HttpRequest request;
+    try {
+      request = createHttpRequest(url, httpMethod, postData, requestHeaders);
+    } catch (TradingApiException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    // The body arrives as a blocking stream, so it is read on the executor.
+    final long startTime = System.nanoTime();
+    return httpClient
+        .sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+        .handleAsync(
+            (response, throwable) -> {
+              try {
+                if (throwable != null) {
+                  throw toRecoverableNetworkException(
+                      throwable instanceof CompletionException ? throwable.getCause() : throwable);
+                }
+                return handleResponseBody(response, responseBodyHandler);
+
+              } catch (ExchangeNetworkException | TradingApiException e) {
+                throw new CompletionException(e);
+
+              } finally {
+                logRequestTime(httpMethod, url, startTime);
+              }
+            },
+            executor);
+  }
+
+  /**
+   * Maps the result of a call made with {@link #sendNetworkRequestAsync} using the given response
+   * adapter. Errors are handled the same way as the adapters' blocking calls: Trading API
+   * exceptions are passed on and anything else is wrapped in a {@link TradingApiException}.
+   *
+   * @param response the future holding the Exchange response.
+   * @param responseAdapter adapts the Exchange response to the Trading API.
+   * @param unexpectedErrorMsg the error message for unexpected errors.
+   * @param <T> the Trading API type.
+   * @return a future holding the adapted response.
+   */
+  <T> CompletableFuture<T> adaptResponseAsync(
+      CompletableFuture<ExchangeHttpResponse> response,
+      ExchangeResponseAdapter<T> responseAdapter,
+      String unexpectedErrorMsg) {
+
+    return response.thenApply(
+        exchangeResponse -> {
+          try {
+            return responseAdapter.adapt(exchangeResponse);
+
+          } catch (ExchangeNetworkException | TradingApiException e) {
+            throw new CompletionException(e);
+
+          } catch (Exception e) {
+            LOG.error(unexpectedErrorMsg, e);
+            throw new CompletionException(new TradingApiException(unexpectedErrorMsg, e));
+          }
+        });
+  }
+
+  /**
+   * Handles errors from an asynchronous call the same way as the adapters' blocking calls: Trading
+   * API exceptions are passed on and anything else is wrapped in a {@link TradingApiException}.
+   *
+   * @param result the future holding the result of the call.
+   * @param unexpectedErrorMsg the error message for unexpected errors.
+   * @param <T> the Trading API type.
+   * @return a future holding the result of the call.
+   */
+  <T> CompletableFuture<T> handleUnexpectedErrorsAsync(
+      CompletableFuture<T> result, String unexpectedErrorMsg) {
+
+    return result.handle(
+        (value, throwable) -> {
+          if (throwable == null) {
+            return value;
+          }
+          final Throwable cause =
+              throwable instanceof CompletionException ? throwable.getCause() : throwable;
+          if (cause instanceof ExchangeNetworkException || cause instanceof TradingApiException) {
+            throw new CompletionException(cause);
+          }
+          LOG.error(unexpectedErrorMsg, cause);
+          throw new CompletionException(new TradingApiException(unexpectedErrorMsg, cause));
+        });
+  }
+
   /**
    * Sets the network config for the exchange adapter. This helper method expects the network config
    * to be present.
@@ -253,6 +597,138 @@ abstract class AbstractExchangeAdapter {
       nonFatalNetworkErrorMessages.addAll(nonFatalErrorMessagesFromConfig);
     }
     LOG.info(() -> NON_FATAL_ERROR_MESSAGES_PROPERTY_NAME + ": " + nonFatalNetworkErrorMessages);
+
+    httpTransport = HttpTransport.fromConfigValue(networkConfig.getHttpTransport());
+    if (httpTransport == null) {
+      final String errorMsg =
+          HTTP_TRANSPORT_PROPERTY_NAME
+              + " must be one of "
+              + Arrays.toString(HttpTransport.values())
+              + "."
+              + exchangeConfig;
+      LOG.error(errorMsg);
+      throw new IllegalArgumentException(errorMsg);
+    }
+    LOG.info(() -> HTTP_TRANSPORT_PROPERTY_NAME + ": " + httpTransport);
+
+    if (httpTransport == HttpTransport.HTTP_CLIENT) {
+      configureHttpClientConnectionPool(
+          networkConfig.getConnectionPoolSize(), networkConfig.getConnectionIdleTimeout());
+      httpClient =
+          HttpClient.newBuilder()
+              .version(HttpClient.Version.HTTP_2)
+              .followRedirects(HttpClient.Redirect.NORMAL)
+              .connectTimeout(Duration.ofSeconds(connectionTimeout))
+              .build();
+    }
+
+    setRateLimiter(ApiCallType.PUBLIC, networkConfig.getPublicRateLimit(), exchangeConfig);
+    setRateLimiter(ApiCallType.PRIVATE, networkConfig.getPrivateRateLimit(), exchangeConfig);
+    setRateLimiter(ApiCallType.TRADING, networkConfig.getTradingRateLimit(), exchangeConfig);
+
+    // Waiting for a permit longer than a call may take to time out gains nothing.
+    final Integer rateLimitMaxWait = networkConfig.getRateLimitMaxWait();
+    final int rateLimitMaxWaitSeconds =
+        rateLimitMaxWait == null ? connectionTimeout : rateLimitMaxWait;
+    rateLimitMaxWaitNanos = TimeUnit.SECONDS.toNanos(rateLimitMaxWaitSeconds);
+    LOG.info(() -> RATE_LIMIT_MAX_WAIT_PROPERTY_NAME + ": " + rateLimitMaxWaitSeconds);
+  }
+
+  private void setRateLimiter(
+      ApiCallType apiCallType, RateLimitConfig rateLimitConfig, ExchangeConfig exchangeConfig) {
+    final String propertyName = apiCallType.rateLimitPropertyName;
+    if (rateLimitConfig == null) {
+      LOG.info(() -> propertyName + ": none");
+      return;
+    }
+
+    final Double requestsPerSecond = rateLimitConfig.getRequestsPerSecond();
+    final Integer burst = rateLimitConfig.getBurst();
+    if (requestsPerSecond == null || requestsPerSecond <= 0 || (burst != null && burst < 1)) {
+      final String errorMsg =
+          propertyName
+              + " must have requestsPerSecond more than 0 and burst more than 0."
+              + exchangeConfig;
+      LOG.error(errorMsg);
+      throw new IllegalArgumentException(errorMsg);
+    }
+    final RateLimiter rateLimiter = new RateLimiter(requestsPerSecond, burst == null ? 1 : burst);
+    rateLimiters.put(apiCallType, rateLimiter);
+    LOG.info(() -> propertyName + ": " + rateLimiter);
+  }
+
+  /**
+   * Waits for the rate limit for the given class of API call to allow another request. Call this
+   * before sending each request to the Exchange. Does nothing if there is no rate limit configured.
+   *
+   * @param apiCallType the class of API call about to be made.
+   * @throws ExchangeNetworkException if the request would have to wait longer than the max wait.
+   *     The exchange has not been called, so the request can be retried later.
+   * @throws TradingApiException if interrupted while waiting.
+   */
+  void acquireRateLimitPermit(ApiCallType apiCallType)
+      throws ExchangeNetworkException, TradingApiException {
+    final RateLimiter rateLimiter = rateLimiters.get(apiCallType);
+    if (rateLimiter == null) {
+      return;
+    }
+
+    final long waitNanos = rateLimiter.reserve(rateLimitMaxWaitNanos);
+    if (waitNanos < 0) {
+      final String errorMsg =
+          "Exchange "
+              + apiCallType.rateLimitPropertyName
+              + " reached - not sending request. Will try again later.";
+      LOG.warn(errorMsg);
+      throw new ExchangeNetworkException(errorMsg);
+    }
+    if (waitNanos > 0) {
+      LOG.debug(
+          () ->
+              "Waiting "
+                  + TimeUnit.NANOSECONDS.toMillis(waitNanos)
+                  + "ms for "
+                  + apiCallType.rateLimitPropertyName);
+      try {
+        TimeUnit.NANOSECONDS.sleep(waitNanos);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        final String errorMsg = IO_INTERRUPTED_ERROR_MSG;
+        LOG.error(errorMsg, e);
+        throw new TradingApiException(errorMsg, e);
+      }
+    }
+  }
+
+  /**
+   * Sends an asynchronous request once the rate limit for the given class of API call allows it.
+   * Any wait happens on the executor, never on the calling thread, but holds an executor thread
+   * for up to the rate-limit-max-wait. The request is only non-blocking on the http-client
+   * transport; see {@link #sendNetworkRequestAsync(URL, String, String, Map, Executor)}.
+   *
+   * @param apiCallType the class of API call about to be made.
+   * @param executor the executor to wait on.
+   * @param request sends the request.
+   * @param <T> the type of the response.
+   * @return a future holding the response. It completes exceptionally under the same conditions as
+   *     {@link #acquireRateLimitPermit(ApiCallType)} and the request.
+   */
+  <T> CompletableFuture<T> sendRateLimitedAsync(
+      ApiCallType apiCallType, Executor executor, Supplier<CompletableFuture<T>> request) {
+    if (!rateLimiters.containsKey(apiCallType)) {
+      return request.get();
+    }
+    final CompletableFuture<Void> permit =
+        CompletableFuture.runAsync(
+            () -> {
+              try {
+                acquireRateLimitPermit(apiCallType);
+              } catch (ExchangeNetworkException | TradingApiException e) {
+                throw new CompletionException(e);
+              }
+            },
+            executor);
+    return permit.thenCompose(permitted -> request.get());
   }
 
   /**
@@ -317,6 +793,190 @@ abstract class AbstractExchangeAdapter {
     return assertItemExists(itemName, itemValue);
   }
 
+  /**
+   * Checks the optional market-data-feed item in the adapter's other config.
+   *
+   * @param otherConfig other config for the adapter.
+   * @return true if the market data feed is enabled.
+   */
+  boolean isMarketDataFeedEnabled(OtherConfig otherConfig) {
+    final boolean enabled =
+        Boolean.parseBoolean(otherConfig.getItem(MARKET_DATA_FEED_PROPERTY_NAME));
+    LOG.info(() -> MARKET_DATA_FEED_PROPERTY_NAME + ": " + enabled);
+    return enabled;
+  }
+
+  /**
+   * Fetches the optional fee-cache-ttl item from the adapter's other config.
+   *
+   * @param otherConfig other config for the adapter; may be null.
+   * @return the time in seconds exchange fees are cached for; 0 disables caching.
+   * @throws IllegalArgumentException if the item is not a whole number of seconds >= 0.
+   */
+  long getFeeCacheTtl(OtherConfig otherConfig) {
+    final String itemValue =
+        otherConfig == null ? null : otherConfig.getItem(FEE_CACHE_TTL_PROPERTY_NAME);
+    if (itemValue == null) {
+      LOG.info(() -> FEE_CACHE_TTL_PROPERTY_NAME + ": " + DEFAULT_FEE_CACHE_TTL_SECONDS);
+      return DEFAULT_FEE_CACHE_TTL_SECONDS;
+    }
+
+    LOG.info(() -> FEE_CACHE_TTL_PROPERTY_NAME + ": " + itemValue);
+    try {
+      final long ttlSeconds = Long.parseLong(itemValue.trim());
+      if (ttlSeconds >= 0) {
+        return ttlSeconds;
+      }
+    } catch (NumberFormatException e) {
+      // reported below
+    }
+    final String errorMsg =
+        FEE_CACHE_TTL_PROPERTY_NAME + " must be a number of seconds >= 0 but was: " + itemValue;
+    LOG.error(errorMsg);
+    throw new IllegalArgumentException(errorMsg);
+  }
+
+  /**
+   * Creates the nonce generator for the adapter's authenticated requests. The nonces are persisted
+   * to the optional nonce-file item in the adapter's other config, else to
+   * config/nonces/[exchangeName].nonce
+   *
+   * @param otherConfig other config for the adapter; may be null.
+   * @param exchangeName the exchange name used to name the default nonce file, e.g. kraken
+   * @return the nonce generator.
+   * @throws IllegalStateException if previously persisted nonces cannot be read.
+   */
+  NonceGenerator createNonceGenerator(OtherConfig otherConfig, String exchangeName) {
+    final String itemValue =
+        otherConfig == null ? null : otherConfig.getItem(NONCE_FILE_PROPERTY_NAME);
+    final Path nonceFile =
+        itemValue == null || itemValue.isBlank()
+            ? Paths.get(DEFAULT_NONCE_DIRECTORY, exchangeName + ".nonce")
+            : Paths.get(itemValue.trim());
+    LOG.info(() -> NONCE_FILE_PROPERTY_NAME + ": " + nonceFile);
+    return new NonceGenerator(nonceFile);
+  }
+
+  /**
+   * Takes the next nonce and sends the authenticated request signed with it.
+   *
+   * <p>Exchanges reject a request whose nonce is not greater than the last one they saw, so the
+   * nonce is taken and the request sent while holding the adapter's nonce order lock. Requests then
+   * reach the exchange in nonce order, even when calls are made in parallel. Adapters must acquire
+   * their rate limit permit before calling this, so the lock is not held while waiting for one.
+   *
+   * @param nonceGenerator the adapter's nonce generator.
+   * @param request builds, signs and sends the request with the nonce it is given.
+   * @return the response from the exchange.
+   * @throws ExchangeNetworkException if a network error occurred trying to connect to the exchange.
+   * @throws TradingApiException if the nonce could not be persisted, the request URL is invalid,
+   *     or the exchange could not handle the request.
+   */
+  ExchangeHttpResponse sendInNonceOrder(NonceGenerator nonceGenerator, NonceSignedRequest request)
+      throws ExchangeNetworkException, TradingApiException {
+    synchronized (nonceOrderMonitor) {
+      final long nonce;
+      try {
+        nonce = nonceGenerator.next();
+      } catch (IOException e) {
+        final String errorMsg = "Failed to persist the nonce for the request, so it was not sent.";
+        LOG.error(errorMsg, e);
+        throw new TradingApiException(errorMsg, e);
+      }
+      try {
+        return request.send(nonce);
+      } catch (MalformedURLException e) {
+        final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
+        LOG.error(errorMsg, e);
+        throw new TradingApiException(errorMsg, e);
+      }
+    }
+  }
+
+  /**
+   * Creates a MAC per thread for signing requests, as a Mac instance is not thread safe. The first
+   * MAC is created up front, so an unsupported algorithm or invalid key fails fast.
+   *
+   * @param keyspec the secret key and MAC algorithm, e.g. HmacSHA512
+   * @return the MAC for each thread.
+   * @throws NoSuchAlgorithmException if the MAC algorithm is not supported.
+   * @throws InvalidKeyException if the secret key is invalid.
+   */
+  ThreadLocal<Mac> createThreadLocalMac(SecretKeySpec keyspec)
+      throws NoSuchAlgorithmException, InvalidKeyException {
+    final Mac mac = Mac.getInstance(keyspec.getAlgorithm());
+    mac.init(keyspec);
+    return ThreadLocal.withInitial(
+        () -> {
+          try {
+            final Mac threadMac = Mac.getInstance(keyspec.getAlgorithm());
+            threadMac.init(keyspec);
+            return threadMac;
+          } catch (GeneralSecurityException e) {
+            // can't happen; the same MAC was created above
+            throw new IllegalStateException("Failed to create " + keyspec.getAlgorithm(), e);
+          }
+        });
+  }
+
+  /**
+   * Creates a message digest per thread for hashing requests, as a MessageDigest instance is not
+   * thread safe. The first digest is created up front, so an unsupported algorithm fails fast.
+   *
+   * @param algorithm the digest algorithm, e.g. SHA-256
+   * @return the message digest for each thread.
+   * @throws NoSuchAlgorithmException if the digest algorithm is not supported.
+   */
+  ThreadLocal<MessageDigest> createThreadLocalMessageDigest(String algorithm)
+      throws NoSuchAlgorithmException {
+    MessageDigest.getInstance(algorithm);
+    return ThreadLocal.withInitial(
+        () -> {
+          try {
+            return MessageDigest.getInstance(algorithm);
+          } catch (NoSuchAlgorithmException e) {
+            // can't happen; the same digest was created above
+            throw new IllegalStateException("Failed to create " + algorithm, e);
+          }
+        });
+  }
+
+  void setMarketDataFeed(MarketDataFeed marketDataFeed) {
+    this.marketDataFeed = marketDataFeed;
+  }
+
+  /**
+   * Returns the market orders from the market data feed's local order book. Subscribes the feed to
+   * the market on first use.
+   *
+   * @param marketId the id of the market.
+   * @param depth the maximum number of orders to return on each side.
+   * @return the market order book, or null if there's no feed or it can't serve the request yet;
+   *     the caller should then fetch the order book from the exchange.
+   */
+  MarketOrderBook getLocalMarketOrders(String marketId, int depth) {
+    if (marketDataFeed == null) {
+      return null;
+    }
+    marketDataFeed.subscribe(marketId);
+    return marketDataFeed.getMarketOrders(marketId, depth);
+  }
+
+  /**
+   * Returns the ticker from the market data feed. Subscribes the feed to the market on first use.
+   *
+   * @param marketId the id of the market.
+   * @return the ticker, or null if there's no feed or it is not in sync yet; the caller should then
+   *     fetch the ticker from the exchange.
+   */
+  Ticker getLocalTicker(String marketId) {
+    if (marketDataFeed == null) {
+      return null;
+    }
+    marketDataFeed.subscribe(marketId);
+    return marketDataFeed.getTicker(marketId);
+  }
+
   /**
    * Sorts the request params alphabetically (uses natural ordering) and returns them as a query
    * string.
@@ -340,6 +1000,79 @@ abstract class AbstractExchangeAdapter {
     return sortedQueryString.toString();
   }
 
+  /**
+   * Reads an array of market orders from a streamed order book payload. Each order is an array
+   * holding the price and then the quantity; any further elements, e.g. timestamps, are skipped.
+   * Orders beyond the depth are skipped without being adapted.
+   *
+   * <p>The orders are held in a compact fixed-point list so no BigDecimals are created until a
+   * Trading Strategy asks for them. Orders with more than {@link #FIXED_POINT_SCALE} decimal places
+   * are held as BigDecimals instead.
+   *
+   * @param payload the order book payload, positioned at the start of the orders array.
+   * @param orderType the type of the orders.
+   * @param depth the maximum number of orders to read.
+   * @return the market orders.
+   * @throws IOException if the payload could not be read.
+   */
+  static CompactMarketOrders readMarketOrders(JsonReader payload, OrderType orderType, int depth)
+      throws IOException {
+    final CompactMarketOrders marketOrders = createMarketOrders(orderType);
+    payload.beginArray();
+    while (payload.hasNext()) {
+      if (marketOrders.size() == depth) {
+        payload.skipValue();
+        continue;
+      }
+      payload.beginArray();
+      final String price = payload.nextString();
+      final String quantity = payload.nextString();
+      while (payload.hasNext()) {
+        payload.skipValue();
+      }
+      payload.endArray();
+      marketOrders.add(price, quantity);
+    }
+    payload.endArray();
+    return marketOrders;
+  }
+
+  /**
+   * Creates an empty compact list of market orders for a streamed order book.
+   *
+   * @param orderType the type of the orders.
+   * @return the market orders.
+   */
+  static CompactMarketOrders createMarketOrders(OrderType orderType) {
+    return new CompactMarketOrders(orderType, FIXED_POINT_SCALE, FIXED_POINT_SCALE);
+  }
+
+  /**
+   * Returns the orders at the top of an order book, up to the given depth.
+   *
+   * @param orders the orders, best price first.
+   * @param depth the maximum number of orders to return.
+   * @param <T> the order type.
+   * @return the top orders.
+   */
+  static <T> List<T> limitDepth(List<T> orders, int depth) {
+    return orders.size() <= depth ? orders : orders.subList(0, depth);
+  }
+
+  /**
+   * Checks a market order book depth requested by a Trading Strategy.
+   *
+   * @param depth the market order book depth.
+   * @throws IllegalArgumentException if depth is less than 1.
+   */
+  static void assertValidDepth(int depth) {
+    if (depth < 1) {
+      final String errorMsg = "Market order book depth must be at least 1: " + depth;
+      LOG.error(errorMsg);
+      throw new IllegalArgumentException(errorMsg);
+    }
+  }
+
   /**
    * Returns the decimal format symbols for using with BigDecimals with the exchanges. Specifically,
    * the decimal point symbol is set to a '.'
@@ -385,18 +1118,251 @@ abstract class AbstractExchangeAdapter {
     }
   }
 
+  /**
+   * Adapts an Exchange response to the Trading API.
+   *
+   * @param <T> the Trading API type.
+   */
+  @FunctionalInterface
+  interface ExchangeResponseAdapter<T> {
+    T adapt(ExchangeHttpResponse response) throws ExchangeNetworkException, TradingApiException;
+  }
+
+  /**
+   * Reads an Exchange response payload as it is streamed from the network.
+   *
+   * @param <T> the type the payload is read into.
+   */
+  @FunctionalInterface
+  interface ExchangeResponseReader<T> {
+    T read(JsonReader payload) throws IOException, ExchangeNetworkException, TradingApiException;
+  }
+
+  /** Builds, signs and sends an authenticated request with the nonce it is given. */
+  @FunctionalInterface
+  interface NonceSignedRequest {
+    ExchangeHttpResponse send(long nonce)
+        throws MalformedURLException, ExchangeNetworkException, TradingApiException;
+  }
+
+  /** Handles the body of a successful response from the Exchange. */
+  @FunctionalInterface
+  private interface ResponseBodyHandler<T> {
+    T handle(int statusCode, String reasonPhrase, InputStream body)
+        throws IOException, ExchangeNetworkException, TradingApiException;
+  }
+
+  /** The classes of Exchange API call that are rate limited separately. */
+  enum ApiCallType {
+
+    /** Unauthenticated calls, e.g. market data. */
+    PUBLIC("public-rate-limit"),
+
+    /** Authenticated calls that do not trade, e.g. balances and open orders. */
+    PRIVATE("private-rate-limit"),
+
+    /** Calls that create or cancel orders. */
+    TRADING("trading-rate-limit");
+
+    private final String rateLimitPropertyName;
+
+    ApiCallType(String rateLimitPropertyName) {
+      this.rateLimitPropertyName = rateLimitPropertyName;
+    }
+  }
+
+  /** The HTTP transports an adapter can use to call the Exchange. */
+  enum HttpTransport {
+
+    /** A new HttpURLConnection per call. This is the default. */
+    URL_CONNECTION("url-connection"),
+
+    /** A shared HttpClient that keeps connections alive and reuses them. */
+    HTTP_CLIENT("http-client");
+
+    private final String configValue;
+
+    HttpTransport(String configValue) {
+      this.configValue = configValue;
+    }
+
+    static HttpTransport fromConfigValue(String configValue) {
+      if (configValue == null) {
+        return URL_CONNECTION;
+      }
+      for (final HttpTransport httpTransport : values()) {
+        if (httpTransport.configValue.equalsIgnoreCase(configValue.trim())) {
+          return httpTransport;
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public String toString() {
+      return configValue;
+    }
+  }
+
+  /**
+   * Sends every request to the given endpoint instead of the exchange, keeping each request's path
+   * and query. Used to run the adapters against an in-process stub, e.g. in benchmarks.
+   *
+   * @param requestEndpoint the endpoint, e.g. http://localhost:8080; null sends requests to the
+   *     exchange.
+   */
+  void setRequestEndpoint(URL requestEndpoint) {
+    this.requestEndpoint = requestEndpoint;
+  }
+
   // --------------------------------------------------------------------------
   //  Util methods
   // --------------------------------------------------------------------------
 
+  private URL toRequestUrl(URL url) throws MalformedURLException {
+    return requestEndpoint == null ? url : new URL(requestEndpoint, url.getFile());
+  }
+
+  private HttpRequest createHttpRequest(
+      URL url, String httpMethod, String postData, Map<String, String> requestHeaders)
+      throws TradingApiException {
+    try {
+      final HttpRequest.Builder requestBuilder =
+          HttpRequest.newBuilder(toRequestUrl(url).toURI())
+              .timeout(Duration.ofSeconds(connectionTimeout))
+              .setHeader("User-Agent", USER_AGENT);
+
+      if (requestHeaders != null) {
+        for (final Map.Entry<String, String> requestHeader : requestHeaders.entrySet()) {
+          requestBuilder.setHeader(requestHeader.getKey(), requestHeader.getValue());
+          LOG.debug(() -> "Setting following request header: " + requestHeader);
+        }
+      }
+
+      if (httpMethod.equalsIgnoreCase("POST") && postData != null) {
+        LOG.debug(() -> "Doing POST with request body: " + postData);
+        requestBuilder.method(
+            httpMethod, HttpRequest.BodyPublishers.ofString(postData, StandardCharsets.UTF_8));
+      } else {
+        requestBuilder.method(httpMethod, HttpRequest.BodyPublishers.noBody());
+      }
+      return requestBuilder.build();
+
+    } catch (MalformedURLException | URISyntaxException | IllegalArgumentException e) {
+      final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
+      LOG.error(errorMsg, e);
+      throw new TradingApiException(errorMsg, e);
+    }
+  }
+
+  private <T> T handleResponseBody(
+      HttpResponse<InputStream> response, ResponseBodyHandler<T> responseBodyHandler)
+      throws TradingApiException, ExchangeNetworkException {
+
+    try (final InputStream body = response.body()) {
+      // HttpURLConnection throws an IOException for error responses - keep the same behaviour.
+      final int statusCode = response.statusCode();
+      if (statusCode >= 400) {
+        if (nonFatalNetworkErrorCodes.contains(statusCode)) {
+          final String errorMsg = IO_5XX_TIMEOUT_ERROR_MSG;
+          LOG.error(() -> errorMsg + " HTTP status code: " + statusCode);
+          throw new ExchangeNetworkException(errorMsg);
+        }
+        final String errorMsg =
+            UNEXPECTED_IO_ERROR_MSG
+                + " HTTP status code: "
+                + statusCode
+                + " ErrorStream Response: "
+                + new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        LOG.error(errorMsg);
+        throw new TradingApiException(errorMsg);
+      }
+
+      // HTTP/2 has no reason phrase.
+      return responseBodyHandler.handle(statusCode, "", body);
+
+    } catch (IOException e) {
+      throw toRecoverableNetworkException(e);
+    }
+  }
+
+  private static ExchangeHttpResponse readExchangeHttpResponse(
+      int statusCode, String reasonPhrase, InputStream body) throws IOException {
+    return new ExchangeHttpResponse(
+        statusCode, reasonPhrase, new String(body.readAllBytes(), StandardCharsets.UTF_8));
+  }
+
+  private static <T> T readPayload(InputStream body, ExchangeResponseReader<T> responseReader)
+      throws IOException, ExchangeNetworkException, TradingApiException {
+
+    if (PAYLOAD_LOG.isDebugEnabled()) {
+      // Logging the payload means holding all of it in memory, so only buffer it when asked to.
+      final String payload = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+      PAYLOAD_LOG.debug(() -> "Response payload: " + payload);
+      return responseReader.read(new JsonReader(new StringReader(payload)));
+    }
+    final T result =
+        responseReader.read(new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8)));
+    // Read to the end of the body, else the HttpClient may not reuse the connection.
+    body.transferTo(OutputStream.nullOutputStream());
+    return result;
+  }
+
+  /*
+   * Returns the exception to throw for a recoverable HttpClient error, or throws a
+   * TradingApiException if the error is not recoverable.
+   */
+  private ExchangeNetworkException toRecoverableNetworkException(Throwable e)
+      throws TradingApiException {
+
+    if (e instanceof HttpTimeoutException) {
+      final String errorMsg = IO_SOCKET_TIMEOUT_ERROR_MSG;
+      LOG.error(errorMsg, e);
+      return new ExchangeNetworkException(errorMsg, e);
+
+    } else if (e instanceof ConnectException) {
+      // HttpClient reports unknown hosts as a ConnectException.
+      final String errorMsg = "Failed to connect to Exchange. It's dead Jim!";
+      LOG.error(errorMsg, e);
+      return new ExchangeNetworkException(errorMsg, e);
+
+    } else if (e instanceof IOException && errorMessageIsRecoverableNetworkError((Exception) e)) {
+      final String errorMsg =
+          "Failed to connect to Exchange. SSL Connection was refused or reset by the server.";
+      LOG.error(errorMsg, e);
+      return new ExchangeNetworkException(errorMsg, e);
+
+    } else if (e instanceof InterruptedException) {
+      Thread.currentThread().interrupt();
+      final String errorMsg = IO_INTERRUPTED_ERROR_MSG;
+      LOG.error(errorMsg, e);
+      throw new TradingApiException(errorMsg, e);
+    }
+
+    final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
+    LOG.error(errorMsg, e);
+    throw new TradingApiException(errorMsg, e);
+  }
+
+  private void logRequestTime(String httpMethod, URL url, long startTime) {
+    final long durationInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    LOG.debug(
+        () ->
+            httpMethod
+                + " "
+                + url
+                + " took "
+                + durationInMillis
+                + "ms using "
+                + httpTransport
+                + " transport");
+  }
+
   private void setRequestHeaders(
       HttpURLConnection exchangeConnection, Map<String, String> requestHeaders) {
     // Er, perhaps, we need to be a bit more stealth here...
     // This was needed for some exchanges back in the day!
-    exchangeConnection.setRequestProperty(
-        "User-Agent",
-        "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) "
-            + "Chrome/74.0.3729.169 Safari/537.36");
+    exchangeConnection.setRequestProperty("User-Agent", USER_AGENT);
 
     if (requestHeaders != null) {
       for (final Map.Entry<String, String> requestHeader : requestHeaders.entrySet()) {
@@ -437,6 +1403,59 @@ abstract class AbstractExchangeAdapter {
     return errorMsg;
   }
 
+  /*
+   * The JDK HttpClient pool settings are process-wide: the JDK reads them once, when the first
+   * client in the JVM is created. Values set on the command line (-D) take precedence, then the
+   * first HttpClient adapter's config; a later adapter's different values are ignored.
+   */
+  private static void configureHttpClientConnectionPool(
+      Integer connectionPoolSize, Integer connectionIdleTimeout) {
+    synchronized (HTTP_CLIENT_POOL_MONITOR) {
+      applyHttpClientPoolSetting(
+          HTTP_CLIENT_POOL_SIZE_SYSTEM_PROPERTY,
+          CONNECTION_POOL_SIZE_PROPERTY_NAME,
+          connectionPoolSize,
+          httpClientPoolCreated);
+      applyHttpClientPoolSetting(
+          HTTP_CLIENT_KEEPALIVE_TIMEOUT_SYSTEM_PROPERTY,
+          CONNECTION_IDLE_TIMEOUT_PROPERTY_NAME,
+          connectionIdleTimeout,
+          httpClientPoolCreated);
+      httpClientPoolCreated = true;
+    }
+  }
+
+  /*
+   * Sets the system property to the configured value unless it is already set or the pool has
+   * already been created, and logs a warning if the configured value is ignored. Returns the value
+   * in effect; null means the JDK default.
+   */
+  static String applyHttpClientPoolSetting(
+      String systemProperty, String configItemName, Integer configValue, boolean poolCreated) {
+    final String currentValue = System.getProperty(systemProperty);
+    if (configValue != null) {
+      final String requestedValue = String.valueOf(configValue);
+      if (currentValue == null && !poolCreated) {
+        System.setProperty(systemProperty, requestedValue);
+        LOG.info(() -> configItemName + ": " + requestedValue);
+        return requestedValue;
+      }
+      if (!requestedValue.equals(currentValue)) {
+        LOG.warn(
+            () ->
+                configItemName
+                    + ": "
+                    + requestedValue
+                    + " is ignored. The HttpClient connection pool is shared by the whole JVM and"
+                    + " is already using "
+                    + (currentValue == null ? "the JDK default" : currentValue)
+                    + ".");
+      }
+    }
+    LOG.info(() -> configItemName + ": " + currentValue);
+    return currentValue;
+  }
+
   private static String assertItemExists(String itemName, String itemValue) {
     if (itemValue == null || itemValue.length() == 0) {
       final String errorMsg =
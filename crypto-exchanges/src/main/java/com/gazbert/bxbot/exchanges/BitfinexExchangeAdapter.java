@@ -26,6 +26,8 @@ package com.gazbert.crypto.exchanges;
 import com.gazbert.crypto.exchange.api.AuthenticationConfig;
 import com.gazbert.crypto.exchange.api.ExchangeAdapter;
 import com.gazbert.crypto.exchange.api.ExchangeConfig;
+import com.gazbert.crypto.exchange.api.OtherConfig;
+import com.gazbert.crypto.exchanges.marketdata.BitfinexMarketDataFeed;
 import com.gazbert.crypto.exchanges.trading.api.impl.BalanceInfoImpl;
 import com.gazbert.crypto.exchanges.trading.api.impl.MarketOrderBookImpl;
 import com.gazbert.crypto.exchanges.trading.api.impl.MarketOrderImpl;
@@ -55,10 +57,13 @@ import java.security.NoSuchAlgorithmException;
 import java.text.DecimalFormat;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import javax.xml.bind.DatatypeConverter;
@@ -109,6 +114,9 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
   private static final String UNEXPECTED_IO_ERROR_MSG =
       "Failed to connect to Exchange due to unexpected IO error.";
 
+  /** The API methods that create or cancel orders; they have their own rate limit. */
+  private static final Set<String> TRADING_API_METHODS = Set.of("order/new", "order/cancel");
+
   private static final String ID = "id";
   private static final String EXCHANGE = "exchange";
   private static final String SYMBOL = "symbol";
@@ -130,19 +138,21 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
   private String key = "";
   private String secret = "";
 
-  private Mac mac;
+  private ThreadLocal<Mac> threadLocalMac;
   private boolean initializedMacAuthentication = false;
-  private long nonce = 0;
+  private NonceGenerator nonceGenerator;
 
   private Gson gson;
 
+  private ExchangeFeeCache<BigDecimal> feeCache;
+
   @Override
   public void init(ExchangeConfig config) {
     LOG.info(() -> "About to initialise Bitfinex ExchangeConfig: " + config);
     setAuthenticationConfig(config);
     setNetworkConfig(config);
+    setOtherConfig(config);
 
-    nonce = System.currentTimeMillis() / 1000;
     initSecureMessageLayer();
     initGson();
   }
@@ -155,36 +165,22 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
   @Override
   public MarketOrderBook getMarketOrders(String marketId)
       throws TradingApiException, ExchangeNetworkException {
-    try {
-      final ExchangeHttpResponse response = sendPublicRequestToExchange("book/" + marketId);
-      LOG.debug(() -> "Market Orders response: " + response);
-
-      final BitfinexOrderBook orderBook =
-          gson.fromJson(response.getPayload(), BitfinexOrderBook.class);
-
-      final List<MarketOrder> buyOrders = new ArrayList<>();
-      for (BitfinexMarketOrder bitfinexBuyOrder : orderBook.bids) {
-        final MarketOrder buyOrder =
-            new MarketOrderImpl(
-                OrderType.BUY,
-                bitfinexBuyOrder.price,
-                bitfinexBuyOrder.amount,
-                bitfinexBuyOrder.price.multiply(bitfinexBuyOrder.amount));
-        buyOrders.add(buyOrder);
-      }
+    return getMarketOrders(marketId, FULL_DEPTH);
+  }
 
-      final List<MarketOrder> sellOrders = new ArrayList<>();
-      for (BitfinexMarketOrder bitfinexSellOrder : orderBook.asks) {
-        final MarketOrder sellOrder =
-            new MarketOrderImpl(
-                OrderType.SELL,
-                bitfinexSellOrder.price,
-                bitfinexSellOrder.amount,
-                bitfinexSellOrder.price.multiply(bitfinexSellOrder.amount));
-        sellOrders.add(sellOrder);
-      }
+  @Override
+  public MarketOrderBook getMarketOrders(String marketId, int depth)
+      throws TradingApiException, ExchangeNetworkException {
+    assertValidDepth(depth);
+    final MarketOrderBook localMarketOrders = getLocalMarketOrders(marketId, depth);
+    if (localMarketOrders != null) {
+      return localMarketOrders;
+    }
 
-      return new MarketOrderBookImpl(marketId, sellOrders, buyOrders);
+    try {
+      final ExchangeHttpResponse response =
+          sendPublicRequestToExchange(createOrderBookApiMethod(marketId, depth));
+      return adaptMarketOrders(marketId, response, depth);
 
     } catch (ExchangeNetworkException | TradingApiException e) {
       throw e;
@@ -195,6 +191,64 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
     }
   }
 
+  @Override
+  public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId) {
+    return getMarketOrdersAsync(marketId, FULL_DEPTH);
+  }
+
+  @Override
+  public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId, int depth) {
+    assertValidDepth(depth);
+    final MarketOrderBook localMarketOrders = getLocalMarketOrders(marketId, depth);
+    if (localMarketOrders != null) {
+      return CompletableFuture.completedFuture(localMarketOrders);
+    }
+
+    return adaptResponseAsync(
+        sendPublicRequestToExchangeAsync(createOrderBookApiMethod(marketId, depth)),
+        response -> adaptMarketOrders(marketId, response, depth),
+        UNEXPECTED_ERROR_MSG);
+  }
+
+  private MarketOrderBook adaptMarketOrders(
+      String marketId, ExchangeHttpResponse response, int depth) {
+    LOG.debug(() -> "Market Orders response: " + response);
+
+    final BitfinexOrderBook orderBook =
+        gson.fromJson(response.getPayload(), BitfinexOrderBook.class);
+
+    final List<MarketOrder> buyOrders = new ArrayList<>();
+    for (BitfinexMarketOrder bitfinexBuyOrder : limitDepth(Arrays.asList(orderBook.bids), depth)) {
+      final MarketOrder buyOrder =
+          new MarketOrderImpl(
+              OrderType.BUY,
+              bitfinexBuyOrder.price,
+              bitfinexBuyOrder.amount);
+      buyOrders.add(buyOrder);
+    }
+
+    final List<MarketOrder> sellOrders = new ArrayList<>();
+    for (BitfinexMarketOrder bitfinexSellOrder : limitDepth(Arrays.asList(orderBook.asks), depth)) {
+      final MarketOrder sellOrder =
+          new MarketOrderImpl(
+              OrderType.SELL,
+              bitfinexSellOrder.price,
+              bitfinexSellOrder.amount);
+      sellOrders.add(sellOrder);
+    }
+
+    return new MarketOrderBookImpl(marketId, sellOrders, buyOrders);
+  }
+
+  // Bitfinex returns 50 orders a side unless told otherwise, so pass the depth on when given.
+  private static String createOrderBookApiMethod(String marketId, int depth) {
+    final String apiMethod = "book/" + marketId;
+    if (depth == FULL_DEPTH) {
+      return apiMethod;
+    }
+    return apiMethod + "?limit_bids=" + depth + "&limit_asks=" + depth;
+  }
+
   @Override
   public List<OpenOrder> getYourOpenOrders(String marketId)
       throws TradingApiException, ExchangeNetworkException {
@@ -238,10 +292,7 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
                 orderType,
                 bitfinexOpenOrder.price,
                 bitfinexOpenOrder.remainingAmount,
-                bitfinexOpenOrder.originalAmount,
-                bitfinexOpenOrder.price.multiply(
-                    bitfinexOpenOrder.originalAmount) // total - not provided by finex :-(
-                );
+                bitfinexOpenOrder.originalAmount); // total - not provided by finex :-(
 
         ordersToReturn.add(order);
       }
@@ -362,12 +413,14 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
   @Override
   public BigDecimal getLatestMarketPrice(String marketId)
       throws TradingApiException, ExchangeNetworkException {
+    final Ticker localTicker = getLocalTicker(marketId);
+    if (localTicker != null) {
+      return localTicker.getLast();
+    }
+
     try {
       final ExchangeHttpResponse response = sendPublicRequestToExchange("pubticker/" + marketId);
-      LOG.debug(() -> "Latest Market Price response: " + response);
-
-      final BitfinexTicker ticker = gson.fromJson(response.getPayload(), BitfinexTicker.class);
-      return ticker.lastPrice;
+      return adaptLatestMarketPrice(response);
 
     } catch (ExchangeNetworkException | TradingApiException e) {
       throw e;
@@ -378,6 +431,26 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
     }
   }
 
+  @Override
+  public CompletableFuture<BigDecimal> getLatestMarketPriceAsync(String marketId) {
+    final Ticker localTicker = getLocalTicker(marketId);
+    if (localTicker != null) {
+      return CompletableFuture.completedFuture(localTicker.getLast());
+    }
+
+    return adaptResponseAsync(
+        sendPublicRequestToExchangeAsync("pubticker/" + marketId),
+        this::adaptLatestMarketPrice,
+        UNEXPECTED_ERROR_MSG);
+  }
+
+  private BigDecimal adaptLatestMarketPrice(ExchangeHttpResponse response) {
+    LOG.debug(() -> "Latest Market Price response: " + response);
+
+    final BitfinexTicker ticker = gson.fromJson(response.getPayload(), BitfinexTicker.class);
+    return ticker.lastPrice;
+  }
+
   @Override
   public BalanceInfo getBalanceInfo() throws TradingApiException, ExchangeNetworkException {
     try {
@@ -421,43 +494,19 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
   @Override
   public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId)
       throws TradingApiException, ExchangeNetworkException {
-    try {
-      final ExchangeHttpResponse response =
-          sendAuthenticatedRequestToExchange("account_infos", null);
-      LOG.debug(() -> "Buy Fee response: " + response);
-
-      // Nightmare to adapt! Just take the top-level taker fees.
-      final BitfinexAccountInfos bitfinexAccountInfos =
-          gson.fromJson(response.getPayload(), BitfinexAccountInfos.class);
-      final BigDecimal fee = bitfinexAccountInfos.get(0).takerFees;
-
-      // adapt the % into BigDecimal format
-      return fee.divide(new BigDecimal("100"), 8, RoundingMode.HALF_UP);
-
-    } catch (ExchangeNetworkException | TradingApiException e) {
-      throw e;
-
-    } catch (Exception e) {
-      LOG.error(UNEXPECTED_ERROR_MSG, e);
-      throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
-    }
+    return getExchangeFee();
   }
 
   @Override
   public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId)
       throws TradingApiException, ExchangeNetworkException {
-    try {
-      final ExchangeHttpResponse response =
-          sendAuthenticatedRequestToExchange("account_infos", null);
-      LOG.debug(() -> "Sell Fee response: " + response);
-
-      // Nightmare to adapt! Just take the top-level taker fees.
-      final BitfinexAccountInfos bitfinexAccountInfos =
-          gson.fromJson(response.getPayload(), BitfinexAccountInfos.class);
-      final BigDecimal fee = bitfinexAccountInfos.get(0).takerFees;
+    return getExchangeFee();
+  }
 
-      // adapt the % into BigDecimal format
-      return fee.divide(new BigDecimal("100"), 8, RoundingMode.HALF_UP);
+  /* The same taker fee is used for buy and sell orders, so it's served from the fee cache. */
+  private BigDecimal getExchangeFee() throws TradingApiException, ExchangeNetworkException {
+    try {
+      return feeCache.get();
 
     } catch (ExchangeNetworkException | TradingApiException e) {
       throw e;
@@ -468,6 +517,21 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
     }
   }
 
+  /* Loads the fee for the fee cache. */
+  private BigDecimal fetchExchangeFee() throws TradingApiException, ExchangeNetworkException {
+    final ExchangeHttpResponse response =
+        sendAuthenticatedRequestToExchange("account_infos", null);
+    LOG.debug(() -> "Exchange Fee response: " + response);
+
+    // Nightmare to adapt! Just take the top-level taker fees.
+    final BitfinexAccountInfos bitfinexAccountInfos =
+        gson.fromJson(response.getPayload(), BitfinexAccountInfos.class);
+    final BigDecimal fee = bitfinexAccountInfos.get(0).takerFees;
+
+    // adapt the % into BigDecimal format
+    return fee.divide(new BigDecimal("100"), 8, RoundingMode.HALF_UP);
+  }
+
   @Override
   public String getImplName() {
     return "Bitfinex API v1";
@@ -475,6 +539,11 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
 
   @Override
   public Ticker getTicker(String marketId) throws TradingApiException, ExchangeNetworkException {
+    final Ticker localTicker = getLocalTicker(marketId);
+    if (localTicker != null) {
+      return localTicker;
+    }
+
     try {
       final ExchangeHttpResponse response = sendPublicRequestToExchange("pubticker/" + marketId);
       LOG.debug(() -> "Latest Market Price response: " + response);
@@ -897,6 +966,7 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
       throws ExchangeNetworkException, TradingApiException {
     try {
       final URL url = new URL(PUBLIC_API_BASE_URL + apiMethod);
+      acquireRateLimitPermit(ApiCallType.PUBLIC);
       return makeNetworkRequest(url, "GET", null, createHeaderParamMap());
 
     } catch (MalformedURLException e) {
@@ -906,6 +976,24 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
     }
   }
 
+  private CompletableFuture<ExchangeHttpResponse> sendPublicRequestToExchangeAsync(
+      String apiMethod) {
+    try {
+      final URL url = new URL(PUBLIC_API_BASE_URL + apiMethod);
+      return sendRateLimitedAsync(
+          ApiCallType.PUBLIC,
+          getAsyncExecutor(),
+          () ->
+              sendNetworkRequestAsync(
+                  url, "GET", null, createHeaderParamMap(), getAsyncExecutor()));
+
+    } catch (MalformedURLException e) {
+      final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
+      LOG.error(errorMsg, e);
+      return CompletableFuture.failedFuture(new TradingApiException(errorMsg, e));
+    }
+  }
+
   /*
    * Makes an authenticated API call to the Bitfinex exchange.
    *
@@ -942,54 +1030,59 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
       throw new IllegalStateException(errorMsg);
     }
 
-    try {
-      if (params == null) {
-        // create empty map for non param API calls, e.g. "balances"
-        params = createRequestParamMap();
-      }
+    acquireRateLimitPermit(
+        TRADING_API_METHODS.contains(apiMethod) ? ApiCallType.TRADING : ApiCallType.PRIVATE);
 
-      // nonce is required by Bitfinex in every request
-      params.put("nonce", Long.toString(nonce));
-      nonce++; // increment ready for next call.
+    return sendInNonceOrder(nonceGenerator, nonce -> sendSignedRequest(apiMethod, params, nonce));
+  }
 
-      // must include the method in request param too
-      params.put("request", "/" + BITFINEX_API_VERSION + "/" + apiMethod);
+  /*
+   * Builds the request, signs it with the nonce and sends it. Called by sendInNonceOrder.
+   */
+  private ExchangeHttpResponse sendSignedRequest(
+      String apiMethod, Map<String, Object> params, long nonce)
+      throws MalformedURLException, ExchangeNetworkException, TradingApiException {
+    if (params == null) {
+      // create empty map for non param API calls, e.g. "balances"
+      params = createRequestParamMap();
+    }
 
-      // JSON-ify the param dictionary
-      final String paramsInJson = gson.toJson(params);
+    // nonce is required by Bitfinex in every request
+    params.put("nonce", Long.toString(nonce));
 
-      // Need to base64 encode payload as per API
-      final String base64payload =
-          DatatypeConverter.printBase64Binary(paramsInJson.getBytes(StandardCharsets.UTF_8));
+    // must include the method in request param too
+    params.put("request", "/" + BITFINEX_API_VERSION + "/" + apiMethod);
 
-      // Request headers required by Exchange
-      final Map<String, String> requestHeaders = createHeaderParamMap();
-      requestHeaders.put("X-BFX-APIKEY", key);
-      requestHeaders.put("X-BFX-PAYLOAD", base64payload);
+    // JSON-ify the param dictionary
+    final String paramsInJson = gson.toJson(params);
 
-      // Add the signature
-      mac.reset(); // force reset
-      mac.update(base64payload.getBytes(StandardCharsets.UTF_8));
+    // Need to base64 encode payload as per API
+    final String base64payload =
+        DatatypeConverter.printBase64Binary(paramsInJson.getBytes(StandardCharsets.UTF_8));
 
-      /*
-       * signature = HMAC-SHA384(payload, api-secret) as hexadecimal - MUST be in LOWERCASE else
-       * signature fails. See:
-       * http://bitcoin.stackexchange.com/questions/25835/bitfinex-api-call-returns-400-bad-request
-       */
-      final String signature = toHex(mac.doFinal()).toLowerCase();
-      requestHeaders.put("X-BFX-SIGNATURE", signature);
+    // Request headers required by Exchange
+    final Map<String, String> requestHeaders = createHeaderParamMap();
+    requestHeaders.put("X-BFX-APIKEY", key);
+    requestHeaders.put("X-BFX-PAYLOAD", base64payload);
 
-      // payload is JSON for this exchange
-      requestHeaders.put("Content-Type", "application/json");
+    // Add the signature
+    final Mac mac = threadLocalMac.get();
+    mac.reset(); // force reset
+    mac.update(base64payload.getBytes(StandardCharsets.UTF_8));
 
-      final URL url = new URL(AUTHENTICATED_API_URL + apiMethod);
-      return makeNetworkRequest(url, "POST", paramsInJson, requestHeaders);
+    /*
+     * signature = HMAC-SHA384(payload, api-secret) as hexadecimal - MUST be in LOWERCASE else
+     * signature fails. See:
+     * http://bitcoin.stackexchange.com/questions/25835/bitfinex-api-call-returns-400-bad-request
+     */
+    final String signature = toHex(mac.doFinal()).toLowerCase();
+    requestHeaders.put("X-BFX-SIGNATURE", signature);
 
-    } catch (MalformedURLException e) {
-      final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
-      LOG.error(errorMsg, e);
-      throw new TradingApiException(errorMsg, e);
-    }
+    // payload is JSON for this exchange
+    requestHeaders.put("Content-Type", "application/json");
+
+    final URL url = new URL(AUTHENTICATED_API_URL + apiMethod);
+    return makeNetworkRequest(url, "POST", paramsInJson, requestHeaders);
   }
 
   private String toHex(byte[] byteArrayToConvert) {
@@ -1010,8 +1103,7 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
     try {
       final SecretKeySpec keyspec =
           new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA384");
-      mac = Mac.getInstance("HmacSHA384");
-      mac.init(keyspec);
+      threadLocalMac = createThreadLocalMac(keyspec);
       initializedMacAuthentication = true;
     } catch (NoSuchAlgorithmException e) {
       final String errorMsg = "Failed to setup MAC security. HINT: Is HMAC-SHA384 installed?";
@@ -1034,6 +1126,21 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
     secret = getAuthenticationConfigItem(authenticationConfig, SECRET_PROPERTY_NAME);
   }
 
+  /*
+   * Other config is optional for Bitfinex; it's only used to enable the market data feed and to set
+   * the fee cache TTL.
+   */
+  private void setOtherConfig(ExchangeConfig exchangeConfig) {
+    final OtherConfig otherConfig = exchangeConfig.getOtherConfig();
+    if (otherConfig != null && isMarketDataFeedEnabled(otherConfig)) {
+      setMarketDataFeed(new BitfinexMarketDataFeed());
+    }
+    feeCache =
+        new ExchangeFeeCache<>(
+            this::fetchExchangeFee, getFeeCacheTtl(otherConfig), getAsyncExecutor());
+    nonceGenerator = createNonceGenerator(otherConfig, "bitfinex");
+  }
+
   // --------------------------------------------------------------------------
   //  Util methods
   // --------------------------------------------------------------------------
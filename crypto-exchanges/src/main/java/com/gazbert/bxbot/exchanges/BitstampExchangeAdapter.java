@@ -26,14 +26,14 @@ package com.gazbert.crypto.exchanges;
 import com.gazbert.crypto.exchange.api.AuthenticationConfig;
 import com.gazbert.crypto.exchange.api.ExchangeAdapter;
 import com.gazbert.crypto.exchange.api.ExchangeConfig;
+import com.gazbert.crypto.exchange.api.OtherConfig;
 import com.gazbert.crypto.exchanges.trading.api.impl.BalanceInfoImpl;
-import com.gazbert.crypto.exchanges.trading.api.impl.MarketOrderBookImpl;
-import com.gazbert.crypto.exchanges.trading.api.impl.MarketOrderImpl;
+import com.gazbert.crypto.exchanges.trading.api.impl.CompactMarketOrderBook;
+import com.gazbert.crypto.exchanges.trading.api.impl.CompactMarketOrders;
 import com.gazbert.crypto.exchanges.trading.api.impl.OpenOrderImpl;
 import com.gazbert.crypto.exchanges.trading.api.impl.TickerImpl;
 import com.gazbert.crypto.trading.api.BalanceInfo;
 import com.gazbert.crypto.trading.api.ExchangeNetworkException;
-import com.gazbert.crypto.trading.api.MarketOrder;
 import com.gazbert.crypto.trading.api.MarketOrderBook;
 import com.gazbert.crypto.trading.api.OpenOrder;
 import com.gazbert.crypto.trading.api.OrderType;
@@ -48,7 +48,8 @@ import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParseException;
 import com.google.gson.annotations.SerializedName;
-import java.lang.reflect.Field;
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -67,6 +68,8 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import org.apache.logging.log4j.LogManager;
@@ -118,6 +121,21 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
   private static final String BALANCE = "balance";
   private static final String PRICE = "price";
 
+  private static final BigDecimal ONE_HUNDRED = new BigDecimal("100");
+
+  /* The fee field in the balance response for each marketId. */
+  private static final Map<String, Function<BitstampBalance, BigDecimal>> FEE_FIELDS =
+      Map.of(
+          "btceur", balances -> balances.btceurFee,
+          "btcusd", balances -> balances.btcusdFee,
+          "eurusd", balances -> balances.eurusdFee,
+          "ltcbtc", balances -> balances.ltcbtcFee,
+          "ltceur", balances -> balances.ltceurFee,
+          "ltcusd", balances -> balances.ltcusdFee,
+          "xrpbtc", balances -> balances.xrpbtcFee,
+          "xrpeur", balances -> balances.xrpeurFee,
+          "xrpusd", balances -> balances.xrpusdFee);
+
   private static final String CLIENT_ID_PROPERTY_NAME = "client-id";
   private static final String KEY_PROPERTY_NAME = "key";
   private static final String SECRET_PROPERTY_NAME = "secret";
@@ -126,19 +144,21 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
   private String key = "";
   private String secret = "";
 
-  private Mac mac;
-  private long nonce = 0;
+  private ThreadLocal<Mac> threadLocalMac;
+  private NonceGenerator nonceGenerator;
   private boolean initializedMacAuthentication = false;
 
   private Gson gson;
 
+  private ExchangeFeeCache<Map<String, BigDecimal>> feeCache;
+
   @Override
   public void init(ExchangeConfig config) {
     LOG.info(() -> "About to initialise Bitstamp ExchangeConfig: " + config);
     setAuthenticationConfig(config);
     setNetworkConfig(config);
+    setOtherConfig(config);
 
-    nonce = System.currentTimeMillis() / 1000;
     initSecureMessageLayer();
     initGson();
   }
@@ -151,38 +171,16 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
   @Override
   public MarketOrderBook getMarketOrders(String marketId)
       throws TradingApiException, ExchangeNetworkException {
-    try {
-      final ExchangeHttpResponse response = sendPublicRequestToExchange("order_book/" + marketId);
-      LOG.debug(() -> "Market Orders response: " + response);
-
-      final BitstampOrderBook bitstampOrderBook =
-          gson.fromJson(response.getPayload(), BitstampOrderBook.class);
-
-      final List<MarketOrder> buyOrders = new ArrayList<>();
-      final List<List<BigDecimal>> bitstampBuyOrders = bitstampOrderBook.bids;
-      for (final List<BigDecimal> order : bitstampBuyOrders) {
-        final MarketOrder buyOrder =
-            new MarketOrderImpl(
-                OrderType.BUY,
-                order.get(0), // price
-                order.get(1), // quantity
-                order.get(0).multiply(order.get(1)));
-        buyOrders.add(buyOrder);
-      }
-
-      final List<MarketOrder> sellOrders = new ArrayList<>();
-      final List<List<BigDecimal>> bitstampSellOrders = bitstampOrderBook.asks;
-      for (final List<BigDecimal> order : bitstampSellOrders) {
-        final MarketOrder sellOrder =
-            new MarketOrderImpl(
-                OrderType.SELL,
-                order.get(0), // price
-                order.get(1), // quantity
-                order.get(0).multiply(order.get(1)));
-        sellOrders.add(sellOrder);
-      }
+    return getMarketOrders(marketId, FULL_DEPTH);
+  }
 
-      return new MarketOrderBookImpl(marketId, sellOrders, buyOrders);
+  @Override
+  public MarketOrderBook getMarketOrders(String marketId, int depth)
+      throws TradingApiException, ExchangeNetworkException {
+    assertValidDepth(depth);
+    try {
+      return streamPublicRequestFromExchange(
+          "order_book/" + marketId, payload -> readMarketOrders(marketId, payload, depth));
 
     } catch (ExchangeNetworkException | TradingApiException e) {
       throw e;
@@ -193,6 +191,54 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
     }
   }
 
+  @Override
+  public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId) {
+    return getMarketOrdersAsync(marketId, FULL_DEPTH);
+  }
+
+  @Override
+  public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId, int depth) {
+    assertValidDepth(depth);
+    return handleUnexpectedErrorsAsync(
+        streamPublicRequestFromExchangeAsync(
+            "order_book/" + marketId, payload -> readMarketOrders(marketId, payload, depth)),
+        UNEXPECTED_ERROR_MSG);
+  }
+
+  /*
+   * Streams the order book into market orders as it is read. JSON looks like:
+   *
+   * {
+   *   "timestamp": "1400943488",
+   *   "bids": [["521.86", "0.00017398"], ["519.58", "0.25100000"], ["0.01", "38820.00000000"]],
+   *   "asks": [["521.88", "10.00000000"], ["522.00", "310.24504478"], ["522.13", "0.02852084"]]
+   * }
+   *
+   * Each is a list of open orders and each order is represented as a list of price and amount.
+   */
+  private static MarketOrderBook readMarketOrders(String marketId, JsonReader payload, int depth)
+      throws IOException {
+    CompactMarketOrders buyOrders = createMarketOrders(OrderType.BUY);
+    CompactMarketOrders sellOrders = createMarketOrders(OrderType.SELL);
+
+    payload.beginObject();
+    while (payload.hasNext()) {
+      switch (payload.nextName()) {
+        case "bids":
+          buyOrders = readMarketOrders(payload, OrderType.BUY, depth);
+          break;
+        case "asks":
+          sellOrders = readMarketOrders(payload, OrderType.SELL, depth);
+          break;
+        default:
+          payload.skipValue();
+      }
+    }
+    payload.endObject();
+
+    return new CompactMarketOrderBook(marketId, sellOrders, buyOrders);
+  }
+
   @Override
   public List<OpenOrder> getYourOpenOrders(String marketId)
       throws TradingApiException, ExchangeNetworkException {
@@ -225,9 +271,7 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
                 orderType,
                 openOrder.price,
                 openOrder.amount,
-                null, // orig_quantity - not provided by stamp :-(
-                openOrder.price.multiply(openOrder.amount) // total - not provided by stamp :-(
-                );
+                null); // orig_quantity and total - not provided by stamp :-(
         ordersToReturn.add(order);
       }
       return ordersToReturn;
@@ -334,11 +378,7 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
       throws TradingApiException, ExchangeNetworkException {
     try {
       final ExchangeHttpResponse response = sendPublicRequestToExchange("ticker/" + marketId);
-      LOG.debug(() -> "Latest Market Price response: " + response);
-
-      final BitstampTicker bitstampTicker =
-          gson.fromJson(response.getPayload(), BitstampTicker.class);
-      return bitstampTicker.last;
+      return adaptLatestMarketPrice(response);
 
     } catch (ExchangeNetworkException | TradingApiException e) {
       throw e;
@@ -349,6 +389,22 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
     }
   }
 
+  @Override
+  public CompletableFuture<BigDecimal> getLatestMarketPriceAsync(String marketId) {
+    return adaptResponseAsync(
+        sendPublicRequestToExchangeAsync("ticker/" + marketId),
+        this::adaptLatestMarketPrice,
+        UNEXPECTED_ERROR_MSG);
+  }
+
+  private BigDecimal adaptLatestMarketPrice(ExchangeHttpResponse response) {
+    LOG.debug(() -> "Latest Market Price response: " + response);
+
+    final BitstampTicker bitstampTicker =
+        gson.fromJson(response.getPayload(), BitstampTicker.class);
+    return bitstampTicker.last;
+  }
+
   @Override
   public BalanceInfo getBalanceInfo() throws TradingApiException, ExchangeNetworkException {
     try {
@@ -371,6 +427,9 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
       balancesOnOrder.put("LTC", balances.ltcReserved);
       balancesOnOrder.put("XRP", balances.xrpReserved);
 
+      // the fees come back with the balances, so keep the fee cache fresh for free
+      feeCache.update(extractExchangeFees(balances));
+
       return new BalanceInfoImpl(balancesAvailable, balancesOnOrder);
 
     } catch (ExchangeNetworkException | TradingApiException e) {
@@ -385,31 +444,35 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
   @Override
   public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId)
       throws TradingApiException, ExchangeNetworkException {
-    try {
-      final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange(BALANCE, null);
-      LOG.debug(() -> "Buy Fee response: " + response);
+    return getExchangeFee(marketId);
+  }
 
-      final BitstampBalance balances = gson.fromJson(response.getPayload(), BitstampBalance.class);
+  @Override
+  public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId)
+      throws TradingApiException, ExchangeNetworkException {
+    return getExchangeFee(marketId);
+  }
 
-      // Ouch!
-      final Class<?> clazz = balances.getClass();
-      final Field[] fields = clazz.getDeclaredFields();
-      for (final Field field : fields) {
-        if (field.getName().startsWith(marketId)) {
-          final BigDecimal fee = (BigDecimal) field.get(balances);
-          // adapt the % into BigDecimal format
-          return fee.divide(new BigDecimal("100"), 8, RoundingMode.HALF_UP);
-        }
+  /*
+   * Bitstamp charges the same fee for buy and sell orders. The fees come back with the balances, so
+   * they're served from the fee cache rather than fetched for every order.
+   */
+  private BigDecimal getExchangeFee(String marketId)
+      throws TradingApiException, ExchangeNetworkException {
+    try {
+      final Map<String, BigDecimal> fees = feeCache.get();
+      final BigDecimal fee = fees.get(marketId);
+      if (fee == null) {
+        final String errorMsg =
+            "Unable to map marketId to fees returned from the Exchange. "
+                + "MarketId: "
+                + marketId
+                + " Fees: "
+                + fees;
+        LOG.error(errorMsg);
+        throw new IllegalArgumentException(errorMsg);
       }
-
-      final String errorMsg =
-          "Unable to map marketId to currency balances returned from the Exchange. "
-              + "MarketId: "
-              + marketId
-              + " BitstampBalances: "
-              + balances;
-      LOG.error(errorMsg);
-      throw new IllegalArgumentException(errorMsg);
+      return fee;
 
     } catch (ExchangeNetworkException | TradingApiException e) {
       throw e;
@@ -420,42 +483,25 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
     }
   }
 
-  @Override
-  public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId)
+  /* Loads the fees for the fee cache. */
+  private Map<String, BigDecimal> fetchExchangeFees()
       throws TradingApiException, ExchangeNetworkException {
-    try {
-      final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange(BALANCE, null);
-      LOG.debug(() -> "Sell Fee response: " + response);
-
-      final BitstampBalance balances = gson.fromJson(response.getPayload(), BitstampBalance.class);
+    final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange(BALANCE, null);
+    LOG.debug(() -> "Exchange Fees response: " + response);
+    return extractExchangeFees(gson.fromJson(response.getPayload(), BitstampBalance.class));
+  }
 
-      // Ouch!
-      final Class<?> clazz = balances.getClass();
-      final Field[] fields = clazz.getDeclaredFields();
-      for (final Field field : fields) {
-        if (field.getName().startsWith(marketId) && field.getName().endsWith("Fee")) {
-          final BigDecimal fee = (BigDecimal) field.get(balances);
-          // adapt the % into BigDecimal format
-          return fee.divide(new BigDecimal("100"), 8, RoundingMode.HALF_UP);
-        }
+  /* Maps each marketId to its fee, adapting the % into BigDecimal format. */
+  private static Map<String, BigDecimal> extractExchangeFees(BitstampBalance balances) {
+    final Map<String, BigDecimal> fees = new HashMap<>();
+    for (final Map.Entry<String, Function<BitstampBalance, BigDecimal>> feeField :
+        FEE_FIELDS.entrySet()) {
+      final BigDecimal fee = feeField.getValue().apply(balances);
+      if (fee != null) {
+        fees.put(feeField.getKey(), fee.divide(ONE_HUNDRED, 8, RoundingMode.HALF_UP));
       }
-
-      final String errorMsg =
-          "Unable to map marketId to currency balances returned from the Exchange. "
-              + "MarketId: "
-              + marketId
-              + " BitstampBalances: "
-              + balances;
-      LOG.error(errorMsg);
-      throw new IllegalArgumentException(errorMsg);
-
-    } catch (ExchangeNetworkException | TradingApiException e) {
-      throw e;
-
-    } catch (Exception e) {
-      LOG.error(UNEXPECTED_ERROR_MSG, e);
-      throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
     }
+    return fees;
   }
 
   @Override
@@ -607,37 +653,6 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
     }
   }
 
-  /**
-   * GSON class for holding Bitstamp Order Book response from order_book API call.
-   *
-   * <p>JSON looks like:
-   *
-   * <pre>
-   * {
-   *   "timestamp": "1400943488",
-   *   "bids": [["521.86", "0.00017398"], ["519.58", "0.25100000"], ["0.01", "38820.00000000"]],
-   *   "asks": [["521.88", "10.00000000"], ["522.00", "310.24504478"], ["522.13", "0.02852084"]]
-   * }
-   * </pre>
-   *
-   * <p>Each is a list of open orders and each order is represented as a list of price and amount.
-   */
-  private static class BitstampOrderBook {
-
-    long timestamp; // unix timestamp
-    List<List<BigDecimal>> bids;
-    List<List<BigDecimal>> asks;
-
-    @Override
-    public String toString() {
-      return MoreObjects.toStringHelper(this)
-          .add("timestamp", timestamp)
-          .add("bids", bids)
-          .add("asks", asks)
-          .toString();
-    }
-  }
-
   /** GSON class for a Bitstamp ticker response. */
   private static class BitstampTicker {
 
@@ -752,6 +767,7 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
       throws ExchangeNetworkException, TradingApiException {
     try {
       final URL url = new URL(API_BASE_URL + apiMethod);
+      acquireRateLimitPermit(ApiCallType.PUBLIC);
       return makeNetworkRequest(url, "GET", null, createHeaderParamMap());
 
     } catch (MalformedURLException e) {
@@ -761,6 +777,60 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
     }
   }
 
+  private CompletableFuture<ExchangeHttpResponse> sendPublicRequestToExchangeAsync(
+      String apiMethod) {
+    try {
+      final URL url = new URL(API_BASE_URL + apiMethod);
+      return sendRateLimitedAsync(
+          ApiCallType.PUBLIC,
+          getAsyncExecutor(),
+          () ->
+              sendNetworkRequestAsync(
+                  url, "GET", null, createHeaderParamMap(), getAsyncExecutor()));
+
+    } catch (MalformedURLException e) {
+      final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
+      LOG.error(errorMsg, e);
+      return CompletableFuture.failedFuture(new TradingApiException(errorMsg, e));
+    }
+  }
+
+  private <T> T streamPublicRequestFromExchange(
+      String apiMethod, ExchangeResponseReader<T> responseReader)
+      throws ExchangeNetworkException, TradingApiException {
+    try {
+      final URL url = new URL(API_BASE_URL + apiMethod);
+      acquireRateLimitPermit(ApiCallType.PUBLIC);
+      return sendNetworkRequest(url, "GET", null, createHeaderParamMap(), responseReader);
+
+    } catch (MalformedURLException e) {
+      final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
+      LOG.error(errorMsg, e);
+      throw new TradingApiException(errorMsg, e);
+    }
+  }
+
+  private <T> CompletableFuture<T> streamPublicRequestFromExchangeAsync(
+      String apiMethod, ExchangeResponseReader<T> responseReader) {
+    try {
+      final URL url = new URL(API_BASE_URL + apiMethod);
+      return sendRateLimitedAsync(
+          ApiCallType.PUBLIC,
+          getAsyncExecutor(),
+          () ->
+              sendNetworkRequestAsync(
+                  url, "GET", null, createHeaderParamMap(), responseReader, getAsyncExecutor()));
+
+    } catch (MalformedURLException e) {
+      final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
+      LOG.error(errorMsg, e);
+      return CompletableFuture.failedFuture(new TradingApiException(errorMsg, e));
+    }
+  }
+
+  /*
+   * Makes an authenticated API call to the Bitstamp exchange.
+   */
   private ExchangeHttpResponse sendAuthenticatedRequestToExchange(
       String apiMethod, Map<String, String> params)
       throws ExchangeNetworkException, TradingApiException {
@@ -771,60 +841,69 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
       throw new IllegalStateException(errorMsg);
     }
 
-    try {
-      // Setup common params for the API call
-      if (params == null) {
-        params = createRequestParamMap();
-      }
+    final boolean isTradingApiMethod =
+        apiMethod.startsWith("buy/")
+            || apiMethod.startsWith("sell/")
+            || "cancel_order".equals(apiMethod);
+    acquireRateLimitPermit(isTradingApiMethod ? ApiCallType.TRADING : ApiCallType.PRIVATE);
 
-      params.put("key", key);
-      params.put("nonce", Long.toString(nonce));
-
-      // Create MAC message for signature
-      // message = nonce + client_id + api_key
-      mac.reset(); // force reset
-      mac.update(String.valueOf(nonce).getBytes(StandardCharsets.UTF_8));
-      mac.update(clientId.getBytes(StandardCharsets.UTF_8));
-      mac.update(key.getBytes(StandardCharsets.UTF_8));
-
-      /*
-       * Signature is a HMAC-SHA256 encoded message containing: nonce, client ID and API key.
-       * The HMAC-SHA256 code must be generated using a secret key that was generated with your
-       * API key.
-       * This code must be converted to it's hexadecimal representation (64 uppercase characters).
-       *
-       * signature = hmac.new(API_SECRET, msg=message, digestmod=hashlib.sha256).hexdigest().upper()
-       */
-      final String signature = toHex(mac.doFinal()).toUpperCase();
-      params.put("signature", signature);
-
-      // increment ready for next call...
-      nonce++;
-
-      // Build the URL with query param args in it
-      final StringBuilder postData = new StringBuilder();
-      for (final Map.Entry<String, String> param : params.entrySet()) {
-        if (postData.length() > 0) {
-          postData.append("&");
-        }
-        postData.append(param.getKey());
-        postData.append("=");
-        postData.append(URLEncoder.encode(param.getValue(), StandardCharsets.UTF_8));
-      }
+    return sendInNonceOrder(nonceGenerator, nonce -> sendSignedRequest(apiMethod, params, nonce));
+  }
 
-      // Request headers required by Exchange
-      final Map<String, String> requestHeaders = createHeaderParamMap();
-      requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
+  /*
+   * Builds the request, signs it with the nonce and sends it. Called by sendInNonceOrder.
+   */
+  private ExchangeHttpResponse sendSignedRequest(
+      String apiMethod, Map<String, String> params, long nonce)
+      throws MalformedURLException, ExchangeNetworkException, TradingApiException {
+    // Setup common params for the API call
+    if (params == null) {
+      params = createRequestParamMap();
+    }
+    params.put("key", key);
+    params.put("nonce", Long.toString(nonce));
 
-      // MUST have the trailing slash else exchange barfs...
-      final URL url = new URL(API_BASE_URL + apiMethod + "/");
-      return makeNetworkRequest(url, "POST", postData.toString(), requestHeaders);
+    params.put("signature", createSignature(nonce));
 
-    } catch (MalformedURLException e) {
-      final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
-      LOG.error(errorMsg, e);
-      throw new TradingApiException(errorMsg, e);
+    // Build the URL with query param args in it
+    final StringBuilder postData = new StringBuilder();
+    for (final Map.Entry<String, String> param : params.entrySet()) {
+      if (postData.length() > 0) {
+        postData.append("&");
+      }
+      postData.append(param.getKey());
+      postData.append("=");
+      postData.append(URLEncoder.encode(param.getValue(), StandardCharsets.UTF_8));
     }
+
+    // Request headers required by Exchange
+    final Map<String, String> requestHeaders = createHeaderParamMap();
+    requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
+
+    // MUST have the trailing slash else exchange barfs...
+    final URL url = new URL(API_BASE_URL + apiMethod + "/");
+    return makeNetworkRequest(url, "POST", postData.toString(), requestHeaders);
+  }
+
+  /*
+   * Signature is a HMAC-SHA256 encoded message containing: nonce, client ID and API key.
+   * The HMAC-SHA256 code must be generated using a secret key that was generated with your
+   * API key.
+   * This code must be converted to it's hexadecimal representation (64 uppercase characters).
+   *
+   * signature = hmac.new(API_SECRET, msg=message, digestmod=hashlib.sha256).hexdigest().upper()
+   *
+   * Package-private for the benchmarks.
+   */
+  String createSignature(long nonce) {
+    // Create MAC message for signature
+    // message = nonce + client_id + api_key
+    final Mac mac = threadLocalMac.get();
+    mac.reset(); // force reset
+    mac.update(String.valueOf(nonce).getBytes(StandardCharsets.UTF_8));
+    mac.update(clientId.getBytes(StandardCharsets.UTF_8));
+    mac.update(key.getBytes(StandardCharsets.UTF_8));
+    return toHex(mac.doFinal()).toUpperCase();
   }
 
   private String toHex(byte[] byteArrayToConvert) {
@@ -845,8 +924,7 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
     try {
       final SecretKeySpec keyspec =
           new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
-      mac = Mac.getInstance("HmacSHA256");
-      mac.init(keyspec);
+      threadLocalMac = createThreadLocalMac(keyspec);
       initializedMacAuthentication = true;
     } catch (NoSuchAlgorithmException e) {
       final String errorMsg = "Failed to setup MAC security. HINT: Is HMAC-SHA256 installed?";
@@ -870,6 +948,15 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
     secret = getAuthenticationConfigItem(authenticationConfig, SECRET_PROPERTY_NAME);
   }
 
+  /* Other config is optional for Bitstamp; it's only used for the fee cache TTL and nonce file. */
+  private void setOtherConfig(ExchangeConfig exchangeConfig) {
+    final OtherConfig otherConfig = exchangeConfig.getOtherConfig();
+    feeCache =
+        new ExchangeFeeCache<>(
+            this::fetchExchangeFees, getFeeCacheTtl(otherConfig), getAsyncExecutor());
+    nonceGenerator = createNonceGenerator(otherConfig, "bitstamp");
+  }
+
   // --------------------------------------------------------------------------
   //  Util methods
   // --------------------------------------------------------------------------
@@ -0,0 +1,178 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges;
+
+import com.gazbert.crypto.trading.api.ExchangeNetworkException;
+import com.gazbert.crypto.trading.api.TradingApiException;
+import com.google.common.base.MoreObjects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Caches the fees an Exchange Adapter fetches from the exchange.
+ *
+ * <p>Fees change rarely, so once loaded they are served from memory. When they are older than the
+ * TTL, the stale fees are still returned and a refresh is started on the executor; a fee lookup
+ * only waits on the exchange the first time it is made. If a refresh fails, the stale fees are kept
+ * and the next lookup tries again.
+ *
+ * <p>A TTL of 0 disables caching; every lookup then loads the fees from the exchange.
+ *
+ * <p>This class is thread safe.
+ *
+ * @param <T> the type of the fees loaded from the exchange.
+ * @author gazbert
+ * @since 1.2
+ */
+final class ExchangeFeeCache<T> {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  /**
+   * Loads the fees from the exchange.
+   *
+   * @param <T> the type of the fees loaded from the exchange.
+   */
+  @FunctionalInterface
+  interface FeeLoader<T> {
+    T load() throws ExchangeNetworkException, TradingApiException;
+  }
+
+  private final FeeLoader<T> feeLoader;
+  private final long ttlNanos;
+  private final Executor refreshExecutor;
+  private final LongSupplier nanoClock;
+  private final AtomicBoolean refreshing = new AtomicBoolean();
+
+  private volatile CachedFees<T> cachedFees;
+
+  /**
+   * Creates a new fee cache.
+   *
+   * @param feeLoader loads the fees from the exchange.
+   * @param ttlSeconds the time in seconds the fees are served before they are refreshed.
+   * @param refreshExecutor the executor to refresh stale fees on.
+   */
+  ExchangeFeeCache(FeeLoader<T> feeLoader, long ttlSeconds, Executor refreshExecutor) {
+    this(feeLoader, ttlSeconds, refreshExecutor, System::nanoTime);
+  }
+
+  ExchangeFeeCache(
+      FeeLoader<T> feeLoader, long ttlSeconds, Executor refreshExecutor, LongSupplier nanoClock) {
+    if (ttlSeconds < 0) {
+      throw new IllegalArgumentException("Fee cache TTL must be >= 0 but was " + ttlSeconds);
+    }
+    this.feeLoader = feeLoader;
+    this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    this.refreshExecutor = refreshExecutor;
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * Returns the fees.
+   *
+   * @return the cached fees if there are any, else the fees loaded from the exchange.
+   * @throws ExchangeNetworkException if the fees are not cached and a network error occurred
+   *     loading them.
+   * @throws TradingApiException if the fees are not cached and loading them failed.
+   */
+  T get() throws ExchangeNetworkException, TradingApiException {
+    if (ttlNanos == 0) {
+      return feeLoader.load();
+    }
+
+    final CachedFees<T> fees = cachedFees;
+    if (fees == null) {
+      return loadAndCache();
+    }
+    if (nanoClock.getAsLong() - fees.loadedAtNanos >= ttlNanos) {
+      refreshInBackground();
+    }
+    return fees.value;
+  }
+
+  /**
+   * Replaces the cached fees with fees the adapter received in another API call response, e.g.
+   * balances that include the fees.
+   *
+   * @param fees the latest fees.
+   */
+  void update(T fees) {
+    if (ttlNanos > 0) {
+      cachedFees = new CachedFees<>(fees, nanoClock.getAsLong());
+    }
+  }
+
+  private T loadAndCache() throws ExchangeNetworkException, TradingApiException {
+    final T fees = feeLoader.load();
+    update(fees);
+    return fees;
+  }
+
+  private void refreshInBackground() {
+    if (!refreshing.compareAndSet(false, true)) {
+      return; // already on it
+    }
+    try {
+      refreshExecutor.execute(
+          () -> {
+            try {
+              loadAndCache();
+              LOG.debug(() -> "Refreshed exchange fees: " + cachedFees.value);
+            } catch (Exception e) {
+              LOG.warn("Failed to refresh exchange fees. Keeping the stale fees for now.", e);
+            } finally {
+              refreshing.set(false);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      refreshing.set(false);
+      LOG.warn("Failed to schedule exchange fee refresh. Keeping the stale fees for now.", e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("ttlSeconds", TimeUnit.NANOSECONDS.toSeconds(ttlNanos))
+        .add("cachedFees", cachedFees == null ? null : cachedFees.value)
+        .toString();
+  }
+
+  /** Fees and when they were loaded. */
+  private static final class CachedFees<T> {
+    private final T value;
+    private final long loadedAtNanos;
+
+    private CachedFees(T value, long loadedAtNanos) {
+      this.value = value;
+      this.loadedAtNanos = loadedAtNanos;
+    }
+  }
+}
@@ -27,6 +27,7 @@ import com.gazbert.crypto.exchange.api.AuthenticationConfig;
 import com.gazbert.crypto.exchange.api.ExchangeAdapter;
 import com.gazbert.crypto.exchange.api.ExchangeConfig;
 import com.gazbert.crypto.exchange.api.OtherConfig;
+import com.gazbert.crypto.exchanges.marketdata.GdaxMarketDataFeed;
 import com.gazbert.crypto.exchanges.trading.api.impl.BalanceInfoImpl;
 import com.gazbert.crypto.exchanges.trading.api.impl.MarketOrderBookImpl;
 import com.gazbert.crypto.exchanges.trading.api.impl.MarketOrderImpl;
@@ -62,6 +63,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import javax.xml.bind.DatatypeConverter;
@@ -141,7 +143,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
   private String key = "";
   private String secret = "";
 
-  private Mac mac;
+  private ThreadLocal<Mac> threadLocalMac;
   private boolean initializedMacAuthentication = false;
 
   private Gson gson;
@@ -307,9 +309,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
                   openOrder.price,
                   openOrder.size.subtract(
                       openOrder.filledSize), // quantity remaining - not provided by GDAX
-                  openOrder.size, // orig quantity
-                  openOrder.price.multiply(openOrder.size) // total - not provided by GDAX
-                  );
+                  openOrder.size); // orig quantity - total not provided by GDAX
 
           ordersToReturn.add(order);
         }
@@ -333,48 +333,25 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
   @Override
   public MarketOrderBook getMarketOrders(String marketId)
       throws TradingApiException, ExchangeNetworkException {
+    return getMarketOrders(marketId, FULL_DEPTH);
+  }
+
+  @Override
+  public MarketOrderBook getMarketOrders(String marketId, int depth)
+      throws TradingApiException, ExchangeNetworkException {
+    assertValidDepth(depth);
+    final MarketOrderBook localMarketOrders = getLocalMarketOrders(marketId, depth);
+    if (localMarketOrders != null) {
+      return localMarketOrders;
+    }
+
     try {
       final Map<String, String> params = createRequestParamMap();
-      params.put("level", "2"); //  "2" = Top 50 bids and asks (aggregated)
+      params.put("level", orderBookLevel(depth));
 
       final ExchangeHttpResponse response =
           sendPublicRequestToExchange(PRODUCTS + marketId + "/book", params);
-
-      LOG.debug(() -> "Market Orders response: " + response);
-
-      if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
-        final GdaxBookWrapper orderBook =
-            gson.fromJson(response.getPayload(), GdaxBookWrapper.class);
-
-        final List<MarketOrder> buyOrders = new ArrayList<>();
-        for (GdaxMarketOrder gdaxBuyOrder : orderBook.bids) {
-          final MarketOrder buyOrder =
-              new MarketOrderImpl(
-                  OrderType.BUY,
-                  gdaxBuyOrder.get(0),
-                  gdaxBuyOrder.get(1),
-                  gdaxBuyOrder.get(0).multiply(gdaxBuyOrder.get(1)));
-          buyOrders.add(buyOrder);
-        }
-
-        final List<MarketOrder> sellOrders = new ArrayList<>();
-        for (GdaxMarketOrder gdaxSellOrder : orderBook.asks) {
-          final MarketOrder sellOrder =
-              new MarketOrderImpl(
-                  OrderType.SELL,
-                  gdaxSellOrder.get(0),
-                  gdaxSellOrder.get(1),
-                  gdaxSellOrder.get(0).multiply(gdaxSellOrder.get(1)));
-          sellOrders.add(sellOrder);
-        }
-        return new MarketOrderBookImpl(marketId, sellOrders, buyOrders);
-
-      } else {
-        final String errorMsg =
-            "Failed to get market order book from exchange. Details: " + response;
-        LOG.error(errorMsg);
-        throw new TradingApiException(errorMsg);
-      }
+      return adaptMarketOrders(marketId, response, depth);
 
     } catch (ExchangeNetworkException | TradingApiException e) {
       throw e;
@@ -385,6 +362,74 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
     }
   }
 
+  @Override
+  public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId) {
+    return getMarketOrdersAsync(marketId, FULL_DEPTH);
+  }
+
+  @Override
+  public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId, int depth) {
+    assertValidDepth(depth);
+    final MarketOrderBook localMarketOrders = getLocalMarketOrders(marketId, depth);
+    if (localMarketOrders != null) {
+      return CompletableFuture.completedFuture(localMarketOrders);
+    }
+
+    final Map<String, String> params = createRequestParamMap();
+    params.put("level", orderBookLevel(depth));
+
+    return adaptResponseAsync(
+        sendPublicRequestToExchangeAsync(PRODUCTS + marketId + "/book", params),
+        response -> adaptMarketOrders(marketId, response, depth),
+        UNEXPECTED_ERROR_MSG);
+  }
+
+  private MarketOrderBook adaptMarketOrders(
+      String marketId, ExchangeHttpResponse response, int depth)
+      throws TradingApiException, ExchangeNetworkException {
+    LOG.debug(() -> "Market Orders response: " + response);
+
+    if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+      final GdaxBookWrapper orderBook =
+          gson.fromJson(response.getPayload(), GdaxBookWrapper.class);
+
+      final List<MarketOrder> buyOrders = new ArrayList<>();
+      for (GdaxMarketOrder gdaxBuyOrder : limitDepth(orderBook.bids, depth)) {
+        final MarketOrder buyOrder =
+            new MarketOrderImpl(
+                OrderType.BUY,
+                gdaxBuyOrder.get(0),
+                gdaxBuyOrder.get(1));
+        buyOrders.add(buyOrder);
+      }
+
+      final List<MarketOrder> sellOrders = new ArrayList<>();
+      for (GdaxMarketOrder gdaxSellOrder : limitDepth(orderBook.asks, depth)) {
+        final MarketOrder sellOrder =
+            new MarketOrderImpl(
+                OrderType.SELL,
+                gdaxSellOrder.get(0),
+                gdaxSellOrder.get(1));
+        sellOrders.add(sellOrder);
+      }
+      return new MarketOrderBookImpl(marketId, sellOrders, buyOrders);
+
+    } else {
+      final String errorMsg =
+          "Failed to get market order book from exchange. Details: " + response;
+      LOG.error(errorMsg);
+      throw new TradingApiException(errorMsg);
+    }
+  }
+
+  /*
+   * Level "1" = only the best bid and ask.
+   * Level "2" = Top 50 bids and asks (aggregated). Deeper books are truncated to the depth.
+   */
+  private static String orderBookLevel(int depth) {
+    return depth == 1 ? "1" : "2";
+  }
+
   @Override
   public BalanceInfo getBalanceInfo() throws TradingApiException, ExchangeNetworkException {
     try {
@@ -423,20 +468,15 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
   @Override
   public BigDecimal getLatestMarketPrice(String marketId)
       throws ExchangeNetworkException, TradingApiException {
+    final Ticker localTicker = getLocalTicker(marketId);
+    if (localTicker != null) {
+      return localTicker.getLast();
+    }
+
     try {
       final ExchangeHttpResponse response =
           sendPublicRequestToExchange(PRODUCTS + marketId + "/ticker", null);
-
-      LOG.debug(() -> "Latest Market Price response: " + response);
-
-      if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
-        final GdaxTicker gdaxTicker = gson.fromJson(response.getPayload(), GdaxTicker.class);
-        return gdaxTicker.price;
-      } else {
-        final String errorMsg = "Failed to get market ticker from exchange. Details: " + response;
-        LOG.error(errorMsg);
-        throw new TradingApiException(errorMsg);
-      }
+      return adaptLatestMarketPrice(response);
 
     } catch (ExchangeNetworkException | TradingApiException e) {
       throw e;
@@ -447,6 +487,33 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
     }
   }
 
+  @Override
+  public CompletableFuture<BigDecimal> getLatestMarketPriceAsync(String marketId) {
+    final Ticker localTicker = getLocalTicker(marketId);
+    if (localTicker != null) {
+      return CompletableFuture.completedFuture(localTicker.getLast());
+    }
+
+    return adaptResponseAsync(
+        sendPublicRequestToExchangeAsync(PRODUCTS + marketId + "/ticker", null),
+        this::adaptLatestMarketPrice,
+        UNEXPECTED_ERROR_MSG);
+  }
+
+  private BigDecimal adaptLatestMarketPrice(ExchangeHttpResponse response)
+      throws TradingApiException, ExchangeNetworkException {
+    LOG.debug(() -> "Latest Market Price response: " + response);
+
+    if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+      final GdaxTicker gdaxTicker = gson.fromJson(response.getPayload(), GdaxTicker.class);
+      return gdaxTicker.price;
+    } else {
+      final String errorMsg = "Failed to get market ticker from exchange. Details: " + response;
+      LOG.error(errorMsg);
+      throw new TradingApiException(errorMsg);
+    }
+  }
+
   /*
    * GDAX does not provide API call for fetching % buy fee; it only provides the fee monetary
    * value for a given order via e.g. /orders/<order-id> API call. We load the % fee statically
@@ -474,6 +541,11 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
 
   @Override
   public Ticker getTicker(String marketId) throws ExchangeNetworkException, TradingApiException {
+    final Ticker localTicker = getLocalTicker(marketId);
+    if (localTicker != null) {
+      return localTicker;
+    }
+
     try {
       final ExchangeHttpResponse tickerResponse =
           sendPublicRequestToExchange(PRODUCTS + marketId + "/ticker", null);
@@ -711,34 +783,65 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
     final Map<String, String> requestHeaders = new HashMap<>();
 
     try {
+      if (!params.isEmpty()) {
+        requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
+      }
 
-      final StringBuilder queryString = new StringBuilder();
-      if (params.size() > 0) {
+      final URL url = createPublicRequestUrl(apiMethod, params);
+      acquireRateLimitPermit(ApiCallType.PUBLIC);
+      return makeNetworkRequest(url, "GET", null, requestHeaders);
 
-        queryString.append("?");
+    } catch (MalformedURLException e) {
+      final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
+      LOG.error(errorMsg, e);
+      throw new TradingApiException(errorMsg, e);
+    }
+  }
 
-        for (final Map.Entry<String, String> param : params.entrySet()) {
-          if (queryString.length() > 1) {
-            queryString.append("&");
-          }
-          queryString.append(param.getKey());
-          queryString.append("=");
-          queryString.append(URLEncoder.encode(param.getValue(), StandardCharsets.UTF_8));
-        }
+  private CompletableFuture<ExchangeHttpResponse> sendPublicRequestToExchangeAsync(
+      String apiMethod, Map<String, String> params) {
+    if (params == null) {
+      params = createRequestParamMap(); // no params, so empty query string
+    }
+
+    // Request headers required by Exchange
+    final Map<String, String> requestHeaders = new HashMap<>();
 
+    try {
+      if (!params.isEmpty()) {
         requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
       }
 
-      final URL url = new URL(PUBLIC_API_BASE_URL + apiMethod + queryString);
-      return makeNetworkRequest(url, "GET", null, requestHeaders);
+      final URL url = createPublicRequestUrl(apiMethod, params);
+      return sendRateLimitedAsync(
+          ApiCallType.PUBLIC,
+          getAsyncExecutor(),
+          () -> sendNetworkRequestAsync(url, "GET", null, requestHeaders, getAsyncExecutor()));
 
     } catch (MalformedURLException e) {
       final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
       LOG.error(errorMsg, e);
-      throw new TradingApiException(errorMsg, e);
+      return CompletableFuture.failedFuture(new TradingApiException(errorMsg, e));
     }
   }
 
+  private URL createPublicRequestUrl(String apiMethod, Map<String, String> params)
+      throws MalformedURLException {
+    final StringBuilder queryString = new StringBuilder();
+    if (!params.isEmpty()) {
+      queryString.append("?");
+      for (final Map.Entry<String, String> param : params.entrySet()) {
+        if (queryString.length() > 1) {
+          queryString.append("&");
+        }
+        queryString.append(param.getKey());
+        queryString.append("=");
+        queryString.append(URLEncoder.encode(param.getValue(), StandardCharsets.UTF_8));
+      }
+    }
+    return new URL(PUBLIC_API_BASE_URL + apiMethod + queryString);
+  }
+
   /*
   * Makes an authenticated API call to the GDAX exchange.
   *
@@ -777,6 +880,8 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
   * using it as the key for HMAC. Also, base64-encode the digest output before sending in the
   * header.
   */
+  // Not synchronized, so authenticated calls can be made in parallel: each thread signs with its
+  // own MAC.
   private ExchangeHttpResponse sendAuthenticatedRequestToExchange(
       String httpMethod, String apiMethod, Map<String, String> params)
       throws ExchangeNetworkException, TradingApiException {
@@ -787,6 +892,10 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
       throw new IllegalStateException(errorMsg);
     }
 
+    // Anything other than a GET creates or cancels an order.
+    acquireRateLimitPermit(
+        "GET".equals(httpMethod) ? ApiCallType.PRIVATE : ApiCallType.TRADING);
+
     try {
       if (params == null) {
         // create empty map for non-param API calls
@@ -845,6 +954,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
           timestamp + httpMethod.toUpperCase() + "/" + apiMethod + requestBody;
 
       // Sign the signature string and Base64 encode it
+      final Mac mac = threadLocalMac.get();
       mac.reset();
       mac.update(signatureBuilder.getBytes(StandardCharsets.UTF_8));
       final String signature = DatatypeConverter.printBase64Binary(mac.doFinal());
@@ -879,8 +989,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
       final byte[] decodedBase64Secret = DatatypeConverter.parseBase64Binary(secret);
 
       final SecretKeySpec keyspec = new SecretKeySpec(decodedBase64Secret, "HmacSHA256");
-      mac = Mac.getInstance("HmacSHA256");
-      mac.init(keyspec);
+      threadLocalMac = createThreadLocalMac(keyspec);
       initializedMacAuthentication = true;
     } catch (NoSuchAlgorithmException e) {
       final String errorMsg = "Failed to setup MAC security. HINT: Is HMAC-SHA256 installed?";
@@ -916,6 +1025,10 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
     sellFeePercentage =
         new BigDecimal(sellFeeInConfig).divide(new BigDecimal("100"), 8, RoundingMode.HALF_UP);
     LOG.info(() -> "Sell fee % in BigDecimal format: " + sellFeePercentage);
+
+    if (isMarketDataFeedEnabled(otherConfig)) {
+      setMarketDataFeed(new GdaxMarketDataFeed());
+    }
   }
 
   // --------------------------------------------------------------------------
@@ -58,6 +58,8 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import javax.xml.bind.DatatypeConverter;
@@ -122,6 +124,9 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter
   private static final String UNEXPECTED_IO_ERROR_MSG =
       "Failed to connect to Exchange due to unexpected IO error.";
 
+  /** The API methods that create or cancel orders; they have their own rate limit. */
+  private static final Set<String> TRADING_API_METHODS = Set.of("order/new", "order/cancel");
+
   private static final String AMOUNT = "amount";
   private static final String PRICE = "price";
 
@@ -156,9 +161,9 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter
   private String key = "";
   private String secret = "";
 
-  private Mac mac;
+  private ThreadLocal<Mac> threadLocalMac;
   private boolean initializedMacAuthentication = false;
-  private long nonce = 0;
+  private NonceGenerator nonceGenerator;
 
   private Gson gson;
 
@@ -169,7 +174,6 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter
     setNetworkConfig(config);
     setOtherConfig(config);
 
-    nonce = System.currentTimeMillis() / 1000;
     initSecureMessageLayer();
     initGson();
   }
@@ -329,10 +333,7 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter
                 orderType,
                 geminiOpenOrder.price,
                 geminiOpenOrder.remainingAmount,
-                geminiOpenOrder.originalAmount,
-                geminiOpenOrder.price.multiply(
-                    geminiOpenOrder.originalAmount) // total - not provided by Gemini :-(
-                );
+                geminiOpenOrder.originalAmount); // total - not provided by Gemini :-(
 
         ordersToReturn.add(order);
       }
@@ -350,36 +351,17 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter
   @Override
   public MarketOrderBook getMarketOrders(String marketId)
       throws TradingApiException, ExchangeNetworkException {
-    try {
-      final ExchangeHttpResponse response = sendPublicRequestToExchange("book/" + marketId);
-
-      LOG.debug(() -> "Market Orders response: " + response);
-
-      final GeminiOrderBook orderBook = gson.fromJson(response.getPayload(), GeminiOrderBook.class);
-
-      final List<MarketOrder> buyOrders = new ArrayList<>();
-      for (GeminiMarketOrder geminiBuyOrder : orderBook.bids) {
-        final MarketOrder buyOrder =
-            new MarketOrderImpl(
-                OrderType.BUY,
-                geminiBuyOrder.price,
-                geminiBuyOrder.amount,
-                geminiBuyOrder.price.multiply(geminiBuyOrder.amount));
-        buyOrders.add(buyOrder);
-      }
-
-      final List<MarketOrder> sellOrders = new ArrayList<>();
-      for (GeminiMarketOrder geminiSellOrder : orderBook.asks) {
-        final MarketOrder sellOrder =
-            new MarketOrderImpl(
-                OrderType.SELL,
-                geminiSellOrder.price,
-                geminiSellOrder.amount,
-                geminiSellOrder.price.multiply(geminiSellOrder.amount));
-        sellOrders.add(sellOrder);
-      }
+    return getMarketOrders(marketId, FULL_DEPTH);
+  }
 
-      return new MarketOrderBookImpl(marketId, sellOrders, buyOrders);
+  @Override
+  public MarketOrderBook getMarketOrders(String marketId, int depth)
+      throws TradingApiException, ExchangeNetworkException {
+    assertValidDepth(depth);
+    try {
+      final ExchangeHttpResponse response =
+          sendPublicRequestToExchange(createOrderBookApiMethod(marketId, depth));
+      return adaptMarketOrders(marketId, response, depth);
 
     } catch (ExchangeNetworkException | TradingApiException e) {
       throw e;
@@ -390,16 +372,64 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter
     }
   }
 
+  @Override
+  public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId) {
+    return getMarketOrdersAsync(marketId, FULL_DEPTH);
+  }
+
+  @Override
+  public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId, int depth) {
+    assertValidDepth(depth);
+    return adaptResponseAsync(
+        sendPublicRequestToExchangeAsync(createOrderBookApiMethod(marketId, depth)),
+        response -> adaptMarketOrders(marketId, response, depth),
+        UNEXPECTED_ERROR_MSG);
+  }
+
+  private MarketOrderBook adaptMarketOrders(
+      String marketId, ExchangeHttpResponse response, int depth) {
+    LOG.debug(() -> "Market Orders response: " + response);
+
+    final GeminiOrderBook orderBook = gson.fromJson(response.getPayload(), GeminiOrderBook.class);
+
+    final List<MarketOrder> buyOrders = new ArrayList<>();
+    for (GeminiMarketOrder geminiBuyOrder : limitDepth(orderBook.bids, depth)) {
+      final MarketOrder buyOrder =
+          new MarketOrderImpl(
+              OrderType.BUY,
+              geminiBuyOrder.price,
+              geminiBuyOrder.amount);
+      buyOrders.add(buyOrder);
+    }
+
+    final List<MarketOrder> sellOrders = new ArrayList<>();
+    for (GeminiMarketOrder geminiSellOrder : limitDepth(orderBook.asks, depth)) {
+      final MarketOrder sellOrder =
+          new MarketOrderImpl(
+              OrderType.SELL,
+              geminiSellOrder.price,
+              geminiSellOrder.amount);
+      sellOrders.add(sellOrder);
+    }
+
+    return new MarketOrderBookImpl(marketId, sellOrders, buyOrders);
+  }
+
+  // Gemini returns 50 orders a side unless told otherwise, so pass the depth on when given.
+  private static String createOrderBookApiMethod(String marketId, int depth) {
+    final String apiMethod = "book/" + marketId;
+    if (depth == FULL_DEPTH) {
+      return apiMethod;
+    }
+    return apiMethod + "?limit_bids=" + depth + "&limit_asks=" + depth;
+  }
+
   @Override
   public BigDecimal getLatestMarketPrice(String marketId)
       throws TradingApiException, ExchangeNetworkException {
     try {
       final ExchangeHttpResponse response = sendPublicRequestToExchange("pubticker/" + marketId);
-
-      LOG.debug(() -> "Latest Market Price response: " + response);
-
-      final GeminiTicker ticker = gson.fromJson(response.getPayload(), GeminiTicker.class);
-      return ticker.last;
+      return adaptLatestMarketPrice(response);
 
     } catch (ExchangeNetworkException | TradingApiException e) {
       throw e;
@@ -410,6 +440,21 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter
     }
   }
 
+  @Override
+  public CompletableFuture<BigDecimal> getLatestMarketPriceAsync(String marketId) {
+    return adaptResponseAsync(
+        sendPublicRequestToExchangeAsync("pubticker/" + marketId),
+        this::adaptLatestMarketPrice,
+        UNEXPECTED_ERROR_MSG);
+  }
+
+  private BigDecimal adaptLatestMarketPrice(ExchangeHttpResponse response) {
+    LOG.debug(() -> "Latest Market Price response: " + response);
+
+    final GeminiTicker ticker = gson.fromJson(response.getPayload(), GeminiTicker.class);
+    return ticker.last;
+  }
+
   @Override
   public BalanceInfo getBalanceInfo() throws TradingApiException, ExchangeNetworkException {
     try {
@@ -643,6 +688,7 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter
       throws ExchangeNetworkException, TradingApiException {
     try {
       final URL url = new URL(PUBLIC_API_BASE_URL + apiMethod);
+      acquireRateLimitPermit(ApiCallType.PUBLIC);
       return makeNetworkRequest(url, "GET", null, createRequestParamMap());
 
     } catch (MalformedURLException e) {
@@ -652,6 +698,24 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter
     }
   }
 
+  private CompletableFuture<ExchangeHttpResponse> sendPublicRequestToExchangeAsync(
+      String apiMethod) {
+    try {
+      final URL url = new URL(PUBLIC_API_BASE_URL + apiMethod);
+      return sendRateLimitedAsync(
+          ApiCallType.PUBLIC,
+          getAsyncExecutor(),
+          () ->
+              sendNetworkRequestAsync(
+                  url, "GET", null, createRequestParamMap(), getAsyncExecutor()));
+
+    } catch (MalformedURLException e) {
+      final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
+      LOG.error(errorMsg, e);
+      return CompletableFuture.failedFuture(new TradingApiException(errorMsg, e));
+    }
+  }
+
   /*
    * Makes an authenticated API call to the Gemini exchange.
    *
@@ -703,48 +767,53 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter
       throw new IllegalStateException(errorMsg);
     }
 
-    try {
-      if (params == null) {
-        // create empty map for non param API calls, e.g. "balances"
-        params = createRequestParamMap();
-      }
+    acquireRateLimitPermit(
+        TRADING_API_METHODS.contains(apiMethod) ? ApiCallType.TRADING : ApiCallType.PRIVATE);
 
-      // Add the API call method
-      params.put("request", "/" + GEMINI_API_VERSION + "/" + apiMethod);
+    return sendInNonceOrder(nonceGenerator, nonce -> sendSignedRequest(apiMethod, params, nonce));
+  }
 
-      // nonce is required by Gemini in every request
-      params.put("nonce", Long.toString(nonce));
-      nonce++;
+  /*
+   * Builds the request, signs it with the nonce and sends it. Called by sendInNonceOrder.
+   */
+  private ExchangeHttpResponse sendSignedRequest(
+      String apiMethod, Map<String, String> params, long nonce)
+      throws MalformedURLException, ExchangeNetworkException, TradingApiException {
+    if (params == null) {
+      // create empty map for non param API calls, e.g. "balances"
+      params = createRequestParamMap();
+    }
 
-      // JSON-ify the param dictionary
-      final String paramsInJson = gson.toJson(params);
+    // Add the API call method
+    params.put("request", "/" + GEMINI_API_VERSION + "/" + apiMethod);
 
-      // Need to base64 encode payload as per API
-      final String base64payload =
-          DatatypeConverter.printBase64Binary(paramsInJson.getBytes(StandardCharsets.UTF_8));
+    // nonce is required by Gemini in every request
+    params.put("nonce", Long.toString(nonce));
 
-      // Create the signature
-      mac.reset(); // force reset
-      mac.update(base64payload.getBytes(StandardCharsets.UTF_8));
-      final String signature = toHex(mac.doFinal()).toLowerCase();
+    // JSON-ify the param dictionary
+    final String paramsInJson = gson.toJson(params);
 
-      // Request headers required by Exchange
-      final Map<String, String> requestHeaders = createHeaderParamMap();
-      requestHeaders.put("X-GEMINI-APIKEY", key);
-      requestHeaders.put("X-GEMINI-PAYLOAD", base64payload);
-      requestHeaders.put("X-GEMINI-SIGNATURE", signature);
+    // Need to base64 encode payload as per API
+    final String base64payload =
+        DatatypeConverter.printBase64Binary(paramsInJson.getBytes(StandardCharsets.UTF_8));
 
-      // payload is JSON for this exchange
-      requestHeaders.put("Content-Type", "application/json");
+    // Create the signature
+    final Mac mac = threadLocalMac.get();
+    mac.reset(); // force reset
+    mac.update(base64payload.getBytes(StandardCharsets.UTF_8));
+    final String signature = toHex(mac.doFinal()).toLowerCase();
 
-      final URL url = new URL(AUTHENTICATED_API_URL + apiMethod);
-      return makeNetworkRequest(url, "POST", paramsInJson, requestHeaders);
+    // Request headers required by Exchange
+    final Map<String, String> requestHeaders = createHeaderParamMap();
+    requestHeaders.put("X-GEMINI-APIKEY", key);
+    requestHeaders.put("X-GEMINI-PAYLOAD", base64payload);
+    requestHeaders.put("X-GEMINI-SIGNATURE", signature);
 
-    } catch (MalformedURLException e) {
-      final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
-      LOG.error(errorMsg, e);
-      throw new TradingApiException(errorMsg, e);
-    }
+    // payload is JSON for this exchange
+    requestHeaders.put("Content-Type", "application/json");
+
+    final URL url = new URL(AUTHENTICATED_API_URL + apiMethod);
+    return makeNetworkRequest(url, "POST", paramsInJson, requestHeaders);
   }
 
   private String toHex(byte[] byteArrayToConvert) {
@@ -765,8 +834,7 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter
     try {
       final SecretKeySpec keyspec =
           new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA384");
-      mac = Mac.getInstance("HmacSHA384");
-      mac.init(keyspec);
+      threadLocalMac = createThreadLocalMac(keyspec);
       initializedMacAuthentication = true;
     } catch (NoSuchAlgorithmException e) {
       final String errorMsg = "Failed to setup MAC security. HINT: Is HMAC-SHA384 installed?";
@@ -801,6 +869,8 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter
     sellFeePercentage =
         new BigDecimal(sellFeeInConfig).divide(new BigDecimal("100"), 8, RoundingMode.HALF_UP);
     LOG.info(() -> "Sell fee % in BigDecimal format: " + sellFeePercentage);
+
+    nonceGenerator = createNonceGenerator(otherConfig, "gemini");
   }
 
   // --------------------------------------------------------------------------
@@ -62,6 +62,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import javax.xml.bind.DatatypeConverter;
@@ -159,9 +160,10 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
   private String key = "";
   private String secret = "";
 
-  private Mac mac;
+  private ThreadLocal<Mac> threadLocalMac;
+  private ThreadLocal<MessageDigest> threadLocalSha256;
   private boolean initializedMacAuthentication = false;
-  private long nonce = 0;
+  private NonceGenerator nonceGenerator;
 
   private Gson gson;
 
@@ -172,7 +174,6 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
     setNetworkConfig(config);
     setOtherConfig(config);
 
-    nonce = System.currentTimeMillis() / 1000;
     initSecureMessageLayer();
     initGson();
   }
@@ -366,49 +367,19 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
   @Override
   public MarketOrderBook getMarketOrders(String marketId)
       throws TradingApiException, ExchangeNetworkException {
+    return getMarketOrders(marketId, FULL_DEPTH);
+  }
+
+  @Override
+  public MarketOrderBook getMarketOrders(String marketId, int depth)
+      throws TradingApiException, ExchangeNetworkException {
+    assertValidDepth(depth);
 
     ExchangeHttpResponse response = null;
 
     try {
       response = sendPublicRequestToExchange(MARKETS_RESOURCE + "/" + marketId + "/order_book");
-      if (LOG.isDebugEnabled()) {
-        LOG.debug("Market Orders response: {}", response);
-      }
-
-      if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
-
-        final ItBitOrderBookWrapper orderBook =
-            gson.fromJson(response.getPayload(), ItBitOrderBookWrapper.class);
-
-        final List<MarketOrder> buyOrders = new ArrayList<>();
-        for (ItBitMarketOrder itBitBuyOrder : orderBook.bids) {
-          final MarketOrder buyOrder =
-              new MarketOrderImpl(
-                  OrderType.BUY,
-                  itBitBuyOrder.get(0),
-                  itBitBuyOrder.get(1),
-                  itBitBuyOrder.get(0).multiply(itBitBuyOrder.get(1)));
-          buyOrders.add(buyOrder);
-        }
-
-        final List<MarketOrder> sellOrders = new ArrayList<>();
-        for (ItBitMarketOrder itBitSellOrder : orderBook.asks) {
-          final MarketOrder sellOrder =
-              new MarketOrderImpl(
-                  OrderType.SELL,
-                  itBitSellOrder.get(0),
-                  itBitSellOrder.get(1),
-                  itBitSellOrder.get(0).multiply(itBitSellOrder.get(1)));
-          sellOrders.add(sellOrder);
-        }
-
-        return new MarketOrderBookImpl(marketId, sellOrders, buyOrders);
-      } else {
-        final String errorMsg =
-            "Failed to get market order book from exchange. Details: " + response;
-        LOG.error(errorMsg);
-        throw new TradingApiException(errorMsg);
-      }
+      return adaptMarketOrders(marketId, response, depth);
 
     } catch (ExchangeNetworkException | TradingApiException e) {
       throw e;
@@ -427,6 +398,60 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
     }
   }
 
+  @Override
+  public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId) {
+    return getMarketOrdersAsync(marketId, FULL_DEPTH);
+  }
+
+  @Override
+  public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId, int depth) {
+    assertValidDepth(depth);
+    return adaptItBitResponseAsync(
+        sendPublicRequestToExchangeAsync(MARKETS_RESOURCE + "/" + marketId + "/order_book"),
+        response -> adaptMarketOrders(marketId, response, depth));
+  }
+
+  private MarketOrderBook adaptMarketOrders(
+      String marketId, ExchangeHttpResponse response, int depth)
+      throws TradingApiException {
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Market Orders response: {}", response);
+    }
+
+    if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+
+      final ItBitOrderBookWrapper orderBook =
+          gson.fromJson(response.getPayload(), ItBitOrderBookWrapper.class);
+
+      final List<MarketOrder> buyOrders = new ArrayList<>();
+      for (ItBitMarketOrder itBitBuyOrder : limitDepth(orderBook.bids, depth)) {
+        final MarketOrder buyOrder =
+            new MarketOrderImpl(
+                OrderType.BUY,
+                itBitBuyOrder.get(0),
+                itBitBuyOrder.get(1));
+        buyOrders.add(buyOrder);
+      }
+
+      final List<MarketOrder> sellOrders = new ArrayList<>();
+      for (ItBitMarketOrder itBitSellOrder : limitDepth(orderBook.asks, depth)) {
+        final MarketOrder sellOrder =
+            new MarketOrderImpl(
+                OrderType.SELL,
+                itBitSellOrder.get(0),
+                itBitSellOrder.get(1));
+        sellOrders.add(sellOrder);
+      }
+
+      return new MarketOrderBookImpl(marketId, sellOrders, buyOrders);
+    } else {
+      final String errorMsg =
+          "Failed to get market order book from exchange. Details: " + response;
+      LOG.error(errorMsg);
+      throw new TradingApiException(errorMsg);
+    }
+  }
+
   @Override
   public BigDecimal getLatestMarketPrice(String marketId)
       throws TradingApiException, ExchangeNetworkException {
@@ -435,19 +460,7 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
 
     try {
       response = sendPublicRequestToExchange(MARKETS_RESOURCE + "/" + marketId + "/ticker");
-      if (LOG.isDebugEnabled()) {
-        LOG.debug("Latest Market Price response: {}", response);
-      }
-
-      if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
-
-        final ItBitTicker itBitTicker = gson.fromJson(response.getPayload(), ItBitTicker.class);
-        return itBitTicker.lastPrice;
-      } else {
-        final String errorMsg = "Failed to get market ticker from exchange. Details: " + response;
-        LOG.error(errorMsg);
-        throw new TradingApiException(errorMsg);
-      }
+      return adaptLatestMarketPrice(response);
 
     } catch (ExchangeNetworkException | TradingApiException e) {
       throw e;
@@ -465,6 +478,30 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
     }
   }
 
+  @Override
+  public CompletableFuture<BigDecimal> getLatestMarketPriceAsync(String marketId) {
+    return adaptItBitResponseAsync(
+        sendPublicRequestToExchangeAsync(MARKETS_RESOURCE + "/" + marketId + "/ticker"),
+        this::adaptLatestMarketPrice);
+  }
+
+  private BigDecimal adaptLatestMarketPrice(ExchangeHttpResponse response)
+      throws TradingApiException {
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Latest Market Price response: {}", response);
+    }
+
+    if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+
+      final ItBitTicker itBitTicker = gson.fromJson(response.getPayload(), ItBitTicker.class);
+      return itBitTicker.lastPrice;
+    } else {
+      final String errorMsg = "Failed to get market ticker from exchange. Details: " + response;
+      LOG.error(errorMsg);
+      throw new TradingApiException(errorMsg);
+    }
+  }
+
   @Override
   public BalanceInfo getBalanceInfo() throws TradingApiException, ExchangeNetworkException {
 
@@ -775,6 +812,7 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
       throws ExchangeNetworkException, TradingApiException {
     try {
       final URL url = new URL(PUBLIC_API_BASE_URL + apiMethod);
+      acquireRateLimitPermit(ApiCallType.PUBLIC);
       return makeNetworkRequest(url, "GET", null, createHeaderParamMap());
 
     } catch (MalformedURLException e) {
@@ -784,6 +822,47 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
     }
   }
 
+  private CompletableFuture<ExchangeHttpResponse> sendPublicRequestToExchangeAsync(
+      String apiMethod) {
+    try {
+      final URL url = new URL(PUBLIC_API_BASE_URL + apiMethod);
+      return sendRateLimitedAsync(
+          ApiCallType.PUBLIC,
+          getAsyncExecutor(),
+          () ->
+              sendNetworkRequestAsync(
+                  url, "GET", null, createHeaderParamMap(), getAsyncExecutor()));
+
+    } catch (MalformedURLException e) {
+      final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
+      LOG.error(errorMsg, e);
+      return CompletableFuture.failedFuture(new TradingApiException(errorMsg, e));
+    }
+  }
+
+  /*
+   * As adaptResponseAsync, but an unexpected error while the exchange is undergoing maintenance
+   * completes with an ExchangeNetworkException - the same as the blocking calls.
+   */
+  private <T> CompletableFuture<T> adaptItBitResponseAsync(
+      CompletableFuture<ExchangeHttpResponse> response,
+      ExchangeResponseAdapter<T> responseAdapter) {
+    return adaptResponseAsync(
+        response,
+        exchangeResponse -> {
+          try {
+            return responseAdapter.adapt(exchangeResponse);
+          } catch (RuntimeException e) {
+            if (isExchangeUndergoingMaintenance(exchangeResponse) && keepAliveDuringMaintenance) {
+              LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
+              throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
+            }
+            throw e;
+          }
+        },
+        UNEXPECTED_ERROR_MSG);
+  }
+
   /*
    * Makes an authenticated API call to the itBit exchange.
    *
@@ -799,143 +878,143 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
       throw new IllegalStateException(errorMsg);
     }
 
-    try {
-      // Generate new UNIX time in secs
-      final String unixTime = Long.toString(System.currentTimeMillis());
-
-      // increment nonce for use in this call
-      nonce++;
-
-      if (params == null) {
-        // create empty map for non-param API calls
-        params = createRequestParamMap();
-      }
+    // Anything other than a GET creates or cancels an order.
+    acquireRateLimitPermit(
+        "GET".equals(httpMethod) ? ApiCallType.PRIVATE : ApiCallType.TRADING);
 
-      /*
-       * Construct an array of UTF-8 encoded strings. That array should contain, in order,
-       * the http verb of the request being signed (e.g. “GET”), the full url of the request,
-       * the body of the message being sent, the nonce as a string, and the timestamp as a string.
-       * If the request has no body, an empty string should be used.
-       */
-      final String invocationUrl;
-      String requestBody = "";
-      String requestBodyForSignature = "";
-      final List<String> signatureParamList = new ArrayList<>();
-      signatureParamList.add(httpMethod);
-
-      switch (httpMethod) {
-        case "GET":
-          LOG.debug(() -> "Building secure GET request...");
-
-          // Build (optional) query param string
-          final StringBuilder queryParamBuilder = new StringBuilder();
-          for (final Map.Entry<String, String> param : params.entrySet()) {
-            if (queryParamBuilder.length() > 0) {
-              queryParamBuilder.append("&");
-            }
-            queryParamBuilder.append(param.getKey());
-            queryParamBuilder.append("=");
-            queryParamBuilder.append(param.getValue());
-          }
+    return sendInNonceOrder(
+        nonceGenerator, nonce -> sendSignedRequest(httpMethod, apiMethod, params, nonce));
+  }
 
-          final String queryParams = queryParamBuilder.toString();
-          LOG.debug(() -> "Query param string: " + queryParams);
+  /*
+   * Builds the request, signs it with the nonce and sends it. Called by sendInNonceOrder.
+   */
+  private ExchangeHttpResponse sendSignedRequest(
+      String httpMethod, String apiMethod, Map<String, String> params, long nonce)
+      throws MalformedURLException, ExchangeNetworkException, TradingApiException {
+    // Generate new UNIX time in secs
+    final String unixTime = Long.toString(System.currentTimeMillis());
+
+    if (params == null) {
+      // create empty map for non-param API calls
+      params = createRequestParamMap();
+    }
 
-          if (params.isEmpty()) {
-            invocationUrl = AUTHENTICATED_API_URL + apiMethod;
-            signatureParamList.add(invocationUrl);
-          } else {
-            invocationUrl = AUTHENTICATED_API_URL + apiMethod + "?" + queryParams;
-            signatureParamList.add(invocationUrl);
+    /*
+     * Construct an array of UTF-8 encoded strings. That array should contain, in order,
+     * the http verb of the request being signed (e.g. “GET”), the full url of the request,
+     * the body of the message being sent, the nonce as a string, and the timestamp as a string.
+     * If the request has no body, an empty string should be used.
+     */
+    final String invocationUrl;
+    String requestBody = "";
+    String requestBodyForSignature = "";
+    final List<String> signatureParamList = new ArrayList<>();
+    signatureParamList.add(httpMethod);
+
+    switch (httpMethod) {
+      case "GET":
+        LOG.debug(() -> "Building secure GET request...");
+
+        // Build (optional) query param string
+        final StringBuilder queryParamBuilder = new StringBuilder();
+        for (final Map.Entry<String, String> param : params.entrySet()) {
+          if (queryParamBuilder.length() > 0) {
+            queryParamBuilder.append("&");
           }
+          queryParamBuilder.append(param.getKey());
+          queryParamBuilder.append("=");
+          queryParamBuilder.append(param.getValue());
+        }
 
-          signatureParamList.add(
-              requestBodyForSignature); // request body is empty JSON string for a GET
-          break;
-
-        case "POST":
-          LOG.debug(() -> "Building secure POST request...");
+        final String queryParams = queryParamBuilder.toString();
+        LOG.debug(() -> "Query param string: " + queryParams);
 
+        if (params.isEmpty()) {
           invocationUrl = AUTHENTICATED_API_URL + apiMethod;
           signatureParamList.add(invocationUrl);
-
-          requestBody = gson.toJson(params);
-          signatureParamList.add(requestBody);
-          break;
-
-        case "DELETE":
-          LOG.debug(() -> "Building secure DELETE request...");
-
-          invocationUrl = AUTHENTICATED_API_URL + apiMethod;
+        } else {
+          invocationUrl = AUTHENTICATED_API_URL + apiMethod + "?" + queryParams;
           signatureParamList.add(invocationUrl);
-          signatureParamList.add(
-              requestBodyForSignature); // request body is empty JSON string for a DELETE
-          break;
-
-        default:
-          throw new IllegalArgumentException(
-              "Don't know how to build secure [" + httpMethod + "] request!");
-      }
-
-      // Add the nonce
-      signatureParamList.add(Long.toString(nonce));
-
-      // Add the UNIX time
-      signatureParamList.add(unixTime);
-
-      /*
-       * Convert that array to JSON, encoded as UTF-8. The resulting JSON should contain no
-       * spaces or other whitespace characters. For example, a valid JSON-encoded array might look
-       * like:
-       * '["GET","https://api.itbit.com/v1/wallets/7e037345-1288-4c39-12fe-d0f99a475a98","","5",
-       * "1405385860202"]'
-       */
-      final String signatureParamsInJson = gson.toJson(signatureParamList);
-      LOG.debug(() -> "Signature params in JSON: " + signatureParamsInJson);
+        }
 
-      // Prepend the string version of the nonce to the JSON-encoded array string
-      final String noncePrependedToJson = nonce + signatureParamsInJson;
+        signatureParamList.add(
+            requestBodyForSignature); // request body is empty JSON string for a GET
+        break;
 
-      // Construct the SHA-256 hash of the noncePrependedToJson. Call this the message hash.
-      final MessageDigest md = MessageDigest.getInstance("SHA-256");
-      md.update(noncePrependedToJson.getBytes(StandardCharsets.UTF_8));
-      final byte[] messageHash = md.digest();
+      case "POST":
+        LOG.debug(() -> "Building secure POST request...");
 
-      // Prepend the UTF-8 encoded request URL to the message hash.
-      // Generate the SHA-512 HMAC of the prependRequestUrlToMsgHash using your API secret as the
-      // key.
-      mac.reset(); // force reset
-      mac.update(invocationUrl.getBytes(StandardCharsets.UTF_8));
-      mac.update(messageHash);
+        invocationUrl = AUTHENTICATED_API_URL + apiMethod;
+        signatureParamList.add(invocationUrl);
 
-      final String signature = DatatypeConverter.printBase64Binary(mac.doFinal());
+        requestBody = gson.toJson(params);
+        signatureParamList.add(requestBody);
+        break;
 
-      // Request headers required by Exchange
-      final Map<String, String> requestHeaders = createHeaderParamMap();
-      requestHeaders.put("Content-Type", "application/json");
+      case "DELETE":
+        LOG.debug(() -> "Building secure DELETE request...");
 
-      // Add Authorization header
-      // Generate the authorization header by concatenating the client key with a colon separator
-      // (‘:’)
-      // and the signature. The resulting string should look like "clientkey:signature".
-      requestHeaders.put("Authorization", key + ":" + signature);
+        invocationUrl = AUTHENTICATED_API_URL + apiMethod;
+        signatureParamList.add(invocationUrl);
+        signatureParamList.add(
+            requestBodyForSignature); // request body is empty JSON string for a DELETE
+        break;
 
-      requestHeaders.put("X-Auth-Timestamp", unixTime);
-      requestHeaders.put("X-Auth-Nonce", Long.toString(nonce));
+      default:
+        throw new IllegalArgumentException(
+            "Don't know how to build secure [" + httpMethod + "] request!");
+    }
 
-      final URL url = new URL(invocationUrl);
-      return makeNetworkRequest(url, httpMethod, requestBody, requestHeaders);
+    // Add the nonce
+    signatureParamList.add(Long.toString(nonce));
 
-    } catch (MalformedURLException e) {
-      final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
-      LOG.error(errorMsg, e);
-      throw new TradingApiException(errorMsg, e);
+    // Add the UNIX time
+    signatureParamList.add(unixTime);
 
-    } catch (NoSuchAlgorithmException e) {
-      final String errorMsg = "Failed to create SHA-256 digest when building message signature.";
-      LOG.error(errorMsg, e);
-      throw new TradingApiException(errorMsg, e);
-    }
+    /*
+     * Convert that array to JSON, encoded as UTF-8. The resulting JSON should contain no
+     * spaces or other whitespace characters. For example, a valid JSON-encoded array might look
+     * like:
+     * '["GET","https://api.itbit.com/v1/wallets/7e037345-1288-4c39-12fe-d0f99a475a98","","5",
+     * "1405385860202"]'
+     */
+    final String signatureParamsInJson = gson.toJson(signatureParamList);
+    LOG.debug(() -> "Signature params in JSON: " + signatureParamsInJson);
+
+    // Prepend the string version of the nonce to the JSON-encoded array string
+    final String noncePrependedToJson = nonce + signatureParamsInJson;
+
+    // Construct the SHA-256 hash of the noncePrependedToJson. Call this the message hash.
+    final MessageDigest md = threadLocalSha256.get();
+    md.update(noncePrependedToJson.getBytes(StandardCharsets.UTF_8));
+    final byte[] messageHash = md.digest();
+
+    // Prepend the UTF-8 encoded request URL to the message hash.
+    // Generate the SHA-512 HMAC of the prependRequestUrlToMsgHash using your API secret as the
+    // key.
+    final Mac mac = threadLocalMac.get();
+    mac.reset(); // force reset
+    mac.update(invocationUrl.getBytes(StandardCharsets.UTF_8));
+    mac.update(messageHash);
+
+    final String signature = DatatypeConverter.printBase64Binary(mac.doFinal());
+
+    // Request headers required by Exchange
+    final Map<String, String> requestHeaders = createHeaderParamMap();
+    requestHeaders.put("Content-Type", "application/json");
+
+    // Add Authorization header
+    // Generate the authorization header by concatenating the client key with a colon separator
+    // (‘:’)
+    // and the signature. The resulting string should look like "clientkey:signature".
+    requestHeaders.put("Authorization", key + ":" + signature);
+
+    requestHeaders.put("X-Auth-Timestamp", unixTime);
+    requestHeaders.put("X-Auth-Nonce", Long.toString(nonce));
+
+    final URL url = new URL(invocationUrl);
+    return makeNetworkRequest(url, httpMethod, requestBody, requestHeaders);
   }
 
   /*
@@ -948,8 +1027,8 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
     try {
       final SecretKeySpec keyspec =
           new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA512");
-      mac = Mac.getInstance("HmacSHA512");
-      mac.init(keyspec);
+      threadLocalMac = createThreadLocalMac(keyspec);
+      threadLocalSha256 = createThreadLocalMessageDigest("SHA-256");
       initializedMacAuthentication = true;
     } catch (NoSuchAlgorithmException e) {
       final String errorMsg = "Failed to setup MAC security. HINT: Is HMAC-SHA512 installed?";
@@ -994,6 +1073,8 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
     } else {
       LOG.info(() -> KEEP_ALIVE_DURING_MAINTENANCE_PROPERTY_NAME + " is not set in exchange.yaml");
     }
+
+    nonceGenerator = createNonceGenerator(otherConfig, "itbit");
   }
 
   // --------------------------------------------------------------------------
@@ -1035,9 +1116,7 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
               itBitOpenOrder.price,
               itBitOpenOrder.amount.subtract(
                   itBitOpenOrder.amountFilled), // remaining - not provided by itBit
-              itBitOpenOrder.amount,
-              itBitOpenOrder.price.multiply(
-                  itBitOpenOrder.amount)); // total - not provided by itBit
+              itBitOpenOrder.amount); // total - not provided by itBit
 
       ordersToReturn.add(order);
     }
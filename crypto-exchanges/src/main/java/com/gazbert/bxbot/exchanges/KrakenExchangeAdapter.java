@@ -27,14 +27,14 @@ import com.gazbert.crypto.exchange.api.AuthenticationConfig;
 import com.gazbert.crypto.exchange.api.ExchangeAdapter;
 import com.gazbert.crypto.exchange.api.ExchangeConfig;
 import com.gazbert.crypto.exchange.api.OtherConfig;
+import com.gazbert.crypto.exchanges.marketdata.KrakenMarketDataFeed;
 import com.gazbert.crypto.exchanges.trading.api.impl.BalanceInfoImpl;
-import com.gazbert.crypto.exchanges.trading.api.impl.MarketOrderBookImpl;
-import com.gazbert.crypto.exchanges.trading.api.impl.MarketOrderImpl;
+import com.gazbert.crypto.exchanges.trading.api.impl.CompactMarketOrderBook;
+import com.gazbert.crypto.exchanges.trading.api.impl.CompactMarketOrders;
 import com.gazbert.crypto.exchanges.trading.api.impl.OpenOrderImpl;
 import com.gazbert.crypto.exchanges.trading.api.impl.TickerImpl;
 import com.gazbert.crypto.trading.api.BalanceInfo;
 import com.gazbert.crypto.trading.api.ExchangeNetworkException;
-import com.gazbert.crypto.trading.api.MarketOrder;
 import com.gazbert.crypto.trading.api.MarketOrderBook;
 import com.gazbert.crypto.trading.api.OpenOrder;
 import com.gazbert.crypto.trading.api.OrderType;
@@ -50,6 +50,8 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.annotations.SerializedName;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -69,8 +71,8 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import org.apache.logging.log4j.LogManager;
@@ -144,6 +146,9 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
   private static final String UNEXPECTED_IO_ERROR_MSG =
       "Failed to connect to Exchange due to unexpected IO error.";
 
+  /** The API methods that create or cancel orders; they have their own rate limit. */
+  private static final Set<String> TRADING_API_METHODS = Set.of("AddOrder", "CancelOrder");
+
   private static final String UNDER_MAINTENANCE_WARNING_MESSAGE =
       "Exchange is undergoing maintenance - keep alive is" + " true.";
   private static final String FAILED_TO_GET_MARKET_ORDERS =
@@ -169,9 +174,10 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
 
   private static final String KEEP_ALIVE_DURING_MAINTENANCE_PROPERTY_NAME =
       "keep-alive-during-maintenance";
+  private static final String MARKET_DATA_FEED_PAIRS_PROPERTY_NAME = "market-data-feed-pairs";
   private static final String EXCHANGE_UNDERGOING_MAINTENANCE_RESPONSE = "EService:Unavailable";
 
-  private long nonce = 0;
+  private NonceGenerator nonceGenerator;
 
   private BigDecimal buyFeePercentage;
   private BigDecimal sellFeePercentage;
@@ -181,7 +187,8 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
   private String key = "";
   private String secret = "";
 
-  private Mac mac;
+  private ThreadLocal<Mac> threadLocalMac;
+  private ThreadLocal<MessageDigest> threadLocalSha256;
   private boolean initializedMacAuthentication = false;
 
   private Gson gson;
@@ -193,7 +200,6 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
     setNetworkConfig(config);
     setOtherConfig(config);
 
-    nonce = System.currentTimeMillis() / 1000;
     initSecureMessageLayer();
     initGson();
   }
@@ -206,49 +212,142 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
   @Override
   public MarketOrderBook getMarketOrders(String marketId)
       throws TradingApiException, ExchangeNetworkException {
+    return getMarketOrders(marketId, FULL_DEPTH);
+  }
 
-    ExchangeHttpResponse response;
+  @Override
+  public MarketOrderBook getMarketOrders(String marketId, int depth)
+      throws TradingApiException, ExchangeNetworkException {
+    assertValidDepth(depth);
+    final MarketOrderBook localMarketOrders = getLocalMarketOrders(marketId, depth);
+    if (localMarketOrders != null) {
+      return localMarketOrders;
+    }
 
     try {
       final Map<String, String> params = createRequestParamMap();
       params.put("pair", marketId);
+      if (depth != FULL_DEPTH) {
+        params.put("count", String.valueOf(depth));
+      }
 
-      response = sendPublicRequestToExchange("Depth", params);
-      LOG.debug(() -> "Market Orders response: " + response);
+      return streamPublicRequestFromExchange(
+          "Depth", params, payload -> readMarketOrders(marketId, payload, depth));
 
-      if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
-        final Type resultType =
-            new TypeToken<KrakenResponse<KrakenMarketOrderBookResult>>() {}.getType();
-        final KrakenResponse krakenResponse = gson.fromJson(response.getPayload(), resultType);
+    } catch (ExchangeNetworkException | TradingApiException e) {
+      throw e;
 
-        final List errors = krakenResponse.error;
-        if (errors == null || errors.isEmpty()) {
-          return adaptKrakenOrderBook(krakenResponse, marketId);
+    } catch (Exception e) {
+      LOG.error(UNEXPECTED_ERROR_MSG, e);
+      throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
+    }
+  }
 
-        } else {
-          if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
-            LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
-            throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
-          }
+  @Override
+  public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId) {
+    return getMarketOrdersAsync(marketId, FULL_DEPTH);
+  }
 
-          final String errorMsg = FAILED_TO_GET_MARKET_ORDERS + response;
-          LOG.error(errorMsg);
-          throw new TradingApiException(errorMsg);
-        }
+  @Override
+  public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId, int depth) {
+    assertValidDepth(depth);
+    final MarketOrderBook localMarketOrders = getLocalMarketOrders(marketId, depth);
+    if (localMarketOrders != null) {
+      return CompletableFuture.completedFuture(localMarketOrders);
+    }
 
-      } else {
-        final String errorMsg = FAILED_TO_GET_MARKET_ORDERS + response;
-        LOG.error(errorMsg);
-        throw new TradingApiException(errorMsg);
+    final Map<String, String> params = createRequestParamMap();
+    params.put("pair", marketId);
+    if (depth != FULL_DEPTH) {
+      params.put("count", String.valueOf(depth));
+    }
+
+    return handleUnexpectedErrorsAsync(
+        streamPublicRequestFromExchangeAsync(
+            "Depth", params, payload -> readMarketOrders(marketId, payload, depth)),
+        UNEXPECTED_ERROR_MSG);
+  }
+
+  /*
+   * Streams the Depth response into market orders as it is read. The result holds a single order
+   * book keyed by the pair name; each order is an array of price, volume and timestamp.
+   */
+  private MarketOrderBook readMarketOrders(String marketId, JsonReader payload, int depth)
+      throws IOException, TradingApiException, ExchangeNetworkException {
+
+    final List<String> errors = new ArrayList<>();
+    MarketOrderBook marketOrderBook = null;
+
+    payload.beginObject();
+    while (payload.hasNext()) {
+      switch (payload.nextName()) {
+        case "error":
+          payload.beginArray();
+          while (payload.hasNext()) {
+            errors.add(payload.nextString());
+          }
+          payload.endArray();
+          break;
+        case "result":
+          marketOrderBook = readKrakenOrderBook(marketId, payload, depth);
+          break;
+        default:
+          payload.skipValue();
       }
+    }
+    payload.endObject();
 
-    } catch (ExchangeNetworkException | TradingApiException e) {
-      throw e;
+    if (errors.isEmpty() && marketOrderBook != null) {
+      return marketOrderBook;
+    }
 
-    } catch (Exception e) {
-      LOG.error(UNEXPECTED_ERROR_MSG, e);
-      throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
+    final boolean undergoingMaintenance =
+        errors.stream().anyMatch(error -> error.contains(EXCHANGE_UNDERGOING_MAINTENANCE_RESPONSE));
+    if (undergoingMaintenance && keepAliveDuringMaintenance) {
+      LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
+      throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
     }
+
+    final String errorMsg = FAILED_TO_GET_MARKET_ORDERS + errors;
+    LOG.error(errorMsg);
+    throw new TradingApiException(errorMsg);
+  }
+
+  private static MarketOrderBook readKrakenOrderBook(
+      String marketId, JsonReader payload, int depth)
+      throws IOException {
+
+    MarketOrderBook marketOrderBook = null;
+
+    payload.beginObject();
+    while (payload.hasNext()) {
+      payload.nextName(); // the pair name
+      if (marketOrderBook != null) {
+        payload.skipValue();
+        continue;
+      }
+
+      CompactMarketOrders buyOrders = createMarketOrders(OrderType.BUY);
+      CompactMarketOrders sellOrders = createMarketOrders(OrderType.SELL);
+      payload.beginObject();
+      while (payload.hasNext()) {
+        switch (payload.nextName()) {
+          case "bids":
+            buyOrders = readMarketOrders(payload, OrderType.BUY, depth);
+            break;
+          case "asks":
+            sellOrders = readMarketOrders(payload, OrderType.SELL, depth);
+            break;
+          default:
+            payload.skipValue();
+        }
+      }
+      payload.endObject();
+      marketOrderBook = new CompactMarketOrderBook(marketId, sellOrders, buyOrders);
+    }
+    payload.endObject();
+
+    return marketOrderBook;
   }
 
   @Override
@@ -423,54 +522,77 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
   @Override
   public BigDecimal getLatestMarketPrice(String marketId)
       throws TradingApiException, ExchangeNetworkException {
-
-    ExchangeHttpResponse response;
+    final Ticker localTicker = getLocalTicker(marketId);
+    if (localTicker != null) {
+      return localTicker.getLast();
+    }
 
     try {
       final Map<String, String> params = createRequestParamMap();
       params.put("pair", marketId);
 
-      response = sendPublicRequestToExchange("Ticker", params);
-      LOG.debug(() -> "Latest Market Price response: " + response);
+      final ExchangeHttpResponse response = sendPublicRequestToExchange("Ticker", params);
+      return adaptLatestMarketPrice(response);
 
-      if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+    } catch (ExchangeNetworkException | TradingApiException e) {
+      throw e;
+    } catch (Exception e) {
+      LOG.error(UNEXPECTED_ERROR_MSG, e);
+      throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
+    }
+  }
 
-        final Type resultType = new TypeToken<KrakenResponse<KrakenTickerResult>>() {}.getType();
-        final KrakenResponse krakenResponse = gson.fromJson(response.getPayload(), resultType);
+  @Override
+  public CompletableFuture<BigDecimal> getLatestMarketPriceAsync(String marketId) {
+    final Ticker localTicker = getLocalTicker(marketId);
+    if (localTicker != null) {
+      return CompletableFuture.completedFuture(localTicker.getLast());
+    }
 
-        final List errors = krakenResponse.error;
-        if (errors == null || errors.isEmpty()) {
+    final Map<String, String> params = createRequestParamMap();
+    params.put("pair", marketId);
 
-          // Assume we'll always get something here if errors array is empty; else blow fast wih NPE
-          final KrakenTickerResult tickerResult = (KrakenTickerResult) krakenResponse.result;
+    return adaptResponseAsync(
+        sendPublicRequestToExchangeAsync("Ticker", params),
+        this::adaptLatestMarketPrice,
+        UNEXPECTED_ERROR_MSG);
+  }
 
-          // 'c' key into map is the last market price: last trade closed array(<price>, <lot
-          // volume>)
-          return new BigDecimal(tickerResult.get("c"));
+  private BigDecimal adaptLatestMarketPrice(ExchangeHttpResponse response)
+      throws TradingApiException, ExchangeNetworkException {
+    LOG.debug(() -> "Latest Market Price response: " + response);
 
-        } else {
+    if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
 
-          if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
-            LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
-            throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
-          }
+      final Type resultType = new TypeToken<KrakenResponse<KrakenTickerResult>>() {}.getType();
+      final KrakenResponse krakenResponse = gson.fromJson(response.getPayload(), resultType);
 
-          final String errorMsg = FAILED_TO_GET_TICKER + response;
-          LOG.error(errorMsg);
-          throw new TradingApiException(errorMsg);
-        }
+      final List errors = krakenResponse.error;
+      if (errors == null || errors.isEmpty()) {
+
+        // Assume we'll always get something here if errors array is empty; else blow fast wih NPE
+        final KrakenTickerResult tickerResult = (KrakenTickerResult) krakenResponse.result;
+
+        // 'c' key into map is the last market price: last trade closed array(<price>, <lot
+        // volume>)
+        return new BigDecimal(tickerResult.get("c"));
 
       } else {
+
+        if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
+          LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
+          throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
+        }
+
         final String errorMsg = FAILED_TO_GET_TICKER + response;
         LOG.error(errorMsg);
         throw new TradingApiException(errorMsg);
       }
 
-    } catch (ExchangeNetworkException | TradingApiException e) {
-      throw e;
-    } catch (Exception e) {
-      LOG.error(UNEXPECTED_ERROR_MSG, e);
-      throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
+    } else {
+      final String errorMsg = FAILED_TO_GET_TICKER + response;
+      LOG.error(errorMsg);
+      throw new TradingApiException(errorMsg);
     }
   }
 
@@ -529,6 +651,10 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
 
   @Override
   public Ticker getTicker(String marketId) throws TradingApiException, ExchangeNetworkException {
+    final Ticker localTicker = getLocalTicker(marketId);
+    if (localTicker != null) {
+      return localTicker;
+    }
 
     ExchangeHttpResponse response;
 
@@ -622,12 +748,6 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
     }
   }
 
-  /** GSON class that wraps Depth API call result - the Market Order Book. */
-  private static class KrakenMarketOrderBookResult extends HashMap<String, KrakenOrderBook> {
-
-    private static final long serialVersionUID = -4913711010647027721L;
-  }
-
   /** GSON class that wraps a Balance API call result. */
   private static class KrakenBalanceResult extends HashMap<String, BigDecimal> {
 
@@ -755,27 +875,6 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
     }
   }
 
-  /** GSON class for a Market Order Book. */
-  private static class KrakenOrderBook {
-
-    List<KrakenMarketOrder> bids;
-    List<KrakenMarketOrder> asks;
-
-    @Override
-    public String toString() {
-      return MoreObjects.toStringHelper(this).add("bids", bids).add("asks", asks).toString();
-    }
-  }
-
-  /**
-   * GSON class for holding Market Orders. First element in array is price, second element is
-   * amount, 3rd is UNIX time.
-   */
-  private static class KrakenMarketOrder extends ArrayList<BigDecimal> {
-
-    private static final long serialVersionUID = -4959711260742077759L;
-  }
-
   /**
    * Custom GSON Deserializer for Ticker API call result.
    *
@@ -878,22 +977,12 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
     final Map<String, String> requestHeaders = createHeaderParamMap();
 
     try {
-      final StringBuilder queryString = new StringBuilder();
       if (!params.isEmpty()) {
-        queryString.append("?");
-        for (final Map.Entry<String, String> param : params.entrySet()) {
-          if (queryString.length() > 1) {
-            queryString.append("&");
-          }
-          queryString.append(param.getKey());
-          queryString.append("=");
-          queryString.append(URLEncoder.encode(param.getValue(), StandardCharsets.UTF_8));
-        }
-
         requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
       }
 
-      final URL url = new URL(PUBLIC_API_BASE_URL + apiMethod + queryString);
+      final URL url = createPublicRequestUrl(apiMethod, params);
+      acquireRateLimitPermit(ApiCallType.PUBLIC);
       return makeNetworkRequest(url, "GET", null, requestHeaders);
 
     } catch (MalformedURLException e) {
@@ -903,6 +992,100 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
     }
   }
 
+  private <T> T streamPublicRequestFromExchange(
+      String apiMethod, Map<String, String> params, ExchangeResponseReader<T> responseReader)
+      throws ExchangeNetworkException, TradingApiException {
+
+    // Request headers required by Exchange
+    final Map<String, String> requestHeaders = createHeaderParamMap();
+
+    try {
+      if (!params.isEmpty()) {
+        requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
+      }
+
+      final URL url = createPublicRequestUrl(apiMethod, params);
+      acquireRateLimitPermit(ApiCallType.PUBLIC);
+      return sendNetworkRequest(url, "GET", null, requestHeaders, responseReader);
+
+    } catch (MalformedURLException e) {
+      final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
+      LOG.error(errorMsg, e);
+      throw new TradingApiException(errorMsg, e);
+    }
+  }
+
+  private <T> CompletableFuture<T> streamPublicRequestFromExchangeAsync(
+      String apiMethod, Map<String, String> params, ExchangeResponseReader<T> responseReader) {
+
+    // Request headers required by Exchange
+    final Map<String, String> requestHeaders = createHeaderParamMap();
+
+    try {
+      if (!params.isEmpty()) {
+        requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
+      }
+
+      final URL url = createPublicRequestUrl(apiMethod, params);
+      return sendRateLimitedAsync(
+          ApiCallType.PUBLIC,
+          getAsyncExecutor(),
+          () ->
+              sendNetworkRequestAsync(
+                  url, "GET", null, requestHeaders, responseReader, getAsyncExecutor()));
+
+    } catch (MalformedURLException e) {
+      final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
+      LOG.error(errorMsg, e);
+      return CompletableFuture.failedFuture(new TradingApiException(errorMsg, e));
+    }
+  }
+
+  private CompletableFuture<ExchangeHttpResponse> sendPublicRequestToExchangeAsync(
+      String apiMethod, Map<String, String> params) {
+
+    if (params == null) {
+      params = createRequestParamMap(); // no params, so empty query string
+    }
+
+    // Request headers required by Exchange
+    final Map<String, String> requestHeaders = createHeaderParamMap();
+
+    try {
+      if (!params.isEmpty()) {
+        requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
+      }
+
+      final URL url = createPublicRequestUrl(apiMethod, params);
+      return sendRateLimitedAsync(
+          ApiCallType.PUBLIC,
+          getAsyncExecutor(),
+          () -> sendNetworkRequestAsync(url, "GET", null, requestHeaders, getAsyncExecutor()));
+
+    } catch (MalformedURLException e) {
+      final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
+      LOG.error(errorMsg, e);
+      return CompletableFuture.failedFuture(new TradingApiException(errorMsg, e));
+    }
+  }
+
+  private URL createPublicRequestUrl(String apiMethod, Map<String, String> params)
+      throws MalformedURLException {
+    final StringBuilder queryString = new StringBuilder();
+    if (!params.isEmpty()) {
+      queryString.append("?");
+      for (final Map.Entry<String, String> param : params.entrySet()) {
+        if (queryString.length() > 1) {
+          queryString.append("&");
+        }
+        queryString.append(param.getKey());
+        queryString.append("=");
+        queryString.append(URLEncoder.encode(param.getValue(), StandardCharsets.UTF_8));
+      }
+    }
+    return new URL(PUBLIC_API_BASE_URL + apiMethod + queryString);
+  }
+
   /*
    * Makes an authenticated API call to the Kraken exchange.
    *
@@ -930,62 +1113,75 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
       throw new IllegalStateException(errorMsg);
     }
 
-    try {
-      if (params == null) {
-        // create empty map for non param API calls, e.g. "trades"
-        params = createRequestParamMap();
-      }
-
-      // The nonce is required by Kraken in every request.
-      // It MUST be incremented each time and the nonce param MUST match the value used in
-      // signature.
-      nonce++;
-      params.put("nonce", Long.toString(nonce));
+    acquireRateLimitPermit(
+        TRADING_API_METHODS.contains(apiMethod) ? ApiCallType.TRADING : ApiCallType.PRIVATE);
 
-      // Build the URL with query param args in it - yuk!
-      final StringBuilder postData = new StringBuilder();
-      for (final Map.Entry<String, String> param : params.entrySet()) {
-        if (postData.length() > 0) {
-          postData.append("&");
-        }
-        postData.append(param.getKey());
-        postData.append("=");
-        postData.append(URLEncoder.encode(param.getValue(), StandardCharsets.UTF_8));
-      }
+    return sendInNonceOrder(nonceGenerator, nonce -> sendSignedRequest(apiMethod, params, nonce));
+  }
 
-      // And now the tricky part... ;-o
-      final byte[] pathInBytes =
-          ("/" + KRAKEN_API_VERSION + KRAKEN_PRIVATE_PATH + apiMethod)
-              .getBytes(StandardCharsets.UTF_8);
-      final String noncePrependedToPostData = Long.toString(nonce) + postData;
+  /*
+   * Builds the request, signs it with the nonce and sends it. Called by sendInNonceOrder.
+   */
+  private ExchangeHttpResponse sendSignedRequest(
+      String apiMethod, Map<String, String> params, long nonce)
+      throws MalformedURLException, ExchangeNetworkException, TradingApiException {
+    if (params == null) {
+      // create empty map for non param API calls, e.g. "trades"
+      params = createRequestParamMap();
+    }
 
-      // Create sha256 hash of nonce and post data:
-      final MessageDigest md = MessageDigest.getInstance("SHA-256");
-      md.update(noncePrependedToPostData.getBytes(StandardCharsets.UTF_8));
-      final byte[] messageHash = md.digest();
+    // The nonce is required by Kraken in every request.
+    // It MUST be incremented each time and the nonce param MUST match the value used in
+    // signature.
+    params.put("nonce", Long.toString(nonce));
 
-      // Create hmac_sha512 digest of path and previous sha256 hash
-      mac.reset(); // force reset
-      mac.update(pathInBytes);
-      mac.update(messageHash);
+    // Build the URL with query param args in it - yuk!
+    final StringBuilder postData = new StringBuilder();
+    for (final Map.Entry<String, String> param : params.entrySet()) {
+      if (postData.length() > 0) {
+        postData.append("&");
+      }
+      postData.append(param.getKey());
+      postData.append("=");
+      postData.append(URLEncoder.encode(param.getValue(), StandardCharsets.UTF_8));
+    }
 
-      // Signature in Base64
-      final String signature = Base64.getEncoder().encodeToString(mac.doFinal());
+    final String signature = createSignature(apiMethod, nonce, postData.toString());
 
-      // Request headers required by Exchange
-      final Map<String, String> requestHeaders = createHeaderParamMap();
-      requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
-      requestHeaders.put("API-Key", key);
-      requestHeaders.put("API-Sign", signature);
+    // Request headers required by Exchange
+    final Map<String, String> requestHeaders = createHeaderParamMap();
+    requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
+    requestHeaders.put("API-Key", key);
+    requestHeaders.put("API-Sign", signature);
 
-      final URL url = new URL(AUTHENTICATED_API_URL + apiMethod);
-      return makeNetworkRequest(url, "POST", postData.toString(), requestHeaders);
+    final URL url = new URL(AUTHENTICATED_API_URL + apiMethod);
+    return makeNetworkRequest(url, "POST", postData.toString(), requestHeaders);
+  }
 
-    } catch (MalformedURLException | NoSuchAlgorithmException e) {
-      final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
-      LOG.error(errorMsg, e);
-      throw new TradingApiException(errorMsg, e);
-    }
+  /*
+   * Creates the API-Sign header value: a HMAC-SHA512 of (URI path + SHA256(nonce + POST data)),
+   * in Base64. Package-private for the benchmarks.
+   */
+  String createSignature(String apiMethod, long nonce, String postData) {
+    // And now the tricky part... ;-o
+    final byte[] pathInBytes =
+        ("/" + KRAKEN_API_VERSION + KRAKEN_PRIVATE_PATH + apiMethod)
+            .getBytes(StandardCharsets.UTF_8);
+    final String noncePrependedToPostData = nonce + postData;
+
+    // Create sha256 hash of nonce and post data:
+    final MessageDigest md = threadLocalSha256.get();
+    md.update(noncePrependedToPostData.getBytes(StandardCharsets.UTF_8));
+    final byte[] messageHash = md.digest();
+
+    // Create hmac_sha512 digest of path and previous sha256 hash
+    final Mac mac = threadLocalMac.get();
+    mac.reset(); // force reset
+    mac.update(pathInBytes);
+    mac.update(messageHash);
+
+    // Signature in Base64
+    return Base64.getEncoder().encodeToString(mac.doFinal());
   }
 
   /*
@@ -1000,8 +1196,8 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
       final byte[] base64DecodedSecret = Base64.getDecoder().decode(secret);
 
       final SecretKeySpec keyspec = new SecretKeySpec(base64DecodedSecret, "HmacSHA512");
-      mac = Mac.getInstance("HmacSHA512");
-      mac.init(keyspec);
+      threadLocalMac = createThreadLocalMac(keyspec);
+      threadLocalSha256 = createThreadLocalMessageDigest("SHA-256");
       initializedMacAuthentication = true;
     } catch (NoSuchAlgorithmException e) {
       final String errorMsg = "Failed to setup MAC security. HINT: Is HmacSHA512 installed?";
@@ -1045,6 +1241,35 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
     } else {
       LOG.info(() -> KEEP_ALIVE_DURING_MAINTENANCE_PROPERTY_NAME + " is not set in exchange.yaml");
     }
+
+    if (isMarketDataFeedEnabled(otherConfig)) {
+      final String marketDataFeedPairs = otherConfig.getItem(MARKET_DATA_FEED_PAIRS_PROPERTY_NAME);
+      LOG.info(() -> MARKET_DATA_FEED_PAIRS_PROPERTY_NAME + ": " + marketDataFeedPairs);
+      setMarketDataFeed(new KrakenMarketDataFeed(parseMarketDataFeedPairs(marketDataFeedPairs)));
+    }
+
+    nonceGenerator = createNonceGenerator(otherConfig, "kraken");
+  }
+
+  /*
+   * The WebSocket API uses different pair names, e.g. XXBTZUSD=XBT/USD, XETHZEUR=ETH/EUR
+   */
+  private static Map<String, String> parseMarketDataFeedPairs(String marketDataFeedPairs) {
+    final Map<String, String> pairsByMarketId = new HashMap<>();
+    if (marketDataFeedPairs == null || marketDataFeedPairs.isEmpty()) {
+      return pairsByMarketId;
+    }
+    for (final String mapping : marketDataFeedPairs.split(",")) {
+      final String[] marketIdAndPair = mapping.split("=");
+      if (marketIdAndPair.length != 2) {
+        final String errorMsg =
+            "Invalid " + MARKET_DATA_FEED_PAIRS_PROPERTY_NAME + " entry: " + mapping;
+        LOG.error(errorMsg);
+        throw new IllegalArgumentException(errorMsg);
+      }
+      pairsByMarketId.put(marketIdAndPair[0].trim(), marketIdAndPair[1].trim());
+    }
+    return pairsByMarketId;
   }
 
   // --------------------------------------------------------------------------
@@ -1093,10 +1318,8 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
                 krakenOpenOrderDescription.price,
                 // vol_exec == amount of order that has been executed
                 (krakenOpenOrder.vol.subtract(krakenOpenOrder.volExec)),
-                krakenOpenOrder.vol, // vol == orig order amount
-                // krakenOpenOrder.cost, // cost == total value of order in API docs, but it's
-                // always 0 :-(
-                krakenOpenOrderDescription.price.multiply(krakenOpenOrder.vol));
+                krakenOpenOrder.vol); // vol == orig order amount
+        // krakenOpenOrder.cost == total value of order in API docs, but it's always 0 :-(
 
         openOrders.add(order);
       }
@@ -1104,45 +1327,6 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
     return openOrders;
   }
 
-  private MarketOrderBookImpl adaptKrakenOrderBook(KrakenResponse krakenResponse, String marketId)
-      throws TradingApiException {
-
-    // Assume we'll always get something here if errors array is empty; else blow fast wih NPE
-    final KrakenMarketOrderBookResult krakenOrderBookResult =
-        (KrakenMarketOrderBookResult) krakenResponse.result;
-    final Optional<KrakenOrderBook> first = krakenOrderBookResult.values().stream().findFirst();
-    if (first.isPresent()) {
-      final KrakenOrderBook krakenOrderBook = first.get();
-
-      final List<MarketOrder> buyOrders = new ArrayList<>();
-      for (KrakenMarketOrder krakenBuyOrder : krakenOrderBook.bids) {
-        final MarketOrder buyOrder =
-            new MarketOrderImpl(
-                OrderType.BUY,
-                krakenBuyOrder.get(0),
-                krakenBuyOrder.get(1),
-                krakenBuyOrder.get(0).multiply(krakenBuyOrder.get(1)));
-        buyOrders.add(buyOrder);
-      }
-
-      final List<MarketOrder> sellOrders = new ArrayList<>();
-      for (KrakenMarketOrder krakenSellOrder : krakenOrderBook.asks) {
-        final MarketOrder sellOrder =
-            new MarketOrderImpl(
-                OrderType.SELL,
-                krakenSellOrder.get(0),
-                krakenSellOrder.get(1),
-                krakenSellOrder.get(0).multiply(krakenSellOrder.get(1)));
-        sellOrders.add(sellOrder);
-      }
-      return new MarketOrderBookImpl(marketId, sellOrders, buyOrders);
-    } else {
-      final String errorMsg = FAILED_TO_GET_MARKET_ORDERS + krakenResponse;
-      LOG.error(errorMsg);
-      throw new TradingApiException(errorMsg);
-    }
-  }
-
   private boolean adaptKrakenCancelOrderResult(KrakenResponse krakenResponse) {
     // Assume we'll always get something here if errors array is empty; else blow fast wih NPE
     final KrakenCancelOrderResult krakenCancelOrderResult =
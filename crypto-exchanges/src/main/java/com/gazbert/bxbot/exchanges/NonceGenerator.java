@@ -0,0 +1,172 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges;
+
+import com.google.common.base.MoreObjects;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Generates the nonces an Exchange Adapter sends in its authenticated requests.
+ *
+ * <p>Exchanges reject a nonce that is not greater than the last one they saw for an API key. Each
+ * nonce is the current time in seconds, or the last nonce + 1 if that is greater, so the nonces
+ * stay close to the clock but never repeat, however fast they are used. Generating a nonce is
+ * lock-free.
+ *
+ * <p>The nonces are persisted to a file so they never regress after a restart, e.g. if more than
+ * one a second was used before the restart, or the clock has been wound back. Rather than writing
+ * every nonce, a small block of nonces is reserved in the file and the file is only written when
+ * the block is used up. After a restart, the nonces start after the last reserved block, so they
+ * are at most a block's worth of seconds ahead of the clock.
+ *
+ * <p>This class is thread safe.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+final class NonceGenerator {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  /**
+   * The number of nonces reserved in the nonce file each time it is written. The nonces are in
+   * seconds, so it is kept small: some exchanges reject nonces too far ahead of the clock.
+   */
+  static final long RESERVED_BLOCK_SIZE = 10;
+
+  private final Path nonceFile;
+  private final LongSupplier clock;
+  private final AtomicLong lastNonce;
+
+  private volatile long reservedUntil;
+
+  /**
+   * Creates a new nonce generator.
+   *
+   * @param nonceFile the file to persist the nonces to; null if they should not be persisted.
+   * @throws IllegalStateException if the nonce file cannot be read.
+   */
+  NonceGenerator(Path nonceFile) {
+    this(nonceFile, () -> System.currentTimeMillis() / 1000);
+  }
+
+  NonceGenerator(Path nonceFile, LongSupplier clock) {
+    this.nonceFile = nonceFile;
+    this.clock = clock;
+    reservedUntil = nonceFile == null ? 0 : readReservedUntil(nonceFile);
+    lastNonce = new AtomicLong(reservedUntil);
+  }
+
+  /**
+   * Returns the next nonce. It is greater than every nonce returned before it, including those
+   * returned before a restart if the nonces are persisted.
+   *
+   * @return the next nonce.
+   * @throws IOException if a new block of nonces has to be reserved and the nonce file cannot be
+   *     written. The nonce is not returned, as it could be reused after a restart.
+   */
+  long next() throws IOException {
+    final long nonce = lastNonce.updateAndGet(last -> Math.max(last + 1, clock.getAsLong()));
+    if (nonceFile != null && nonce > reservedUntil) {
+      reserve(nonce);
+    }
+    return nonce;
+  }
+
+  /*
+   * Only called when a block is used up; the nonce is not returned until it is in the file.
+   */
+  private synchronized void reserve(long nonce) throws IOException {
+    if (nonce <= reservedUntil) {
+      return; // another thread has reserved it
+    }
+    final long newReservedUntil = nonce + RESERVED_BLOCK_SIZE;
+    try {
+      writeReservedUntil(newReservedUntil);
+    } catch (IOException e) {
+      LOG.error("Failed to persist nonces to " + nonceFile, e);
+      throw e;
+    }
+    reservedUntil = newReservedUntil;
+  }
+
+  private static long readReservedUntil(Path nonceFile) {
+    if (!Files.exists(nonceFile)) {
+      LOG.info(() -> "No nonces persisted yet in " + nonceFile);
+      return 0;
+    }
+    try {
+      final String reservedUntil =
+          new String(Files.readAllBytes(nonceFile), StandardCharsets.UTF_8).trim();
+      LOG.info(() -> "Nonces reserved until " + reservedUntil + " in " + nonceFile);
+      return Long.parseLong(reservedUntil);
+    } catch (IOException | NumberFormatException e) {
+      final String errorMsg = "Failed to read persisted nonces from " + nonceFile;
+      LOG.error(errorMsg, e);
+      throw new IllegalStateException(errorMsg, e);
+    }
+  }
+
+  /*
+   * Writes to a temp file and moves it over the nonce file, so a crash mid-write cannot leave a
+   * truncated nonce file behind.
+   */
+  private void writeReservedUntil(long newReservedUntil) throws IOException {
+    final Path directory = nonceFile.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    final Path tempFile = Files.createTempFile(directory, nonceFile.getFileName().toString(), null);
+    try {
+      Files.write(
+          tempFile,
+          Long.toString(newReservedUntil).getBytes(StandardCharsets.UTF_8),
+          StandardOpenOption.WRITE,
+          StandardOpenOption.DSYNC);
+      Files.move(
+          tempFile,
+          nonceFile,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("nonceFile", nonceFile)
+        .add("lastNonce", lastNonce.get())
+        .add("reservedUntil", reservedUntil)
+        .toString();
+  }
+}
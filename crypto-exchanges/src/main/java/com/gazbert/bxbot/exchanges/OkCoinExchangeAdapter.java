@@ -60,6 +60,8 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -111,9 +113,15 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
   private static final String UNEXPECTED_IO_ERROR_MSG =
       "Failed to connect to Exchange due to unexpected IO error.";
 
+  /** The API methods that create or cancel orders; they have their own rate limit. */
+  private static final Set<String> TRADING_API_METHODS = Set.of("trade.do", "cancel_order.do");
+
   private static final String SYMBOL = "symbol";
   private static final String ORDER_ID = "orderId";
 
+  /** OkCoin returns at most 200 orders per side of the order book. */
+  private static final int MAX_DEPTH_SIZE = 200;
+
   private static final String KEY_PROPERTY_NAME = "key";
   private static final String SECRET_PROPERTY_NAME = "secret";
 
@@ -126,7 +134,7 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
   private String key = "";
   private String secret = "";
 
-  private MessageDigest messageDigest;
+  private ThreadLocal<MessageDigest> threadLocalMd5;
   private boolean initializedSecureMessagingLayer = false;
 
   private Gson gson;
@@ -270,9 +278,7 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
                   orderType,
                   openOrder.price,
                   openOrder.amount,
-                  null, // orig_quantity - not provided by OKCoin :-(
-                  openOrder.price.multiply(openOrder.amount) // total - not provided by OKCoin :-(
-                  );
+                  null); // orig_quantity and total - not provided by OKCoin :-(
 
           ordersToReturn.add(order);
         }
@@ -297,44 +303,22 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
   @Override
   public MarketOrderBook getMarketOrders(String marketId)
       throws TradingApiException, ExchangeNetworkException {
+    return getMarketOrders(marketId, FULL_DEPTH);
+  }
+
+  @Override
+  public MarketOrderBook getMarketOrders(String marketId, int depth)
+      throws TradingApiException, ExchangeNetworkException {
+    assertValidDepth(depth);
     try {
       final Map<String, String> params = createRequestParamMap();
       params.put(SYMBOL, marketId);
-
-      final ExchangeHttpResponse response = sendPublicRequestToExchange("depth.do", params);
-      LOG.debug(() -> "Market Orders response: " + response);
-
-      final OkCoinDepthWrapper orderBook =
-          gson.fromJson(response.getPayload(), OkCoinDepthWrapper.class);
-
-      final List<MarketOrder> buyOrders = new ArrayList<>();
-      for (OkCoinMarketOrder okCoinBuyOrder : orderBook.bids) {
-        final MarketOrder buyOrder =
-            new MarketOrderImpl(
-                OrderType.BUY,
-                okCoinBuyOrder.get(0),
-                okCoinBuyOrder.get(1),
-                okCoinBuyOrder.get(0).multiply(okCoinBuyOrder.get(1)));
-        buyOrders.add(buyOrder);
-      }
-
-      final List<MarketOrder> sellOrders = new ArrayList<>();
-      for (OkCoinMarketOrder okCoinSellOrder : orderBook.asks) {
-        final MarketOrder sellOrder =
-            new MarketOrderImpl(
-                OrderType.SELL,
-                okCoinSellOrder.get(0),
-                okCoinSellOrder.get(1),
-                okCoinSellOrder.get(0).multiply(okCoinSellOrder.get(1)));
-        sellOrders.add(sellOrder);
+      if (depth != FULL_DEPTH) {
+        params.put("size", String.valueOf(Math.min(depth, MAX_DEPTH_SIZE)));
       }
 
-      // For some reason, OKCoin sorts ask orders in descending order instead of ascending.
-      // We need to re-order price ascending - lowest ASK price will be first in list.
-      sellOrders.sort(
-          (thisOrder, thatOrder) ->
-              Integer.compare(thisOrder.getPrice().compareTo(thatOrder.getPrice()), 0));
-      return new MarketOrderBookImpl(marketId, sellOrders, buyOrders);
+      final ExchangeHttpResponse response = sendPublicRequestToExchange("depth.do", params);
+      return adaptMarketOrders(marketId, response, depth);
 
     } catch (ExchangeNetworkException | TradingApiException e) {
       throw e;
@@ -345,6 +329,61 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
     }
   }
 
+  @Override
+  public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId) {
+    return getMarketOrdersAsync(marketId, FULL_DEPTH);
+  }
+
+  @Override
+  public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId, int depth) {
+    assertValidDepth(depth);
+    final Map<String, String> params = createRequestParamMap();
+    params.put(SYMBOL, marketId);
+    if (depth != FULL_DEPTH) {
+      params.put("size", String.valueOf(Math.min(depth, MAX_DEPTH_SIZE)));
+    }
+
+    return adaptResponseAsync(
+        sendPublicRequestToExchangeAsync("depth.do", params),
+        response -> adaptMarketOrders(marketId, response, depth),
+        UNEXPECTED_ERROR_MSG);
+  }
+
+  private MarketOrderBook adaptMarketOrders(
+      String marketId, ExchangeHttpResponse response, int depth) {
+    LOG.debug(() -> "Market Orders response: " + response);
+
+    final OkCoinDepthWrapper orderBook =
+        gson.fromJson(response.getPayload(), OkCoinDepthWrapper.class);
+
+    final List<MarketOrder> buyOrders = new ArrayList<>();
+    for (OkCoinMarketOrder okCoinBuyOrder : limitDepth(orderBook.bids, depth)) {
+      final MarketOrder buyOrder =
+          new MarketOrderImpl(
+              OrderType.BUY,
+              okCoinBuyOrder.get(0),
+              okCoinBuyOrder.get(1));
+      buyOrders.add(buyOrder);
+    }
+
+    final List<MarketOrder> sellOrders = new ArrayList<>();
+    for (OkCoinMarketOrder okCoinSellOrder : orderBook.asks) {
+      final MarketOrder sellOrder =
+          new MarketOrderImpl(
+              OrderType.SELL,
+              okCoinSellOrder.get(0),
+              okCoinSellOrder.get(1));
+      sellOrders.add(sellOrder);
+    }
+
+    // For some reason, OKCoin sorts ask orders in descending order instead of ascending.
+    // We need to re-order price ascending - lowest ASK price will be first in list.
+    sellOrders.sort(
+        (thisOrder, thatOrder) ->
+            Integer.compare(thisOrder.getPrice().compareTo(thatOrder.getPrice()), 0));
+    return new MarketOrderBookImpl(marketId, limitDepth(sellOrders, depth), buyOrders);
+  }
+
   @Override
   public BigDecimal getLatestMarketPrice(String marketId)
       throws ExchangeNetworkException, TradingApiException {
@@ -353,11 +392,7 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
       params.put(SYMBOL, marketId);
 
       final ExchangeHttpResponse response = sendPublicRequestToExchange("ticker.do", params);
-      LOG.debug(() -> "Latest Market Price response: " + response);
-
-      final OkCoinTickerWrapper tickerWrapper =
-          gson.fromJson(response.getPayload(), OkCoinTickerWrapper.class);
-      return tickerWrapper.ticker.last;
+      return adaptLatestMarketPrice(response);
 
     } catch (ExchangeNetworkException | TradingApiException e) {
       throw e;
@@ -368,6 +403,25 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
     }
   }
 
+  @Override
+  public CompletableFuture<BigDecimal> getLatestMarketPriceAsync(String marketId) {
+    final Map<String, String> params = createRequestParamMap();
+    params.put(SYMBOL, marketId);
+
+    return adaptResponseAsync(
+        sendPublicRequestToExchangeAsync("ticker.do", params),
+        this::adaptLatestMarketPrice,
+        UNEXPECTED_ERROR_MSG);
+  }
+
+  private BigDecimal adaptLatestMarketPrice(ExchangeHttpResponse response) {
+    LOG.debug(() -> "Latest Market Price response: " + response);
+
+    final OkCoinTickerWrapper tickerWrapper =
+        gson.fromJson(response.getPayload(), OkCoinTickerWrapper.class);
+    return tickerWrapper.ticker.last;
+  }
+
   @Override
   public BalanceInfo getBalanceInfo() throws TradingApiException, ExchangeNetworkException {
     try {
@@ -694,22 +748,12 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
     final Map<String, String> requestHeaders = createHeaderParamMap();
 
     try {
-      final StringBuilder queryString = new StringBuilder();
       if (!params.isEmpty()) {
-        queryString.append("?");
-        for (final Map.Entry<String, String> param : params.entrySet()) {
-          if (queryString.length() > 1) {
-            queryString.append("&");
-          }
-          queryString.append(param.getKey());
-          queryString.append("=");
-          queryString.append(URLEncoder.encode(param.getValue(), StandardCharsets.UTF_8));
-        }
-
         requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
       }
 
-      final URL url = new URL(PUBLIC_API_BASE_URL + apiMethod + queryString);
+      final URL url = createPublicRequestUrl(apiMethod, params);
+      acquireRateLimitPermit(ApiCallType.PUBLIC);
       return makeNetworkRequest(url, "GET", null, requestHeaders);
 
     } catch (MalformedURLException e) {
@@ -719,6 +763,50 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
     }
   }
 
+  private CompletableFuture<ExchangeHttpResponse> sendPublicRequestToExchangeAsync(
+      String apiMethod, Map<String, String> params) {
+
+    if (params == null) {
+      params = createRequestParamMap(); // no params, so empty query string
+    }
+
+    final Map<String, String> requestHeaders = createHeaderParamMap();
+
+    try {
+      if (!params.isEmpty()) {
+        requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
+      }
+
+      final URL url = createPublicRequestUrl(apiMethod, params);
+      return sendRateLimitedAsync(
+          ApiCallType.PUBLIC,
+          getAsyncExecutor(),
+          () -> sendNetworkRequestAsync(url, "GET", null, requestHeaders, getAsyncExecutor()));
+
+    } catch (MalformedURLException e) {
+      final String errorMsg = UNEXPECTED_IO_ERROR_MSG;
+      LOG.error(errorMsg, e);
+      return CompletableFuture.failedFuture(new TradingApiException(errorMsg, e));
+    }
+  }
+
+  private URL createPublicRequestUrl(String apiMethod, Map<String, String> params)
+      throws MalformedURLException {
+    final StringBuilder queryString = new StringBuilder();
+    if (!params.isEmpty()) {
+      queryString.append("?");
+      for (final Map.Entry<String, String> param : params.entrySet()) {
+        if (queryString.length() > 1) {
+          queryString.append("&");
+        }
+        queryString.append(param.getKey());
+        queryString.append("=");
+        queryString.append(URLEncoder.encode(param.getValue(), StandardCharsets.UTF_8));
+      }
+    }
+    return new URL(PUBLIC_API_BASE_URL + apiMethod + queryString);
+  }
+
   /*
    * Makes an authenticated API call to the OkCoin exchange.
    *
@@ -747,6 +835,9 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
    * Note: '&secret_key=secretKey' is a must.
    * Use 32 bit MD5 encryption function to sign the string. Pass the encrypted string to 'sign'
    * parameter. Letters of the encrypted string must be in upper case.
+   *
+   * Not synchronized, so authenticated calls can be made in parallel: each thread hashes with its
+   * own MessageDigest.
    */
   private ExchangeHttpResponse sendAuthenticatedRequestToExchange(
       String apiMethod, Map<String, String> params)
@@ -758,6 +849,9 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
       throw new IllegalStateException(errorMsg);
     }
 
+    acquireRateLimitPermit(
+        TRADING_API_METHODS.contains(apiMethod) ? ApiCallType.TRADING : ApiCallType.PRIVATE);
+
     try {
       if (params == null) {
         params = createRequestParamMap();
@@ -766,16 +860,7 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
       // we always need the API key
       params.put("api_key", key);
 
-      String sortedQueryString = createAlphabeticallySortedQueryString(params);
-      if (LOG.isDebugEnabled()) {
-        LOG.debug("Sorted Query String without secret: {}", sortedQueryString);
-      }
-
-      // Add secret key to Query String
-      sortedQueryString += "&secret_key=" + secret;
-
-      final String signature = createMd5HashAndReturnAsUpperCaseString(sortedQueryString);
-      params.put("sign", signature);
+      params.put("sign", createSignature(params));
 
       // Build the payload with all the param args in it
       final StringBuilder payload = new StringBuilder();
@@ -802,6 +887,22 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
     }
   }
 
+  /*
+   * The signature is an MD5 hash of the alphabetically sorted params with the secret key appended.
+   * Package-private for the benchmarks.
+   */
+  String createSignature(Map<String, String> params) {
+    String sortedQueryString = createAlphabeticallySortedQueryString(params);
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Sorted Query String without secret: {}", sortedQueryString);
+    }
+
+    // Add secret key to Query String
+    sortedQueryString += "&secret_key=" + secret;
+
+    return createMd5HashAndReturnAsUpperCaseString(sortedQueryString);
+  }
+
   private String createMd5HashAndReturnAsUpperCaseString(String stringToHash) {
     final char[] hexDigits = {
       '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'
@@ -810,6 +911,7 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
       return "";
     }
 
+    final MessageDigest messageDigest = threadLocalMd5.get();
     messageDigest.update(stringToHash.getBytes(StandardCharsets.UTF_8));
     final byte[] md5HashInBytes = messageDigest.digest();
 
@@ -830,7 +932,7 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
    */
   private void initSecureMessageLayer() {
     try {
-      messageDigest = MessageDigest.getInstance("MD5");
+      threadLocalMd5 = createThreadLocalMessageDigest("MD5");
       initializedSecureMessagingLayer = true;
     } catch (NoSuchAlgorithmException e) {
       final String errorMsg =
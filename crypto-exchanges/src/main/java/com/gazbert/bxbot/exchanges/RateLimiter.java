@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges;
+
+import com.google.common.base.MoreObjects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket rate limiter for a class of Exchange API calls.
+ *
+ * <p>The bucket holds up to burst permits and refills at a steady rate; each request takes one
+ * permit. A request that finds the bucket empty reserves the next permit and waits until it is due,
+ * so concurrent callers queue in order and the exchange sees a steady request rate. A request that
+ * would have to wait longer than the max wait is refused without reserving anything.
+ *
+ * @author gazbert
+ */
+final class RateLimiter {
+
+  private final double permitsPerNano;
+  private final double maxPermits;
+  private final LongSupplier nanoClock;
+
+  // guarded by this; negative when permits have been reserved ahead of time
+  private double storedPermits;
+  private long lastRefillNanos;
+
+  /**
+   * Creates a new rate limiter with a full bucket.
+   *
+   * @param requestsPerSecond the sustained number of requests allowed per second.
+   * @param burst the number of requests that can be sent at once after a quiet spell.
+   */
+  RateLimiter(double requestsPerSecond, int burst) {
+    this(requestsPerSecond, burst, System::nanoTime);
+  }
+
+  RateLimiter(double requestsPerSecond, int burst, LongSupplier nanoClock) {
+    if (requestsPerSecond <= 0 || burst < 1) {
+      throw new IllegalArgumentException(
+          "Rate limit must have requestsPerSecond > 0 and burst >= 1 but was "
+              + requestsPerSecond
+              + " and "
+              + burst);
+    }
+    this.permitsPerNano = requestsPerSecond / TimeUnit.SECONDS.toNanos(1);
+    this.maxPermits = burst;
+    this.nanoClock = nanoClock;
+    storedPermits = burst;
+    lastRefillNanos = nanoClock.getAsLong();
+  }
+
+  /**
+   * Reserves a permit if one is available within the max wait.
+   *
+   * @param maxWaitNanos the longest the caller is prepared to wait.
+   * @return the nanos the caller must wait before sending its request, or -1 if the permit is not
+   *     available within the max wait.
+   */
+  synchronized long reserve(long maxWaitNanos) {
+    final long now = nanoClock.getAsLong();
+    storedPermits = Math.min(maxPermits, storedPermits + (now - lastRefillNanos) * permitsPerNano);
+    lastRefillNanos = now;
+
+    final long waitNanos =
+        storedPermits >= 1 ? 0 : (long) Math.ceil((1 - storedPermits) / permitsPerNano);
+    if (waitNanos > maxWaitNanos) {
+      return -1;
+    }
+    storedPermits -= 1;
+    return waitNanos;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("requestsPerSecond", permitsPerNano * TimeUnit.SECONDS.toNanos(1))
+        .add("burst", (int) maxPermits)
+        .toString();
+  }
+}
@@ -0,0 +1,304 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges;
+
+import com.gazbert.crypto.exchange.api.ExchangeAdapter;
+import com.gazbert.crypto.exchange.api.ExchangeConfig;
+import com.gazbert.crypto.exchange.api.OtherConfig;
+import com.gazbert.crypto.exchanges.simulator.LiquidityProvider;
+import com.gazbert.crypto.exchanges.simulator.MatchingEngine;
+import com.gazbert.crypto.trading.api.BalanceInfo;
+import com.gazbert.crypto.trading.api.MarketOrderBook;
+import com.gazbert.crypto.trading.api.OpenOrder;
+import com.gazbert.crypto.trading.api.OrderType;
+import com.gazbert.crypto.trading.api.Ticker;
+import com.gazbert.crypto.trading.api.TradingApi;
+import com.gazbert.crypto.trading.api.TradingApiException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Exchange Adapter for an in-process simulated exchange. It makes no network calls.
+ *
+ * <p>Orders are matched by a {@link MatchingEngine} with a limit order book per market, using
+ * price-time priority. Orders fill against resting orders at the resting order's price, the
+ * exchange fees are taken, and the bot's balances are updated as they would be on a real exchange.
+ * An order the bot's balances cannot fund is rejected with a {@link TradingApiException}.
+ *
+ * <p>The markets, the bot's opening balances and the fees are set in the exchange.yaml otherConfig.
+ * If a market has a liquidity price, a {@link LiquidityProvider} quotes a ladder of orders either
+ * side of it, and requotes around the last trade price whenever the market trades.
+ *
+ * <p>Order ids are a sequence and nothing depends on the network, so the same strategy run against
+ * the same config makes the same trades every time. This makes the adapter handy for load testing
+ * the Trading Engine and strategies, and for comparing strategy P&amp;L between runs.
+ *
+ * <p>The Exchange Adapter is thread safe.
+ *
+ * <p>The {@link TradingApi} calls will throw a {@link TradingApiException} if the simulated
+ * exchange rejects the call, e.g. for an unknown market.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class SimulatedExchangeAdapter extends AbstractExchangeAdapter
+    implements ExchangeAdapter {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  /** The simulated exchange account the bot trades from. */
+  static final String ACCOUNT_ID = "bot";
+
+  private static final String MARKETS_PROPERTY_NAME = "markets";
+  private static final String BALANCES_PROPERTY_NAME = "balances";
+  private static final String BUY_FEE_PROPERTY_NAME = "buy-fee";
+  private static final String SELL_FEE_PROPERTY_NAME = "sell-fee";
+  private static final String LIQUIDITY_PRICES_PROPERTY_NAME = "liquidity-prices";
+  private static final String LIQUIDITY_LEVELS_PROPERTY_NAME = "liquidity-levels";
+  private static final String LIQUIDITY_SPREAD_PROPERTY_NAME = "liquidity-spread";
+  private static final String LIQUIDITY_QUANTITY_PROPERTY_NAME = "liquidity-quantity";
+
+  private static final String DEFAULT_LIQUIDITY_LEVELS = "10";
+  private static final String DEFAULT_LIQUIDITY_SPREAD = "0.1";
+  private static final String DEFAULT_LIQUIDITY_QUANTITY = "1";
+
+  private MatchingEngine matchingEngine;
+  private LiquidityProvider liquidityProvider;
+
+  @Override
+  public void init(ExchangeConfig config) {
+    LOG.info(() -> "About to initialise Simulated ExchangeConfig: " + config);
+    setOtherConfig(config);
+  }
+
+  // --------------------------------------------------------------------------
+  // Simulated exchange calls adapted to the Trading API.
+  // --------------------------------------------------------------------------
+
+  @Override
+  public String createOrder(
+      String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price)
+      throws TradingApiException {
+    try {
+      synchronized (matchingEngine) {
+        final String orderId =
+            matchingEngine.submitOrder(ACCOUNT_ID, marketId, orderType, quantity, price);
+        liquidityProvider.requoteIfTraded(marketId);
+        return orderId;
+      }
+    } catch (IllegalArgumentException e) {
+      throw rejected(e);
+    }
+  }
+
+  /*
+   * marketId is not needed for cancelling orders on this exchange.
+   */
+  @Override
+  public boolean cancelOrder(String orderId, String marketIdNotNeeded) {
+    return matchingEngine.cancelOrder(ACCOUNT_ID, orderId);
+  }
+
+  @Override
+  public List<OpenOrder> getYourOpenOrders(String marketId) {
+    return matchingEngine.getOpenOrders(ACCOUNT_ID, marketId);
+  }
+
+  @Override
+  public MarketOrderBook getMarketOrders(String marketId) throws TradingApiException {
+    return getMarketOrders(marketId, FULL_DEPTH);
+  }
+
+  @Override
+  public MarketOrderBook getMarketOrders(String marketId, int depth) throws TradingApiException {
+    assertValidDepth(depth);
+    try {
+      return matchingEngine.getMarketOrders(marketId, depth);
+    } catch (IllegalArgumentException e) {
+      throw rejected(e);
+    }
+  }
+
+  @Override
+  public BigDecimal getLatestMarketPrice(String marketId) throws TradingApiException {
+    try {
+      final BigDecimal lastTradePrice = matchingEngine.getLastTradePrice(marketId);
+      if (lastTradePrice != null) {
+        return lastTradePrice;
+      }
+    } catch (IllegalArgumentException e) {
+      throw rejected(e);
+    }
+    final BigDecimal referencePrice = liquidityProvider.getReferencePrice(marketId);
+    if (referencePrice == null) {
+      final String errorMsg = "No trades or liquidity price yet for market: " + marketId;
+      LOG.error(errorMsg);
+      throw new TradingApiException(errorMsg);
+    }
+    return referencePrice;
+  }
+
+  @Override
+  public Ticker getTicker(String marketId) throws TradingApiException {
+    try {
+      return matchingEngine.getTicker(marketId);
+    } catch (IllegalArgumentException e) {
+      throw rejected(e);
+    }
+  }
+
+  @Override
+  public BalanceInfo getBalanceInfo() {
+    return matchingEngine.getBalanceInfo(ACCOUNT_ID);
+  }
+
+  @Override
+  public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId) {
+    return matchingEngine.getBuyFeePercentage();
+  }
+
+  @Override
+  public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId) {
+    return matchingEngine.getSellFeePercentage();
+  }
+
+  @Override
+  public String getImplName() {
+    return "Simulated Exchange - in-process price-time priority matching engine";
+  }
+
+  /**
+   * Returns the matching engine, e.g. for tests to trade against the bot from another account.
+   *
+   * @return the matching engine.
+   */
+  MatchingEngine getMatchingEngine() {
+    return matchingEngine;
+  }
+
+  // --------------------------------------------------------------------------
+  //  Config methods
+  // --------------------------------------------------------------------------
+
+  private void setOtherConfig(ExchangeConfig exchangeConfig) {
+    final OtherConfig otherConfig = getOtherConfig(exchangeConfig);
+
+    final BigDecimal buyFeePercentage =
+        toFeePercentage(getOtherConfigItem(otherConfig, BUY_FEE_PROPERTY_NAME));
+    LOG.info(() -> "Buy fee % in BigDecimal format: " + buyFeePercentage);
+    final BigDecimal sellFeePercentage =
+        toFeePercentage(getOtherConfigItem(otherConfig, SELL_FEE_PROPERTY_NAME));
+    LOG.info(() -> "Sell fee % in BigDecimal format: " + sellFeePercentage);
+    matchingEngine = new MatchingEngine(buyFeePercentage, sellFeePercentage);
+
+    final Map<String, String> markets =
+        parseItemMap(
+            MARKETS_PROPERTY_NAME, getOtherConfigItem(otherConfig, MARKETS_PROPERTY_NAME));
+    for (final Map.Entry<String, String> market : markets.entrySet()) {
+      final String[] currencies = market.getValue().split("/");
+      if (currencies.length != 2) {
+        final String errorMsg =
+            "Invalid " + MARKETS_PROPERTY_NAME + " entry, expected BASE/COUNTER: " + market;
+        LOG.error(errorMsg);
+        throw new IllegalArgumentException(errorMsg);
+      }
+      matchingEngine.addMarket(market.getKey(), currencies[0].trim(), currencies[1].trim());
+    }
+
+    final String balances = otherConfig.getItem(BALANCES_PROPERTY_NAME);
+    LOG.info(() -> BALANCES_PROPERTY_NAME + ": " + balances);
+    for (final Map.Entry<String, String> balance :
+        parseItemMap(BALANCES_PROPERTY_NAME, balances).entrySet()) {
+      matchingEngine.deposit(ACCOUNT_ID, balance.getKey(), new BigDecimal(balance.getValue()));
+    }
+
+    liquidityProvider =
+        new LiquidityProvider(
+            matchingEngine,
+            Integer.parseInt(
+                getOptionalItem(
+                    otherConfig, LIQUIDITY_LEVELS_PROPERTY_NAME, DEFAULT_LIQUIDITY_LEVELS)),
+            new BigDecimal(
+                getOptionalItem(
+                    otherConfig, LIQUIDITY_SPREAD_PROPERTY_NAME, DEFAULT_LIQUIDITY_SPREAD)),
+            new BigDecimal(
+                getOptionalItem(
+                    otherConfig, LIQUIDITY_QUANTITY_PROPERTY_NAME, DEFAULT_LIQUIDITY_QUANTITY)));
+
+    final String liquidityPrices = otherConfig.getItem(LIQUIDITY_PRICES_PROPERTY_NAME);
+    LOG.info(() -> LIQUIDITY_PRICES_PROPERTY_NAME + ": " + liquidityPrices);
+    for (final Map.Entry<String, String> liquidityPrice :
+        parseItemMap(LIQUIDITY_PRICES_PROPERTY_NAME, liquidityPrices).entrySet()) {
+      liquidityProvider.addMarket(
+          liquidityPrice.getKey(), new BigDecimal(liquidityPrice.getValue()));
+    }
+  }
+
+  // --------------------------------------------------------------------------
+  //  Util methods
+  // --------------------------------------------------------------------------
+
+  private static BigDecimal toFeePercentage(String feeInConfig) {
+    return new BigDecimal(feeInConfig).divide(new BigDecimal("100"), 8, RoundingMode.HALF_UP);
+  }
+
+  private static String getOptionalItem(
+      OtherConfig otherConfig, String itemName, String defaultValue) {
+    final String itemValue = otherConfig.getItem(itemName);
+    final String value = itemValue == null || itemValue.isBlank() ? defaultValue : itemValue;
+    LOG.info(() -> itemName + ": " + value);
+    return value;
+  }
+
+  /*
+   * Parses a comma separated list of key=value entries, e.g. btcusd=BTC/USD, ltcusd=LTC/USD
+   */
+  private static Map<String, String> parseItemMap(String itemName, String itemValue) {
+    final Map<String, String> entries = new LinkedHashMap<>();
+    if (itemValue == null || itemValue.isBlank()) {
+      return entries;
+    }
+    for (final String entry : itemValue.split(",")) {
+      final String[] keyAndValue = entry.split("=");
+      if (keyAndValue.length != 2) {
+        final String errorMsg = "Invalid " + itemName + " entry: " + entry;
+        LOG.error(errorMsg);
+        throw new IllegalArgumentException(errorMsg);
+      }
+      entries.put(keyAndValue[0].trim(), keyAndValue[1].trim());
+    }
+    return entries;
+  }
+
+  private static TradingApiException rejected(IllegalArgumentException e) {
+    final String errorMsg = "Simulated exchange rejected the call: " + e.getMessage();
+    LOG.error(errorMsg, e);
+    return new TradingApiException(errorMsg, e);
+  }
+}
@@ -40,7 +40,8 @@ import java.util.UUID;
  * <p>Makes public calls to the Bitstamp exchange. It does not trade. All private (authenticated)
  * requests are stubbed.
  *
- * <p>Might be handy for 'dry testing' your algos.
+ * <p>Might be handy for 'dry testing' your algos. To see your orders fill without touching an
+ * exchange, use the {@link SimulatedExchangeAdapter} instead.
  *
  * @author gazbert
  * @since 1.0
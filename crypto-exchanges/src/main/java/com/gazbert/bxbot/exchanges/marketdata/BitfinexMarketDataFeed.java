@@ -0,0 +1,228 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.marketdata;
+
+import com.gazbert.crypto.exchanges.trading.api.impl.TickerImpl;
+import com.gazbert.crypto.trading.api.OrderType;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Market Data Feed for Bitfinex's public WebSocket API (v2).
+ *
+ * <p>Subscribes to the book and ticker channels for each market. The connection is configured with
+ * the SEQ_ALL flag so every message carries a sequence number; the local books are resynced if a
+ * message is missed.
+ *
+ * @author gazbert
+ */
+public final class BitfinexMarketDataFeed extends MarketDataFeed {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final String WEBSOCKET_URI = "wss://api-pub.bitfinex.com/ws/2";
+  private static final int BOOK_DEPTH = 100;
+
+  /** Adds a sequence number to every message. */
+  private static final int SEQ_ALL_FLAG = 65536;
+
+  /** Info codes Bitfinex sends when clients must reconnect, e.g. for a server restart. */
+  private static final List<Integer> RECONNECT_INFO_CODES = List.of(20051, 20060);
+
+  private static final String HEARTBEAT = "hb";
+
+  private final Map<String, String> marketIdsBySymbol = new ConcurrentHashMap<>();
+
+  // Per connection state, reset each time the connection opens.
+  private final Map<Integer, String> bookChannels = new ConcurrentHashMap<>();
+  private final Map<Integer, String> tickerChannels = new ConcurrentHashMap<>();
+  private long lastSequence;
+
+  /** Creates a new Bitfinex Market Data Feed. */
+  public BitfinexMarketDataFeed() {
+    this(URI.create(WEBSOCKET_URI), DEFAULT_RECONNECT_DELAY);
+  }
+
+  BitfinexMarketDataFeed(URI uri, Duration reconnectDelay) {
+    super(uri, BOOK_DEPTH, reconnectDelay, DEFAULT_STALE_TIMEOUT);
+  }
+
+  @Override
+  List<String> createConnectMessages() {
+    final JsonObject conf = new JsonObject();
+    conf.addProperty("event", "conf");
+    conf.addProperty("flags", SEQ_ALL_FLAG);
+    return List.of(conf.toString());
+  }
+
+  @Override
+  void resetConnectionState() {
+    bookChannels.clear();
+    tickerChannels.clear();
+    lastSequence = 0;
+  }
+
+  /* The v2 API uses trading symbols, e.g. tBTCUSD, where the v1 REST API uses btcusd. */
+  @Override
+  List<String> createSubscribeMessages(String marketId) {
+    final String symbol = "t" + marketId.toUpperCase(Locale.ROOT);
+    marketIdsBySymbol.put(symbol, marketId);
+
+    final JsonObject book = createSubscribeMessage("book", symbol);
+    book.addProperty("prec", "P0");
+    book.addProperty("freq", "F0");
+    book.addProperty("len", String.valueOf(BOOK_DEPTH));
+    return List.of(book.toString(), createSubscribeMessage("ticker", symbol).toString());
+  }
+
+  /*
+   * Events are objects, e.g. {"event":"subscribed","channel":"book","chanId":10961, ...}
+   * Channel messages are arrays: [chanId, data, sequence]
+   */
+  @Override
+  void handleMessage(String message) {
+    final JsonElement json = JsonParser.parseString(message);
+    if (json.isJsonObject()) {
+      handleEvent(json.getAsJsonObject());
+      return;
+    }
+
+    final JsonArray channelMessage = json.getAsJsonArray();
+    final long sequence = channelMessage.get(channelMessage.size() - 1).getAsLong();
+    if (lastSequence != 0 && sequence != lastSequence + 1) {
+      resync("expected sequence " + (lastSequence + 1) + " but got " + sequence);
+      return;
+    }
+    lastSequence = sequence;
+
+    final JsonElement data = channelMessage.get(1);
+    if (data.isJsonPrimitive() && HEARTBEAT.equals(data.getAsString())) {
+      return;
+    }
+
+    final int channelId = channelMessage.get(0).getAsInt();
+    final String bookMarketId = bookChannels.get(channelId);
+    if (bookMarketId != null) {
+      handleBook(bookMarketId, data.getAsJsonArray());
+      return;
+    }
+    final String tickerMarketId = tickerChannels.get(channelId);
+    if (tickerMarketId != null) {
+      handleTicker(tickerMarketId, data.getAsJsonArray());
+    }
+  }
+
+  private void handleEvent(JsonObject event) {
+    switch (event.get("event").getAsString()) {
+      case "subscribed":
+        final String marketId = marketIdsBySymbol.get(event.get("symbol").getAsString());
+        final int channelId = event.get("chanId").getAsInt();
+        if ("book".equals(event.get("channel").getAsString())) {
+          bookChannels.put(channelId, marketId);
+        } else {
+          tickerChannels.put(channelId, marketId);
+        }
+        break;
+      case "info":
+        if (event.has("code") && RECONNECT_INFO_CODES.contains(event.get("code").getAsInt())) {
+          resync("exchange asked for reconnect: " + event);
+        }
+        break;
+      case "error":
+        LOG.error(() -> "Market data error: " + event);
+        break;
+      default:
+        break;
+    }
+  }
+
+  /* A snapshot is an array of levels; an update is a single level. */
+  private void handleBook(String marketId, JsonArray data) {
+    final LocalOrderBook orderBook = getOrderBook(marketId);
+    if (data.size() == 0 || data.get(0).isJsonArray()) {
+      orderBook.clear();
+      for (final JsonElement level : data) {
+        applyLevel(orderBook, level.getAsJsonArray());
+      }
+      orderBook.setSynced(true);
+      return;
+    }
+
+    if (!orderBook.isSynced()) {
+      resync("book update received before snapshot for " + marketId);
+      return;
+    }
+    applyLevel(orderBook, data);
+  }
+
+  /*
+   * Level is [price, count, amount]: amount > 0 is a bid, amount < 0 is an ask.
+   * A count of 0 removes the level: amount is then 1 for a bid or -1 for an ask.
+   */
+  private static void applyLevel(LocalOrderBook orderBook, JsonArray level) {
+    final BigDecimal price = level.get(0).getAsBigDecimal();
+    final int count = level.get(1).getAsInt();
+    final BigDecimal amount = level.get(2).getAsBigDecimal();
+    final OrderType orderType = amount.signum() > 0 ? OrderType.BUY : OrderType.SELL;
+    orderBook.update(orderType, price, count == 0 ? BigDecimal.ZERO : amount.abs());
+  }
+
+  /*
+   * Ticker is [BID, BID_SIZE, ASK, ASK_SIZE, DAILY_CHANGE, DAILY_CHANGE_RELATIVE, LAST_PRICE,
+   * VOLUME, HIGH, LOW]
+   */
+  private void handleTicker(String marketId, JsonArray ticker) {
+    updateTicker(
+        marketId,
+        new TickerImpl(
+            ticker.get(6).getAsBigDecimal(),
+            ticker.get(0).getAsBigDecimal(),
+            ticker.get(2).getAsBigDecimal(),
+            ticker.get(9).getAsBigDecimal(),
+            ticker.get(8).getAsBigDecimal(),
+            null, // open not supplied by Bitfinex
+            ticker.get(7).getAsBigDecimal(),
+            null, // vwap not supplied by Bitfinex
+            null)); // timestamp not supplied by Bitfinex
+  }
+
+  private static JsonObject createSubscribeMessage(String channel, String symbol) {
+    final JsonObject message = new JsonObject();
+    message.addProperty("event", "subscribe");
+    message.addProperty("channel", channel);
+    message.addProperty("symbol", symbol);
+    return message;
+  }
+}
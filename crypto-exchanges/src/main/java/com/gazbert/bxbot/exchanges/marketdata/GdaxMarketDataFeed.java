@@ -0,0 +1,192 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.marketdata;
+
+import com.gazbert.crypto.exchanges.trading.api.impl.TickerImpl;
+import com.gazbert.crypto.trading.api.OrderType;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Market Data Feed for GDAX's (Coinbase Pro) public WebSocket API.
+ *
+ * <p>Subscribes to the level2, ticker, and heartbeat channels for each market. The level2 channel
+ * sends a full snapshot and then every change to the aggregated book, so the local book holds every
+ * price level.
+ *
+ * <p>level2 messages carry no sequence numbers, so a missed message cannot be detected directly.
+ * Instead the local book is resynced if an update arrives before the snapshot or if the book ends
+ * up crossed, i.e. the best bid at or above the best ask. Ticker messages do carry a sequence
+ * number; out of order tickers are dropped.
+ *
+ * @author gazbert
+ */
+public final class GdaxMarketDataFeed extends MarketDataFeed {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final String WEBSOCKET_URI = "wss://ws-feed.pro.coinbase.com";
+
+  private final Map<String, Long> tickerSequences = new ConcurrentHashMap<>();
+
+  /** Creates a new GDAX Market Data Feed. */
+  public GdaxMarketDataFeed() {
+    this(URI.create(WEBSOCKET_URI), DEFAULT_RECONNECT_DELAY);
+  }
+
+  GdaxMarketDataFeed(URI uri, Duration reconnectDelay) {
+    super(uri, Integer.MAX_VALUE, reconnectDelay, DEFAULT_STALE_TIMEOUT);
+  }
+
+  @Override
+  void resetConnectionState() {
+    tickerSequences.clear();
+  }
+
+  @Override
+  List<String> createSubscribeMessages(String marketId) {
+    final JsonArray productIds = new JsonArray();
+    productIds.add(marketId);
+    final JsonArray channels = new JsonArray();
+    channels.add("level2");
+    channels.add("ticker");
+    channels.add("heartbeat");
+
+    final JsonObject message = new JsonObject();
+    message.addProperty("type", "subscribe");
+    message.add("product_ids", productIds);
+    message.add("channels", channels);
+    return List.of(message.toString());
+  }
+
+  @Override
+  void handleMessage(String message) {
+    final JsonObject json = JsonParser.parseString(message).getAsJsonObject();
+    final String type = json.get("type").getAsString();
+    if ("error".equals(type)) {
+      LOG.error(() -> "Market data error: " + json);
+      return;
+    }
+    if (!json.has("product_id")) {
+      return; // e.g. subscriptions confirmation
+    }
+
+    final String marketId = json.get("product_id").getAsString();
+    final LocalOrderBook orderBook = getOrderBook(marketId);
+    if (orderBook == null) {
+      LOG.warn(() -> "Ignoring market data for unknown product: " + marketId);
+      return;
+    }
+
+    switch (type) {
+      case "snapshot":
+        orderBook.clear();
+        applySnapshotLevels(orderBook, OrderType.BUY, json.getAsJsonArray("bids"));
+        applySnapshotLevels(orderBook, OrderType.SELL, json.getAsJsonArray("asks"));
+        orderBook.setSynced(true);
+        checkNotCrossed(orderBook);
+        break;
+      case "l2update":
+        if (!orderBook.isSynced()) {
+          resync("book update received before snapshot for " + marketId);
+          return;
+        }
+        applyChanges(orderBook, json.getAsJsonArray("changes"));
+        checkNotCrossed(orderBook);
+        break;
+      case "ticker":
+        handleTicker(marketId, json);
+        break;
+      default:
+        break;
+    }
+  }
+
+  /* Snapshot levels are [price, size] */
+  private static void applySnapshotLevels(
+      LocalOrderBook orderBook, OrderType orderType, JsonArray levels) {
+    for (final JsonElement level : levels) {
+      final JsonArray priceLevel = level.getAsJsonArray();
+      orderBook.update(
+          orderType, priceLevel.get(0).getAsBigDecimal(), priceLevel.get(1).getAsBigDecimal());
+    }
+  }
+
+  /* Changes are [side, price, size] where side is "buy" or "sell" and a size of 0 removes. */
+  private static void applyChanges(LocalOrderBook orderBook, JsonArray changes) {
+    for (final JsonElement change : changes) {
+      final JsonArray priceLevel = change.getAsJsonArray();
+      final OrderType orderType =
+          "buy".equals(priceLevel.get(0).getAsString()) ? OrderType.BUY : OrderType.SELL;
+      orderBook.update(
+          orderType, priceLevel.get(1).getAsBigDecimal(), priceLevel.get(2).getAsBigDecimal());
+    }
+  }
+
+  private void checkNotCrossed(LocalOrderBook orderBook) {
+    if (orderBook.isCrossed()) {
+      resync("book crossed for " + orderBook.getMarketId());
+    }
+  }
+
+  private void handleTicker(String marketId, JsonObject ticker) {
+    final long sequence = ticker.get("sequence").getAsLong();
+    final Long lastSequence = tickerSequences.get(marketId);
+    if (lastSequence != null && sequence <= lastSequence) {
+      return;
+    }
+    tickerSequences.put(marketId, sequence);
+
+    updateTicker(
+        marketId,
+        new TickerImpl(
+            getBigDecimal(ticker, "price"),
+            getBigDecimal(ticker, "best_bid"),
+            getBigDecimal(ticker, "best_ask"),
+            getBigDecimal(ticker, "low_24h"),
+            getBigDecimal(ticker, "high_24h"),
+            getBigDecimal(ticker, "open_24h"),
+            getBigDecimal(ticker, "volume_24h"),
+            null, // vwap - not supplied by GDAX
+            ticker.has("time")
+                ? Instant.parse(ticker.get("time").getAsString()).toEpochMilli()
+                : null));
+  }
+
+  private static BigDecimal getBigDecimal(JsonObject json, String memberName) {
+    final JsonElement member = json.get(memberName);
+    return member == null ? null : member.getAsBigDecimal();
+  }
+}
@@ -0,0 +1,237 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.marketdata;
+
+import com.gazbert.crypto.exchanges.trading.api.impl.TickerImpl;
+import com.gazbert.crypto.trading.api.MarketOrder;
+import com.gazbert.crypto.trading.api.MarketOrderBook;
+import com.gazbert.crypto.trading.api.OrderType;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Market Data Feed for Kraken's public WebSocket API.
+ *
+ * <p>Subscribes to the book and ticker channels for each market. Kraken's book updates carry a
+ * CRC32 checksum of the top 10 levels; the local book is resynced if its checksum does not match.
+ *
+ * <p>The WebSocket API uses different pair names to the REST API, e.g. XBT/USD instead of XXBTZUSD,
+ * so the feed is given a map of REST market ids to WebSocket pair names.
+ *
+ * @author gazbert
+ */
+public final class KrakenMarketDataFeed extends MarketDataFeed {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final String WEBSOCKET_URI = "wss://ws.kraken.com";
+
+  /** Same depth as the REST API's Depth operation returns by default. */
+  private static final int BOOK_DEPTH = 100;
+
+  private static final int CHECKSUM_DEPTH = 10;
+
+  private final Map<String, String> pairsByMarketId;
+  private final Map<String, String> marketIdsByPair = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new Kraken Market Data Feed.
+   *
+   * @param pairsByMarketId the WebSocket pair names, e.g. XBT/USD, keyed by REST market id, e.g.
+   *     XXBTZUSD. Markets not in the map use the market id as the pair name.
+   */
+  public KrakenMarketDataFeed(Map<String, String> pairsByMarketId) {
+    this(URI.create(WEBSOCKET_URI), pairsByMarketId, DEFAULT_RECONNECT_DELAY);
+  }
+
+  KrakenMarketDataFeed(URI uri, Map<String, String> pairsByMarketId, Duration reconnectDelay) {
+    super(uri, BOOK_DEPTH, reconnectDelay, DEFAULT_STALE_TIMEOUT);
+    this.pairsByMarketId = new HashMap<>(pairsByMarketId);
+    pairsByMarketId.forEach((marketId, pair) -> marketIdsByPair.put(pair, marketId));
+  }
+
+  @Override
+  List<String> createSubscribeMessages(String marketId) {
+    final String pair = pairsByMarketId.getOrDefault(marketId, marketId);
+    marketIdsByPair.putIfAbsent(pair, marketId);
+
+    final JsonObject bookSubscription = new JsonObject();
+    bookSubscription.addProperty("name", "book");
+    bookSubscription.addProperty("depth", BOOK_DEPTH);
+    final JsonObject tickerSubscription = new JsonObject();
+    tickerSubscription.addProperty("name", "ticker");
+
+    return List.of(
+        createSubscribeMessage(pair, bookSubscription),
+        createSubscribeMessage(pair, tickerSubscription));
+  }
+
+  /*
+   * Events are objects, e.g. {"event":"heartbeat"}
+   * Channel messages are arrays: [channelID, payload..., channelName, pair]
+   */
+  @Override
+  void handleMessage(String message) {
+    final JsonElement json = JsonParser.parseString(message);
+    if (json.isJsonObject()) {
+      handleEvent(json.getAsJsonObject());
+      return;
+    }
+
+    final JsonArray channelMessage = json.getAsJsonArray();
+    final String channelName = channelMessage.get(channelMessage.size() - 2).getAsString();
+    final String pair = channelMessage.get(channelMessage.size() - 1).getAsString();
+    final String marketId = marketIdsByPair.get(pair);
+    if (marketId == null || getOrderBook(marketId) == null) {
+      LOG.warn(() -> "Ignoring market data for unknown pair: " + pair);
+      return;
+    }
+
+    if (channelName.startsWith("book")) {
+      handleBook(marketId, channelMessage);
+    } else if ("ticker".equals(channelName)) {
+      handleTicker(marketId, channelMessage.get(1).getAsJsonObject());
+    }
+  }
+
+  private static void handleEvent(JsonObject event) {
+    final String eventName = event.get("event").getAsString();
+    if ("subscriptionStatus".equals(eventName) && "error".equals(getString(event, "status"))) {
+      LOG.error(() -> "Failed to subscribe to market data: " + getString(event, "errorMessage"));
+    }
+  }
+
+  /*
+   * A snapshot has "as" and "bs" arrays of [price, volume, timestamp].
+   * An update has "a" and/or "b" arrays, split across 2 payloads if both sides changed, and a
+   * checksum "c" in the last payload.
+   */
+  private void handleBook(String marketId, JsonArray channelMessage) {
+    final LocalOrderBook orderBook = getOrderBook(marketId);
+    final JsonObject firstPayload = channelMessage.get(1).getAsJsonObject();
+    if (firstPayload.has("as") || firstPayload.has("bs")) {
+      orderBook.clear();
+      applyLevels(orderBook, OrderType.SELL, firstPayload.getAsJsonArray("as"));
+      applyLevels(orderBook, OrderType.BUY, firstPayload.getAsJsonArray("bs"));
+      orderBook.setSynced(true);
+      return;
+    }
+
+    if (!orderBook.isSynced()) {
+      resync("book update received before snapshot for " + marketId);
+      return;
+    }
+
+    String checksum = null;
+    for (int i = 1; i < channelMessage.size() - 2; i++) {
+      final JsonObject payload = channelMessage.get(i).getAsJsonObject();
+      applyLevels(orderBook, OrderType.SELL, payload.getAsJsonArray("a"));
+      applyLevels(orderBook, OrderType.BUY, payload.getAsJsonArray("b"));
+      if (payload.has("c")) {
+        checksum = payload.get("c").getAsString();
+      }
+    }
+
+    if (checksum != null && !checksum.equals(calculateChecksum(orderBook))) {
+      resync("book checksum mismatch for " + marketId);
+    }
+  }
+
+  private static void applyLevels(LocalOrderBook orderBook, OrderType orderType, JsonArray levels) {
+    if (levels == null) {
+      return;
+    }
+    for (final JsonElement level : levels) {
+      final JsonArray priceLevel = level.getAsJsonArray();
+      orderBook.update(
+          orderType, priceLevel.get(0).getAsBigDecimal(), priceLevel.get(1).getAsBigDecimal());
+    }
+  }
+
+  /*
+   * CRC32 of the top 10 asks (lowest first) then the top 10 bids (highest first). Each level is
+   * its price then its volume, as sent by Kraken with the decimal point and leading zeros removed -
+   * that is the unscaled value of the BigDecimal.
+   */
+  static String calculateChecksum(LocalOrderBook orderBook) {
+    final StringBuilder levels = new StringBuilder();
+    final MarketOrderBook top = orderBook.getMarketOrders(CHECKSUM_DEPTH);
+    appendChecksumLevels(levels, top.getSellOrders());
+    appendChecksumLevels(levels, top.getBuyOrders());
+
+    final CRC32 crc32 = new CRC32();
+    crc32.update(levels.toString().getBytes(StandardCharsets.US_ASCII));
+    return String.valueOf(crc32.getValue());
+  }
+
+  private static void appendChecksumLevels(StringBuilder levels, List<MarketOrder> marketOrders) {
+    for (final MarketOrder marketOrder : marketOrders) {
+      levels.append(marketOrder.getPrice().unscaledValue());
+      levels.append(marketOrder.getQuantity().unscaledValue());
+    }
+  }
+
+  /* Each field is an array; the 24 hour value is the last element. */
+  private void handleTicker(String marketId, JsonObject ticker) {
+    updateTicker(
+        marketId,
+        new TickerImpl(
+            ticker.getAsJsonArray("c").get(0).getAsBigDecimal(), // last trade
+            ticker.getAsJsonArray("b").get(0).getAsBigDecimal(), // bid
+            ticker.getAsJsonArray("a").get(0).getAsBigDecimal(), // ask
+            ticker.getAsJsonArray("l").get(1).getAsBigDecimal(), // low 24h
+            ticker.getAsJsonArray("h").get(1).getAsBigDecimal(), // high 24hr
+            ticker.getAsJsonArray("o").get(1).getAsBigDecimal(), // open
+            ticker.getAsJsonArray("v").get(1).getAsBigDecimal(), // volume 24hr
+            ticker.getAsJsonArray("p").get(1).getAsBigDecimal(), // vwap 24hr
+            null)); // timestamp not supplied by Kraken
+  }
+
+  private static String createSubscribeMessage(String pair, JsonObject subscription) {
+    final JsonArray pairs = new JsonArray();
+    pairs.add(pair);
+    final JsonObject message = new JsonObject();
+    message.addProperty("event", "subscribe");
+    message.add("pair", pairs);
+    message.add("subscription", subscription);
+    return message.toString();
+  }
+
+  private static String getString(JsonObject json, String memberName) {
+    final JsonElement member = json.get(memberName);
+    return member == null ? null : member.getAsString();
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.marketdata;
+
+import com.gazbert.crypto.exchanges.trading.api.impl.MarketOrderBookImpl;
+import com.gazbert.crypto.exchanges.trading.api.impl.MarketOrderImpl;
+import com.gazbert.crypto.trading.api.MarketOrder;
+import com.gazbert.crypto.trading.api.MarketOrderBook;
+import com.gazbert.crypto.trading.api.OrderType;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * A local copy of a market's order book, built from a snapshot and kept up to date by applying the
+ * price level updates sent by the exchange.
+ *
+ * <p>A Market Data Feed applies updates on its WebSocket thread while Trading Strategies read the
+ * book on the Trading Engine thread, so access is synchronized.
+ *
+ * @author gazbert
+ */
+final class LocalOrderBook {
+
+  private final String marketId;
+  private final int maxDepth;
+
+  /** Price to quantity, best (highest) bid first. */
+  private final NavigableMap<BigDecimal, BigDecimal> bids =
+      new TreeMap<>(Collections.reverseOrder());
+
+  /** Price to quantity, best (lowest) ask first. */
+  private final NavigableMap<BigDecimal, BigDecimal> asks = new TreeMap<>();
+
+  private boolean synced;
+
+  /**
+   * Creates a new empty order book.
+   *
+   * @param marketId the market id.
+   * @param maxDepth the number of price levels kept on each side; levels pushed beyond this by an
+   *     update are dropped.
+   */
+  LocalOrderBook(String marketId, int maxDepth) {
+    this.marketId = marketId;
+    this.maxDepth = maxDepth;
+  }
+
+  String getMarketId() {
+    return marketId;
+  }
+
+  int getMaxDepth() {
+    return maxDepth;
+  }
+
+  /** Empties the book and marks it out of sync until the next snapshot has been applied. */
+  synchronized void clear() {
+    bids.clear();
+    asks.clear();
+    synced = false;
+  }
+
+  /**
+   * Sets the quantity at a price level. A quantity of zero removes the level.
+   *
+   * @param orderType BUY for the bid side, SELL for the ask side.
+   * @param price the price of the level.
+   * @param quantity the new total quantity at the level.
+   */
+  synchronized void update(OrderType orderType, BigDecimal price, BigDecimal quantity) {
+    final NavigableMap<BigDecimal, BigDecimal> side = orderType == OrderType.BUY ? bids : asks;
+    if (quantity.signum() == 0) {
+      side.remove(price);
+    } else {
+      side.put(price, quantity);
+      while (side.size() > maxDepth) {
+        side.pollLastEntry();
+      }
+    }
+  }
+
+  synchronized boolean isSynced() {
+    return synced;
+  }
+
+  synchronized void setSynced(boolean synced) {
+    this.synced = synced;
+  }
+
+  /**
+   * Returns true if the best bid is at or above the best ask. An exchange never lets that happen,
+   * so a crossed local book has missed an update.
+   *
+   * @return true if the book is crossed.
+   */
+  synchronized boolean isCrossed() {
+    return !bids.isEmpty() && !asks.isEmpty() && bids.firstKey().compareTo(asks.firstKey()) >= 0;
+  }
+
+  /**
+   * Returns the top of the book.
+   *
+   * @param depth the maximum number of orders to return on each side.
+   * @return the market order book, or null if the book is not in sync.
+   */
+  synchronized MarketOrderBook getMarketOrders(int depth) {
+    if (!synced) {
+      return null;
+    }
+    return new MarketOrderBookImpl(
+        marketId,
+        toMarketOrders(asks, OrderType.SELL, depth),
+        toMarketOrders(bids, OrderType.BUY, depth));
+  }
+
+  private static List<MarketOrder> toMarketOrders(
+      NavigableMap<BigDecimal, BigDecimal> side, OrderType orderType, int depth) {
+    final List<MarketOrder> marketOrders = new ArrayList<>(Math.min(side.size(), depth));
+    for (final Map.Entry<BigDecimal, BigDecimal> level : side.entrySet()) {
+      if (marketOrders.size() == depth) {
+        break;
+      }
+      final BigDecimal price = level.getKey();
+      final BigDecimal quantity = level.getValue();
+      marketOrders.add(new MarketOrderImpl(orderType, price, quantity));
+    }
+    return marketOrders;
+  }
+}
@@ -0,0 +1,365 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.marketdata;
+
+import com.gazbert.crypto.trading.api.MarketOrderBook;
+import com.gazbert.crypto.trading.api.Ticker;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Base class for the Market Data Feeds. It owns the WebSocket connection to the exchange and the
+ * local order books and tickers; subclasses speak the exchange's protocol.
+ *
+ * <p>Markets are subscribed to on demand. The connection is opened when the first market is
+ * subscribed to, and every subscribed market is resubscribed to each time the connection is
+ * reopened.
+ *
+ * <p>When a subclass detects that a local book has drifted from the exchange's, e.g. a sequence gap
+ * or checksum mismatch, it calls {@link #resync(String)}. All books are cleared and the
+ * connection is reopened to take fresh snapshots. The books are also treated as out of sync if
+ * nothing has been received from the exchange for a while; the exchanges send heartbeats on quiet
+ * connections.
+ *
+ * <p>WebSocket messages are handled one at a time on the HttpClient's thread; the local state is
+ * read on the Trading Engine thread.
+ *
+ * @author gazbert
+ */
+public abstract class MarketDataFeed {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  static final Duration DEFAULT_RECONNECT_DELAY = Duration.ofSeconds(5);
+  static final Duration DEFAULT_STALE_TIMEOUT = Duration.ofSeconds(30);
+
+  private final URI uri;
+  private final int maxDepth;
+  private final Duration reconnectDelay;
+  private final Duration staleTimeout;
+  private final HttpClient httpClient = HttpClient.newHttpClient();
+  private final Map<String, LocalOrderBook> orderBooks = new ConcurrentHashMap<>();
+  private final Map<String, Ticker> tickers = new ConcurrentHashMap<>();
+
+  // guarded by this
+  private WebSocket webSocket;
+  private CompletableFuture<WebSocket> pendingSends;
+  private boolean connecting;
+  private boolean closed;
+
+  private volatile long lastMessageReceivedNanos;
+
+  /**
+   * Creates a new Market Data Feed.
+   *
+   * @param uri the exchange's WebSocket URI.
+   * @param maxDepth the number of price levels the feed keeps on each side of a book.
+   * @param reconnectDelay the time to wait before reconnecting.
+   * @param staleTimeout the time after which a silent connection is treated as dead.
+   */
+  MarketDataFeed(URI uri, int maxDepth, Duration reconnectDelay, Duration staleTimeout) {
+    this.uri = uri;
+    this.maxDepth = maxDepth;
+    this.reconnectDelay = reconnectDelay;
+    this.staleTimeout = staleTimeout;
+    lastMessageReceivedNanos = System.nanoTime();
+  }
+
+  /**
+   * Subscribes to a market's order book and ticker, connecting to the exchange if needed. Does
+   * nothing if the market is already subscribed to.
+   *
+   * @param marketId the id of the market, as used by the Exchange Adapter.
+   */
+  public void subscribe(String marketId) {
+    if (orderBooks.putIfAbsent(marketId, new LocalOrderBook(marketId, maxDepth)) != null) {
+      return;
+    }
+    LOG.info(() -> "Subscribing to market data for " + marketId + " on " + uri);
+    synchronized (this) {
+      if (webSocket != null) {
+        createSubscribeMessages(marketId).forEach(this::send);
+      } else {
+        connect();
+      }
+    }
+  }
+
+  /**
+   * Returns the local order book for a market.
+   *
+   * @param marketId the id of the market.
+   * @param depth the maximum number of orders to return on each side.
+   * @return the market order book, or null if the market is not subscribed to, the book is not in
+   *     sync, or the depth is more than the feed keeps.
+   */
+  public MarketOrderBook getMarketOrders(String marketId, int depth) {
+    final LocalOrderBook orderBook = orderBooks.get(marketId);
+    if (orderBook == null || depth > maxDepth || isStale()) {
+      return null;
+    }
+    return orderBook.getMarketOrders(depth);
+  }
+
+  /**
+   * Returns the latest ticker for a market.
+   *
+   * @param marketId the id of the market.
+   * @return the ticker, or null if the market is not subscribed to or the feed is not in sync.
+   */
+  public Ticker getTicker(String marketId) {
+    if (!orderBooks.containsKey(marketId) || isStale()) {
+      return null;
+    }
+    return tickers.get(marketId);
+  }
+
+  /** Closes the connection to the exchange. The feed cannot be reopened. */
+  public void close() {
+    final WebSocket closing;
+    synchronized (this) {
+      closed = true;
+      closing = webSocket;
+      webSocket = null;
+    }
+    clearLocalState();
+    if (closing != null) {
+      closing.sendClose(WebSocket.NORMAL_CLOSURE, "");
+    }
+  }
+
+  // --------------------------------------------------------------------------
+  //  Exchange protocol
+  // --------------------------------------------------------------------------
+
+  /**
+   * Returns the messages to send to subscribe to a market's order book and ticker.
+   *
+   * @param marketId the id of the market.
+   * @return the messages.
+   */
+  abstract List<String> createSubscribeMessages(String marketId);
+
+  /**
+   * Returns the messages to send when the connection opens, before any subscriptions.
+   *
+   * @return the messages.
+   */
+  List<String> createConnectMessages() {
+    return Collections.emptyList();
+  }
+
+  /** Resets any per-connection state, e.g. channel ids. Called each time the connection opens. */
+  void resetConnectionState() {
+    // nothing to reset by default
+  }
+
+  /**
+   * Handles a message from the exchange. An exception thrown here resyncs the feed.
+   *
+   * @param message the message.
+   */
+  abstract void handleMessage(String message);
+
+  // --------------------------------------------------------------------------
+  //  Local state for subclasses
+  // --------------------------------------------------------------------------
+
+  LocalOrderBook getOrderBook(String marketId) {
+    return orderBooks.get(marketId);
+  }
+
+  Set<String> getMarketIds() {
+    return orderBooks.keySet();
+  }
+
+  void updateTicker(String marketId, Ticker ticker) {
+    tickers.put(marketId, ticker);
+  }
+
+  /**
+   * Clears the local state and reconnects to take fresh snapshots.
+   *
+   * @param reason why the local state can no longer be trusted.
+   */
+  void resync(String reason) {
+    final WebSocket resyncing;
+    synchronized (this) {
+      resyncing = webSocket;
+      if (resyncing == null) {
+        return; // already reconnecting
+      }
+      webSocket = null;
+    }
+    LOG.warn(() -> "Resyncing market data from " + uri + " - " + reason);
+    clearLocalState();
+    resyncing.abort();
+    scheduleReconnect();
+  }
+
+  // --------------------------------------------------------------------------
+  //  Connection handling
+  // --------------------------------------------------------------------------
+
+  private synchronized void connect() {
+    if (closed || connecting || webSocket != null) {
+      return;
+    }
+    connecting = true;
+    LOG.info(() -> "Connecting to market data feed " + uri);
+    httpClient
+        .newWebSocketBuilder()
+        .buildAsync(uri, new FeedListener())
+        .whenComplete(
+            (connected, error) -> {
+              if (error != null) {
+                LOG.error("Failed to connect to market data feed " + uri, error);
+                synchronized (this) {
+                  connecting = false;
+                }
+                scheduleReconnect();
+              }
+            });
+  }
+
+  private synchronized void connected(WebSocket connected) {
+    connecting = false;
+    if (closed) {
+      connected.abort();
+      return;
+    }
+    LOG.info(() -> "Connected to market data feed " + uri);
+    webSocket = connected;
+    pendingSends = CompletableFuture.completedFuture(connected);
+    lastMessageReceivedNanos = System.nanoTime();
+    resetConnectionState();
+    createConnectMessages().forEach(this::send);
+    for (final String marketId : orderBooks.keySet()) {
+      createSubscribeMessages(marketId).forEach(this::send);
+    }
+  }
+
+  private void received(WebSocket receivedOn, String message) {
+    synchronized (this) {
+      if (receivedOn != webSocket) {
+        return; // left over from a connection we've given up on
+      }
+    }
+    lastMessageReceivedNanos = System.nanoTime();
+    LOG.debug(() -> "Market data message: " + message);
+    try {
+      handleMessage(message);
+    } catch (RuntimeException e) {
+      LOG.error("Failed to handle market data message: " + message, e);
+      resync("unexpected message");
+    }
+  }
+
+  private void disconnected(WebSocket disconnected, String reason) {
+    synchronized (this) {
+      if (disconnected != webSocket) {
+        return;
+      }
+      webSocket = null;
+    }
+    LOG.warn(() -> "Market data feed " + uri + " disconnected - " + reason);
+    clearLocalState();
+    scheduleReconnect();
+  }
+
+  /* WebSocket allows only one outstanding send, so sends are chained. Guarded by this. */
+  private void send(String message) {
+    final WebSocket sendingOn = webSocket;
+    LOG.debug(() -> "Sending market data message: " + message);
+    pendingSends =
+        pendingSends
+            .handle((previous, error) -> sendingOn)
+            .thenCompose(ws -> ws.sendText(message, true));
+  }
+
+  private void scheduleReconnect() {
+    CompletableFuture.delayedExecutor(reconnectDelay.toMillis(), TimeUnit.MILLISECONDS)
+        .execute(this::connect);
+  }
+
+  private boolean isStale() {
+    if (System.nanoTime() - lastMessageReceivedNanos < staleTimeout.toNanos()) {
+      return false;
+    }
+    resync("nothing received for " + staleTimeout.toSeconds() + "s");
+    return true;
+  }
+
+  private void clearLocalState() {
+    orderBooks.values().forEach(LocalOrderBook::clear);
+    tickers.clear();
+  }
+
+  /** Receives the messages from one connection, joining up any partial messages. */
+  private final class FeedListener implements WebSocket.Listener {
+
+    private final StringBuilder message = new StringBuilder();
+
+    @Override
+    public void onOpen(WebSocket webSocket) {
+      connected(webSocket);
+      webSocket.request(1);
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+      message.append(data);
+      if (last) {
+        final String text = message.toString();
+        message.setLength(0);
+        received(webSocket, text);
+      }
+      webSocket.request(1);
+      return null;
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+      disconnected(webSocket, "closed by exchange: " + statusCode + " " + reason);
+      return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+      disconnected(webSocket, error.toString());
+    }
+  }
+}
@@ -0,0 +1,19 @@
+/**
+ *
+ *
+ * <h2>Market Data Feeds</h2>
+ *
+ * <p>Market Data Feeds subscribe to an exchange's streaming (WebSocket) order book and ticker
+ * channels and keep a local copy of the order book for each market. Exchange Adapters that have a
+ * feed enabled serve {@link com.gazbert.crypto.trading.api.TradingApi#getMarketOrders(String)} and
+ * {@link com.gazbert.crypto.trading.api.TradingApi#getTicker(String)} from local state instead of
+ * polling the exchange's REST API every Trade Cycle.
+ *
+ * <p>A feed detects when its local book has drifted from the exchange's, e.g. a missed message, and
+ * resyncs by reconnecting and taking a fresh snapshot. Until it is back in sync, the adapter falls
+ * back to the REST API.
+ *
+ * @author gazbert
+ * @since 1.0
+ */
+package com.gazbert.crypto.exchanges.marketdata;
@@ -0,0 +1,206 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.simulator;
+
+import com.gazbert.crypto.exchanges.trading.api.impl.MarketOrderBookImpl;
+import com.gazbert.crypto.exchanges.trading.api.impl.MarketOrderImpl;
+import com.gazbert.crypto.exchanges.trading.api.impl.TickerImpl;
+import com.gazbert.crypto.trading.api.MarketOrder;
+import com.gazbert.crypto.trading.api.MarketOrderBook;
+import com.gazbert.crypto.trading.api.OrderType;
+import com.gazbert.crypto.trading.api.Ticker;
+import com.google.common.base.MoreObjects;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * A market's limit order book on the simulated exchange, and its trading stats.
+ *
+ * <p>Each side holds its price levels best price first, and each level holds its orders oldest
+ * first, so the head of a side is the next order to match against.
+ *
+ * <p>Only accessed by the Matching Engine, under its lock.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+final class LimitOrderBook {
+
+  private static final int VWAP_SCALE = 8;
+
+  private final String marketId;
+  private final String baseCurrency;
+  private final String counterCurrency;
+
+  /** Best (highest) bid first. */
+  private final NavigableMap<BigDecimal, Deque<SimulatedOrder>> bids =
+      new TreeMap<>(Collections.reverseOrder());
+
+  /** Best (lowest) ask first. */
+  private final NavigableMap<BigDecimal, Deque<SimulatedOrder>> asks = new TreeMap<>();
+
+  private BigDecimal open;
+  private BigDecimal last;
+  private BigDecimal high;
+  private BigDecimal low;
+  private BigDecimal volume = BigDecimal.ZERO;
+  private BigDecimal turnover = BigDecimal.ZERO;
+
+  LimitOrderBook(String marketId, String baseCurrency, String counterCurrency) {
+    this.marketId = marketId;
+    this.baseCurrency = baseCurrency;
+    this.counterCurrency = counterCurrency;
+  }
+
+  String getMarketId() {
+    return marketId;
+  }
+
+  String getBaseCurrency() {
+    return baseCurrency;
+  }
+
+  String getCounterCurrency() {
+    return counterCurrency;
+  }
+
+  BigDecimal getLast() {
+    return last;
+  }
+
+  /**
+   * Returns one side of the book.
+   *
+   * @param orderType BUY for the bids, SELL for the asks.
+   * @return the price levels, best price first.
+   */
+  NavigableMap<BigDecimal, Deque<SimulatedOrder>> getSide(OrderType orderType) {
+    return orderType == OrderType.BUY ? bids : asks;
+  }
+
+  /**
+   * Adds an order to the back of its price level.
+   *
+   * @param order the order to rest on the book.
+   */
+  void add(SimulatedOrder order) {
+    getSide(order.getType())
+        .computeIfAbsent(order.getPrice(), price -> new ArrayDeque<>())
+        .addLast(order);
+  }
+
+  /**
+   * Removes an order from the book.
+   *
+   * @param order the order to remove.
+   */
+  void remove(SimulatedOrder order) {
+    final NavigableMap<BigDecimal, Deque<SimulatedOrder>> side = getSide(order.getType());
+    final Deque<SimulatedOrder> level = side.get(order.getPrice());
+    if (level != null) {
+      level.remove(order);
+      if (level.isEmpty()) {
+        side.remove(order.getPrice());
+      }
+    }
+  }
+
+  /**
+   * Updates the trading stats with a trade.
+   *
+   * @param price the trade price.
+   * @param quantity the quantity traded.
+   */
+  void recordTrade(BigDecimal price, BigDecimal quantity) {
+    if (open == null) {
+      open = price;
+      high = price;
+      low = price;
+    }
+    last = price;
+    high = high.max(price);
+    low = low.min(price);
+    volume = volume.add(quantity);
+    turnover = turnover.add(price.multiply(quantity));
+  }
+
+  MarketOrderBook toMarketOrderBook(int depth) {
+    return new MarketOrderBookImpl(
+        marketId,
+        toMarketOrders(asks, OrderType.SELL, depth),
+        toMarketOrders(bids, OrderType.BUY, depth));
+  }
+
+  Ticker toTicker(long timestamp) {
+    final BigDecimal vwap =
+        volume.signum() == 0 ? null : turnover.divide(volume, VWAP_SCALE, RoundingMode.HALF_UP);
+    return new TickerImpl(
+        last,
+        bids.isEmpty() ? null : bids.firstKey(),
+        asks.isEmpty() ? null : asks.firstKey(),
+        low,
+        high,
+        open,
+        volume,
+        vwap,
+        timestamp);
+  }
+
+  private static List<MarketOrder> toMarketOrders(
+      NavigableMap<BigDecimal, Deque<SimulatedOrder>> side, OrderType orderType, int depth) {
+    final List<MarketOrder> marketOrders = new ArrayList<>(Math.min(side.size(), depth));
+    for (final Map.Entry<BigDecimal, Deque<SimulatedOrder>> level : side.entrySet()) {
+      if (marketOrders.size() == depth) {
+        break;
+      }
+      BigDecimal quantity = BigDecimal.ZERO;
+      for (final SimulatedOrder order : level.getValue()) {
+        quantity = quantity.add(order.getQuantity());
+      }
+      marketOrders.add(new MarketOrderImpl(orderType, level.getKey(), quantity));
+    }
+    return marketOrders;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("marketId", marketId)
+        .add("baseCurrency", baseCurrency)
+        .add("counterCurrency", counterCurrency)
+        .add("bidLevels", bids.size())
+        .add("askLevels", asks.size())
+        .add("last", last)
+        .add("volume", volume)
+        .toString();
+  }
+}
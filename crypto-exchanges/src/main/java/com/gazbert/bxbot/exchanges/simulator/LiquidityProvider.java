@@ -0,0 +1,210 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.simulator;
+
+import com.gazbert.crypto.trading.api.OpenOrder;
+import com.gazbert.crypto.trading.api.OrderType;
+import com.google.common.base.MoreObjects;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Quotes a ladder of buy and sell orders either side of a market's price on the simulated exchange,
+ * so there is always something to trade against.
+ *
+ * <p>Each side has the same number of levels, each level a fixed percentage further from the
+ * reference price than the last, and each order the same quantity. The reference price is the last
+ * trade price, or the opening price until the market has traded. The provider funds its own quotes,
+ * so it never runs out of liquidity.
+ *
+ * <p>The ladder is only requoted after the market has traded, so the book is stable between trades.
+ *
+ * <p>This class is thread safe.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class LiquidityProvider {
+
+  /** The account the liquidity is quoted from. */
+  public static final String ACCOUNT_ID = "liquidity-provider";
+
+  private static final BigDecimal ONE_HUNDRED = new BigDecimal("100");
+
+  private final MatchingEngine matchingEngine;
+  private final int levels;
+  private final BigDecimal levelSpread;
+  private final BigDecimal quantity;
+
+  private final Map<String, BigDecimal> openingPrices = new HashMap<>();
+  private final Set<String> tradedMarkets = new HashSet<>();
+
+  /**
+   * Creates a new liquidity provider.
+   *
+   * @param matchingEngine the engine to quote on.
+   * @param levels the number of orders quoted on each side.
+   * @param levelSpreadPercentage the gap between levels, as a percentage of the reference price.
+   * @param quantity the quantity of each order.
+   */
+  public LiquidityProvider(
+      MatchingEngine matchingEngine,
+      int levels,
+      BigDecimal levelSpreadPercentage,
+      BigDecimal quantity) {
+    if (levels < 1 || levelSpreadPercentage.signum() <= 0 || quantity.signum() <= 0) {
+      throw new IllegalArgumentException(
+          "Liquidity levels, spread and quantity must be positive: levels="
+              + levels
+              + " spread="
+              + levelSpreadPercentage
+              + " quantity="
+              + quantity);
+    }
+    this.matchingEngine = matchingEngine;
+    this.levels = levels;
+    this.levelSpread = levelSpreadPercentage.divide(ONE_HUNDRED);
+    this.quantity = quantity;
+    matchingEngine.addTradeListener(
+        trade -> {
+          synchronized (tradedMarkets) {
+            tradedMarkets.add(trade.getMarketId());
+          }
+        });
+  }
+
+  /**
+   * Starts quoting a market. Prices are quoted to the same number of decimal places as the opening
+   * price.
+   *
+   * @param marketId the market id; the market must already be open on the engine.
+   * @param openingPrice the reference price until the market trades.
+   */
+  public void addMarket(String marketId, BigDecimal openingPrice) {
+    synchronized (matchingEngine) {
+      openingPrices.put(marketId, openingPrice);
+      quote(marketId);
+    }
+  }
+
+  /**
+   * Returns the price the market is quoted around.
+   *
+   * @param marketId the market id.
+   * @return the last trade price, or the opening price if the market has not traded; null if the
+   *     market is not quoted.
+   */
+  public BigDecimal getReferencePrice(String marketId) {
+    synchronized (matchingEngine) {
+      final BigDecimal openingPrice = openingPrices.get(marketId);
+      if (openingPrice == null) {
+        return null;
+      }
+      final BigDecimal lastTradePrice = matchingEngine.getLastTradePrice(marketId);
+      return lastTradePrice == null ? openingPrice : lastTradePrice;
+    }
+  }
+
+  /**
+   * Requotes the ladder around the last trade price if the market has traded since it was last
+   * quoted.
+   *
+   * @param marketId the market id.
+   */
+  public void requoteIfTraded(String marketId) {
+    synchronized (matchingEngine) {
+      final boolean traded;
+      synchronized (tradedMarkets) {
+        traded = tradedMarkets.remove(marketId);
+      }
+      if (traded && openingPrices.containsKey(marketId)) {
+        quote(marketId);
+      }
+    }
+  }
+
+  private void quote(String marketId) {
+    for (final OpenOrder order : matchingEngine.getOpenOrders(ACCOUNT_ID, marketId)) {
+      matchingEngine.cancelOrder(ACCOUNT_ID, order.getId());
+    }
+
+    final BigDecimal referencePrice = getReferencePrice(marketId);
+    final int priceScale = openingPrices.get(marketId).scale();
+    for (int level = 1; level <= levels; level++) {
+      final BigDecimal offset = levelSpread.multiply(BigDecimal.valueOf(level));
+      final BigDecimal askPrice =
+          referencePrice
+              .multiply(BigDecimal.ONE.add(offset))
+              .setScale(priceScale, RoundingMode.HALF_UP);
+      final BigDecimal bidPrice =
+          referencePrice
+              .multiply(BigDecimal.ONE.subtract(offset))
+              .setScale(priceScale, RoundingMode.HALF_UP);
+      // levels that round back onto the reference price are skipped so the quotes never cross
+      if (askPrice.compareTo(referencePrice) > 0) {
+        placeFundedOrder(marketId, OrderType.SELL, askPrice);
+      }
+      if (bidPrice.compareTo(referencePrice) < 0 && bidPrice.signum() > 0) {
+        placeFundedOrder(marketId, OrderType.BUY, bidPrice);
+      }
+    }
+  }
+
+  /*
+   * Deposits whatever the order needs that is not already available. Funds released by cancelled
+   * quotes stay in the account for the next ones.
+   */
+  private void placeFundedOrder(String marketId, OrderType orderType, BigDecimal price) {
+    final Map<String, BigDecimal> available =
+        matchingEngine.getBalanceInfo(ACCOUNT_ID).getBalancesAvailable();
+    final String currency;
+    final BigDecimal needed;
+    if (orderType == OrderType.BUY) {
+      currency = matchingEngine.getCounterCurrency(marketId);
+      needed = matchingEngine.buyCost(quantity, price);
+    } else {
+      currency = matchingEngine.getBaseCurrency(marketId);
+      needed = quantity;
+    }
+    final BigDecimal shortfall = needed.subtract(available.getOrDefault(currency, BigDecimal.ZERO));
+    if (shortfall.signum() > 0) {
+      matchingEngine.deposit(ACCOUNT_ID, currency, shortfall);
+    }
+    matchingEngine.submitOrder(ACCOUNT_ID, marketId, orderType, quantity, price);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("levels", levels)
+        .add("levelSpread", levelSpread)
+        .add("quantity", quantity)
+        .add("openingPrices", openingPrices)
+        .toString();
+  }
+}
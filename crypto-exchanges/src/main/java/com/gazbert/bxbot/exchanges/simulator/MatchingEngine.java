@@ -0,0 +1,470 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.simulator;
+
+import com.gazbert.crypto.exchanges.trading.api.impl.OpenOrderImpl;
+import com.gazbert.crypto.trading.api.BalanceInfo;
+import com.gazbert.crypto.trading.api.MarketOrderBook;
+import com.gazbert.crypto.trading.api.OpenOrder;
+import com.gazbert.crypto.trading.api.OrderType;
+import com.gazbert.crypto.trading.api.Ticker;
+import com.google.common.base.MoreObjects;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A price-time priority matching engine for the simulated exchange.
+ *
+ * <p>An order is matched against the best priced orders resting on the other side of the book, and
+ * against the oldest order at a price first. Each fill is made at the resting order's price. Any
+ * quantity left once the order no longer crosses the book rests on the book at its limit price.
+ *
+ * <p>Funds are held when an order is placed: the counter currency cost plus the buy fee for a buy
+ * order, the base currency quantity for a sell order. An order that the account cannot fund is
+ * rejected. As an order fills, its held funds are paid to the other side of the trade and the
+ * proceeds are credited, less the exchange fee. Fees are paid in the counter currency, at the buy
+ * fee for the buyer and the sell fee for the seller, whether they are the maker or the taker.
+ *
+ * <p>The order ids are a sequence, and the only clock used is the one passed in, so the same orders
+ * always produce the same fills.
+ *
+ * <p>This class is thread safe. The engine is its own lock, so callers can synchronize on it to
+ * make a sequence of calls atomic. Trade listeners are called under the lock and must not place or
+ * cancel orders.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class MatchingEngine {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  /** The number of decimal places fees are rounded to. */
+  static final int FEE_SCALE = 8;
+
+  private static final String ORDER_ID_PREFIX = "SIM-";
+
+  private final BigDecimal buyFeePercentage;
+  private final BigDecimal sellFeePercentage;
+  private final LongSupplier clock;
+
+  private final Map<String, LimitOrderBook> orderBooks = new LinkedHashMap<>();
+  private final Map<String, SimulatedAccount> accounts = new HashMap<>();
+  private final Map<String, SimulatedOrder> openOrders = new LinkedHashMap<>();
+  private final Map<String, BigDecimal> feesCollected = new HashMap<>();
+  private final List<Consumer<Trade>> tradeListeners = new CopyOnWriteArrayList<>();
+
+  private long lastOrderId;
+
+  /**
+   * Creates a new matching engine.
+   *
+   * @param buyFeePercentage the buy fee as a fraction of the trade value, e.g. 0.0025 for 0.25%.
+   * @param sellFeePercentage the sell fee as a fraction of the trade value.
+   */
+  public MatchingEngine(BigDecimal buyFeePercentage, BigDecimal sellFeePercentage) {
+    this(buyFeePercentage, sellFeePercentage, System::currentTimeMillis);
+  }
+
+  /**
+   * Creates a new matching engine.
+   *
+   * @param buyFeePercentage the buy fee as a fraction of the trade value, e.g. 0.0025 for 0.25%.
+   * @param sellFeePercentage the sell fee as a fraction of the trade value.
+   * @param clock the time in millis since the epoch, used to timestamp orders and trades. A
+   *     backtest passes its simulated time in.
+   */
+  public MatchingEngine(
+      BigDecimal buyFeePercentage, BigDecimal sellFeePercentage, LongSupplier clock) {
+    if (buyFeePercentage.signum() < 0 || sellFeePercentage.signum() < 0) {
+      throw new IllegalArgumentException(
+          "Fees cannot be negative: buy=" + buyFeePercentage + " sell=" + sellFeePercentage);
+    }
+    this.buyFeePercentage = buyFeePercentage;
+    this.sellFeePercentage = sellFeePercentage;
+    this.clock = clock;
+  }
+
+  public BigDecimal getBuyFeePercentage() {
+    return buyFeePercentage;
+  }
+
+  public BigDecimal getSellFeePercentage() {
+    return sellFeePercentage;
+  }
+
+  /**
+   * Opens a market for trading.
+   *
+   * @param marketId the market id, e.g. btcusd
+   * @param baseCurrency the currency being bought and sold, e.g. BTC
+   * @param counterCurrency the currency prices are in, e.g. USD
+   * @throws IllegalArgumentException if the market already exists.
+   */
+  public synchronized void addMarket(String marketId, String baseCurrency, String counterCurrency) {
+    if (orderBooks.containsKey(marketId)) {
+      throw new IllegalArgumentException("Market already exists: " + marketId);
+    }
+    orderBooks.put(marketId, new LimitOrderBook(marketId, baseCurrency, counterCurrency));
+    LOG.info(() -> "Opened market " + marketId + " " + baseCurrency + "/" + counterCurrency);
+  }
+
+  /**
+   * Returns the currency being bought and sold on a market.
+   *
+   * @param marketId the market id.
+   * @return the base currency, e.g. BTC
+   * @throws IllegalArgumentException if the market is unknown.
+   */
+  public synchronized String getBaseCurrency(String marketId) {
+    return getOrderBook(marketId).getBaseCurrency();
+  }
+
+  /**
+   * Returns the currency a market's prices are in.
+   *
+   * @param marketId the market id.
+   * @return the counter currency, e.g. USD
+   * @throws IllegalArgumentException if the market is unknown.
+   */
+  public synchronized String getCounterCurrency(String marketId) {
+    return getOrderBook(marketId).getCounterCurrency();
+  }
+
+  /**
+   * Adds funds to an account. The account is created if it does not exist.
+   *
+   * @param accountId the account id.
+   * @param currency the currency.
+   * @param amount the amount to add.
+   */
+  public synchronized void deposit(String accountId, String currency, BigDecimal amount) {
+    if (amount.signum() < 0) {
+      throw new IllegalArgumentException("Deposit cannot be negative: " + amount);
+    }
+    getAccount(accountId).credit(currency, amount);
+  }
+
+  /**
+   * Places a limit order. The order is matched against the book straight away, and whatever is not
+   * filled rests on the book.
+   *
+   * @param accountId the account placing the order.
+   * @param marketId the market id.
+   * @param orderType BUY or SELL.
+   * @param quantity the amount of base currency to buy or sell.
+   * @param price the limit price in counter currency.
+   * @return the order id.
+   * @throws IllegalArgumentException if the market is unknown, the quantity or price is not
+   *     positive, or the account cannot fund the order.
+   */
+  public synchronized String submitOrder(
+      String accountId,
+      String marketId,
+      OrderType orderType,
+      BigDecimal quantity,
+      BigDecimal price) {
+    final LimitOrderBook orderBook = getOrderBook(marketId);
+    if (quantity.signum() <= 0 || price.signum() <= 0) {
+      throw new IllegalArgumentException(
+          "Order quantity and price must be positive: quantity=" + quantity + " price=" + price);
+    }
+
+    final BigDecimal held;
+    if (orderType == OrderType.BUY) {
+      held = buyCost(quantity, price);
+      getAccount(accountId).hold(orderBook.getCounterCurrency(), held);
+    } else {
+      held = quantity;
+      getAccount(accountId).hold(orderBook.getBaseCurrency(), held);
+    }
+
+    final SimulatedOrder order =
+        new SimulatedOrder(
+            ORDER_ID_PREFIX + ++lastOrderId,
+            accountId,
+            marketId,
+            orderType,
+            price,
+            quantity,
+            held,
+            clock.getAsLong());
+
+    match(orderBook, order);
+    if (!order.isFilled()) {
+      orderBook.add(order);
+      openOrders.put(order.getId(), order);
+    }
+    return order.getId();
+  }
+
+  /**
+   * Cancels an open order and releases its held funds.
+   *
+   * @param accountId the account that placed the order.
+   * @param orderId the order id.
+   * @return true if the order was cancelled, false if it is not open or belongs to another account.
+   */
+  public synchronized boolean cancelOrder(String accountId, String orderId) {
+    final SimulatedOrder order = openOrders.get(orderId);
+    if (order == null || !order.getAccountId().equals(accountId)) {
+      return false;
+    }
+    openOrders.remove(orderId);
+    final LimitOrderBook orderBook = orderBooks.get(order.getMarketId());
+    orderBook.remove(order);
+    getAccount(accountId)
+        .release(
+            order.getType() == OrderType.BUY
+                ? orderBook.getCounterCurrency()
+                : orderBook.getBaseCurrency(),
+            order.getHeld());
+    return true;
+  }
+
+  /**
+   * Returns an account's open orders on a market, oldest first.
+   *
+   * @param accountId the account id.
+   * @param marketId the market id.
+   * @return the open orders.
+   */
+  public synchronized List<OpenOrder> getOpenOrders(String accountId, String marketId) {
+    final List<OpenOrder> orders = new ArrayList<>();
+    for (final SimulatedOrder order : openOrders.values()) {
+      if (order.getAccountId().equals(accountId) && order.getMarketId().equals(marketId)) {
+        orders.add(
+            new OpenOrderImpl(
+                order.getId(),
+                new Date(order.getCreationTime()),
+                marketId,
+                order.getType(),
+                order.getPrice(),
+                order.getQuantity(),
+                order.getOriginalQuantity()));
+      }
+    }
+    return orders;
+  }
+
+  /**
+   * Returns a market's order book, with the orders at each price level summed.
+   *
+   * @param marketId the market id.
+   * @param depth the maximum number of price levels to return on each side.
+   * @return the order book.
+   * @throws IllegalArgumentException if the market is unknown.
+   */
+  public synchronized MarketOrderBook getMarketOrders(String marketId, int depth) {
+    return getOrderBook(marketId).toMarketOrderBook(depth);
+  }
+
+  /**
+   * Returns a market's ticker. The stats cover every trade since the market opened.
+   *
+   * @param marketId the market id.
+   * @return the ticker; the trade stats are null until the first trade.
+   * @throws IllegalArgumentException if the market is unknown.
+   */
+  public synchronized Ticker getTicker(String marketId) {
+    return getOrderBook(marketId).toTicker(clock.getAsLong());
+  }
+
+  /**
+   * Returns the price of the last trade on a market.
+   *
+   * @param marketId the market id.
+   * @return the last trade price, or null if there have been no trades.
+   * @throws IllegalArgumentException if the market is unknown.
+   */
+  public synchronized BigDecimal getLastTradePrice(String marketId) {
+    return getOrderBook(marketId).getLast();
+  }
+
+  /**
+   * Returns an account's balances.
+   *
+   * @param accountId the account id.
+   * @return the available balances and the balances held against open orders.
+   */
+  public synchronized BalanceInfo getBalanceInfo(String accountId) {
+    return getAccount(accountId).toBalanceInfo();
+  }
+
+  /**
+   * Returns the fees collected by the exchange.
+   *
+   * @return the fees collected, by currency.
+   */
+  public synchronized Map<String, BigDecimal> getFeesCollected() {
+    return new HashMap<>(feesCollected);
+  }
+
+  /**
+   * Adds a listener that is told about every trade.
+   *
+   * @param tradeListener the listener; it is called under the engine's lock.
+   */
+  public void addTradeListener(Consumer<Trade> tradeListener) {
+    tradeListeners.add(tradeListener);
+  }
+
+  // --------------------------------------------------------------------------
+  //  Util methods
+  // --------------------------------------------------------------------------
+
+  private void match(LimitOrderBook orderBook, SimulatedOrder taker) {
+    final OrderType makerType = taker.getType() == OrderType.BUY ? OrderType.SELL : OrderType.BUY;
+    final NavigableMap<BigDecimal, Deque<SimulatedOrder>> makers = orderBook.getSide(makerType);
+
+    while (!taker.isFilled() && !makers.isEmpty()) {
+      final BigDecimal makerPrice = makers.firstKey();
+      final int comparison = makerPrice.compareTo(taker.getPrice());
+      if (taker.getType() == OrderType.BUY ? comparison > 0 : comparison < 0) {
+        break; // book no longer crosses
+      }
+
+      final Deque<SimulatedOrder> level = makers.firstEntry().getValue();
+      while (!taker.isFilled() && !level.isEmpty()) {
+        final SimulatedOrder maker = level.peekFirst();
+        final BigDecimal quantity = taker.getQuantity().min(maker.getQuantity());
+        if (taker.getType() == OrderType.BUY) {
+          fill(orderBook, taker, maker, quantity, makerPrice, OrderType.BUY);
+        } else {
+          fill(orderBook, maker, taker, quantity, makerPrice, OrderType.SELL);
+        }
+        if (maker.isFilled()) {
+          level.pollFirst();
+          openOrders.remove(maker.getId());
+        }
+      }
+      if (level.isEmpty()) {
+        makers.pollFirstEntry();
+      }
+    }
+  }
+
+  private void fill(
+      LimitOrderBook orderBook,
+      SimulatedOrder buyOrder,
+      SimulatedOrder sellOrder,
+      BigDecimal quantity,
+      BigDecimal price,
+      OrderType takerType) {
+    final String baseCurrency = orderBook.getBaseCurrency();
+    final String counterCurrency = orderBook.getCounterCurrency();
+    final BigDecimal value = quantity.multiply(price);
+    final BigDecimal buyerFee = fee(value, buyFeePercentage);
+    final BigDecimal sellerFee = fee(value, sellFeePercentage);
+
+    // The buyer's funds were held at the limit price; the last fill releases whatever is left.
+    final BigDecimal buyerReleased =
+        quantity.compareTo(buyOrder.getQuantity()) == 0
+            ? buyOrder.getHeld()
+            : buyCost(quantity, buyOrder.getPrice());
+    final SimulatedAccount buyer = getAccount(buyOrder.getAccountId());
+    buyer.debitHeld(counterCurrency, buyerReleased);
+    buyer.credit(counterCurrency, buyerReleased.subtract(value).subtract(buyerFee));
+    buyer.credit(baseCurrency, quantity);
+    buyOrder.fill(quantity, buyerReleased);
+
+    final SimulatedAccount seller = getAccount(sellOrder.getAccountId());
+    seller.debitHeld(baseCurrency, quantity);
+    seller.credit(counterCurrency, value.subtract(sellerFee));
+    sellOrder.fill(quantity, quantity);
+
+    feesCollected.merge(counterCurrency, buyerFee.add(sellerFee), BigDecimal::add);
+    orderBook.recordTrade(price, quantity);
+
+    final Trade trade =
+        new Trade(
+            orderBook.getMarketId(),
+            price,
+            quantity,
+            takerType,
+            buyOrder.getId(),
+            buyOrder.getAccountId(),
+            buyerFee,
+            sellOrder.getId(),
+            sellOrder.getAccountId(),
+            sellerFee,
+            clock.getAsLong());
+    LOG.debug(() -> "Trade: " + trade);
+    for (final Consumer<Trade> tradeListener : tradeListeners) {
+      tradeListener.accept(trade);
+    }
+  }
+
+  /**
+   * Returns the funds held for a buy order: its value plus the buy fee.
+   *
+   * @param quantity the order quantity.
+   * @param price the limit price.
+   * @return the cost in counter currency.
+   */
+  public BigDecimal buyCost(BigDecimal quantity, BigDecimal price) {
+    final BigDecimal value = quantity.multiply(price);
+    return value.add(fee(value, buyFeePercentage));
+  }
+
+  private static BigDecimal fee(BigDecimal value, BigDecimal feePercentage) {
+    return value.multiply(feePercentage).setScale(FEE_SCALE, RoundingMode.HALF_UP);
+  }
+
+  private LimitOrderBook getOrderBook(String marketId) {
+    final LimitOrderBook orderBook = orderBooks.get(marketId);
+    if (orderBook == null) {
+      throw new IllegalArgumentException("Unknown market: " + marketId);
+    }
+    return orderBook;
+  }
+
+  private SimulatedAccount getAccount(String accountId) {
+    return accounts.computeIfAbsent(accountId, SimulatedAccount::new);
+  }
+
+  @Override
+  public synchronized String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("buyFeePercentage", buyFeePercentage)
+        .add("sellFeePercentage", sellFeePercentage)
+        .add("orderBooks", orderBooks.values())
+        .add("openOrders", openOrders.size())
+        .add("feesCollected", feesCollected)
+        .toString();
+  }
+}
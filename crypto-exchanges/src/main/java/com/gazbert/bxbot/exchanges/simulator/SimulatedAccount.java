@@ -0,0 +1,132 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.simulator;
+
+import com.gazbert.crypto.exchanges.trading.api.impl.BalanceInfoImpl;
+import com.gazbert.crypto.trading.api.BalanceInfo;
+import com.google.common.base.MoreObjects;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An account's balances on the simulated exchange. Funds are either available, or held against the
+ * account's open orders.
+ *
+ * <p>Only accessed by the Matching Engine, under its lock.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+final class SimulatedAccount {
+
+  private final String id;
+  private final Map<String, BigDecimal> available = new HashMap<>();
+  private final Map<String, BigDecimal> onHold = new HashMap<>();
+
+  SimulatedAccount(String id) {
+    this.id = id;
+  }
+
+  String getId() {
+    return id;
+  }
+
+  BigDecimal getAvailable(String currency) {
+    return available.getOrDefault(currency, BigDecimal.ZERO);
+  }
+
+  BigDecimal getOnHold(String currency) {
+    return onHold.getOrDefault(currency, BigDecimal.ZERO);
+  }
+
+  /**
+   * Adds funds to the available balance.
+   *
+   * @param currency the currency.
+   * @param amount the amount to add.
+   */
+  void credit(String currency, BigDecimal amount) {
+    available.merge(currency, amount, BigDecimal::add);
+  }
+
+  /**
+   * Moves funds from the available balance to the balance on hold.
+   *
+   * @param currency the currency.
+   * @param amount the amount to hold.
+   * @throws IllegalArgumentException if there are not enough funds available.
+   */
+  void hold(String currency, BigDecimal amount) {
+    final BigDecimal availableBalance = getAvailable(currency);
+    if (availableBalance.compareTo(amount) < 0) {
+      throw new IllegalArgumentException(
+          "Insufficient "
+              + currency
+              + " funds in account "
+              + id
+              + ": "
+              + amount
+              + " needed but "
+              + availableBalance
+              + " available");
+    }
+    available.put(currency, availableBalance.subtract(amount));
+    onHold.merge(currency, amount, BigDecimal::add);
+  }
+
+  /**
+   * Moves funds on hold back to the available balance.
+   *
+   * @param currency the currency.
+   * @param amount the amount to release.
+   */
+  void release(String currency, BigDecimal amount) {
+    onHold.merge(currency, amount.negate(), BigDecimal::add);
+    available.merge(currency, amount, BigDecimal::add);
+  }
+
+  /**
+   * Takes funds on hold out of the account, e.g. when they are paid to another account.
+   *
+   * @param currency the currency.
+   * @param amount the amount to take.
+   */
+  void debitHeld(String currency, BigDecimal amount) {
+    onHold.merge(currency, amount.negate(), BigDecimal::add);
+  }
+
+  BalanceInfo toBalanceInfo() {
+    return new BalanceInfoImpl(new HashMap<>(available), new HashMap<>(onHold));
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("id", id)
+        .add("available", available)
+        .add("onHold", onHold)
+        .toString();
+  }
+}
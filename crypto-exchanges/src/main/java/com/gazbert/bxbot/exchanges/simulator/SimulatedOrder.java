@@ -0,0 +1,150 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.simulator;
+
+import com.gazbert.crypto.trading.api.OrderType;
+import com.google.common.base.MoreObjects;
+import java.math.BigDecimal;
+
+/**
+ * An order on the simulated exchange. The remaining quantity and held funds go down as the order
+ * fills.
+ *
+ * <p>Only accessed by the Matching Engine, under its lock.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+final class SimulatedOrder {
+
+  private final String id;
+  private final String accountId;
+  private final String marketId;
+  private final OrderType type;
+  private final BigDecimal price;
+  private final BigDecimal originalQuantity;
+  private final long creationTime;
+
+  private BigDecimal quantity;
+  private BigDecimal held;
+
+  /**
+   * Creates a new order.
+   *
+   * @param id the order id.
+   * @param accountId the account that placed the order.
+   * @param marketId the market id.
+   * @param type the order type.
+   * @param price the limit price.
+   * @param quantity the amount of base currency to buy or sell.
+   * @param held the funds held for the order: counter currency, including fees, for a buy order;
+   *     base currency for a sell order.
+   * @param creationTime the time the order was placed, in millis since the epoch.
+   */
+  SimulatedOrder(
+      String id,
+      String accountId,
+      String marketId,
+      OrderType type,
+      BigDecimal price,
+      BigDecimal quantity,
+      BigDecimal held,
+      long creationTime) {
+    this.id = id;
+    this.accountId = accountId;
+    this.marketId = marketId;
+    this.type = type;
+    this.price = price;
+    this.originalQuantity = quantity;
+    this.quantity = quantity;
+    this.held = held;
+    this.creationTime = creationTime;
+  }
+
+  String getId() {
+    return id;
+  }
+
+  String getAccountId() {
+    return accountId;
+  }
+
+  String getMarketId() {
+    return marketId;
+  }
+
+  OrderType getType() {
+    return type;
+  }
+
+  BigDecimal getPrice() {
+    return price;
+  }
+
+  BigDecimal getOriginalQuantity() {
+    return originalQuantity;
+  }
+
+  long getCreationTime() {
+    return creationTime;
+  }
+
+  BigDecimal getQuantity() {
+    return quantity;
+  }
+
+  boolean isFilled() {
+    return quantity.signum() == 0;
+  }
+
+  BigDecimal getHeld() {
+    return held;
+  }
+
+  /**
+   * Fills some of the order.
+   *
+   * @param fillQuantity the quantity filled.
+   * @param released the held funds used up or released by the fill.
+   */
+  void fill(BigDecimal fillQuantity, BigDecimal released) {
+    quantity = quantity.subtract(fillQuantity);
+    held = held.subtract(released);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("id", id)
+        .add("accountId", accountId)
+        .add("marketId", marketId)
+        .add("type", type)
+        .add("price", price)
+        .add("originalQuantity", originalQuantity)
+        .add("quantity", quantity)
+        .add("held", held)
+        .add("creationTime", creationTime)
+        .toString();
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.simulator;
+
+import com.gazbert.crypto.trading.api.OrderType;
+import com.google.common.base.MoreObjects;
+import java.math.BigDecimal;
+
+/**
+ * A fill between a buy order and a sell order on the simulated exchange.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class Trade {
+
+  private final String marketId;
+  private final BigDecimal price;
+  private final BigDecimal quantity;
+  private final OrderType takerType;
+  private final String buyOrderId;
+  private final String buyerAccountId;
+  private final BigDecimal buyerFee;
+  private final String sellOrderId;
+  private final String sellerAccountId;
+  private final BigDecimal sellerFee;
+  private final long timestamp;
+
+  /**
+   * Creates a new Trade.
+   *
+   * @param marketId the market id.
+   * @param price the price the trade was made at; the resting order's price.
+   * @param quantity the amount of base currency traded.
+   * @param takerType the type of the order that was matched against a resting order.
+   * @param buyOrderId the buy order id.
+   * @param buyerAccountId the buyer's account id.
+   * @param buyerFee the fee the buyer paid, in counter currency.
+   * @param sellOrderId the sell order id.
+   * @param sellerAccountId the seller's account id.
+   * @param sellerFee the fee the seller paid, in counter currency.
+   * @param timestamp the time of the trade, in millis since the epoch.
+   */
+  Trade(
+      String marketId,
+      BigDecimal price,
+      BigDecimal quantity,
+      OrderType takerType,
+      String buyOrderId,
+      String buyerAccountId,
+      BigDecimal buyerFee,
+      String sellOrderId,
+      String sellerAccountId,
+      BigDecimal sellerFee,
+      long timestamp) {
+    this.marketId = marketId;
+    this.price = price;
+    this.quantity = quantity;
+    this.takerType = takerType;
+    this.buyOrderId = buyOrderId;
+    this.buyerAccountId = buyerAccountId;
+    this.buyerFee = buyerFee;
+    this.sellOrderId = sellOrderId;
+    this.sellerAccountId = sellerAccountId;
+    this.sellerFee = sellerFee;
+    this.timestamp = timestamp;
+  }
+
+  public String getMarketId() {
+    return marketId;
+  }
+
+  public BigDecimal getPrice() {
+    return price;
+  }
+
+  public BigDecimal getQuantity() {
+    return quantity;
+  }
+
+  public OrderType getTakerType() {
+    return takerType;
+  }
+
+  public String getBuyOrderId() {
+    return buyOrderId;
+  }
+
+  public String getBuyerAccountId() {
+    return buyerAccountId;
+  }
+
+  public BigDecimal getBuyerFee() {
+    return buyerFee;
+  }
+
+  public String getSellOrderId() {
+    return sellOrderId;
+  }
+
+  public String getSellerAccountId() {
+    return sellerAccountId;
+  }
+
+  public BigDecimal getSellerFee() {
+    return sellerFee;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("marketId", marketId)
+        .add("price", price)
+        .add("quantity", quantity)
+        .add("takerType", takerType)
+        .add("buyOrderId", buyOrderId)
+        .add("buyerAccountId", buyerAccountId)
+        .add("buyerFee", buyerFee)
+        .add("sellOrderId", sellOrderId)
+        .add("sellerAccountId", sellerAccountId)
+        .add("sellerFee", sellerFee)
+        .add("timestamp", timestamp)
+        .toString();
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * An in-process simulated exchange.
+ *
+ * <p>The {@link com.gazbert.crypto.exchanges.simulator.MatchingEngine} keeps a limit order book per
+ * market and matches orders by price-time priority: an order fills against the best priced resting
+ * orders first, and against the oldest order at a price before younger ones. Fills are made at the
+ * resting order's price. Each account's balances are held against its open orders and settled, less
+ * the exchange fees, as orders fill.
+ *
+ * <p>The {@link com.gazbert.crypto.exchanges.simulator.LiquidityProvider} quotes a ladder of orders
+ * either side of the last trade price so there is always something to trade against.
+ *
+ * <p>Nothing is sent over the network, and the order ids, fills and fees only depend on the orders
+ * submitted, so a run can be repeated exactly.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+package com.gazbert.crypto.exchanges.simulator;
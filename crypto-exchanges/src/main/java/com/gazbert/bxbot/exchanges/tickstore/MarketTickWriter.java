@@ -0,0 +1,201 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.tickstore;
+
+import static com.gazbert.crypto.exchanges.tickstore.TickStore.ASK;
+import static com.gazbert.crypto.exchanges.tickstore.TickStore.BID;
+import static com.gazbert.crypto.exchanges.tickstore.TickStore.COLUMNS;
+import static com.gazbert.crypto.exchanges.tickstore.TickStore.LAST;
+import static com.gazbert.crypto.exchanges.tickstore.TickStore.SAMPLE_BYTES;
+import static com.gazbert.crypto.exchanges.tickstore.TickStore.TIMESTAMP;
+import static com.gazbert.crypto.exchanges.tickstore.TickStore.VOLUME;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends one market's samples to its column files.
+ *
+ * <p>The files are mapped read-write a region of {@value #REGION_SAMPLES} samples at a time, and
+ * each sample is written with absolute puts into the mapped regions, so appending a sample does
+ * not allocate or make a system call. When a region is full, it is forced to disk and the next
+ * region is mapped; mapping past the end of a file grows it, so the files are always a whole
+ * number of regions long and the samples not yet written are zero.
+ *
+ * <p>The timestamp is written after the other fields, so a sample with a zero timestamp was never
+ * completely written. When the files are reopened, appending resumes after the last sample with a
+ * timestamp.
+ *
+ * @author gazbert
+ */
+final class MarketTickWriter implements Closeable {
+
+  static final int REGION_SAMPLES = 64 * 1024;
+
+  private final Path directory;
+  private final FileChannel[] channels = new FileChannel[COLUMNS.length];
+  private final MappedByteBuffer[] regions = new MappedByteBuffer[COLUMNS.length];
+
+  private long size;
+  private long regionStart;
+  private long lastTimestamp;
+
+  MarketTickWriter(Path directory) throws IOException {
+    this.directory = directory;
+    Files.createDirectories(directory);
+    try {
+      for (int column = 0; column < COLUMNS.length; column++) {
+        channels[column] =
+            FileChannel.open(
+                directory.resolve(COLUMNS[column]),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+      }
+      size = countSamples(channels[TIMESTAMP]);
+      lastTimestamp = size == 0 ? 0 : readTimestamp(channels[TIMESTAMP], size - 1);
+      mapRegion(size);
+    } catch (IOException e) {
+      closeChannels();
+      throw e;
+    }
+  }
+
+  /*
+   * A timestamp earlier than the last one is stored as the last one, so the timestamps can be
+   * searched.
+   */
+  synchronized void append(long timestamp, long bid, long ask, long last, long volume)
+      throws IOException {
+    if (timestamp <= 0) {
+      throw new IllegalArgumentException("Tick timestamp must be positive: " + timestamp);
+    }
+    if (size == regionStart + REGION_SAMPLES) {
+      forceRegions();
+      mapRegion(size);
+    }
+    final int offset = (int) (size - regionStart) * SAMPLE_BYTES;
+    regions[BID].putLong(offset, bid);
+    regions[ASK].putLong(offset, ask);
+    regions[LAST].putLong(offset, last);
+    regions[VOLUME].putLong(offset, volume);
+    lastTimestamp = Math.max(timestamp, lastTimestamp);
+    regions[TIMESTAMP].putLong(offset, lastTimestamp);
+    size++;
+  }
+
+  synchronized long size() {
+    return size;
+  }
+
+  Path getDirectory() {
+    return directory;
+  }
+
+  synchronized void force() {
+    forceRegions();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    forceRegions();
+    closeChannels();
+  }
+
+  // --------------------------------------------------------------------------
+  //  Util methods
+  // --------------------------------------------------------------------------
+
+  private void mapRegion(long firstSample) throws IOException {
+    for (int column = 0; column < COLUMNS.length; column++) {
+      regions[column] =
+          channels[column].map(
+              FileChannel.MapMode.READ_WRITE,
+              firstSample * SAMPLE_BYTES,
+              (long) REGION_SAMPLES * SAMPLE_BYTES);
+    }
+    regionStart = firstSample;
+  }
+
+  private void forceRegions() {
+    for (final MappedByteBuffer region : regions) {
+      if (region != null) {
+        region.force();
+      }
+    }
+  }
+
+  private void closeChannels() throws IOException {
+    IOException closeError = null;
+    for (final FileChannel channel : channels) {
+      if (channel != null) {
+        try {
+          channel.close();
+        } catch (IOException e) {
+          closeError = e;
+        }
+      }
+    }
+    if (closeError != null) {
+      throw closeError;
+    }
+  }
+
+  /*
+   * The written timestamps are all positive and the rest are zero, so the first zero timestamp is
+   * binary searched for.
+   */
+  private static long countSamples(FileChannel timestamps) throws IOException {
+    long low = 0;
+    long high = timestamps.size() / SAMPLE_BYTES;
+    while (low < high) {
+      final long mid = (low + high) >>> 1;
+      if (readTimestamp(timestamps, mid) == 0) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    return low;
+  }
+
+  private static long readTimestamp(FileChannel timestamps, long index) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(SAMPLE_BYTES);
+    long position = index * SAMPLE_BYTES;
+    while (buffer.hasRemaining()) {
+      final int read = timestamps.read(buffer, position);
+      if (read < 0) {
+        throw new IOException("Unexpected end of tick store column: " + timestamps);
+      }
+      position += read;
+    }
+    return buffer.getLong(0);
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.tickstore;
+
+/**
+ * Receives the samples of a tick store scan, one call per sample. The prices and volume are the
+ * stored values, scaled by 10^{@value TickStore#SCALE}, so a scan does not box or allocate.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+@FunctionalInterface
+public interface TickConsumer {
+
+  /**
+   * Accepts a sample.
+   *
+   * @param timestamp the time the sample was taken, in millis since the epoch.
+   * @param bid the scaled bid price.
+   * @param ask the scaled ask price.
+   * @param last the scaled last trade price.
+   * @param volume the scaled volume.
+   */
+  void accept(long timestamp, long bid, long ask, long last, long volume);
+}
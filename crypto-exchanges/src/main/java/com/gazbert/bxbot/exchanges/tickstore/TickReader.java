@@ -0,0 +1,275 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.tickstore;
+
+import static com.gazbert.crypto.exchanges.tickstore.TickStore.ASK;
+import static com.gazbert.crypto.exchanges.tickstore.TickStore.BID;
+import static com.gazbert.crypto.exchanges.tickstore.TickStore.COLUMNS;
+import static com.gazbert.crypto.exchanges.tickstore.TickStore.LAST;
+import static com.gazbert.crypto.exchanges.tickstore.TickStore.TIMESTAMP;
+import static com.gazbert.crypto.exchanges.tickstore.TickStore.VOLUME;
+
+import com.google.common.base.MoreObjects;
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Reads a market's samples from a {@link TickStore}.
+ *
+ * <p>The column files are mapped read-only, so the samples are not copied onto the heap and every
+ * reader of a market shares the same pages of the OS page cache. The samples are the ones written
+ * when the reader was opened; samples recorded after are read by opening a new reader. The mapped
+ * buffers are only ever read with absolute gets, which do not change their state, so a reader is
+ * safe to use from many threads at once. A column is limited to {@link Integer#MAX_VALUE} bytes,
+ * i.e. about 268 million samples.
+ *
+ * <p>Prices and volumes are returned as stored, scaled by 10^{@value TickStore#SCALE}; see {@link
+ * TickStore#fromScaledLong(long)}.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class TickReader {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final Path directory;
+  private final LongBuffer[] columns;
+  private final int offset;
+  private final int size;
+
+  private TickReader(Path directory, LongBuffer[] columns, int offset, int size) {
+    this.directory = directory;
+    this.columns = columns;
+    this.offset = offset;
+    this.size = size;
+  }
+
+  /**
+   * Opens a market's samples in a tick store.
+   *
+   * @param storeDirectory the tick store directory.
+   * @param marketId the id of the market.
+   * @return the reader.
+   * @throws IOException if a column file cannot be mapped.
+   * @throws IllegalArgumentException if a column is shorter than the timestamps.
+   */
+  public static TickReader open(Path storeDirectory, String marketId) throws IOException {
+    return open(TickStore.marketDirectory(storeDirectory, marketId));
+  }
+
+  /**
+   * Opens the samples in a directory of column files.
+   *
+   * @param directory the directory holding the column files.
+   * @return the reader.
+   * @throws IOException if a column file cannot be mapped.
+   * @throws IllegalArgumentException if a column is shorter than the timestamps.
+   */
+  public static TickReader open(Path directory) throws IOException {
+    final LongBuffer[] columns = new LongBuffer[COLUMNS.length];
+    for (int column = 0; column < COLUMNS.length; column++) {
+      columns[column] = map(directory.resolve(COLUMNS[column]));
+    }
+
+    final int size = countSamples(columns[TIMESTAMP]);
+    for (final LongBuffer column : columns) {
+      if (column.capacity() < size) {
+        final String errorMsg = "Tick store columns are not the same length in: " + directory;
+        LOG.error(errorMsg);
+        throw new IllegalArgumentException(errorMsg);
+      }
+    }
+    LOG.info(() -> "Mapped " + size + " samples from " + directory);
+    return new TickReader(directory, columns, 0, size);
+  }
+
+  /**
+   * Returns the number of samples.
+   *
+   * @return the number of samples.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns a sample's timestamp.
+   *
+   * @param index the index of the sample.
+   * @return the time the sample was taken, in millis since the epoch.
+   */
+  public long getTimestamp(int index) {
+    return get(TIMESTAMP, index);
+  }
+
+  /**
+   * Returns a sample's bid price.
+   *
+   * @param index the index of the sample.
+   * @return the scaled bid price.
+   */
+  public long getBid(int index) {
+    return get(BID, index);
+  }
+
+  /**
+   * Returns a sample's ask price.
+   *
+   * @param index the index of the sample.
+   * @return the scaled ask price.
+   */
+  public long getAsk(int index) {
+    return get(ASK, index);
+  }
+
+  /**
+   * Returns a sample's last trade price.
+   *
+   * @param index the index of the sample.
+   * @return the scaled last trade price.
+   */
+  public long getLast(int index) {
+    return get(LAST, index);
+  }
+
+  /**
+   * Returns a sample's volume.
+   *
+   * @param index the index of the sample.
+   * @return the scaled volume.
+   */
+  public long getVolume(int index) {
+    return get(VOLUME, index);
+  }
+
+  /**
+   * Returns the index of the first sample taken at or after a time. The timestamps are in order,
+   * so this is a binary search.
+   *
+   * @param timestamp the time, in millis since the epoch.
+   * @return the index of the sample, or {@link #size()} if every sample was taken before the time.
+   */
+  public int indexOf(long timestamp) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (getTimestamp(mid) < timestamp) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Returns the samples taken in a time range. The range shares this reader's mapped columns; the
+   * samples are not copied.
+   *
+   * @param fromTimestamp the start of the range, inclusive, in millis since the epoch.
+   * @param toTimestamp the end of the range, exclusive, in millis since the epoch.
+   * @return a reader of the samples in the range, indexed from 0.
+   */
+  public TickReader range(long fromTimestamp, long toTimestamp) {
+    final int from = indexOf(fromTimestamp);
+    final int to = Math.max(from, indexOf(toTimestamp));
+    return new TickReader(directory, columns, offset + from, to - from);
+  }
+
+  /**
+   * Passes the samples taken in a time range to a consumer, in order.
+   *
+   * @param fromTimestamp the start of the range, inclusive, in millis since the epoch.
+   * @param toTimestamp the end of the range, exclusive, in millis since the epoch.
+   * @param consumer the consumer of the samples.
+   * @return the number of samples passed to the consumer.
+   */
+  public int scan(long fromTimestamp, long toTimestamp, TickConsumer consumer) {
+    final int from = indexOf(fromTimestamp);
+    int index = from;
+    while (index < size) {
+      final long timestamp = getTimestamp(index);
+      if (timestamp >= toTimestamp) {
+        break;
+      }
+      consumer.accept(
+          timestamp, getBid(index), getAsk(index), getLast(index), getVolume(index));
+      index++;
+    }
+    return index - from;
+  }
+
+  // --------------------------------------------------------------------------
+  //  Util methods
+  // --------------------------------------------------------------------------
+
+  private long get(int column, int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Sample " + index + " of " + size);
+    }
+    return columns[column].get(offset + index);
+  }
+
+  private static LongBuffer map(Path columnFile) throws IOException {
+    try (FileChannel channel = FileChannel.open(columnFile, StandardOpenOption.READ)) {
+      // the mapping stays valid once the channel is closed
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).asLongBuffer();
+    }
+  }
+
+  /*
+   * A recorder grows the columns a region at a time, leaving the timestamps it has not written
+   * yet as zero. Written timestamps are positive, so the first zero timestamp is binary searched
+   * for.
+   */
+  private static int countSamples(LongBuffer timestamps) {
+    int low = 0;
+    int high = timestamps.capacity();
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (timestamps.get(mid) == 0) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    return low;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("directory", directory)
+        .add("offset", offset)
+        .add("size", size)
+        .toString();
+  }
+}
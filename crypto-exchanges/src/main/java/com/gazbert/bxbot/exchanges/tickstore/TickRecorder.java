@@ -0,0 +1,180 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.tickstore;
+
+import com.google.common.base.MoreObjects;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Records market samples to a {@link TickStore}.
+ *
+ * <p>Each market's samples are appended to memory-mapped column files in the market's directory;
+ * the files are created the first time a sample is recorded for the market, and samples recorded
+ * by an earlier run are kept and appended to. Recording a sample takes the prices and volume
+ * already scaled by 10^{@value TickStore#SCALE} and does not allocate, so it can be called for
+ * every sample fetched without adding garbage collection work.
+ *
+ * <p>Samples can be recorded from many threads at once; samples for the same market are appended
+ * one at a time. The timestamps of a market are kept in order: a sample timestamped earlier than
+ * the market's last sample is stored with the last sample's timestamp.
+ *
+ * <p>The samples are written to the OS page cache, which writes them to disk in the background;
+ * {@link #flush()} and {@link #close()} wait for them to be written.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class TickRecorder implements Closeable {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final Path directory;
+  private final ConcurrentMap<String, MarketTickWriter> writers = new ConcurrentHashMap<>();
+  private volatile boolean closed;
+
+  /**
+   * Creates a recorder.
+   *
+   * @param directory the tick store directory; it is created when the first sample is recorded.
+   */
+  public TickRecorder(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Records a sample.
+   *
+   * @param marketId the id of the market.
+   * @param timestamp the time the sample was taken, in millis since the epoch.
+   * @param bid the bid price, scaled by 10^{@value TickStore#SCALE}.
+   * @param ask the ask price, scaled by 10^{@value TickStore#SCALE}.
+   * @param last the last trade price, scaled by 10^{@value TickStore#SCALE}.
+   * @param volume the volume, scaled by 10^{@value TickStore#SCALE}.
+   * @throws IOException if the market's column files cannot be opened or grown.
+   * @throws IllegalArgumentException if the timestamp is not positive.
+   * @throws IllegalStateException if the recorder has been closed.
+   */
+  public void record(
+      String marketId, long timestamp, long bid, long ask, long last, long volume)
+      throws IOException {
+    MarketTickWriter writer = writers.get(marketId);
+    if (writer == null) {
+      writer = openWriter(marketId);
+    }
+    writer.append(timestamp, bid, ask, last, volume);
+  }
+
+  /**
+   * Returns the number of samples recorded for a market, including those recorded by earlier runs.
+   * Markets that have not had a sample recorded by this recorder are reported as 0.
+   *
+   * @param marketId the id of the market.
+   * @return the number of samples.
+   */
+  public long getSampleCount(String marketId) {
+    final MarketTickWriter writer = writers.get(marketId);
+    return writer == null ? 0 : writer.size();
+  }
+
+  /**
+   * Returns the tick store directory.
+   *
+   * @return the directory.
+   */
+  public Path getDirectory() {
+    return directory;
+  }
+
+  /** Waits for the samples recorded so far to be written to disk. */
+  public void flush() {
+    for (final MarketTickWriter writer : writers.values()) {
+      writer.force();
+    }
+  }
+
+  /**
+   * Writes the samples recorded to disk and closes the column files. Samples cannot be recorded
+   * once the recorder is closed.
+   *
+   * @throws IOException if a column file cannot be closed.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    closed = true;
+    IOException closeError = null;
+    for (final MarketTickWriter writer : writers.values()) {
+      try {
+        writer.close();
+      } catch (IOException e) {
+        LOG.error("Failed to close tick store columns in: " + writer.getDirectory(), e);
+        closeError = e;
+      }
+    }
+    writers.clear();
+    if (closeError != null) {
+      throw closeError;
+    }
+  }
+
+  // --------------------------------------------------------------------------
+  //  Util methods
+  // --------------------------------------------------------------------------
+
+  private synchronized MarketTickWriter openWriter(String marketId) throws IOException {
+    if (closed) {
+      throw new IllegalStateException("Tick recorder is closed: " + directory);
+    }
+    MarketTickWriter writer = writers.get(marketId);
+    if (writer == null) {
+      writer = new MarketTickWriter(TickStore.marketDirectory(directory, marketId));
+      writers.put(marketId, writer);
+      final long resumedSize = writer.size();
+      final Path marketDirectory = writer.getDirectory();
+      LOG.info(
+          () ->
+              "Recording ticks for market "
+                  + marketId
+                  + " to "
+                  + marketDirectory
+                  + " after "
+                  + resumedSize
+                  + " existing samples");
+    }
+    return writer;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("directory", directory)
+        .add("markets", writers.keySet())
+        .toString();
+  }
+}
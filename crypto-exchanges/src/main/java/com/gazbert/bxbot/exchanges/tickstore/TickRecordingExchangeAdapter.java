@@ -0,0 +1,316 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.tickstore;
+
+import com.gazbert.crypto.exchange.api.ExchangeAdapter;
+import com.gazbert.crypto.exchange.api.ExchangeConfig;
+import com.gazbert.crypto.trading.api.BalanceInfo;
+import com.gazbert.crypto.trading.api.ExchangeNetworkException;
+import com.gazbert.crypto.trading.api.MarketOrder;
+import com.gazbert.crypto.trading.api.MarketOrderBook;
+import com.gazbert.crypto.trading.api.OpenOrder;
+import com.gazbert.crypto.trading.api.OrderType;
+import com.gazbert.crypto.trading.api.Ticker;
+import com.gazbert.crypto.trading.api.TradingApiException;
+import com.google.common.base.MoreObjects;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Wraps an Exchange Adapter and records the market data it fetches to a {@link TickRecorder}.
+ *
+ * <p>A sample is recorded for every Ticker and every market order book fetched, timestamped with
+ * the time it was fetched. A Ticker gives the bid, ask, last trade price and volume; an order book
+ * gives the best bid and ask, and the market's last trade price and volume are carried over from
+ * the last Ticker or latest market price fetched. If the last trade price is not known yet, the
+ * mid price is recorded; if the volume is not known yet, 0 is recorded. Nothing is recorded when
+ * the bid or ask is missing.
+ *
+ * <p>Every call is passed on to the wrapped adapter unchanged, including its asynchronous calls. A
+ * sample that cannot be recorded is logged and dropped: recording never fails a call.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class TickRecordingExchangeAdapter implements ExchangeAdapter {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final ExchangeAdapter exchangeAdapter;
+  private final TickRecorder tickRecorder;
+  private final LongSupplier clock;
+  private final ConcurrentMap<String, MarketState> marketStates = new ConcurrentHashMap<>();
+
+  /**
+   * Creates the recording adapter.
+   *
+   * @param exchangeAdapter the adapter to wrap.
+   * @param tickRecorder the recorder to record samples to.
+   */
+  public TickRecordingExchangeAdapter(ExchangeAdapter exchangeAdapter, TickRecorder tickRecorder) {
+    this(exchangeAdapter, tickRecorder, System::currentTimeMillis);
+  }
+
+  TickRecordingExchangeAdapter(
+      ExchangeAdapter exchangeAdapter, TickRecorder tickRecorder, LongSupplier clock) {
+    this.exchangeAdapter = exchangeAdapter;
+    this.tickRecorder = tickRecorder;
+    this.clock = clock;
+  }
+
+  @Override
+  public void init(ExchangeConfig config) {
+    exchangeAdapter.init(config);
+  }
+
+  @Override
+  public String getVersion() {
+    return exchangeAdapter.getVersion();
+  }
+
+  @Override
+  public String getImplName() {
+    return exchangeAdapter.getImplName();
+  }
+
+  @Override
+  public MarketOrderBook getMarketOrders(String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+    return recordOrderBook(marketId, exchangeAdapter.getMarketOrders(marketId));
+  }
+
+  @Override
+  public MarketOrderBook getMarketOrders(String marketId, int depth)
+      throws ExchangeNetworkException, TradingApiException {
+    return recordOrderBook(marketId, exchangeAdapter.getMarketOrders(marketId, depth));
+  }
+
+  @Override
+  public List<OpenOrder> getYourOpenOrders(String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+    return exchangeAdapter.getYourOpenOrders(marketId);
+  }
+
+  @Override
+  public String createOrder(
+      String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price)
+      throws ExchangeNetworkException, TradingApiException {
+    return exchangeAdapter.createOrder(marketId, orderType, quantity, price);
+  }
+
+  @Override
+  public boolean cancelOrder(String orderId, String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+    return exchangeAdapter.cancelOrder(orderId, marketId);
+  }
+
+  @Override
+  public BigDecimal getLatestMarketPrice(String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+    return recordLatestMarketPrice(marketId, exchangeAdapter.getLatestMarketPrice(marketId));
+  }
+
+  @Override
+  public BalanceInfo getBalanceInfo() throws ExchangeNetworkException, TradingApiException {
+    return exchangeAdapter.getBalanceInfo();
+  }
+
+  @Override
+  public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId)
+      throws TradingApiException, ExchangeNetworkException {
+    return exchangeAdapter.getPercentageOfBuyOrderTakenForExchangeFee(marketId);
+  }
+
+  @Override
+  public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId)
+      throws TradingApiException, ExchangeNetworkException {
+    return exchangeAdapter.getPercentageOfSellOrderTakenForExchangeFee(marketId);
+  }
+
+  @Override
+  public Ticker getTicker(String marketId) throws TradingApiException, ExchangeNetworkException {
+    return recordTicker(marketId, exchangeAdapter.getTicker(marketId));
+  }
+
+  @Override
+  public Executor getAsyncExecutor() {
+    return exchangeAdapter.getAsyncExecutor();
+  }
+
+  @Override
+  public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId) {
+    return exchangeAdapter
+        .getMarketOrdersAsync(marketId)
+        .thenApply(orderBook -> recordOrderBook(marketId, orderBook));
+  }
+
+  @Override
+  public CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId, int depth) {
+    return exchangeAdapter
+        .getMarketOrdersAsync(marketId, depth)
+        .thenApply(orderBook -> recordOrderBook(marketId, orderBook));
+  }
+
+  @Override
+  public CompletableFuture<List<OpenOrder>> getYourOpenOrdersAsync(String marketId) {
+    return exchangeAdapter.getYourOpenOrdersAsync(marketId);
+  }
+
+  @Override
+  public CompletableFuture<String> createOrderAsync(
+      String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price) {
+    return exchangeAdapter.createOrderAsync(marketId, orderType, quantity, price);
+  }
+
+  @Override
+  public CompletableFuture<Boolean> cancelOrderAsync(String orderId, String marketId) {
+    return exchangeAdapter.cancelOrderAsync(orderId, marketId);
+  }
+
+  @Override
+  public CompletableFuture<BigDecimal> getLatestMarketPriceAsync(String marketId) {
+    return exchangeAdapter
+        .getLatestMarketPriceAsync(marketId)
+        .thenApply(price -> recordLatestMarketPrice(marketId, price));
+  }
+
+  @Override
+  public CompletableFuture<BalanceInfo> getBalanceInfoAsync() {
+    return exchangeAdapter.getBalanceInfoAsync();
+  }
+
+  @Override
+  public CompletableFuture<BigDecimal> getPercentageOfBuyOrderTakenForExchangeFeeAsync(
+      String marketId) {
+    return exchangeAdapter.getPercentageOfBuyOrderTakenForExchangeFeeAsync(marketId);
+  }
+
+  @Override
+  public CompletableFuture<BigDecimal> getPercentageOfSellOrderTakenForExchangeFeeAsync(
+      String marketId) {
+    return exchangeAdapter.getPercentageOfSellOrderTakenForExchangeFeeAsync(marketId);
+  }
+
+  @Override
+  public CompletableFuture<Ticker> getTickerAsync(String marketId) {
+    return exchangeAdapter
+        .getTickerAsync(marketId)
+        .thenApply(ticker -> recordTicker(marketId, ticker));
+  }
+
+  // --------------------------------------------------------------------------
+  //  Util methods
+  // --------------------------------------------------------------------------
+
+  private Ticker recordTicker(String marketId, Ticker ticker) {
+    if (ticker != null) {
+      record(marketId, ticker.getBid(), ticker.getAsk(), ticker.getLast(), ticker.getVolume());
+    }
+    return ticker;
+  }
+
+  /*
+   * Adapters return the buy orders best (highest) price first and the sell orders best (lowest)
+   * price first.
+   */
+  private MarketOrderBook recordOrderBook(String marketId, MarketOrderBook orderBook) {
+    if (orderBook != null) {
+      record(
+          marketId,
+          bestPrice(orderBook.getBuyOrders()),
+          bestPrice(orderBook.getSellOrders()),
+          null,
+          null);
+    }
+    return orderBook;
+  }
+
+  private BigDecimal recordLatestMarketPrice(String marketId, BigDecimal price) {
+    if (price != null) {
+      try {
+        getMarketState(marketId).last = TickStore.toScaledLong(price);
+      } catch (ArithmeticException e) {
+        LOG.warn("Latest market price for " + marketId + " is too large to record: " + price, e);
+      }
+    }
+    return price;
+  }
+
+  private void record(
+      String marketId, BigDecimal bid, BigDecimal ask, BigDecimal last, BigDecimal volume) {
+    if (bid == null || ask == null) {
+      return;
+    }
+    try {
+      final MarketState marketState = getMarketState(marketId);
+      final long scaledBid = TickStore.toScaledLong(bid);
+      final long scaledAsk = TickStore.toScaledLong(ask);
+      if (last != null) {
+        marketState.last = TickStore.toScaledLong(last);
+      }
+      if (volume != null) {
+        marketState.volume = TickStore.toScaledLong(volume);
+      }
+      final long scaledLast =
+          marketState.last != 0 ? marketState.last : (scaledBid + scaledAsk) / 2;
+      tickRecorder.record(
+          marketId, clock.getAsLong(), scaledBid, scaledAsk, scaledLast, marketState.volume);
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Failed to record tick for market " + marketId + " to " + tickRecorder, e);
+    }
+  }
+
+  private MarketState getMarketState(String marketId) {
+    final MarketState marketState = marketStates.get(marketId);
+    return marketState != null
+        ? marketState
+        : marketStates.computeIfAbsent(marketId, id -> new MarketState());
+  }
+
+  private static BigDecimal bestPrice(List<MarketOrder> orders) {
+    return orders == null || orders.isEmpty() ? null : orders.get(0).getPrice();
+  }
+
+  /** The last trade price and volume of a market, scaled; 0 until they are known. */
+  private static final class MarketState {
+    private volatile long last;
+    private volatile long volume;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("exchangeAdapter", exchangeAdapter)
+        .add("tickRecorder", tickRecorder)
+        .toString();
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.tickstore;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+
+/**
+ * The layout of a tick store.
+ *
+ * <p>A tick store is a directory holding one sub-directory per market. A market's directory holds
+ * one file per field: {@value #TIMESTAMP_COLUMN}, {@value #BID_COLUMN}, {@value #ASK_COLUMN},
+ * {@value #LAST_COLUMN} and {@value #VOLUME_COLUMN}. Each file is the field's values as
+ * fixed-width, big-endian longs, one per sample, so sample {@code i} is at byte {@code i * 8} of
+ * every file. Timestamps are millis since the epoch, and prices and volumes are scaled by
+ * 10^{@value #SCALE}.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public final class TickStore {
+
+  /** The number of decimal places prices and volumes are stored to. */
+  public static final int SCALE = 8;
+
+  /** The timestamp column file name. */
+  public static final String TIMESTAMP_COLUMN = "timestamp.col";
+
+  /** The bid price column file name. */
+  public static final String BID_COLUMN = "bid.col";
+
+  /** The ask price column file name. */
+  public static final String ASK_COLUMN = "ask.col";
+
+  /** The last trade price column file name. */
+  public static final String LAST_COLUMN = "last.col";
+
+  /** The volume column file name. */
+  public static final String VOLUME_COLUMN = "volume.col";
+
+  static final String[] COLUMNS = {
+    TIMESTAMP_COLUMN, BID_COLUMN, ASK_COLUMN, LAST_COLUMN, VOLUME_COLUMN
+  };
+
+  static final int TIMESTAMP = 0;
+  static final int BID = 1;
+  static final int ASK = 2;
+  static final int LAST = 3;
+  static final int VOLUME = 4;
+
+  static final int SAMPLE_BYTES = Long.BYTES;
+
+  private TickStore() {
+  }
+
+  /**
+   * Returns the directory a market's columns are stored in. Any character of the market id that
+   * is not a letter, digit, '.', '_' or '-' is replaced with '_', so every market id maps to a
+   * single directory under the store.
+   *
+   * @param storeDirectory the tick store directory.
+   * @param marketId the id of the market.
+   * @return the market's directory.
+   * @throws IllegalArgumentException if the market id is empty, "." or "..".
+   */
+  public static Path marketDirectory(Path storeDirectory, String marketId) {
+    final StringBuilder directoryName = new StringBuilder(marketId.length());
+    for (int i = 0; i < marketId.length(); i++) {
+      final char c = marketId.charAt(i);
+      final boolean allowed =
+          (c >= 'a' && c <= 'z')
+              || (c >= 'A' && c <= 'Z')
+              || (c >= '0' && c <= '9')
+              || c == '.'
+              || c == '_'
+              || c == '-';
+      directoryName.append(allowed ? c : '_');
+    }
+    final String name = directoryName.toString();
+    if (name.isEmpty() || ".".equals(name) || "..".equals(name)) {
+      throw new IllegalArgumentException("Invalid market id for tick store: '" + marketId + "'");
+    }
+    return storeDirectory.resolve(name);
+  }
+
+  /**
+   * Converts a price or volume to its stored value. Values with more than {@value #SCALE} decimal
+   * places are rounded half up.
+   *
+   * @param value the price or volume.
+   * @return the value scaled by 10^{@value #SCALE}.
+   * @throws ArithmeticException if the scaled value does not fit in a long.
+   */
+  public static long toScaledLong(BigDecimal value) {
+    return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+  }
+
+  /**
+   * Converts a stored price or volume back to a BigDecimal.
+   *
+   * @param scaledValue the stored value.
+   * @return the price or volume, with a scale of {@value #SCALE}.
+   */
+  public static BigDecimal fromScaledLong(long scaledValue) {
+    return BigDecimal.valueOf(scaledValue, SCALE);
+  }
+}
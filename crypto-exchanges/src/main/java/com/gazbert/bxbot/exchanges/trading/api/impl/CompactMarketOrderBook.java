@@ -0,0 +1,69 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.trading.api.impl;
+
+import com.gazbert.crypto.trading.api.MarketOrderBook;
+import com.google.common.base.MoreObjects;
+
+/**
+ * A MarketOrderBook implementation backed by {@link CompactMarketOrders}. It can be used by
+ * Exchange Adapters that fetch large order books.
+ *
+ * @author gazbert
+ */
+public final class CompactMarketOrderBook implements MarketOrderBook {
+
+  private final String marketId;
+  private final CompactMarketOrders sellOrders;
+  private final CompactMarketOrders buyOrders;
+
+  /** Creates a new compact Market Order Book. */
+  public CompactMarketOrderBook(
+      String marketId, CompactMarketOrders sellOrders, CompactMarketOrders buyOrders) {
+    this.marketId = marketId;
+    this.sellOrders = sellOrders;
+    this.buyOrders = buyOrders;
+  }
+
+  public String getMarketId() {
+    return marketId;
+  }
+
+  public CompactMarketOrders getSellOrders() {
+    return sellOrders;
+  }
+
+  public CompactMarketOrders getBuyOrders() {
+    return buyOrders;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("marketId", marketId)
+        .add("sellOrders", sellOrders)
+        .add("buyOrders", buyOrders)
+        .toString();
+  }
+}
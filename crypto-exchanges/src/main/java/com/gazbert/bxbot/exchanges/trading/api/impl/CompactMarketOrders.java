@@ -0,0 +1,304 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.trading.api.impl;
+
+import com.gazbert.crypto.trading.api.MarketOrder;
+import com.gazbert.crypto.trading.api.OrderType;
+import com.google.common.base.MoreObjects;
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A compact list of Market Orders that can be used by Exchange Adapters.
+ *
+ * <p>The prices and quantities are held as scaled fixed-point longs in parallel arrays, e.g. a
+ * price of 664.536 with a scale of 8 is held as 66453600000. This saves creating a MarketOrderImpl
+ * and 3 BigDecimals for every order in a large order book. The MarketOrders returned by {@link
+ * #get(int)} are views onto the arrays; their BigDecimal price, quantity, and total are only
+ * created when asked for.
+ *
+ * <p>The list is append-only. An order whose price or quantity does not fit the scale, e.g. it has
+ * more decimal places, is held as BigDecimals instead of being rounded or rejected, so one unusual
+ * order does not fail the whole book.
+ *
+ * @author gazbert
+ */
+public final class CompactMarketOrders extends AbstractList<MarketOrder> implements RandomAccess {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private final OrderType type;
+  private final int priceScale;
+  private final int quantityScale;
+  private long[] prices;
+  private long[] quantities;
+  private BigDecimal[] exactPrices; // only created once an order does not fit the scale
+  private BigDecimal[] exactQuantities;
+  private int size;
+
+  /** Creates a new empty list of Market Orders. */
+  public CompactMarketOrders(OrderType type, int priceScale, int quantityScale) {
+    this(type, priceScale, quantityScale, DEFAULT_CAPACITY);
+  }
+
+  /** Creates a new empty list of Market Orders with room for the given number of orders. */
+  public CompactMarketOrders(
+      OrderType type, int priceScale, int quantityScale, int initialCapacity) {
+    this.type = type;
+    this.priceScale = priceScale;
+    this.quantityScale = quantityScale;
+    prices = new long[initialCapacity];
+    quantities = new long[initialCapacity];
+  }
+
+  /**
+   * Adds an order.
+   *
+   * @param price the price, as a fixed-point value at this list's price scale.
+   * @param quantity the quantity, as a fixed-point value at this list's quantity scale.
+   */
+  public void add(long price, long quantity) {
+    if (size == prices.length) {
+      final int newCapacity = Math.max(DEFAULT_CAPACITY, size * 2);
+      prices = Arrays.copyOf(prices, newCapacity);
+      quantities = Arrays.copyOf(quantities, newCapacity);
+    }
+    prices[size] = price;
+    quantities[size] = quantity;
+    size++;
+  }
+
+  /**
+   * Adds an order from the decimal strings sent by the exchange.
+   *
+   * @param price the price, e.g. "664.536".
+   * @param quantity the quantity, e.g. "0.888".
+   * @throws NumberFormatException if a value is not a decimal number.
+   */
+  public void add(String price, String quantity) {
+    try {
+      add(toFixedPoint(price, priceScale), toFixedPoint(quantity, quantityScale));
+    } catch (ArithmeticException e) {
+      addExact(new BigDecimal(price), new BigDecimal(quantity));
+    }
+  }
+
+  /**
+   * Adds an order.
+   *
+   * @param price the price.
+   * @param quantity the quantity.
+   */
+  public void add(BigDecimal price, BigDecimal quantity) {
+    try {
+      add(toFixedPoint(price, priceScale), toFixedPoint(quantity, quantityScale));
+    } catch (ArithmeticException e) {
+      addExact(price, quantity);
+    }
+  }
+
+  public OrderType getType() {
+    return type;
+  }
+
+  public int getPriceScale() {
+    return priceScale;
+  }
+
+  public int getQuantityScale() {
+    return quantityScale;
+  }
+
+  /**
+   * Returns the price of an order without creating a BigDecimal.
+   *
+   * @param index the index of the order.
+   * @return the price, as a fixed-point value at this list's price scale.
+   * @throws ArithmeticException if the order does not fit the scale.
+   */
+  public long getFixedPointPrice(int index) {
+    checkFixedPoint(index);
+    return prices[index];
+  }
+
+  /**
+   * Returns the quantity of an order without creating a BigDecimal.
+   *
+   * @param index the index of the order.
+   * @return the quantity, as a fixed-point value at this list's quantity scale.
+   * @throws ArithmeticException if the order does not fit the scale.
+   */
+  public long getFixedPointQuantity(int index) {
+    checkFixedPoint(index);
+    return quantities[index];
+  }
+
+  @Override
+  public MarketOrder get(int index) {
+    checkIndex(index);
+    return new MarketOrderView(index);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Converts a decimal string to a fixed-point value. Plain decimals are parsed directly; anything
+   * else, e.g. exponents, goes through BigDecimal.
+   */
+  static long toFixedPoint(String value, int scale) {
+    final int length = value.length();
+    int index = 0;
+    boolean negative = false;
+    if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+      negative = value.charAt(0) == '-';
+      index++;
+    }
+    if (index == length) {
+      return toFixedPoint(new BigDecimal(value), scale);
+    }
+
+    long unscaled = 0;
+    int decimalPlaces = -1; // no decimal point yet
+    for (; index < length; index++) {
+      final char c = value.charAt(index);
+      if (c == '.' && decimalPlaces < 0) {
+        decimalPlaces = 0;
+        continue;
+      }
+      if (c < '0' || c > '9' || unscaled > (Long.MAX_VALUE - 9) / 10) {
+        return toFixedPoint(new BigDecimal(value), scale);
+      }
+      if (decimalPlaces == scale) {
+        if (c != '0') {
+          return toFixedPoint(new BigDecimal(value), scale);
+        }
+        continue; // trailing zeros past the scale are harmless
+      }
+      if (decimalPlaces >= 0) {
+        decimalPlaces++;
+      }
+      unscaled = unscaled * 10 + (c - '0');
+    }
+
+    for (int i = Math.max(decimalPlaces, 0); i < scale; i++) {
+      unscaled = Math.multiplyExact(unscaled, 10L);
+    }
+    return negative ? -unscaled : unscaled;
+  }
+
+  static long toFixedPoint(BigDecimal value, int scale) {
+    return value.setScale(scale).unscaledValue().longValueExact();
+  }
+
+  private void addExact(BigDecimal price, BigDecimal quantity) {
+    add(0L, 0L);
+    if (exactPrices == null) {
+      exactPrices = new BigDecimal[prices.length];
+      exactQuantities = new BigDecimal[prices.length];
+    } else if (exactPrices.length < prices.length) {
+      exactPrices = Arrays.copyOf(exactPrices, prices.length);
+      exactQuantities = Arrays.copyOf(exactQuantities, prices.length);
+    }
+    exactPrices[size - 1] = price;
+    exactQuantities[size - 1] = quantity;
+  }
+
+  private boolean isExact(int index) {
+    return exactPrices != null && index < exactPrices.length && exactPrices[index] != null;
+  }
+
+  private void checkFixedPoint(int index) {
+    checkIndex(index);
+    if (isExact(index)) {
+      throw new ArithmeticException("Order " + index + " does not fit the fixed-point scale");
+    }
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+
+  /** A Market Order view onto one of the orders in the list. */
+  private final class MarketOrderView implements MarketOrder {
+
+    private final int index;
+    private BigDecimal price;
+    private BigDecimal quantity;
+    private BigDecimal total;
+
+    MarketOrderView(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public OrderType getType() {
+      return type;
+    }
+
+    @Override
+    public BigDecimal getPrice() {
+      if (price == null) {
+        price =
+            isExact(index) ? exactPrices[index] : BigDecimal.valueOf(prices[index], priceScale);
+      }
+      return price;
+    }
+
+    @Override
+    public BigDecimal getQuantity() {
+      if (quantity == null) {
+        quantity =
+            isExact(index)
+                ? exactQuantities[index]
+                : BigDecimal.valueOf(quantities[index], quantityScale);
+      }
+      return quantity;
+    }
+
+    @Override
+    public BigDecimal getTotal() {
+      if (total == null) {
+        total = getPrice().multiply(getQuantity());
+      }
+      return total;
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("type", type)
+          .add("price", getPrice())
+          .add("quantity", getQuantity())
+          .add("total", getTotal())
+          .toString();
+    }
+  }
+}
@@ -31,6 +31,10 @@ import java.math.BigDecimal;
 /**
  * A MarketOrder implementation that can be used by Exchange Adapters.
  *
+ * <p>Most exchanges don't send the total for each order in the book. Orders created without one
+ * compute it from the price and quantity the first time {@link #getTotal()} is called, so building
+ * an order book doesn't pay a BigDecimal multiply for every order whether the total is used or not.
+ *
  * @author gazbert
  */
 public final class MarketOrderImpl implements MarketOrder {
@@ -39,6 +43,7 @@ public final class MarketOrderImpl implements MarketOrder {
   private BigDecimal price;
   private BigDecimal quantity;
   private BigDecimal total;
+  private boolean computeTotal;
 
   /** Creates a new Market Order. */
   public MarketOrderImpl(OrderType type, BigDecimal price, BigDecimal quantity, BigDecimal total) {
@@ -48,6 +53,20 @@ public final class MarketOrderImpl implements MarketOrder {
     this.total = total;
   }
 
+  /**
+   * Creates a new Market Order whose total is price * quantity, computed when first asked for.
+   *
+   * @param type the order type.
+   * @param price the order price.
+   * @param quantity the order quantity.
+   */
+  public MarketOrderImpl(OrderType type, BigDecimal price, BigDecimal quantity) {
+    this.type = type;
+    this.price = price;
+    this.quantity = quantity;
+    this.computeTotal = true;
+  }
+
   public OrderType getType() {
     return type;
   }
@@ -62,6 +81,7 @@ public final class MarketOrderImpl implements MarketOrder {
 
   public void setPrice(BigDecimal price) {
     this.price = price;
+    clearComputedTotal();
   }
 
   public BigDecimal getQuantity() {
@@ -70,14 +90,26 @@ public final class MarketOrderImpl implements MarketOrder {
 
   public void setQuantity(BigDecimal quantity) {
     this.quantity = quantity;
+    clearComputedTotal();
   }
 
+  /** Returns the order total, computing it from the price and quantity if need be. */
   public BigDecimal getTotal() {
+    if (total == null && computeTotal && price != null && quantity != null) {
+      total = price.multiply(quantity);
+    }
     return total;
   }
 
   public void setTotal(BigDecimal total) {
     this.total = total;
+    computeTotal = false;
+  }
+
+  private void clearComputedTotal() {
+    if (computeTotal) {
+      total = null;
+    }
   }
 
   @Override
@@ -86,7 +118,7 @@ public final class MarketOrderImpl implements MarketOrder {
         .add("type", type)
         .add("price", price)
         .add("quantity", quantity)
-        .add("total", total)
+        .add("total", getTotal())
         .toString();
   }
 }
@@ -33,6 +33,10 @@ import java.util.Date;
 /**
  * A OpenOrder implementation that can be used by Exchange Adapters.
  *
+ * <p>Most exchanges don't send the total for open orders. Orders created without one compute it
+ * from the price and original quantity - or the quantity, if the exchange doesn't provide the
+ * original quantity - the first time {@link #getTotal()} is called.
+ *
  * @author gazbert
  */
 public final class OpenOrderImpl implements OpenOrder {
@@ -45,6 +49,7 @@ public final class OpenOrderImpl implements OpenOrder {
   private BigDecimal quantity;
   private BigDecimal originalQuantity;
   private BigDecimal total;
+  private boolean computeTotal;
 
   /** Creates a new Open Order. */
   public OpenOrderImpl(
@@ -69,6 +74,31 @@ public final class OpenOrderImpl implements OpenOrder {
     this.total = total;
   }
 
+  /**
+   * Creates a new Open Order whose total is price * original quantity, or price * quantity if the
+   * original quantity is null, computed when first asked for.
+   *
+   * @param id the order id.
+   * @param creationDate the order creation date.
+   * @param marketId the id of the market the order was placed on.
+   * @param type the order type.
+   * @param price the order price.
+   * @param quantity the quantity remaining.
+   * @param originalQuantity the original order quantity; null if the exchange doesn't provide it.
+   */
+  public OpenOrderImpl(
+      String id,
+      Date creationDate,
+      String marketId,
+      OrderType type,
+      BigDecimal price,
+      BigDecimal quantity,
+      BigDecimal originalQuantity) {
+
+    this(id, creationDate, marketId, type, price, quantity, originalQuantity, null);
+    this.computeTotal = true;
+  }
+
   public String getId() {
     return id;
   }
@@ -113,6 +143,7 @@ public final class OpenOrderImpl implements OpenOrder {
 
   public void setPrice(BigDecimal price) {
     this.price = price;
+    clearComputedTotal();
   }
 
   public BigDecimal getQuantity() {
@@ -121,6 +152,7 @@ public final class OpenOrderImpl implements OpenOrder {
 
   public void setQuantity(BigDecimal quantity) {
     this.quantity = quantity;
+    clearComputedTotal();
   }
 
   public BigDecimal getOriginalQuantity() {
@@ -129,14 +161,29 @@ public final class OpenOrderImpl implements OpenOrder {
 
   void setOriginalQuantity(BigDecimal originalQuantity) {
     this.originalQuantity = originalQuantity;
+    clearComputedTotal();
   }
 
+  /** Returns the order total, computing it from the price and quantity if need be. */
   public BigDecimal getTotal() {
+    if (total == null && computeTotal) {
+      final BigDecimal totalQuantity = originalQuantity != null ? originalQuantity : quantity;
+      if (price != null && totalQuantity != null) {
+        total = price.multiply(totalQuantity);
+      }
+    }
     return total;
   }
 
   public void setTotal(BigDecimal total) {
     this.total = total;
+    computeTotal = false;
+  }
+
+  private void clearComputedTotal() {
+    if (computeTotal) {
+      total = null;
+    }
   }
 
   @Override
@@ -168,7 +215,7 @@ public final class OpenOrderImpl implements OpenOrder {
         .add("price", price)
         .add("quantity", quantity)
         .add("originalQuantity", originalQuantity)
-        .add("total", total)
+        .add("total", getTotal())
         .toString();
   }
 }
@@ -1,5 +1,10 @@
 package com.gazbert.crypto.exchanges;
 
+import com.gazbert.crypto.exchanges.AbstractExchangeAdapter.ExchangeResponseReader;
+import com.google.gson.stream.JsonReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.text.DecimalFormatSymbols;
 import java.util.Locale;
 
@@ -28,4 +33,22 @@ abstract class AbstractExchangeAdapterTest {
   DecimalFormatSymbols getDecimalFormatSymbols() {
     return decimalFormatSymbols;
   }
+
+  /**
+   * Streams a canned Exchange response through the response reader passed to a mocked transport
+   * layer method.
+   *
+   * @param responseFile the canned response.
+   * @param responseReader the response reader the adapter passed to the transport layer.
+   * @param <T> the type the response is read into.
+   * @return the response read by the response reader.
+   * @throws Exception if the response could not be read.
+   */
+  @SuppressWarnings("unchecked")
+  static <T> T readCannedResponse(String responseFile, Object responseReader) throws Exception {
+    try (final JsonReader payload =
+        new JsonReader(Files.newBufferedReader(Paths.get(responseFile), StandardCharsets.UTF_8))) {
+      return ((ExchangeResponseReader<T>) responseReader).read(payload);
+    }
+  }
 }
@@ -0,0 +1,577 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.gazbert.crypto.exchange.api.ExchangeConfig;
+import com.gazbert.crypto.exchange.api.NetworkConfig;
+import com.gazbert.crypto.exchange.api.OtherConfig;
+import com.gazbert.crypto.exchange.api.RateLimitConfig;
+import com.gazbert.crypto.exchanges.AbstractExchangeAdapter.ApiCallType;
+import com.gazbert.crypto.exchanges.AbstractExchangeAdapter.ExchangeHttpResponse;
+import com.gazbert.crypto.trading.api.ExchangeNetworkException;
+import com.gazbert.crypto.trading.api.MarketOrder;
+import com.gazbert.crypto.trading.api.OrderType;
+import com.gazbert.crypto.trading.api.TradingApiException;
+import com.google.gson.stream.JsonReader;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the HTTP transports of the Abstract Exchange Adapter against a local HTTP server.
+ *
+ * @author gazbert
+ */
+public class TestAbstractExchangeAdapter {
+
+  private static final List<Integer> NON_FATAL_ERROR_CODES = Collections.singletonList(503);
+  private static final String PAYLOAD = "{\"result\":\"ok\"}";
+  private static final String POST_DATA = "nonce=1234&pair=XBTUSD";
+  private static final String API_KEY_HEADER = "API-Key";
+  private static final String API_KEY = "key123";
+  private static final String HTTP_CLIENT_POOL_TEST_PROPERTY = "test.httpclient.connectionPoolSize";
+
+  private HttpServer server;
+  private Set<Integer> clientPorts;
+  private String baseUrl;
+
+  private ExchangeConfig exchangeConfig;
+  private NetworkConfig networkConfig;
+
+  /** Starts a local server that echoes POST bodies and returns canned responses for GETs. */
+  @Before
+  public void setupForEachTest() throws Exception {
+    clientPorts = Collections.synchronizedSet(new HashSet<>());
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext(
+        "/ok",
+        exchange -> {
+          clientPorts.add(exchange.getRemoteAddress().getPort());
+          final String apiKey = exchange.getRequestHeaders().getFirst(API_KEY_HEADER);
+          final byte[] requestBody = exchange.getRequestBody().readAllBytes();
+          final String response =
+              "POST".equals(exchange.getRequestMethod())
+                  ? apiKey + ":" + new String(requestBody, StandardCharsets.UTF_8)
+                  : PAYLOAD;
+          respond(exchange, 200, response);
+        });
+    server.createContext("/unavailable", exchange -> respond(exchange, 503, "Try later"));
+    server.createContext("/bad-request", exchange -> respond(exchange, 400, "Bad pair"));
+    server.start();
+    baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+    networkConfig = createMock(NetworkConfig.class);
+    expect(networkConfig.getConnectionTimeout()).andReturn(5);
+    expect(networkConfig.getNonFatalErrorCodes()).andReturn(NON_FATAL_ERROR_CODES);
+    expect(networkConfig.getNonFatalErrorMessages()).andReturn(Collections.emptyList());
+
+    exchangeConfig = createMock(ExchangeConfig.class);
+    expect(exchangeConfig.getNetworkConfig()).andReturn(networkConfig);
+  }
+
+  @After
+  public void tearDownAfterEachTest() {
+    System.clearProperty(HTTP_CLIENT_POOL_TEST_PROPERTY);
+    server.stop(0);
+  }
+
+  @Test
+  public void testUrlConnectionTransportIsUsedByDefault() throws Exception {
+    final AbstractExchangeAdapter exchangeAdapter = createExchangeAdapter(null);
+
+    final ExchangeHttpResponse response =
+        exchangeAdapter.sendNetworkRequest(new URL(baseUrl + "/ok"), "GET", null, null);
+
+    assertEquals(200, response.getStatusCode());
+    assertEquals(PAYLOAD, response.getPayload());
+    verify(networkConfig, exchangeConfig);
+  }
+
+  @Test
+  public void testHttpClientTransportSendsRequestsAndReusesConnection() throws Exception {
+    final AbstractExchangeAdapter exchangeAdapter = createExchangeAdapter("http-client");
+
+    for (int i = 0; i < 3; i++) {
+      final ExchangeHttpResponse response =
+          exchangeAdapter.sendNetworkRequest(new URL(baseUrl + "/ok"), "GET", null, null);
+      assertEquals(200, response.getStatusCode());
+      assertEquals(PAYLOAD, response.getPayload());
+    }
+
+    final ExchangeHttpResponse response =
+        exchangeAdapter.sendNetworkRequest(
+            new URL(baseUrl + "/ok"),
+            "POST",
+            POST_DATA,
+            Map.of(API_KEY_HEADER, API_KEY, "Content-Type", "application/x-www-form-urlencoded"));
+    assertEquals(200, response.getStatusCode());
+    assertEquals(API_KEY + ":" + POST_DATA, response.getPayload());
+
+    assertEquals(1, clientPorts.size());
+    verify(networkConfig, exchangeConfig);
+  }
+
+  @Test
+  public void testUrlConnectionTransportSendsRequestsToRequestEndpointWhenSet() throws Exception {
+    assertRequestIsSentToRequestEndpoint(createExchangeAdapter("url-connection"));
+  }
+
+  @Test
+  public void testHttpClientTransportSendsRequestsToRequestEndpointWhenSet() throws Exception {
+    assertRequestIsSentToRequestEndpoint(createExchangeAdapter("http-client"));
+  }
+
+  @Test(expected = ExchangeNetworkException.class)
+  public void testHttpClientTransportThrowsExchangeNetworkExceptionForNonFatalErrorCode()
+      throws Exception {
+    final AbstractExchangeAdapter exchangeAdapter = createExchangeAdapter("http-client");
+    exchangeAdapter.sendNetworkRequest(new URL(baseUrl + "/unavailable"), "GET", null, null);
+  }
+
+  @Test(expected = TradingApiException.class)
+  public void testHttpClientTransportThrowsTradingApiExceptionForFatalErrorCode()
+      throws Exception {
+    final AbstractExchangeAdapter exchangeAdapter = createExchangeAdapter("http-client");
+    exchangeAdapter.sendNetworkRequest(new URL(baseUrl + "/bad-request"), "GET", null, null);
+  }
+
+  @Test
+  public void testUrlConnectionTransportStreamsResponseIntoReader() throws Exception {
+    final AbstractExchangeAdapter exchangeAdapter = createExchangeAdapter(null);
+
+    final String result =
+        exchangeAdapter.sendNetworkRequest(
+            new URL(baseUrl + "/ok"), "GET", null, null, TestAbstractExchangeAdapter::readResult);
+
+    assertEquals("ok", result);
+    verify(networkConfig, exchangeConfig);
+  }
+
+  @Test
+  public void testHttpClientTransportStreamsResponseIntoReader() throws Exception {
+    final AbstractExchangeAdapter exchangeAdapter = createExchangeAdapter("http-client");
+
+    final String result =
+        exchangeAdapter.sendNetworkRequest(
+            new URL(baseUrl + "/ok"), "GET", null, null, TestAbstractExchangeAdapter::readResult);
+    assertEquals("ok", result);
+
+    final String asyncResult =
+        exchangeAdapter
+            .sendNetworkRequestAsync(
+                new URL(baseUrl + "/ok"),
+                "GET",
+                null,
+                null,
+                TestAbstractExchangeAdapter::readResult,
+                ForkJoinPool.commonPool())
+            .get();
+    assertEquals("ok", asyncResult);
+
+    assertEquals(1, clientPorts.size());
+    verify(networkConfig, exchangeConfig);
+  }
+
+  @Test(expected = TradingApiException.class)
+  public void testHttpClientTransportDoesNotStreamErrorResponseIntoReader() throws Throwable {
+    final AbstractExchangeAdapter exchangeAdapter = createExchangeAdapter("http-client");
+    try {
+      exchangeAdapter
+          .sendNetworkRequestAsync(
+              new URL(baseUrl + "/bad-request"),
+              "GET",
+              null,
+              null,
+              TestAbstractExchangeAdapter::readResult,
+              ForkJoinPool.commonPool())
+          .get();
+    } catch (ExecutionException e) {
+      throw e.getCause();
+    }
+  }
+
+  @Test
+  public void testReadingMarketOrdersFromStreamedOrderBook() throws Exception {
+    final JsonReader payload =
+        new JsonReader(new StringReader("[[\"664.536\", \"0.888\", 1468683868], [\"665\", 2]]"));
+
+    final List<MarketOrder> marketOrders =
+        AbstractExchangeAdapter.readMarketOrders(
+            payload, OrderType.SELL, AbstractExchangeAdapter.FULL_DEPTH);
+
+    assertEquals(2, marketOrders.size());
+    assertSame(OrderType.SELL, marketOrders.get(0).getType());
+    assertEquals(0, marketOrders.get(0).getPrice().compareTo(new BigDecimal("664.536")));
+    assertEquals(0, marketOrders.get(0).getQuantity().compareTo(new BigDecimal("0.888")));
+    assertEquals(0, marketOrders.get(0).getTotal().compareTo(new BigDecimal("590.107968")));
+    assertEquals(0, marketOrders.get(1).getTotal().compareTo(new BigDecimal("1330")));
+  }
+
+  @Test
+  public void testReadingMarketOrdersKeepsValuesWithMoreDecimalPlacesThanFixedPointScale()
+      throws Exception {
+    final JsonReader payload =
+        new JsonReader(new StringReader("[[\"0.0000012345\", \"2\"], [\"665\", \"1\"]]"));
+
+    final List<MarketOrder> marketOrders =
+        AbstractExchangeAdapter.readMarketOrders(
+            payload, OrderType.BUY, AbstractExchangeAdapter.FULL_DEPTH);
+
+    assertEquals(2, marketOrders.size());
+    assertEquals(new BigDecimal("0.0000012345"), marketOrders.get(0).getPrice());
+    assertEquals(0, marketOrders.get(0).getTotal().compareTo(new BigDecimal("0.000002469")));
+    assertEquals(0, marketOrders.get(1).getPrice().compareTo(new BigDecimal("665")));
+  }
+
+  @Test
+  public void testReadingMarketOrdersToDepthSkipsDeeperOrders() throws Exception {
+    final JsonReader payload =
+        new JsonReader(new StringReader("{\"bids\": [[\"99\", \"1\"], [\"98\", 2]], \"x\": 1}"));
+
+    payload.beginObject();
+    payload.nextName();
+    final List<MarketOrder> marketOrders =
+        AbstractExchangeAdapter.readMarketOrders(payload, OrderType.BUY, 1);
+
+    assertEquals(1, marketOrders.size());
+    assertEquals(0, marketOrders.get(0).getPrice().compareTo(new BigDecimal("99")));
+    assertEquals("x", payload.nextName()); // rest of the payload is still readable
+  }
+
+  @Test
+  public void testHttpClientPoolSettingIsAppliedBeforePoolIsCreated() {
+    assertEquals(
+        "10",
+        AbstractExchangeAdapter.applyHttpClientPoolSetting(
+            HTTP_CLIENT_POOL_TEST_PROPERTY, "connection-pool-size", 10, false));
+    assertEquals("10", System.getProperty(HTTP_CLIENT_POOL_TEST_PROPERTY));
+  }
+
+  @Test
+  public void testHttpClientPoolSettingIsIgnoredOncePoolIsCreated() {
+    assertNull(
+        AbstractExchangeAdapter.applyHttpClientPoolSetting(
+            HTTP_CLIENT_POOL_TEST_PROPERTY, "connection-pool-size", 10, true));
+    assertNull(System.getProperty(HTTP_CLIENT_POOL_TEST_PROPERTY));
+  }
+
+  @Test
+  public void testHttpClientPoolSettingDoesNotOverrideSystemProperty() {
+    System.setProperty(HTTP_CLIENT_POOL_TEST_PROPERTY, "5");
+    assertEquals(
+        "5",
+        AbstractExchangeAdapter.applyHttpClientPoolSetting(
+            HTTP_CLIENT_POOL_TEST_PROPERTY, "connection-pool-size", 10, false));
+    assertEquals(
+        "5",
+        AbstractExchangeAdapter.applyHttpClientPoolSetting(
+            HTTP_CLIENT_POOL_TEST_PROPERTY, "connection-pool-size", null, true));
+    assertEquals("5", System.getProperty(HTTP_CLIENT_POOL_TEST_PROPERTY));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownHttpTransportIsRejected() {
+    createExchangeAdapter("carrier-pigeon");
+  }
+
+  @Test
+  public void testRateLimitFailsFastWhenMaxWaitIsZero() throws Exception {
+    final AbstractExchangeAdapter exchangeAdapter =
+        createExchangeAdapter("url-connection", createRateLimitConfig(1.0, 2), 0);
+
+    exchangeAdapter.acquireRateLimitPermit(ApiCallType.PUBLIC);
+    exchangeAdapter.acquireRateLimitPermit(ApiCallType.PUBLIC);
+    try {
+      exchangeAdapter.acquireRateLimitPermit(ApiCallType.PUBLIC);
+      fail("Expected ExchangeNetworkException once the burst was used up");
+    } catch (ExchangeNetworkException e) {
+      assertTrue(e.getMessage().contains("public-rate-limit"));
+    }
+  }
+
+  @Test
+  public void testRateLimitWaitsForNextPermit() throws Exception {
+    final AbstractExchangeAdapter exchangeAdapter =
+        createExchangeAdapter("url-connection", createRateLimitConfig(20.0, 1), 1);
+
+    final long startTime = System.nanoTime();
+    exchangeAdapter.acquireRateLimitPermit(ApiCallType.PUBLIC);
+    exchangeAdapter.acquireRateLimitPermit(ApiCallType.PUBLIC);
+    exchangeAdapter.acquireRateLimitPermit(ApiCallType.PUBLIC);
+
+    // 2 permits at 20 per second
+    assertTrue(System.nanoTime() - startTime >= TimeUnit.MILLISECONDS.toNanos(90));
+  }
+
+  @Test
+  public void testCallTypesWithoutRateLimitAreNotLimited() throws Exception {
+    final AbstractExchangeAdapter exchangeAdapter =
+        createExchangeAdapter("url-connection", createRateLimitConfig(1.0, 1), 0);
+
+    for (int i = 0; i < 10; i++) {
+      exchangeAdapter.acquireRateLimitPermit(ApiCallType.PRIVATE);
+      exchangeAdapter.acquireRateLimitPermit(ApiCallType.TRADING);
+    }
+  }
+
+  @Test
+  public void testRateLimitedAsyncRequestFailsWithoutSendingWhenLimitReached() throws Exception {
+    final AbstractExchangeAdapter exchangeAdapter =
+        createExchangeAdapter("url-connection", createRateLimitConfig(1.0, 1), 0);
+
+    assertEquals(
+        "sent",
+        exchangeAdapter
+            .sendRateLimitedAsync(
+                ApiCallType.PUBLIC,
+                ForkJoinPool.commonPool(),
+                () -> CompletableFuture.completedFuture("sent"))
+            .get());
+    try {
+      exchangeAdapter
+          .sendRateLimitedAsync(
+              ApiCallType.PUBLIC,
+              ForkJoinPool.commonPool(),
+              () -> CompletableFuture.<String>failedFuture(new AssertionError("sent")))
+          .get();
+      fail("Expected ExchangeNetworkException once the burst was used up");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof ExchangeNetworkException);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRateLimitWithoutRequestsPerSecondIsRejected() {
+    final RateLimitConfig rateLimitConfig = createMock(RateLimitConfig.class);
+    expect(rateLimitConfig.getRequestsPerSecond()).andStubReturn(null);
+    expect(rateLimitConfig.getBurst()).andStubReturn(1);
+    replay(rateLimitConfig);
+
+    createExchangeAdapter("url-connection", rateLimitConfig, null);
+  }
+
+  @Test
+  public void testFeeCacheTtlDefaultsWhenNotConfigured() {
+    final AbstractExchangeAdapter exchangeAdapter = new AbstractExchangeAdapter() {};
+    assertEquals(
+        AbstractExchangeAdapter.DEFAULT_FEE_CACHE_TTL_SECONDS,
+        exchangeAdapter.getFeeCacheTtl(null));
+    assertEquals(
+        AbstractExchangeAdapter.DEFAULT_FEE_CACHE_TTL_SECONDS,
+        exchangeAdapter.getFeeCacheTtl(createOtherConfig(null)));
+  }
+
+  @Test
+  public void testFeeCacheTtlIsReadFromOtherConfig() {
+    final AbstractExchangeAdapter exchangeAdapter = new AbstractExchangeAdapter() {};
+    assertEquals(600, exchangeAdapter.getFeeCacheTtl(createOtherConfig("600")));
+    assertEquals(0, exchangeAdapter.getFeeCacheTtl(createOtherConfig("0")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeFeeCacheTtlIsRejected() {
+    new AbstractExchangeAdapter() {}.getFeeCacheTtl(createOtherConfig("-1"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonNumericFeeCacheTtlIsRejected() {
+    new AbstractExchangeAdapter() {}.getFeeCacheTtl(createOtherConfig("an hour"));
+  }
+
+  @Test
+  public void testNonceFileIsReadFromOtherConfig() {
+    final OtherConfig otherConfig = createMock(OtherConfig.class);
+    expect(otherConfig.getItem(AbstractExchangeAdapter.NONCE_FILE_PROPERTY_NAME))
+        .andReturn("./target/nonces/abstract.nonce");
+    replay(otherConfig);
+
+    final NonceGenerator nonceGenerator =
+        new AbstractExchangeAdapter() {}.createNonceGenerator(otherConfig, "test");
+    assertTrue(nonceGenerator.toString().contains("abstract.nonce"));
+    verify(otherConfig);
+  }
+
+  @Test
+  public void testNonceFileDefaultsWhenNotConfigured() {
+    final String defaultNonceFile =
+        Paths.get(AbstractExchangeAdapter.DEFAULT_NONCE_DIRECTORY, "test.nonce").toString();
+    final NonceGenerator nonceGenerator =
+        new AbstractExchangeAdapter() {}.createNonceGenerator(null, "test");
+    assertTrue(nonceGenerator.toString().contains(defaultNonceFile));
+  }
+
+  @Test
+  public void testRequestIsNotSentWhenNonceCannotBePersisted() throws Exception {
+    // the nonce file's directory cannot be created, as a file is in the way
+    final Path blockingFile = Files.createTempFile(Paths.get("./target"), "test", ".blocking");
+    final NonceGenerator nonceGenerator = new NonceGenerator(blockingFile.resolve("test.nonce"));
+    try {
+      new AbstractExchangeAdapter() {}.sendInNonceOrder(
+          nonceGenerator,
+          nonce -> {
+            throw new AssertionError("Request sent with unpersisted nonce " + nonce);
+          });
+      fail("Expected TradingApiException when the nonce cannot be persisted");
+    } catch (TradingApiException e) {
+      assertTrue(e.getCause() instanceof IOException);
+    }
+  }
+
+  @Test
+  public void testEachThreadSignsWithItsOwnMac() throws Exception {
+    final ThreadLocal<Mac> threadLocalMac =
+        new AbstractExchangeAdapter() {}.createThreadLocalMac(
+            new SecretKeySpec("secret".getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+    final Mac mac = threadLocalMac.get();
+    final Mac otherThreadMac = CompletableFuture.supplyAsync(threadLocalMac::get).get();
+
+    assertNotSame(mac, otherThreadMac);
+    final byte[] message = "message".getBytes(StandardCharsets.UTF_8);
+    assertArrayEquals(mac.doFinal(message), otherThreadMac.doFinal(message));
+  }
+
+  @Test
+  public void testEachThreadHashesWithItsOwnMessageDigest() throws Exception {
+    final ThreadLocal<MessageDigest> threadLocalDigest =
+        new AbstractExchangeAdapter() {}.createThreadLocalMessageDigest("MD5");
+    final MessageDigest digest = threadLocalDigest.get();
+
+    assertNotSame(digest, CompletableFuture.supplyAsync(threadLocalDigest::get).get());
+    assertSame(digest, threadLocalDigest.get());
+  }
+
+  @Test(expected = NoSuchAlgorithmException.class)
+  public void testUnknownMessageDigestFailsFast() throws Exception {
+    new AbstractExchangeAdapter() {}.createThreadLocalMessageDigest("MD0");
+  }
+
+  // --------------------------------------------------------------------------
+  //  Util methods
+  // --------------------------------------------------------------------------
+
+  private AbstractExchangeAdapter createExchangeAdapter(String httpTransport) {
+    return createExchangeAdapter(httpTransport, null, null);
+  }
+
+  private AbstractExchangeAdapter createExchangeAdapter(
+      String httpTransport, RateLimitConfig publicRateLimit, Integer rateLimitMaxWait) {
+    expect(networkConfig.getHttpTransport()).andReturn(httpTransport);
+    if ("http-client".equals(httpTransport)) {
+      expect(networkConfig.getConnectionPoolSize()).andReturn(null);
+      expect(networkConfig.getConnectionIdleTimeout()).andReturn(null);
+    }
+    expect(networkConfig.getPublicRateLimit()).andStubReturn(publicRateLimit);
+    expect(networkConfig.getPrivateRateLimit()).andStubReturn(null);
+    expect(networkConfig.getTradingRateLimit()).andStubReturn(null);
+    expect(networkConfig.getRateLimitMaxWait()).andStubReturn(rateLimitMaxWait);
+    replay(networkConfig, exchangeConfig);
+
+    final AbstractExchangeAdapter exchangeAdapter = new AbstractExchangeAdapter() {};
+    exchangeAdapter.setNetworkConfig(exchangeConfig);
+    return exchangeAdapter;
+  }
+
+  private void assertRequestIsSentToRequestEndpoint(AbstractExchangeAdapter exchangeAdapter)
+      throws Exception {
+    exchangeAdapter.setRequestEndpoint(new URL(baseUrl));
+
+    final ExchangeHttpResponse response =
+        exchangeAdapter.sendNetworkRequest(
+            new URL("https://api.example.com/ok?pair=XBTUSD"), "GET", null, null);
+
+    assertEquals(200, response.getStatusCode());
+    assertEquals(PAYLOAD, response.getPayload());
+  }
+
+  private static OtherConfig createOtherConfig(String feeCacheTtl) {
+    final OtherConfig otherConfig = createMock(OtherConfig.class);
+    expect(otherConfig.getItem(AbstractExchangeAdapter.FEE_CACHE_TTL_PROPERTY_NAME))
+        .andStubReturn(feeCacheTtl);
+    replay(otherConfig);
+    return otherConfig;
+  }
+
+  private static RateLimitConfig createRateLimitConfig(double requestsPerSecond, int burst) {
+    final RateLimitConfig rateLimitConfig = createMock(RateLimitConfig.class);
+    expect(rateLimitConfig.getRequestsPerSecond()).andStubReturn(requestsPerSecond);
+    expect(rateLimitConfig.getBurst()).andStubReturn(burst);
+    replay(rateLimitConfig);
+    return rateLimitConfig;
+  }
+
+  private static String readResult(JsonReader payload) throws IOException {
+    payload.beginObject();
+    payload.nextName();
+    final String result = payload.nextString();
+    payload.endObject();
+    return result;
+  }
+
+  private static void respond(HttpExchange exchange, int statusCode, String body)
+      throws IOException {
+    final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(statusCode, bytes.length);
+    try (OutputStream responseBody = exchange.getResponseBody()) {
+      responseBody.write(bytes);
+    }
+  }
+}
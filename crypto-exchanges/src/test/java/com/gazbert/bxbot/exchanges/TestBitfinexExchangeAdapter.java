@@ -36,6 +36,8 @@ import static org.junit.Assert.assertTrue;
 import com.gazbert.crypto.exchange.api.AuthenticationConfig;
 import com.gazbert.crypto.exchange.api.ExchangeConfig;
 import com.gazbert.crypto.exchange.api.NetworkConfig;
+import com.gazbert.crypto.exchange.api.OtherConfig;
+import com.gazbert.crypto.exchanges.marketdata.MarketDataFeed;
 import com.gazbert.crypto.trading.api.BalanceInfo;
 import com.gazbert.crypto.trading.api.ExchangeNetworkException;
 import com.gazbert.crypto.trading.api.MarketOrderBook;
@@ -55,6 +57,8 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -106,6 +110,7 @@ public class TestBitfinexExchangeAdapter extends AbstractExchangeAdapterTest {
   private static final String ORDER_CANCEL = "order/cancel";
 
   private static final String MARKET_ID = "btcusd";
+  private static final String NONCE_FILE = "./target/nonces/bitfinex.nonce";
   private static final BigDecimal BUY_ORDER_PRICE = new BigDecimal("200.18");
   private static final BigDecimal BUY_ORDER_QUANTITY = new BigDecimal("0.03");
   private static final BigDecimal SELL_ORDER_PRICE = new BigDecimal("300.176");
@@ -117,6 +122,8 @@ public class TestBitfinexExchangeAdapter extends AbstractExchangeAdapterTest {
       "sendAuthenticatedRequestToExchange";
   private static final String MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD =
       "sendPublicRequestToExchange";
+  private static final String MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD =
+      "sendPublicRequestToExchangeAsync";
   private static final String MOCKED_CREATE_REQUEST_HEADER_MAP_METHOD = "createHeaderParamMap";
   private static final String MOCKED_MAKE_NETWORK_REQUEST_METHOD = "makeNetworkRequest";
 
@@ -149,11 +156,22 @@ public class TestBitfinexExchangeAdapter extends AbstractExchangeAdapterTest {
     expect(networkConfig.getConnectionTimeout()).andReturn(30);
     expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
     expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+    expect(networkConfig.getHttpTransport()).andReturn(null);
+    expect(networkConfig.getPublicRateLimit()).andReturn(null);
+    expect(networkConfig.getPrivateRateLimit()).andReturn(null);
+    expect(networkConfig.getTradingRateLimit()).andReturn(null);
+    expect(networkConfig.getRateLimitMaxWait()).andReturn(null);
+
+    // optional config only needed for the market data feed, fee cache and nonce file
+    final OtherConfig otherConfig = PowerMock.createMock(OtherConfig.class);
+    expect(otherConfig.getItem("market-data-feed")).andReturn(null);
+    expect(otherConfig.getItem("fee-cache-ttl")).andReturn(null);
+    expect(otherConfig.getItem("nonce-file")).andReturn(NONCE_FILE);
 
     exchangeConfig = PowerMock.createMock(ExchangeConfig.class);
     expect(exchangeConfig.getAuthenticationConfig()).andReturn(authenticationConfig);
     expect(exchangeConfig.getNetworkConfig()).andReturn(networkConfig);
-    // optional config not needed for this adapter
+    expect(exchangeConfig.getOtherConfig()).andReturn(otherConfig);
   }
 
   // --------------------------------------------------------------------------
@@ -448,6 +466,54 @@ public class TestBitfinexExchangeAdapter extends AbstractExchangeAdapterTest {
     PowerMock.verifyAll();
   }
 
+  @Test
+  public void testGettingMarketOrdersToDepthSendsLimitParams() throws Exception {
+    final byte[] encoded = Files.readAllBytes(Paths.get(BOOK_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    final BitfinexExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            BitfinexExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
+            BOOK + "/" + MARKET_ID + "?limit_bids=10&limit_asks=10")
+        .andReturn(exchangeResponse);
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    // canned response holds the full book, so this also checks the client-side truncation.
+    final MarketOrderBook marketOrderBook = exchangeAdapter.getMarketOrders(MARKET_ID, 10);
+
+    assertEquals(10, marketOrderBook.getBuyOrders().size());
+    assertEquals(
+        0, marketOrderBook.getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("239.43")));
+    assertEquals(10, marketOrderBook.getSellOrders().size());
+    assertEquals(
+        0, marketOrderBook.getSellOrders().get(0).getPrice().compareTo(new BigDecimal("239.53")));
+
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  public void testGettingMarketOrdersFromMarketDataFeed() throws Exception {
+    final MarketOrderBook localMarketOrders = PowerMock.createMock(MarketOrderBook.class);
+    final MarketDataFeed marketDataFeed = PowerMock.createMock(MarketDataFeed.class);
+    marketDataFeed.subscribe(MARKET_ID);
+    expect(marketDataFeed.getMarketOrders(MARKET_ID, 10)).andReturn(localMarketOrders);
+
+    PowerMock.replayAll();
+    final BitfinexExchangeAdapter exchangeAdapter = new BitfinexExchangeAdapter();
+    exchangeAdapter.init(exchangeConfig);
+    exchangeAdapter.setMarketDataFeed(marketDataFeed);
+
+    assertSame(localMarketOrders, exchangeAdapter.getMarketOrders(MARKET_ID, 10));
+    PowerMock.verifyAll();
+  }
+
   @Test(expected = ExchangeNetworkException.class)
   public void testGettingMarketOrdersHandlesExchangeNetworkException() throws Exception {
     final BitfinexExchangeAdapter exchangeAdapter =
@@ -654,6 +720,115 @@ public class TestBitfinexExchangeAdapter extends AbstractExchangeAdapterTest {
     PowerMock.verifyAll();
   }
 
+  @Test
+  public void testGettingMarketOrdersAsyncSuccessfully() throws Exception {
+    final byte[] encoded = Files.readAllBytes(Paths.get(BOOK_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    final BitfinexExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            BitfinexExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD,
+            BOOK + "/" + MARKET_ID)
+        .andReturn(CompletableFuture.completedFuture(exchangeResponse));
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    final MarketOrderBook marketOrderBook = exchangeAdapter.getMarketOrdersAsync(MARKET_ID).get();
+
+    // assert some key stuff; we're not testing GSON here.
+    assertEquals(MARKET_ID, marketOrderBook.getMarketId());
+
+    final BigDecimal buyPrice = new BigDecimal("239.43");
+    final BigDecimal buyQuantity = new BigDecimal("5.0");
+    final BigDecimal buyTotal = buyPrice.multiply(buyQuantity);
+
+    assertEquals(906, marketOrderBook.getBuyOrders().size()); // 'finex sends them all back!
+    assertSame(OrderType.BUY, marketOrderBook.getBuyOrders().get(0).getType());
+    assertEquals(0, marketOrderBook.getBuyOrders().get(0).getPrice().compareTo(buyPrice));
+    assertEquals(0, marketOrderBook.getBuyOrders().get(0).getQuantity().compareTo(buyQuantity));
+    assertEquals(0, marketOrderBook.getBuyOrders().get(0).getTotal().compareTo(buyTotal));
+
+    final BigDecimal sellPrice = new BigDecimal("239.53");
+    final BigDecimal sellQuantity = new BigDecimal("6.35595596");
+    final BigDecimal sellTotal = sellPrice.multiply(sellQuantity);
+
+    assertEquals(984, marketOrderBook.getSellOrders().size()); // 'finex sends them all back!
+    assertSame(OrderType.SELL, marketOrderBook.getSellOrders().get(0).getType());
+    assertEquals(0, marketOrderBook.getSellOrders().get(0).getPrice().compareTo(sellPrice));
+    assertEquals(0, marketOrderBook.getSellOrders().get(0).getQuantity().compareTo(sellQuantity));
+    assertEquals(0, marketOrderBook.getSellOrders().get(0).getTotal().compareTo(sellTotal));
+
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  public void testGettingLatestMarketPriceAsyncSuccessfully() throws Exception {
+    final byte[] encoded = Files.readAllBytes(Paths.get(PUB_TICKER_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    final BitfinexExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            BitfinexExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD,
+            PUB_TICKER + "/" + MARKET_ID)
+        .andReturn(CompletableFuture.completedFuture(exchangeResponse));
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    final BigDecimal latestMarketPrice =
+        exchangeAdapter
+            .getLatestMarketPriceAsync(MARKET_ID)
+            .get()
+            .setScale(8, RoundingMode.HALF_UP);
+    assertEquals(0, latestMarketPrice.compareTo(new BigDecimal("236.07")));
+
+    PowerMock.verifyAll();
+  }
+
+  @Test(expected = ExchangeNetworkException.class)
+  public void testGettingLatestMarketPriceAsyncHandlesExchangeNetworkException() throws Exception {
+    final BitfinexExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            BitfinexExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD,
+            PUB_TICKER + "/" + MARKET_ID)
+        .andReturn(
+            CompletableFuture.failedFuture(
+                new ExchangeNetworkException(
+                    "They say most of your brain shuts down in cryo-sleep. All but the "
+                        + "primitive side, the animal side. No wonder I'm still awake. "
+                        + "Transporting me with civilians. Sounded like 40, 40-plus. Heard an Arab "
+                        + "voice. Some hoodoo holy man, probably on his way to New Mecca. But what "
+                        + "route? What route? I smelt a woman. Sweat, boots, tool belt, leather. "
+                        + "Prospector type. Free settlers. And they only take the back roads. And "
+                        + "here's my real problem. Mr. Johns... the blue-eyed devil. Planning on "
+                        + "taking me back to slam... only this time he picked a ghost lane. A long "
+                        + "time between stops. A long time for something to go wrong...")));
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    try {
+      exchangeAdapter.getLatestMarketPriceAsync(MARKET_ID).get();
+    } catch (ExecutionException e) {
+      throw (ExchangeNetworkException) e.getCause();
+    }
+    PowerMock.verifyAll();
+  }
+
   // --------------------------------------------------------------------------
   //  Get Balance Info tests
   // --------------------------------------------------------------------------
@@ -898,6 +1073,42 @@ public class TestBitfinexExchangeAdapter extends AbstractExchangeAdapterTest {
     PowerMock.verifyAll();
   }
 
+  // --------------------------------------------------------------------------
+  //  Exchange Fee caching tests
+  // --------------------------------------------------------------------------
+
+  @Test
+  public void testGettingExchangeFeeIsCached() throws Exception {
+    final byte[] encoded = Files.readAllBytes(Paths.get(ACCOUNT_INFOS_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    final BitfinexExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            BitfinexExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+            eq(ACCOUNT_INFOS),
+            eq(null))
+        .andReturn(exchangeResponse)
+        .once();
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    final BigDecimal buyPercentageFee =
+        exchangeAdapter.getPercentageOfBuyOrderTakenForExchangeFee(MARKET_ID);
+    final BigDecimal sellPercentageFee =
+        exchangeAdapter.getPercentageOfSellOrderTakenForExchangeFee(MARKET_ID);
+    assertEquals(buyPercentageFee, sellPercentageFee);
+    assertEquals(
+        buyPercentageFee, exchangeAdapter.getPercentageOfBuyOrderTakenForExchangeFee(MARKET_ID));
+
+    PowerMock.verifyAll();
+  }
+
   // --------------------------------------------------------------------------
   //  Get Ticker tests
   // --------------------------------------------------------------------------
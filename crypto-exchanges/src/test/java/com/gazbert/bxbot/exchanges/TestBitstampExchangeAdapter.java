@@ -23,10 +23,12 @@
 
 package com.gazbert.crypto.exchanges;
 
+import static com.gazbert.crypto.exchanges.AbstractExchangeAdapterTest.readCannedResponse;
 import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.anyString;
 import static org.easymock.EasyMock.eq;
 import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
@@ -37,6 +39,8 @@ import com.gazbert.crypto.exchange.api.AuthenticationConfig;
 import com.gazbert.crypto.exchange.api.ExchangeAdapter;
 import com.gazbert.crypto.exchange.api.ExchangeConfig;
 import com.gazbert.crypto.exchange.api.NetworkConfig;
+import com.gazbert.crypto.exchange.api.OtherConfig;
+import com.gazbert.crypto.exchanges.AbstractExchangeAdapter.ExchangeResponseReader;
 import com.gazbert.crypto.trading.api.BalanceInfo;
 import com.gazbert.crypto.trading.api.ExchangeNetworkException;
 import com.gazbert.crypto.trading.api.MarketOrderBook;
@@ -52,10 +56,21 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -97,12 +112,15 @@ public class TestBitstampExchangeAdapter extends AbstractExchangeAdapter {
   private static final String ORDER_BOOK = "order_book/";
   private static final String OPEN_ORDERS = "open_orders/";
   private static final String BALANCE = "balance";
+  private static final Pattern NONCE_PARAM = Pattern.compile("(?:^|&)nonce=(\\d+)");
+  private static final int PARALLEL_REQUESTS_PER_THREAD = 200;
   private static final String TICKER = "ticker/";
   private static final String BUY = "buy/";
   private static final String SELL = "sell/";
   private static final String CANCEL_ORDER = "cancel_order";
 
   private static final String MARKET_ID = "btcusd";
+  private static final String NONCE_FILE = "./target/nonces/bitstamp.nonce";
   private static final BigDecimal BUY_ORDER_PRICE = new BigDecimal("200.18");
   private static final BigDecimal BUY_ORDER_QUANTITY = new BigDecimal("0.03");
   private static final BigDecimal SELL_ORDER_PRICE = new BigDecimal("300.176");
@@ -114,6 +132,12 @@ public class TestBitstampExchangeAdapter extends AbstractExchangeAdapter {
       "sendAuthenticatedRequestToExchange";
   private static final String MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD =
       "sendPublicRequestToExchange";
+  private static final String MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD =
+      "sendPublicRequestToExchangeAsync";
+  private static final String MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_METHOD =
+      "streamPublicRequestFromExchange";
+  private static final String MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_ASYNC_METHOD =
+      "streamPublicRequestFromExchangeAsync";
   private static final String MOCKED_CREATE_REQUEST_HEADER_MAP_METHOD = "createHeaderParamMap";
   private static final String MOCKED_MAKE_NETWORK_REQUEST_METHOD = "makeNetworkRequest";
 
@@ -148,11 +172,20 @@ public class TestBitstampExchangeAdapter extends AbstractExchangeAdapter {
     expect(networkConfig.getConnectionTimeout()).andReturn(30);
     expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
     expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+    expect(networkConfig.getHttpTransport()).andReturn(null);
+    expect(networkConfig.getPublicRateLimit()).andReturn(null);
+    expect(networkConfig.getPrivateRateLimit()).andReturn(null);
+    expect(networkConfig.getTradingRateLimit()).andReturn(null);
+    expect(networkConfig.getRateLimitMaxWait()).andReturn(null);
+
+    final OtherConfig otherConfig = PowerMock.createMock(OtherConfig.class);
+    expect(otherConfig.getItem("fee-cache-ttl")).andReturn(null);
+    expect(otherConfig.getItem("nonce-file")).andReturn(NONCE_FILE);
 
     exchangeConfig = PowerMock.createMock(ExchangeConfig.class);
     expect(exchangeConfig.getAuthenticationConfig()).andReturn(authenticationConfig);
     expect(exchangeConfig.getNetworkConfig()).andReturn(networkConfig);
-    // optional config not needed for this adapter
+    expect(exchangeConfig.getOtherConfig()).andReturn(otherConfig);
   }
 
   // --------------------------------------------------------------------------
@@ -392,19 +425,15 @@ public class TestBitstampExchangeAdapter extends AbstractExchangeAdapter {
 
   @Test
   public void testGettingMarketOrdersSuccessfully() throws Exception {
-    final byte[] encoded = Files.readAllBytes(Paths.get(ORDER_BOOK_JSON_RESPONSE));
-    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
-        new AbstractExchangeAdapter.ExchangeHttpResponse(
-            200, "OK", new String(encoded, StandardCharsets.UTF_8));
-
     final BitstampExchangeAdapter exchangeAdapter =
         PowerMock.createPartialMockAndInvokeDefaultConstructor(
-            BitstampExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
+            BitstampExchangeAdapter.class, MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_METHOD);
     PowerMock.expectPrivate(
             exchangeAdapter,
-            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
-            eq(ORDER_BOOK + MARKET_ID))
-        .andReturn(exchangeResponse);
+            MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_METHOD,
+            eq(ORDER_BOOK + MARKET_ID),
+            anyObject(ExchangeResponseReader.class))
+        .andAnswer(() -> readCannedResponse(ORDER_BOOK_JSON_RESPONSE, getCurrentArguments()[1]));
 
     PowerMock.replayAll();
     exchangeAdapter.init(exchangeConfig);
@@ -437,15 +466,43 @@ public class TestBitstampExchangeAdapter extends AbstractExchangeAdapter {
     PowerMock.verifyAll();
   }
 
+  @Test
+  public void testGettingMarketOrdersToDepthTruncatesBook() throws Exception {
+    final BitstampExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            BitstampExchangeAdapter.class, MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_METHOD,
+            eq(ORDER_BOOK + MARKET_ID),
+            anyObject(ExchangeResponseReader.class))
+        .andAnswer(() -> readCannedResponse(ORDER_BOOK_JSON_RESPONSE, getCurrentArguments()[1]));
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    final MarketOrderBook marketOrderBook = exchangeAdapter.getMarketOrders(MARKET_ID, 1);
+
+    assertEquals(1, marketOrderBook.getBuyOrders().size());
+    assertEquals(
+        0, marketOrderBook.getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("230.34")));
+    assertEquals(1, marketOrderBook.getSellOrders().size());
+    assertEquals(
+        0, marketOrderBook.getSellOrders().get(0).getPrice().compareTo(new BigDecimal("230.90")));
+
+    PowerMock.verifyAll();
+  }
+
   @Test(expected = ExchangeNetworkException.class)
   public void testGettingMarketOrdersHandlesExchangeNetworkException() throws Exception {
     final BitstampExchangeAdapter exchangeAdapter =
         PowerMock.createPartialMockAndInvokeDefaultConstructor(
-            BitstampExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
+            BitstampExchangeAdapter.class, MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_METHOD);
     PowerMock.expectPrivate(
             exchangeAdapter,
-            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
-            eq(ORDER_BOOK + MARKET_ID))
+            MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_METHOD,
+            eq(ORDER_BOOK + MARKET_ID),
+            anyObject(ExchangeResponseReader.class))
         .andThrow(
             new ExchangeNetworkException(
                 "Traveling through hyperspace ain’t like dusting crops, farm boy."));
@@ -461,11 +518,12 @@ public class TestBitstampExchangeAdapter extends AbstractExchangeAdapter {
   public void testGettingMarketOrdersHandlesUnexpectedException() throws Exception {
     final BitstampExchangeAdapter exchangeAdapter =
         PowerMock.createPartialMockAndInvokeDefaultConstructor(
-            BitstampExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
+            BitstampExchangeAdapter.class, MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_METHOD);
     PowerMock.expectPrivate(
             exchangeAdapter,
-            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
-            eq(ORDER_BOOK + MARKET_ID))
+            MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_METHOD,
+            eq(ORDER_BOOK + MARKET_ID),
+            anyObject(ExchangeResponseReader.class))
         .andThrow(
             new IllegalArgumentException(
                 "Uh, we had a slight weapons malfunction, but uh... "
@@ -632,6 +690,105 @@ public class TestBitstampExchangeAdapter extends AbstractExchangeAdapter {
     PowerMock.verifyAll();
   }
 
+  @Test
+  public void testGettingMarketOrdersAsyncSuccessfully() throws Exception {
+    final BitstampExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            BitstampExchangeAdapter.class, MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_ASYNC_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_ASYNC_METHOD,
+            eq(ORDER_BOOK + MARKET_ID),
+            anyObject(ExchangeResponseReader.class))
+        .andAnswer(
+            () -> CompletableFuture.completedFuture(
+                readCannedResponse(ORDER_BOOK_JSON_RESPONSE, getCurrentArguments()[1])));
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    final MarketOrderBook marketOrderBook = exchangeAdapter.getMarketOrdersAsync(MARKET_ID).get();
+
+    // assert some key stuff; we're not testing GSON here.
+    assertEquals(MARKET_ID, marketOrderBook.getMarketId());
+
+    final BigDecimal buyPrice = new BigDecimal("230.34");
+    final BigDecimal buyQuantity = new BigDecimal("7.22860000");
+    final BigDecimal buyTotal = buyPrice.multiply(buyQuantity);
+
+    assertEquals(1268, marketOrderBook.getBuyOrders().size()); // stamp send them all back!
+    assertSame(OrderType.BUY, marketOrderBook.getBuyOrders().get(0).getType());
+    assertEquals(0, marketOrderBook.getBuyOrders().get(0).getPrice().compareTo(buyPrice));
+    assertEquals(0, marketOrderBook.getBuyOrders().get(0).getQuantity().compareTo(buyQuantity));
+    assertEquals(0, marketOrderBook.getBuyOrders().get(0).getTotal().compareTo(buyTotal));
+
+    final BigDecimal sellPrice = new BigDecimal("230.90");
+    final BigDecimal sellQuantity = new BigDecimal("0.62263188");
+    final BigDecimal sellTotal = sellPrice.multiply(sellQuantity);
+
+    assertEquals(1957, marketOrderBook.getSellOrders().size()); // stamp send them all back!
+    assertSame(OrderType.SELL, marketOrderBook.getSellOrders().get(0).getType());
+    assertEquals(0, marketOrderBook.getSellOrders().get(0).getPrice().compareTo(sellPrice));
+    assertEquals(0, marketOrderBook.getSellOrders().get(0).getQuantity().compareTo(sellQuantity));
+    assertEquals(0, marketOrderBook.getSellOrders().get(0).getTotal().compareTo(sellTotal));
+
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  public void testGettingLatestMarketPriceAsyncSuccessfully() throws Exception {
+    final byte[] encoded = Files.readAllBytes(Paths.get(TICKER_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    final BitstampExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            BitstampExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD,
+            eq(TICKER + MARKET_ID))
+        .andReturn(CompletableFuture.completedFuture(exchangeResponse));
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    final BigDecimal latestMarketPrice =
+        exchangeAdapter
+            .getLatestMarketPriceAsync(MARKET_ID)
+            .get()
+            .setScale(8, RoundingMode.HALF_UP);
+    assertEquals(0, latestMarketPrice.compareTo(new BigDecimal("230.33")));
+
+    PowerMock.verifyAll();
+  }
+
+  @Test(expected = ExchangeNetworkException.class)
+  public void testGettingLatestMarketPriceAsyncHandlesExchangeNetworkException() throws Exception {
+    final BitstampExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            BitstampExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD,
+            eq(TICKER + MARKET_ID))
+        .andReturn(
+            CompletableFuture.failedFuture(
+                new ExchangeNetworkException(
+                    "Jumping in 5... 4... 3... 2... 1... Jump!")));
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    try {
+      exchangeAdapter.getLatestMarketPriceAsync(MARKET_ID).get();
+    } catch (ExecutionException e) {
+      throw (ExchangeNetworkException) e.getCause();
+    }
+    PowerMock.verifyAll();
+  }
+
   // --------------------------------------------------------------------------
   //  Get Balance Info tests
   // --------------------------------------------------------------------------
@@ -868,6 +1025,101 @@ public class TestBitstampExchangeAdapter extends AbstractExchangeAdapter {
     PowerMock.verifyAll();
   }
 
+  // --------------------------------------------------------------------------
+  //  Exchange Fee caching tests
+  // --------------------------------------------------------------------------
+
+  @Test
+  public void testGettingExchangeFeesIsCached() throws Exception {
+    final byte[] encoded = Files.readAllBytes(Paths.get(BALANCE_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    final BitstampExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            BitstampExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+            eq(BALANCE),
+            eq(null))
+        .andReturn(exchangeResponse)
+        .once();
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals(
+          0,
+          exchangeAdapter
+              .getPercentageOfBuyOrderTakenForExchangeFee(MARKET_ID)
+              .compareTo(new BigDecimal("0.0025")));
+      assertEquals(
+          0,
+          exchangeAdapter
+              .getPercentageOfSellOrderTakenForExchangeFee(MARKET_ID)
+              .compareTo(new BigDecimal("0.0025")));
+    }
+
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  public void testGettingBalanceInfoUpdatesCachedExchangeFees() throws Exception {
+    final byte[] encoded = Files.readAllBytes(Paths.get(BALANCE_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    final BitstampExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            BitstampExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+            eq(BALANCE),
+            eq(null))
+        .andReturn(exchangeResponse)
+        .once();
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    exchangeAdapter.getBalanceInfo();
+    final BigDecimal buyPercentageFee =
+        exchangeAdapter.getPercentageOfBuyOrderTakenForExchangeFee(MARKET_ID);
+    assertEquals(0, buyPercentageFee.compareTo(new BigDecimal("0.0025")));
+
+    PowerMock.verifyAll();
+  }
+
+  @Test(expected = TradingApiException.class)
+  public void testGettingExchangeFeeForUnknownMarketHandlesUnexpectedException()
+      throws Exception {
+    final byte[] encoded = Files.readAllBytes(Paths.get(BALANCE_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    final BitstampExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            BitstampExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+            eq(BALANCE),
+            eq(null))
+        .andReturn(exchangeResponse);
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    exchangeAdapter.getPercentageOfBuyOrderTakenForExchangeFee("dogeusd");
+    PowerMock.verifyAll();
+  }
+
   // --------------------------------------------------------------------------
   //  Get Ticker tests
   // --------------------------------------------------------------------------
@@ -1274,4 +1526,65 @@ public class TestBitstampExchangeAdapter extends AbstractExchangeAdapter {
 
     PowerMock.verifyAll();
   }
+
+  @Test
+  public void testParallelAuthenticatedRequestsReachExchangeInNonceOrder() throws Exception {
+    final byte[] encoded = Files.readAllBytes(Paths.get(BALANCE_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    final BitstampExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            BitstampExchangeAdapter.class, MOCKED_MAKE_NETWORK_REQUEST_METHOD);
+
+    // records the nonces in the order the requests are sent
+    final List<Long> noncesSent = Collections.synchronizedList(new ArrayList<>());
+    final URL url = new URL(API_BASE_URL + BALANCE + "/");
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_MAKE_NETWORK_REQUEST_METHOD,
+            eq(url),
+            eq("POST"),
+            anyString(),
+            anyObject(Map.class))
+        .andAnswer(
+            () -> {
+              final Matcher nonce = NONCE_PARAM.matcher((String) getCurrentArguments()[2]);
+              assertTrue(nonce.find());
+              noncesSent.add(Long.parseLong(nonce.group(1)));
+              return exchangeResponse;
+            })
+        .times(2 * PARALLEL_REQUESTS_PER_THREAD);
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    final CyclicBarrier startTogether = new CyclicBarrier(2);
+    final Callable<Void> getBalances =
+        () -> {
+          startTogether.await();
+          for (int i = 0; i < PARALLEL_REQUESTS_PER_THREAD; i++) {
+            exchangeAdapter.getBalanceInfo();
+          }
+          return null;
+        };
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final List<Future<Void>> threads =
+          executor.invokeAll(Arrays.asList(getBalances, getBalances));
+      for (final Future<Void> thread : threads) {
+        thread.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(2 * PARALLEL_REQUESTS_PER_THREAD, noncesSent.size());
+    for (int i = 1; i < noncesSent.size(); i++) {
+      assertTrue(noncesSent.get(i) > noncesSent.get(i - 1));
+    }
+
+    PowerMock.verifyAll();
+  }
 }
@@ -0,0 +1,154 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.gazbert.crypto.trading.api.ExchangeNetworkException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the exchange fee cache behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestExchangeFeeCache {
+
+  private static final long TTL_SECONDS = 60;
+
+  private final AtomicInteger loadCount = new AtomicInteger();
+  private final List<Runnable> pendingRefreshes = new ArrayList<>();
+  private long now;
+
+  /** Resets the fake clock and recorded loads before each test. */
+  @Before
+  public void setup() {
+    loadCount.set(0);
+    pendingRefreshes.clear();
+    now = 1_000L;
+  }
+
+  @Test
+  public void testFeesAreLoadedOnFirstUseAndThenCached() throws Exception {
+    final ExchangeFeeCache<Integer> feeCache =
+        createFeeCache(loadCount::incrementAndGet, TTL_SECONDS);
+
+    assertEquals(Integer.valueOf(1), feeCache.get());
+    now += TimeUnit.SECONDS.toNanos(TTL_SECONDS - 1);
+    assertEquals(Integer.valueOf(1), feeCache.get());
+    assertEquals(1, loadCount.get());
+    assertEquals(0, pendingRefreshes.size());
+  }
+
+  @Test
+  public void testStaleFeesAreServedWhileRefreshedInBackground() throws Exception {
+    final ExchangeFeeCache<Integer> feeCache =
+        createFeeCache(loadCount::incrementAndGet, TTL_SECONDS);
+    feeCache.get();
+
+    now += TimeUnit.SECONDS.toNanos(TTL_SECONDS);
+    assertEquals(Integer.valueOf(1), feeCache.get());
+    assertEquals(Integer.valueOf(1), feeCache.get());
+    assertEquals(1, pendingRefreshes.size()); // only one refresh at a time
+
+    pendingRefreshes.get(0).run();
+    assertEquals(Integer.valueOf(2), feeCache.get());
+    assertEquals(2, loadCount.get());
+  }
+
+  @Test
+  public void testStaleFeesAreKeptWhenRefreshFails() throws Exception {
+    final ExchangeFeeCache<Integer> feeCache =
+        createFeeCache(
+            () -> {
+              if (loadCount.incrementAndGet() > 1) {
+                throw new ExchangeNetworkException("Exchange is down for maintenance");
+              }
+              return 1;
+            },
+            TTL_SECONDS);
+    feeCache.get();
+
+    now += TimeUnit.SECONDS.toNanos(TTL_SECONDS);
+    feeCache.get();
+    pendingRefreshes.get(0).run();
+    assertEquals(Integer.valueOf(1), feeCache.get());
+
+    // and the next lookup tries again
+    assertEquals(2, pendingRefreshes.size());
+  }
+
+  @Test
+  public void testUpdateReplacesCachedFees() throws Exception {
+    final ExchangeFeeCache<Integer> feeCache =
+        createFeeCache(loadCount::incrementAndGet, TTL_SECONDS);
+
+    feeCache.update(42);
+    assertEquals(Integer.valueOf(42), feeCache.get());
+    assertEquals(0, loadCount.get());
+  }
+
+  @Test
+  public void testZeroTtlDisablesCaching() throws Exception {
+    final ExchangeFeeCache<Integer> feeCache = createFeeCache(loadCount::incrementAndGet, 0);
+
+    feeCache.update(42);
+    assertEquals(Integer.valueOf(1), feeCache.get());
+    assertEquals(Integer.valueOf(2), feeCache.get());
+  }
+
+  @Test
+  public void testLoadFailureOnFirstUseIsThrown() {
+    final ExchangeNetworkException loadFailure = new ExchangeNetworkException("Timeout");
+    final ExchangeFeeCache<Integer> feeCache =
+        createFeeCache(
+            () -> {
+              throw loadFailure;
+            },
+            TTL_SECONDS);
+    try {
+      feeCache.get();
+      fail("Expected the load failure to be thrown");
+    } catch (Exception e) {
+      assertSame(loadFailure, e);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeTtlIsRejected() {
+    new ExchangeFeeCache<>(loadCount::incrementAndGet, -1, pendingRefreshes::add);
+  }
+
+  private ExchangeFeeCache<Integer> createFeeCache(
+      ExchangeFeeCache.FeeLoader<Integer> feeLoader, long ttlSeconds) {
+    return new ExchangeFeeCache<>(feeLoader, ttlSeconds, pendingRefreshes::add, () -> now);
+  }
+}
@@ -38,6 +38,7 @@ import com.gazbert.crypto.exchange.api.ExchangeAdapter;
 import com.gazbert.crypto.exchange.api.ExchangeConfig;
 import com.gazbert.crypto.exchange.api.NetworkConfig;
 import com.gazbert.crypto.exchange.api.OtherConfig;
+import com.gazbert.crypto.exchanges.marketdata.MarketDataFeed;
 import com.gazbert.crypto.trading.api.BalanceInfo;
 import com.gazbert.crypto.trading.api.ExchangeNetworkException;
 import com.gazbert.crypto.trading.api.MarketOrderBook;
@@ -59,6 +60,8 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -124,6 +127,8 @@ public class TestGdaxExchangeAdapter extends AbstractExchangeAdapterTest {
       "sendAuthenticatedRequestToExchange";
   private static final String MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD =
       "sendPublicRequestToExchange";
+  private static final String MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD =
+      "sendPublicRequestToExchangeAsync";
   private static final String MOCKED_CREATE_REQUEST_HEADER_MAP_METHOD = "createHeaderParamMap";
   private static final String MOCKED_MAKE_NETWORK_REQUEST_METHOD = "makeNetworkRequest";
 
@@ -159,10 +164,16 @@ public class TestGdaxExchangeAdapter extends AbstractExchangeAdapterTest {
     expect(networkConfig.getConnectionTimeout()).andReturn(30);
     expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
     expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+    expect(networkConfig.getHttpTransport()).andReturn(null);
+    expect(networkConfig.getPublicRateLimit()).andReturn(null);
+    expect(networkConfig.getPrivateRateLimit()).andReturn(null);
+    expect(networkConfig.getTradingRateLimit()).andReturn(null);
+    expect(networkConfig.getRateLimitMaxWait()).andReturn(null);
 
     otherConfig = PowerMock.createMock(OtherConfig.class);
     expect(otherConfig.getItem("buy-fee")).andReturn("0.25");
     expect(otherConfig.getItem("sell-fee")).andReturn("0.25");
+    expect(otherConfig.getItem("market-data-feed")).andReturn(null);
 
     exchangeConfig = PowerMock.createMock(ExchangeConfig.class);
     expect(exchangeConfig.getAuthenticationConfig()).andReturn(authenticationConfig);
@@ -557,6 +568,22 @@ public class TestGdaxExchangeAdapter extends AbstractExchangeAdapterTest {
     PowerMock.verifyAll();
   }
 
+  @Test
+  public void testGettingMarketOrdersFromMarketDataFeed() throws Exception {
+    final MarketOrderBook localMarketOrders = PowerMock.createMock(MarketOrderBook.class);
+    final MarketDataFeed marketDataFeed = PowerMock.createMock(MarketDataFeed.class);
+    marketDataFeed.subscribe(MARKET_ID);
+    expect(marketDataFeed.getMarketOrders(MARKET_ID, 10)).andReturn(localMarketOrders);
+
+    PowerMock.replayAll();
+    final GdaxExchangeAdapter exchangeAdapter = new GdaxExchangeAdapter();
+    exchangeAdapter.init(exchangeConfig);
+    exchangeAdapter.setMarketDataFeed(marketDataFeed);
+
+    assertSame(localMarketOrders, exchangeAdapter.getMarketOrders(MARKET_ID, 10));
+    PowerMock.verifyAll();
+  }
+
   @Test(expected = ExchangeNetworkException.class)
   public void testGettingMarketOrdersHandlesExchangeNetworkException() throws Exception {
     final GdaxExchangeAdapter exchangeAdapter =
@@ -664,6 +691,118 @@ public class TestGdaxExchangeAdapter extends AbstractExchangeAdapterTest {
     PowerMock.verifyAll();
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testGettingMarketOrdersAsyncSuccessfully() throws Exception {
+    final byte[] encoded = Files.readAllBytes(Paths.get(BOOK_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    final Map<String, String> requestParamMap = PowerMock.createMock(Map.class);
+    expect(requestParamMap.put("level", ORDER_BOOK_DEPTH_LEVEL)).andStubReturn(null);
+
+    final GdaxExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            GdaxExchangeAdapter.class,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD,
+            MOCKED_CREATE_REQUEST_PARAM_MAP_METHOD);
+
+    PowerMock.expectPrivate(exchangeAdapter, MOCKED_CREATE_REQUEST_PARAM_MAP_METHOD)
+        .andReturn(requestParamMap);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD,
+            eq(BOOK),
+            eq(requestParamMap))
+        .andReturn(CompletableFuture.completedFuture(exchangeResponse));
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    final MarketOrderBook marketOrderBook = exchangeAdapter.getMarketOrdersAsync(MARKET_ID).get();
+
+    // assert some key stuff; we're not testing GSON here.
+    assertEquals(MARKET_ID, marketOrderBook.getMarketId());
+
+    final BigDecimal buyPrice = new BigDecimal("165.87");
+    final BigDecimal buyQuantity = new BigDecimal("16.2373");
+    final BigDecimal buyTotal = buyPrice.multiply(buyQuantity);
+
+    assertEquals(50, marketOrderBook.getBuyOrders().size());
+    assertSame(OrderType.BUY, marketOrderBook.getBuyOrders().get(0).getType());
+    assertEquals(0, marketOrderBook.getBuyOrders().get(0).getPrice().compareTo(buyPrice));
+    assertEquals(0, marketOrderBook.getBuyOrders().get(0).getQuantity().compareTo(buyQuantity));
+    assertEquals(0, marketOrderBook.getBuyOrders().get(0).getTotal().compareTo(buyTotal));
+
+    final BigDecimal sellPrice = new BigDecimal("165.96");
+    final BigDecimal sellQuantity = new BigDecimal("24.31");
+    final BigDecimal sellTotal = sellPrice.multiply(sellQuantity);
+
+    assertEquals(50, marketOrderBook.getSellOrders().size());
+    assertSame(OrderType.SELL, marketOrderBook.getSellOrders().get(0).getType());
+    assertEquals(0, marketOrderBook.getSellOrders().get(0).getPrice().compareTo(sellPrice));
+    assertEquals(0, marketOrderBook.getSellOrders().get(0).getQuantity().compareTo(sellQuantity));
+    assertEquals(0, marketOrderBook.getSellOrders().get(0).getTotal().compareTo(sellTotal));
+
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  public void testGettingLatestMarketPriceAsyncSuccessfully() throws Exception {
+    final byte[] encoded = Files.readAllBytes(Paths.get(TICKER_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    final GdaxExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            GdaxExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD);
+
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD,
+            eq(TICKER), eq(null))
+        .andReturn(CompletableFuture.completedFuture(exchangeResponse));
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    final BigDecimal latestMarketPrice =
+        exchangeAdapter
+            .getLatestMarketPriceAsync(MARKET_ID)
+            .get()
+            .setScale(8, RoundingMode.HALF_UP);
+    assertEquals(0, latestMarketPrice.compareTo(new BigDecimal("14744.9")));
+
+    PowerMock.verifyAll();
+  }
+
+  @Test(expected = ExchangeNetworkException.class)
+  public void testGettingLatestMarketPriceAsyncHandlesExchangeNetworkException() throws Exception {
+    final GdaxExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            GdaxExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD,
+            eq(TICKER), eq(null))
+        .andReturn(
+            CompletableFuture.failedFuture(
+                new ExchangeNetworkException(
+                    "I need your clothes, your boots and your motorcycle.")));
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    try {
+      exchangeAdapter.getLatestMarketPriceAsync(MARKET_ID).get();
+    } catch (ExecutionException e) {
+      throw (ExchangeNetworkException) e.getCause();
+    }
+    PowerMock.verifyAll();
+  }
+
   // --------------------------------------------------------------------------
   //  Get Balance Info tests
   // --------------------------------------------------------------------------
@@ -54,6 +54,8 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -102,6 +104,7 @@ public class TestGeminiExchangeAdapter extends AbstractExchangeAdapterTest {
 
   private static final String ETH_BTC_MARKET_ID = "ethbtc";
   private static final String BTC_USD_MARKET_ID = "btcusd";
+  private static final String NONCE_FILE = "./target/nonces/gemini.nonce";
   private static final BigDecimal BUY_ORDER_PRICE = new BigDecimal("0.00001");
   private static final BigDecimal BUY_ORDER_QUANTITY = new BigDecimal("0.001");
   private static final BigDecimal SELL_ORDER_PRICE = new BigDecimal("0.00002");
@@ -113,6 +116,8 @@ public class TestGeminiExchangeAdapter extends AbstractExchangeAdapterTest {
       "sendAuthenticatedRequestToExchange";
   private static final String MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD =
       "sendPublicRequestToExchange";
+  private static final String MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD =
+      "sendPublicRequestToExchangeAsync";
   private static final String MOCKED_CREATE_REQUEST_HEADER_MAP_METHOD = "createHeaderParamMap";
   private static final String MOCKED_MAKE_NETWORK_REQUEST_METHOD = "makeNetworkRequest";
 
@@ -145,10 +150,16 @@ public class TestGeminiExchangeAdapter extends AbstractExchangeAdapterTest {
     expect(networkConfig.getConnectionTimeout()).andReturn(30);
     expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
     expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+    expect(networkConfig.getHttpTransport()).andReturn(null);
+    expect(networkConfig.getPublicRateLimit()).andReturn(null);
+    expect(networkConfig.getPrivateRateLimit()).andReturn(null);
+    expect(networkConfig.getTradingRateLimit()).andReturn(null);
+    expect(networkConfig.getRateLimitMaxWait()).andReturn(null);
 
     final OtherConfig otherConfig = PowerMock.createMock(OtherConfig.class);
     expect(otherConfig.getItem("buy-fee")).andReturn("0.25");
     expect(otherConfig.getItem("sell-fee")).andReturn("0.25");
+    expect(otherConfig.getItem("nonce-file")).andReturn(NONCE_FILE);
 
     exchangeConfig = PowerMock.createMock(ExchangeConfig.class);
     expect(exchangeConfig.getAuthenticationConfig()).andReturn(authenticationConfig);
@@ -639,6 +650,112 @@ public class TestGeminiExchangeAdapter extends AbstractExchangeAdapterTest {
     PowerMock.verifyAll();
   }
 
+  @Test
+  public void testGettingMarketOrdersAsyncSuccessfully() throws Exception {
+    // Load the canned response from the exchange
+    final byte[] encoded = Files.readAllBytes(Paths.get(BOOK_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    // Partial mock so we do not send stuff down the wire
+    final GeminiExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            GeminiExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD,
+            BOOK + "/" + ETH_BTC_MARKET_ID)
+        .andReturn(CompletableFuture.completedFuture(exchangeResponse));
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    final MarketOrderBook marketOrderBook =
+        exchangeAdapter.getMarketOrdersAsync(ETH_BTC_MARKET_ID).get();
+
+    // assert some key stuff; we're not testing GSON here.
+    assertEquals(ETH_BTC_MARKET_ID, marketOrderBook.getMarketId());
+
+    final BigDecimal buyPrice = new BigDecimal("603.01");
+    final BigDecimal buyQuantity = new BigDecimal("104.56720978");
+    final BigDecimal buyTotal = buyPrice.multiply(buyQuantity);
+
+    assertEquals(50, marketOrderBook.getBuyOrders().size());
+    assertSame(OrderType.BUY, marketOrderBook.getBuyOrders().get(0).getType());
+    assertEquals(0, marketOrderBook.getBuyOrders().get(0).getPrice().compareTo(buyPrice));
+    assertEquals(0, marketOrderBook.getBuyOrders().get(0).getQuantity().compareTo(buyQuantity));
+    assertEquals(0, marketOrderBook.getBuyOrders().get(0).getTotal().compareTo(buyTotal));
+
+    final BigDecimal sellPrice = new BigDecimal("603.02");
+    final BigDecimal sellQuantity = new BigDecimal("24.5498");
+    final BigDecimal sellTotal = sellPrice.multiply(sellQuantity);
+
+    assertEquals(50, marketOrderBook.getSellOrders().size());
+    assertSame(OrderType.SELL, marketOrderBook.getSellOrders().get(0).getType());
+    assertEquals(0, marketOrderBook.getSellOrders().get(0).getPrice().compareTo(sellPrice));
+    assertEquals(0, marketOrderBook.getSellOrders().get(0).getQuantity().compareTo(sellQuantity));
+    assertEquals(0, marketOrderBook.getSellOrders().get(0).getTotal().compareTo(sellTotal));
+
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  public void testGettingLatestMarketPriceAsyncSuccessfully() throws Exception {
+    final byte[] encoded = Files.readAllBytes(Paths.get(PUBTICKER_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    final GeminiExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            GeminiExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD,
+            PUBTICKER + "/" + ETH_BTC_MARKET_ID)
+        .andReturn(CompletableFuture.completedFuture(exchangeResponse));
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    final BigDecimal latestMarketPrice =
+        exchangeAdapter
+            .getLatestMarketPriceAsync(ETH_BTC_MARKET_ID)
+            .get()
+            .setScale(8, RoundingMode.HALF_UP);
+    assertEquals(0, latestMarketPrice.compareTo(new BigDecimal("567.22")));
+
+    PowerMock.verifyAll();
+  }
+
+  @Test(expected = ExchangeNetworkException.class)
+  public void testGettingLatestMarketPriceAsyncHandlesExchangeNetworkException() throws Exception {
+    final GeminiExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            GeminiExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD,
+            PUBTICKER + "/" + ETH_BTC_MARKET_ID)
+        .andReturn(
+            CompletableFuture.failedFuture(
+                new ExchangeNetworkException(
+                    "He's the hero Gotham deserves, but not the one it needs right now. So "
+                        + "we'll hunt him. Because he can take it. Because he's not our hero. He's "
+                        + "a silent guardian, a watchful protector. A dark knight.")));
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    try {
+      exchangeAdapter.getLatestMarketPriceAsync(ETH_BTC_MARKET_ID).get();
+    } catch (ExecutionException e) {
+      throw (ExchangeNetworkException) e.getCause();
+    }
+    PowerMock.verifyAll();
+  }
+
   // --------------------------------------------------------------------------
   //  Get Your Open Orders tests
   // --------------------------------------------------------------------------
@@ -58,6 +58,8 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -86,6 +88,7 @@ import org.powermock.reflect.Whitebox;
 public class TestItBitExchangeAdapter extends AbstractExchangeAdapterTest {
 
   private static final String MARKET_ID = "XBTUSD";
+  private static final String NONCE_FILE = "./target/nonces/itbit.nonce";
   private static final String WALLET_ID = "62827e93-f19b-67bf-8d2f-663fa4f0f1ad";
   private static final BigDecimal BUY_ORDER_PRICE = new BigDecimal("200.18");
   private static final BigDecimal BUY_ORDER_QUANTITY = new BigDecimal("0.01");
@@ -120,6 +123,8 @@ public class TestItBitExchangeAdapter extends AbstractExchangeAdapterTest {
       "sendAuthenticatedRequestToExchange";
   private static final String MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD =
       "sendPublicRequestToExchange";
+  private static final String MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD =
+      "sendPublicRequestToExchangeAsync";
   private static final String MOCKED_CREATE_REQUEST_HEADER_MAP_METHOD = "createHeaderParamMap";
   private static final String MOCKED_MAKE_NETWORK_REQUEST_METHOD = "makeNetworkRequest";
   private static final String MOCKED_GET_BALANCE_INFO_METHOD = "getBalanceInfo";
@@ -158,11 +163,17 @@ public class TestItBitExchangeAdapter extends AbstractExchangeAdapterTest {
     expect(networkConfig.getConnectionTimeout()).andReturn(30);
     expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
     expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+    expect(networkConfig.getHttpTransport()).andReturn(null);
+    expect(networkConfig.getPublicRateLimit()).andReturn(null);
+    expect(networkConfig.getPrivateRateLimit()).andReturn(null);
+    expect(networkConfig.getTradingRateLimit()).andReturn(null);
+    expect(networkConfig.getRateLimitMaxWait()).andReturn(null);
 
     otherConfig = PowerMock.createMock(OtherConfig.class);
     expect(otherConfig.getItem("buy-fee")).andReturn("0.5");
     expect(otherConfig.getItem("sell-fee")).andReturn("0.5");
     expect(otherConfig.getItem("keep-alive-during-maintenance")).andReturn("false");
+    expect(otherConfig.getItem("nonce-file")).andReturn(NONCE_FILE);
 
     exchangeConfig = PowerMock.createMock(ExchangeConfig.class);
     expect(exchangeConfig.getAuthenticationConfig()).andReturn(authenticationConfig);
@@ -669,6 +680,107 @@ public class TestItBitExchangeAdapter extends AbstractExchangeAdapterTest {
     PowerMock.verifyAll();
   }
 
+  @Test
+  public void testGettingMarketOrdersAsyncSuccessfully() throws Exception {
+    final byte[] encoded = Files.readAllBytes(Paths.get(ORDER_BOOK_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    final ItBitExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            ItBitExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD,
+            ORDER_BOOK)
+        .andReturn(CompletableFuture.completedFuture(exchangeResponse));
+
+    PowerMock.replayAll();
+
+    exchangeAdapter.init(exchangeConfig);
+    final MarketOrderBook marketOrderBook = exchangeAdapter.getMarketOrdersAsync(MARKET_ID).get();
+
+    // assert some key stuff; we're not testing GSON here.
+    assertEquals(MARKET_ID, marketOrderBook.getMarketId());
+
+    final BigDecimal buyPrice = new BigDecimal("236.73");
+    final BigDecimal buyQuantity = new BigDecimal("0.03");
+    final BigDecimal buyTotal = buyPrice.multiply(buyQuantity);
+
+    assertEquals(159, marketOrderBook.getBuyOrders().size()); // itBit sends them all back!
+    assertSame(OrderType.BUY, marketOrderBook.getBuyOrders().get(0).getType());
+    assertEquals(0, marketOrderBook.getBuyOrders().get(0).getPrice().compareTo(buyPrice));
+    assertEquals(0, marketOrderBook.getBuyOrders().get(0).getQuantity().compareTo(buyQuantity));
+    assertEquals(0, marketOrderBook.getBuyOrders().get(0).getTotal().compareTo(buyTotal));
+
+    final BigDecimal sellPrice = new BigDecimal("236.84");
+    final BigDecimal sellQuantity = new BigDecimal("6.74");
+    final BigDecimal sellTotal = sellPrice.multiply(sellQuantity);
+
+    assertEquals(143, marketOrderBook.getSellOrders().size()); // itBit sends them all back!
+    assertSame(OrderType.SELL, marketOrderBook.getSellOrders().get(0).getType());
+    assertEquals(0, marketOrderBook.getSellOrders().get(0).getPrice().compareTo(sellPrice));
+    assertEquals(0, marketOrderBook.getSellOrders().get(0).getQuantity().compareTo(sellQuantity));
+    assertEquals(0, marketOrderBook.getSellOrders().get(0).getTotal().compareTo(sellTotal));
+
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  public void testGettingLatestMarketPriceAsyncSuccessfully() throws Exception {
+    final byte[] encoded = Files.readAllBytes(Paths.get(TICKER_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    final ItBitExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            ItBitExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD, TICKER)
+        .andReturn(CompletableFuture.completedFuture(exchangeResponse));
+
+    PowerMock.replayAll();
+
+    exchangeAdapter.init(exchangeConfig);
+    final BigDecimal latestMarketPrice =
+        exchangeAdapter
+            .getLatestMarketPriceAsync(MARKET_ID)
+            .get()
+            .setScale(8, RoundingMode.HALF_UP);
+    assertEquals(0, latestMarketPrice.compareTo(new BigDecimal("237.70000000")));
+
+    PowerMock.verifyAll();
+  }
+
+  @Test(expected = ExchangeNetworkException.class)
+  public void testGettingLatestMarketPriceAsyncHandlesExchangeNetworkException() throws Exception {
+    final ItBitExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMock(
+            ItBitExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD, TICKER)
+        .andReturn(
+            CompletableFuture.failedFuture(
+                new ExchangeNetworkException(
+                    "I've seen horrors... horrors that you've seen. But you have no right to "
+                        + "call me a murderer. You have a right to kill me. You have a right to do "
+                        + "that... but you have no right to judge me. It's impossible for words to "
+                        + "describe what is necessary to those who do not know what horror means. "
+                        + "Horror... Horror has a face... and you must make a friend of horror. "
+                        + "Horror and moral terror are your friends. If they are not, then they "
+                        + "are enemies to be feared.")));
+
+    PowerMock.replayAll();
+    try {
+      exchangeAdapter.getLatestMarketPriceAsync(MARKET_ID).get();
+    } catch (ExecutionException e) {
+      throw (ExchangeNetworkException) e.getCause();
+    }
+    PowerMock.verifyAll();
+  }
+
   // --------------------------------------------------------------------------
   //  Get Balance Info tests
   // --------------------------------------------------------------------------
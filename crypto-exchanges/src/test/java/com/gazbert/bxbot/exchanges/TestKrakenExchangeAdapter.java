@@ -27,6 +27,7 @@ import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.anyString;
 import static org.easymock.EasyMock.eq;
 import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
@@ -38,6 +39,8 @@ import com.gazbert.crypto.exchange.api.ExchangeAdapter;
 import com.gazbert.crypto.exchange.api.ExchangeConfig;
 import com.gazbert.crypto.exchange.api.NetworkConfig;
 import com.gazbert.crypto.exchange.api.OtherConfig;
+import com.gazbert.crypto.exchanges.AbstractExchangeAdapter.ExchangeResponseReader;
+import com.gazbert.crypto.exchanges.marketdata.MarketDataFeed;
 import com.gazbert.crypto.trading.api.BalanceInfo;
 import com.gazbert.crypto.trading.api.ExchangeNetworkException;
 import com.gazbert.crypto.trading.api.MarketOrderBook;
@@ -56,6 +59,8 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -116,6 +121,7 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
   // Market id must be the same as the Asset Pair id. See:
   // https://www.kraken.com/help/api#get-tradable-pairs
   private static final String MARKET_ID = "XBTUSD";
+  private static final String NONCE_FILE = "./target/nonces/kraken.nonce";
   private static final BigDecimal BUY_ORDER_PRICE = new BigDecimal("456.41");
   private static final BigDecimal BUY_ORDER_QUANTITY = new BigDecimal("0.001");
   private static final BigDecimal SELL_ORDER_PRICE = new BigDecimal("758.17");
@@ -127,6 +133,12 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
       "sendAuthenticatedRequestToExchange";
   private static final String MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD =
       "sendPublicRequestToExchange";
+  private static final String MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD =
+      "sendPublicRequestToExchangeAsync";
+  private static final String MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_METHOD =
+      "streamPublicRequestFromExchange";
+  private static final String MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_ASYNC_METHOD =
+      "streamPublicRequestFromExchangeAsync";
   private static final String MOCKED_CREATE_REQUEST_HEADER_MAP_METHOD = "createHeaderParamMap";
   private static final String MOCKED_MAKE_NETWORK_REQUEST_METHOD = "makeNetworkRequest";
 
@@ -165,11 +177,18 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
     expect(networkConfig.getConnectionTimeout()).andReturn(30);
     expect(networkConfig.getNonFatalErrorCodes()).andReturn(nonFatalNetworkErrorCodes);
     expect(networkConfig.getNonFatalErrorMessages()).andReturn(nonFatalNetworkErrorMessages);
+    expect(networkConfig.getHttpTransport()).andReturn(null);
+    expect(networkConfig.getPublicRateLimit()).andReturn(null);
+    expect(networkConfig.getPrivateRateLimit()).andReturn(null);
+    expect(networkConfig.getTradingRateLimit()).andReturn(null);
+    expect(networkConfig.getRateLimitMaxWait()).andReturn(null);
 
     OtherConfig otherConfig = PowerMock.createMock(OtherConfig.class);
     expect(otherConfig.getItem("buy-fee")).andReturn("0.1");
     expect(otherConfig.getItem("sell-fee")).andReturn("0.2");
     expect(otherConfig.getItem("keep-alive-during-maintenance")).andReturn("false");
+    expect(otherConfig.getItem("market-data-feed")).andReturn(null);
+    expect(otherConfig.getItem("nonce-file")).andReturn(NONCE_FILE);
 
     exchangeConfig = PowerMock.createMock(ExchangeConfig.class);
     expect(exchangeConfig.getAuthenticationConfig()).andReturn(authenticationConfig);
@@ -184,12 +203,6 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
   @Test
   @SuppressWarnings("unchecked")
   public void testGettingMarketOrdersSuccessfully() throws Exception {
-    // Load the canned response from the exchange
-    final byte[] encoded = Files.readAllBytes(Paths.get(DEPTH_JSON_RESPONSE));
-    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
-        new AbstractExchangeAdapter.ExchangeHttpResponse(
-            200, "OK", new String(encoded, StandardCharsets.UTF_8));
-
     // Mock out param map so we can assert the contents passed to the transport layer are what we
     // expect.
     final Map<String, String> requestParamMap = PowerMock.createMock(Map.class);
@@ -199,17 +212,18 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
     final KrakenExchangeAdapter exchangeAdapter =
         PowerMock.createPartialMockAndInvokeDefaultConstructor(
             KrakenExchangeAdapter.class,
-            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
+            MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_METHOD,
             MOCKED_CREATE_REQUEST_PARAM_MAP_METHOD);
 
     PowerMock.expectPrivate(exchangeAdapter, MOCKED_CREATE_REQUEST_PARAM_MAP_METHOD)
         .andReturn(requestParamMap);
     PowerMock.expectPrivate(
             exchangeAdapter,
-            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
+            MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_METHOD,
             eq(DEPTH),
-            eq(requestParamMap))
-        .andReturn(exchangeResponse);
+            eq(requestParamMap),
+            anyObject(ExchangeResponseReader.class))
+        .andAnswer(() -> readCannedResponse(DEPTH_JSON_RESPONSE, getCurrentArguments()[2]));
 
     PowerMock.replayAll();
     exchangeAdapter.init(exchangeConfig);
@@ -242,31 +256,77 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
     PowerMock.verifyAll();
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testGettingMarketOrdersToDepthSendsCountParam() throws Exception {
+    final Map<String, String> requestParamMap = PowerMock.createMock(Map.class);
+    expect(requestParamMap.put("pair", MARKET_ID)).andStubReturn(null);
+    expect(requestParamMap.put("count", "5")).andStubReturn(null);
+
+    final KrakenExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            KrakenExchangeAdapter.class,
+            MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_METHOD,
+            MOCKED_CREATE_REQUEST_PARAM_MAP_METHOD);
+
+    PowerMock.expectPrivate(exchangeAdapter, MOCKED_CREATE_REQUEST_PARAM_MAP_METHOD)
+        .andReturn(requestParamMap);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_METHOD,
+            eq(DEPTH),
+            eq(requestParamMap),
+            anyObject(ExchangeResponseReader.class))
+        .andAnswer(() -> readCannedResponse(DEPTH_JSON_RESPONSE, getCurrentArguments()[2]));
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    // canned response holds the full book, so this also checks the client-side truncation.
+    final MarketOrderBook marketOrderBook = exchangeAdapter.getMarketOrders(MARKET_ID, 5);
+
+    assertEquals(5, marketOrderBook.getBuyOrders().size());
+    assertEquals(
+        0, marketOrderBook.getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("662.55000")));
+    assertEquals(5, marketOrderBook.getSellOrders().size());
+    assertEquals(
+        0,
+        marketOrderBook.getSellOrders().get(0).getPrice().compareTo(new BigDecimal("664.53600")));
+
+    PowerMock.verifyAll();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGettingMarketOrdersToDepthRejectsDepthLessThanOne() throws Exception {
+    PowerMock.replayAll();
+    final KrakenExchangeAdapter exchangeAdapter = new KrakenExchangeAdapter();
+    exchangeAdapter.init(exchangeConfig);
+
+    exchangeAdapter.getMarketOrders(MARKET_ID, 0);
+    PowerMock.verifyAll();
+  }
+
   @Test(expected = TradingApiException.class)
   @SuppressWarnings("unchecked")
   public void testGettingMarketOrdersHandlesErrorResponse() throws Exception {
-    final byte[] encoded = Files.readAllBytes(Paths.get(DEPTH_ERROR_JSON_RESPONSE));
-    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
-        new AbstractExchangeAdapter.ExchangeHttpResponse(
-            200, "OK", new String(encoded, StandardCharsets.UTF_8));
-
     final Map<String, String> requestParamMap = PowerMock.createMock(Map.class);
     expect(requestParamMap.put("pair", MARKET_ID)).andStubReturn(null);
 
     final KrakenExchangeAdapter exchangeAdapter =
         PowerMock.createPartialMockAndInvokeDefaultConstructor(
             KrakenExchangeAdapter.class,
-            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
+            MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_METHOD,
             MOCKED_CREATE_REQUEST_PARAM_MAP_METHOD);
 
     PowerMock.expectPrivate(exchangeAdapter, MOCKED_CREATE_REQUEST_PARAM_MAP_METHOD)
         .andReturn(requestParamMap);
     PowerMock.expectPrivate(
             exchangeAdapter,
-            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
+            MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_METHOD,
             eq(DEPTH),
-            eq(requestParamMap))
-        .andReturn(exchangeResponse);
+            eq(requestParamMap),
+            anyObject(ExchangeResponseReader.class))
+        .andAnswer(() -> readCannedResponse(DEPTH_ERROR_JSON_RESPONSE, getCurrentArguments()[2]));
 
     PowerMock.replayAll();
     exchangeAdapter.init(exchangeConfig);
@@ -275,17 +335,34 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
     PowerMock.verifyAll();
   }
 
+  @Test
+  public void testGettingMarketOrdersFromMarketDataFeed() throws Exception {
+    final MarketOrderBook localMarketOrders = PowerMock.createMock(MarketOrderBook.class);
+    final MarketDataFeed marketDataFeed = PowerMock.createMock(MarketDataFeed.class);
+    marketDataFeed.subscribe(MARKET_ID);
+    expect(marketDataFeed.getMarketOrders(MARKET_ID, 10)).andReturn(localMarketOrders);
+
+    PowerMock.replayAll();
+    final KrakenExchangeAdapter exchangeAdapter = new KrakenExchangeAdapter();
+    exchangeAdapter.init(exchangeConfig);
+    exchangeAdapter.setMarketDataFeed(marketDataFeed);
+
+    assertSame(localMarketOrders, exchangeAdapter.getMarketOrders(MARKET_ID, 10));
+    PowerMock.verifyAll();
+  }
+
   @Test(expected = ExchangeNetworkException.class)
   public void testGettingMarketOrdersHandlesExchangeNetworkException() throws Exception {
     final KrakenExchangeAdapter exchangeAdapter =
         PowerMock.createPartialMockAndInvokeDefaultConstructor(
-            KrakenExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
+            KrakenExchangeAdapter.class, MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_METHOD);
 
     PowerMock.expectPrivate(
             exchangeAdapter,
-            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
+            MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_METHOD,
             eq(DEPTH),
-            anyObject(Map.class))
+            anyObject(Map.class),
+            anyObject(ExchangeResponseReader.class))
         .andThrow(
             new ExchangeNetworkException("You're not giving orders. You're in my world now."));
 
@@ -300,13 +377,14 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
   public void testGettingMarketOrdersHandlesUnexpectedException() throws Exception {
     final KrakenExchangeAdapter exchangeAdapter =
         PowerMock.createPartialMockAndInvokeDefaultConstructor(
-            KrakenExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
+            KrakenExchangeAdapter.class, MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_METHOD);
 
     PowerMock.expectPrivate(
             exchangeAdapter,
-            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
+            MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_METHOD,
             eq(DEPTH),
-            anyObject(Map.class))
+            anyObject(Map.class),
+            anyObject(ExchangeResponseReader.class))
         .andThrow(
             new IllegalArgumentException(
                 "Down time is the worst, isn’t it? "
@@ -860,6 +938,24 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
     PowerMock.verifyAll();
   }
 
+  @Test
+  public void testGettingLatestMarketPriceFromMarketDataFeed() throws Exception {
+    final Ticker localTicker = PowerMock.createMock(Ticker.class);
+    expect(localTicker.getLast()).andReturn(new BigDecimal("5541.3"));
+    final MarketDataFeed marketDataFeed = PowerMock.createMock(MarketDataFeed.class);
+    marketDataFeed.subscribe(MARKET_ID);
+    expect(marketDataFeed.getTicker(MARKET_ID)).andReturn(localTicker);
+
+    PowerMock.replayAll();
+    final KrakenExchangeAdapter exchangeAdapter = new KrakenExchangeAdapter();
+    exchangeAdapter.init(exchangeConfig);
+    exchangeAdapter.setMarketDataFeed(marketDataFeed);
+
+    assertEquals(
+        0, exchangeAdapter.getLatestMarketPrice(MARKET_ID).compareTo(new BigDecimal("5541.3")));
+    PowerMock.verifyAll();
+  }
+
   @Test(expected = TradingApiException.class)
   public void testGettingLatestMarketPriceHandlesExchangeErrorResponse() throws Exception {
     final byte[] encoded = Files.readAllBytes(Paths.get(TICKER_ERROR_JSON_RESPONSE));
@@ -932,6 +1028,131 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
     PowerMock.verifyAll();
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testGettingMarketOrdersAsyncSuccessfully() throws Exception {
+    // Mock out param map so we can assert the contents passed to the transport layer are what we
+    // expect.
+    final Map<String, String> requestParamMap = PowerMock.createMock(Map.class);
+    expect(requestParamMap.put("pair", MARKET_ID)).andStubReturn(null);
+
+    // Partial mock so we do not send stuff down the wire
+    final KrakenExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            KrakenExchangeAdapter.class,
+            MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_ASYNC_METHOD,
+            MOCKED_CREATE_REQUEST_PARAM_MAP_METHOD);
+
+    PowerMock.expectPrivate(exchangeAdapter, MOCKED_CREATE_REQUEST_PARAM_MAP_METHOD)
+        .andReturn(requestParamMap);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_STREAM_PUBLIC_REQUEST_FROM_EXCHANGE_ASYNC_METHOD,
+            eq(DEPTH),
+            eq(requestParamMap),
+            anyObject(ExchangeResponseReader.class))
+        .andAnswer(
+            () -> CompletableFuture.completedFuture(
+                readCannedResponse(DEPTH_JSON_RESPONSE, getCurrentArguments()[2])));
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    final MarketOrderBook marketOrderBook = exchangeAdapter.getMarketOrdersAsync(MARKET_ID).get();
+
+    // assert some key stuff; we're not testing GSON here.
+    // assertTrue(marketOrderBook.getMarketId().equals(MARKET_ID));
+
+    final BigDecimal buyPrice = new BigDecimal("662.55000");
+    final BigDecimal buyQuantity = new BigDecimal("5.851");
+    final BigDecimal buyTotal = buyPrice.multiply(buyQuantity);
+
+    assertEquals(100, marketOrderBook.getBuyOrders().size());
+    assertSame(OrderType.BUY, marketOrderBook.getBuyOrders().get(0).getType());
+    assertEquals(0, marketOrderBook.getBuyOrders().get(0).getPrice().compareTo(buyPrice));
+    assertEquals(0, marketOrderBook.getBuyOrders().get(0).getQuantity().compareTo(buyQuantity));
+    assertEquals(0, marketOrderBook.getBuyOrders().get(0).getTotal().compareTo(buyTotal));
+
+    final BigDecimal sellPrice = new BigDecimal("664.53600");
+    final BigDecimal sellQuantity = new BigDecimal("0.888");
+    final BigDecimal sellTotal = sellPrice.multiply(sellQuantity);
+
+    assertEquals(100, marketOrderBook.getSellOrders().size());
+    assertSame(OrderType.SELL, marketOrderBook.getSellOrders().get(0).getType());
+    assertEquals(0, marketOrderBook.getSellOrders().get(0).getPrice().compareTo(sellPrice));
+    assertEquals(0, marketOrderBook.getSellOrders().get(0).getQuantity().compareTo(sellQuantity));
+    assertEquals(0, marketOrderBook.getSellOrders().get(0).getTotal().compareTo(sellTotal));
+
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testGettingLatestMarketPriceAsyncSuccessfully() throws Exception {
+    final byte[] encoded = Files.readAllBytes(Paths.get(TICKER_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    final Map<String, String> requestParamMap = PowerMock.createMock(Map.class);
+    expect(requestParamMap.put("pair", MARKET_ID)).andStubReturn(null);
+
+    final KrakenExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            KrakenExchangeAdapter.class,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD,
+            MOCKED_CREATE_REQUEST_PARAM_MAP_METHOD);
+
+    PowerMock.expectPrivate(exchangeAdapter, MOCKED_CREATE_REQUEST_PARAM_MAP_METHOD)
+        .andReturn(requestParamMap);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD,
+            eq(TICKER),
+            eq(requestParamMap))
+        .andReturn(CompletableFuture.completedFuture(exchangeResponse));
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    final BigDecimal latestMarketPrice =
+        exchangeAdapter
+            .getLatestMarketPriceAsync(MARKET_ID)
+            .get()
+            .setScale(8, RoundingMode.HALF_UP);
+    assertEquals(0, latestMarketPrice.compareTo(new BigDecimal("657.99900")));
+    PowerMock.verifyAll();
+  }
+
+  @Test(expected = ExchangeNetworkException.class)
+  public void testGettingLatestMarketPriceAsyncHandlesExchangeNetworkException() throws Exception {
+    final KrakenExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            KrakenExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_ASYNC_METHOD,
+            eq(TICKER),
+            anyObject(Map.class))
+        .andReturn(
+            CompletableFuture.failedFuture(
+                new ExchangeNetworkException(
+                    "As long as you can still grab a breath, you fight. You breathe. Keep "
+                        + "breathing. When there is a storm and you stand in front of a tree, if "
+                        + "you look at its branches, you swear it will fall. But if you watch the "
+                        + "trunk, you will see its stability.")));
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    try {
+      exchangeAdapter.getLatestMarketPriceAsync(MARKET_ID).get();
+    } catch (ExecutionException e) {
+      throw (ExchangeNetworkException) e.getCause();
+    }
+    PowerMock.verifyAll();
+  }
+
   // --------------------------------------------------------------------------
   //  Get Latest Market Price tests
   // --------------------------------------------------------------------------
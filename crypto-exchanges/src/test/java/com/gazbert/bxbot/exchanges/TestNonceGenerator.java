@@ -0,0 +1,194 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the nonce generator behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestNonceGenerator {
+
+  private static final Path NONCE_DIRECTORY = Paths.get("./target/nonces");
+
+  private long now;
+  private Path nonceFile;
+
+  /** Each test gets its own nonce file, which does not exist yet. */
+  @Before
+  public void setup() throws Exception {
+    now = 1_500_000_000L;
+    Files.createDirectories(NONCE_DIRECTORY);
+    nonceFile = Files.createTempFile(NONCE_DIRECTORY, "test", ".nonce");
+    Files.delete(nonceFile);
+  }
+
+  @Test
+  public void testNonceFollowsClock() throws Exception {
+    final NonceGenerator nonceGenerator = new NonceGenerator(null, () -> now);
+    assertEquals(now, nonceGenerator.next());
+
+    now += 10;
+    assertEquals(now, nonceGenerator.next());
+  }
+
+  @Test
+  public void testNonceIncreasesWithinSameSecond() throws Exception {
+    final NonceGenerator nonceGenerator = new NonceGenerator(null, () -> now);
+    assertEquals(now, nonceGenerator.next());
+    assertEquals(now + 1, nonceGenerator.next());
+    assertEquals(now + 2, nonceGenerator.next());
+  }
+
+  @Test
+  public void testNonceDoesNotRegressWhenClockIsWoundBack() throws Exception {
+    final NonceGenerator nonceGenerator = new NonceGenerator(null, () -> now);
+    final long first = nonceGenerator.next();
+
+    now -= 60;
+    assertEquals(first + 1, nonceGenerator.next());
+  }
+
+  @Test
+  public void testBlockIsReservedInNonceFile() throws Exception {
+    final NonceGenerator nonceGenerator = new NonceGenerator(nonceFile, () -> now);
+    final long first = nonceGenerator.next();
+    assertEquals(first + NonceGenerator.RESERVED_BLOCK_SIZE, readNonceFile());
+
+    // the file is not written again until the block is used up
+    now += NonceGenerator.RESERVED_BLOCK_SIZE / 2;
+    nonceGenerator.next();
+    assertEquals(first + NonceGenerator.RESERVED_BLOCK_SIZE, readNonceFile());
+
+    now += NonceGenerator.RESERVED_BLOCK_SIZE;
+    final long next = nonceGenerator.next();
+    assertEquals(next + NonceGenerator.RESERVED_BLOCK_SIZE, readNonceFile());
+  }
+
+  @Test
+  public void testNonceDoesNotRegressAfterRestart() throws Exception {
+    final NonceGenerator beforeRestart = new NonceGenerator(nonceFile, () -> now);
+    long last = 0;
+    for (int i = 0; i < 10; i++) {
+      last = beforeRestart.next();
+    }
+
+    // same second, so the clock alone would reuse nonces
+    final NonceGenerator afterRestart = new NonceGenerator(nonceFile, () -> now);
+    assertTrue(afterRestart.next() > last);
+  }
+
+  @Test
+  public void testNonceStaysCloseToClockAfterRestart() throws Exception {
+    new NonceGenerator(nonceFile, () -> now).next();
+
+    final NonceGenerator afterRestart = new NonceGenerator(nonceFile, () -> now);
+    assertTrue(afterRestart.next() <= now + NonceGenerator.RESERVED_BLOCK_SIZE + 1);
+  }
+
+  @Test
+  public void testNonceIsNotReturnedWhenNonceFileCannotBeWritten() throws Exception {
+    // the nonce file's directory cannot be created, as a file is in the way
+    final Path blockingFile = Files.createTempFile(NONCE_DIRECTORY, "test", ".blocking");
+    final NonceGenerator nonceGenerator =
+        new NonceGenerator(blockingFile.resolve("test.nonce"), () -> now);
+    try {
+      nonceGenerator.next();
+      fail("Expected an IOException when the nonce file cannot be written");
+    } catch (IOException e) {
+      // expected
+    }
+
+    // the block was not reserved, so the next nonce tries again
+    try {
+      nonceGenerator.next();
+      fail("Expected an IOException when the nonce file cannot be written");
+    } catch (IOException e) {
+      assertFalse(Files.exists(blockingFile.resolve("test.nonce")));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCorruptNonceFileIsRejected() throws Exception {
+    Files.write(nonceFile, "not a nonce".getBytes(StandardCharsets.UTF_8));
+    new NonceGenerator(nonceFile, () -> now);
+  }
+
+  @Test
+  public void testNoncesAreUniqueAcrossThreads() throws Exception {
+    final NonceGenerator nonceGenerator = new NonceGenerator(nonceFile, () -> now);
+    final int threadCount = 8;
+    final int noncesPerThread = 1_000;
+    final Set<Long> nonces = ConcurrentHashMap.newKeySet();
+    final CountDownLatch start = new CountDownLatch(1);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    for (int i = 0; i < threadCount; i++) {
+      executor.execute(
+          () -> {
+            try {
+              start.await();
+              for (int j = 0; j < noncesPerThread; j++) {
+                nonces.add(nonceGenerator.next());
+              }
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+    }
+    start.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(threadCount * noncesPerThread, nonces.size());
+    final long next = nonceGenerator.next();
+    assertTrue(readNonceFile() >= next);
+  }
+
+  private long readNonceFile() throws Exception {
+    return Long.parseLong(new String(Files.readAllBytes(nonceFile), StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the token-bucket rate limiter behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestRateLimiter {
+
+  private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private long now;
+
+  @Before
+  public void setup() {
+    now = 1_000L;
+  }
+
+  @Test
+  public void testBurstIsAvailableImmediately() {
+    final RateLimiter rateLimiter = new RateLimiter(2.0, 3, () -> now);
+    assertEquals(0, rateLimiter.reserve(0));
+    assertEquals(0, rateLimiter.reserve(0));
+    assertEquals(0, rateLimiter.reserve(0));
+    assertEquals(-1, rateLimiter.reserve(0));
+  }
+
+  @Test
+  public void testPermitsAreRefilledOverTime() {
+    final RateLimiter rateLimiter = new RateLimiter(2.0, 1, () -> now);
+    assertEquals(0, rateLimiter.reserve(0));
+    assertEquals(-1, rateLimiter.reserve(0));
+
+    now += ONE_SECOND / 2;
+    assertEquals(0, rateLimiter.reserve(0));
+  }
+
+  @Test
+  public void testRefillIsCappedAtBurst() {
+    final RateLimiter rateLimiter = new RateLimiter(10.0, 2, () -> now);
+    now += 10 * ONE_SECOND;
+    assertEquals(0, rateLimiter.reserve(0));
+    assertEquals(0, rateLimiter.reserve(0));
+    assertEquals(-1, rateLimiter.reserve(0));
+  }
+
+  @Test
+  public void testReservingAheadReturnsWait() {
+    final RateLimiter rateLimiter = new RateLimiter(4.0, 1, () -> now);
+    assertEquals(0, rateLimiter.reserve(ONE_SECOND));
+    assertEquals(ONE_SECOND / 4, rateLimiter.reserve(ONE_SECOND), 1);
+    assertEquals(ONE_SECOND / 2, rateLimiter.reserve(ONE_SECOND), 1);
+  }
+
+  @Test
+  public void testRefusedPermitIsNotReserved() {
+    final RateLimiter rateLimiter = new RateLimiter(1.0, 1, () -> now);
+    assertEquals(0, rateLimiter.reserve(0));
+    assertEquals(-1, rateLimiter.reserve(ONE_SECOND / 2));
+    assertEquals(-1, rateLimiter.reserve(ONE_SECOND / 2));
+
+    now += ONE_SECOND;
+    assertEquals(0, rateLimiter.reserve(0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testZeroRequestsPerSecondIsRejected() {
+    new RateLimiter(0, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testZeroBurstIsRejected() {
+    new RateLimiter(1.0, 0);
+  }
+}
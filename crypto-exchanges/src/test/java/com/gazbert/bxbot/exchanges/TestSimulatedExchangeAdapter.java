@@ -0,0 +1,205 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges;
+
+import static org.easymock.EasyMock.anyString;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.crypto.exchange.api.ExchangeAdapter;
+import com.gazbert.crypto.exchange.api.ExchangeConfig;
+import com.gazbert.crypto.exchange.api.OtherConfig;
+import com.gazbert.crypto.trading.api.BalanceInfo;
+import com.gazbert.crypto.trading.api.MarketOrderBook;
+import com.gazbert.crypto.trading.api.OpenOrder;
+import com.gazbert.crypto.trading.api.OrderType;
+import com.gazbert.crypto.trading.api.TradingApiException;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the behaviour of the Simulated Exchange Adapter.
+ *
+ * @author gazbert
+ */
+public class TestSimulatedExchangeAdapter {
+
+  private static final String MARKET_ID = "btcusd";
+
+  private Map<String, String> otherConfigItems;
+
+  /** Create some exchange config items - the TradingEngine would normally do this. */
+  @Before
+  public void setupForEachTest() {
+    otherConfigItems = new HashMap<>();
+    otherConfigItems.put("buy-fee", "0.25");
+    otherConfigItems.put("sell-fee", "0.25");
+    otherConfigItems.put("markets", "btcusd=BTC/USD, ltcusd=LTC/USD");
+    otherConfigItems.put("balances", "BTC=1, USD=20000");
+    otherConfigItems.put("liquidity-prices", "btcusd=10000.00");
+    otherConfigItems.put("liquidity-levels", "5");
+    otherConfigItems.put("liquidity-spread", "0.5");
+  }
+
+  @Test
+  public void testMarketIsQuotedFromConfig() throws Exception {
+    final ExchangeAdapter exchangeAdapter = createExchangeAdapter();
+
+    final MarketOrderBook marketOrders = exchangeAdapter.getMarketOrders(MARKET_ID);
+    assertEquals(5, marketOrders.getSellOrders().size());
+    assertEquals(5, marketOrders.getBuyOrders().size());
+    assertEquals(
+        0, new BigDecimal("10050.00").compareTo(marketOrders.getSellOrders().get(0).getPrice()));
+    assertEquals(
+        0, new BigDecimal("9950.00").compareTo(marketOrders.getBuyOrders().get(0).getPrice()));
+    assertEquals(2, exchangeAdapter.getMarketOrders(MARKET_ID, 2).getSellOrders().size());
+    assertEquals(
+        0, new BigDecimal("10000.00").compareTo(exchangeAdapter.getLatestMarketPrice(MARKET_ID)));
+  }
+
+  @Test
+  public void testBuyOrderFillsAgainstLiquidityAndUpdatesBalances() throws Exception {
+    final ExchangeAdapter exchangeAdapter = createExchangeAdapter();
+
+    exchangeAdapter.createOrder(
+        MARKET_ID, OrderType.BUY, new BigDecimal("1"), new BigDecimal("10050.00"));
+
+    assertTrue(exchangeAdapter.getYourOpenOrders(MARKET_ID).isEmpty());
+    final BalanceInfo balanceInfo = exchangeAdapter.getBalanceInfo();
+    assertEquals(0, new BigDecimal("2").compareTo(balanceInfo.getBalancesAvailable().get("BTC")));
+    // 20000 - 10050 - 0.25% fee of 25.125
+    assertEquals(
+        0, new BigDecimal("9924.875").compareTo(balanceInfo.getBalancesAvailable().get("USD")));
+    assertEquals(
+        0, new BigDecimal("10050.00").compareTo(exchangeAdapter.getLatestMarketPrice(MARKET_ID)));
+
+    // liquidity is requoted around the last trade
+    final MarketOrderBook marketOrders = exchangeAdapter.getMarketOrders(MARKET_ID);
+    assertEquals(
+        0, new BigDecimal("10100.25").compareTo(marketOrders.getSellOrders().get(0).getPrice()));
+  }
+
+  @Test
+  public void testOrderThatDoesNotCrossCanBeCancelled() throws Exception {
+    final ExchangeAdapter exchangeAdapter = createExchangeAdapter();
+
+    final String orderId =
+        exchangeAdapter.createOrder(
+            MARKET_ID, OrderType.SELL, new BigDecimal("0.5"), new BigDecimal("11000.00"));
+
+    final List<OpenOrder> openOrders = exchangeAdapter.getYourOpenOrders(MARKET_ID);
+    assertEquals(1, openOrders.size());
+    assertEquals(orderId, openOrders.get(0).getId());
+    final BalanceInfo balanceInfo = exchangeAdapter.getBalanceInfo();
+    assertEquals(0, new BigDecimal("0.5").compareTo(balanceInfo.getBalancesOnHold().get("BTC")));
+
+    assertTrue(exchangeAdapter.cancelOrder(orderId, MARKET_ID));
+    assertFalse(exchangeAdapter.cancelOrder(orderId, MARKET_ID));
+    assertTrue(exchangeAdapter.getYourOpenOrders(MARKET_ID).isEmpty());
+  }
+
+  @Test
+  public void testRestingOrderFillsWhenAnotherAccountTrades() throws Exception {
+    final SimulatedExchangeAdapter exchangeAdapter = createExchangeAdapter();
+    exchangeAdapter.createOrder(
+        MARKET_ID, OrderType.SELL, new BigDecimal("1"), new BigDecimal("10020.00"));
+
+    exchangeAdapter.getMatchingEngine().deposit("other", "USD", new BigDecimal("20000"));
+    exchangeAdapter
+        .getMatchingEngine()
+        .submitOrder("other", MARKET_ID, OrderType.BUY, BigDecimal.ONE, new BigDecimal("10020.00"));
+
+    assertTrue(exchangeAdapter.getYourOpenOrders(MARKET_ID).isEmpty());
+    final BalanceInfo balanceInfo = exchangeAdapter.getBalanceInfo();
+    assertEquals(0, BigDecimal.ZERO.compareTo(balanceInfo.getBalancesAvailable().get("BTC")));
+  }
+
+  @Test(expected = TradingApiException.class)
+  public void testOrderThatCannotBeFundedIsRejected() throws Exception {
+    createExchangeAdapter()
+        .createOrder(MARKET_ID, OrderType.SELL, new BigDecimal("2"), new BigDecimal("10000.00"));
+  }
+
+  @Test(expected = TradingApiException.class)
+  public void testUnknownMarketIsRejected() throws Exception {
+    createExchangeAdapter().getMarketOrders("ethusd");
+  }
+
+  @Test(expected = TradingApiException.class)
+  public void testMarketWithoutTradesOrLiquidityHasNoLatestPrice() throws Exception {
+    createExchangeAdapter().getLatestMarketPrice("ltcusd");
+  }
+
+  @Test
+  public void testFeesAreReadFromConfig() throws Exception {
+    final ExchangeAdapter exchangeAdapter = createExchangeAdapter();
+    assertEquals(
+        0,
+        new BigDecimal("0.0025")
+            .compareTo(exchangeAdapter.getPercentageOfBuyOrderTakenForExchangeFee(MARKET_ID)));
+    assertEquals(
+        0,
+        new BigDecimal("0.0025")
+            .compareTo(exchangeAdapter.getPercentageOfSellOrderTakenForExchangeFee(MARKET_ID)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidMarketsConfigIsRejected() {
+    otherConfigItems.put("markets", "btcusd=BTCUSD");
+    createExchangeAdapter();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingMarketsConfigIsRejected() {
+    otherConfigItems.remove("markets");
+    createExchangeAdapter();
+  }
+
+  @Test
+  public void testImplNameIsSet() {
+    assertTrue(new SimulatedExchangeAdapter().getImplName().contains("Simulated"));
+  }
+
+  private SimulatedExchangeAdapter createExchangeAdapter() {
+    final OtherConfig otherConfig = createMock(OtherConfig.class);
+    expect(otherConfig.getItem(anyString()))
+        .andStubAnswer(() -> otherConfigItems.get((String) getCurrentArguments()[0]));
+    final ExchangeConfig exchangeConfig = createMock(ExchangeConfig.class);
+    expect(exchangeConfig.getOtherConfig()).andStubReturn(otherConfig);
+    replay(otherConfig, exchangeConfig);
+
+    final SimulatedExchangeAdapter exchangeAdapter = new SimulatedExchangeAdapter();
+    exchangeAdapter.init(exchangeConfig);
+    return exchangeAdapter;
+  }
+}
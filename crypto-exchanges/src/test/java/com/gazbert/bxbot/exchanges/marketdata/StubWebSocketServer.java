@@ -0,0 +1,232 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.marketdata;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A minimal WebSocket server on the loopback interface that replays recorded exchange messages.
+ *
+ * <p>Each connection replays one recorded feed file, one message per line, once the client has
+ * sent the given number of messages. The first connection replays the first file, the second
+ * connection the second, and so on; the last file is replayed for any further connections. The
+ * connection is then held open until the client closes it.
+ *
+ * @author gazbert
+ */
+final class StubWebSocketServer implements AutoCloseable {
+
+  private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+  private static final long AWAIT_TIMEOUT_MILLIS = 5000;
+
+  private final ServerSocket serverSocket;
+  private final List<List<String>> feeds = new ArrayList<>();
+  private final int messagesBeforeReplay;
+  private final List<String> receivedMessages = new CopyOnWriteArrayList<>();
+  private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+  private final AtomicInteger connectionCount = new AtomicInteger();
+
+  StubWebSocketServer(int messagesBeforeReplay, String... feedFiles) throws IOException {
+    this.messagesBeforeReplay = messagesBeforeReplay;
+    for (final String feedFile : feedFiles) {
+      feeds.add(Files.readAllLines(Paths.get(feedFile), StandardCharsets.UTF_8));
+    }
+    serverSocket = new ServerSocket(0, 0, InetAddress.getLoopbackAddress());
+    final Thread acceptor = new Thread(this::acceptConnections, "stub-websocket-server");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  URI getUri() {
+    return URI.create("ws://localhost:" + serverSocket.getLocalPort() + "/");
+  }
+
+  int getConnectionCount() {
+    return connectionCount.get();
+  }
+
+  List<String> getReceivedMessages() {
+    return receivedMessages;
+  }
+
+  static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+    final long deadline = System.currentTimeMillis() + AWAIT_TIMEOUT_MILLIS;
+    while (!condition.getAsBoolean()) {
+      if (System.currentTimeMillis() > deadline) {
+        throw new AssertionError("Timed out waiting for condition");
+      }
+      Thread.sleep(10);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    for (final Socket socket : sockets) {
+      socket.close();
+    }
+  }
+
+  private void acceptConnections() {
+    while (!serverSocket.isClosed()) {
+      try {
+        final Socket socket = serverSocket.accept();
+        sockets.add(socket);
+        final List<String> feed =
+            feeds.get(Math.min(connectionCount.getAndIncrement(), feeds.size() - 1));
+        final Thread connection = new Thread(() -> serve(socket, feed), "stub-websocket-conn");
+        connection.setDaemon(true);
+        connection.start();
+      } catch (IOException e) {
+        return; // server closed
+      }
+    }
+  }
+
+  private void serve(Socket socket, List<String> feed) {
+    try (socket) {
+      final DataInputStream in = new DataInputStream(socket.getInputStream());
+      final OutputStream out = socket.getOutputStream();
+      handshake(in, out);
+
+      int messageCount = 0;
+      while (true) {
+        final int opcode = in.readUnsignedByte() & 0x0F;
+        final byte[] payload = readPayload(in);
+        if (opcode == 0x8) {
+          writeFrame(out, 0x88, payload);
+          return;
+        }
+        if (opcode == 0x1) {
+          receivedMessages.add(new String(payload, StandardCharsets.UTF_8));
+          if (++messageCount == messagesBeforeReplay) {
+            for (final String message : feed) {
+              writeFrame(out, 0x81, message.getBytes(StandardCharsets.UTF_8));
+            }
+          }
+        }
+      }
+    } catch (IOException e) {
+      // client went away
+    }
+  }
+
+  private static void handshake(DataInputStream in, OutputStream out) throws IOException {
+    String key = null;
+    String line;
+    while (!(line = readLine(in)).isEmpty()) {
+      if (line.toLowerCase().startsWith("sec-websocket-key:")) {
+        key = line.substring(line.indexOf(':') + 1).trim();
+      }
+    }
+    final String response =
+        "HTTP/1.1 101 Switching Protocols\r\n"
+            + "Upgrade: websocket\r\n"
+            + "Connection: Upgrade\r\n"
+            + "Sec-WebSocket-Accept: "
+            + createAccept(key)
+            + "\r\n\r\n";
+    out.write(response.getBytes(StandardCharsets.US_ASCII));
+    out.flush();
+  }
+
+  /* Read a byte at a time so nothing after the handshake is consumed. */
+  private static String readLine(DataInputStream in) throws IOException {
+    final StringBuilder line = new StringBuilder();
+    int b;
+    while ((b = in.readUnsignedByte()) != '\n') {
+      if (b != '\r') {
+        line.append((char) b);
+      }
+    }
+    return line.toString();
+  }
+
+  private static String createAccept(String key) {
+    try {
+      final MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+      return Base64.getEncoder()
+          .encodeToString(sha1.digest((key + WEBSOCKET_GUID).getBytes(StandardCharsets.US_ASCII)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /* Client frames are always masked. */
+  private static byte[] readPayload(DataInputStream in) throws IOException {
+    final int lengthByte = in.readUnsignedByte();
+    long length = lengthByte & 0x7F;
+    if (length == 126) {
+      length = in.readUnsignedShort();
+    } else if (length == 127) {
+      length = in.readLong();
+    }
+    final byte[] mask = new byte[4];
+    if ((lengthByte & 0x80) != 0) {
+      in.readFully(mask);
+    }
+    final byte[] payload = new byte[(int) length];
+    in.readFully(payload);
+    for (int i = 0; i < payload.length; i++) {
+      payload[i] ^= mask[i % 4];
+    }
+    return payload;
+  }
+
+  private static void writeFrame(OutputStream out, int firstByte, byte[] payload)
+      throws IOException {
+    out.write(firstByte);
+    if (payload.length < 126) {
+      out.write(payload.length);
+    } else if (payload.length < 65536) {
+      out.write(126);
+      out.write(payload.length >>> 8);
+      out.write(payload.length);
+    } else {
+      out.write(127);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        out.write((int) ((long) payload.length >>> shift));
+      }
+    }
+    out.write(payload);
+    out.flush();
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.marketdata;
+
+import static com.gazbert.crypto.exchanges.marketdata.StubWebSocketServer.awaitCondition;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.crypto.trading.api.MarketOrderBook;
+import com.gazbert.crypto.trading.api.Ticker;
+import java.math.BigDecimal;
+import java.time.Duration;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the Bitfinex Market Data Feed against a stub WebSocket server replaying recorded messages.
+ *
+ * @author gazbert
+ */
+public class TestBitfinexMarketDataFeed {
+
+  private static final String MARKET_ID = "btcusd";
+
+  private static final String BOOK_FEED = "./src/test/exchange-data/bitfinex/ws-book-feed.txt";
+  private static final String SEQUENCE_GAP_BOOK_FEED =
+      "./src/test/exchange-data/bitfinex/ws-book-feed-sequence-gap.txt";
+
+  // conf, then book and ticker subscriptions
+  private static final int CONNECT_MESSAGE_COUNT = 3;
+
+  private static final Duration RECONNECT_DELAY = Duration.ofMillis(10);
+
+  private StubWebSocketServer server;
+  private BitfinexMarketDataFeed feed;
+
+  @After
+  public void tearDownAfterEachTest() throws Exception {
+    feed.close();
+    server.close();
+  }
+
+  @Test
+  public void testOrderBookAndTickerAreBuiltFromFeed() throws Exception {
+    server = new StubWebSocketServer(CONNECT_MESSAGE_COUNT, BOOK_FEED);
+    feed = new BitfinexMarketDataFeed(server.getUri(), RECONNECT_DELAY);
+
+    feed.subscribe(MARKET_ID);
+    awaitCondition(() -> feed.getTicker(MARKET_ID) != null);
+
+    assertTrue(server.getReceivedMessages().get(0).contains("\"flags\":65536"));
+    assertTrue(server.getReceivedMessages().get(1).contains("\"symbol\":\"tBTCUSD\""));
+    assertTrue(server.getReceivedMessages().get(1).contains("\"channel\":\"book\""));
+    assertTrue(server.getReceivedMessages().get(2).contains("\"channel\":\"ticker\""));
+
+    assertExpectedBook(feed.getMarketOrders(MARKET_ID, 10));
+    assertEquals(1, server.getConnectionCount());
+
+    final Ticker ticker = feed.getTicker(MARKET_ID);
+    assertEquals(0, ticker.getLast().compareTo(new BigDecimal("7254.75")));
+    assertEquals(0, ticker.getBid().compareTo(new BigDecimal("7254.7")));
+    assertEquals(0, ticker.getAsk().compareTo(new BigDecimal("7254.8")));
+    assertEquals(0, ticker.getLow().compareTo(new BigDecimal("7200")));
+    assertEquals(0, ticker.getHigh().compareTo(new BigDecimal("7400")));
+    assertEquals(0, ticker.getVolume().compareTo(new BigDecimal("12345.678")));
+    assertNull(ticker.getOpen());
+    assertNull(ticker.getVwap());
+  }
+
+  @Test
+  public void testSequenceGapResyncsBook() throws Exception {
+    server = new StubWebSocketServer(CONNECT_MESSAGE_COUNT, SEQUENCE_GAP_BOOK_FEED, BOOK_FEED);
+    feed = new BitfinexMarketDataFeed(server.getUri(), RECONNECT_DELAY);
+
+    feed.subscribe(MARKET_ID);
+    awaitCondition(() -> feed.getTicker(MARKET_ID) != null);
+
+    assertEquals(2, server.getConnectionCount());
+    assertExpectedBook(feed.getMarketOrders(MARKET_ID, 10));
+  }
+
+  private static void assertExpectedBook(MarketOrderBook book) {
+    assertEquals(MARKET_ID, book.getMarketId());
+    assertEquals(1, book.getBuyOrders().size());
+    assertEquals(0, book.getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("7254.7")));
+    assertEquals(0, book.getBuyOrders().get(0).getQuantity().compareTo(new BigDecimal("3.3")));
+    assertEquals(3, book.getSellOrders().size());
+    assertEquals(0, book.getSellOrders().get(0).getPrice().compareTo(new BigDecimal("7254.8")));
+    assertEquals(0, book.getSellOrders().get(0).getQuantity().compareTo(new BigDecimal("0.5")));
+    assertEquals(0, book.getSellOrders().get(1).getPrice().compareTo(new BigDecimal("7254.9")));
+    assertEquals(0, book.getSellOrders().get(2).getPrice().compareTo(new BigDecimal("7255")));
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.marketdata;
+
+import static com.gazbert.crypto.exchanges.marketdata.StubWebSocketServer.awaitCondition;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.crypto.trading.api.MarketOrderBook;
+import com.gazbert.crypto.trading.api.Ticker;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the GDAX Market Data Feed against a stub WebSocket server replaying recorded messages.
+ *
+ * @author gazbert
+ */
+public class TestGdaxMarketDataFeed {
+
+  private static final String MARKET_ID = "BTC-USD";
+
+  private static final String LEVEL2_FEED = "./src/test/exchange-data/gdax/ws-level2-feed.txt";
+  private static final String CROSSED_LEVEL2_FEED =
+      "./src/test/exchange-data/gdax/ws-level2-feed-crossed.txt";
+
+  private static final int SUBSCRIBE_MESSAGE_COUNT = 1;
+
+  private static final Duration RECONNECT_DELAY = Duration.ofMillis(10);
+
+  private StubWebSocketServer server;
+  private GdaxMarketDataFeed feed;
+
+  @After
+  public void tearDownAfterEachTest() throws Exception {
+    feed.close();
+    server.close();
+  }
+
+  @Test
+  public void testOrderBookAndTickerAreBuiltFromFeed() throws Exception {
+    server = new StubWebSocketServer(SUBSCRIBE_MESSAGE_COUNT, LEVEL2_FEED);
+    feed = new GdaxMarketDataFeed(server.getUri(), RECONNECT_DELAY);
+
+    feed.subscribe(MARKET_ID);
+    awaitCondition(() -> feed.getTicker(MARKET_ID) != null);
+
+    final String subscribeMessage = server.getReceivedMessages().get(0);
+    assertTrue(subscribeMessage.contains("\"product_ids\":[\"BTC-USD\"]"));
+    assertTrue(subscribeMessage.contains("\"level2\""));
+    assertTrue(subscribeMessage.contains("\"ticker\""));
+    assertTrue(subscribeMessage.contains("\"heartbeat\""));
+
+    assertExpectedBook(feed.getMarketOrders(MARKET_ID, 10));
+    assertEquals(1, server.getConnectionCount());
+
+    final Ticker ticker = feed.getTicker(MARKET_ID);
+    assertEquals(0, ticker.getLast().compareTo(new BigDecimal("10101.80")));
+    assertEquals(0, ticker.getBid().compareTo(new BigDecimal("10101.80")));
+    assertEquals(0, ticker.getAsk().compareTo(new BigDecimal("10103.00")));
+    assertEquals(0, ticker.getLow().compareTo(new BigDecimal("9900.00")));
+    assertEquals(0, ticker.getHigh().compareTo(new BigDecimal("10200.00")));
+    assertEquals(0, ticker.getOpen().compareTo(new BigDecimal("10000.00")));
+    assertEquals(0, ticker.getVolume().compareTo(new BigDecimal("12345.67")));
+    assertNull(ticker.getVwap());
+    assertEquals(
+        Instant.parse("2019-08-14T20:42:28.265Z").toEpochMilli(),
+        ticker.getTimestamp().longValue());
+  }
+
+  @Test
+  public void testCrossedBookResyncsBook() throws Exception {
+    server = new StubWebSocketServer(SUBSCRIBE_MESSAGE_COUNT, CROSSED_LEVEL2_FEED, LEVEL2_FEED);
+    feed = new GdaxMarketDataFeed(server.getUri(), RECONNECT_DELAY);
+
+    feed.subscribe(MARKET_ID);
+    awaitCondition(() -> feed.getTicker(MARKET_ID) != null);
+
+    assertEquals(2, server.getConnectionCount());
+    assertExpectedBook(feed.getMarketOrders(MARKET_ID, 10));
+  }
+
+  private static void assertExpectedBook(MarketOrderBook book) {
+    assertEquals(MARKET_ID, book.getMarketId());
+    assertEquals(3, book.getBuyOrders().size());
+    assertEquals(0, book.getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("10101.80")));
+    assertEquals(
+        0, book.getBuyOrders().get(0).getQuantity().compareTo(new BigDecimal("0.162567")));
+    assertEquals(1, book.getSellOrders().size());
+    assertEquals(0, book.getSellOrders().get(0).getPrice().compareTo(new BigDecimal("10103.00")));
+  }
+}
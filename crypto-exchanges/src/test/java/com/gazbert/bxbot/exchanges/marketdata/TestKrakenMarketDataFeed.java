@@ -0,0 +1,149 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.marketdata;
+
+import static com.gazbert.crypto.exchanges.marketdata.StubWebSocketServer.awaitCondition;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.crypto.trading.api.MarketOrderBook;
+import com.gazbert.crypto.trading.api.OrderType;
+import com.gazbert.crypto.trading.api.Ticker;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the Kraken Market Data Feed against a stub WebSocket server replaying recorded messages.
+ *
+ * @author gazbert
+ */
+public class TestKrakenMarketDataFeed {
+
+  private static final String MARKET_ID = "XXBTZUSD";
+  private static final String PAIR = "XBT/USD";
+
+  private static final String BOOK_FEED = "./src/test/exchange-data/kraken/ws-book-feed.txt";
+  private static final String BAD_CHECKSUM_BOOK_FEED =
+      "./src/test/exchange-data/kraken/ws-book-feed-bad-checksum.txt";
+
+  // book and ticker subscriptions
+  private static final int SUBSCRIBE_MESSAGE_COUNT = 2;
+
+  private static final Duration RECONNECT_DELAY = Duration.ofMillis(10);
+
+  private StubWebSocketServer server;
+  private KrakenMarketDataFeed feed;
+
+  /** Closes the feed and the stub server, if the test created them. */
+  @After
+  public void tearDownAfterEachTest() throws Exception {
+    if (feed != null) {
+      feed.close();
+      server.close();
+    }
+  }
+
+  @Test
+  public void testOrderBookAndTickerAreBuiltFromFeed() throws Exception {
+    server = new StubWebSocketServer(SUBSCRIBE_MESSAGE_COUNT, BOOK_FEED);
+    feed = createFeed();
+    assertNull(feed.getMarketOrders(MARKET_ID, 10));
+
+    feed.subscribe(MARKET_ID);
+    awaitCondition(() -> feed.getTicker(MARKET_ID) != null);
+
+    assertTrue(server.getReceivedMessages().get(0).contains("\"pair\":[\"XBT/USD\"]"));
+    assertTrue(server.getReceivedMessages().get(0).contains("\"name\":\"book\""));
+    assertTrue(server.getReceivedMessages().get(1).contains("\"name\":\"ticker\""));
+
+    assertExpectedBook(feed.getMarketOrders(MARKET_ID, 10));
+    assertEquals(1, server.getConnectionCount());
+
+    final Ticker ticker = feed.getTicker(MARKET_ID);
+    assertEquals(0, ticker.getLast().compareTo(new BigDecimal("5541.30000")));
+    assertEquals(0, ticker.getBid().compareTo(new BigDecimal("5541.20000")));
+    assertEquals(0, ticker.getAsk().compareTo(new BigDecimal("5542.00000")));
+    assertEquals(0, ticker.getLow().compareTo(new BigDecimal("5505.00000")));
+    assertEquals(0, ticker.getHigh().compareTo(new BigDecimal("5783.00000")));
+    assertEquals(0, ticker.getOpen().compareTo(new BigDecimal("5763.40000")));
+    assertEquals(0, ticker.getVolume().compareTo(new BigDecimal("3591.17907851")));
+    assertEquals(0, ticker.getVwap().compareTo(new BigDecimal("5653.78939")));
+    assertNull(ticker.getTimestamp());
+  }
+
+  @Test
+  public void testChecksumMismatchResyncsBook() throws Exception {
+    server = new StubWebSocketServer(SUBSCRIBE_MESSAGE_COUNT, BAD_CHECKSUM_BOOK_FEED, BOOK_FEED);
+    feed = createFeed();
+
+    feed.subscribe(MARKET_ID);
+    awaitCondition(() -> feed.getTicker(MARKET_ID) != null);
+
+    assertEquals(2, server.getConnectionCount());
+    assertExpectedBook(feed.getMarketOrders(MARKET_ID, 10));
+  }
+
+  @Test
+  public void testDepthBeyondFeedDepthIsNotServed() throws Exception {
+    server = new StubWebSocketServer(SUBSCRIBE_MESSAGE_COUNT, BOOK_FEED);
+    feed = createFeed();
+
+    feed.subscribe(MARKET_ID);
+    awaitCondition(() -> feed.getTicker(MARKET_ID) != null);
+
+    assertNull(feed.getMarketOrders(MARKET_ID, 101));
+  }
+
+  @Test
+  public void testChecksumIsCalculatedFromTopOfBook() {
+    final LocalOrderBook orderBook = new LocalOrderBook(MARKET_ID, 100);
+    orderBook.update(OrderType.SELL, new BigDecimal("5541.80000"), new BigDecimal("0.33000000"));
+    orderBook.update(OrderType.SELL, new BigDecimal("5542.70000"), new BigDecimal("0.64700000"));
+    orderBook.update(OrderType.BUY, new BigDecimal("5541.20000"), new BigDecimal("1.52900000"));
+    orderBook.update(OrderType.BUY, new BigDecimal("5539.90000"), new BigDecimal("0.30000000"));
+    orderBook.update(OrderType.BUY, new BigDecimal("5539.50000"), new BigDecimal("5.00000000"));
+    orderBook.setSynced(true);
+
+    assertEquals("1705525271", KrakenMarketDataFeed.calculateChecksum(orderBook));
+  }
+
+  private KrakenMarketDataFeed createFeed() {
+    return new KrakenMarketDataFeed(server.getUri(), Map.of(MARKET_ID, PAIR), RECONNECT_DELAY);
+  }
+
+  private static void assertExpectedBook(MarketOrderBook book) {
+    assertEquals(MARKET_ID, book.getMarketId());
+    assertEquals(3, book.getSellOrders().size());
+    assertEquals(0, book.getSellOrders().get(0).getPrice().compareTo(new BigDecimal("5541.8")));
+    assertEquals(0, book.getSellOrders().get(1).getPrice().compareTo(new BigDecimal("5542.0")));
+    assertEquals(0, book.getSellOrders().get(2).getPrice().compareTo(new BigDecimal("5542.7")));
+    assertEquals(3, book.getBuyOrders().size());
+    assertEquals(0, book.getBuyOrders().get(0).getPrice().compareTo(new BigDecimal("5541.2")));
+    assertEquals(0, book.getBuyOrders().get(0).getQuantity().compareTo(new BigDecimal("2")));
+  }
+}
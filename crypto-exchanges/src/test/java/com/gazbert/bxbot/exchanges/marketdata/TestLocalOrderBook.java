@@ -0,0 +1,143 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.marketdata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.crypto.trading.api.MarketOrder;
+import com.gazbert.crypto.trading.api.MarketOrderBook;
+import com.gazbert.crypto.trading.api.OrderType;
+import java.math.BigDecimal;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the Local Order Book behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestLocalOrderBook {
+
+  private static final String MARKET_ID = "btcusd";
+  private static final int MAX_DEPTH = 3;
+
+  private LocalOrderBook orderBook;
+
+  @Before
+  public void setupForEachTest() {
+    orderBook = new LocalOrderBook(MARKET_ID, MAX_DEPTH);
+  }
+
+  @Test
+  public void testOrderBookIsNotReturnedUntilSynced() {
+    orderBook.update(OrderType.BUY, new BigDecimal("100"), BigDecimal.ONE);
+    assertNull(orderBook.getMarketOrders(MAX_DEPTH));
+
+    orderBook.setSynced(true);
+    assertEquals(1, orderBook.getMarketOrders(MAX_DEPTH).getBuyOrders().size());
+  }
+
+  @Test
+  public void testBidsAreHighestFirstAndAsksLowestFirst() {
+    orderBook.update(OrderType.BUY, new BigDecimal("99"), new BigDecimal("2"));
+    orderBook.update(OrderType.BUY, new BigDecimal("100"), new BigDecimal("1"));
+    orderBook.update(OrderType.SELL, new BigDecimal("102"), new BigDecimal("4"));
+    orderBook.update(OrderType.SELL, new BigDecimal("101"), new BigDecimal("3"));
+    orderBook.setSynced(true);
+
+    final MarketOrderBook marketOrderBook = orderBook.getMarketOrders(MAX_DEPTH);
+    assertEquals(MARKET_ID, marketOrderBook.getMarketId());
+
+    final MarketOrder bestBid = marketOrderBook.getBuyOrders().get(0);
+    assertEquals(OrderType.BUY, bestBid.getType());
+    assertEquals(0, bestBid.getPrice().compareTo(new BigDecimal("100")));
+    assertEquals(0, bestBid.getQuantity().compareTo(new BigDecimal("1")));
+    assertEquals(0, bestBid.getTotal().compareTo(new BigDecimal("100")));
+    assertEquals(
+        0, marketOrderBook.getBuyOrders().get(1).getPrice().compareTo(new BigDecimal("99")));
+
+    final MarketOrder bestAsk = marketOrderBook.getSellOrders().get(0);
+    assertEquals(OrderType.SELL, bestAsk.getType());
+    assertEquals(0, bestAsk.getPrice().compareTo(new BigDecimal("101")));
+    assertEquals(
+        0, marketOrderBook.getSellOrders().get(1).getPrice().compareTo(new BigDecimal("102")));
+  }
+
+  @Test
+  public void testZeroQuantityRemovesLevel() {
+    orderBook.update(OrderType.SELL, new BigDecimal("101"), new BigDecimal("3"));
+    orderBook.update(OrderType.SELL, new BigDecimal("101"), BigDecimal.ZERO);
+    orderBook.setSynced(true);
+
+    assertTrue(orderBook.getMarketOrders(MAX_DEPTH).getSellOrders().isEmpty());
+  }
+
+  @Test
+  public void testLevelsBeyondMaxDepthAreDropped() {
+    for (int price = 100; price > 90; price--) {
+      orderBook.update(OrderType.BUY, new BigDecimal(price), BigDecimal.ONE);
+    }
+    orderBook.setSynced(true);
+
+    final MarketOrderBook marketOrderBook = orderBook.getMarketOrders(Integer.MAX_VALUE);
+    assertEquals(MAX_DEPTH, marketOrderBook.getBuyOrders().size());
+    assertEquals(
+        0, marketOrderBook.getBuyOrders().get(2).getPrice().compareTo(new BigDecimal("98")));
+  }
+
+  @Test
+  public void testMarketOrdersAreLimitedToDepth() {
+    orderBook.update(OrderType.SELL, new BigDecimal("101"), BigDecimal.ONE);
+    orderBook.update(OrderType.SELL, new BigDecimal("102"), BigDecimal.ONE);
+    orderBook.setSynced(true);
+
+    assertEquals(1, orderBook.getMarketOrders(1).getSellOrders().size());
+  }
+
+  @Test
+  public void testCrossedBookIsDetected() {
+    orderBook.update(OrderType.BUY, new BigDecimal("100"), BigDecimal.ONE);
+    orderBook.update(OrderType.SELL, new BigDecimal("101"), BigDecimal.ONE);
+    assertFalse(orderBook.isCrossed());
+
+    orderBook.update(OrderType.BUY, new BigDecimal("101"), BigDecimal.ONE);
+    assertTrue(orderBook.isCrossed());
+  }
+
+  @Test
+  public void testClearEmptiesBookAndMarksItOutOfSync() {
+    orderBook.update(OrderType.BUY, new BigDecimal("100"), BigDecimal.ONE);
+    orderBook.setSynced(true);
+
+    orderBook.clear();
+    assertFalse(orderBook.isSynced());
+    assertNull(orderBook.getMarketOrders(MAX_DEPTH));
+
+    orderBook.setSynced(true);
+    assertTrue(orderBook.getMarketOrders(MAX_DEPTH).getBuyOrders().isEmpty());
+  }
+}
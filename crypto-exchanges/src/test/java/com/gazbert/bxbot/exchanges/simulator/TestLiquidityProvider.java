@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.gazbert.crypto.trading.api.MarketOrder;
+import com.gazbert.crypto.trading.api.MarketOrderBook;
+import com.gazbert.crypto.trading.api.OrderType;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the liquidity provider behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestLiquidityProvider {
+
+  private static final String MARKET_ID = "btcusd";
+  private static final String TRADER = "trader";
+
+  private MatchingEngine matchingEngine;
+  private LiquidityProvider liquidityProvider;
+
+  /** Quotes 3 levels 1% apart with 2 BTC at each. */
+  @Before
+  public void setup() {
+    matchingEngine = new MatchingEngine(new BigDecimal("0.002"), new BigDecimal("0.002"));
+    matchingEngine.addMarket(MARKET_ID, "BTC", "USD");
+    matchingEngine.deposit(TRADER, "USD", new BigDecimal("100000"));
+    liquidityProvider =
+        new LiquidityProvider(matchingEngine, 3, BigDecimal.ONE, new BigDecimal("2"));
+    liquidityProvider.addMarket(MARKET_ID, new BigDecimal("1000.00"));
+  }
+
+  @Test
+  public void testLadderIsQuotedAroundOpeningPrice() {
+    final MarketOrderBook marketOrders = matchingEngine.getMarketOrders(MARKET_ID, 10);
+
+    assertPrices(marketOrders.getSellOrders(), "1010.00", "1020.00", "1030.00");
+    assertPrices(marketOrders.getBuyOrders(), "990.00", "980.00", "970.00");
+    assertEquals(
+        0, new BigDecimal("2").compareTo(marketOrders.getSellOrders().get(0).getQuantity()));
+    assertEquals(
+        0, new BigDecimal("1000.00").compareTo(liquidityProvider.getReferencePrice(MARKET_ID)));
+  }
+
+  @Test
+  public void testLadderIsRequotedAroundLastTradePrice() {
+    matchingEngine.submitOrder(
+        TRADER, MARKET_ID, OrderType.BUY, new BigDecimal("3"), new BigDecimal("1020.00"));
+    liquidityProvider.requoteIfTraded(MARKET_ID);
+
+    assertEquals(
+        0, new BigDecimal("1020.00").compareTo(liquidityProvider.getReferencePrice(MARKET_ID)));
+    final MarketOrderBook marketOrders = matchingEngine.getMarketOrders(MARKET_ID, 10);
+    assertPrices(marketOrders.getSellOrders(), "1030.20", "1040.40", "1050.60");
+    assertPrices(marketOrders.getBuyOrders(), "1009.80", "999.60", "989.40");
+  }
+
+  @Test
+  public void testLadderIsNotRequotedWithoutTrades() {
+    final String firstAskId =
+        matchingEngine.getOpenOrders(LiquidityProvider.ACCOUNT_ID, MARKET_ID).get(0).getId();
+
+    liquidityProvider.requoteIfTraded(MARKET_ID);
+
+    assertEquals(
+        firstAskId,
+        matchingEngine.getOpenOrders(LiquidityProvider.ACCOUNT_ID, MARKET_ID).get(0).getId());
+  }
+
+  @Test
+  public void testUnquotedMarketHasNoReferencePrice() {
+    matchingEngine.addMarket("ltcusd", "LTC", "USD");
+    assertNull(liquidityProvider.getReferencePrice("ltcusd"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testZeroLevelsIsRejected() {
+    new LiquidityProvider(matchingEngine, 0, BigDecimal.ONE, BigDecimal.ONE);
+  }
+
+  private static void assertPrices(List<MarketOrder> marketOrders, String... prices) {
+    assertEquals(prices.length, marketOrders.size());
+    for (int i = 0; i < prices.length; i++) {
+      assertEquals(0, new BigDecimal(prices[i]).compareTo(marketOrders.get(i).getPrice()));
+    }
+  }
+}
@@ -0,0 +1,322 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.crypto.trading.api.BalanceInfo;
+import com.gazbert.crypto.trading.api.MarketOrder;
+import com.gazbert.crypto.trading.api.MarketOrderBook;
+import com.gazbert.crypto.trading.api.OpenOrder;
+import com.gazbert.crypto.trading.api.OrderType;
+import com.gazbert.crypto.trading.api.Ticker;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the matching engine behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestMatchingEngine {
+
+  private static final String MARKET_ID = "btcusd";
+  private static final String BUYER = "buyer";
+  private static final String SELLER = "seller";
+
+  private MatchingEngine matchingEngine;
+  private List<Trade> trades;
+  private long now;
+
+  /** Opens a market with a 0.25% buy fee and a 0.5% sell fee, and funds the accounts. */
+  @Before
+  public void setup() {
+    now = 1_000L;
+    matchingEngine =
+        new MatchingEngine(new BigDecimal("0.0025"), new BigDecimal("0.005"), () -> now);
+    matchingEngine.addMarket(MARKET_ID, "BTC", "USD");
+    matchingEngine.deposit(BUYER, "USD", new BigDecimal("100000"));
+    matchingEngine.deposit(SELLER, "BTC", new BigDecimal("10"));
+
+    trades = new ArrayList<>();
+    matchingEngine.addTradeListener(trades::add);
+  }
+
+  @Test
+  public void testOrderThatDoesNotCrossRestsOnBook() {
+    final String orderId = sell("1", "10000");
+
+    final List<OpenOrder> openOrders = matchingEngine.getOpenOrders(SELLER, MARKET_ID);
+    assertEquals(1, openOrders.size());
+    assertEquals(orderId, openOrders.get(0).getId());
+    assertEquals(0, new BigDecimal("10000").compareTo(openOrders.get(0).getPrice()));
+
+    final MarketOrderBook marketOrders = matchingEngine.getMarketOrders(MARKET_ID, 10);
+    assertEquals(1, marketOrders.getSellOrders().size());
+    assertTrue(marketOrders.getBuyOrders().isEmpty());
+    assertTrue(trades.isEmpty());
+  }
+
+  @Test
+  public void testBestPriceIsMatchedFirst() {
+    sell("1", "10100");
+    final String bestAsk = sell("1", "10000");
+
+    buy("1", "10200");
+
+    assertEquals(1, trades.size());
+    assertEquals(bestAsk, trades.get(0).getSellOrderId());
+    assertEquals(0, new BigDecimal("10000").compareTo(trades.get(0).getPrice()));
+  }
+
+  @Test
+  public void testOldestOrderAtPriceIsMatchedFirst() {
+    final String first = sell("1", "10000");
+    final String second = sell("1", "10000");
+
+    buy("1.5", "10000");
+
+    assertEquals(2, trades.size());
+    assertEquals(first, trades.get(0).getSellOrderId());
+    assertEquals(0, BigDecimal.ONE.compareTo(trades.get(0).getQuantity()));
+    assertEquals(second, trades.get(1).getSellOrderId());
+    assertEquals(0, new BigDecimal("0.5").compareTo(trades.get(1).getQuantity()));
+
+    final List<OpenOrder> openOrders = matchingEngine.getOpenOrders(SELLER, MARKET_ID);
+    assertEquals(1, openOrders.size());
+    assertEquals(second, openOrders.get(0).getId());
+    assertEquals(0, new BigDecimal("0.5").compareTo(openOrders.get(0).getQuantity()));
+    assertEquals(0, BigDecimal.ONE.compareTo(openOrders.get(0).getOriginalQuantity()));
+  }
+
+  @Test
+  public void testUnfilledQuantityRestsAtLimitPrice() {
+    sell("1", "10000");
+
+    final String buyOrderId = buy("3", "10050");
+
+    assertEquals(1, trades.size());
+    assertEquals(OrderType.BUY, trades.get(0).getTakerType());
+    final List<OpenOrder> openOrders = matchingEngine.getOpenOrders(BUYER, MARKET_ID);
+    assertEquals(1, openOrders.size());
+    assertEquals(buyOrderId, openOrders.get(0).getId());
+    assertEquals(0, new BigDecimal("2").compareTo(openOrders.get(0).getQuantity()));
+
+    final MarketOrder bestBid = matchingEngine.getMarketOrders(MARKET_ID, 1).getBuyOrders().get(0);
+    assertEquals(0, new BigDecimal("10050").compareTo(bestBid.getPrice()));
+  }
+
+  @Test
+  public void testSellOrderMatchesBidsDownToItsLimit() {
+    buy("1", "10000");
+    buy("1", "9900");
+    buy("1", "9800");
+
+    sell("3", "9900");
+
+    assertEquals(2, trades.size());
+    assertEquals(OrderType.SELL, trades.get(0).getTakerType());
+    assertEquals(0, new BigDecimal("10000").compareTo(trades.get(0).getPrice()));
+    assertEquals(0, new BigDecimal("9900").compareTo(trades.get(1).getPrice()));
+    assertEquals(1, matchingEngine.getOpenOrders(SELLER, MARKET_ID).size());
+    assertEquals(1, matchingEngine.getOpenOrders(BUYER, MARKET_ID).size());
+  }
+
+  @Test
+  public void testBalancesAndFeesAreSettledOnFill() {
+    final String sellOrderId = sell("2", "10000");
+    final String buyOrderId = buy("2", "10000");
+
+    // value 20000; buyer pays 0.25% = 50, seller pays 0.5% = 100
+    final BalanceInfo buyer = matchingEngine.getBalanceInfo(BUYER);
+    assertEquals(0, new BigDecimal("79950").compareTo(available(buyer, "USD")));
+    assertEquals(0, new BigDecimal("2").compareTo(available(buyer, "BTC")));
+    assertEquals(0, BigDecimal.ZERO.compareTo(onHold(buyer, "USD")));
+
+    final BalanceInfo seller = matchingEngine.getBalanceInfo(SELLER);
+    assertEquals(0, new BigDecimal("19900").compareTo(available(seller, "USD")));
+    assertEquals(0, new BigDecimal("8").compareTo(available(seller, "BTC")));
+    assertEquals(0, BigDecimal.ZERO.compareTo(onHold(seller, "BTC")));
+
+    assertEquals(0, new BigDecimal("150").compareTo(matchingEngine.getFeesCollected().get("USD")));
+    assertEquals(0, new BigDecimal("50").compareTo(trades.get(0).getBuyerFee()));
+    assertEquals(0, new BigDecimal("100").compareTo(trades.get(0).getSellerFee()));
+
+    final Trade trade = trades.get(0);
+    assertEquals(MARKET_ID, trade.getMarketId());
+    assertEquals(buyOrderId, trade.getBuyOrderId());
+    assertEquals(BUYER, trade.getBuyerAccountId());
+    assertEquals(sellOrderId, trade.getSellOrderId());
+    assertEquals(SELLER, trade.getSellerAccountId());
+    assertEquals(now, trade.getTimestamp());
+    assertTrue(trade.toString().contains("buyOrderId=" + buyOrderId));
+  }
+
+  @Test
+  public void testBuyerGetsPriceImprovementBack() {
+    sell("1", "9000");
+    buy("1", "10000");
+
+    // held 10000 + 25 fee, paid 9000 + 22.5 fee
+    final BalanceInfo buyer = matchingEngine.getBalanceInfo(BUYER);
+    assertEquals(0, new BigDecimal("90977.5").compareTo(available(buyer, "USD")));
+    assertEquals(0, BigDecimal.ZERO.compareTo(onHold(buyer, "USD")));
+  }
+
+  @Test
+  public void testFundsAreHeldForRestingOrders() {
+    buy("1", "10000");
+    sell("1", "11000");
+
+    final BalanceInfo buyer = matchingEngine.getBalanceInfo(BUYER);
+    assertEquals(0, new BigDecimal("89975").compareTo(available(buyer, "USD")));
+    assertEquals(0, new BigDecimal("10025").compareTo(onHold(buyer, "USD")));
+
+    final BalanceInfo seller = matchingEngine.getBalanceInfo(SELLER);
+    assertEquals(0, new BigDecimal("9").compareTo(available(seller, "BTC")));
+    assertEquals(0, BigDecimal.ONE.compareTo(onHold(seller, "BTC")));
+  }
+
+  @Test
+  public void testCancelReleasesHeldFunds() {
+    final String orderId = buy("1", "10000");
+
+    assertTrue(matchingEngine.cancelOrder(BUYER, orderId));
+
+    final BalanceInfo buyer = matchingEngine.getBalanceInfo(BUYER);
+    assertEquals(0, new BigDecimal("100000").compareTo(available(buyer, "USD")));
+    assertEquals(0, BigDecimal.ZERO.compareTo(onHold(buyer, "USD")));
+    assertTrue(matchingEngine.getOpenOrders(BUYER, MARKET_ID).isEmpty());
+    assertTrue(matchingEngine.getMarketOrders(MARKET_ID, 10).getBuyOrders().isEmpty());
+  }
+
+  @Test
+  public void testCancelRejectsUnknownOrFilledOrOtherAccountsOrders() {
+    final String restingOrderId = sell("1", "10000");
+    assertFalse(matchingEngine.cancelOrder(BUYER, restingOrderId));
+    assertFalse(matchingEngine.cancelOrder(SELLER, "SIM-999"));
+
+    buy("1", "10000");
+    assertFalse(matchingEngine.cancelOrder(SELLER, restingOrderId));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOrderThatCannotBeFundedIsRejected() {
+    buy("10", "10000");
+  }
+
+  @Test
+  public void testRejectedOrderDoesNotChangeBalances() {
+    try {
+      sell("11", "10000");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    final BalanceInfo seller = matchingEngine.getBalanceInfo(SELLER);
+    assertEquals(0, BigDecimal.TEN.compareTo(available(seller, "BTC")));
+    assertTrue(matchingEngine.getOpenOrders(SELLER, MARKET_ID).isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOrderForUnknownMarketIsRejected() {
+    matchingEngine.submitOrder(BUYER, "ltcusd", OrderType.BUY, BigDecimal.ONE, BigDecimal.ONE);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOrderWithZeroQuantityIsRejected() {
+    buy("0", "10000");
+  }
+
+  @Test
+  public void testTickerStatsCoverAllTrades() {
+    final Ticker before = matchingEngine.getTicker(MARKET_ID);
+    assertNull(before.getLast());
+    assertNull(matchingEngine.getLastTradePrice(MARKET_ID));
+
+    sell("1", "10000");
+    sell("1", "10200");
+    buy("2", "10200");
+    buy("1", "9500");
+    now = 2_000L;
+    sell("1", "10100");
+
+    final Ticker ticker = matchingEngine.getTicker(MARKET_ID);
+    assertEquals(0, new BigDecimal("10000").compareTo(ticker.getOpen()));
+    assertEquals(0, new BigDecimal("10200").compareTo(ticker.getHigh()));
+    assertEquals(0, new BigDecimal("10000").compareTo(ticker.getLow()));
+    assertEquals(0, new BigDecimal("10200").compareTo(ticker.getLast()));
+    assertEquals(0, new BigDecimal("2").compareTo(ticker.getVolume()));
+    assertEquals(0, new BigDecimal("10100").compareTo(ticker.getVwap()));
+    assertEquals(0, new BigDecimal("9500").compareTo(ticker.getBid()));
+    assertEquals(0, new BigDecimal("10100").compareTo(ticker.getAsk()));
+    assertEquals(Long.valueOf(2_000L), ticker.getTimestamp());
+  }
+
+  @Test
+  public void testOrderIdsAreASequence() {
+    assertEquals("SIM-1", sell("1", "10000"));
+    assertEquals("SIM-2", sell("1", "10000"));
+  }
+
+  @Test
+  public void testMarketOrderBookSumsEachPriceLevel() {
+    sell("1", "10000");
+    sell("2", "10000");
+    sell("1", "10100");
+
+    final List<MarketOrder> sellOrders =
+        matchingEngine.getMarketOrders(MARKET_ID, 1).getSellOrders();
+    assertEquals(1, sellOrders.size());
+    assertEquals(0, new BigDecimal("3").compareTo(sellOrders.get(0).getQuantity()));
+    assertEquals(0, new BigDecimal("30000").compareTo(sellOrders.get(0).getTotal()));
+  }
+
+  // --------------------------------------------------------------------------
+  //  Util methods
+  // --------------------------------------------------------------------------
+
+  private String buy(String quantity, String price) {
+    return matchingEngine.submitOrder(
+        BUYER, MARKET_ID, OrderType.BUY, new BigDecimal(quantity), new BigDecimal(price));
+  }
+
+  private String sell(String quantity, String price) {
+    return matchingEngine.submitOrder(
+        SELLER, MARKET_ID, OrderType.SELL, new BigDecimal(quantity), new BigDecimal(price));
+  }
+
+  private static BigDecimal available(BalanceInfo balanceInfo, String currency) {
+    return balanceInfo.getBalancesAvailable().getOrDefault(currency, BigDecimal.ZERO);
+  }
+
+  private static BigDecimal onHold(BalanceInfo balanceInfo, String currency) {
+    return balanceInfo.getBalancesOnHold().getOrDefault(currency, BigDecimal.ZERO);
+  }
+}
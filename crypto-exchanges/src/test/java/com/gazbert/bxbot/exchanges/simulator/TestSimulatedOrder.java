@@ -0,0 +1,66 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.crypto.trading.api.OrderType;
+import java.math.BigDecimal;
+import org.junit.Test;
+
+/**
+ * Tests a simulated order behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestSimulatedOrder {
+
+  @Test
+  public void testOrderIsFilledWhenAllQuantityIsUsedUp() {
+    final SimulatedOrder order =
+        new SimulatedOrder(
+            "1",
+            "buyer",
+            "btcusd",
+            OrderType.BUY,
+            new BigDecimal("10000"),
+            new BigDecimal("2"),
+            new BigDecimal("20050"),
+            1_000L);
+
+    order.fill(BigDecimal.ONE, new BigDecimal("10025"));
+    assertFalse(order.isFilled());
+    assertEquals(0, BigDecimal.ONE.compareTo(order.getQuantity()));
+    assertEquals(0, new BigDecimal("10025").compareTo(order.getHeld()));
+    assertEquals(0, new BigDecimal("2").compareTo(order.getOriginalQuantity()));
+    assertEquals(1_000L, order.getCreationTime());
+    assertTrue(order.toString().contains("quantity=1"));
+
+    order.fill(BigDecimal.ONE, new BigDecimal("10025"));
+    assertTrue(order.isFilled());
+    assertEquals(0, BigDecimal.ZERO.compareTo(order.getHeld()));
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.tickstore;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the tick reader behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestTickReader {
+
+  private static final Path STORE = Paths.get("./target/tickstore/reader");
+  private static final String MARKET_ID = "btcusd";
+  private static final long START = 1577836800000L;
+
+  private TickReader ticks;
+
+  /**
+   * Records 10 samples a second apart, with the bid set to the sample's index.
+   *
+   * @throws Exception if the samples cannot be recorded.
+   */
+  @Before
+  public void setup() throws Exception {
+    TestTickRecorder.deleteDirectory(STORE);
+    try (TickRecorder tickRecorder = new TickRecorder(STORE)) {
+      for (int i = 0; i < 10; i++) {
+        tickRecorder.record(MARKET_ID, START + i * 1000L, i, i + 1, i, 5);
+      }
+    }
+    ticks = TickReader.open(STORE, MARKET_ID);
+  }
+
+  @Test
+  public void testUnwrittenSamplesAreNotRead() {
+    assertEquals(10, ticks.size());
+  }
+
+  @Test
+  public void testIndexOfFindsFirstSampleAtOrAfterTime() {
+    assertEquals(0, ticks.indexOf(0));
+    assertEquals(3, ticks.indexOf(START + 3000));
+    assertEquals(4, ticks.indexOf(START + 3001));
+    assertEquals(10, ticks.indexOf(START + 10_000));
+  }
+
+  @Test
+  public void testRangeIsIndexedFromItsFirstSample() {
+    final TickReader range = ticks.range(START + 2000, START + 5000);
+
+    assertEquals(3, range.size());
+    assertEquals(START + 2000, range.getTimestamp(0));
+    assertEquals(4, range.getBid(2));
+    assertEquals(1, range.indexOf(START + 3000));
+  }
+
+  @Test
+  public void testRangeOutsideSamplesIsEmpty() {
+    assertEquals(0, ticks.range(START + 20_000, START + 30_000).size());
+    assertEquals(0, ticks.range(START + 5000, START).size());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testReadingPastEndOfRangeIsRejected() {
+    ticks.range(START, START + 2000).getBid(2);
+  }
+
+  @Test
+  public void testScanPassesSamplesInRange() {
+    final List<Long> bids = new ArrayList<>();
+
+    final int scanned =
+        ticks.scan(START + 7000, Long.MAX_VALUE, (timestamp, bid, ask, last, volume) -> {
+          assertEquals(bid + 1, ask);
+          assertEquals(5, volume);
+          bids.add(bid);
+        });
+
+    assertEquals(3, scanned);
+    assertEquals(List.of(7L, 8L, 9L), bids);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testColumnShorterThanTimestampsIsRejected() throws Exception {
+    Files.write(STORE.resolve(MARKET_ID).resolve(TickStore.ASK_COLUMN), new byte[8]);
+
+    TickReader.open(STORE, MARKET_ID);
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.tickstore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the tick recorder behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestTickRecorder {
+
+  static final Path STORE = Paths.get("./target/tickstore/recorder");
+
+  private static final String MARKET_ID = "btcusd";
+  private static final long START = 1577836800000L;
+
+  /**
+   * Starts each test with an empty tick store.
+   *
+   * @throws Exception if the store cannot be deleted.
+   */
+  @Before
+  public void setup() throws Exception {
+    deleteDirectory(STORE);
+  }
+
+  @Test
+  public void testRecordedSamplesAreReadBack() throws Exception {
+    try (TickRecorder tickRecorder = new TickRecorder(STORE)) {
+      tickRecorder.record(MARKET_ID, START, 100, 101, 102, 103);
+      tickRecorder.record(MARKET_ID, START + 1000, 200, 201, 202, 203);
+      assertEquals(2, tickRecorder.getSampleCount(MARKET_ID));
+    }
+
+    final TickReader ticks = TickReader.open(STORE, MARKET_ID);
+    assertEquals(2, ticks.size());
+    assertEquals(START + 1000, ticks.getTimestamp(1));
+    assertEquals(200, ticks.getBid(1));
+    assertEquals(201, ticks.getAsk(1));
+    assertEquals(202, ticks.getLast(1));
+    assertEquals(203, ticks.getVolume(1));
+  }
+
+  @Test
+  public void testMarketsAreRecordedToSeparateDirectories() throws Exception {
+    try (TickRecorder tickRecorder = new TickRecorder(STORE)) {
+      tickRecorder.record(MARKET_ID, START, 100, 101, 102, 103);
+      tickRecorder.record("ethusd", START, 10, 11, 12, 13);
+      tickRecorder.record("ethusd", START + 1, 10, 11, 12, 13);
+    }
+
+    assertEquals(1, TickReader.open(STORE, MARKET_ID).size());
+    assertEquals(2, TickReader.open(STORE, "ethusd").size());
+    assertTrue(Files.isDirectory(STORE.resolve("ethusd")));
+  }
+
+  @Test
+  public void testRecordingResumesAfterExistingSamples() throws Exception {
+    try (TickRecorder tickRecorder = new TickRecorder(STORE)) {
+      tickRecorder.record(MARKET_ID, START, 100, 101, 102, 103);
+    }
+    try (TickRecorder tickRecorder = new TickRecorder(STORE)) {
+      tickRecorder.record(MARKET_ID, START + 1000, 200, 201, 202, 203);
+      assertEquals(2, tickRecorder.getSampleCount(MARKET_ID));
+    }
+
+    final TickReader ticks = TickReader.open(STORE, MARKET_ID);
+    assertEquals(2, ticks.size());
+    assertEquals(100, ticks.getBid(0));
+    assertEquals(200, ticks.getBid(1));
+  }
+
+  @Test
+  public void testSamplesAreRecordedAcrossMappedRegions() throws Exception {
+    final int sampleCount = MarketTickWriter.REGION_SAMPLES + 10;
+    try (TickRecorder tickRecorder = new TickRecorder(STORE)) {
+      for (int i = 0; i < sampleCount; i++) {
+        tickRecorder.record(MARKET_ID, START + i, i, i + 1, i + 2, i + 3);
+      }
+      tickRecorder.flush();
+    }
+
+    final TickReader ticks = TickReader.open(STORE, MARKET_ID);
+    assertEquals(sampleCount, ticks.size());
+    assertEquals(START + sampleCount - 1, ticks.getTimestamp(sampleCount - 1));
+    assertEquals(MarketTickWriter.REGION_SAMPLES, ticks.getBid(MarketTickWriter.REGION_SAMPLES));
+    // the files are grown a region at a time
+    assertEquals(
+        2L * MarketTickWriter.REGION_SAMPLES * Long.BYTES,
+        Files.size(STORE.resolve(MARKET_ID).resolve(TickStore.VOLUME_COLUMN)));
+  }
+
+  @Test
+  public void testEarlierTimestampIsStoredAsLastTimestamp() throws Exception {
+    try (TickRecorder tickRecorder = new TickRecorder(STORE)) {
+      tickRecorder.record(MARKET_ID, START + 1000, 100, 101, 102, 103);
+      tickRecorder.record(MARKET_ID, START, 200, 201, 202, 203);
+    }
+
+    final TickReader ticks = TickReader.open(STORE, MARKET_ID);
+    assertEquals(START + 1000, ticks.getTimestamp(1));
+    assertEquals(200, ticks.getBid(1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonPositiveTimestampIsRejected() throws Exception {
+    try (TickRecorder tickRecorder = new TickRecorder(STORE)) {
+      tickRecorder.record(MARKET_ID, 0, 100, 101, 102, 103);
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRecordingAfterCloseIsRejected() throws Exception {
+    final TickRecorder tickRecorder = new TickRecorder(STORE);
+    tickRecorder.close();
+
+    tickRecorder.record(MARKET_ID, START, 100, 101, 102, 103);
+  }
+
+  @Test
+  public void testUnrecordedMarketHasNoSamples() {
+    final TickRecorder tickRecorder = new TickRecorder(STORE);
+
+    assertEquals(0, tickRecorder.getSampleCount(MARKET_ID));
+    assertEquals(STORE, tickRecorder.getDirectory());
+    assertTrue(tickRecorder.toString().contains("recorder"));
+  }
+
+  static void deleteDirectory(Path directory) throws IOException {
+    if (Files.exists(directory)) {
+      try (Stream<Path> paths = Files.walk(directory)) {
+        for (final Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+          Files.delete(path);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,278 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.tickstore;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.gazbert.crypto.exchange.api.ExchangeAdapter;
+import com.gazbert.crypto.exchange.api.ExchangeConfig;
+import com.gazbert.crypto.exchanges.trading.api.impl.BalanceInfoImpl;
+import com.gazbert.crypto.exchanges.trading.api.impl.MarketOrderBookImpl;
+import com.gazbert.crypto.exchanges.trading.api.impl.MarketOrderImpl;
+import com.gazbert.crypto.exchanges.trading.api.impl.TickerImpl;
+import com.gazbert.crypto.trading.api.BalanceInfo;
+import com.gazbert.crypto.trading.api.MarketOrder;
+import com.gazbert.crypto.trading.api.MarketOrderBook;
+import com.gazbert.crypto.trading.api.OpenOrder;
+import com.gazbert.crypto.trading.api.OrderType;
+import com.gazbert.crypto.trading.api.Ticker;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the tick recording Exchange Adapter behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestTickRecordingExchangeAdapter {
+
+  private static final Path STORE = Paths.get("./target/tickstore/adapter");
+  private static final String MARKET_ID = "btcusd";
+  private static final long START = 1577836800000L;
+
+  private static final Ticker TICKER =
+      new TickerImpl(
+          new BigDecimal("100.5"),
+          new BigDecimal("100"),
+          new BigDecimal("101"),
+          null,
+          null,
+          null,
+          new BigDecimal("12.5"),
+          null,
+          null);
+
+  private ExchangeAdapter exchangeAdapter;
+  private TickRecorder tickRecorder;
+  private TickRecordingExchangeAdapter recordingAdapter;
+  private final AtomicLong clock = new AtomicLong(START);
+
+  /**
+   * Wraps a mock adapter with a recorder writing to an empty tick store.
+   *
+   * @throws Exception if the store cannot be deleted.
+   */
+  @Before
+  public void setup() throws Exception {
+    TestTickRecorder.deleteDirectory(STORE);
+    exchangeAdapter = createMock(ExchangeAdapter.class);
+    tickRecorder = new TickRecorder(STORE);
+    recordingAdapter =
+        new TickRecordingExchangeAdapter(exchangeAdapter, tickRecorder, clock::getAndIncrement);
+  }
+
+  @Test
+  public void testTickerIsRecorded() throws Exception {
+    expect(exchangeAdapter.getTicker(MARKET_ID)).andReturn(TICKER);
+    replay(exchangeAdapter);
+
+    assertSame(TICKER, recordingAdapter.getTicker(MARKET_ID));
+
+    final TickReader ticks = readTicks();
+    assertEquals(1, ticks.size());
+    assertEquals(START, ticks.getTimestamp(0));
+    assertEquals(100_00000000L, ticks.getBid(0));
+    assertEquals(101_00000000L, ticks.getAsk(0));
+    assertEquals(100_50000000L, ticks.getLast(0));
+    assertEquals(12_50000000L, ticks.getVolume(0));
+    verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testOrderBookIsRecordedWithLastTickerPriceAndVolume() throws Exception {
+    expect(exchangeAdapter.getTicker(MARKET_ID)).andReturn(TICKER);
+    expect(exchangeAdapter.getMarketOrders(MARKET_ID)).andReturn(orderBook("99", "102"));
+    replay(exchangeAdapter);
+
+    recordingAdapter.getTicker(MARKET_ID);
+    recordingAdapter.getMarketOrders(MARKET_ID);
+
+    final TickReader ticks = readTicks();
+    assertEquals(2, ticks.size());
+    assertEquals(99_00000000L, ticks.getBid(1));
+    assertEquals(102_00000000L, ticks.getAsk(1));
+    assertEquals(100_50000000L, ticks.getLast(1));
+    assertEquals(12_50000000L, ticks.getVolume(1));
+    verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testOrderBookIsRecordedWithMidPriceUntilLastPriceIsKnown() throws Exception {
+    expect(exchangeAdapter.getMarketOrders(MARKET_ID, 5)).andReturn(orderBook("99", "102"));
+    expect(exchangeAdapter.getLatestMarketPrice(MARKET_ID)).andReturn(new BigDecimal("101.25"));
+    expect(exchangeAdapter.getMarketOrders(MARKET_ID, 5)).andReturn(orderBook("99", "102"));
+    replay(exchangeAdapter);
+
+    recordingAdapter.getMarketOrders(MARKET_ID, 5);
+    recordingAdapter.getLatestMarketPrice(MARKET_ID);
+    recordingAdapter.getMarketOrders(MARKET_ID, 5);
+
+    final TickReader ticks = readTicks();
+    assertEquals(2, ticks.size());
+    assertEquals(100_50000000L, ticks.getLast(0));
+    assertEquals(0, ticks.getVolume(0));
+    assertEquals(101_25000000L, ticks.getLast(1));
+    verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testOneSidedOrderBookIsNotRecorded() throws Exception {
+    final MarketOrderBook orderBook =
+        new MarketOrderBookImpl(
+            MARKET_ID, Collections.emptyList(), List.of(order(OrderType.BUY, "99")));
+    expect(exchangeAdapter.getMarketOrders(MARKET_ID)).andReturn(orderBook);
+    replay(exchangeAdapter);
+
+    assertSame(orderBook, recordingAdapter.getMarketOrders(MARKET_ID));
+
+    assertEquals(0, tickRecorder.getSampleCount(MARKET_ID));
+    verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testAsyncMarketDataIsRecorded() throws Exception {
+    expect(exchangeAdapter.getTickerAsync(MARKET_ID))
+        .andReturn(CompletableFuture.completedFuture(TICKER));
+    expect(exchangeAdapter.getMarketOrdersAsync(MARKET_ID))
+        .andReturn(CompletableFuture.completedFuture(orderBook("99", "102")));
+    expect(exchangeAdapter.getLatestMarketPriceAsync(MARKET_ID))
+        .andReturn(CompletableFuture.completedFuture(new BigDecimal("103")));
+    expect(exchangeAdapter.getMarketOrdersAsync(MARKET_ID, 5))
+        .andReturn(CompletableFuture.completedFuture(orderBook("98", "104")));
+    replay(exchangeAdapter);
+
+    assertSame(TICKER, recordingAdapter.getTickerAsync(MARKET_ID).get());
+    recordingAdapter.getMarketOrdersAsync(MARKET_ID).get();
+    assertEquals(
+        new BigDecimal("103"), recordingAdapter.getLatestMarketPriceAsync(MARKET_ID).get());
+    recordingAdapter.getMarketOrdersAsync(MARKET_ID, 5).get();
+
+    final TickReader ticks = readTicks();
+    assertEquals(3, ticks.size());
+    assertEquals(START + 2, ticks.getTimestamp(2));
+    assertEquals(98_00000000L, ticks.getBid(2));
+    assertEquals(103_00000000L, ticks.getLast(2));
+    verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testFailureToRecordDoesNotFailCall() throws Exception {
+    expect(exchangeAdapter.getTicker(MARKET_ID)).andReturn(TICKER);
+    replay(exchangeAdapter);
+    tickRecorder.close();
+
+    assertSame(TICKER, recordingAdapter.getTicker(MARKET_ID));
+    verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testOtherCallsArePassedOn() throws Exception {
+    final ExchangeConfig exchangeConfig = createMock(ExchangeConfig.class);
+    final BalanceInfo balanceInfo = new BalanceInfoImpl(new HashMap<>(), new HashMap<>());
+    final List<OpenOrder> openOrders = Collections.emptyList();
+    final BigDecimal quantity = new BigDecimal("1");
+    final BigDecimal price = new BigDecimal("100");
+    final BigDecimal fee = new BigDecimal("0.0025");
+    final Executor executor = Runnable::run;
+    exchangeAdapter.init(exchangeConfig);
+    expect(exchangeAdapter.getVersion()).andReturn("1.2");
+    expect(exchangeAdapter.getImplName()).andReturn("Test");
+    expect(exchangeAdapter.getYourOpenOrders(MARKET_ID)).andReturn(openOrders);
+    expect(exchangeAdapter.createOrder(MARKET_ID, OrderType.BUY, quantity, price)).andReturn("1");
+    expect(exchangeAdapter.cancelOrder("1", MARKET_ID)).andReturn(true);
+    expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo);
+    expect(exchangeAdapter.getPercentageOfBuyOrderTakenForExchangeFee(MARKET_ID)).andReturn(fee);
+    expect(exchangeAdapter.getPercentageOfSellOrderTakenForExchangeFee(MARKET_ID)).andReturn(fee);
+    expect(exchangeAdapter.getAsyncExecutor()).andReturn(executor);
+    expect(exchangeAdapter.getYourOpenOrdersAsync(MARKET_ID))
+        .andReturn(CompletableFuture.completedFuture(openOrders));
+    expect(exchangeAdapter.createOrderAsync(MARKET_ID, OrderType.SELL, quantity, price))
+        .andReturn(CompletableFuture.completedFuture("2"));
+    expect(exchangeAdapter.cancelOrderAsync("2", MARKET_ID))
+        .andReturn(CompletableFuture.completedFuture(false));
+    expect(exchangeAdapter.getBalanceInfoAsync())
+        .andReturn(CompletableFuture.completedFuture(balanceInfo));
+    expect(exchangeAdapter.getPercentageOfBuyOrderTakenForExchangeFeeAsync(MARKET_ID))
+        .andReturn(CompletableFuture.completedFuture(fee));
+    expect(exchangeAdapter.getPercentageOfSellOrderTakenForExchangeFeeAsync(MARKET_ID))
+        .andReturn(CompletableFuture.completedFuture(fee));
+    replay(exchangeAdapter);
+
+    recordingAdapter.init(exchangeConfig);
+    assertEquals("1.2", recordingAdapter.getVersion());
+    assertEquals("Test", recordingAdapter.getImplName());
+    assertSame(openOrders, recordingAdapter.getYourOpenOrders(MARKET_ID));
+    assertEquals("1", recordingAdapter.createOrder(MARKET_ID, OrderType.BUY, quantity, price));
+    assertEquals(true, recordingAdapter.cancelOrder("1", MARKET_ID));
+    assertSame(balanceInfo, recordingAdapter.getBalanceInfo());
+    assertSame(fee, recordingAdapter.getPercentageOfBuyOrderTakenForExchangeFee(MARKET_ID));
+    assertSame(fee, recordingAdapter.getPercentageOfSellOrderTakenForExchangeFee(MARKET_ID));
+    assertSame(executor, recordingAdapter.getAsyncExecutor());
+    assertSame(openOrders, recordingAdapter.getYourOpenOrdersAsync(MARKET_ID).get());
+    assertEquals(
+        "2",
+        recordingAdapter.createOrderAsync(MARKET_ID, OrderType.SELL, quantity, price).get());
+    assertEquals(false, recordingAdapter.cancelOrderAsync("2", MARKET_ID).get());
+    assertSame(balanceInfo, recordingAdapter.getBalanceInfoAsync().get());
+    assertSame(
+        fee, recordingAdapter.getPercentageOfBuyOrderTakenForExchangeFeeAsync(MARKET_ID).get());
+    assertSame(
+        fee, recordingAdapter.getPercentageOfSellOrderTakenForExchangeFeeAsync(MARKET_ID).get());
+
+    assertEquals(0, tickRecorder.getSampleCount(MARKET_ID));
+    verify(exchangeAdapter);
+  }
+
+  // --------------------------------------------------------------------------
+  //  Util methods
+  // --------------------------------------------------------------------------
+
+  private TickReader readTicks() throws Exception {
+    tickRecorder.close();
+    return TickReader.open(STORE, MARKET_ID);
+  }
+
+  private static MarketOrderBook orderBook(String bid, String ask) {
+    return new MarketOrderBookImpl(
+        MARKET_ID, List.of(order(OrderType.SELL, ask)), List.of(order(OrderType.BUY, bid)));
+  }
+
+  private static MarketOrder order(OrderType orderType, String price) {
+    return new MarketOrderImpl(orderType, new BigDecimal(price), BigDecimal.ONE);
+  }
+}
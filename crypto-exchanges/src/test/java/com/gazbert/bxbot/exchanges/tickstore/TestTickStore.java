@@ -0,0 +1,73 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.tickstore;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.junit.Test;
+
+/**
+ * Tests the tick store layout behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestTickStore {
+
+  private static final Path STORE = Paths.get("ticks");
+
+  @Test
+  public void testMarketIdIsUsedAsDirectoryName() {
+    assertEquals(STORE.resolve("btc-usd_1.x"), TickStore.marketDirectory(STORE, "btc-usd_1.x"));
+  }
+
+  @Test
+  public void testMarketIdCharactersOutsideFileNameSetAreReplaced() {
+    assertEquals(STORE.resolve("BTC_USD_"), TickStore.marketDirectory(STORE, "BTC/USD:"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParentDirectoryMarketIdIsRejected() {
+    TickStore.marketDirectory(STORE, "..");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptyMarketIdIsRejected() {
+    TickStore.marketDirectory(STORE, "");
+  }
+
+  @Test
+  public void testValuesAreScaledAndRoundedHalfUp() {
+    assertEquals(123_456_789_01L, TickStore.toScaledLong(new BigDecimal("123.45678901")));
+    assertEquals(2L, TickStore.toScaledLong(new BigDecimal("0.000000015")));
+    assertEquals(new BigDecimal("123.45678901"), TickStore.fromScaledLong(123_456_789_01L));
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void testValuesTooLargeToStoreAreRejected() {
+    TickStore.toScaledLong(new BigDecimal("1E+12"));
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.trading.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.crypto.trading.api.OrderType;
+import org.junit.Test;
+
+/**
+ * Tests the compact Market Order Book impl behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestCompactMarketOrderBook {
+
+  private static final String MARKET_ID = "BTC_USD";
+
+  @Test
+  public void testMarketOrderBookIsInitialisedAsExpected() {
+    final CompactMarketOrders sellOrders = new CompactMarketOrders(OrderType.SELL, 8, 8);
+    sellOrders.add("222.22", "0.02423424");
+    final CompactMarketOrders buyOrders = new CompactMarketOrders(OrderType.BUY, 8, 8);
+    buyOrders.add("111.11", "0.01614453");
+
+    final CompactMarketOrderBook marketOrderBook =
+        new CompactMarketOrderBook(MARKET_ID, sellOrders, buyOrders);
+
+    assertEquals(MARKET_ID, marketOrderBook.getMarketId());
+    assertSame(sellOrders, marketOrderBook.getSellOrders());
+    assertEquals(1, marketOrderBook.getSellOrders().size());
+    assertSame(OrderType.SELL, marketOrderBook.getSellOrders().get(0).getType());
+    assertSame(buyOrders, marketOrderBook.getBuyOrders());
+    assertEquals(1, marketOrderBook.getBuyOrders().size());
+    assertSame(OrderType.BUY, marketOrderBook.getBuyOrders().get(0).getType());
+    assertTrue(marketOrderBook.toString().contains("marketId=" + MARKET_ID));
+  }
+}
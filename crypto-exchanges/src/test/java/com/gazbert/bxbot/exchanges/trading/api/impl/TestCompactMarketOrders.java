@@ -0,0 +1,141 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.exchanges.trading.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.crypto.trading.api.MarketOrder;
+import com.gazbert.crypto.trading.api.OrderType;
+import java.math.BigDecimal;
+import org.junit.Test;
+
+/**
+ * Tests the compact Market Orders list behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestCompactMarketOrders {
+
+  private static final BigDecimal PRICE = new BigDecimal("671.91");
+  private static final BigDecimal QUANTITY = new BigDecimal("0.01345453");
+  private static final BigDecimal TOTAL = PRICE.multiply(QUANTITY);
+
+  @Test
+  public void testMarketOrderViewsAreCreatedAsExpected() {
+    final CompactMarketOrders marketOrders = new CompactMarketOrders(OrderType.SELL, 8, 8);
+    marketOrders.add("671.91", "0.01345453");
+    marketOrders.add(new BigDecimal("672"), new BigDecimal("2"));
+
+    assertEquals(2, marketOrders.size());
+    assertSame(OrderType.SELL, marketOrders.getType());
+
+    final MarketOrder marketOrder = marketOrders.get(0);
+    assertSame(OrderType.SELL, marketOrder.getType());
+    assertEquals(0, marketOrder.getPrice().compareTo(PRICE));
+    assertEquals(0, marketOrder.getQuantity().compareTo(QUANTITY));
+    assertEquals(0, marketOrder.getTotal().compareTo(TOTAL));
+    assertSame(marketOrder.getTotal(), marketOrder.getTotal());
+
+    assertEquals(67191000000L, marketOrders.getFixedPointPrice(0));
+    assertEquals(1345453L, marketOrders.getFixedPointQuantity(0));
+    assertEquals(0, marketOrders.get(1).getTotal().compareTo(new BigDecimal("1344")));
+    assertEquals(8, marketOrders.getPriceScale());
+    assertEquals(8, marketOrders.getQuantityScale());
+    assertTrue(marketOrder.toString().contains("price=671.91"));
+  }
+
+  @Test
+  public void testListGrowsPastInitialCapacity() {
+    final CompactMarketOrders marketOrders = new CompactMarketOrders(OrderType.BUY, 2, 0, 1);
+    for (int i = 0; i < 100; i++) {
+      marketOrders.add(i, 1);
+    }
+
+    assertEquals(100, marketOrders.size());
+    assertEquals(0, marketOrders.get(99).getPrice().compareTo(new BigDecimal("0.99")));
+    assertEquals(0, marketOrders.get(99).getQuantity().compareTo(BigDecimal.ONE));
+  }
+
+  @Test
+  public void testOrdersThatDoNotFitTheScaleAreHeldExactly() {
+    final CompactMarketOrders marketOrders = new CompactMarketOrders(OrderType.BUY, 8, 8, 1);
+    marketOrders.add("671.91", "0.01345453");
+    marketOrders.add("0.000000001", "2");
+    marketOrders.add(new BigDecimal("100000000000000"), BigDecimal.ONE);
+    marketOrders.add("672", "1");
+
+    assertEquals(4, marketOrders.size());
+    assertEquals(0, marketOrders.get(0).getTotal().compareTo(TOTAL));
+    assertEquals(new BigDecimal("0.000000001"), marketOrders.get(1).getPrice());
+    assertEquals(0, marketOrders.get(1).getTotal().compareTo(new BigDecimal("0.000000002")));
+    assertEquals(new BigDecimal("100000000000000"), marketOrders.get(2).getPrice());
+    assertEquals(67200000000L, marketOrders.getFixedPointPrice(3));
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void testGettingFixedPointValueOfOrderThatDoesNotFitTheScaleIsRejected() {
+    final CompactMarketOrders marketOrders = new CompactMarketOrders(OrderType.BUY, 8, 8);
+    marketOrders.add("0.000000001", "2");
+    marketOrders.getFixedPointQuantity(0);
+  }
+
+  @Test
+  public void testDecimalStringsAreConvertedToFixedPoint() {
+    assertEquals(66453600000L, CompactMarketOrders.toFixedPoint("664.536", 8));
+    assertEquals(66500000000L, CompactMarketOrders.toFixedPoint("665", 8));
+    assertEquals(50000000L, CompactMarketOrders.toFixedPoint(".5", 8));
+    assertEquals(-150000000L, CompactMarketOrders.toFixedPoint("-1.5", 8));
+    assertEquals(100000000L, CompactMarketOrders.toFixedPoint("1.0000000000", 8));
+    assertEquals(123000000L, CompactMarketOrders.toFixedPoint("1.23E0", 8));
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void testValuesWithTooManyDecimalPlacesAreRejected() {
+    CompactMarketOrders.toFixedPoint("0.000000001", 8);
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void testValuesTooLargeForFixedPointAreRejected() {
+    CompactMarketOrders.toFixedPoint("100000000000000", 8);
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void testValuesThatAreNotNumbersAreRejected() {
+    CompactMarketOrders.toFixedPoint("1.2.3", 8);
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void testSignWithoutDigitsIsRejected() {
+    CompactMarketOrders.toFixedPoint("-", 8);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGettingOrderPastEndOfListIsRejected() {
+    final CompactMarketOrders marketOrders = new CompactMarketOrders(OrderType.BUY, 8, 8);
+    marketOrders.add(1, 1);
+    marketOrders.getFixedPointPrice(1);
+  }
+}
@@ -25,6 +25,7 @@ package com.gazbert.crypto.exchanges.trading.api.impl;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import com.gazbert.crypto.trading.api.OrderType;
 import java.math.BigDecimal;
@@ -51,6 +52,33 @@ public class TestMarketOrderImpl {
     assertEquals(TOTAL, marketOrder.getTotal());
   }
 
+  @Test
+  public void testTotalIsComputedWhenNotProvided() {
+    final MarketOrderImpl marketOrder = new MarketOrderImpl(OrderType.SELL, PRICE, QUANTITY);
+
+    assertEquals(OrderType.SELL, marketOrder.getType());
+    assertEquals(PRICE, marketOrder.getPrice());
+    assertEquals(QUANTITY, marketOrder.getQuantity());
+    assertEquals(TOTAL, marketOrder.getTotal());
+    assertSame(marketOrder.getTotal(), marketOrder.getTotal());
+  }
+
+  @Test
+  public void testComputedTotalFollowsPriceAndQuantity() {
+    final MarketOrderImpl marketOrder = new MarketOrderImpl(OrderType.SELL, null, QUANTITY);
+    assertNull(marketOrder.getTotal());
+
+    marketOrder.setPrice(PRICE);
+    assertEquals(TOTAL, marketOrder.getTotal());
+
+    marketOrder.setQuantity(BigDecimal.ONE);
+    assertEquals(PRICE, marketOrder.getTotal());
+
+    marketOrder.setTotal(TOTAL);
+    marketOrder.setQuantity(QUANTITY.add(BigDecimal.ONE));
+    assertEquals(TOTAL, marketOrder.getTotal());
+  }
+
   @Test
   public void testSettersWorkAsExpected() {
     final MarketOrderImpl marketOrder = new MarketOrderImpl(null, null, null, null);
@@ -26,6 +26,7 @@ package com.gazbert.crypto.exchanges.trading.api.impl;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import com.gazbert.crypto.trading.api.OrderType;
 import java.math.BigDecimal;
@@ -71,6 +72,32 @@ public class TestOpenOrderImpl {
     assertEquals(TOTAL, openOrder.getTotal());
   }
 
+  @Test
+  public void testTotalIsComputedFromOriginalQuantityWhenNotProvided() {
+    final OpenOrderImpl openOrder =
+        new OpenOrderImpl(
+            ID, CREATION_DATE, MARKET_ID, OrderType.SELL, PRICE, QUANTITY, ORIGINAL_QUANTITY);
+
+    assertEquals(QUANTITY, openOrder.getQuantity());
+    assertEquals(ORIGINAL_QUANTITY, openOrder.getOriginalQuantity());
+    assertEquals(TOTAL, openOrder.getTotal());
+    assertSame(openOrder.getTotal(), openOrder.getTotal());
+  }
+
+  @Test
+  public void testTotalIsComputedFromQuantityWhenOriginalQuantityNotProvided() {
+    final OpenOrderImpl openOrder =
+        new OpenOrderImpl(ID, CREATION_DATE, MARKET_ID, OrderType.BUY, PRICE, QUANTITY, null);
+    assertEquals(PRICE.multiply(QUANTITY), openOrder.getTotal());
+
+    openOrder.setOriginalQuantity(ORIGINAL_QUANTITY);
+    assertEquals(TOTAL, openOrder.getTotal());
+
+    openOrder.setTotal(BigDecimal.ONE);
+    openOrder.setPrice(BigDecimal.TEN);
+    assertEquals(BigDecimal.ONE, openOrder.getTotal());
+  }
+
   @Test
   public void testSettersWorkAsExpected() {
     final OpenOrderImpl openOrder =
@@ -25,10 +25,11 @@ package com.gazbert.crypto.repository.yaml;
 
 import static com.gazbert.crypto.datastore.yaml.FileLocations.EMAIL_ALERTS_CONFIG_YAML_FILENAME;
 
-import com.gazbert.crypto.datastore.yaml.ConfigurationManager;
+import com.gazbert.crypto.datastore.yaml.CachedConfiguration;
 import com.gazbert.crypto.datastore.yaml.emailalerts.EmailAlertsType;
 import com.gazbert.crypto.domain.emailalerts.EmailAlertsConfig;
 import com.gazbert.crypto.repository.EmailAlertsConfigRepository;
+import javax.annotation.PreDestroy;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.stereotype.Repository;
@@ -45,11 +46,14 @@ public class EmailAlertsConfigYamlRepository implements EmailAlertsConfigReposit
 
   private static final Logger LOG = LogManager.getLogger();
 
+  private final CachedConfiguration<EmailAlertsType> emailAlertsConfig =
+      new CachedConfiguration<>(
+          EmailAlertsType.class, EMAIL_ALERTS_CONFIG_YAML_FILENAME, EmailAlertsType::new);
+
   @Override
   public EmailAlertsConfig get() {
     LOG.info(() -> "Fetching EmailAlertsConfig...");
-    return ConfigurationManager.loadConfig(EmailAlertsType.class, EMAIL_ALERTS_CONFIG_YAML_FILENAME)
-        .getEmailAlerts();
+    return emailAlertsConfig.get().getEmailAlerts();
   }
 
   @Override
@@ -58,10 +62,14 @@ public class EmailAlertsConfigYamlRepository implements EmailAlertsConfigReposit
 
     final EmailAlertsType emailAlertsType = new EmailAlertsType();
     emailAlertsType.setEmailAlerts(config);
-    ConfigurationManager.saveConfig(
-        EmailAlertsType.class, emailAlertsType, EMAIL_ALERTS_CONFIG_YAML_FILENAME);
+    emailAlertsConfig.save(emailAlertsType);
+
+    return emailAlertsConfig.get().getEmailAlerts();
+  }
 
-    return ConfigurationManager.loadConfig(EmailAlertsType.class, EMAIL_ALERTS_CONFIG_YAML_FILENAME)
-        .getEmailAlerts();
+  /** Stops watching the config file for changes when the repository is destroyed. */
+  @PreDestroy
+  public void close() {
+    emailAlertsConfig.close();
   }
 }
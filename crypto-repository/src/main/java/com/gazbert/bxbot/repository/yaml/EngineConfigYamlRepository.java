@@ -25,10 +25,11 @@ package com.gazbert.crypto.repository.yaml;
 
 import static com.gazbert.crypto.datastore.yaml.FileLocations.ENGINE_CONFIG_YAML_FILENAME;
 
-import com.gazbert.crypto.datastore.yaml.ConfigurationManager;
+import com.gazbert.crypto.datastore.yaml.CachedConfiguration;
 import com.gazbert.crypto.datastore.yaml.engine.EngineType;
 import com.gazbert.crypto.domain.engine.EngineConfig;
 import com.gazbert.crypto.repository.EngineConfigRepository;
+import javax.annotation.PreDestroy;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.stereotype.Repository;
@@ -45,11 +46,13 @@ public class EngineConfigYamlRepository implements EngineConfigRepository {
 
   private static final Logger LOG = LogManager.getLogger();
 
+  private final CachedConfiguration<EngineType> engineConfig =
+      new CachedConfiguration<>(EngineType.class, ENGINE_CONFIG_YAML_FILENAME, EngineType::new);
+
   @Override
   public EngineConfig get() {
     LOG.info(() -> "Fetching EngineConfig...");
-    return ConfigurationManager.loadConfig(EngineType.class, ENGINE_CONFIG_YAML_FILENAME)
-        .getEngine();
+    return engineConfig.get().getEngine();
   }
 
   @Override
@@ -58,9 +61,14 @@ public class EngineConfigYamlRepository implements EngineConfigRepository {
 
     final EngineType engineType = new EngineType();
     engineType.setEngine(config);
-    ConfigurationManager.saveConfig(EngineType.class, engineType, ENGINE_CONFIG_YAML_FILENAME);
+    engineConfig.save(engineType);
+
+    return engineConfig.get().getEngine();
+  }
 
-    return ConfigurationManager.loadConfig(EngineType.class, ENGINE_CONFIG_YAML_FILENAME)
-        .getEngine();
+  /** Stops watching the config file for changes when the repository is destroyed. */
+  @PreDestroy
+  public void close() {
+    engineConfig.close();
   }
 }
@@ -25,10 +25,11 @@ package com.gazbert.crypto.repository.yaml;
 
 import static com.gazbert.crypto.datastore.yaml.FileLocations.EXCHANGE_CONFIG_YAML_FILENAME;
 
-import com.gazbert.crypto.datastore.yaml.ConfigurationManager;
+import com.gazbert.crypto.datastore.yaml.CachedConfiguration;
 import com.gazbert.crypto.datastore.yaml.exchange.ExchangeType;
 import com.gazbert.crypto.domain.exchange.ExchangeConfig;
 import com.gazbert.crypto.repository.ExchangeConfigRepository;
+import javax.annotation.PreDestroy;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.stereotype.Repository;
@@ -45,11 +46,14 @@ public class ExchangeConfigYamlRepository implements ExchangeConfigRepository {
 
   private static final Logger LOG = LogManager.getLogger();
 
+  private final CachedConfiguration<ExchangeType> exchangeConfig =
+      new CachedConfiguration<>(
+          ExchangeType.class, EXCHANGE_CONFIG_YAML_FILENAME, ExchangeType::new);
+
   @Override
   public ExchangeConfig get() {
     LOG.info(() -> "Fetching ExchangeConfig...");
-    return ConfigurationManager.loadConfig(ExchangeType.class, EXCHANGE_CONFIG_YAML_FILENAME)
-        .getExchange();
+    return exchangeConfig.get().getExchange();
   }
 
   @Override
@@ -58,10 +62,14 @@ public class ExchangeConfigYamlRepository implements ExchangeConfigRepository {
 
     final ExchangeType exchangeType = new ExchangeType();
     exchangeType.setExchange(config);
-    ConfigurationManager.saveConfig(
-        ExchangeType.class, exchangeType, EXCHANGE_CONFIG_YAML_FILENAME);
+    exchangeConfig.save(exchangeType);
+
+    return exchangeConfig.get().getExchange();
+  }
 
-    return ConfigurationManager.loadConfig(ExchangeType.class, EXCHANGE_CONFIG_YAML_FILENAME)
-        .getExchange();
+  /** Stops watching the config file for changes when the repository is destroyed. */
+  @PreDestroy
+  public void close() {
+    exchangeConfig.close();
   }
 }
@@ -25,7 +25,7 @@ package com.gazbert.crypto.repository.yaml;
 
 import static com.gazbert.crypto.datastore.yaml.FileLocations.MARKETS_CONFIG_YAML_FILENAME;
 
-import com.gazbert.crypto.datastore.yaml.ConfigurationManager;
+import com.gazbert.crypto.datastore.yaml.CachedConfiguration;
 import com.gazbert.crypto.datastore.yaml.market.MarketsType;
 import com.gazbert.crypto.domain.market.MarketConfig;
 import com.gazbert.crypto.repository.MarketConfigRepository;
@@ -33,6 +33,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.stereotype.Repository;
@@ -50,19 +51,20 @@ public class MarketConfigYamlRepository implements MarketConfigRepository {
   private static final Logger LOG = LogManager.getLogger();
   private static final String EXISTING_MARKET_CONFIG = " Existing MarketConfig: ";
 
+  private final CachedConfiguration<MarketsType> marketsConfig =
+      new CachedConfiguration<>(MarketsType.class, MARKETS_CONFIG_YAML_FILENAME, MarketsType::new);
+
   @Override
   public List<MarketConfig> findAll() {
     LOG.info(() -> "Fetching all Market configs...");
-    return ConfigurationManager.loadConfig(MarketsType.class, MARKETS_CONFIG_YAML_FILENAME)
-        .getMarkets();
+    return marketsConfig.get().getMarkets();
   }
 
   @Override
   public MarketConfig findById(String id) {
     LOG.info(() -> "Fetching Market config for id: " + id);
 
-    final MarketsType marketsType =
-        ConfigurationManager.loadConfig(MarketsType.class, MARKETS_CONFIG_YAML_FILENAME);
+    final MarketsType marketsType = marketsConfig.get();
 
     return adaptInternalToExternalConfig(
         marketsType.getMarkets().stream()
@@ -73,8 +75,7 @@ public class MarketConfigYamlRepository implements MarketConfigRepository {
 
   @Override
   public MarketConfig save(MarketConfig config) {
-    final MarketsType marketsType =
-        ConfigurationManager.loadConfig(MarketsType.class, MARKETS_CONFIG_YAML_FILENAME);
+    final MarketsType marketsType = marketsConfig.get();
 
     final List<MarketConfig> marketConfigs =
         marketsType.getMarkets().stream()
@@ -90,11 +91,9 @@ public class MarketConfigYamlRepository implements MarketConfigRepository {
         newMarketConfig.setId(generateUuid());
 
         marketsType.getMarkets().add(newMarketConfig);
-        ConfigurationManager.saveConfig(
-            MarketsType.class, marketsType, MARKETS_CONFIG_YAML_FILENAME);
+        marketsConfig.save(marketsType);
 
-        final MarketsType updatedInternalMarketsConfig =
-            ConfigurationManager.loadConfig(MarketsType.class, MARKETS_CONFIG_YAML_FILENAME);
+        final MarketsType updatedInternalMarketsConfig = marketsConfig.get();
 
         return adaptInternalToExternalConfig(
             updatedInternalMarketsConfig.getMarkets().stream()
@@ -116,11 +115,9 @@ public class MarketConfigYamlRepository implements MarketConfigRepository {
 
         marketsType.getMarkets().remove(marketConfigs.get(0)); // will only be 1 unique strat
         marketsType.getMarkets().add(config);
-        ConfigurationManager.saveConfig(
-            MarketsType.class, marketsType, MARKETS_CONFIG_YAML_FILENAME);
+        marketsConfig.save(marketsType);
 
-        final MarketsType updatedMarketsType =
-            ConfigurationManager.loadConfig(MarketsType.class, MARKETS_CONFIG_YAML_FILENAME);
+        final MarketsType updatedMarketsType = marketsConfig.get();
 
         return adaptInternalToExternalConfig(
             updatedMarketsType.getMarkets().stream()
@@ -143,8 +140,7 @@ public class MarketConfigYamlRepository implements MarketConfigRepository {
   public MarketConfig delete(String id) {
     LOG.info(() -> "Deleting Market config for id: " + id);
 
-    final MarketsType marketsType =
-        ConfigurationManager.loadConfig(MarketsType.class, MARKETS_CONFIG_YAML_FILENAME);
+    final MarketsType marketsType = marketsConfig.get();
 
     final List<MarketConfig> marketConfigs =
         marketsType.getMarkets().stream()
@@ -155,7 +151,7 @@ public class MarketConfigYamlRepository implements MarketConfigRepository {
     if (!marketConfigs.isEmpty()) {
       final MarketConfig marketToRemove = marketConfigs.get(0); // will only be 1 unique strat
       marketsType.getMarkets().remove(marketToRemove);
-      ConfigurationManager.saveConfig(MarketsType.class, marketsType, MARKETS_CONFIG_YAML_FILENAME);
+      marketsConfig.save(marketsType);
       return adaptInternalToExternalConfig(Collections.singletonList(marketToRemove));
     } else {
       LOG.warn(
@@ -168,6 +164,12 @@ public class MarketConfigYamlRepository implements MarketConfigRepository {
     }
   }
 
+  /** Stops watching the config file for changes when the repository is destroyed. */
+  @PreDestroy
+  public void close() {
+    marketsConfig.close();
+  }
+
   // --------------------------------------------------------------------------
   // Adapter methods
   // --------------------------------------------------------------------------
@@ -25,7 +25,7 @@ package com.gazbert.crypto.repository.yaml;
 
 import static com.gazbert.crypto.datastore.yaml.FileLocations.STRATEGIES_CONFIG_YAML_FILENAME;
 
-import com.gazbert.crypto.datastore.yaml.ConfigurationManager;
+import com.gazbert.crypto.datastore.yaml.CachedConfiguration;
 import com.gazbert.crypto.datastore.yaml.strategy.StrategiesType;
 import com.gazbert.crypto.domain.strategy.StrategyConfig;
 import com.gazbert.crypto.repository.StrategyConfigRepository;
@@ -33,6 +33,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.stereotype.Repository;
@@ -49,19 +50,21 @@ public class StrategyConfigYamlRepository implements StrategyConfigRepository {
 
   private static final Logger LOG = LogManager.getLogger();
 
+  private final CachedConfiguration<StrategiesType> strategiesConfig =
+      new CachedConfiguration<>(
+          StrategiesType.class, STRATEGIES_CONFIG_YAML_FILENAME, StrategiesType::new);
+
   @Override
   public List<StrategyConfig> findAll() {
     LOG.info(() -> "Fetching all Strategy configs...");
-    return ConfigurationManager.loadConfig(StrategiesType.class, STRATEGIES_CONFIG_YAML_FILENAME)
-        .getStrategies();
+    return strategiesConfig.get().getStrategies();
   }
 
   @Override
   public StrategyConfig findById(String id) {
     LOG.info(() -> "Fetching config for Strategy id: " + id);
 
-    final StrategiesType strategiesType =
-        ConfigurationManager.loadConfig(StrategiesType.class, STRATEGIES_CONFIG_YAML_FILENAME);
+    final StrategiesType strategiesType = strategiesConfig.get();
 
     return adaptInternalToExternalConfig(
         strategiesType.getStrategies().stream()
@@ -72,8 +75,7 @@ public class StrategyConfigYamlRepository implements StrategyConfigRepository {
 
   @Override
   public StrategyConfig save(StrategyConfig config) {
-    final StrategiesType strategiesType =
-        ConfigurationManager.loadConfig(StrategiesType.class, STRATEGIES_CONFIG_YAML_FILENAME);
+    final StrategiesType strategiesType = strategiesConfig.get();
 
     final List<StrategyConfig> strategyConfigs =
         strategiesType.getStrategies().stream()
@@ -89,11 +91,9 @@ public class StrategyConfigYamlRepository implements StrategyConfigRepository {
         newStrategyConfig.setId(generateUuid());
 
         strategiesType.getStrategies().add(newStrategyConfig);
-        ConfigurationManager.saveConfig(
-            StrategiesType.class, strategiesType, STRATEGIES_CONFIG_YAML_FILENAME);
+        strategiesConfig.save(strategiesType);
 
-        final StrategiesType updatedInternalStrategiesConfig =
-            ConfigurationManager.loadConfig(StrategiesType.class, STRATEGIES_CONFIG_YAML_FILENAME);
+        final StrategiesType updatedInternalStrategiesConfig = strategiesConfig.get();
 
         return adaptInternalToExternalConfig(
             updatedInternalStrategiesConfig.getStrategies().stream()
@@ -116,11 +116,9 @@ public class StrategyConfigYamlRepository implements StrategyConfigRepository {
             .getStrategies()
             .remove(strategyConfigs.get(0)); // will only be 1 unique strat
         strategiesType.getStrategies().add(config);
-        ConfigurationManager.saveConfig(
-            StrategiesType.class, strategiesType, STRATEGIES_CONFIG_YAML_FILENAME);
+        strategiesConfig.save(strategiesType);
 
-        final StrategiesType updatedStrategiesType =
-            ConfigurationManager.loadConfig(StrategiesType.class, STRATEGIES_CONFIG_YAML_FILENAME);
+        final StrategiesType updatedStrategiesType = strategiesConfig.get();
 
         return adaptInternalToExternalConfig(
             updatedStrategiesType.getStrategies().stream()
@@ -143,8 +141,7 @@ public class StrategyConfigYamlRepository implements StrategyConfigRepository {
   public StrategyConfig delete(String id) {
     LOG.info(() -> "Deleting Strategy config for id: " + id);
 
-    final StrategiesType strategiesType =
-        ConfigurationManager.loadConfig(StrategiesType.class, STRATEGIES_CONFIG_YAML_FILENAME);
+    final StrategiesType strategiesType = strategiesConfig.get();
 
     final List<StrategyConfig> strategyConfigs =
         strategiesType.getStrategies().stream()
@@ -155,8 +152,7 @@ public class StrategyConfigYamlRepository implements StrategyConfigRepository {
     if (!strategyConfigs.isEmpty()) {
       final StrategyConfig strategyToRemove = strategyConfigs.get(0); // will only be 1 unique strat
       strategiesType.getStrategies().remove(strategyToRemove);
-      ConfigurationManager.saveConfig(
-          StrategiesType.class, strategiesType, STRATEGIES_CONFIG_YAML_FILENAME);
+      strategiesConfig.save(strategiesType);
       return adaptInternalToExternalConfig(Collections.singletonList(strategyToRemove));
     } else {
       LOG.warn(
@@ -169,6 +165,12 @@ public class StrategyConfigYamlRepository implements StrategyConfigRepository {
     }
   }
 
+  /** Stops watching the config file for changes when the repository is destroyed. */
+  @PreDestroy
+  public void close() {
+    strategiesConfig.close();
+  }
+
   // --------------------------------------------------------------------------
   // Adapter methods
   // --------------------------------------------------------------------------
@@ -109,11 +109,6 @@ public class TestEmailAlertsConfigYamlRepository {
         anyObject(EmailAlertsType.class),
         eq(EMAIL_ALERTS_CONFIG_YAML_FILENAME));
 
-    expect(
-            ConfigurationManager.loadConfig(
-                eq(EmailAlertsType.class), eq(EMAIL_ALERTS_CONFIG_YAML_FILENAME)))
-        .andReturn(adaptExternalToInternalConfig(someUpdatedEmailAlertsConfig()));
-
     PowerMock.replayAll();
 
     final EmailAlertsConfigRepository emailAlertsConfigRepository =
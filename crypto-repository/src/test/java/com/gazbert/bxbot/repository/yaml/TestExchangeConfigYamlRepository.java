@@ -129,11 +129,6 @@ public class TestExchangeConfigYamlRepository {
     ConfigurationManager.saveConfig(
         eq(ExchangeType.class), anyObject(ExchangeType.class), eq(EXCHANGE_CONFIG_YAML_FILENAME));
 
-    expect(
-            ConfigurationManager.loadConfig(
-                eq(ExchangeType.class), eq(EXCHANGE_CONFIG_YAML_FILENAME)))
-        .andReturn(someInternalExchangeConfig());
-
     PowerMock.replayAll();
 
     final ExchangeConfigRepository exchangeConfigRepository = new ExchangeConfigYamlRepository();
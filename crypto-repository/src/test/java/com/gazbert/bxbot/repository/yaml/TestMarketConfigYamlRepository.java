@@ -162,9 +162,6 @@ public class TestMarketConfigYamlRepository {
     ConfigurationManager.saveConfig(
         eq(MarketsType.class), anyObject(MarketsType.class), eq(MARKETS_CONFIG_YAML_FILENAME));
 
-    expect(ConfigurationManager.loadConfig(eq(MarketsType.class), eq(MARKETS_CONFIG_YAML_FILENAME)))
-        .andReturn(allTheInternalMarketsConfig());
-
     PowerMock.replayAll();
 
     final MarketConfigRepository marketConfigRepository = new MarketConfigYamlRepository();
@@ -204,11 +201,9 @@ public class TestMarketConfigYamlRepository {
     ConfigurationManager.saveConfig(
         eq(MarketsType.class), anyObject(MarketsType.class), eq(MARKETS_CONFIG_YAML_FILENAME));
 
-    expect(ConfigurationManager.loadConfig(eq(MarketsType.class), eq(MARKETS_CONFIG_YAML_FILENAME)))
-        .andReturn(allTheInternalMarketsConfigPlusNewOne());
-
     final MarketConfigRepository marketConfigRepository =
-        PowerMock.createPartialMock(MarketConfigYamlRepository.class, MOCKED_GENERATE_UUID_METHOD);
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            MarketConfigYamlRepository.class, MOCKED_GENERATE_UUID_METHOD);
     PowerMock.expectPrivate(marketConfigRepository, MOCKED_GENERATE_UUID_METHOD)
         .andReturn(GENERATED_MARKET_ID);
 
@@ -291,20 +286,6 @@ public class TestMarketConfigYamlRepository {
     return marketsType;
   }
 
-  private static MarketsType allTheInternalMarketsConfigPlusNewOne() {
-    final MarketConfig newMarket = new MarketConfig();
-    newMarket.setId(GENERATED_MARKET_ID);
-    newMarket.setName(NEW_MARKET_NAME);
-    newMarket.setEnabled(NEW_MARKET_IS_ENABLED);
-    newMarket.setBaseCurrency(NEW_MARKET_BASE_CURRENCY);
-    newMarket.setCounterCurrency(NEW_MARKET_COUNTER_CURRENCY);
-    newMarket.setTradingStrategyId(NEW_MARKET_TRADING_STRATEGY_ID);
-
-    final MarketsType existingMarketsPlusNewOne = allTheInternalMarketsConfig();
-    existingMarketsPlusNewOne.getMarkets().add(newMarket);
-    return existingMarketsPlusNewOne;
-  }
-
   private static MarketConfig someExternalMarketConfig() {
     return new MarketConfig(
         MARKET_1_ID,
@@ -201,11 +201,6 @@ public class TestStrategyConfigYamlRepository {
         anyObject(StrategiesType.class),
         eq(STRATEGIES_CONFIG_YAML_FILENAME));
 
-    expect(
-            ConfigurationManager.loadConfig(
-                eq(StrategiesType.class), eq(STRATEGIES_CONFIG_YAML_FILENAME)))
-        .andReturn(allTheInternalStrategiesConfig());
-
     PowerMock.replayAll();
 
     final StrategyConfigRepository strategyConfigRepository = new StrategyConfigYamlRepository();
@@ -255,13 +250,8 @@ public class TestStrategyConfigYamlRepository {
         anyObject(StrategiesType.class),
         eq(STRATEGIES_CONFIG_YAML_FILENAME));
 
-    expect(
-            ConfigurationManager.loadConfig(
-                eq(StrategiesType.class), eq(STRATEGIES_CONFIG_YAML_FILENAME)))
-        .andReturn(allTheInternalStrategiesConfigPlusNewOne());
-
     final StrategyConfigRepository strategyConfigRepository =
-        PowerMock.createPartialMock(
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
             StrategyConfigYamlRepository.class, MOCKED_GENERATE_UUID_METHOD);
     PowerMock.expectPrivate(strategyConfigRepository, MOCKED_GENERATE_UUID_METHOD)
         .andReturn(GENERATED_STRAT_ID);
@@ -360,23 +350,6 @@ public class TestStrategyConfigYamlRepository {
     return strategiesType;
   }
 
-  private static StrategiesType allTheInternalStrategiesConfigPlusNewOne() {
-    final Map<String, String> configItems = new HashMap<>();
-    configItems.put(BUY_PRICE_CONFIG_ITEM_KEY, BUY_PRICE_CONFIG_ITEM_VALUE);
-    configItems.put(AMOUNT_TO_BUY_CONFIG_ITEM_KEY, AMOUNT_TO_BUY_CONFIG_ITEM_VALUE);
-
-    final StrategyConfig newStrat = new StrategyConfig();
-    newStrat.setId(GENERATED_STRAT_ID);
-    newStrat.setName(NEW_STRAT_NAME);
-    newStrat.setDescription(NEW_STRAT_DESCRIPTION);
-    newStrat.setClassName(NEW_STRAT_CLASSNAME);
-    newStrat.setConfigItems(configItems);
-
-    final StrategiesType existingStatsPlusNewOne = allTheInternalStrategiesConfig();
-    existingStatsPlusNewOne.getStrategies().add(newStrat);
-    return existingStatsPlusNewOne;
-  }
-
   private static StrategyConfig someExternalStrategyConfig() {
     final Map<String, String> configItems = new HashMap<>();
     configItems.put(BUY_PRICE_CONFIG_ITEM_KEY, BUY_PRICE_CONFIG_ITEM_VALUE);
@@ -45,6 +45,7 @@ public class RestApiConfig {
 
   public static final int DEFAULT_MAX_LINES = 1000;
   public static final int DEFAULT_MAX_DOWNLOAD_SIZE = 1024 * 1024;
+  public static final int DEFAULT_LOGFILE_STREAM_DURATION = 300;
   private static final Logger LOG = LogManager.getLogger();
 
   @NotNull
@@ -55,6 +56,10 @@ public class RestApiConfig {
   @Min(1)
   private int maxLogfileDownloadSize;
 
+  @NotNull
+  @Min(1)
+  private int logfileStreamDuration;
+
   /**
    * Returns the max logfile size (in bytes) to be returned by the REST API.
    *
@@ -102,4 +107,29 @@ public class RestApiConfig {
   public void setMaxLogfileDownloadSize(int maxLogfileDownloadSize) {
     this.maxLogfileDownloadSize = maxLogfileDownloadSize;
   }
+
+  /**
+   * Returns how long (in seconds) a logfile stream is kept open before the client has to
+   * reconnect.
+   *
+   * <p>It is specified in the application.properties file: crypto.restapi.logfileStreamDuration
+   *
+   * @return the logfile stream duration in seconds.
+   */
+  public int getLogfileStreamDuration() {
+    if (logfileStreamDuration == 0) {
+      LOG.warn(
+          () ->
+              "crypto.restapi.logfileStreamDuration not set in application.properties file. "
+                  + "Defaulting to: "
+                  + DEFAULT_LOGFILE_STREAM_DURATION
+                  + " seconds");
+      logfileStreamDuration = DEFAULT_LOGFILE_STREAM_DURATION;
+    }
+    return logfileStreamDuration;
+  }
+
+  public void setLogfileStreamDuration(int logfileStreamDuration) {
+    this.logfileStreamDuration = logfileStreamDuration;
+  }
 }
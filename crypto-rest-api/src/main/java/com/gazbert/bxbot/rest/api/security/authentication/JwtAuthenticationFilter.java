@@ -24,10 +24,13 @@
 
 package com.gazbert.crypto.rest.api.security.authentication;
 
+import com.gazbert.crypto.rest.api.security.jwt.JwtUser;
 import com.gazbert.crypto.rest.api.security.jwt.JwtUtils;
 import io.jsonwebtoken.Claims;
 import java.io.IOException;
 import java.text.MessageFormat;
+import java.util.Date;
+import java.util.List;
 import javax.servlet.FilterChain;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -35,7 +38,9 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -45,6 +50,12 @@ import org.springframework.web.filter.OncePerRequestFilter;
  * <p>If no JWT is present, the next filter in the Spring Security filter chain is invoked.
  *
  * <p>The filter is invoked once for every request to validate the JWT - we don't use sessions.
+ * Validated JWTs are cached until they expire, so a client polling with the same JWT does not have
+ * its signature verified on every request.
+ *
+ * <p>A JWT issued before the user's last password reset is rejected, even if it is cached. The
+ * user's current reset date is looked up through the {@link UserDetailsService} on every request;
+ * the users are cached there, so this does not need a database lookup each time.
  *
  * <p>Code originated from the excellent JWT and Spring Boot example by Stephan Zerhusen:
  * https://github.com/szerhusenBC/jwt-spring-security-demo
@@ -58,7 +69,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
   private static final String BEARER_PREFIX = "Bearer ";
   private static final int BEARER_PREFIX_LENGTH = BEARER_PREFIX.length();
 
+  private static final int MAX_CACHED_TOKENS = 1000;
+
+  private final ValidatedTokenCache validatedTokenCache =
+      new ValidatedTokenCache(MAX_CACHED_TOKENS, System::currentTimeMillis);
   private JwtUtils jwtUtils;
+  private UserDetailsService userDetailsService;
 
   @Override
   protected void doFilterInternal(
@@ -74,21 +90,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
       // Might be null if client does not have a token yet.
       if (authorizationHeader != null) {
-        final Claims claims = jwtUtils.validateTokenAndGetClaims(authorizationHeader);
-        LOG.info(() -> "JWT is valid");
-        final String username = jwtUtils.getUsernameFromTokenClaims(claims);
-        LOG.info(() -> "Username in JWT: " + username);
+        final ValidatedTokenCache.ValidatedToken validatedToken =
+            getValidatedToken(authorizationHeader);
+        final String username = validatedToken.getUsername();
 
         if (SecurityContextHolder.getContext().getAuthentication() == null) {
           // First time in - store user details in Spring's Security context
           final UsernamePasswordAuthenticationToken authentication =
-              new UsernamePasswordAuthenticationToken(
-                  username, null, jwtUtils.getRolesFromTokenClaims(claims));
+              new UsernamePasswordAuthenticationToken(username, null, validatedToken.getRoles());
 
           authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
           SecurityContextHolder.getContext().setAuthentication(authentication);
 
-          LOG.info(
+          LOG.debug(
               () -> "Authenticated User: " + username + " has been set in Spring SecurityContext.");
         }
       }
@@ -102,8 +116,56 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
   }
 
+  /*
+   * Returns the JWT from the cache if it has been validated before, else validates it and caches
+   * it until it stops validating. The password reset date in the JWT's claims is the one from when
+   * it was created, so either way it is checked against the user's current one.
+   */
+  private ValidatedTokenCache.ValidatedToken getValidatedToken(String token) {
+    ValidatedTokenCache.ValidatedToken validatedToken = validatedTokenCache.get(token);
+    if (validatedToken != null) {
+      final String username = validatedToken.getUsername();
+      LOG.debug(() -> "JWT was validated before. Username in JWT: " + username);
+    } else {
+      final Claims claims = jwtUtils.validateTokenAndGetClaims(token);
+      LOG.debug(() -> "JWT is valid");
+      final String username = jwtUtils.getUsernameFromTokenClaims(claims);
+      LOG.debug(() -> "Username in JWT: " + username);
+      final List<GrantedAuthority> roles = jwtUtils.getRolesFromTokenClaims(claims);
+
+      final Date issuedAt = jwtUtils.getIssuedAtDateFromTokenClaims(claims);
+      final Date validUntil = jwtUtils.getValidUntilDateFromTokenClaims(claims);
+      validatedToken =
+          new ValidatedTokenCache.ValidatedToken(
+              username,
+              roles,
+              issuedAt != null ? issuedAt.getTime() : 0,
+              validUntil != null ? validUntil.getTime() : Long.MAX_VALUE);
+      validatedTokenCache.put(token, validatedToken);
+    }
+
+    final JwtUser user =
+        (JwtUser) userDetailsService.loadUserByUsername(validatedToken.getUsername());
+    if (validatedToken.getIssuedAt() <= user.getLastPasswordResetDate()) {
+      final String errorMsg =
+          "Invalid token! Created date is before last password reset date."
+              + " Created date: "
+              + new Date(validatedToken.getIssuedAt())
+              + " Password reset date: "
+              + new Date(user.getLastPasswordResetDate());
+      LOG.error(errorMsg);
+      throw new JwtAuthenticationException(errorMsg);
+    }
+    return validatedToken;
+  }
+
   @Autowired
   public void setJwtUtils(JwtUtils jwtUtils) {
     this.jwtUtils = jwtUtils;
   }
+
+  @Autowired
+  public void setUserDetailsService(UserDetailsService userDetailsService) {
+    this.userDetailsService = userDetailsService;
+  }
 }
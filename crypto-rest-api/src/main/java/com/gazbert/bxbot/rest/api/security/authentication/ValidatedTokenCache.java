@@ -0,0 +1,150 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.rest.api.security.authentication;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * A bounded cache of the JWTs that have been validated, so a client sending the same JWT on every
+ * request only has its signature verified once.
+ *
+ * <p>Entries are keyed by a SHA-256 digest of the JWT, so the JWTs themselves are not kept. An
+ * entry is only used until the JWT's expiration date plus the allowed clock skew - the same point
+ * the JWT stops validating - and the least recently used entries are evicted when the cache is
+ * full. JWTs that fail validation are never cached. Each entry keeps the JWT's issued at date, so
+ * a cached JWT can still be checked against the user's latest password reset.
+ *
+ * @author gazbert
+ */
+final class ValidatedTokenCache {
+
+  private final int maxSize;
+  private final LongSupplier clock;
+  private final Map<String, ValidatedToken> validatedTokens;
+
+  /**
+   * Creates a new ValidatedTokenCache.
+   *
+   * @param maxSize the max number of JWTs to cache.
+   * @param clock supplies the current time in millis since the epoch.
+   */
+  ValidatedTokenCache(int maxSize, LongSupplier clock) {
+    this.maxSize = maxSize;
+    this.clock = clock;
+    this.validatedTokens = new LinkedHashMap<>(16, 0.75f, true); // access order, so LRU first
+  }
+
+  /**
+   * Returns a validated JWT.
+   *
+   * @param token the JWT in String format.
+   * @return the validated JWT, or null if it is not cached or no longer valid.
+   */
+  synchronized ValidatedToken get(String token) {
+    final String digest = digestOf(token);
+    final ValidatedToken validatedToken = validatedTokens.get(digest);
+    if (validatedToken != null && clock.getAsLong() > validatedToken.validUntil) {
+      validatedTokens.remove(digest);
+      return null;
+    }
+    return validatedToken;
+  }
+
+  /**
+   * Caches a validated JWT. It is not cached if it has already stopped validating.
+   *
+   * @param token the JWT in String format.
+   * @param validatedToken the username and Roles in the JWT.
+   */
+  synchronized void put(String token, ValidatedToken validatedToken) {
+    if (validatedToken.validUntil < clock.getAsLong()) {
+      return;
+    }
+    validatedTokens.put(digestOf(token), validatedToken);
+    if (validatedTokens.size() > maxSize) {
+      final Iterator<String> leastRecentlyUsed = validatedTokens.keySet().iterator();
+      leastRecentlyUsed.next();
+      leastRecentlyUsed.remove();
+    }
+  }
+
+  synchronized int size() {
+    return validatedTokens.size();
+  }
+
+  private static String digestOf(String token) {
+    try {
+      final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+      return Base64.getEncoder()
+          .encodeToString(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+    }
+  }
+
+  /** The username, Roles and issued at date in a validated JWT. */
+  static final class ValidatedToken {
+
+    private final String username;
+    private final List<GrantedAuthority> roles;
+    private final long issuedAt;
+    private final long validUntil;
+
+    /**
+     * Creates a new ValidatedToken.
+     *
+     * @param username the username in the JWT.
+     * @param roles the user's Roles in the JWT.
+     * @param issuedAt the time the JWT was issued, in millis since the epoch.
+     * @param validUntil the time the JWT stops validating, in millis since the epoch.
+     */
+    ValidatedToken(String username, List<GrantedAuthority> roles, long issuedAt, long validUntil) {
+      this.username = username;
+      this.roles = List.copyOf(roles);
+      this.issuedAt = issuedAt;
+      this.validUntil = validUntil;
+    }
+
+    String getUsername() {
+      return username;
+    }
+
+    List<GrantedAuthority> getRoles() {
+      return roles;
+    }
+
+    long getIssuedAt() {
+      return issuedAt;
+    }
+  }
+}
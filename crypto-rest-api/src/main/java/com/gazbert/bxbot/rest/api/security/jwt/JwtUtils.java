@@ -225,7 +225,28 @@ public class JwtUtils {
     }
   }
 
-  Date getIssuedAtDateFromTokenClaims(Claims claims) {
+  /**
+   * Returns the date after which the JWT no longer validates: its expiration date plus the allowed
+   * clock skew.
+   *
+   * @param claims the JWT claims.
+   * @return the date the JWT is valid until, or null if it does not expire.
+   */
+  public Date getValidUntilDateFromTokenClaims(Claims claims) {
+    final Date expirationDate = getExpirationDateFromTokenClaims(claims);
+    if (expirationDate == null) {
+      return null;
+    }
+    return new Date(expirationDate.getTime() + (allowedClockSkewInSecs * 1000));
+  }
+
+  /**
+   * Extracts the date the JWT was issued from the JWT claims.
+   *
+   * @param claims the JWT claims.
+   * @return the date the JWT was issued.
+   */
+  public Date getIssuedAtDateFromTokenClaims(Claims claims) {
     return claims.getIssuedAt();
   }
 
@@ -24,6 +24,7 @@
 
 package com.gazbert.crypto.rest.api.security.service;
 
+import com.gazbert.crypto.rest.api.security.jwt.JwtUser;
 import com.gazbert.crypto.rest.api.security.jwt.JwtUserFactory;
 import com.gazbert.crypto.rest.api.security.model.User;
 import com.gazbert.crypto.rest.api.security.repository.UserRepository;
@@ -36,20 +37,35 @@ import org.springframework.stereotype.Service;
 /**
  * User Details service for loading user details from the repository.
  *
+ * <p>Users are cached in the {@link UserDetailsCache}, so a burst of logins and JWT refreshes does
+ * not need a database lookup for each one.
+ *
  * @author gazbert
  */
 @Service
 public class JwtUserDetailsService implements UserDetailsService {
 
   private final UserRepository userRepository;
+  private final UserDetailsCache userDetailsCache;
 
+  /**
+   * Creates the User Details service.
+   *
+   * @param userRepository the User repository.
+   * @param userDetailsCache the cache of users loaded from the repository.
+   */
   @Autowired
-  public JwtUserDetailsService(UserRepository userRepository) {
+  public JwtUserDetailsService(UserRepository userRepository, UserDetailsCache userDetailsCache) {
     this.userRepository = userRepository;
+    this.userDetailsCache = userDetailsCache;
   }
 
   @Override
   public UserDetails loadUserByUsername(String username) {
+    return userDetailsCache.get(username, this::loadUserFromRepository);
+  }
+
+  private JwtUser loadUserFromRepository(String username) {
     final User user = userRepository.findByUsername(username);
     if (user == null) {
       throw new UsernameNotFoundException(
@@ -0,0 +1,197 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.rest.api.security.service;
+
+import com.gazbert.crypto.rest.api.security.jwt.JwtUser;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * A bounded cache of the user details loaded from the User repository, so logging in and
+ * refreshing JWTs do not need a database lookup every time.
+ *
+ * <p>Cached users expire after the time set by crypto.restapi.user_cache.ttl in the
+ * config/application.properties file, so changes made directly in the database are picked up
+ * within that time. Anything changing a user's password or Roles through the app must call {@link
+ * #evict(String)} so the change takes effect straight away. Unknown usernames are never cached.
+ *
+ * <p>The hit, miss and eviction counts and the size of the cache are published as Micrometer
+ * cache metrics - cache.gets, cache.evictions and cache.size - tagged with cache=users.
+ *
+ * @author gazbert
+ */
+@Component
+public class UserDetailsCache implements MeterBinder {
+
+  private static final Logger LOG = LogManager.getLogger();
+  private static final String CACHE_NAME = "users";
+  private static final int MAX_CACHED_USERS = 1000;
+
+  private final long ttlInMillis;
+  private final LongSupplier clock;
+  private final Map<String, CachedUser> cachedUsers = new LinkedHashMap<>(16, 0.75f, true);
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong evictionCount = new AtomicLong();
+
+  // Bumped on every explicit eviction, so a user loaded before it is not cached after it.
+  private long generation;
+
+  /**
+   * Creates the user details cache.
+   *
+   * @param ttlInSecs the time a user is cached for, in seconds.
+   */
+  @Autowired
+  public UserDetailsCache(@Value("${crypto.restapi.user_cache.ttl}") long ttlInSecs) {
+    this(ttlInSecs, System::currentTimeMillis);
+  }
+
+  UserDetailsCache(long ttlInSecs, LongSupplier clock) {
+    this.ttlInMillis = TimeUnit.SECONDS.toMillis(ttlInSecs);
+    this.clock = clock;
+  }
+
+  /**
+   * Returns a cached user, loading and caching the user if it is not cached or has expired.
+   *
+   * @param username the username.
+   * @param loader loads the user from the repository. It is called without holding the cache lock.
+   * @return the user.
+   */
+  JwtUser get(String username, Function<String, JwtUser> loader) {
+    final long loadGeneration;
+    synchronized (this) {
+      final CachedUser cachedUser = cachedUsers.get(username);
+      if (cachedUser != null && clock.getAsLong() < cachedUser.expiresAt) {
+        hitCount.incrementAndGet();
+        return cachedUser.user;
+      }
+      missCount.incrementAndGet();
+      if (cachedUser != null) {
+        cachedUsers.remove(username);
+        evictionCount.incrementAndGet();
+      }
+      loadGeneration = generation;
+    }
+
+    final JwtUser user = loader.apply(username);
+
+    synchronized (this) {
+      if (loadGeneration == generation) {
+        cachedUsers.put(username, new CachedUser(user, clock.getAsLong() + ttlInMillis));
+        if (cachedUsers.size() > MAX_CACHED_USERS) {
+          final Iterator<String> leastRecentlyUsed = cachedUsers.keySet().iterator();
+          leastRecentlyUsed.next();
+          leastRecentlyUsed.remove();
+          evictionCount.incrementAndGet();
+        }
+      }
+    }
+    return user;
+  }
+
+  /**
+   * Evicts a user from the cache. This must be called when a user's password or Roles are changed.
+   *
+   * @param username the username.
+   */
+  public synchronized void evict(String username) {
+    generation++;
+    if (cachedUsers.remove(username) != null) {
+      evictionCount.incrementAndGet();
+      LOG.info(() -> "Evicted user from cache: " + username);
+    }
+  }
+
+  /** Evicts all users from the cache. */
+  public synchronized void evictAll() {
+    generation++;
+    evictionCount.addAndGet(cachedUsers.size());
+    cachedUsers.clear();
+    LOG.info(() -> "Evicted all users from cache");
+  }
+
+  synchronized int size() {
+    return cachedUsers.size();
+  }
+
+  long getHitCount() {
+    return hitCount.get();
+  }
+
+  long getMissCount() {
+    return missCount.get();
+  }
+
+  long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("cache.gets", hitCount, AtomicLong::get)
+        .tags("cache", CACHE_NAME, "result", "hit")
+        .description("The number of times cached user details were returned")
+        .register(registry);
+    FunctionCounter.builder("cache.gets", missCount, AtomicLong::get)
+        .tags("cache", CACHE_NAME, "result", "miss")
+        .description("The number of times user details were loaded from the repository")
+        .register(registry);
+    FunctionCounter.builder("cache.evictions", evictionCount, AtomicLong::get)
+        .tags("cache", CACHE_NAME)
+        .description("The number of users evicted from the cache")
+        .register(registry);
+    Gauge.builder("cache.size", this, UserDetailsCache::size)
+        .tags("cache", CACHE_NAME)
+        .description("The number of users in the cache")
+        .register(registry);
+  }
+
+  /** A cached user and the time it expires. */
+  private static final class CachedUser {
+
+    private final JwtUser user;
+    private final long expiresAt;
+
+    CachedUser(JwtUser user, long expiresAt) {
+      this.user = user;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -27,24 +27,34 @@ import static com.gazbert.crypto.rest.api.v1.EndpointLocations.RUNTIME_ENDPOINT_
 
 import com.gazbert.crypto.rest.api.RestApiConfig;
 import com.gazbert.crypto.services.runtime.BotLogfileService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiParam;
 import java.io.IOException;
 import java.security.Principal;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
 import javax.servlet.http.HttpServletRequest;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import springfox.documentation.annotations.ApiIgnore;
 
 /**
@@ -61,14 +71,30 @@ public class BotLogfileController {
   private static final Logger LOG = LogManager.getLogger();
   private static final String LOGFILE_RESOURCE_PATH = "/logfile";
   private static final String LOGFILE_DOWNLOAD_RESOURCE_PATH = "/logfile/download";
+  private static final String LOGFILE_STREAM_RESOURCE_PATH = "/logfile/stream";
+  private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+  // a stream blocked sending to a slow client holds up only its own thread
+  private static final int LOGFILE_STREAM_THREADS = 4;
 
   private final RestApiConfig restApiConfig;
   private final BotLogfileService botLogfileService;
+  private final ScheduledExecutorService logfileStreamExecutor;
 
+  /**
+   * Creates the Bot Logfile controller.
+   *
+   * @param restApiConfig the REST API config.
+   * @param botLogfileService the Bot logfile service.
+   */
   @Autowired
   public BotLogfileController(RestApiConfig restApiConfig, BotLogfileService botLogfileService) {
     this.restApiConfig = restApiConfig;
     this.botLogfileService = botLogfileService;
+    this.logfileStreamExecutor =
+        Executors.newScheduledThreadPool(
+            LOGFILE_STREAM_THREADS,
+            new ThreadFactoryBuilder().setNameFormat("logfile-stream-%d").setDaemon(true).build());
   }
 
   /**
@@ -77,6 +103,10 @@ public class BotLogfileController {
    * <p>If the file is larger than {@link RestApiConfig#getLogfileDownloadSize()}, the end of the
    * logfile will be truncated.
    *
+   * <p>Range requests are supported, so a client can download part of the logfile, or resume a
+   * download, with a Range header. A Range header that cannot be parsed is ignored and the whole
+   * logfile is returned. The logfile is streamed from disk, not loaded into memory.
+   *
    * @param principal the authenticated user making the request.
    * @param request the request.
    * @return the logfile as a download.
@@ -100,6 +130,20 @@ public class BotLogfileController {
       return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    final String range = request.getHeader(HttpHeaders.RANGE);
+    final List<HttpRange> httpRanges = range == null ? null : parseRanges(range);
+    try {
+      final long logfileLength = logfile.contentLength();
+      if (httpRanges != null && !isSatisfiable(httpRanges, logfileLength)) {
+        LOG.warn(() -> "Cannot download logfile range: " + range + " Length: " + logfileLength);
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+            .header(HttpHeaders.CONTENT_RANGE, "bytes */" + logfileLength)
+            .build();
+      }
+    } catch (IOException e) {
+      return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
     String contentType = null;
     try {
       contentType = request.getServletContext().getMimeType(logfile.getFile().getAbsolutePath());
@@ -111,12 +155,26 @@ public class BotLogfileController {
       contentType = "application/octet-stream";
     }
 
-    return ResponseEntity.ok()
-        .contentType(MediaType.parseMediaType(contentType))
-        .header(
-            HttpHeaders.CONTENT_DISPOSITION,
-            "attachment; filename=\"" + logfile.getFilename() + "\"")
-        .body(logfile);
+    final ResponseEntity.BodyBuilder response =
+        ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(contentType))
+            .header(
+                HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + logfile.getFilename() + "\"");
+    if (range == null || httpRanges != null) {
+      return response.body(logfile);
+    }
+
+    // Spring answers a Range it cannot parse with 416, but RFC 7233 says to ignore it. Spring does
+    // not apply ranges to an InputStreamResource, so the whole logfile is sent.
+    LOG.warn(() -> "Ignoring invalid logfile range: " + range);
+    try {
+      return response
+          .contentLength(logfile.contentLength())
+          .body(new InputStreamResource(logfile.getInputStream()));
+    } catch (IOException e) {
+      return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
   }
 
   /**
@@ -195,4 +253,91 @@ public class BotLogfileController {
       return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
     }
   }
+
+  /**
+   * Streams the lines written to the logfile as Server-Sent Events.
+   *
+   * <p>Each event's id is an offset token for the logfile. A client resumes from an offset token
+   * by passing it in the Last-Event-ID header, as an EventSource does when it reconnects, or in
+   * the offset param; only the lines written after it are sent. Without one, the stream starts at
+   * the end of the logfile. If the logfile is rolled over, the stream carries on from the start of
+   * the new logfile with a rollover event.
+   *
+   * <p>The stream is completed after {@link RestApiConfig#getLogfileStreamDuration()} seconds, and
+   * the client should then reconnect.
+   *
+   * @param principal the authenticated user making the request.
+   * @param lastEventId the offset token to resume from, sent by an EventSource.
+   * @param offset the offset token to resume from.
+   * @return the logfile stream.
+   */
+  @PreAuthorize("hasRole('USER')")
+  @GetMapping(value = LOGFILE_STREAM_RESOURCE_PATH, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public ResponseEntity<SseEmitter> streamLogfile(
+      @ApiIgnore Principal principal,
+      @ApiIgnore @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false)
+          String lastEventId,
+      @ApiParam(value = "Offset token to resume the stream from.")
+          @RequestParam(required = false)
+          String offset) {
+
+    LOG.info(
+        () ->
+            "GET "
+                + LOGFILE_STREAM_RESOURCE_PATH
+                + " - streamLogfile() - caller: "
+                + principal.getName()
+                + ", lastEventId="
+                + lastEventId
+                + ", offset="
+                + offset);
+
+    final long durationMillis = TimeUnit.SECONDS.toMillis(restApiConfig.getLogfileStreamDuration());
+    // the stream completes itself; the timeout only catches a stream that failed to
+    final SseEmitter emitter = new SseEmitter(2 * durationMillis);
+    final LogfileStream logfileStream =
+        new LogfileStream(
+            botLogfileService,
+            emitter,
+            lastEventId != null ? lastEventId : offset,
+            restApiConfig.getLogfileDownloadSize(),
+            durationMillis);
+    try {
+      logfileStream.start(logfileStreamExecutor);
+      return ResponseEntity.ok(emitter);
+
+    } catch (IllegalArgumentException e) {
+      LOG.warn(() -> "Cannot stream logfile: " + e.getMessage());
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+    } catch (IOException e) {
+      LOG.error("Failed to stream logfile. Details: " + e.getMessage(), e);
+      return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  /*
+   * Returns null if the Range header cannot be parsed.
+   */
+  private static List<HttpRange> parseRanges(String range) {
+    try {
+      return HttpRange.parseRanges(range);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /*
+   * Spring serves the Range requests for a Resource, but does not reject a range starting past the
+   * end of the logfile. That has to be done here.
+   */
+  private static boolean isSatisfiable(List<HttpRange> httpRanges, long length) {
+    return httpRanges.stream().allMatch(httpRange -> httpRange.getRangeStart(length) < length);
+  }
+
+  /** Stops streaming the logfile when the bot shuts down. */
+  @PreDestroy
+  public void shutdown() {
+    logfileStreamExecutor.shutdownNow();
+  }
 }
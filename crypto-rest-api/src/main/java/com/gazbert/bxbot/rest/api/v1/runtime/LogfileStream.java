@@ -0,0 +1,149 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.rest.api.v1.runtime;
+
+import com.gazbert.crypto.services.runtime.BotLogfileService;
+import com.gazbert.crypto.services.runtime.LogfileChunk;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+/**
+ * Follows the logfile, sending the lines written to it as Server-Sent Events.
+ *
+ * <p>Every event carries the offset token of the logfile after it as its id, so a client that
+ * reconnects with the Last-Event-ID header resumes where it left off. The events are:
+ *
+ * <ul>
+ *   <li>offset - sent first, with the offset token the stream starts from as its data.
+ *   <li>log - the lines written to the logfile, one data line per logfile line. A line longer
+ *       than the max chunk size is sent in parts, one data line per part.
+ *   <li>rollover - the logfile was rolled over; the lines are from the start of the new logfile.
+ * </ul>
+ *
+ * <p>The stream is completed after its duration is up and the client reconnects, so a stream is
+ * never held open forever by a client that has gone away without closing it.
+ *
+ * @author gazbert
+ */
+class LogfileStream implements Runnable {
+
+  static final String OFFSET_EVENT = "offset";
+  static final String LOG_EVENT = "log";
+  static final String ROLLOVER_EVENT = "rollover";
+
+  private static final Logger LOG = LogManager.getLogger();
+  private static final long POLL_INTERVAL_MILLIS = 1000;
+  private static final int MAX_CHUNKS_PER_POLL = 10;
+
+  private final BotLogfileService botLogfileService;
+  private final SseEmitter emitter;
+  private final int maxChunkSize;
+  private final long endTime;
+  private String offsetToken;
+  private volatile ScheduledFuture<?> poller;
+
+  LogfileStream(
+      BotLogfileService botLogfileService,
+      SseEmitter emitter,
+      String offsetToken,
+      int maxChunkSize,
+      long durationMillis) {
+    this.botLogfileService = botLogfileService;
+    this.emitter = emitter;
+    this.offsetToken = offsetToken;
+    this.maxChunkSize = maxChunkSize;
+    this.endTime = System.currentTimeMillis() + durationMillis;
+  }
+
+  /*
+   * Sends the offset event and starts polling the logfile. If the client's offset token is not
+   * valid, the IllegalArgumentException is thrown before anything is sent.
+   */
+  synchronized void start(ScheduledExecutorService executor) throws IOException {
+    final LogfileChunk firstChunk = botLogfileService.getLogfileChunk(offsetToken, maxChunkSize);
+    final String startToken = offsetToken == null ? firstChunk.getOffsetToken() : offsetToken;
+    emitter.send(SseEmitter.event().id(startToken).name(OFFSET_EVENT).data(startToken));
+    send(firstChunk);
+
+    emitter.onCompletion(this::stop);
+    emitter.onTimeout(this::stop);
+    poller =
+        executor.scheduleWithFixedDelay(
+            this, POLL_INTERVAL_MILLIS, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public synchronized void run() {
+    try {
+      for (int i = 0; i < MAX_CHUNKS_PER_POLL; i++) {
+        if (!send(botLogfileService.getLogfileChunk(offsetToken, maxChunkSize))) {
+          break;
+        }
+      }
+      if (System.currentTimeMillis() >= endTime) {
+        stop();
+        emitter.complete();
+      }
+    } catch (IOException | RuntimeException e) {
+      // usually the client has gone away
+      LOG.debug(() -> "Stopped streaming logfile: " + e.getMessage());
+      stop();
+      emitter.completeWithError(e);
+    }
+  }
+
+  private boolean send(LogfileChunk chunk) throws IOException {
+    offsetToken = chunk.getOffsetToken();
+    final String content = chunk.getContent();
+    if (content.isEmpty() && !chunk.isRolledOver()) {
+      return false;
+    }
+    final SseEventBuilder event =
+        SseEmitter.event()
+            .id(chunk.getOffsetToken())
+            .name(chunk.isRolledOver() ? ROLLOVER_EVENT : LOG_EVENT);
+    // each line needs its own data field, as a blank line ends the event. A chunk only ends
+    // without a line break when it holds part of a line too long for one chunk; that part is sent
+    // too, as the offset token has already moved past it.
+    final String[] lines = content.split("\\r?\\n", -1);
+    final int lineCount = lines[lines.length - 1].isEmpty() ? lines.length - 1 : lines.length;
+    Arrays.stream(lines, 0, lineCount).forEach(event::data);
+    emitter.send(event);
+    return !content.isEmpty();
+  }
+
+  private void stop() {
+    final ScheduledFuture<?> scheduledPoller = poller;
+    if (scheduledPoller != null) {
+      scheduledPoller.cancel(false);
+    }
+  }
+}
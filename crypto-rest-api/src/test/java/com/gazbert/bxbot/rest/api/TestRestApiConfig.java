@@ -36,6 +36,7 @@ public class TestRestApiConfig {
 
   private static final int MAX_LOGFILE_LINES = 1000;
   private static final int MAX_LOGFILE_DOWNLOAD_SIZE = 2 * 1048;
+  private static final int LOGFILE_STREAM_DURATION = 60;
 
   @Test
   public void testMaxLogfileLinesCanBeSetAndFetched() {
@@ -66,4 +67,19 @@ public class TestRestApiConfig {
     assertThat(restApiConfig.getLogfileDownloadSize())
         .isEqualTo(RestApiConfig.DEFAULT_MAX_DOWNLOAD_SIZE);
   }
+
+  @Test
+  public void testLogfileStreamDurationCanBeSetAndFetched() {
+    final RestApiConfig restApiConfig = new RestApiConfig();
+    restApiConfig.setLogfileStreamDuration(LOGFILE_STREAM_DURATION);
+    assertThat(restApiConfig.getLogfileStreamDuration()).isEqualTo(LOGFILE_STREAM_DURATION);
+  }
+
+  @Test
+  public void testLogfileStreamDurationDefaultFallback() {
+    final RestApiConfig restApiConfig = new RestApiConfig();
+    restApiConfig.setLogfileStreamDuration(0);
+    assertThat(restApiConfig.getLogfileStreamDuration())
+        .isEqualTo(RestApiConfig.DEFAULT_LOGFILE_STREAM_DURATION);
+  }
 }
@@ -23,6 +23,7 @@
 
 package com.gazbert.crypto.rest.api.security.authentication;
 
+import static org.assertj.core.api.Java6Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -30,8 +31,11 @@ import static org.mockito.Mockito.when;
 
 import com.gazbert.crypto.core.engine.TradingEngine;
 import com.gazbert.crypto.core.mail.EmailAlerter;
+import com.gazbert.crypto.rest.api.security.jwt.JwtUser;
 import com.gazbert.crypto.rest.api.security.jwt.JwtUtils;
 import io.jsonwebtoken.Claims;
+import java.util.Collections;
+import java.util.Date;
 import javax.servlet.FilterChain;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -44,6 +48,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.cloud.context.restart.RestartEndpoint;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.test.context.junit4.SpringRunner;
 
 /**
@@ -58,12 +63,14 @@ public class TestJwtAuthenticationFilter {
   private static final String AUTHORIZATION_HEADER = "Authorization";
   private static final String BEARER_PREFIX = "Bearer ";
   private static final String USERNAME = "bobafett";
+  private static final long TOKEN_ISSUED_AT = 1_500_000_000_000L;
 
   @MockBean private HttpServletRequest request;
   @MockBean private HttpServletResponse response;
   @MockBean private FilterChain filterChain;
   @MockBean private JwtUtils jwtUtils;
   @MockBean private Claims claims;
+  @MockBean private UserDetailsService userDetailsService;
 
   // Need these even though not used in the test directly because Spring loads them on startup...
   @MockBean private EmailAlerter emailAlerter;
@@ -74,10 +81,16 @@ public class TestJwtAuthenticationFilter {
 
   private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+  /** Unless a test says otherwise, the user's password was last reset before the JWT was issued. */
   @Before
   public void setup() {
     jwtAuthenticationFilter = new JwtAuthenticationFilter();
     jwtAuthenticationFilter.setJwtUtils(jwtUtils);
+    jwtAuthenticationFilter.setUserDetailsService(userDetailsService);
+
+    when(jwtUtils.getIssuedAtDateFromTokenClaims(any())).thenReturn(new Date(TOKEN_ISSUED_AT));
+    when(userDetailsService.loadUserByUsername(any()))
+        .thenReturn(createUserWithLastPasswordResetDate(TOKEN_ISSUED_AT - 1));
   }
 
   @Test
@@ -100,6 +113,87 @@ public class TestJwtAuthenticationFilter {
     verify(filterChain, times(1)).doFilter(request, response);
   }
 
+  @Test
+  public void whenFilterCalledWithSameValidTokenAgainThenExpectTokenNotToBeValidatedAgain()
+      throws Exception {
+
+    SecurityContextHolder.getContext().setAuthentication(null);
+
+    when(request.getHeader(AUTHORIZATION_HEADER)).thenReturn(BEARER_PREFIX + "dummy-token");
+    when(jwtUtils.validateTokenAndGetClaims((any()))).thenReturn(claims);
+    when(jwtUtils.getUsernameFromTokenClaims((any()))).thenReturn(USERNAME);
+    when(jwtUtils.getValidUntilDateFromTokenClaims((any())))
+        .thenReturn(new Date(System.currentTimeMillis() + 60_000L));
+
+    jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+    SecurityContextHolder.getContext().setAuthentication(null);
+    jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+    assertThat(SecurityContextHolder.getContext().getAuthentication().getName())
+        .isEqualTo(USERNAME);
+    verify(jwtUtils, times(1)).validateTokenAndGetClaims(any());
+    verify(jwtUtils, times(1)).getUsernameFromTokenClaims(any());
+    verify(jwtUtils, times(1)).getRolesFromTokenClaims(any());
+    verify(filterChain, times(2)).doFilter(request, response);
+  }
+
+  @Test
+  public void whenFilterCalledWithExpiredTokenAgainThenExpectTokenToBeValidatedAgain()
+      throws Exception {
+
+    when(request.getHeader(AUTHORIZATION_HEADER)).thenReturn(BEARER_PREFIX + "dummy-token");
+    when(jwtUtils.validateTokenAndGetClaims((any()))).thenReturn(claims);
+    when(jwtUtils.getUsernameFromTokenClaims((any()))).thenReturn(USERNAME);
+    when(jwtUtils.getValidUntilDateFromTokenClaims((any())))
+        .thenReturn(new Date(System.currentTimeMillis() - 1L));
+
+    jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+    jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+    verify(jwtUtils, times(2)).validateTokenAndGetClaims(any());
+    verify(filterChain, times(2)).doFilter(request, response);
+  }
+
+  @Test
+  public void whenFilterCalledWithTokenCreatedBeforeLastPasswordResetThenExpectUnauthorized()
+      throws Exception {
+    when(request.getHeader(AUTHORIZATION_HEADER)).thenReturn(BEARER_PREFIX + "dummy-token");
+    when(jwtUtils.validateTokenAndGetClaims((any()))).thenReturn(claims);
+    when(jwtUtils.getUsernameFromTokenClaims((any()))).thenReturn(USERNAME);
+    when(userDetailsService.loadUserByUsername(USERNAME))
+        .thenReturn(createUserWithLastPasswordResetDate(TOKEN_ISSUED_AT));
+
+    jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+    verify(response, times(1)).sendError(HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized");
+    verify(filterChain, times(0)).doFilter(request, response);
+  }
+
+  @Test
+  public void whenFilterCalledWithCachedTokenAfterPasswordResetThenExpectUnauthorized()
+      throws Exception {
+
+    SecurityContextHolder.getContext().setAuthentication(null);
+
+    when(request.getHeader(AUTHORIZATION_HEADER)).thenReturn(BEARER_PREFIX + "cached-token");
+    when(jwtUtils.validateTokenAndGetClaims((any()))).thenReturn(claims);
+    when(jwtUtils.getUsernameFromTokenClaims((any()))).thenReturn(USERNAME);
+    when(jwtUtils.getValidUntilDateFromTokenClaims((any())))
+        .thenReturn(new Date(System.currentTimeMillis() + 60_000L));
+
+    jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+    verify(filterChain, times(1)).doFilter(request, response);
+
+    // the password is reset while the token is cached
+    when(userDetailsService.loadUserByUsername(USERNAME))
+        .thenReturn(createUserWithLastPasswordResetDate(TOKEN_ISSUED_AT + 1));
+    jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+    verify(jwtUtils, times(1)).validateTokenAndGetClaims(any());
+    verify(response, times(1)).sendError(HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized");
+    verify(filterChain, times(1)).doFilter(request, response);
+  }
+
   @Test
   public void whenFilterCalledWithoutAuthorizationHeaderThenCallNextFilter()
       throws Exception {
@@ -149,4 +243,18 @@ public class TestJwtAuthenticationFilter {
     verify(jwtUtils, times(1)).validateTokenAndGetClaims(any());
     verify(filterChain, times(1)).doFilter(request, response);
   }
+
+  private static JwtUser createUserWithLastPasswordResetDate(long lastPasswordResetDate) {
+    return new JwtUser(
+        1L,
+        USERNAME,
+        "Boba",
+        "Fett",
+        "password",
+        "bobafett@example.com",
+        true,
+        lastPasswordResetDate,
+        Collections.emptyList(),
+        Collections.emptyList());
+  }
 }
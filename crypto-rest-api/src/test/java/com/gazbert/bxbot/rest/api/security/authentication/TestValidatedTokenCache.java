@@ -0,0 +1,99 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.rest.api.security.authentication;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+import com.gazbert.crypto.rest.api.security.authentication.ValidatedTokenCache.ValidatedToken;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Tests the validated JWT cache behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestValidatedTokenCache {
+
+  private static final String TOKEN = "header.payload.signature";
+  private static final String ANOTHER_TOKEN = "header.another-payload.signature";
+  private static final String USERNAME = "bobafett";
+  private static final long ISSUED_AT = 500L;
+  private static final List<GrantedAuthority> ROLES =
+      Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
+
+  private long now;
+  private ValidatedTokenCache validatedTokenCache;
+
+  @Before
+  public void setup() {
+    now = 1_000L;
+    validatedTokenCache = new ValidatedTokenCache(2, () -> now);
+  }
+
+  @Test
+  public void testValidatedTokenIsReturnedUntilItStopsValidating() {
+    validatedTokenCache.put(TOKEN, new ValidatedToken(USERNAME, ROLES, ISSUED_AT, 2_000L));
+
+    final ValidatedToken validatedToken = validatedTokenCache.get(TOKEN);
+    assertThat(validatedToken.getUsername()).isEqualTo(USERNAME);
+    assertThat(validatedToken.getRoles()).isEqualTo(ROLES);
+    assertThat(validatedToken.getIssuedAt()).isEqualTo(ISSUED_AT);
+    assertThat(validatedTokenCache.get(ANOTHER_TOKEN)).isNull();
+
+    now = 2_000L;
+    assertThat(validatedTokenCache.get(TOKEN)).isNotNull();
+
+    now = 2_001L;
+    assertThat(validatedTokenCache.get(TOKEN)).isNull();
+    assertThat(validatedTokenCache.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void testTokenThatHasStoppedValidatingIsNotCached() {
+    validatedTokenCache.put(TOKEN, new ValidatedToken(USERNAME, ROLES, ISSUED_AT, 999L));
+
+    assertThat(validatedTokenCache.size()).isEqualTo(0);
+    assertThat(validatedTokenCache.get(TOKEN)).isNull();
+  }
+
+  @Test
+  public void testLeastRecentlyUsedTokenIsEvictedWhenFull() {
+    final String thirdToken = "header.third-payload.signature";
+    validatedTokenCache.put(TOKEN, new ValidatedToken(USERNAME, ROLES, ISSUED_AT, 2_000L));
+    validatedTokenCache.put(ANOTHER_TOKEN, new ValidatedToken(USERNAME, ROLES, ISSUED_AT, 2_000L));
+    validatedTokenCache.get(TOKEN);
+
+    validatedTokenCache.put(thirdToken, new ValidatedToken(USERNAME, ROLES, ISSUED_AT, 2_000L));
+
+    assertThat(validatedTokenCache.size()).isEqualTo(2);
+    assertThat(validatedTokenCache.get(TOKEN)).isNotNull();
+    assertThat(validatedTokenCache.get(ANOTHER_TOKEN)).isNull();
+    assertThat(validatedTokenCache.get(thirdToken)).isNotNull();
+  }
+}
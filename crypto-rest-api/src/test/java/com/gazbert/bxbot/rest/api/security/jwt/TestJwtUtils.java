@@ -132,6 +132,20 @@ public class TestJwtUtils {
     verify(claims, times(1)).getExpiration();
   }
 
+  @Test
+  public void testValidUntilDateIncludesAllowedClockSkew() {
+    when(claims.getExpiration()).thenReturn(EXPIRATION_DATE);
+    assertThat(jwtUtils.getValidUntilDateFromTokenClaims(claims))
+        .isEqualTo(
+            new Date(EXPIRATION_DATE.getTime() + (ALLOWED_CLOCK_SKEW_IN_SECS * 1000)));
+  }
+
+  @Test
+  public void testValidUntilDateIsNullIfTokenDoesNotExpire() {
+    when(claims.getExpiration()).thenReturn(null);
+    assertThat(jwtUtils.getValidUntilDateFromTokenClaims(claims)).isNull();
+  }
+
   @Test
   public void testRolesCanBeExtractedFromTokenClaims() {
     when(claims.get(JwtUtils.CLAIM_KEY_ROLES)).thenReturn(ROLES);
@@ -26,6 +26,7 @@ package com.gazbert.crypto.rest.api.security.service;
 import static org.easymock.EasyMock.eq;
 import static org.easymock.EasyMock.expect;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 import com.gazbert.crypto.rest.api.security.jwt.JwtUser;
 import com.gazbert.crypto.rest.api.security.jwt.JwtUserFactory;
@@ -36,6 +37,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.powermock.api.easymock.PowerMock;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -46,17 +48,30 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
  * @author gazbert
  */
 @RunWith(PowerMockRunner.class)
+@PowerMockIgnore({
+    "javax.crypto.*",
+    "javax.management.*",
+    "com.sun.org.apache.xerces.*",
+    "javax.xml.parsers.*",
+    "org.xml.sax.*",
+    "org.w3c.dom.*",
+    "javax.xml.datatype.*"
+})
 @PrepareForTest({JwtUserFactory.class})
 public class TestJwtUserDetailsService {
 
   private static final String KNOWN_USERNAME = "known-username";
   private static final String UNKNOWN_USERNAME = "unknown-username";
 
+  private static final long USER_CACHE_TTL_IN_SECS = 300;
+
   private UserRepository userRepository;
+  private UserDetailsCache userDetailsCache;
 
   @Before
   public void setup() {
     userRepository = PowerMock.createMock(UserRepository.class);
+    userDetailsCache = new UserDetailsCache(USER_CACHE_TTL_IN_SECS);
   }
 
   @Test
@@ -69,19 +84,62 @@ public class TestJwtUserDetailsService {
     expect(JwtUserFactory.create(eq(user))).andStubReturn(jwtUser);
     PowerMock.replayAll();
 
-    final JwtUserDetailsService jwtUserDetailsService = new JwtUserDetailsService(userRepository);
+    final JwtUserDetailsService jwtUserDetailsService =
+        new JwtUserDetailsService(userRepository, userDetailsCache);
     final JwtUser userDetails = (JwtUser) jwtUserDetailsService.loadUserByUsername(KNOWN_USERNAME);
     assertEquals(jwtUser, userDetails);
 
     PowerMock.verifyAll();
   }
 
+  @Test
+  public void whenLoadByUsernameCalledAgainThenExpectCachedUserDetailsToBeReturned() {
+    PowerMock.mockStatic(JwtUserFactory.class);
+    final User user = PowerMock.createMock(User.class);
+    final JwtUser jwtUser = EasyMock.createMock(JwtUser.class);
+
+    expect(userRepository.findByUsername(KNOWN_USERNAME)).andReturn(user).times(2);
+    expect(JwtUserFactory.create(eq(user))).andReturn(jwtUser).times(2);
+    PowerMock.replayAll();
+
+    final JwtUserDetailsService jwtUserDetailsService =
+        new JwtUserDetailsService(userRepository, userDetailsCache);
+    assertEquals(jwtUser, jwtUserDetailsService.loadUserByUsername(KNOWN_USERNAME));
+    assertEquals(jwtUser, jwtUserDetailsService.loadUserByUsername(KNOWN_USERNAME));
+
+    // e.g. after the user's password is changed
+    userDetailsCache.evict(KNOWN_USERNAME);
+    assertEquals(jwtUser, jwtUserDetailsService.loadUserByUsername(KNOWN_USERNAME));
+
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  public void whenLoadByUsernameCalledWithUnknownUsernameThenExpectItNotToBeCached() {
+    expect(userRepository.findByUsername(UNKNOWN_USERNAME)).andReturn(null).times(2);
+    PowerMock.replayAll();
+
+    final JwtUserDetailsService jwtUserDetailsService =
+        new JwtUserDetailsService(userRepository, userDetailsCache);
+    for (int i = 0; i < 2; i++) {
+      try {
+        jwtUserDetailsService.loadUserByUsername(UNKNOWN_USERNAME);
+        fail("Expected UsernameNotFoundException");
+      } catch (UsernameNotFoundException e) {
+        // expected
+      }
+    }
+
+    PowerMock.verifyAll();
+  }
+
   @Test(expected = UsernameNotFoundException.class)
   public void whenLoadByUsernameCalledWithUnknownUsernameThenExpectUsernameNotFoundException() {
     expect(userRepository.findByUsername(UNKNOWN_USERNAME)).andStubReturn(null);
     PowerMock.replayAll();
 
-    final JwtUserDetailsService jwtUserDetailsService = new JwtUserDetailsService(userRepository);
+    final JwtUserDetailsService jwtUserDetailsService =
+        new JwtUserDetailsService(userRepository, userDetailsCache);
     jwtUserDetailsService.loadUserByUsername(UNKNOWN_USERNAME);
 
     PowerMock.verifyAll();
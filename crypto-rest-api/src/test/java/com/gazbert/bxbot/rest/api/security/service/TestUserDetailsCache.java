@@ -0,0 +1,166 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.rest.api.security.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.gazbert.crypto.rest.api.security.jwt.JwtUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the user details cache behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestUserDetailsCache {
+
+  private static final String USERNAME = "boba-fett";
+  private static final String ANOTHER_USERNAME = "jango-fett";
+  private static final long TTL_IN_SECS = 60;
+
+  private long now;
+  private List<String> loadedUsernames;
+  private Function<String, JwtUser> loader;
+  private UserDetailsCache userDetailsCache;
+
+  /** Creates a cache with a loader that records the usernames it loads. */
+  @Before
+  public void setup() {
+    now = 1_000L;
+    loadedUsernames = new ArrayList<>();
+    loader =
+        username -> {
+          loadedUsernames.add(username);
+          return EasyMock.createMock(JwtUser.class);
+        };
+    userDetailsCache = new UserDetailsCache(TTL_IN_SECS, () -> now);
+  }
+
+  @Test
+  public void testUserIsLoadedOnceUntilItExpires() {
+    final JwtUser user = userDetailsCache.get(USERNAME, loader);
+    assertSame(user, userDetailsCache.get(USERNAME, loader));
+
+    now += TTL_IN_SECS * 1000 - 1;
+    assertSame(user, userDetailsCache.get(USERNAME, loader));
+    assertEquals(1, loadedUsernames.size());
+
+    now += 1;
+    userDetailsCache.get(USERNAME, loader);
+    assertEquals(2, loadedUsernames.size());
+
+    assertEquals(2, userDetailsCache.getHitCount());
+    assertEquals(2, userDetailsCache.getMissCount());
+    assertEquals(1, userDetailsCache.getEvictionCount());
+  }
+
+  @Test
+  public void testEvictedUserIsLoadedAgain() {
+    userDetailsCache.get(USERNAME, loader);
+    userDetailsCache.get(ANOTHER_USERNAME, loader);
+
+    userDetailsCache.evict(USERNAME);
+    userDetailsCache.evict(USERNAME);
+    assertEquals(1, userDetailsCache.size());
+    userDetailsCache.get(USERNAME, loader);
+    userDetailsCache.get(ANOTHER_USERNAME, loader);
+    assertEquals(3, loadedUsernames.size());
+
+    userDetailsCache.evictAll();
+    assertEquals(0, userDetailsCache.size());
+    userDetailsCache.get(ANOTHER_USERNAME, loader);
+    assertEquals(4, loadedUsernames.size());
+    assertEquals(3, userDetailsCache.getEvictionCount());
+  }
+
+  @Test
+  public void testUserLoadedWhileBeingEvictedIsNotCached() {
+    userDetailsCache.get(
+        USERNAME,
+        username -> {
+          userDetailsCache.evict(username); // e.g. password changed during the lookup
+          return loader.apply(username);
+        });
+
+    assertEquals(0, userDetailsCache.size());
+    userDetailsCache.get(USERNAME, loader);
+    assertEquals(2, loadedUsernames.size());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedUserIsEvictedWhenFull() {
+    for (int i = 0; i < 1000; i++) {
+      userDetailsCache.get("user-" + i, loader);
+    }
+    userDetailsCache.get("user-0", loader);
+
+    userDetailsCache.get(USERNAME, loader);
+
+    assertEquals(1000, userDetailsCache.size());
+    assertEquals(1, userDetailsCache.getEvictionCount());
+    userDetailsCache.get("user-0", loader);
+    assertEquals(1001, loadedUsernames.size());
+    userDetailsCache.get("user-1", loader);
+    assertEquals(1002, loadedUsernames.size());
+  }
+
+  @Test
+  public void testCacheMetricsArePublished() {
+    final MeterRegistry registry = new SimpleMeterRegistry();
+    userDetailsCache.bindTo(registry);
+
+    userDetailsCache.get(USERNAME, loader);
+    userDetailsCache.get(USERNAME, loader);
+    userDetailsCache.get(USERNAME, loader);
+    userDetailsCache.evict(USERNAME);
+
+    assertEquals(
+        2.0,
+        registry
+            .get("cache.gets")
+            .tags("cache", "users", "result", "hit")
+            .functionCounter()
+            .count(),
+        0);
+    assertEquals(
+        1.0,
+        registry
+            .get("cache.gets")
+            .tags("cache", "users", "result", "miss")
+            .functionCounter()
+            .count(),
+        0);
+    assertEquals(
+        1.0, registry.get("cache.evictions").tag("cache", "users").functionCounter().count(), 0);
+    assertEquals(0.0, registry.get("cache.size").tag("cache", "users").gauge().value(), 0);
+  }
+}
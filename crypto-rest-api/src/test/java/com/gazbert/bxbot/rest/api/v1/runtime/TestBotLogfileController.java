@@ -23,20 +23,26 @@
 
 package com.gazbert.crypto.rest.api.v1.runtime;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.gazbert.crypto.core.engine.TradingEngine;
 import com.gazbert.crypto.core.mail.EmailAlerter;
 import com.gazbert.crypto.services.runtime.BotLogfileService;
+import com.gazbert.crypto.services.runtime.LogfileChunk;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -49,6 +55,7 @@ import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 /**
@@ -63,6 +70,16 @@ public class TestBotLogfileController extends AbstractRuntimeControllerTest {
 
   private static final String LOGFILE_ENDPOINT_URI = RUNTIME_ENDPOINT_BASE_URI + "/logfile";
   private static final String LOGFILE_DOWNLOAD_URI = LOGFILE_ENDPOINT_URI + "/download";
+  private static final String LOGFILE_STREAM_URI = LOGFILE_ENDPOINT_URI + "/stream";
+
+  private static final String LOGFILE_OFFSET_TOKEN_1 = "5e1a9c-143";
+  private static final String LOGFILE_OFFSET_TOKEN_2 = "5e1a9c-245";
+  private static final String ROLLED_LOGFILE_OFFSET_TOKEN = "7b30f2-51";
+  private static final String SLOW_STREAM_OFFSET_TOKEN_1 = "5e1a9c-10";
+  private static final String SLOW_STREAM_OFFSET_TOKEN_2 = "5e1a9c-20";
+
+  // The stream duration in test/resources/application.properties is 1 second
+  private static final long STREAM_TIMEOUT_MILLIS = 10_000;
 
   // This value must be the same as maxLogfileLines in test/resources/application.properties
   private static final int MAX_LOGFILE_LINES = 2;
@@ -106,6 +123,67 @@ public class TestBotLogfileController extends AbstractRuntimeControllerTest {
     verify(botLogfileService, times(1)).getLogfileAsResource(MAX_LOGFILE_DOWNLOAD_SIZE);
   }
 
+  @Test
+  public void testDownloadLogfileRange() throws Exception {
+    final Resource resource = new ByteArrayResource(LOGFILE.getBytes(Charset.forName("UTF-8")));
+    given(botLogfileService.getLogfileAsResource(MAX_LOGFILE_DOWNLOAD_SIZE)).willReturn(resource);
+
+    mockMvc
+        .perform(
+            get(LOGFILE_DOWNLOAD_URI)
+                .header("Range", "bytes=0-" + (LOGFILE_LINE_1.length() - 1))
+                .header(
+                    "Authorization", "Bearer " + getJwt(VALID_USER_NAME, VALID_USER_PASSWORD)))
+        .andDo(print())
+        .andExpect(status().isPartialContent())
+        .andExpect(header().string("Accept-Ranges", "bytes"))
+        .andExpect(
+            header()
+                .string(
+                    "Content-Range",
+                    "bytes 0-" + (LOGFILE_LINE_1.length() - 1) + "/" + LOGFILE.length()))
+        .andExpect(content().string(LOGFILE_LINE_1));
+
+    verify(botLogfileService, times(1)).getLogfileAsResource(MAX_LOGFILE_DOWNLOAD_SIZE);
+  }
+
+  @Test
+  public void testDownloadLogfileReturnsRangeNotSatisfiableForRangePastEndOfLogfile()
+      throws Exception {
+    final Resource resource = new ByteArrayResource(LOGFILE.getBytes(Charset.forName("UTF-8")));
+    given(botLogfileService.getLogfileAsResource(MAX_LOGFILE_DOWNLOAD_SIZE)).willReturn(resource);
+
+    mockMvc
+        .perform(
+            get(LOGFILE_DOWNLOAD_URI)
+                .header("Range", "bytes=" + LOGFILE.length() + "-")
+                .header(
+                    "Authorization", "Bearer " + getJwt(VALID_USER_NAME, VALID_USER_PASSWORD)))
+        .andDo(print())
+        .andExpect(status().isRequestedRangeNotSatisfiable())
+        .andExpect(header().string("Content-Range", "bytes */" + LOGFILE.length()));
+  }
+
+  @Test
+  public void testDownloadLogfileIgnoresRangeThatCannotBeParsed() throws Exception {
+    final Resource resource = new ByteArrayResource(LOGFILE.getBytes(Charset.forName("UTF-8")));
+    given(botLogfileService.getLogfileAsResource(MAX_LOGFILE_DOWNLOAD_SIZE)).willReturn(resource);
+
+    mockMvc
+        .perform(
+            get(LOGFILE_DOWNLOAD_URI)
+                .header("Range", "lines=0-10")
+                .header(
+                    "Authorization", "Bearer " + getJwt(VALID_USER_NAME, VALID_USER_PASSWORD)))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist("Content-Range"))
+        .andExpect(header().longValue("Content-Length", LOGFILE.length()))
+        .andExpect(content().string(LOGFILE));
+
+    verify(botLogfileService, times(1)).getLogfileAsResource(MAX_LOGFILE_DOWNLOAD_SIZE);
+  }
+
   @Test
   public void testDownloadLogfileReturnsInternalServerErrorForIoException() throws Exception {
     given(botLogfileService.getLogfileAsResource(MAX_LOGFILE_DOWNLOAD_SIZE))
@@ -277,4 +355,190 @@ public class TestBotLogfileController extends AbstractRuntimeControllerTest {
         .perform(get(LOGFILE_ENDPOINT_URI).accept(MediaType.APPLICATION_JSON))
         .andExpect(status().isUnauthorized());
   }
+
+  @Test
+  public void testStreamLogfile() throws Exception {
+    given(botLogfileService.getLogfileChunk(null, MAX_LOGFILE_DOWNLOAD_SIZE))
+        .willReturn(new LogfileChunk("", LOGFILE_OFFSET_TOKEN_1, false));
+    given(botLogfileService.getLogfileChunk(LOGFILE_OFFSET_TOKEN_1, MAX_LOGFILE_DOWNLOAD_SIZE))
+        .willReturn(
+            new LogfileChunk(
+                LOGFILE_LINE_1 + "\n" + LOGFILE_LINE_2 + "\r\n", LOGFILE_OFFSET_TOKEN_2, false));
+    given(botLogfileService.getLogfileChunk(LOGFILE_OFFSET_TOKEN_2, MAX_LOGFILE_DOWNLOAD_SIZE))
+        .willReturn(new LogfileChunk("", LOGFILE_OFFSET_TOKEN_2, false));
+
+    final MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(LOGFILE_STREAM_URI)
+                    .header(
+                        "Authorization", "Bearer " + getJwt(VALID_USER_NAME, VALID_USER_PASSWORD)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    mvcResult.getAsyncResult(STREAM_TIMEOUT_MILLIS);
+
+    assertThat(mvcResult.getResponse().getContentType()).startsWith("text/event-stream");
+    assertThat(mvcResult.getResponse().getContentAsString())
+        .isEqualTo(
+            "id:"
+                + LOGFILE_OFFSET_TOKEN_1
+                + "\nevent:offset\ndata:"
+                + LOGFILE_OFFSET_TOKEN_1
+                + "\n\n"
+                + "id:"
+                + LOGFILE_OFFSET_TOKEN_2
+                + "\nevent:log\ndata:"
+                + LOGFILE_LINE_1
+                + "\ndata:"
+                + LOGFILE_LINE_2
+                + "\n\n");
+  }
+
+  @Test
+  public void testStreamLogfileResumesFromLastEventIdAfterRollover() throws Exception {
+    given(botLogfileService.getLogfileChunk(LOGFILE_OFFSET_TOKEN_2, MAX_LOGFILE_DOWNLOAD_SIZE))
+        .willReturn(new LogfileChunk(LOGFILE_LINE_3 + "\n", ROLLED_LOGFILE_OFFSET_TOKEN, true));
+    given(botLogfileService.getLogfileChunk(ROLLED_LOGFILE_OFFSET_TOKEN, MAX_LOGFILE_DOWNLOAD_SIZE))
+        .willReturn(new LogfileChunk("", ROLLED_LOGFILE_OFFSET_TOKEN, false));
+
+    final MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(LOGFILE_STREAM_URI)
+                    .header("Last-Event-ID", LOGFILE_OFFSET_TOKEN_2)
+                    .header(
+                        "Authorization", "Bearer " + getJwt(VALID_USER_NAME, VALID_USER_PASSWORD)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    mvcResult.getAsyncResult(STREAM_TIMEOUT_MILLIS);
+
+    assertThat(mvcResult.getResponse().getContentAsString())
+        .isEqualTo(
+            "id:"
+                + LOGFILE_OFFSET_TOKEN_2
+                + "\nevent:offset\ndata:"
+                + LOGFILE_OFFSET_TOKEN_2
+                + "\n\n"
+                + "id:"
+                + ROLLED_LOGFILE_OFFSET_TOKEN
+                + "\nevent:rollover\ndata:"
+                + LOGFILE_LINE_3
+                + "\n\n");
+  }
+
+  @Test
+  public void testStreamLogfileSendsPartOfLineTooLongForOneChunk() throws Exception {
+    final String linePart = LOGFILE_LINE_1.substring(0, 20);
+    given(botLogfileService.getLogfileChunk(LOGFILE_OFFSET_TOKEN_1, MAX_LOGFILE_DOWNLOAD_SIZE))
+        .willReturn(new LogfileChunk(linePart, LOGFILE_OFFSET_TOKEN_2, false));
+    given(botLogfileService.getLogfileChunk(LOGFILE_OFFSET_TOKEN_2, MAX_LOGFILE_DOWNLOAD_SIZE))
+        .willReturn(new LogfileChunk("", LOGFILE_OFFSET_TOKEN_2, false));
+
+    final MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(LOGFILE_STREAM_URI)
+                    .param("offset", LOGFILE_OFFSET_TOKEN_1)
+                    .header(
+                        "Authorization", "Bearer " + getJwt(VALID_USER_NAME, VALID_USER_PASSWORD)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    mvcResult.getAsyncResult(STREAM_TIMEOUT_MILLIS);
+
+    assertThat(mvcResult.getResponse().getContentAsString())
+        .isEqualTo(
+            "id:"
+                + LOGFILE_OFFSET_TOKEN_1
+                + "\nevent:offset\ndata:"
+                + LOGFILE_OFFSET_TOKEN_1
+                + "\n\n"
+                + "id:"
+                + LOGFILE_OFFSET_TOKEN_2
+                + "\nevent:log\ndata:"
+                + linePart
+                + "\n\n");
+  }
+
+  @Test
+  public void testStreamLogfileIsNotHeldUpByAnotherBlockedStream() throws Exception {
+    final CountDownLatch slowStreamPolled = new CountDownLatch(1);
+    final CountDownLatch slowStreamReleased = new CountDownLatch(1);
+    given(botLogfileService.getLogfileChunk(SLOW_STREAM_OFFSET_TOKEN_1, MAX_LOGFILE_DOWNLOAD_SIZE))
+        .willReturn(new LogfileChunk("", SLOW_STREAM_OFFSET_TOKEN_2, false));
+    given(botLogfileService.getLogfileChunk(SLOW_STREAM_OFFSET_TOKEN_2, MAX_LOGFILE_DOWNLOAD_SIZE))
+        .willAnswer(
+            invocation -> {
+              // holds the polling thread, like a send to a slow client, for longer than the other
+              // stream is waited for
+              slowStreamPolled.countDown();
+              slowStreamReleased.await(2 * STREAM_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+              return new LogfileChunk("", SLOW_STREAM_OFFSET_TOKEN_2, false);
+            });
+    given(botLogfileService.getLogfileChunk(null, MAX_LOGFILE_DOWNLOAD_SIZE))
+        .willReturn(new LogfileChunk("", LOGFILE_OFFSET_TOKEN_1, false));
+    given(botLogfileService.getLogfileChunk(LOGFILE_OFFSET_TOKEN_1, MAX_LOGFILE_DOWNLOAD_SIZE))
+        .willReturn(new LogfileChunk(LOGFILE_LINE_1 + "\n", LOGFILE_OFFSET_TOKEN_2, false));
+    given(botLogfileService.getLogfileChunk(LOGFILE_OFFSET_TOKEN_2, MAX_LOGFILE_DOWNLOAD_SIZE))
+        .willReturn(new LogfileChunk("", LOGFILE_OFFSET_TOKEN_2, false));
+
+    final String jwt = getJwt(VALID_USER_NAME, VALID_USER_PASSWORD);
+    final MvcResult slowStreamResult =
+        mockMvc
+            .perform(
+                get(LOGFILE_STREAM_URI)
+                    .param("offset", SLOW_STREAM_OFFSET_TOKEN_1)
+                    .header("Authorization", "Bearer " + jwt))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    try {
+      assertThat(slowStreamPolled.await(STREAM_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+
+      final MvcResult mvcResult =
+          mockMvc
+              .perform(get(LOGFILE_STREAM_URI).header("Authorization", "Bearer " + jwt))
+              .andExpect(request().asyncStarted())
+              .andReturn();
+      mvcResult.getAsyncResult(STREAM_TIMEOUT_MILLIS);
+
+      assertThat(mvcResult.getResponse().getContentAsString())
+          .endsWith("\nevent:log\ndata:" + LOGFILE_LINE_1 + "\n\n");
+    } finally {
+      slowStreamReleased.countDown();
+    }
+    slowStreamResult.getAsyncResult(STREAM_TIMEOUT_MILLIS);
+  }
+
+  @Test
+  public void testStreamLogfileReturnsBadRequestForInvalidOffsetToken() throws Exception {
+    given(botLogfileService.getLogfileChunk("junk", MAX_LOGFILE_DOWNLOAD_SIZE))
+        .willThrow(new IllegalArgumentException("Invalid logfile offset token: junk"));
+
+    mockMvc
+        .perform(
+            get(LOGFILE_STREAM_URI)
+                .param("offset", "junk")
+                .header(
+                    "Authorization", "Bearer " + getJwt(VALID_USER_NAME, VALID_USER_PASSWORD)))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testStreamLogfileReturnsInternalServerErrorForIoException() throws Exception {
+    given(botLogfileService.getLogfileChunk(null, MAX_LOGFILE_DOWNLOAD_SIZE))
+        .willThrow(new IOException("Something bad happened!"));
+
+    mockMvc
+        .perform(
+            get(LOGFILE_STREAM_URI)
+                .header(
+                    "Authorization", "Bearer " + getJwt(VALID_USER_NAME, VALID_USER_PASSWORD)))
+        .andExpect(status().is5xxServerError());
+  }
+
+  @Test
+  public void testStreamLogfileWhenUnauthorizedWithMissingToken() throws Exception {
+    mockMvc
+        .perform(get(LOGFILE_STREAM_URI).accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(status().isUnauthorized());
+  }
 }
@@ -34,8 +34,11 @@ import org.springframework.core.io.Resource;
 public interface BotLogfileService {
 
   /**
-   * Returns entire logfile as a Resource. The beginning of the file is truncated if the file size
-   * exceeds maxFileSize.
+   * Returns entire logfile as a Resource. The end of the file is truncated if the file size exceeds
+   * maxFileSize.
+   *
+   * <p>The Resource reads the logfile on demand rather than holding it in memory. Its length is
+   * fixed when it is returned, so lines written to the logfile afterwards are not included.
    *
    * @param maxFileSize the max size of the file to return.
    * @return the logfile as a Resource.
@@ -72,4 +75,22 @@ public interface BotLogfileService {
    * @throws IOException if an error occurs fetching the logfile.
    */
   String getLogfileHead(int lineCount) throws IOException;
+
+  /**
+   * Returns the lines written to the logfile since an offset token.
+   *
+   * <p>Only whole lines are returned; a line still being written is returned once it is finished.
+   * The exception is a line longer than maxBytes, which is returned in parts, the chunk ending
+   * without a line break. If the logfile has been rolled over since the token was issued, the
+   * chunk is read from the start of the new logfile. If no token is given, the chunk is read from
+   * the end of the logfile, so it has no content, but its token can be used to follow the lines
+   * written from now on.
+   *
+   * @param offsetToken the token returned with the last chunk, or null to start at the end.
+   * @param maxBytes the max number of bytes to read.
+   * @return the chunk read.
+   * @throws IllegalArgumentException if the offset token is not valid.
+   * @throws IOException if an error occurs reading the logfile.
+   */
+  LogfileChunk getLogfileChunk(String offsetToken, int maxBytes) throws IOException;
 }
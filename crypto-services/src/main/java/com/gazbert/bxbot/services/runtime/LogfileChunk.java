@@ -0,0 +1,77 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.services.runtime;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * A chunk of the logfile, read from an offset token.
+ *
+ * <p>The offset token identifies the logfile and a byte offset in it. Passing the token back to
+ * {@link BotLogfileService#getLogfileChunk(String, int)} returns the lines written after this
+ * chunk.
+ *
+ * @author gazbert
+ */
+public final class LogfileChunk {
+
+  private final String content;
+  private final String offsetToken;
+  private final boolean rolledOver;
+
+  /**
+   * Creates a logfile chunk.
+   *
+   * @param content the lines read, each ending with its line break.
+   * @param offsetToken the token to read the next chunk from.
+   * @param rolledOver true if the logfile was rolled over since the offset the chunk was read
+   *     from, so the chunk was read from the start of the new logfile.
+   */
+  public LogfileChunk(String content, String offsetToken, boolean rolledOver) {
+    this.content = content;
+    this.offsetToken = offsetToken;
+    this.rolledOver = rolledOver;
+  }
+
+  public String getContent() {
+    return content;
+  }
+
+  public String getOffsetToken() {
+    return offsetToken;
+  }
+
+  public boolean isRolledOver() {
+    return rolledOver;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("contentLength", content.length())
+        .add("offsetToken", offsetToken)
+        .add("rolledOver", rolledOver)
+        .toString();
+  }
+}
@@ -24,20 +24,27 @@
 package com.gazbert.crypto.services.runtime.impl;
 
 import com.gazbert.crypto.services.runtime.BotLogfileService;
+import com.gazbert.crypto.services.runtime.LogfileChunk;
+import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.logging.LogFileWebEndpoint;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
@@ -51,6 +58,8 @@ public class BotLogfileServiceImpl implements BotLogfileService {
 
   private static final Logger LOG = LogManager.getLogger();
   private static final String NEWLINE = System.getProperty("line.separator");
+  private static final int TAIL_CHUNK_SIZE = 8192;
+  private static final char OFFSET_TOKEN_SEPARATOR = '-';
   private LogFileWebEndpoint logFileWebEndpoint;
 
   @Autowired
@@ -61,22 +70,19 @@ public class BotLogfileServiceImpl implements BotLogfileService {
   @Override
   public Resource getLogfileAsResource(int maxFileSize) throws IOException {
     final Resource logfile = logFileWebEndpoint.logFile();
-    final long logfileLength = logfile.contentLength();
     try {
-      if (logfileLength <= maxFileSize) {
-        return logfile;
-      } else {
+      final long logfileLength = logfile.contentLength();
+      if (logfileLength > maxFileSize) {
         LOG.warn(
             () ->
                 "Logfile exceeds MaxFileSize. Truncating end of file. MaxFileSize: "
                     + maxFileSize
                     + " LogfileSize: "
                     + logfileLength);
-        final InputStream inputStream = logfile.getInputStream();
-        final byte[] truncatedLogfile = new byte[maxFileSize];
-        inputStream.readNBytes(truncatedLogfile, 0, maxFileSize);
-        return new ByteArrayResource(truncatedLogfile);
       }
+      // Fix the length now so the download stays consistent while the logfile grows
+      return new FileRegionResource(
+          Paths.get(logfile.getURI()), Math.min(logfileLength, maxFileSize));
     } catch (IOException e) {
       final String errorMsg = "Failed to load logfile. Details: " + e.getMessage();
       LOG.error(() -> errorMsg);
@@ -109,55 +115,149 @@ public class BotLogfileServiceImpl implements BotLogfileService {
     return truncatedFile.toString();
   }
 
-  private static List<String> tailFile(final Path source, final int lineCount) throws IOException {
-    try (Stream<String> stream = Files.lines(source)) {
-      final FileBuffer fileBuffer = new FileBuffer(lineCount);
-      stream.forEach(fileBuffer::collectTailLine);
-      return fileBuffer.getTailLines();
+  @Override
+  public LogfileChunk getLogfileChunk(String offsetToken, int maxBytes) throws IOException {
+    final Resource resource = logFileWebEndpoint.logFile();
+    final Path logfilePath = Paths.get(resource.getURI());
+
+    // read before opening the file: if it rolls over in between, lines are sent again, not lost
+    final String logfileId = logfileIdOf(logfilePath);
+    try (FileChannel channel = FileChannel.open(logfilePath, StandardOpenOption.READ)) {
+      final long fileSize = channel.size();
+      long offset = fileSize;
+      boolean rolledOver = false;
+      if (offsetToken != null) {
+        final int separator = offsetToken.lastIndexOf(OFFSET_TOKEN_SEPARATOR);
+        offset = parseOffset(offsetToken, separator);
+        if (!logfileId.equals(offsetToken.substring(0, separator)) || offset > fileSize) {
+          LOG.info(() -> "Logfile rolled over since offset token: " + offsetToken);
+          offset = 0;
+          rolledOver = true;
+        }
+      }
+
+      final ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(maxBytes, fileSize - offset));
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, offset + buffer.position()) < 0) {
+          break;
+        }
+      }
+      final int chunkLength = wholeLinesLength(buffer.array(), buffer.position(), maxBytes);
+      return new LogfileChunk(
+          new String(buffer.array(), 0, chunkLength, StandardCharsets.UTF_8),
+          logfileId + OFFSET_TOKEN_SEPARATOR + (offset + chunkLength),
+          rolledOver);
     }
   }
 
-  private static List<String> headFile(final Path source, final int lineCount) throws IOException {
-    try (Stream<String> stream = Files.lines(source)) {
-      final FileBuffer fileBuffer = new FileBuffer(lineCount);
-      stream.forEach(fileBuffer::collectHeadLine);
-      return fileBuffer.getHeadLines();
+  /*
+   * Reads the file backwards from the end in chunks until it has found enough line breaks, then
+   * reads the lines after the last break found. Only the tail of the file is read, however big the
+   * file is. Lines end with \n, \r\n or \r, like Files.lines.
+   */
+  private static List<String> tailFile(final Path source, final int lineCount) throws IOException {
+    if (lineCount <= 0) {
+      return new ArrayList<>();
+    }
+    try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+      final long fileSize = channel.size();
+      channel.position(findTailStart(channel, fileSize, lineCount));
+
+      try (BufferedReader reader =
+          new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8))) {
+        final List<String> lines = new ArrayList<>();
+        String line;
+        while (lines.size() < lineCount && (line = reader.readLine()) != null) {
+          lines.add(line);
+        }
+        return lines;
+      }
     }
   }
 
-  /** Util class for reading lines of a logfile. */
-  private static final class FileBuffer {
-    private int offset = 0;
-    private final int maxLines;
-    private final String[] lines;
+  private static long findTailStart(FileChannel channel, long fileSize, int lineCount)
+      throws IOException {
+    final ByteBuffer chunk = ByteBuffer.allocate(TAIL_CHUNK_SIZE);
+    int lineBreaks = 0;
+    byte nextByte = 0;
+    long chunkStart = fileSize;
+    while (chunkStart > 0) {
+      final int chunkSize = (int) Math.min(TAIL_CHUNK_SIZE, chunkStart);
+      chunkStart -= chunkSize;
+      chunk.clear().limit(chunkSize);
+      while (chunk.hasRemaining()) {
+        if (channel.read(chunk, chunkStart + chunk.position()) < 0) {
+          throw new EOFException("Logfile truncated while reading tail: " + channel);
+        }
+      }
 
-    FileBuffer(int maxLines) {
-      this.maxLines = maxLines;
-      this.lines = new String[maxLines];
+      for (int i = chunkSize - 1; i >= 0; i--) {
+        final byte currentByte = chunk.get(i);
+        final long lineStart = chunkStart + i + 1;
+        // \r\n is a single line break, counted at the \n
+        final boolean isLineBreak =
+            currentByte == '\n' || (currentByte == '\r' && nextByte != '\n');
+        // a line break at the very end of the file ends the last line, it doesn't start a new one
+        if (isLineBreak && lineStart < fileSize && ++lineBreaks == lineCount) {
+          return lineStart;
+        }
+        nextByte = currentByte;
+      }
     }
+    return 0;
+  }
 
-    void collectTailLine(String line) {
-      lines[offset++ % maxLines] = line;
+  private static List<String> headFile(final Path source, final int lineCount) throws IOException {
+    try (Stream<String> stream = Files.lines(source)) {
+      // limit stops reading the file once it has enough lines
+      return stream.limit(Math.max(lineCount, 0)).collect(Collectors.toList());
     }
+  }
+
+  /*
+   * Identifies the logfile, so a rollover can be spotted when log4j2 renames the logfile and
+   * creates a new one. The file key (e.g. the inode) is used where the platform has one.
+   */
+  private static String logfileIdOf(Path logfilePath) throws IOException {
+    final BasicFileAttributes attributes =
+        Files.readAttributes(logfilePath, BasicFileAttributes.class);
+    final Object fileKey =
+        attributes.fileKey() != null ? attributes.fileKey() : attributes.creationTime();
+    return Integer.toHexString(fileKey.hashCode());
+  }
 
-    void collectHeadLine(String line) {
-      if (offset + 1 <= maxLines) {
-        lines[offset++] = line;
+  private static long parseOffset(String offsetToken, int separator) {
+    try {
+      final long offset = Long.parseLong(offsetToken.substring(separator + 1));
+      if (separator > 0 && offset >= 0) {
+        return offset;
       }
+    } catch (NumberFormatException e) {
+      // handled below
     }
+    throw new IllegalArgumentException("Invalid logfile offset token: " + offsetToken);
+  }
 
-    List<String> getTailLines() {
-      // Truncates the file head if file line count > maxLines
-      return IntStream.range(offset < maxLines ? 0 : offset - maxLines, offset)
-          .mapToObj(idx -> lines[idx % maxLines])
-          .collect(Collectors.toList());
+  /*
+   * Returns the length of the whole lines in the bytes read. A line longer than maxBytes is split
+   * before its last UTF-8 character, as that may only have been partly read.
+   */
+  private static int wholeLinesLength(byte[] bytes, int length, int maxBytes) {
+    for (int i = length - 1; i >= 0; i--) {
+      if (bytes[i] == '\n') {
+        return i + 1;
+      }
     }
-
-    List<String> getHeadLines() {
-      // Truncates the file tail if file line count > maxLines
-      return IntStream.range(0, maxLines > offset ? offset : maxLines)
-          .mapToObj(idx -> lines[idx % maxLines])
-          .collect(Collectors.toList());
+    if (length < maxBytes || length == 0) {
+      return 0;
+    }
+    if ((bytes[length - 1] & 0x80) == 0) {
+      return length;
+    }
+    int lastCharStart = length - 1;
+    while (lastCharStart > 0 && (bytes[lastCharStart] & 0xC0) == 0x80) {
+      lastCharStart--;
     }
+    return lastCharStart;
   }
 }
@@ -0,0 +1,166 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.services.runtime.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.springframework.core.io.AbstractResource;
+
+/**
+ * A Resource for the first bytes of a file.
+ *
+ * <p>The region is read from the file on demand through a FileChannel, so nothing is held in
+ * memory however big the region is. Skipping into the region, as serving a Range request does,
+ * moves the read position instead of reading the skipped bytes.
+ *
+ * @author gazbert
+ */
+final class FileRegionResource extends AbstractResource {
+
+  private final Path path;
+  private final long length;
+
+  /**
+   * Creates a new FileRegionResource.
+   *
+   * @param path the file.
+   * @param length the number of bytes from the start of the file in the region.
+   */
+  FileRegionResource(Path path, long length) {
+    this.path = path;
+    this.length = length;
+  }
+
+  @Override
+  public boolean exists() {
+    return Files.exists(path);
+  }
+
+  @Override
+  public boolean isFile() {
+    return true;
+  }
+
+  @Override
+  public File getFile() {
+    return path.toFile();
+  }
+
+  @Override
+  public String getFilename() {
+    return path.getFileName().toString();
+  }
+
+  @Override
+  public long contentLength() {
+    return length;
+  }
+
+  @Override
+  public InputStream getInputStream() throws IOException {
+    return new RegionInputStream(FileChannel.open(path, StandardOpenOption.READ), length);
+  }
+
+  @Override
+  public String getDescription() {
+    return "file region [" + path.toAbsolutePath() + ", 0-" + length + "]";
+  }
+
+  /** Reads a region of a file with positional reads. */
+  private static final class RegionInputStream extends InputStream {
+
+    private final FileChannel channel;
+    private final long end;
+    private long position;
+
+    RegionInputStream(FileChannel channel, long end) {
+      this.channel = channel;
+      this.end = end;
+    }
+
+    @Override
+    public int read() throws IOException {
+      final byte[] singleByte = new byte[1];
+      return read(singleByte, 0, 1) == 1 ? singleByte[0] & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int count) throws IOException {
+      if (count == 0) {
+        return 0;
+      }
+      final long remaining = end - position;
+      if (remaining <= 0) {
+        return -1;
+      }
+      final ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, (int) Math.min(count, remaining));
+      final int bytesRead = channel.read(buffer, position);
+      if (bytesRead > 0) {
+        position += bytesRead;
+      }
+      return bytesRead;
+    }
+
+    @Override
+    public long skip(long count) {
+      final long skipped = Math.max(0, Math.min(count, end - position));
+      position += skipped;
+      return skipped;
+    }
+
+    @Override
+    public int available() {
+      return (int) Math.min(Math.max(0, end - position), Integer.MAX_VALUE);
+    }
+
+    /** Copies the rest of the region with FileChannel.transferTo. */
+    @Override
+    public long transferTo(OutputStream out) throws IOException {
+      final WritableByteChannel target = Channels.newChannel(out);
+      final long start = position;
+      while (position < end) {
+        final long transferred = channel.transferTo(position, end - position, target);
+        if (transferred <= 0) {
+          break; // the file was truncated under us
+        }
+        position += transferred;
+      }
+      return position - start;
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+}
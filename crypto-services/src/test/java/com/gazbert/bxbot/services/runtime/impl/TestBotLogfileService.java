@@ -23,14 +23,20 @@
 
 package com.gazbert.crypto.services.runtime.impl;
 
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static org.assertj.core.api.Java6Assertions.assertThat;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 
+import com.gazbert.crypto.services.runtime.LogfileChunk;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import org.easymock.EasyMock;
 import org.junit.Test;
 import org.springframework.boot.actuate.logging.LogFileWebEndpoint;
@@ -44,6 +50,10 @@ import org.springframework.core.io.Resource;
  */
 public class TestBotLogfileService {
 
+  private static final Path GENERATED_LOGFILES_DIR = Paths.get("target/logfiles");
+  private static final int LARGE_LOGFILE_LINE_COUNT = 20_000;
+  private static final int MAX_CHUNK_SIZE = 1024;
+
   @Test
   public void whenGetLogfileCalledThenExpectLogfileContentToBeReturned() throws Exception {
     final String logfilePath = "src/test/logfiles/logfile.log";
@@ -203,6 +213,156 @@ public class TestBotLogfileService {
     verify(logFileWebEndpoint);
   }
 
+  @Test
+  public void whenLogfileTailCalledOnLargeLogfileThenExpectOnlyLastLinesToBeReturned()
+      throws Exception {
+    // many times the tail chunk size, so the tail spans chunks
+    final StringBuilder logfileContent = new StringBuilder();
+    for (int line = 1; line <= LARGE_LOGFILE_LINE_COUNT; line++) {
+      logfileContent.append("Line ").append(line).append(" of the large logfile\n");
+    }
+    final BotLogfileServiceImpl botLogfileService =
+        createLogfileService(writeLogfile("large-logfile.log", logfileContent.toString()));
+
+    final StringBuilder expectedLogfileContent = new StringBuilder();
+    for (int line = LARGE_LOGFILE_LINE_COUNT - 999; line <= LARGE_LOGFILE_LINE_COUNT; line++) {
+      expectedLogfileContent
+          .append("Line ")
+          .append(line)
+          .append(" of the large logfile")
+          .append(System.lineSeparator());
+    }
+    assertThat(botLogfileService.getLogfileTail(1000)).isEqualTo(expectedLogfileContent.toString());
+  }
+
+  @Test
+  public void whenLogfileTailCalledThenExpectAllLineEndingsToBeHandled() throws Exception {
+    final BotLogfileServiceImpl botLogfileService =
+        createLogfileService(
+            writeLogfile("mixed-line-endings.log", "first\r\nsecond\rthird\n\nfifth\r\n"));
+
+    assertThat(botLogfileService.getLogfileTail(4))
+        .isEqualTo(
+            "second"
+                + System.lineSeparator()
+                + "third"
+                + System.lineSeparator()
+                + System.lineSeparator()
+                + "fifth"
+                + System.lineSeparator());
+  }
+
+  @Test
+  public void whenLogfileTailCalledOnEmptyLogfileThenExpectNoLinesToBeReturned()
+      throws Exception {
+    final BotLogfileServiceImpl botLogfileService =
+        createLogfileService(writeLogfile("empty-logfile.log", ""));
+    assertThat(botLogfileService.getLogfileTail(10)).isEmpty();
+  }
+
+  @Test
+  public void whenLogfileTailCalledWith0ThenExpectNoLinesToBeReturned() throws Exception {
+    final BotLogfileServiceImpl botLogfileService =
+        createLogfileService(FileSystems.getDefault().getPath("src/test/logfiles/logfile.log"));
+    assertThat(botLogfileService.getLogfileTail(0)).isEmpty();
+  }
+
+  @Test
+  public void whenLogfileChunkCalledWithoutOffsetTokenThenExpectToStartAtEndOfLogfile()
+      throws Exception {
+    final Path logfile = writeLogfile("chunked-logfile.log", "first\nsecond\n");
+    final BotLogfileServiceImpl botLogfileService = createLogfileService(logfile);
+
+    final LogfileChunk chunk = botLogfileService.getLogfileChunk(null, MAX_CHUNK_SIZE);
+    assertThat(chunk.getContent()).isEmpty();
+    assertThat(chunk.getOffsetToken()).endsWith("-13");
+    assertThat(chunk.isRolledOver()).isFalse();
+  }
+
+  @Test
+  public void whenLogfileChunkCalledWithOffsetTokenThenExpectOnlyNewWholeLinesToBeReturned()
+      throws Exception {
+    final Path logfile = writeLogfile("followed-logfile.log", "first\n");
+    final BotLogfileServiceImpl botLogfileService = createLogfileService(logfile);
+    final String offsetToken =
+        botLogfileService.getLogfileChunk(null, MAX_CHUNK_SIZE).getOffsetToken();
+
+    appendToLogfile(logfile, "second\nthird is still being wri");
+    final LogfileChunk chunk = botLogfileService.getLogfileChunk(offsetToken, MAX_CHUNK_SIZE);
+    assertThat(chunk.getContent()).isEqualTo("second\n");
+    assertThat(chunk.isRolledOver()).isFalse();
+    assertThat(chunk.toString()).contains(chunk.getOffsetToken());
+
+    appendToLogfile(logfile, "tten\n");
+    final LogfileChunk nextChunk =
+        botLogfileService.getLogfileChunk(chunk.getOffsetToken(), MAX_CHUNK_SIZE);
+    assertThat(nextChunk.getContent()).isEqualTo("third is still being written\n");
+
+    final LogfileChunk emptyChunk =
+        botLogfileService.getLogfileChunk(nextChunk.getOffsetToken(), MAX_CHUNK_SIZE);
+    assertThat(emptyChunk.getContent()).isEmpty();
+    assertThat(emptyChunk.getOffsetToken()).isEqualTo(nextChunk.getOffsetToken());
+  }
+
+  @Test
+  public void whenLogfileChunkCalledAfterRolloverThenExpectNewLogfileToBeReadFromStart()
+      throws Exception {
+    final Path logfile = writeLogfile("rolled-logfile.log", "old first\nold second\n");
+    final BotLogfileServiceImpl botLogfileService = createLogfileService(logfile);
+    final String offsetToken =
+        botLogfileService.getLogfileChunk(null, MAX_CHUNK_SIZE).getOffsetToken();
+
+    // log4j2 renames the logfile and creates a new one
+    Files.move(logfile, logfile.resolveSibling("rolled-logfile-1.log"), REPLACE_EXISTING);
+    writeLogfile("rolled-logfile.log", "new first\n");
+
+    final LogfileChunk chunk = botLogfileService.getLogfileChunk(offsetToken, MAX_CHUNK_SIZE);
+    assertThat(chunk.getContent()).isEqualTo("new first\n");
+    assertThat(chunk.isRolledOver()).isTrue();
+    assertThat(chunk.getOffsetToken()).isNotEqualTo(offsetToken).endsWith("-10");
+  }
+
+  @Test
+  public void whenLogfileChunkCalledAfterLogfileTruncatedThenExpectLogfileToBeReadFromStart()
+      throws Exception {
+    final Path logfile = writeLogfile("truncated-logfile.log", "old first\nold second\n");
+    final BotLogfileServiceImpl botLogfileService = createLogfileService(logfile);
+    final String offsetToken =
+        botLogfileService.getLogfileChunk(null, MAX_CHUNK_SIZE).getOffsetToken();
+
+    Files.write(logfile, "new\n".getBytes(StandardCharsets.UTF_8));
+
+    final LogfileChunk chunk = botLogfileService.getLogfileChunk(offsetToken, MAX_CHUNK_SIZE);
+    assertThat(chunk.getContent()).isEqualTo("new\n");
+    assertThat(chunk.isRolledOver()).isTrue();
+  }
+
+  @Test
+  public void whenLogfileChunkCalledWithLineLongerThanMaxBytesThenExpectLineToBeSplit()
+      throws Exception {
+    // each é is 2 bytes in UTF-8, so 5 bytes ends part way through the 3rd
+    final Path logfile = writeLogfile("long-line-logfile.log", "ééé\n");
+    final BotLogfileServiceImpl botLogfileService = createLogfileService(logfile);
+    final String endToken =
+        botLogfileService.getLogfileChunk(null, MAX_CHUNK_SIZE).getOffsetToken();
+    final String startToken = endToken.substring(0, endToken.lastIndexOf('-')) + "-0";
+
+    final LogfileChunk chunk = botLogfileService.getLogfileChunk(startToken, 5);
+    assertThat(chunk.getContent()).isEqualTo("éé");
+    assertThat(botLogfileService.getLogfileChunk(chunk.getOffsetToken(), 5).getContent())
+        .isEqualTo("é\n");
+
+    writeLogfile("long-line-logfile.log", "abcdefgh");
+    assertThat(botLogfileService.getLogfileChunk(startToken, 5).getContent()).isEqualTo("abcde");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void whenLogfileChunkCalledWithInvalidOffsetTokenThenExpectException() throws Exception {
+    final BotLogfileServiceImpl botLogfileService =
+        createLogfileService(writeLogfile("invalid-token-logfile.log", "first\n"));
+    botLogfileService.getLogfileChunk("not-a-token", MAX_CHUNK_SIZE);
+  }
+
   @Test
   public void whenGetLogfileAsResourceCalledThenExpectLogfileToBeReturned() throws Exception {
     final String logfilePath = "src/test/logfiles/logfile.log";
@@ -259,4 +419,46 @@ public class TestBotLogfileService {
     assertThat(new String(logfileInBytes, Charset.forName("UTF-8"))).isEqualTo(firstLineOfLogfile);
     verify(logFileWebEndpoint);
   }
+
+  @Test
+  public void whenGetLogfileAsResourceCalledThenExpectLinesWrittenAfterwardsToBeExcluded()
+      throws Exception {
+    final String firstLine = "4981 [main] 2019-07-20 17:30:20,429 INFO  Line 1\n";
+    final Path logfile = writeLogfile("growing.log", firstLine);
+    final BotLogfileServiceImpl botLogfileService = createLogfileService(logfile);
+
+    final Resource logfileAsResource = botLogfileService.getLogfileAsResource(1024);
+    Files.write(
+        logfile,
+        "4982 [main] 2019-07-20 17:30:21,429 INFO  Line 2\n".getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND);
+
+    assertThat(logfileAsResource.contentLength()).isEqualTo(firstLine.length());
+    assertThat(logfileAsResource.getFile()).isEqualTo(logfile.toAbsolutePath().toFile());
+    assertThat(
+            new String(
+                logfileAsResource.getInputStream().readAllBytes(), StandardCharsets.UTF_8))
+        .isEqualTo(firstLine);
+  }
+
+  // --------------------------------------------------------------------------
+  // Private utils
+  // --------------------------------------------------------------------------
+
+  private static Path writeLogfile(String filename, String content) throws Exception {
+    final Path logfile = Files.createDirectories(GENERATED_LOGFILES_DIR).resolve(filename);
+    Files.write(logfile, content.getBytes(StandardCharsets.UTF_8));
+    return logfile;
+  }
+
+  private static void appendToLogfile(Path logfile, String content) throws Exception {
+    Files.write(logfile, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+  }
+
+  private static BotLogfileServiceImpl createLogfileService(Path logfile) {
+    final LogFileWebEndpoint logFileWebEndpoint = EasyMock.createMock(LogFileWebEndpoint.class);
+    expect(logFileWebEndpoint.logFile()).andReturn(new FileSystemResource(logfile)).anyTimes();
+    replay(logFileWebEndpoint);
+    return new BotLogfileServiceImpl(logFileWebEndpoint);
+  }
 }
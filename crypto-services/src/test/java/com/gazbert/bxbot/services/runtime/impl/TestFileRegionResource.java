@@ -0,0 +1,117 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.services.runtime.impl;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests a file region Resource behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestFileRegionResource {
+
+  private static final Path LOGFILE = Paths.get("target/logfiles/region.log");
+  private static final String LOGFILE_CONTENT = "0123456789abcdefghij";
+  private static final int REGION_LENGTH = 16;
+
+  private FileRegionResource fileRegionResource;
+
+  /** Writes the logfile and creates a Resource for its first 16 bytes. */
+  @Before
+  public void setup() throws Exception {
+    Files.createDirectories(LOGFILE.getParent());
+    Files.write(LOGFILE, LOGFILE_CONTENT.getBytes(StandardCharsets.US_ASCII));
+    fileRegionResource = new FileRegionResource(LOGFILE, REGION_LENGTH);
+  }
+
+  @Test
+  public void testResourceDescribesTheFile() throws Exception {
+    assertThat(fileRegionResource.exists()).isTrue();
+    assertThat(fileRegionResource.isFile()).isTrue();
+    assertThat(fileRegionResource.getFile()).isEqualTo(LOGFILE.toFile());
+    assertThat(fileRegionResource.getFilename()).isEqualTo("region.log");
+    assertThat(fileRegionResource.contentLength()).isEqualTo(REGION_LENGTH);
+    assertThat(fileRegionResource.getDescription()).endsWith("region.log, 0-16]");
+    assertThat(new FileRegionResource(Paths.get("target/logfiles/missing.log"), 0).exists())
+        .isFalse();
+  }
+
+  @Test
+  public void testOnlyRegionIsRead() throws Exception {
+    try (InputStream inputStream = fileRegionResource.getInputStream()) {
+      assertThat(inputStream.read()).isEqualTo('0');
+      assertThat(inputStream.available()).isEqualTo(REGION_LENGTH - 1);
+      assertThat(inputStream.read(new byte[4], 0, 0)).isEqualTo(0);
+      assertThat(new String(inputStream.readAllBytes(), StandardCharsets.US_ASCII))
+          .isEqualTo("123456789abcdef");
+      assertThat(inputStream.read()).isEqualTo(-1);
+      assertThat(inputStream.read(new byte[4], 0, 4)).isEqualTo(-1);
+    }
+  }
+
+  @Test
+  public void testSkipMovesWithinRegion() throws Exception {
+    try (InputStream inputStream = fileRegionResource.getInputStream()) {
+      assertThat(inputStream.skip(10)).isEqualTo(10);
+      assertThat(inputStream.read()).isEqualTo('a');
+      assertThat(inputStream.skip(100)).isEqualTo(5);
+      assertThat(inputStream.skip(1)).isEqualTo(0);
+      assertThat(inputStream.read()).isEqualTo(-1);
+    }
+  }
+
+  @Test
+  public void testRestOfRegionIsTransferred() throws Exception {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (InputStream inputStream = fileRegionResource.getInputStream()) {
+      assertThat(inputStream.skip(4)).isEqualTo(4);
+      assertThat(inputStream.transferTo(out)).isEqualTo(REGION_LENGTH - 4);
+      assertThat(inputStream.transferTo(out)).isEqualTo(0);
+    }
+    assertThat(out.toString(StandardCharsets.US_ASCII)).isEqualTo("456789abcdef");
+  }
+
+  @Test
+  public void testRegionPastEndOfTruncatedFileStopsAtEndOfFile() throws Exception {
+    final FileRegionResource pastEndOfFile = new FileRegionResource(LOGFILE, 100);
+    try (InputStream inputStream = pastEndOfFile.getInputStream()) {
+      assertThat(new String(inputStream.readAllBytes(), StandardCharsets.US_ASCII))
+          .isEqualTo(LOGFILE_CONTENT);
+    }
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (InputStream inputStream = pastEndOfFile.getInputStream()) {
+      assertThat(inputStream.transferTo(out)).isEqualTo(LOGFILE_CONTENT.length());
+    }
+  }
+}
@@ -101,7 +101,7 @@ public class TestExampleScalpingStrategy {
 
     // expect market order book to be fetched
     expect(market.getId()).andReturn(MARKET_ID);
-    expect(tradingApi.getMarketOrders(MARKET_ID)).andReturn(marketOrderBook);
+    expect(tradingApi.getMarketOrders(MARKET_ID, 1)).andReturn(marketOrderBook);
     expect(marketOrderBook.getBuyOrders()).andReturn(marketBuyOrders);
     expect(marketOrderBook.getSellOrders()).andReturn(marketSellOrders);
   }
@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.trading.api;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs blocking Trading API calls asynchronously for the default async methods of {@link
+ * TradingApi}.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+final class AsyncTradingApiCalls {
+
+  /** The most threads the shared executor runs calls on; further calls queue. */
+  static final int DEFAULT_EXECUTOR_THREADS = 16;
+
+  private static final long DEFAULT_EXECUTOR_KEEP_ALIVE_SECONDS = 60;
+
+  private AsyncTradingApiCalls() {
+  }
+
+  /**
+   * A blocking Trading API call.
+   *
+   * @param <T> the call's result type.
+   */
+  @FunctionalInterface
+  interface TradingApiCall<T> {
+    T call() throws ExchangeNetworkException, TradingApiException;
+  }
+
+  /**
+   * Returns the shared executor. Calls block on network I/O, so it is a dedicated pool rather than
+   * the common fork-join pool. It is bounded to {@link #DEFAULT_EXECUTOR_THREADS} threads, so a
+   * burst of calls queues instead of starting a thread per call; idle threads are released. Its
+   * threads are daemons so they never keep the bot alive.
+   *
+   * @return the shared executor.
+   */
+  static Executor defaultExecutor() {
+    return DefaultExecutorHolder.EXECUTOR;
+  }
+
+  /**
+   * Runs the call on the given executor.
+   *
+   * @param call the blocking call.
+   * @param executor the executor to run it on.
+   * @param <T> the call's result type.
+   * @return a future holding the call's result. It completes exceptionally with the {@link
+   *     ExchangeNetworkException} or {@link TradingApiException} thrown by the call.
+   */
+  static <T> CompletableFuture<T> supplyAsync(TradingApiCall<T> call, Executor executor) {
+    return CompletableFuture.supplyAsync(
+        () -> {
+          try {
+            return call.call();
+          } catch (ExchangeNetworkException | TradingApiException e) {
+            throw new CompletionException(e);
+          }
+        },
+        executor);
+  }
+
+  /** Lazily creates the shared executor the first time an async call is made. */
+  private static final class DefaultExecutorHolder {
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    private static ThreadPoolExecutor createExecutor() {
+      final ThreadPoolExecutor executor =
+          new ThreadPoolExecutor(
+              DEFAULT_EXECUTOR_THREADS,
+              DEFAULT_EXECUTOR_THREADS,
+              DEFAULT_EXECUTOR_KEEP_ALIVE_SECONDS,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(),
+              new ThreadFactoryBuilder()
+                  .setNameFormat("trading-api-async-%d")
+                  .setDaemon(true)
+                  .build());
+      executor.allowCoreThreadTimeOut(true);
+      return executor;
+    }
+  }
+}
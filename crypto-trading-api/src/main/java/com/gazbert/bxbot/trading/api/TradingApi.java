@@ -25,6 +25,8 @@ package com.gazbert.crypto.trading.api;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * BX-bot's Trading API.
@@ -39,6 +41,17 @@ import java.util.List;
  * href="http://www.investopedia.com/terms/s/spotprice.asp">spot price</a>. It does not support
  * futures or margin trading.
  *
+ * <p>Each call has an asynchronous variant returning a {@link CompletableFuture}, so a Trading
+ * Strategy can make independent calls concurrently, e.g. fetch the order book and its open orders
+ * at the same time. The future completes exceptionally with an {@link ExchangeNetworkException}
+ * or {@link TradingApiException} under the same conditions as the blocking call.
+ *
+ * <p>The default implementations are not non-blocking: they run the blocking call on the {@link
+ * #getAsyncExecutor()}, which does not block the caller but holds a pool thread for the whole
+ * call. Exchange Adapters may override them with non-blocking implementations; the bundled
+ * adapters only do so for public market data calls, e.g. {@link #getMarketOrdersAsync(String)}
+ * and {@link #getLatestMarketPriceAsync(String)}. Authenticated calls always use a pool thread.
+ *
  * @author gazbert
  * @since 1.0
  */
@@ -51,7 +64,7 @@ public interface TradingApi {
    * @since 1.0
    */
   default String getVersion() {
-    return "1.1";
+    return "1.3";
   }
 
   /**
@@ -80,6 +93,58 @@ public interface TradingApi {
   MarketOrderBook getMarketOrders(String marketId)
       throws ExchangeNetworkException, TradingApiException;
 
+  /**
+   * Fetches the top <em>market</em> orders for a given market, up to the given depth on each side
+   * of the book.
+   *
+   * <p>Use this when you only need the top of the book, e.g. the best BID and ASK prices: Exchange
+   * Adapters ask the exchange for a limited book where the exchange supports it, and otherwise
+   * stop adapting orders once the depth is reached. The default implementation fetches the full
+   * book and truncates it.
+   *
+   * @param marketId the id of the market.
+   * @param depth the maximum number of BUY orders and of SELL orders to return.
+   * @return the market order book.
+   * @throws IllegalArgumentException if depth is less than 1.
+   * @throws ExchangeNetworkException if a network error occurred trying to connect to the exchange.
+   *     This is implementation specific for each Exchange Adapter - see the documentation for the
+   *     adapter you are using. You could retry the API call, or exit from your Trading Strategy and
+   *     let the Trading Engine execute your Trading Strategy at the next trade cycle.
+   * @throws TradingApiException if the API call failed for any reason other than a network error.
+   *     This means something bad as happened; you would probably want to wrap this exception in a
+   *     StrategyException and let the Trading Engine shutdown the bot immediately to prevent
+   *     unexpected losses.
+   * @since 1.3
+   */
+  default MarketOrderBook getMarketOrders(String marketId, int depth)
+      throws ExchangeNetworkException, TradingApiException {
+
+    if (depth < 1) {
+      throw new IllegalArgumentException("Market order book depth must be at least 1: " + depth);
+    }
+
+    final MarketOrderBook marketOrderBook = getMarketOrders(marketId);
+    final List<MarketOrder> sellOrders = marketOrderBook.getSellOrders();
+    final List<MarketOrder> buyOrders = marketOrderBook.getBuyOrders();
+
+    return new MarketOrderBook() {
+      @Override
+      public String getMarketId() {
+        return marketOrderBook.getMarketId();
+      }
+
+      @Override
+      public List<MarketOrder> getSellOrders() {
+        return sellOrders.subList(0, Math.min(depth, sellOrders.size()));
+      }
+
+      @Override
+      public List<MarketOrder> getBuyOrders() {
+        return buyOrders.subList(0, Math.min(depth, buyOrders.size()));
+      }
+    };
+  }
+
   /**
    * Fetches <em>your</em> current open orders, i.e. the orders placed by the bot.
    *
@@ -284,4 +349,157 @@ public interface TradingApi {
       }
     };
   }
+
+  /**
+   * Returns the executor the default asynchronous calls run on. This is a shared pool of daemon
+   * threads, bounded so that a burst of calls queues instead of starting a thread per call.
+   * Exchange Adapters may override this to use their own executor.
+   *
+   * @return the executor for asynchronous calls.
+   * @since 1.2
+   */
+  default Executor getAsyncExecutor() {
+    return AsyncTradingApiCalls.defaultExecutor();
+  }
+
+  /**
+   * Asynchronous variant of {@link #getMarketOrders(String)}.
+   *
+   * @param marketId the id of the market.
+   * @return a future holding the market order book.
+   * @since 1.2
+   */
+  default CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId) {
+    return AsyncTradingApiCalls.supplyAsync(() -> getMarketOrders(marketId), getAsyncExecutor());
+  }
+
+  /**
+   * Asynchronous variant of {@link #getMarketOrders(String, int)}.
+   *
+   * @param marketId the id of the market.
+   * @param depth the maximum number of BUY orders and of SELL orders to return.
+   * @return a future holding the market order book.
+   * @since 1.3
+   */
+  default CompletableFuture<MarketOrderBook> getMarketOrdersAsync(String marketId, int depth) {
+    return AsyncTradingApiCalls.supplyAsync(
+        () -> getMarketOrders(marketId, depth), getAsyncExecutor());
+  }
+
+  /**
+   * Asynchronous variant of {@link #getYourOpenOrders(String)}.
+   *
+   * <p>Authenticated call: the default implementation runs the blocking call on a {@link
+   * #getAsyncExecutor()} thread.
+   *
+   * @param marketId the id of the market.
+   * @return a future holding your current open orders.
+   * @since 1.2
+   */
+  default CompletableFuture<List<OpenOrder>> getYourOpenOrdersAsync(String marketId) {
+    return AsyncTradingApiCalls.supplyAsync(() -> getYourOpenOrders(marketId), getAsyncExecutor());
+  }
+
+  /**
+   * Asynchronous variant of {@link #createOrder(String, OrderType, BigDecimal, BigDecimal)}.
+   *
+   * <p>Authenticated call: the default implementation runs the blocking call on a {@link
+   * #getAsyncExecutor()} thread.
+   *
+   * @param marketId the id of the market.
+   * @param orderType Value must be {@link OrderType#BUY} or {@link OrderType#SELL}.
+   * @param quantity amount of units you are buying/selling in this order.
+   * @param price the price per unit you are buying/selling at.
+   * @return a future holding the id of the order.
+   * @since 1.2
+   */
+  default CompletableFuture<String> createOrderAsync(
+      String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price) {
+    return AsyncTradingApiCalls.supplyAsync(
+        () -> createOrder(marketId, orderType, quantity, price), getAsyncExecutor());
+  }
+
+  /**
+   * Asynchronous variant of {@link #cancelOrder(String, String)}.
+   *
+   * <p>Authenticated call: the default implementation runs the blocking call on a {@link
+   * #getAsyncExecutor()} thread.
+   *
+   * @param orderId your order Id.
+   * @param marketId the id of the market the order was placed on, e.g. btc_usd
+   * @return a future holding true if order cancelled ok, false otherwise.
+   * @since 1.2
+   */
+  default CompletableFuture<Boolean> cancelOrderAsync(String orderId, String marketId) {
+    return AsyncTradingApiCalls.supplyAsync(
+        () -> cancelOrder(orderId, marketId), getAsyncExecutor());
+  }
+
+  /**
+   * Asynchronous variant of {@link #getLatestMarketPrice(String)}.
+   *
+   * @param marketId the id of the market.
+   * @return a future holding the latest market price.
+   * @since 1.2
+   */
+  default CompletableFuture<BigDecimal> getLatestMarketPriceAsync(String marketId) {
+    return AsyncTradingApiCalls.supplyAsync(
+        () -> getLatestMarketPrice(marketId), getAsyncExecutor());
+  }
+
+  /**
+   * Asynchronous variant of {@link #getBalanceInfo()}.
+   *
+   * <p>Authenticated call: the default implementation runs the blocking call on a {@link
+   * #getAsyncExecutor()} thread.
+   *
+   * @return a future holding the balance of your wallets on the exchange.
+   * @since 1.2
+   */
+  default CompletableFuture<BalanceInfo> getBalanceInfoAsync() {
+    return AsyncTradingApiCalls.supplyAsync(this::getBalanceInfo, getAsyncExecutor());
+  }
+
+  /**
+   * Asynchronous variant of {@link #getPercentageOfBuyOrderTakenForExchangeFee(String)}.
+   *
+   * <p>Authenticated call: the default implementation runs the blocking call on a {@link
+   * #getAsyncExecutor()} thread.
+   *
+   * @param marketId the id of the market.
+   * @return a future holding the % of the BUY order that the exchange uses to calculate its fee.
+   * @since 1.2
+   */
+  default CompletableFuture<BigDecimal> getPercentageOfBuyOrderTakenForExchangeFeeAsync(
+      String marketId) {
+    return AsyncTradingApiCalls.supplyAsync(
+        () -> getPercentageOfBuyOrderTakenForExchangeFee(marketId), getAsyncExecutor());
+  }
+
+  /**
+   * Asynchronous variant of {@link #getPercentageOfSellOrderTakenForExchangeFee(String)}.
+   *
+   * <p>Authenticated call: the default implementation runs the blocking call on a {@link
+   * #getAsyncExecutor()} thread.
+   *
+   * @param marketId the id of the market.
+   * @return a future holding the % of the SELL order that the exchange uses to calculate its fee.
+   * @since 1.2
+   */
+  default CompletableFuture<BigDecimal> getPercentageOfSellOrderTakenForExchangeFeeAsync(
+      String marketId) {
+    return AsyncTradingApiCalls.supplyAsync(
+        () -> getPercentageOfSellOrderTakenForExchangeFee(marketId), getAsyncExecutor());
+  }
+
+  /**
+   * Asynchronous variant of {@link #getTicker(String)}.
+   *
+   * @param marketId the id of the market.
+   * @return a future holding the exchange Ticker for a given market.
+   * @since 1.2
+   */
+  default CompletableFuture<Ticker> getTickerAsync(String marketId) {
+    return AsyncTradingApiCalls.supplyAsync(() -> getTicker(marketId), getAsyncExecutor());
+  }
 }
@@ -26,9 +26,16 @@ package com.gazbert.crypto.trading.api;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import org.junit.Test;
 
 /**
@@ -38,10 +45,12 @@ import org.junit.Test;
  */
 public class TestTradingApi {
 
+  private static final BigDecimal LATEST_PRICE = new BigDecimal("9876.54");
+
   @Test
   public void testGetVersion() {
     final MyApiImpl myApi = new MyApiImpl();
-    assertEquals("1.1", myApi.getVersion());
+    assertEquals("1.3", myApi.getVersion());
   }
 
   @Test
@@ -61,9 +70,97 @@ public class TestTradingApi {
     assertNull(ticker.getTimestamp());
   }
 
+  @Test
+  public void testGetMarketOrdersToDepthTruncatesFullBook() throws Exception {
+    final MyApiImpl myApi = new MyApiImpl();
+
+    final MarketOrderBook marketOrderBook = myApi.getMarketOrders("btc_usd", 2);
+    assertEquals("btc_usd", marketOrderBook.getMarketId());
+    assertEquals(2, marketOrderBook.getSellOrders().size());
+    assertEquals(new BigDecimal("100"), marketOrderBook.getSellOrders().get(0).getPrice());
+    assertEquals(new BigDecimal("101"), marketOrderBook.getSellOrders().get(1).getPrice());
+    assertEquals(2, marketOrderBook.getBuyOrders().size());
+    assertEquals(new BigDecimal("99"), marketOrderBook.getBuyOrders().get(0).getPrice());
+
+    final MarketOrderBook topOfBook = myApi.getMarketOrders("btc_usd", 1);
+    assertEquals(1, topOfBook.getSellOrders().size());
+    assertEquals(1, topOfBook.getBuyOrders().size());
+    assertEquals(new BigDecimal("99"), topOfBook.getBuyOrders().get(0).getPrice());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetMarketOrdersToDepthRejectsDepthLessThanOne() throws Exception {
+    final MyApiImpl myApi = new MyApiImpl();
+    myApi.getMarketOrders("btc_usd", 0);
+  }
+
+  @Test
+  public void testAsyncCallsReturnResultOfBlockingCalls() throws Exception {
+    final MyApiImpl myApi = new MyApiImpl();
+
+    final CompletableFuture<BigDecimal> latestPrice = myApi.getLatestMarketPriceAsync("btc_usd");
+    final CompletableFuture<Boolean> cancelled = myApi.cancelOrderAsync("order-123", "btc_usd");
+    final CompletableFuture<Ticker> ticker = myApi.getTickerAsync("btc_usd");
+
+    assertEquals(LATEST_PRICE, latestPrice.get());
+    assertEquals(Boolean.FALSE, cancelled.get());
+    assertNull(ticker.get().getLast());
+    assertSame(myApi.marketOrderBook, myApi.getMarketOrdersAsync("btc_usd").get());
+    assertEquals(1, myApi.getMarketOrdersAsync("btc_usd", 1).get().getSellOrders().size());
+  }
+
+  @Test
+  public void testAsyncCallsCompleteExceptionallyWithTradingApiExceptions() throws Exception {
+    final MyApiImpl myApi = new MyApiImpl();
+
+    try {
+      myApi.getBalanceInfoAsync().get();
+      fail("Expected ExecutionException");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof ExchangeNetworkException);
+    }
+
+    final CompletableFuture<String> orderId =
+        myApi.createOrderAsync("btc_usd", OrderType.BUY, BigDecimal.ONE, LATEST_PRICE);
+    try {
+      orderId.get();
+      fail("Expected ExecutionException");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof TradingApiException);
+    }
+  }
+
+  @Test
+  public void testAsyncCallsRunOnSharedAsyncExecutor() throws Exception {
+    final MyApiImpl myApi = new MyApiImpl();
+    assertSame(myApi.getAsyncExecutor(), new MyApiImpl().getAsyncExecutor());
+
+    final CompletableFuture<String> threadName =
+        CompletableFuture.supplyAsync(
+            () -> Thread.currentThread().getName(), myApi.getAsyncExecutor());
+    assertTrue(threadName.get().startsWith("trading-api-async-"));
+  }
+
+  @Test
+  public void testSharedAsyncExecutorIsBounded() {
+    final ThreadPoolExecutor executor = (ThreadPoolExecutor) new MyApiImpl().getAsyncExecutor();
+    assertEquals(AsyncTradingApiCalls.DEFAULT_EXECUTOR_THREADS, executor.getMaximumPoolSize());
+    assertTrue(executor.allowsCoreThreadTimeOut());
+  }
+
   /** Test class. */
   class MyApiImpl implements TradingApi {
 
+    final MarketOrderBook marketOrderBook =
+        createMarketOrderBook(
+            "btc_usd",
+            Arrays.asList(
+                createMarketOrder(OrderType.SELL, "100"),
+                createMarketOrder(OrderType.SELL, "101"),
+                createMarketOrder(OrderType.SELL, "102")),
+            Arrays.asList(
+                createMarketOrder(OrderType.BUY, "99"), createMarketOrder(OrderType.BUY, "98")));
+
     @Override
     public String getImplName() {
       return null;
@@ -71,7 +168,7 @@ public class TestTradingApi {
 
     @Override
     public MarketOrderBook getMarketOrders(String marketId) {
-      return null;
+      return marketOrderBook;
     }
 
     @Override
@@ -81,8 +178,9 @@ public class TestTradingApi {
 
     @Override
     public String createOrder(
-        String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price) {
-      return null;
+        String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price)
+        throws TradingApiException {
+      throw new TradingApiException("Insufficient funds");
     }
 
     @Override
@@ -92,12 +190,12 @@ public class TestTradingApi {
 
     @Override
     public BigDecimal getLatestMarketPrice(String marketId) {
-      return null;
+      return LATEST_PRICE;
     }
 
     @Override
-    public BalanceInfo getBalanceInfo() {
-      return null;
+    public BalanceInfo getBalanceInfo() throws ExchangeNetworkException {
+      throw new ExchangeNetworkException("Connection reset");
     }
 
     @Override
@@ -110,4 +208,48 @@ public class TestTradingApi {
       return null;
     }
   }
+
+  private static MarketOrderBook createMarketOrderBook(
+      String marketId, List<MarketOrder> sellOrders, List<MarketOrder> buyOrders) {
+    return new MarketOrderBook() {
+      @Override
+      public String getMarketId() {
+        return marketId;
+      }
+
+      @Override
+      public List<MarketOrder> getSellOrders() {
+        return sellOrders;
+      }
+
+      @Override
+      public List<MarketOrder> getBuyOrders() {
+        return buyOrders;
+      }
+    };
+  }
+
+  private static MarketOrder createMarketOrder(OrderType orderType, String price) {
+    return new MarketOrder() {
+      @Override
+      public OrderType getType() {
+        return orderType;
+      }
+
+      @Override
+      public BigDecimal getPrice() {
+        return new BigDecimal(price);
+      }
+
+      @Override
+      public BigDecimal getQuantity() {
+        return BigDecimal.ONE;
+      }
+
+      @Override
+      public BigDecimal getTotal() {
+        return new BigDecimal(price);
+      }
+    };
+  }
 }
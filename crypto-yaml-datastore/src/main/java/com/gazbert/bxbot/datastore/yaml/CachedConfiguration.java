@@ -0,0 +1,186 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.datastore.yaml;
+
+import com.google.common.base.MoreObjects;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Caches the config loaded from a YAML file.
+ *
+ * <p>The file is parsed the first time the config is read, and the parsed config is kept as a
+ * snapshot that is never handed out: every read returns a deep copy of it, so callers can change
+ * their copy without affecting anyone else's. Reads do not lock once the snapshot is loaded, so
+ * any number of threads can read at once.
+ *
+ * <p>Saving the config writes the file and replaces the snapshot. If the file is changed by
+ * anything else, e.g. edited by hand, the snapshot is dropped and the file is parsed again on the
+ * next read; changes are detected with a {@link java.nio.file.WatchService} on the file's
+ * directory. The change events for the cache's own saves are ignored: the file's key, modification
+ * time and size are recorded when it is saved, and an event is ignored while they still match. If
+ * the directory cannot be watched, the snapshot is only replaced when the config is saved.
+ *
+ * <p>Call {@link #close()} to stop watching the file once the cache is no longer used.
+ *
+ * @param <T> the type of config in the file.
+ * @author gazbert
+ */
+public final class CachedConfiguration<T> {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final Class<T> configClass;
+  private final String yamlConfigFile;
+  private final UnaryOperator<T> copier;
+  private final Runnable fileChangeListener = this::fileChanged;
+
+  // bumped each time the snapshot is replaced or dropped, so a load that started before then does
+  // not publish a stale snapshot
+  private final AtomicLong version = new AtomicLong();
+  private volatile T snapshot;
+  // the file as the last save left it; null if the cache has not saved it
+  private volatile List<Object> savedFileVersion;
+
+  /**
+   * Creates the cache and starts watching the file for changes. The file is not read until the
+   * config is.
+   *
+   * @param configClass the type of config in the file.
+   * @param yamlConfigFile the YAML file.
+   * @param copier makes a deep copy of the config.
+   */
+  public CachedConfiguration(Class<T> configClass, String yamlConfigFile, UnaryOperator<T> copier) {
+    this.configClass = configClass;
+    this.yamlConfigFile = yamlConfigFile;
+    this.copier = copier;
+    ConfigFileWatcher.getInstance().watch(Paths.get(yamlConfigFile), fileChangeListener);
+  }
+
+  /**
+   * Returns a copy of the config, loading it from the file if it is not cached.
+   *
+   * @return the config.
+   * @throws IllegalStateException if the file cannot be read.
+   * @throws IllegalArgumentException if the file cannot be parsed.
+   */
+  public T get() {
+    T config = snapshot;
+    if (config == null) {
+      config = load();
+    }
+    return copier.apply(config);
+  }
+
+  /**
+   * Saves the config to the file and caches a copy of it.
+   *
+   * @param config the config to save.
+   * @throws IllegalStateException if the file cannot be written.
+   * @throws IllegalArgumentException if the config cannot be saved.
+   */
+  public synchronized void save(T config) {
+    try {
+      ConfigurationManager.saveConfig(configClass, config, yamlConfigFile);
+    } catch (RuntimeException e) {
+      // the file may have been partly written
+      savedFileVersion = null;
+      invalidate();
+      throw e;
+    }
+    savedFileVersion = readFileVersion();
+    version.incrementAndGet();
+    snapshot = copier.apply(config);
+  }
+
+  /** Drops the cached config, so the file is loaded again on the next read. */
+  public void invalidate() {
+    version.incrementAndGet();
+    snapshot = null;
+    LOG.debug(() -> "Cached configuration for [" + configClass + "] invalidated");
+  }
+
+  /** Stops watching the file for changes. The cache can still be used, but is not reloaded. */
+  public void close() {
+    ConfigFileWatcher.getInstance().unwatch(Paths.get(yamlConfigFile), fileChangeListener);
+  }
+
+  // --------------------------------------------------------------------------
+  // Util methods
+  // --------------------------------------------------------------------------
+
+  /*
+   * Called by the watcher when the file is created, changed or deleted.
+   */
+  void fileChanged() {
+    final List<Object> saved = savedFileVersion;
+    if (saved != null && saved.equals(readFileVersion())) {
+      LOG.debug(() -> "Ignoring change event for [" + yamlConfigFile + "] saved by the bot");
+      return;
+    }
+    invalidate();
+  }
+
+  /*
+   * Returns what identifies this version of the file, or null if it cannot be read.
+   */
+  private List<Object> readFileVersion() {
+    try {
+      final BasicFileAttributes attributes =
+          Files.readAttributes(Paths.get(yamlConfigFile), BasicFileAttributes.class);
+      return Arrays.asList(attributes.fileKey(), attributes.lastModifiedTime(), attributes.size());
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private synchronized T load() {
+    T config = snapshot;
+    if (config == null) {
+      final long loadVersion = version.get();
+      config = ConfigurationManager.loadConfig(configClass, yamlConfigFile);
+      if (version.get() == loadVersion) {
+        snapshot = config;
+      }
+    }
+    return config;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("configClass", configClass)
+        .add("yamlConfigFile", yamlConfigFile)
+        .add("cached", snapshot != null)
+        .toString();
+  }
+}
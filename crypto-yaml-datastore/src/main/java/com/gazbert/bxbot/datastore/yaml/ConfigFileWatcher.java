@@ -0,0 +1,191 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.datastore.yaml;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Tells listeners when a config file is created, changed or deleted.
+ *
+ * <p>A single {@link WatchService} watches the directory of every file registered, and a daemon
+ * thread calls the file's listeners as the events arrive. Files replaced by renaming another file
+ * over them, as many editors do, are reported too. If the events for a directory overflow, every
+ * listener for a file in it is called.
+ *
+ * <p>A directory stops being watched once its last listener is removed, and the watcher shuts down
+ * once no listeners are left. It starts again if another file is watched.
+ *
+ * @author gazbert
+ */
+final class ConfigFileWatcher {
+
+  private static final Logger LOG = LogManager.getLogger();
+  private static final ConfigFileWatcher INSTANCE = new ConfigFileWatcher();
+
+  private WatchService watchService;
+  private final Map<Path, WatchKey> watchedDirectories = new HashMap<>();
+  private final Map<Path, List<Runnable>> listeners = new HashMap<>();
+
+  private ConfigFileWatcher() {
+  }
+
+  static ConfigFileWatcher getInstance() {
+    return INSTANCE;
+  }
+
+  /*
+   * Failing to watch a file is logged and not thrown: the config can still be used, it just won't
+   * be reloaded when changed outside the bot.
+   */
+  synchronized void watch(Path file, Runnable listener) {
+    final Path absoluteFile = file.toAbsolutePath().normalize();
+    final Path directory = absoluteFile.getParent();
+    try {
+      if (watchService == null) {
+        final WatchService newWatchService = FileSystems.getDefault().newWatchService();
+        final Thread watcherThread =
+            new Thread(() -> watchForEvents(newWatchService), "config-file-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        watchService = newWatchService;
+      }
+      if (!watchedDirectories.containsKey(directory)) {
+        watchedDirectories.put(
+            directory, directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE));
+      }
+      listeners.computeIfAbsent(absoluteFile, f -> new ArrayList<>()).add(listener);
+    } catch (IOException e) {
+      LOG.warn("Cannot watch [" + file + "] for changes; it will only be reloaded when saved", e);
+    }
+  }
+
+  /**
+   * Removes a listener added with {@link #watch(Path, Runnable)}.
+   *
+   * @param file the file the listener was added for.
+   * @param listener the listener to remove.
+   */
+  synchronized void unwatch(Path file, Runnable listener) {
+    final Path absoluteFile = file.toAbsolutePath().normalize();
+    final List<Runnable> fileListeners = listeners.get(absoluteFile);
+    if (fileListeners == null || !fileListeners.remove(listener)) {
+      return;
+    }
+    if (fileListeners.isEmpty()) {
+      listeners.remove(absoluteFile);
+      final Path directory = absoluteFile.getParent();
+      if (listeners.keySet().stream().noneMatch(f -> directory.equals(f.getParent()))) {
+        final WatchKey watchKey = watchedDirectories.remove(directory);
+        if (watchKey != null) {
+          watchKey.cancel();
+        }
+      }
+    }
+    if (listeners.isEmpty()) {
+      shutdown();
+    }
+  }
+
+  /** Stops watching every file and stops the watcher thread. */
+  synchronized void shutdown() {
+    listeners.clear();
+    watchedDirectories.clear();
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (IOException e) {
+        LOG.warn("Failed to close the config file watch service", e);
+      }
+      watchService = null;
+    }
+  }
+
+  private void watchForEvents(WatchService service) {
+    try {
+      while (true) {
+        final WatchKey watchKey = service.take();
+        final Path directory = (Path) watchKey.watchable();
+        for (final WatchEvent<?> event : watchKey.pollEvents()) {
+          notifyListeners(directory, event.kind(), (Path) event.context());
+        }
+        if (!watchKey.reset()) {
+          synchronized (this) {
+            watchedDirectories.remove(directory, watchKey);
+          }
+          LOG.warn("Stopped watching for config changes in: " + directory);
+        }
+      }
+    } catch (ClosedWatchServiceException e) {
+      LOG.info(() -> "Config file watcher shut down");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /*
+   * An OVERFLOW event has no file, as events were lost: every file in the directory may have
+   * changed.
+   */
+  void notifyListeners(Path directory, WatchEvent.Kind<?> kind, Path file) {
+    final List<Runnable> eventListeners = new ArrayList<>();
+    synchronized (this) {
+      if (kind == OVERFLOW) {
+        for (final Map.Entry<Path, List<Runnable>> entry : listeners.entrySet()) {
+          if (directory.equals(entry.getKey().getParent())) {
+            eventListeners.addAll(entry.getValue());
+          }
+        }
+      } else {
+        eventListeners.addAll(listeners.getOrDefault(directory.resolve(file), List.of()));
+      }
+    }
+    if (!eventListeners.isEmpty()) {
+      LOG.info(() -> "Config file " + kind.name() + ": " + directory.resolve(String.valueOf(file)));
+    }
+    for (final Runnable listener : eventListeners) {
+      try {
+        listener.run();
+      } catch (RuntimeException e) {
+        LOG.error("Config file listener failed for " + kind.name() + " of: " + file, e);
+      }
+    }
+  }
+}
@@ -23,14 +23,25 @@
 
 package com.gazbert.crypto.datastore.yaml;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Collections;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.yaml.snakeyaml.DumperOptions;
@@ -46,25 +57,41 @@ import org.yaml.snakeyaml.representer.Representer;
 /**
  * The generic configuration manager loads config from a given YAML config file.
  *
+ * <p>Config is saved to a temp file that is synced to disk and then renamed over the config file,
+ * so the config file is never left part written if the bot is killed while saving. The previous
+ * {@link #VERSIONS_KEPT} versions of the file are kept alongside it as file.1 (the newest) to
+ * file.N.
+ *
+ * <p>Each file has its own read/write lock: any number of threads can load a file at once, and
+ * saving a file only blocks loads and saves of that file.
+ *
  * @author gazbert
  */
 public final class ConfigurationManager {
 
+  /** The number of previous versions of a config file kept when it is saved. */
+  public static final int VERSIONS_KEPT = 3;
+
   private static final Logger LOG = LogManager.getLogger();
   private static final String YAML_HEADER = "---" + System.getProperty("line.separator");
+  private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+  private static final ConcurrentMap<Path, ReadWriteLock> FILE_LOCKS = new ConcurrentHashMap<>();
 
   private ConfigurationManager() {
   }
 
   /** Loads the config from the YAML file. */
-  public static synchronized <T> T loadConfig(final Class<T> configClass, String yamlConfigFile) {
+  public static <T> T loadConfig(final Class<T> configClass, String yamlConfigFile) {
 
     LOG.info(
         () -> "Loading configuration for [" + configClass + "] from: " + yamlConfigFile + " ...");
 
-    try (final FileInputStream fileInputStream = new FileInputStream(yamlConfigFile)) {
+    final Lock readLock = lockFor(yamlConfigFile).readLock();
+    readLock.lock();
+    try (final InputStream inputStream = Files.newInputStream(Paths.get(yamlConfigFile))) {
       final Yaml yaml = new Yaml(new Constructor(configClass));
-      final T requestedConfig = yaml.load(fileInputStream);
+      final T requestedConfig = yaml.load(inputStream);
 
       LOG.info(() -> "Loaded and set configuration for [" + configClass + "] successfully!");
       return requestedConfig;
@@ -79,19 +106,20 @@ public final class ConfigurationManager {
           "Failed to load [" + yamlConfigFile + "] file. Details: " + e.getMessage();
       LOG.error(errorMsg, e);
       throw new IllegalArgumentException(errorMsg, e);
+
+    } finally {
+      readLock.unlock();
     }
   }
 
   /** Saves the config to the YAML file. */
-  public static synchronized <T> void saveConfig(
-      Class<T> configClass, T config, String yamlConfigFile) {
+  public static <T> void saveConfig(Class<T> configClass, T config, String yamlConfigFile) {
 
     LOG.info(() -> "Saving configuration for [" + configClass + "] to: " + yamlConfigFile + " ...");
 
-    try (final FileOutputStream fileOutputStream = new FileOutputStream(yamlConfigFile);
-        final PrintWriter writer =
-            new PrintWriter(fileOutputStream, true, StandardCharsets.UTF_8)) {
-
+    final Lock writeLock = lockFor(yamlConfigFile).writeLock();
+    writeLock.lock();
+    try {
       // Skip null fields and order the YAML fields
       final Representer representer = new SkipNullFieldRepresenter();
       representer.setPropertyUtils(new ReversedPropertyUtils());
@@ -101,7 +129,7 @@ public final class ConfigurationManager {
       sb.append(yaml.dumpAs(config, Tag.MAP, DumperOptions.FlowStyle.BLOCK));
 
       LOG.debug(() -> "YAML file content:\n" + sb);
-      writer.print(sb);
+      writeAtomically(Paths.get(yamlConfigFile), sb.toString());
 
     } catch (IOException e) {
       final String errorMsg = "Failed to find or read [" + yamlConfigFile + "] config";
@@ -113,6 +141,93 @@ public final class ConfigurationManager {
           "Failed to save config to [" + yamlConfigFile + "] file. Details: " + e.getMessage();
       LOG.error(errorMsg, e);
       throw new IllegalArgumentException(errorMsg, e);
+
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the path of a previous version of a config file.
+   *
+   * @param yamlConfigFile the config file.
+   * @param version the version, from 1 (the newest) to {@link #VERSIONS_KEPT}.
+   * @return the path of the previous version.
+   */
+  public static Path previousVersionOf(String yamlConfigFile, int version) {
+    final Path file = Paths.get(yamlConfigFile);
+    return file.resolveSibling(file.getFileName() + "." + version);
+  }
+
+  // --------------------------------------------------------------------------
+  // Util methods
+  // --------------------------------------------------------------------------
+
+  private static ReadWriteLock lockFor(String yamlConfigFile) {
+    return FILE_LOCKS.computeIfAbsent(
+        Paths.get(yamlConfigFile).toAbsolutePath().normalize(),
+        file -> new ReentrantReadWriteLock());
+  }
+
+  private static void writeAtomically(Path file, String content) throws IOException {
+    final Path directory = file.toAbsolutePath().getParent();
+    // saves of a file are serialised by its write lock, so its temp file is never shared
+    final Path tempFile = directory.resolve("." + file.getFileName() + TEMP_FILE_SUFFIX);
+    try {
+      try (final FileChannel channel =
+          FileChannel.open(
+              tempFile,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.TRUNCATE_EXISTING,
+              StandardOpenOption.WRITE)) {
+        final ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+        channel.force(true);
+      }
+
+      if (Files.exists(file)) {
+        keepPreviousVersion(file);
+      }
+
+      try {
+        Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        LOG.warn(() -> "Atomic move not supported, replacing [" + file + "] in place", e);
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+      syncDirectory(directory);
+
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  private static void keepPreviousVersion(Path file) throws IOException {
+    final String fileName = file.toString();
+    Files.deleteIfExists(previousVersionOf(fileName, VERSIONS_KEPT));
+    for (int version = VERSIONS_KEPT - 1; version >= 1; version--) {
+      final Path previousVersion = previousVersionOf(fileName, version);
+      if (Files.exists(previousVersion)) {
+        Files.move(
+            previousVersion,
+            previousVersionOf(fileName, version + 1),
+            StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    Files.copy(file, previousVersionOf(fileName, 1), StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /*
+   * Syncs the rename to disk. Not every platform can open a directory to sync it, e.g. Windows,
+   * so this is best effort.
+   */
+  private static void syncDirectory(Path directory) {
+    try (final FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException e) {
+      LOG.debug(() -> "Could not sync directory: " + directory, e);
     }
   }
 
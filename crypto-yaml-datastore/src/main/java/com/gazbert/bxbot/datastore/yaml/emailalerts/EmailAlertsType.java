@@ -34,6 +34,15 @@ public class EmailAlertsType {
 
   private EmailAlertsConfig emailAlerts;
 
+  // required for snakeyaml
+  public EmailAlertsType() {
+  }
+
+  /** Creates a deep copy of an existing EmailAlertsType. */
+  public EmailAlertsType(EmailAlertsType other) {
+    this.emailAlerts = other.emailAlerts == null ? null : new EmailAlertsConfig(other.emailAlerts);
+  }
+
   public EmailAlertsConfig getEmailAlerts() {
     return emailAlerts;
   }
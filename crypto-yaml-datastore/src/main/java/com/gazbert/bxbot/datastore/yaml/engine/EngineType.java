@@ -34,6 +34,15 @@ public class EngineType {
 
   private EngineConfig engine;
 
+  // required for snakeyaml
+  public EngineType() {
+  }
+
+  /** Creates a deep copy of an existing EngineType. */
+  public EngineType(EngineType other) {
+    this.engine = other.engine == null ? null : new EngineConfig(other.engine);
+  }
+
   public EngineConfig getEngine() {
     return engine;
   }
@@ -34,6 +34,15 @@ public class ExchangeType {
 
   private ExchangeConfig exchange;
 
+  // required for snakeyaml
+  public ExchangeType() {
+  }
+
+  /** Creates a deep copy of an existing ExchangeType. */
+  public ExchangeType(ExchangeType other) {
+    this.exchange = other.exchange == null ? null : new ExchangeConfig(other.exchange);
+  }
+
   public ExchangeConfig getExchange() {
     return exchange;
   }
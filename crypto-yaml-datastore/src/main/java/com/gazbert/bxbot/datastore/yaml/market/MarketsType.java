@@ -36,6 +36,20 @@ public class MarketsType {
 
   private List<MarketConfig> markets;
 
+  // required for snakeyaml
+  public MarketsType() {
+  }
+
+  /** Creates a deep copy of an existing MarketsType. */
+  public MarketsType(MarketsType other) {
+    markets = new ArrayList<>();
+    if (other.markets != null) {
+      for (final MarketConfig config : other.markets) {
+        markets.add(new MarketConfig(config));
+      }
+    }
+  }
+
   /**
    * Returns the Market configs.
    */
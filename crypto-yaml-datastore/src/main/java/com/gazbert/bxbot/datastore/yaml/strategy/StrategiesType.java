@@ -36,6 +36,20 @@ public class StrategiesType {
 
   private List<StrategyConfig> strategies;
 
+  // required for snakeyaml
+  public StrategiesType() {
+  }
+
+  /** Creates a deep copy of an existing StrategiesType. */
+  public StrategiesType(StrategiesType other) {
+    strategies = new ArrayList<>();
+    if (other.strategies != null) {
+      for (final StrategyConfig config : other.strategies) {
+        strategies.add(new StrategyConfig(config));
+      }
+    }
+  }
+
   /** Returns the Strategy configs. */
   public List<StrategyConfig> getStrategies() {
     if (strategies == null) {
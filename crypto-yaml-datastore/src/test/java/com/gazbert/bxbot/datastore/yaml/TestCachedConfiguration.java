@@ -0,0 +1,195 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.datastore.yaml;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.crypto.datastore.yaml.engine.EngineType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the cached configuration behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestCachedConfiguration {
+
+  private static final Path VALID_YAML_CONFIG_FILE =
+      Paths.get("src/test/config/engine/valid-engine.yaml");
+  private static final Path CACHED_YAML_CONFIG_FILE =
+      Paths.get("target/cached-config/cached-engine.yaml");
+  private static final String MISSING_YAML_CONFIG_FILENAME =
+      "target/cached-config/missing-engine.yaml";
+  private static final String INVALID_YAML_CONFIG_TO_SAVE_FILENAME =
+      "target/not-here/saved-engine.yaml";
+
+  private static final String BOT_ID = "avro-707_1";
+  private static final String BOT_NAME = "Avro 707";
+  private static final String UPDATED_BOT_NAME = "Avro 707 Mk2";
+  private static final long FILE_CHANGE_TIMEOUT_MILLIS = 10_000;
+
+  private CachedConfiguration<EngineType> cachedConfiguration;
+
+  /** Copies the config file the tests use and creates the cache. */
+  @Before
+  public void setup() throws Exception {
+    Files.createDirectories(CACHED_YAML_CONFIG_FILE.getParent());
+    Files.copy(
+        VALID_YAML_CONFIG_FILE, CACHED_YAML_CONFIG_FILE, StandardCopyOption.REPLACE_EXISTING);
+    cachedConfiguration =
+        new CachedConfiguration<>(
+            EngineType.class, CACHED_YAML_CONFIG_FILE.toString(), EngineType::new);
+  }
+
+  @After
+  public void cleanUp() throws Exception {
+    cachedConfiguration.close();
+    Files.deleteIfExists(CACHED_YAML_CONFIG_FILE);
+  }
+
+  @Test
+  public void testGetReturnsCopyOfCachedConfig() {
+    final EngineType engineType = cachedConfiguration.get();
+    assertEquals(BOT_ID, engineType.getEngine().getBotId());
+    assertEquals(BOT_NAME, engineType.getEngine().getBotName());
+
+    engineType.getEngine().setBotName(UPDATED_BOT_NAME);
+
+    final EngineType engineTypeAgain = cachedConfiguration.get();
+    assertNotSame(engineType, engineTypeAgain);
+    assertNotSame(engineType.getEngine(), engineTypeAgain.getEngine());
+    assertEquals(BOT_NAME, engineTypeAgain.getEngine().getBotName());
+  }
+
+  @Test
+  public void testSaveUpdatesCacheAndFile() {
+    final EngineType engineType = cachedConfiguration.get();
+    engineType.getEngine().setBotName(UPDATED_BOT_NAME);
+
+    cachedConfiguration.save(engineType);
+
+    // changing the saved config must not change the cache
+    engineType.getEngine().setBotName(BOT_NAME);
+
+    assertEquals(UPDATED_BOT_NAME, cachedConfiguration.get().getEngine().getBotName());
+    assertEquals(
+        UPDATED_BOT_NAME,
+        ConfigurationManager.loadConfig(EngineType.class, CACHED_YAML_CONFIG_FILE.toString())
+            .getEngine()
+            .getBotName());
+  }
+
+  @Test
+  public void testInvalidateReloadsConfigFromFile() throws Exception {
+    assertEquals(BOT_NAME, cachedConfiguration.get().getEngine().getBotName());
+
+    writeConfigWithUpdatedBotName();
+    cachedConfiguration.invalidate();
+
+    assertEquals(UPDATED_BOT_NAME, cachedConfiguration.get().getEngine().getBotName());
+  }
+
+  @Test
+  public void testConfigIsReloadedWhenFileIsChanged() throws Exception {
+    assertEquals(BOT_NAME, cachedConfiguration.get().getEngine().getBotName());
+
+    writeConfigWithUpdatedBotName();
+
+    final long deadline = System.currentTimeMillis() + FILE_CHANGE_TIMEOUT_MILLIS;
+    while (!UPDATED_BOT_NAME.equals(cachedConfiguration.get().getEngine().getBotName())
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+    }
+    assertEquals(UPDATED_BOT_NAME, cachedConfiguration.get().getEngine().getBotName());
+  }
+
+  @Test
+  public void testChangeEventForOwnSaveDoesNotDropCachedConfig() throws Exception {
+    final EngineType engineType = cachedConfiguration.get();
+    engineType.getEngine().setBotName(UPDATED_BOT_NAME);
+    cachedConfiguration.save(engineType);
+
+    cachedConfiguration.fileChanged();
+    assertTrue(cachedConfiguration.toString().contains("cached=true"));
+
+    // a change made by anything else still drops it
+    Files.write(CACHED_YAML_CONFIG_FILE, Files.readAllBytes(VALID_YAML_CONFIG_FILE));
+    cachedConfiguration.fileChanged();
+    assertTrue(cachedConfiguration.toString().contains("cached=false"));
+    assertEquals(BOT_NAME, cachedConfiguration.get().getEngine().getBotName());
+  }
+
+  @Test
+  public void testClosedCacheIsNotDroppedWhenFileChanges() {
+    cachedConfiguration.get();
+    cachedConfiguration.close();
+
+    final Path file = CACHED_YAML_CONFIG_FILE.toAbsolutePath();
+    ConfigFileWatcher.getInstance()
+        .notifyListeners(file.getParent(), ENTRY_MODIFY, file.getFileName());
+    assertTrue(cachedConfiguration.toString().contains("cached=true"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testGettingMissingConfigThrowsException() {
+    new CachedConfiguration<>(EngineType.class, MISSING_YAML_CONFIG_FILENAME, EngineType::new)
+        .get();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSavingConfigToInvalidYamlFileIsHandled() {
+    new CachedConfiguration<>(
+            EngineType.class, INVALID_YAML_CONFIG_TO_SAVE_FILENAME, EngineType::new)
+        .save(cachedConfiguration.get());
+  }
+
+  @Test
+  public void testToStringShowsConfigFileAndWhetherConfigIsCached() {
+    // the cache may be invalidated at any time by the watcher, so only check it before loading
+    assertTrue(cachedConfiguration.toString().contains(CACHED_YAML_CONFIG_FILE.toString()));
+    assertTrue(cachedConfiguration.toString().contains("cached=false"));
+  }
+
+  // --------------------------------------------------------------------------
+  // Private utils
+  // --------------------------------------------------------------------------
+
+  private static void writeConfigWithUpdatedBotName() throws Exception {
+    final String yaml =
+        new String(Files.readAllBytes(VALID_YAML_CONFIG_FILE), StandardCharsets.UTF_8);
+    Files.write(
+        CACHED_YAML_CONFIG_FILE,
+        yaml.replace(BOT_NAME, UPDATED_BOT_NAME).getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Gareth Jon Lynch
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.crypto.datastore.yaml;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+/**
+ * Tests the config file watcher behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestConfigFileWatcher {
+
+  private static final Path WATCHED_DIRECTORY = Paths.get("target/config-file-watcher");
+  private static final Path WATCHED_FILE = WATCHED_DIRECTORY.resolve("watched.yaml");
+  private static final Path OTHER_FILE = WATCHED_DIRECTORY.resolve("other.yaml");
+  private static final Path RESTARTED_FILE = Paths.get("target/config-file-watcher-restart/a.yaml");
+  private static final Path MISSING_DIRECTORY_FILE = Paths.get("target/not-here/watched.yaml");
+  private static final long FILE_CHANGE_TIMEOUT_SECONDS = 10;
+
+  @Test
+  public void testListenerIsCalledWhenWatchedFileChangesAndDirectoryIsDeleted() throws Exception {
+    Files.createDirectories(WATCHED_DIRECTORY);
+    final CountDownLatch created = new CountDownLatch(1);
+    final CountDownLatch deleted = new CountDownLatch(2);
+    ConfigFileWatcher.getInstance()
+        .watch(
+            WATCHED_FILE,
+            () -> {
+              created.countDown();
+              deleted.countDown();
+            });
+
+    Files.write(OTHER_FILE, new byte[] {1});
+    Files.write(WATCHED_FILE, new byte[] {1});
+    assertTrue(created.await(FILE_CHANGE_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+    // deleting the directory stops it being watched
+    Files.delete(WATCHED_FILE);
+    Files.delete(OTHER_FILE);
+    Files.delete(WATCHED_DIRECTORY);
+    assertTrue(deleted.await(FILE_CHANGE_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testEveryListenerInDirectoryIsCalledWhenEventsOverflow() throws Exception {
+    final Path directory =
+        Files.createDirectories(Paths.get("target/config-file-watcher-overflow")).toAbsolutePath();
+    final AtomicInteger calls = new AtomicInteger();
+    final ConfigFileWatcher watcher = ConfigFileWatcher.getInstance();
+    watcher.watch(directory.resolve("first.yaml"), calls::incrementAndGet);
+    watcher.watch(
+        directory.resolve("second.yaml"),
+        () -> {
+          calls.incrementAndGet();
+          throw new IllegalStateException("listener failures are logged and not thrown");
+        });
+    watcher.watch(Paths.get("target/third.yaml"), calls::incrementAndGet);
+
+    watcher.notifyListeners(directory, OVERFLOW, null);
+    assertEquals(2, calls.get());
+
+    watcher.notifyListeners(directory, ENTRY_MODIFY, Paths.get("first.yaml"));
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  public void testRemovedListenerIsNotCalled() throws Exception {
+    final Path directory =
+        Files.createDirectories(Paths.get("target/config-file-watcher-unwatch")).toAbsolutePath();
+    final Path file = directory.resolve("unwatched.yaml");
+    final AtomicInteger calls = new AtomicInteger();
+    final Runnable listener = calls::incrementAndGet;
+    final ConfigFileWatcher watcher = ConfigFileWatcher.getInstance();
+    watcher.watch(file, listener);
+    watcher.watch(file, calls::incrementAndGet);
+
+    watcher.unwatch(file, listener);
+    watcher.unwatch(file, listener); // already removed
+    watcher.notifyListeners(directory, ENTRY_MODIFY, file.getFileName());
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void testWatcherCanBeShutDownAndRestarted() throws Exception {
+    Files.createDirectories(RESTARTED_FILE.getParent());
+    final AtomicInteger callsBeforeShutdown = new AtomicInteger();
+    final ConfigFileWatcher watcher = ConfigFileWatcher.getInstance();
+    watcher.watch(RESTARTED_FILE, callsBeforeShutdown::incrementAndGet);
+
+    watcher.shutdown();
+    watcher.notifyListeners(
+        RESTARTED_FILE.toAbsolutePath().getParent(), ENTRY_MODIFY, RESTARTED_FILE.getFileName());
+    assertEquals(0, callsBeforeShutdown.get());
+
+    // watching a file again restarts the watcher
+    final CountDownLatch changed = new CountDownLatch(1);
+    watcher.watch(RESTARTED_FILE, changed::countDown);
+    Files.write(RESTARTED_FILE, new byte[] {1});
+    assertTrue(changed.await(FILE_CHANGE_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    assertEquals(0, callsBeforeShutdown.get());
+    Files.delete(RESTARTED_FILE);
+  }
+
+  @Test
+  public void testWatchingFileInMissingDirectoryIsHandled() {
+    final AtomicInteger calls = new AtomicInteger();
+    ConfigFileWatcher.getInstance().watch(MISSING_DIRECTORY_FILE, calls::incrementAndGet);
+    assertEquals(0, calls.get());
+  }
+}
@@ -86,6 +86,20 @@ public class TestEmailAlertsConfigurationManagement {
     assertFalse(emailAlertsType.getEmailAlerts().isEnabled());
   }
 
+  @Test
+  public void testCopyingLoadedConfigIsDeep() {
+    final EmailAlertsType emailAlertsType =
+        ConfigurationManager.loadConfig(EmailAlertsType.class, VALID_YAML_CONFIG_FILENAME);
+    final EmailAlertsType emailAlertsTypeCopy = new EmailAlertsType(emailAlertsType);
+
+    assertThat(emailAlertsTypeCopy.getEmailAlerts()).isNotSameAs(emailAlertsType.getEmailAlerts());
+    assertTrue(emailAlertsTypeCopy.getEmailAlerts().isEnabled());
+
+    emailAlertsTypeCopy.getEmailAlerts().getSmtpConfig().setHost("smtp.example.com");
+    assertEquals("smtp.gmail.com", emailAlertsType.getEmailAlerts().getSmtpConfig().getHost());
+    assertThat(new EmailAlertsType(new EmailAlertsType()).getEmailAlerts()).isNull();
+  }
+
   @Test(expected = IllegalStateException.class)
   public void testLoadingMissingYamlConfigThrowsException() {
     ConfigurationManager.loadConfig(EmailAlertsType.class, MISSING_YAML_CONFIG_FILENAME);
@@ -24,12 +24,16 @@
 package com.gazbert.crypto.datastore.yaml.engine;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 import com.gazbert.crypto.datastore.yaml.ConfigurationManager;
 import com.gazbert.crypto.domain.engine.EngineConfig;
 import java.math.BigDecimal;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
 import org.junit.Test;
 
 /**
@@ -47,6 +51,8 @@ public class TestEngineConfigurationManagement {
       "src/test/config/engine/missing-engine.yaml";
   private static final String YAML_CONFIG_TO_SAVE_FILENAME =
       "src/test/config/engine/saved-engine.yaml";
+  private static final String VERSIONED_YAML_CONFIG_TO_SAVE_FILENAME =
+      "src/test/config/engine/versioned-engine.yaml";
   private static final String INVALID_YAML_CONFIG_TO_SAVE_FILENAME =
       "src/test/config/not-here/saved-engine.yaml";
 
@@ -109,6 +115,54 @@ public class TestEngineConfigurationManagement {
     Files.delete(FileSystems.getDefault().getPath(YAML_CONFIG_TO_SAVE_FILENAME));
   }
 
+  @Test
+  public void testSavingConfigKeepsPreviousVersions() throws Exception {
+    final int saves = ConfigurationManager.VERSIONS_KEPT + 2;
+    for (int tradeCycleInterval = 1; tradeCycleInterval <= saves; tradeCycleInterval++) {
+      final EngineConfig engineConfig = new EngineConfig();
+      engineConfig.setBotId(BOT_ID);
+      engineConfig.setBotName(BOT_NAME);
+      engineConfig.setTradeCycleInterval(tradeCycleInterval);
+
+      final EngineType engineType = new EngineType();
+      engineType.setEngine(engineConfig);
+      ConfigurationManager.saveConfig(
+          EngineType.class, engineType, VERSIONED_YAML_CONFIG_TO_SAVE_FILENAME);
+    }
+
+    assertEquals(
+        saves,
+        ConfigurationManager.loadConfig(EngineType.class, VERSIONED_YAML_CONFIG_TO_SAVE_FILENAME)
+            .getEngine()
+            .getTradeCycleInterval());
+    for (int version = 1; version <= ConfigurationManager.VERSIONS_KEPT; version++) {
+      final Path previousVersion =
+          ConfigurationManager.previousVersionOf(VERSIONED_YAML_CONFIG_TO_SAVE_FILENAME, version);
+      assertEquals(
+          saves - version,
+          ConfigurationManager.loadConfig(EngineType.class, previousVersion.toString())
+              .getEngine()
+              .getTradeCycleInterval());
+    }
+    assertFalse(
+        Files.exists(
+            ConfigurationManager.previousVersionOf(
+                VERSIONED_YAML_CONFIG_TO_SAVE_FILENAME, ConfigurationManager.VERSIONS_KEPT + 1)));
+
+    // cleanup - only the config file and its previous versions should be left
+    final Path configFile = Paths.get(VERSIONED_YAML_CONFIG_TO_SAVE_FILENAME);
+    try (Stream<Path> files = Files.list(configFile.getParent())) {
+      assertEquals(
+          ConfigurationManager.VERSIONS_KEPT + 1,
+          files.filter(file -> file.getFileName().toString().contains("versioned-engine")).count());
+    }
+    Files.delete(configFile);
+    for (int version = 1; version <= ConfigurationManager.VERSIONS_KEPT; version++) {
+      Files.delete(
+          ConfigurationManager.previousVersionOf(VERSIONED_YAML_CONFIG_TO_SAVE_FILENAME, version));
+    }
+  }
+
   @Test(expected = IllegalStateException.class)
   public void testSavingConfigToInvalidYamlFileIsHandled() {
     final EngineConfig engineConfig = new EngineConfig();
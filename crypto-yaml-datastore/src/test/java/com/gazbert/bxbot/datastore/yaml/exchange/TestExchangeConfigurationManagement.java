@@ -117,6 +117,21 @@ public class TestExchangeConfigurationManagement {
         .isEqualTo(SELL_FEE_CONFIG_ITEM_VALUE);
   }
 
+  @Test
+  public void testCopyingLoadedConfigIsDeep() {
+    final ExchangeType exchangeType =
+        ConfigurationManager.loadConfig(ExchangeType.class, VALID_YAML_CONFIG_FILENAME);
+    final ExchangeType exchangeTypeCopy = new ExchangeType(exchangeType);
+
+    assertThat(exchangeTypeCopy.getExchange()).isNotSameAs(exchangeType.getExchange());
+    assertThat(exchangeTypeCopy.getExchange().getName()).isEqualTo(EXCHANGE_NAME);
+
+    exchangeTypeCopy.getExchange().setAuthenticationConfig(null);
+    assertThat(exchangeType.getExchange().getAuthenticationConfig().get(CLIENT_ID_CONFIG_ITEM_KEY))
+        .isEqualTo(CLIENT_ID_CONFIG_ITEM_VALUE);
+    assertThat(new ExchangeType(new ExchangeType()).getExchange()).isNull();
+  }
+
   @Test(expected = IllegalStateException.class)
   public void testLoadingMissingYamlConfigFileThrowsException() {
     ConfigurationManager.loadConfig(ExchangeType.class, MISSING_XML_CONFIG_FILENAME);
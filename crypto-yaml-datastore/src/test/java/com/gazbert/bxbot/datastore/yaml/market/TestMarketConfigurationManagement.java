@@ -88,6 +88,22 @@ public class TestMarketConfigurationManagement {
     assertEquals("scalping-strategy", marketsType.getMarkets().get(1).getTradingStrategyId());
   }
 
+  @Test
+  public void testCopyingLoadedConfigIsDeep() {
+    final MarketsType marketsType =
+        ConfigurationManager.loadConfig(MarketsType.class, VALID_YAML_CONFIG_FILENAME);
+    final MarketsType marketsTypeCopy = new MarketsType(marketsType);
+
+    assertThat(marketsTypeCopy.getMarkets()).isNotSameAs(marketsType.getMarkets());
+    assertThat(marketsTypeCopy.getMarkets().get(0)).isNotSameAs(marketsType.getMarkets().get(0));
+    assertEquals(
+        marketsType.getMarkets().get(0).getId(), marketsTypeCopy.getMarkets().get(0).getId());
+
+    marketsTypeCopy.getMarkets().clear();
+    assertEquals(2, marketsType.getMarkets().size());
+    assertTrue(new MarketsType(new MarketsType()).getMarkets().isEmpty());
+  }
+
   @Test(expected = IllegalStateException.class)
   public void testLoadingMissingYamlConfigFileThrowsException() {
     ConfigurationManager.loadConfig(MarketsType.class, MISSING_YAML_CONFIG_FILENAME);
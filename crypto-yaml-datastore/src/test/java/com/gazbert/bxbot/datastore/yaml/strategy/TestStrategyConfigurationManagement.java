@@ -139,6 +139,24 @@ public class TestStrategyConfigurationManagement {
         strategyConfig.getStrategies().get(2).getConfigItems()); // optional element check
   }
 
+  @Test
+  public void testCopyingLoadedConfigIsDeep() {
+    final StrategiesType strategiesType =
+        ConfigurationManager.loadConfig(StrategiesType.class, VALID_YAML_CONFIG_FILENAME);
+    final StrategiesType strategiesTypeCopy = new StrategiesType(strategiesType);
+
+    assertThat(strategiesTypeCopy.getStrategies()).isNotSameAs(strategiesType.getStrategies());
+    assertThat(strategiesTypeCopy.getStrategies().get(0))
+        .isNotSameAs(strategiesType.getStrategies().get(0));
+    assertEquals(
+        strategiesType.getStrategies().get(0).getId(),
+        strategiesTypeCopy.getStrategies().get(0).getId());
+
+    strategiesTypeCopy.getStrategies().clear();
+    assertEquals(3, strategiesType.getStrategies().size());
+    assertEquals(0, new StrategiesType(new StrategiesType()).getStrategies().size());
+  }
+
   @Test(expected = IllegalStateException.class)
   public void testLoadingMissingYamlConfigFileThrowsException() {
     ConfigurationManager.loadConfig(StrategiesType.class, MISSING_YAML_CONFIG_FILENAME);